@@ -41,15 +41,13 @@ import us.ihmc.humanoidRobotics.footstep.footstepSnapper.FootstepSnappingParamet
 import us.ihmc.ihmcPerception.depthData.CollisionBoxProvider;
 import us.ihmc.jMonkeyEngineToolkit.jme.util.JMEGeometryUtils;
 import us.ihmc.modelFileLoaders.ModelFileLoaderConversionsHelper;
-import us.ihmc.modelFileLoaders.SdfLoader.DRCRobotSDFLoader;
 import us.ihmc.modelFileLoaders.SdfLoader.GeneralizedSDFRobotModel;
-import us.ihmc.modelFileLoaders.SdfLoader.JaxbSDFLoader;
-import us.ihmc.modelFileLoaders.SdfLoader.RobotDescriptionFromSDFLoader;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFContactSensor;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFDescriptionMutator;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFForceSensor;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFJointHolder;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFLinkHolder;
+import us.ihmc.modelFileLoaders.SdfLoader.SDFRobotDescriptionCache;
 import us.ihmc.modelFileLoaders.SdfLoader.xmlDescription.SDFGeometry;
 import us.ihmc.modelFileLoaders.SdfLoader.xmlDescription.SDFSensor;
 import us.ihmc.modelFileLoaders.SdfLoader.xmlDescription.SDFVisual;
@@ -100,7 +98,7 @@ public class AtlasRobotModel implements DRCRobotModel, SDFDescriptionMutator
 
    public static final boolean BATTERY_MASS_SIMULATOR_IN_ROBOT = false;
 
-   private final JaxbSDFLoader loader;
+   private final SDFRobotDescriptionCache loader;
 
    private final AtlasPhysicalProperties atlasPhysicalProperties;
    private final AtlasJointMap jointMap;
@@ -153,7 +151,7 @@ public class AtlasRobotModel implements DRCRobotModel, SDFDescriptionMutator
 
       this.target = target;
 
-      this.loader = DRCRobotSDFLoader.loadDRCRobot(selectedVersion.getResourceDirectories(), selectedVersion.getSdfFileAsStream(), this);
+      this.loader = new SDFRobotDescriptionCache(selectedVersion.getResourceDirectories(), selectedVersion.getSdfFileAsStream(), this, selectedVersion.name());
 
       sensorInformation = new AtlasSensorInformation(atlasVersion, target);
 
@@ -177,11 +175,7 @@ public class AtlasRobotModel implements DRCRobotModel, SDFDescriptionMutator
    {
       boolean useCollisionMeshes = true;
 
-      GeneralizedSDFRobotModel generalizedSDFRobotModel = getGeneralizedRobotModel();
-      RobotDescriptionFromSDFLoader descriptionLoader = new RobotDescriptionFromSDFLoader();
-      RobotDescription robotDescription = descriptionLoader.loadRobotDescriptionFromSDF(generalizedSDFRobotModel, jointMap, contactPointParameters,
-            useCollisionMeshes);
-      return robotDescription;
+      return loader.createRobotDescription(jointMap, contactPointParameters, useCollisionMeshes);
    }
 
    @Override
@@ -284,7 +278,8 @@ public class AtlasRobotModel implements DRCRobotModel, SDFDescriptionMutator
    @Override
    public FullHumanoidRobotModel createFullRobotModel()
    {
-      RobotDescription robotDescription = loader.createRobotDescription(getJointMap(), getContactPointParameters());
+      boolean useCollisionMeshes = false;
+      RobotDescription robotDescription = loader.createRobotDescription(getJointMap(), getContactPointParameters(), useCollisionMeshes);
       FullHumanoidRobotModel fullRobotModel = new FullHumanoidRobotModelFromDescription(robotDescription, getJointMap(), sensorInformation.getSensorFramesToTrack());
       for (RobotSide robotSide : RobotSide.values())
       {
@@ -347,11 +342,6 @@ public class AtlasRobotModel implements DRCRobotModel, SDFDescriptionMutator
       return CONTROL_DT;
    }
 
-   private GeneralizedSDFRobotModel getGeneralizedRobotModel()
-   {
-      return loader.getGeneralizedSDFRobotModel(getJointMap().getModelName());
-   }
-
    @Override
    public DRCROSPPSTimestampOffsetProvider getPPSTimestampOffsetProvider()
    {
@@ -477,7 +467,7 @@ public class AtlasRobotModel implements DRCRobotModel, SDFDescriptionMutator
    @Override
    public CollisionBoxProvider getCollisionBoxProvider()
    {
-      return new AtlasCollisionBoxProvider(loader, getJointMap());
+      return new AtlasCollisionBoxProvider(loader.getSDFLoader(), getJointMap());
    }
 
    @Override
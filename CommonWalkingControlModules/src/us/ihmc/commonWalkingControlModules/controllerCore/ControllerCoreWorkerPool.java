@@ -0,0 +1,257 @@
+package us.ihmc.commonWalkingControlModules.controllerCore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import us.ihmc.affinity.Affinity;
+import us.ihmc.affinity.Processor;
+
+/**
+ * Small pool of worker threads used by the controller core to split independent computations of a
+ * control tick.
+ * <p>
+ * The items of a job are statically assigned to the participants: the calling thread processes the
+ * items {@code 0, n, 2n, ...}, the worker {@code k} processes the items {@code k, k + n, ...}, where
+ * {@code n} is the number of participants. Each item is always processed by the same thread and the
+ * caller is expected to write the result of each item in its own memory, the reduction being done
+ * afterwards on the calling thread in the item order. This way the result does not depend on the
+ * number of workers or on the scheduling, and is bit-identical to the serial computation.
+ * </p>
+ * <p>
+ * When processors are provided, each worker is pinned to its processor and busy-waits for the next
+ * job, which is the lowest latency option on a control computer with isolated cores. Otherwise the
+ * workers park between jobs. Running a job does not allocate memory.
+ * </p>
+ * <p>
+ * The pool has to be shutdown with {@link #shutdown()} once it is not used anymore to stop the
+ * worker threads.
+ * </p>
+ */
+public class ControllerCoreWorkerPool
+{
+   public interface ParallelJob
+   {
+      /**
+       * Processes one item of the job. Must only write in memory associated with this item.
+       */
+      void compute(int itemIndex);
+   }
+
+   /** Default maximum duration the calling thread waits for the workers to complete a job. */
+   public static final double DEFAULT_MAXIMUM_JOB_DURATION = 1.0;
+
+   private final Worker[] workers;
+   private final boolean busyWait;
+   private final int numberOfParticipants;
+
+   private final AtomicInteger numberOfRunningWorkers = new AtomicInteger();
+   private volatile long jobCounter = 0;
+   private volatile boolean isShutdown = false;
+
+   private ParallelJob currentJob;
+   private int currentNumberOfItems;
+   private long maximumJobDurationNanos = secondsToNanos(DEFAULT_MAXIMUM_JOB_DURATION);
+
+   /**
+    * Creates a pool with {@code numberOfWorkerThreads} threads in addition to the calling thread.
+    *
+    * @param name used to name the worker threads.
+    * @param numberOfWorkerThreads number of threads to create, 0 results in a serial execution.
+    * @param processors optional, processors the workers are pinned to. If provided, there must be
+    *           one processor per worker thread.
+    */
+   public ControllerCoreWorkerPool(String name, int numberOfWorkerThreads, Processor... processors)
+   {
+      if (numberOfWorkerThreads < 0)
+         throw new RuntimeException("The number of worker threads cannot be negative: " + numberOfWorkerThreads);
+
+      boolean pinWorkers = processors != null && processors.length > 0;
+
+      if (pinWorkers && processors.length != numberOfWorkerThreads)
+         throw new RuntimeException("Expected " + numberOfWorkerThreads + " processors, received " + processors.length + ".");
+
+      busyWait = pinWorkers;
+      numberOfParticipants = numberOfWorkerThreads + 1;
+      workers = new Worker[numberOfWorkerThreads];
+
+      for (int i = 0; i < numberOfWorkerThreads; i++)
+      {
+         Processor processor = pinWorkers ? processors[i] : null;
+         workers[i] = new Worker(name + "Worker" + i, i + 1, processor);
+         workers[i].start();
+      }
+   }
+
+   /**
+    * Sets the maximum duration the calling thread waits for the workers to complete a job. When
+    * exceeded, the pool is shutdown and {@link #execute(ParallelJob, int)} throws an exception
+    * instead of blocking the controller thread.
+    *
+    * @param maximumJobDuration the maximum duration in seconds.
+    */
+   public void setMaximumJobDuration(double maximumJobDuration)
+   {
+      maximumJobDurationNanos = secondsToNanos(maximumJobDuration);
+   }
+
+   /**
+    * Processes all the items of the given job, and returns once they are all done.
+    * <p>
+    * An exception or error thrown by a worker is rethrown on the calling thread, the pool remains
+    * usable afterwards.
+    * </p>
+    *
+    * @throws RuntimeException if the workers did not complete the job within the maximum job
+    *            duration, in which case the pool is shutdown.
+    */
+   public void execute(ParallelJob job, int numberOfItems)
+   {
+      if (isShutdown)
+         throw new RuntimeException("This pool has been shutdown.");
+
+      if (workers.length == 0 || numberOfItems <= 1)
+      {
+         for (int itemIndex = 0; itemIndex < numberOfItems; itemIndex++)
+            job.compute(itemIndex);
+         return;
+      }
+
+      currentJob = job;
+      currentNumberOfItems = numberOfItems;
+      numberOfRunningWorkers.set(workers.length);
+      // The volatile write publishes the job to the workers.
+      jobCounter++;
+
+      if (!busyWait)
+      {
+         for (int i = 0; i < workers.length; i++)
+            LockSupport.unpark(workers[i]);
+      }
+
+      Throwable exception = null;
+
+      try
+      {
+         processItems(job, numberOfItems, 0);
+      }
+      catch (Throwable e)
+      {
+         exception = e;
+      }
+
+      long waitStartTime = System.nanoTime();
+
+      while (numberOfRunningWorkers.get() > 0)
+      {
+         // Spin, the workers are processing a small fraction of the tick.
+         if (System.nanoTime() - waitStartTime > maximumJobDurationNanos)
+         {
+            shutdown();
+            throw new RuntimeException("The workers did not complete the job in time, the pool has been shutdown.", exception);
+         }
+      }
+
+      currentJob = null;
+
+      for (int i = 0; i < workers.length; i++)
+      {
+         Throwable workerException = workers[i].exception;
+         if (workerException != null)
+         {
+            workers[i].exception = null;
+            if (exception == null)
+               exception = new RuntimeException("Exception in " + workers[i].getName(), workerException);
+         }
+      }
+
+      if (exception instanceof RuntimeException)
+         throw (RuntimeException) exception;
+      if (exception instanceof Error)
+         throw (Error) exception;
+   }
+
+   private void processItems(ParallelJob job, int numberOfItems, int participantIndex)
+   {
+      for (int itemIndex = participantIndex; itemIndex < numberOfItems; itemIndex += numberOfParticipants)
+         job.compute(itemIndex);
+   }
+
+   /**
+    * Stops the worker threads. The pool cannot be used afterwards.
+    */
+   public void shutdown()
+   {
+      isShutdown = true;
+
+      for (int i = 0; i < workers.length; i++)
+         LockSupport.unpark(workers[i]);
+   }
+
+   public boolean isShutdown()
+   {
+      return isShutdown;
+   }
+
+   /**
+    * @return the number of threads processing a job, including the calling thread.
+    */
+   public int getNumberOfParticipants()
+   {
+      return numberOfParticipants;
+   }
+
+   private class Worker extends Thread
+   {
+      private final int participantIndex;
+      private final Processor processor;
+      private volatile Throwable exception = null;
+
+      private Worker(String name, int participantIndex, Processor processor)
+      {
+         super(name);
+         this.participantIndex = participantIndex;
+         this.processor = processor;
+         setDaemon(true);
+      }
+
+      @Override
+      public void run()
+      {
+         if (processor != null)
+            Affinity.setAffinity(processor);
+
+         long lastJob = 0;
+
+         while (!isShutdown)
+         {
+            if (jobCounter == lastJob)
+            {
+               if (!busyWait)
+                  LockSupport.park(this);
+               continue;
+            }
+
+            lastJob = jobCounter;
+
+            try
+            {
+               processItems(currentJob, currentNumberOfItems, participantIndex);
+            }
+            catch (Throwable e)
+            {
+               // Errors are also caught such that the worker keeps running and the pool does not hang.
+               exception = e;
+            }
+            finally
+            {
+               numberOfRunningWorkers.decrementAndGet();
+            }
+         }
+      }
+   }
+
+   private static long secondsToNanos(double seconds)
+   {
+      return (long) (seconds * 1.0e9);
+   }
+}
@@ -4,6 +4,7 @@ import static us.ihmc.commonWalkingControlModules.visualizer.WrenchVisualizer.*;
 
 import java.util.List;
 
+import us.ihmc.affinity.Processor;
 import us.ihmc.commonWalkingControlModules.configurations.JointPrivilegedConfigurationParameters;
 import us.ihmc.commonWalkingControlModules.inverseKinematics.JointPrivilegedConfigurationHandler;
 import us.ihmc.commonWalkingControlModules.momentumBasedController.GeometricJacobianHolder;
@@ -31,8 +32,9 @@ import us.ihmc.robotics.screwTheory.ScrewTools;
 import us.ihmc.robotics.screwTheory.SpatialAccelerationCalculator;
 import us.ihmc.robotics.screwTheory.TotalMassCalculator;
 import us.ihmc.robotics.screwTheory.TwistCalculator;
+import us.ihmc.tools.thread.CloseableAndDisposable;
 
-public class WholeBodyControlCoreToolbox
+public class WholeBodyControlCoreToolbox implements CloseableAndDisposable
 {
    private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
 
@@ -74,6 +76,8 @@ public class WholeBodyControlCoreToolbox
    private InverseDynamicsQPBoundCalculator qpBoundCalculator;
    private WrenchMatrixCalculator wrenchMatrixCalculator;
 
+   private ControllerCoreWorkerPool workerPool = null;
+
    private boolean enableInverseDynamicsModule = false;
    private boolean enableInverseKinematicsModule = false;
    private boolean enableVirtualModelControlModule = false;
@@ -212,6 +216,48 @@ public class WholeBodyControlCoreToolbox
       this.contactablePlaneBodies = contactablePlaneBodies;
    }
 
+   /**
+    * Enables the parallel execution of the independent computations of the controller core: the
+    * Jacobians of the {@link GeometricJacobianHolder}, which the controller core then updates
+    * itself, and the cost function terms of the motion tasks. The outputs are bit-identical to the
+    * serial execution.
+    * <p>
+    * WARNING: This method has be to called BEFORE creating the {@link WholeBodyControllerCore}.
+    * The worker threads are stopped by {@link #closeAndDispose()}.
+    * </p>
+    * 
+    * @param numberOfWorkerThreads the number of threads to create in addition to the controller
+    *           thread.
+    * @param processors optional, the processors to pin the worker threads to, one per worker
+    *           thread.
+    */
+   public void setupForParallelExecution(int numberOfWorkerThreads, Processor... processors)
+   {
+      if (workerPool != null)
+         workerPool.shutdown();
+      workerPool = new ControllerCoreWorkerPool("ControllerCore", numberOfWorkerThreads, processors);
+   }
+
+   /**
+    * @return the pool to use for parallel execution, {@code null} if the controller core is to run
+    *         serially.
+    */
+   public ControllerCoreWorkerPool getWorkerPool()
+   {
+      return workerPool;
+   }
+
+   /**
+    * Stops the worker threads created with {@link #setupForParallelExecution(int, Processor...)},
+    * if any. The controller core cannot be used afterwards.
+    */
+   @Override
+   public void closeAndDispose()
+   {
+      if (workerPool != null)
+         workerPool.shutdown();
+   }
+
    /**
     * Informs whereas the inverse dynamics module is setup for the controller core using this
     * toolbox.
@@ -12,6 +12,7 @@ import us.ihmc.commonWalkingControlModules.controllerCore.command.lowLevel.LowLe
 import us.ihmc.commonWalkingControlModules.controllerCore.command.lowLevel.RootJointDesiredConfigurationDataReadOnly;
 import us.ihmc.commonWalkingControlModules.controllerCore.command.lowLevel.YoLowLevelOneDoFJointDesiredDataHolder;
 import us.ihmc.commonWalkingControlModules.controllerCore.command.lowLevel.YoRootJointDesiredConfigurationData;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.GeometricJacobianHolder;
 import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.JointIndexHandler;
 import us.ihmc.humanoidRobotics.model.CenterOfPressureDataHolder;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
@@ -38,12 +39,16 @@ public class WholeBodyControllerCore
    private final YoLowLevelOneDoFJointDesiredDataHolder yoLowLevelOneDoFJointDesiredDataHolder;
 
    private OneDoFJoint[] controlledOneDoFJoints;
+   private final GeometricJacobianHolder geometricJacobianHolder;
+   private final ControllerCoreWorkerPool workerPool;
    private final ExecutionTimer controllerCoreComputeTimer = new ExecutionTimer("controllerCoreComputeTimer", 1.0, registry);
    private final ExecutionTimer controllerCoreSubmitTimer = new ExecutionTimer("controllerCoreSubmitTimer", 1.0, registry);
 
    public WholeBodyControllerCore(WholeBodyControlCoreToolbox toolbox, FeedbackControlCommandList allPossibleCommands, YoVariableRegistry parentRegistry)
    {
       feedbackController = new WholeBodyFeedbackController(toolbox, allPossibleCommands, registry);
+      geometricJacobianHolder = toolbox.getGeometricJacobianHolder();
+      workerPool = toolbox.getWorkerPool();
 
       if (toolbox.isEnableInverseDynamicsModule())
          inverseDynamicsSolver = new WholeBodyInverseDynamicsSolver(toolbox, registry);
@@ -184,9 +189,21 @@ public class WholeBodyControllerCore
       controllerCoreSubmitTimer.stopMeasurement();
    }
 
+   /**
+    * Computes the controller core output for the last submitted command.
+    * <p>
+    * When the toolbox is setup for parallel execution, the Jacobians of the
+    * {@link GeometricJacobianHolder} are computed here in parallel, and the user should not update
+    * them beforehand.
+    * </p>
+    */
    public void compute()
    {
       controllerCoreComputeTimer.startMeasurement();
+
+      if (workerPool != null && currentMode.getEnumValue() != WholeBodyControllerCoreMode.OFF)
+         geometricJacobianHolder.compute(workerPool);
+
       switch (currentMode.getEnumValue())
       {
       case INVERSE_DYNAMICS:
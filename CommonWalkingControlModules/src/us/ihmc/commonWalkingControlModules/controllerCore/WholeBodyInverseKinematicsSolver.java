@@ -75,6 +75,14 @@ public class WholeBodyInverseKinematicsSolver
       optimizationControlModule.initialize();
    }
 
+   /**
+    * Enables warm starting the QP with the active set of the previous solve, see {@link InverseKinematicsOptimizationControlModule#setUseWarmStart(boolean)}.
+    */
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      optimizationControlModule.setUseWarmStart(useWarmStart);
+   }
+
    public void compute()
    {
       InverseKinematicsSolution inverseKinematicsSolution;
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import us.ihmc.affinity.Processor;
 import us.ihmc.commonWalkingControlModules.configurations.CapturePointPlannerParameters;
 import us.ihmc.commonWalkingControlModules.configurations.JointPrivilegedConfigurationParameters;
 import us.ihmc.commonWalkingControlModules.configurations.WalkingControllerParameters;
@@ -116,6 +117,8 @@ public class MomentumBasedControllerFactory implements CloseableAndDisposable
    private boolean setupInverseDynamicsSolver = true;
    private boolean setupInverseKinematicsSolver = false;
    private boolean setupVirtualModelControlSolver = false;
+   private int numberOfControllerCoreWorkerThreads = 0;
+   private Processor[] controllerCoreWorkerProcessors = null;
 
    public MomentumBasedControllerFactory(ContactableBodiesFactory contactableBodiesFactory, SideDependentList<String> footForceSensorNames,
                                          SideDependentList<String> footContactSensorNames, SideDependentList<String> wristSensorNames,
@@ -178,6 +181,25 @@ public class MomentumBasedControllerFactory implements CloseableAndDisposable
       setupVirtualModelControlSolver = setup;
    }
 
+   /**
+    * Specifies the number of worker threads the {@link WholeBodyControllerCore} can use to run its
+    * independent computations in parallel. The worker threads are stopped by
+    * {@link #closeAndDispose()}.
+    * <p>
+    * The controller core runs serially by default.
+    * </p>
+    * 
+    * @param numberOfWorkerThreads the number of threads to create in addition to the controller
+    *           thread.
+    * @param processors optional, the processors to pin the worker threads to, one per worker
+    *           thread.
+    */
+   public void setupControllerCoreParallelExecution(int numberOfWorkerThreads, Processor... processors)
+   {
+      numberOfControllerCoreWorkerThreads = numberOfWorkerThreads;
+      controllerCoreWorkerProcessors = processors;
+   }
+
    public void setHeadingAndVelocityEvaluationScriptParameters(HeadingAndVelocityEvaluationScriptParameters walkingScriptParameters)
    {
       headingAndVelocityEvaluationScriptParameters = walkingScriptParameters;
@@ -371,6 +393,13 @@ public class MomentumBasedControllerFactory implements CloseableAndDisposable
          RigidBody[] controlledBodies = {fullRobotModel.getPelvis(), fullRobotModel.getFoot(RobotSide.LEFT), fullRobotModel.getFoot(RobotSide.RIGHT)};
          toolbox.setupForVirtualModelControlSolver(fullRobotModel.getPelvis(), controlledBodies, contactablePlaneBodies);
       }
+      if (numberOfControllerCoreWorkerThreads > 0)
+      {
+         toolbox.setupForParallelExecution(numberOfControllerCoreWorkerThreads, controllerCoreWorkerProcessors);
+         // The controller core computes the Jacobians in parallel.
+         controllerToolbox.disableJacobianUpdate();
+      }
+      closeableAndDisposableRegistry.registerCloseableAndDisposable(toolbox);
       FeedbackControlCommandList template = managerFactory.createFeedbackControlTemplate();
       WholeBodyControllerCore controllerCore = new WholeBodyControllerCore(toolbox, template, registry);
       ControllerCoreOutputReadOnly controllerCoreOutput = controllerCore.getOutputForHighLevelController();
@@ -43,6 +43,8 @@ public class InverseKinematicsOptimizationControlModule
    private final DenseMatrix64F qDotMinMatrix, qDotMaxMatrix;
    private final JointIndexHandler jointIndexHandler;
 
+   private final InverseKinematicsSolution inverseKinematicsSolution;
+
    private final BooleanYoVariable hasNotConvergedInPast = new BooleanYoVariable("hasNotConvergedInPast", registry);
    private final IntegerYoVariable hasNotConvergedCounts = new IntegerYoVariable("hasNotConvergedCounts", registry);
 
@@ -69,6 +71,7 @@ public class InverseKinematicsOptimizationControlModule
       }
 
       qpSolver = new InverseKinematicsQPSolver(numberOfDoFs, registry);
+      inverseKinematicsSolution = new InverseKinematicsSolution(jointsToOptimizeFor, qpSolver.getJointVelocities());
 
       parentRegistry.addChild(registry);
    }
@@ -106,15 +109,17 @@ public class InverseKinematicsOptimizationControlModule
          noConvergenceException = e;
       }
 
-      DenseMatrix64F jointVelocities = qpSolver.getJointVelocities();
-      InverseKinematicsSolution inverseKinematicsSolution = new InverseKinematicsSolution(jointsToOptimizeFor, jointVelocities);
-
       if (noConvergenceException != null)
          throw new InverseKinematicsOptimizationException(noConvergenceException, inverseKinematicsSolution);
 
       return inverseKinematicsSolution;
    }
 
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      qpSolver.setUseWarmStart(useWarmStart);
+   }
+
    private void computeJointVelocityLimits()
    {
       boundCalculator.computeJointVelocityLimits(qDotMinMatrix, qDotMaxMatrix);
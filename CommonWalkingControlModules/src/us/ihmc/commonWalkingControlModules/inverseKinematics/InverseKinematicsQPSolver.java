@@ -184,6 +184,15 @@ public class InverseKinematicsQPSolver
       return desiredJointVelocities;
    }
 
+   /**
+    * When enabled, the active set of the previous solve is used as the initial guess of the next one.
+    * This speeds up consecutive solves of similar problems, as when iterating on the same inverse kinematics request.
+    */
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      qpSolver.setUseWarmStart(useWarmStart);
+   }
+
    public void setRegularizationWeight(double weight)
    {
       jointVelocityRegularization.set(weight);
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import gnu.trove.map.hash.TLongObjectHashMap;
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool;
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool.ParallelJob;
 import us.ihmc.robotics.nameBasedHashCode.NameBasedHashCodeTools;
 import us.ihmc.robotics.referenceFrames.ReferenceFrame;
 import us.ihmc.robotics.screwTheory.GeometricJacobian;
@@ -33,6 +35,42 @@ public class GeometricJacobianHolder
       }
    }
 
+   private final ParallelJob computeJacobianJob = new ParallelJob()
+   {
+      @Override
+      public void compute(int itemIndex)
+      {
+         geometricJacobians.get(itemIndex).compute();
+      }
+   };
+
+   /**
+    * Same as {@link #compute()} but the Jacobians are computed in parallel using the given pool.
+    * <p>
+    * The reference frames update their transform to root lazily, so they are all updated here
+    * first such that the Jacobians only read them.
+    * </p>
+    */
+   public void compute(ControllerCoreWorkerPool workerPool)
+   {
+      for (int i = 0; i < geometricJacobians.size(); i++)
+      {
+         GeometricJacobian jacobian = geometricJacobians.get(i);
+         jacobian.getJacobianFrame().getTransformToRoot();
+
+         InverseDynamicsJoint[] joints = jacobian.getJointsInOrder();
+         for (int jointIndex = 0; jointIndex < joints.length; jointIndex++)
+         {
+            InverseDynamicsJoint joint = joints[jointIndex];
+            joint.getFrameBeforeJoint().getTransformToRoot();
+            joint.getFrameAfterJoint().getTransformToRoot();
+            joint.getSuccessor().getBodyFixedFrame().getTransformToRoot();
+         }
+      }
+
+      workerPool.execute(computeJacobianJob, geometricJacobians.size());
+   }
+
    /**
     * Find or create a Jacobian and register it in the {@link HighLevelHumanoidControllerToolbox}.
     * It returns an jacobianId with which it is possible to find the Jacobian later with the method getJacobian(int jacobianId).
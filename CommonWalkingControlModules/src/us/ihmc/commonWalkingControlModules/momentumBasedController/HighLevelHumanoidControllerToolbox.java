@@ -114,6 +114,7 @@ public class HighLevelHumanoidControllerToolbox
    private final SideDependentList<DoubleYoVariable> handsMass;
 
    private final GeometricJacobianHolder robotJacobianHolder;
+   private boolean updateJacobians = true;
 
    private final SideDependentList<FootSwitchInterface> footSwitches;
    private final SideDependentList<ForceSensorDataReadOnly> wristForceSensors;
@@ -404,6 +405,16 @@ public class HighLevelHumanoidControllerToolbox
       return footContactStates;
    }
 
+   /**
+    * Leaves the update of the Jacobians to the {@code WholeBodyControllerCore}, which computes them
+    * in parallel when it is setup for parallel execution. The Jacobians are then only up to date
+    * once the controller core has been computed.
+    */
+   public void disableJacobianUpdate()
+   {
+      updateJacobians = false;
+   }
+
    public void update()
    {
       referenceFrames.updateFrames();
@@ -419,7 +430,8 @@ public class HighLevelHumanoidControllerToolbox
 
       computeAngularMomentum();
 
-      robotJacobianHolder.compute();
+      if (updateJacobians)
+         robotJacobianHolder.compute();
 
       for (int i = 0; i < updatables.size(); i++)
          updatables.get(i).update(yoTime.getDoubleValue());
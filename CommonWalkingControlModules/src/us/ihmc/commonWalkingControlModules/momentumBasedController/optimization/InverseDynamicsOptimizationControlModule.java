@@ -118,6 +118,7 @@ public class InverseDynamicsOptimizationControlModule
       qpSolver = new InverseDynamicsQPSolver(numberOfDoFs, rhoSize, hasFloatingBase, registry);
       qpSolver.setAccelerationRegularizationWeight(optimizationSettings.getJointAccelerationWeight());
       qpSolver.setJerkRegularizationWeight(optimizationSettings.getJointJerkWeight());
+      qpSolver.setWorkerPool(toolbox.getWorkerPool());
 
       parentRegistry.addChild(registry);
    }
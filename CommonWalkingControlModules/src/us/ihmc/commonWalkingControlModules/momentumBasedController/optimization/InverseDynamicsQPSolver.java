@@ -3,6 +3,7 @@ package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization
 import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
 
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool;
 import us.ihmc.convexOptimization.quadraticProgram.SimpleEfficientActiveSetQPSolver;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
@@ -57,6 +58,8 @@ public class InverseDynamicsQPSolver
    private final DenseMatrix64F tempRhoTask_H;
    private final DenseMatrix64F tempRhoTask_f;
 
+   private ParallelMotionTaskAccumulator parallelMotionTaskAccumulator = null;
+
    private final int numberOfDoFs;
    private final int rhoSize;
    private final int problemSize;
@@ -121,6 +124,21 @@ public class InverseDynamicsQPSolver
       parentRegistry.addChild(registry);
    }
 
+   /**
+    * Enables the parallel computation of the motion task terms of the cost function. The motion
+    * tasks are then only stored when added and their terms are computed by the given pool when
+    * needed, resulting in the same H and f as the serial computation.
+    * 
+    * @param workerPool the pool to use, {@code null} to go back to the serial computation.
+    */
+   public void setWorkerPool(ControllerCoreWorkerPool workerPool)
+   {
+      if (workerPool == null)
+         parallelMotionTaskAccumulator = null;
+      else
+         parallelMotionTaskAccumulator = new ParallelMotionTaskAccumulator(numberOfDoFs, workerPool);
+   }
+
    public void setAccelerationRegularizationWeight(double weight)
    {
       jointAccelerationRegularization.set(weight);
@@ -145,6 +163,9 @@ public class InverseDynamicsQPSolver
 
       solverInput_f.zero();
 
+      if (parallelMotionTaskAccumulator != null)
+         parallelMotionTaskAccumulator.clear();
+
       solverInput_Aeq.reshape(0, problemSize);
       solverInput_beq.reshape(0, 1);
 
@@ -178,6 +199,12 @@ public class InverseDynamicsQPSolver
 
    public void addMotionTask(DenseMatrix64F taskJ, DenseMatrix64F taskObjective, double taskWeight)
    {
+      if (parallelMotionTaskAccumulator != null)
+      {
+         parallelMotionTaskAccumulator.addMotionTask(taskJ, taskObjective, taskWeight);
+         return;
+      }
+
       int taskSize = taskJ.getNumRows();
 
       // J^T W
@@ -189,6 +216,12 @@ public class InverseDynamicsQPSolver
 
    public void addMotionTask(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F taskWeight)
    {
+      if (parallelMotionTaskAccumulator != null)
+      {
+         parallelMotionTaskAccumulator.addMotionTask(taskJacobian, taskObjective, taskWeight);
+         return;
+      }
+
       int taskSize = taskJacobian.getNumRows();
 
       // J^T W
@@ -209,6 +242,17 @@ public class InverseDynamicsQPSolver
       MatrixTools.addMatrixBlock(solverInput_f, 0, 0, tempMotionTask_f, 0, 0, numberOfDoFs, 1, -1.0);
    }
 
+   /**
+    * Adds the terms of the motion tasks stored for parallel computation. It has to be done before
+    * any other operation on the joint acceleration block of H and f to preserve the order of the
+    * additions.
+    */
+   private void addPendingMotionTasks()
+   {
+      if (parallelMotionTaskAccumulator != null)
+         parallelMotionTaskAccumulator.computeAndAddTo(solverInput_H, solverInput_f);
+   }
+
    public void addMotionConstraint(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective)
    {
       int taskSize = taskJacobian.getNumRows();
@@ -241,6 +285,8 @@ public class InverseDynamicsQPSolver
    public void setupWrenchesEquilibriumConstraint(DenseMatrix64F centroidalMomentumMatrix, DenseMatrix64F rhoJacobian, DenseMatrix64F convectiveTerm,
          DenseMatrix64F additionalExternalWrench, DenseMatrix64F gravityWrench)
    {
+      addPendingMotionTasks();
+
       if (!hasFloatingBase)
       {
          hasWrenchesEquilibriumConstraintBeenSetup = true;
@@ -323,6 +369,7 @@ public class InverseDynamicsQPSolver
       if (!hasWrenchesEquilibriumConstraintBeenSetup)
          throw new RuntimeException("The wrench equilibrium constraint has to be setup before calling solve().");
 
+      addPendingMotionTasks();
       addRegularization();
 
       numberOfEqualityConstraints.set(solverInput_Aeq.getNumRows());
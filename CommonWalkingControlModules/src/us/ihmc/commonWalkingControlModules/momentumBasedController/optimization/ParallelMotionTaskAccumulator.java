@@ -0,0 +1,155 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool;
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool.ParallelJob;
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+
+/**
+ * Defers the computation of the motion task cost terms of a QP such that they can be computed in
+ * parallel:
+ * <p>
+ * H<sub>i</sub> = J<sub>i</sub><sup>T</sup> W<sub>i</sub> J<sub>i</sub> <br>
+ * f<sub>i</sub> = - J<sub>i</sub><sup>T</sup> W<sub>i</sub> Objective<sub>i</sub>
+ * </p>
+ * Each task term is computed in its own memory and the terms are then added to H and f on the
+ * calling thread in the order the tasks were submitted. The operations are the same as when the
+ * tasks are added one after the other, so the result is bit-identical to the serial computation.
+ * <p>
+ * The memory for the tasks is allocated the first time a given number of tasks is reached and
+ * reused afterwards.
+ * </p>
+ */
+public class ParallelMotionTaskAccumulator
+{
+   private final int numberOfDoFs;
+   private final ControllerCoreWorkerPool workerPool;
+
+   private final List<MotionTaskTerm> taskTerms = new ArrayList<>();
+   private int numberOfTasks = 0;
+
+   private final ParallelJob computeTaskTermsJob = new ParallelJob()
+   {
+      @Override
+      public void compute(int itemIndex)
+      {
+         taskTerms.get(itemIndex).compute();
+      }
+   };
+
+   public ParallelMotionTaskAccumulator(int numberOfDoFs, ControllerCoreWorkerPool workerPool)
+   {
+      this.numberOfDoFs = numberOfDoFs;
+      this.workerPool = workerPool;
+   }
+
+   public void clear()
+   {
+      numberOfTasks = 0;
+   }
+
+   public boolean isEmpty()
+   {
+      return numberOfTasks == 0;
+   }
+
+   public int getNumberOfTasks()
+   {
+      return numberOfTasks;
+   }
+
+   public void addMotionTask(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, double taskWeight)
+   {
+      MotionTaskTerm taskTerm = nextTaskTerm();
+      taskTerm.set(taskJacobian, taskObjective);
+      taskTerm.useWeightScalar = true;
+      taskTerm.weightScalar = taskWeight;
+   }
+
+   public void addMotionTask(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective, DenseMatrix64F taskWeight)
+   {
+      MotionTaskTerm taskTerm = nextTaskTerm();
+      taskTerm.set(taskJacobian, taskObjective);
+      taskTerm.useWeightScalar = false;
+      taskTerm.weightMatrix.set(taskWeight);
+   }
+
+   private MotionTaskTerm nextTaskTerm()
+   {
+      if (numberOfTasks == taskTerms.size())
+         taskTerms.add(new MotionTaskTerm(numberOfDoFs));
+      return taskTerms.get(numberOfTasks++);
+   }
+
+   /**
+    * Computes the terms of all the pending tasks and adds them to the upper-left block of the given
+    * H and f. The pending tasks are cleared afterwards.
+    */
+   public void computeAndAddTo(DenseMatrix64F hToModify, DenseMatrix64F fToModify)
+   {
+      if (numberOfTasks == 0)
+         return;
+
+      workerPool.execute(computeTaskTermsJob, numberOfTasks);
+
+      for (int i = 0; i < numberOfTasks; i++)
+      {
+         MotionTaskTerm taskTerm = taskTerms.get(i);
+         MatrixTools.addMatrixBlock(hToModify, 0, 0, taskTerm.taskH, 0, 0, numberOfDoFs, numberOfDoFs, 1.0);
+         MatrixTools.addMatrixBlock(fToModify, 0, 0, taskTerm.taskf, 0, 0, numberOfDoFs, 1, -1.0);
+      }
+
+      clear();
+   }
+
+   private static class MotionTaskTerm
+   {
+      private final DenseMatrix64F taskJacobian;
+      private final DenseMatrix64F taskObjective;
+      private final DenseMatrix64F weightMatrix;
+      private boolean useWeightScalar;
+      private double weightScalar;
+
+      private final DenseMatrix64F taskJtW;
+      private final DenseMatrix64F taskH;
+      private final DenseMatrix64F taskf;
+
+      private MotionTaskTerm(int numberOfDoFs)
+      {
+         taskJacobian = new DenseMatrix64F(0, numberOfDoFs);
+         taskObjective = new DenseMatrix64F(0, 1);
+         weightMatrix = new DenseMatrix64F(0, 0);
+         taskJtW = new DenseMatrix64F(numberOfDoFs, 0);
+         taskH = new DenseMatrix64F(numberOfDoFs, numberOfDoFs);
+         taskf = new DenseMatrix64F(numberOfDoFs, 1);
+      }
+
+      private void set(DenseMatrix64F taskJacobian, DenseMatrix64F taskObjective)
+      {
+         this.taskJacobian.set(taskJacobian);
+         this.taskObjective.set(taskObjective);
+      }
+
+      private void compute()
+      {
+         int taskSize = taskJacobian.getNumRows();
+
+         // J^T W
+         taskJtW.reshape(taskJacobian.getNumCols(), taskSize);
+         if (useWeightScalar)
+            MatrixTools.scaleTranspose(weightScalar, taskJacobian, taskJtW);
+         else
+            CommonOps.multTransA(taskJacobian, weightMatrix, taskJtW);
+
+         // J^T W J
+         CommonOps.mult(taskJtW, taskJacobian, taskH);
+         // J^T W Objective
+         CommonOps.mult(taskJtW, taskObjective, taskf);
+      }
+   }
+}
@@ -0,0 +1,195 @@
+package us.ihmc.commonWalkingControlModules.controllerCore;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool.ParallelJob;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ControllerCoreWorkerPoolTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testAllItemsAreProcessedOnce()
+   {
+      for (int numberOfWorkerThreads = 0; numberOfWorkerThreads < 4; numberOfWorkerThreads++)
+      {
+         ControllerCoreWorkerPool workerPool = new ControllerCoreWorkerPool("test", numberOfWorkerThreads);
+         assertEquals(numberOfWorkerThreads + 1, workerPool.getNumberOfParticipants());
+
+         for (int numberOfItems = 0; numberOfItems < 20; numberOfItems++)
+         {
+            final int[] counters = new int[numberOfItems];
+            final String[] threadNames = new String[numberOfItems];
+
+            ParallelJob job = new ParallelJob()
+            {
+               @Override
+               public void compute(int itemIndex)
+               {
+                  counters[itemIndex]++;
+                  threadNames[itemIndex] = Thread.currentThread().getName();
+               }
+            };
+
+            for (int iteration = 0; iteration < 100; iteration++)
+               workerPool.execute(job, numberOfItems);
+
+            for (int i = 0; i < numberOfItems; i++)
+            {
+               assertEquals(100, counters[i]);
+               // An item is always processed by the same participant, the calling thread if there is a single item.
+               if (numberOfItems > 1 && i % workerPool.getNumberOfParticipants() != 0)
+                  assertEquals("testWorker" + (i % workerPool.getNumberOfParticipants() - 1), threadNames[i]);
+               else
+                  assertEquals(Thread.currentThread().getName(), threadNames[i]);
+            }
+         }
+
+         workerPool.shutdown();
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testWorkerExceptionIsRethrown()
+   {
+      ControllerCoreWorkerPool workerPool = new ControllerCoreWorkerPool("test", 2);
+
+      ParallelJob job = new ParallelJob()
+      {
+         @Override
+         public void compute(int itemIndex)
+         {
+            if (itemIndex == 1)
+               throw new IllegalStateException("Item " + itemIndex);
+         }
+      };
+
+      try
+      {
+         workerPool.execute(job, 3);
+         fail("The exception thrown by the worker was not rethrown.");
+      }
+      catch (RuntimeException e)
+      {
+         assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+
+      // The pool is still usable after an exception.
+      final boolean[] processed = new boolean[3];
+      workerPool.execute(new ParallelJob()
+      {
+         @Override
+         public void compute(int itemIndex)
+         {
+            processed[itemIndex] = true;
+         }
+      }, 3);
+
+      for (int i = 0; i < 3; i++)
+         assertTrue(processed[i]);
+
+      workerPool.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testWorkerErrorIsRethrown()
+   {
+      ControllerCoreWorkerPool workerPool = new ControllerCoreWorkerPool("test", 2);
+
+      ParallelJob job = new ParallelJob()
+      {
+         @Override
+         public void compute(int itemIndex)
+         {
+            if (itemIndex == 2)
+               throw new AssertionError("Item " + itemIndex);
+         }
+      };
+
+      for (int iteration = 0; iteration < 3; iteration++)
+      {
+         try
+         {
+            workerPool.execute(job, 3);
+            fail("The error thrown by the worker was not rethrown.");
+         }
+         catch (RuntimeException e)
+         {
+            assertTrue(e.getCause() instanceof AssertionError);
+         }
+      }
+
+      // The worker survived the errors.
+      final boolean[] processed = new boolean[3];
+      workerPool.execute(new ParallelJob()
+      {
+         @Override
+         public void compute(int itemIndex)
+         {
+            processed[itemIndex] = true;
+         }
+      }, 3);
+
+      for (int i = 0; i < 3; i++)
+         assertTrue(processed[i]);
+
+      workerPool.shutdown();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testWaitForWorkersIsBounded()
+   {
+      ControllerCoreWorkerPool workerPool = new ControllerCoreWorkerPool("test", 1);
+      workerPool.setMaximumJobDuration(0.05);
+
+      final CountDownLatch blockedWorkerLatch = new CountDownLatch(1);
+      ParallelJob job = new ParallelJob()
+      {
+         @Override
+         public void compute(int itemIndex)
+         {
+            if (itemIndex == 1)
+            {
+               try
+               {
+                  blockedWorkerLatch.await();
+               }
+               catch (InterruptedException e)
+               {
+               }
+            }
+         }
+      };
+
+      try
+      {
+         workerPool.execute(job, 2);
+         fail("The calling thread should not wait forever for a blocked worker.");
+      }
+      catch (RuntimeException e)
+      {
+         assertTrue(workerPool.isShutdown());
+      }
+      finally
+      {
+         blockedWorkerLatch.countDown();
+      }
+
+      try
+      {
+         workerPool.execute(job, 2);
+         fail("A pool that has been shutdown cannot be used.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+   }
+}
@@ -0,0 +1,66 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.junit.Test;
+
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.screwTheory.RevoluteJoint;
+import us.ihmc.robotics.screwTheory.RigidBody;
+import us.ihmc.robotics.screwTheory.ScrewTestTools;
+
+public class GeometricJacobianHolderTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testParallelComputationIsBitIdenticalToSerial()
+   {
+      Random random = new Random(2342L);
+      List<RevoluteJoint> joints = ScrewTestTools.createRandomTreeRobot(30, random);
+      OneDoFJoint[] jointArray = joints.toArray(new OneDoFJoint[joints.size()]);
+      RigidBody rootBody = joints.get(0).getPredecessor();
+
+      GeometricJacobianHolder geometricJacobianHolder = new GeometricJacobianHolder();
+      long[] jacobianIds = new long[joints.size()];
+      for (int i = 0; i < joints.size(); i++)
+      {
+         RigidBody endEffector = joints.get(i).getSuccessor();
+         jacobianIds[i] = geometricJacobianHolder.getOrCreateGeometricJacobian(rootBody, endEffector, endEffector.getBodyFixedFrame());
+      }
+
+      ControllerCoreWorkerPool workerPool = new ControllerCoreWorkerPool("test", 3);
+      DenseMatrix64F[] parallelJacobians = new DenseMatrix64F[joints.size()];
+
+      for (int iteration = 0; iteration < 50; iteration++)
+      {
+         ScrewTestTools.setRandomPositions(jointArray, random, -Math.PI, Math.PI);
+         rootBody.updateFramesRecursively();
+
+         // Computed in parallel first, such that the workers are the first to use the updated frames.
+         geometricJacobianHolder.compute(workerPool);
+         for (int i = 0; i < joints.size(); i++)
+            parallelJacobians[i] = new DenseMatrix64F(geometricJacobianHolder.getJacobian(jacobianIds[i]).getJacobianMatrix());
+
+         geometricJacobianHolder.compute();
+         for (int i = 0; i < joints.size(); i++)
+            assertBitIdentical(geometricJacobianHolder.getJacobian(jacobianIds[i]).getJacobianMatrix(), parallelJacobians[i]);
+      }
+
+      workerPool.shutdown();
+   }
+
+   private static void assertBitIdentical(DenseMatrix64F expected, DenseMatrix64F actual)
+   {
+      assertEquals(expected.getNumRows(), actual.getNumRows());
+      assertEquals(expected.getNumCols(), actual.getNumCols());
+
+      for (int i = 0; i < expected.getNumElements(); i++)
+         assertEquals(Double.doubleToLongBits(expected.get(i)), Double.doubleToLongBits(actual.get(i)));
+   }
+}
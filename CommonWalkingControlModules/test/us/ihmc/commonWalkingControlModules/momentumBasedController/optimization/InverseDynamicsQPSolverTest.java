@@ -0,0 +1,90 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import us.ihmc.commonWalkingControlModules.controllerCore.ControllerCoreWorkerPool;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.tools.exceptions.NoConvergenceException;
+
+public class InverseDynamicsQPSolverTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testParallelMotionTasksAreBitIdenticalToSerial() throws NoConvergenceException
+   {
+      Random random = new Random(4354L);
+      int numberOfDoFs = 20;
+      int rhoSize = 8;
+
+      InverseDynamicsQPSolver serialSolver = new InverseDynamicsQPSolver(numberOfDoFs, rhoSize, false, new YoVariableRegistry("serial"));
+      InverseDynamicsQPSolver parallelSolver = new InverseDynamicsQPSolver(numberOfDoFs, rhoSize, false, new YoVariableRegistry("parallel"));
+      ControllerCoreWorkerPool workerPool = new ControllerCoreWorkerPool("test", 3);
+      parallelSolver.setWorkerPool(workerPool);
+
+      for (int tick = 0; tick < 10; tick++)
+      {
+         serialSolver.reset();
+         parallelSolver.reset();
+
+         int numberOfTasks = 1 + random.nextInt(8);
+
+         for (int taskIndex = 0; taskIndex < numberOfTasks; taskIndex++)
+         {
+            int taskSize = 1 + random.nextInt(6);
+            DenseMatrix64F taskJacobian = RandomMatrices.createRandom(taskSize, numberOfDoFs, -1.0, 1.0, random);
+            DenseMatrix64F taskObjective = RandomMatrices.createRandom(taskSize, 1, -10.0, 10.0, random);
+
+            if (random.nextBoolean())
+            {
+               double taskWeight = 10.0 * random.nextDouble();
+               serialSolver.addMotionTask(taskJacobian, taskObjective, taskWeight);
+               parallelSolver.addMotionTask(taskJacobian, taskObjective, taskWeight);
+            }
+            else
+            {
+               DenseMatrix64F taskWeight = RandomMatrices.createDiagonal(taskSize, 0.0, 10.0, random);
+               serialSolver.addMotionTask(taskJacobian, taskObjective, taskWeight);
+               parallelSolver.addMotionTask(taskJacobian, taskObjective, taskWeight);
+            }
+         }
+
+         DenseMatrix64F rhoObjective = RandomMatrices.createRandom(rhoSize, 1, -1.0, 1.0, random);
+         DenseMatrix64F rhoWeight = CommonOps.identity(rhoSize);
+         serialSolver.addRhoTask(rhoObjective, rhoWeight);
+         parallelSolver.addRhoTask(rhoObjective, rhoWeight);
+
+         serialSolver.setupWrenchesEquilibriumConstraint(null, null, null, null, null);
+         parallelSolver.setupWrenchesEquilibriumConstraint(null, null, null, null, null);
+
+         // Task added after the equilibrium constraint, as done for the privileged configuration.
+         DenseMatrix64F lastTaskJacobian = RandomMatrices.createRandom(numberOfDoFs, numberOfDoFs, -1.0, 1.0, random);
+         DenseMatrix64F lastTaskObjective = RandomMatrices.createRandom(numberOfDoFs, 1, -1.0, 1.0, random);
+         serialSolver.addMotionTask(lastTaskJacobian, lastTaskObjective, 0.1);
+         parallelSolver.addMotionTask(lastTaskJacobian, lastTaskObjective, 0.1);
+
+         serialSolver.solve();
+         parallelSolver.solve();
+
+         assertBitIdentical(serialSolver.getJointAccelerations(), parallelSolver.getJointAccelerations());
+         assertBitIdentical(serialSolver.getRhos(), parallelSolver.getRhos());
+      }
+
+      workerPool.shutdown();
+   }
+
+   private static void assertBitIdentical(DenseMatrix64F expected, DenseMatrix64F actual)
+   {
+      assertEquals(expected.getNumElements(), actual.getNumElements());
+
+      for (int i = 0; i < expected.getNumElements(); i++)
+         assertEquals(Double.doubleToLongBits(expected.get(i)), Double.doubleToLongBits(actual.get(i)));
+   }
+}
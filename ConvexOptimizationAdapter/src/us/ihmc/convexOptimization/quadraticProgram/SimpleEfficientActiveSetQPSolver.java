@@ -4,6 +4,7 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.factory.LinearSolverFactory;
 import org.ejml.interfaces.linsol.LinearSolver;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
 
 import gnu.trove.list.array.TIntArrayList;
 import us.ihmc.robotics.linearAlgebra.MatrixTools;
@@ -62,6 +63,8 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
    private final DenseMatrix64F CHatTranspose = new DenseMatrix64F(0, 0);
 
    private final DenseMatrix64F QInverse = new DenseMatrix64F(0, 0);
+   // Copy of the quadratic cost matrix QInverse was computed from, to skip the inversion when the cost matrix did not change.
+   private final DenseMatrix64F invertedQuadraticCostQMatrix = new DenseMatrix64F(0, 0);
    private final DenseMatrix64F AQInverse = new DenseMatrix64F(0, 0);
    private final DenseMatrix64F QInverseATranspose = new DenseMatrix64F(0, 0);
    private final DenseMatrix64F CBarQInverse = new DenseMatrix64F(0, 0);
@@ -453,10 +456,15 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
 
       ATranspose.reshape(linearEqualityConstraintsAMatrix.getNumCols(), linearEqualityConstraintsAMatrix.getNumRows());
       CommonOps.transpose(linearEqualityConstraintsAMatrix, ATranspose);
-      QInverse.reshape(numberOfVariables, numberOfVariables);
 
-      solver.setA(quadraticCostQMatrix);
-      solver.invert(QInverse);
+      if (!MatrixFeatures.isIdentical(quadraticCostQMatrix, invertedQuadraticCostQMatrix, 0.0))
+      {
+         QInverse.reshape(numberOfVariables, numberOfVariables);
+
+         solver.setA(quadraticCostQMatrix);
+         solver.invert(QInverse);
+         invertedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+      }
 
       AQInverse.reshape(numberOfEqualityConstraints, numberOfVariables);
       QInverseATranspose.reshape(numberOfVariables, numberOfEqualityConstraints);
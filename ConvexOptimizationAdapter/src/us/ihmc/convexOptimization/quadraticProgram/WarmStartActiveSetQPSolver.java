@@ -0,0 +1,120 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import org.ejml.data.DenseMatrix64F;
+
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+import us.ihmc.tools.exceptions.NoConvergenceException;
+
+/**
+ * {@link ConstrainedQPSolver} for the small problems that are solved at every control tick. The
+ * problem is solved by a {@link SimpleEfficientActiveSetQPSolver} starting from the active set of
+ * the previous solve, so a problem that only changed slightly since the previous tick usually
+ * converges in one or two iterations. The inverse of the quadratic cost matrix is only recomputed
+ * when the matrix changes.
+ * <p>
+ * When the active set solver does not converge, the active set is cleared and the problem is
+ * solved from scratch with a {@link QuadProgSolver}. Setting {@code initialize} to true, or calling
+ * {@link #resetActiveSet()}, discards the previous active set, which should be done when the
+ * structure of the problem changes without changing its size.
+ * </p>
+ */
+public class WarmStartActiveSetQPSolver extends ConstrainedQPSolver
+{
+   private final SimpleEfficientActiveSetQPSolver activeSetSolver;
+   private final ConstrainedQPSolver fullSolver = new QuadProgSolver();
+
+   private final DenseMatrix64F emptyEqualityMatrix = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F emptyEqualityVector = new DenseMatrix64F(0, 1);
+
+   private int numberOfIterations = 0;
+   private long numberOfFullSolves = 0;
+
+   public WarmStartActiveSetQPSolver()
+   {
+      this(new SimpleEfficientActiveSetQPSolver());
+   }
+
+   /**
+    * @param activeSetSolver the solver used for the warm started solves, for instance a
+    *           {@link SimpleDiagonalActiveSetQPSolver} when the quadratic cost matrix is diagonal.
+    */
+   public WarmStartActiveSetQPSolver(SimpleEfficientActiveSetQPSolver activeSetSolver)
+   {
+      this.activeSetSolver = activeSetSolver;
+      activeSetSolver.setUseWarmStart(true);
+   }
+
+   public void setMaxNumberOfIterations(int maxNumberOfIterations)
+   {
+      activeSetSolver.setMaxNumberOfIterations(maxNumberOfIterations);
+   }
+
+   public void resetActiveSet()
+   {
+      activeSetSolver.resetActiveConstraints();
+   }
+
+   @Override
+   public int solve(DenseMatrix64F Q, DenseMatrix64F f, DenseMatrix64F Aeq, DenseMatrix64F beq, DenseMatrix64F Ain, DenseMatrix64F bin, DenseMatrix64F x,
+                    boolean initialize)
+         throws NoConvergenceException
+   {
+      if (initialize)
+         resetActiveSet();
+
+      if (Aeq == null)
+      {
+         emptyEqualityMatrix.reshape(0, Q.getNumCols());
+         Aeq = emptyEqualityMatrix;
+         beq = emptyEqualityVector;
+      }
+
+      activeSetSolver.clear();
+      activeSetSolver.setQuadraticCostFunction(Q, f, 0.0);
+      activeSetSolver.setLinearEqualityConstraints(Aeq, beq);
+      if (Ain != null)
+         activeSetSolver.setLinearInequalityConstraints(Ain, bin);
+
+      numberOfIterations = activeSetSolver.solve(x);
+
+      if (MatrixTools.containsNaN(x))
+      {
+         numberOfFullSolves++;
+         resetActiveSet();
+         return fullSolver.solve(Q, f, Aeq, beq, Ain, bin, x, true);
+      }
+
+      return numberOfIterations;
+   }
+
+   @Override
+   public int solve(DenseMatrix64F Q, DenseMatrix64F f, DenseMatrix64F Aeq, DenseMatrix64F beq, DenseMatrix64F Ain, DenseMatrix64F bin, DenseMatrix64F lb,
+                    DenseMatrix64F ub, DenseMatrix64F x, boolean initialize)
+         throws NoConvergenceException
+   {
+      throw new RuntimeException("Not Implemented");
+   }
+
+   @Override
+   public boolean supportBoxConstraints()
+   {
+      return false;
+   }
+
+   /**
+    * @return the number of active set iterations of the last solve.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
+   /**
+    * @return the number of times the active set solver did not converge and the problem was solved
+    *         from scratch.
+    */
+   public long getNumberOfFullSolves()
+   {
+      return numberOfFullSolves;
+   }
+}
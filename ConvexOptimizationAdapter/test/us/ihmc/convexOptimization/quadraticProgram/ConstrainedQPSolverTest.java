@@ -2,8 +2,11 @@ package us.ihmc.convexOptimization.quadraticProgram;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.RandomMatrices;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -113,7 +116,7 @@ public class ConstrainedQPSolverTest
       ConstrainedQPSolver[] solvers = createSolvers();
       for (ConstrainedQPSolver solver : solvers)
       {
-         if (solver instanceof CompositeActiveSetQPSolver)
+         if (solver instanceof CompositeActiveSetQPSolver || solver instanceof WarmStartActiveSetQPSolver)
             continue;
 
          PrintTools.info("Attempting to solve problem with: " + solver.getClass().getSimpleName());
@@ -124,12 +127,63 @@ public class ConstrainedQPSolverTest
       }
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWarmStartMatchesQuadProgOnSlowlyChangingProblems() throws NoConvergenceException
+   {
+      // Problems of the size of the quadruped contact force optimization, changing slightly from one tick to the next.
+      Random random = new Random(5461L);
+      int numberOfVariables = 12;
+      int numberOfEqualityConstraints = 6;
+      int numberOfInequalityConstraints = 16;
+
+      WarmStartActiveSetQPSolver warmStartSolver = new WarmStartActiveSetQPSolver();
+      QuadProgSolver quadProgSolver = new QuadProgSolver();
+
+      DenseMatrix64F Q = new DenseMatrix64F(numberOfVariables, numberOfVariables);
+      DenseMatrix64F f = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F Aeq = new DenseMatrix64F(numberOfEqualityConstraints, numberOfVariables);
+      DenseMatrix64F beq = new DenseMatrix64F(numberOfEqualityConstraints, 1);
+      DenseMatrix64F Ain = new DenseMatrix64F(numberOfInequalityConstraints, numberOfVariables);
+      DenseMatrix64F bin = new DenseMatrix64F(numberOfInequalityConstraints, 1);
+      DenseMatrix64F feasiblePoint = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F x = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F expectedX = new DenseMatrix64F(numberOfVariables, 1);
+
+      for (int tick = 0; tick < 1000; tick++)
+      {
+         boolean newProblem = tick % 50 == 0;
+         if (newProblem)
+         {
+            Q.set(RandomMatrices.createSymmPosDef(numberOfVariables, random));
+            RandomMatrices.setRandom(f, -1.0, 1.0, random);
+            RandomMatrices.setRandom(Aeq, -1.0, 1.0, random);
+            RandomMatrices.setRandom(Ain, -1.0, 1.0, random);
+            RandomMatrices.setRandom(feasiblePoint, -1.0, 1.0, random);
+            CommonOps.mult(Aeq, feasiblePoint, beq);
+            CommonOps.mult(Ain, feasiblePoint, bin);
+            for (int i = 0; i < numberOfInequalityConstraints; i++)
+               bin.add(i, 0, 0.1 * random.nextDouble());
+         }
+         else
+         {
+            for (int i = 0; i < numberOfVariables; i++)
+               f.add(i, 0, 0.02 * (random.nextDouble() - 0.5));
+         }
+
+         warmStartSolver.solve(Q, f, Aeq, beq, Ain, bin, x, newProblem);
+         quadProgSolver.solve(Q, f, Aeq, beq, Ain, bin, expectedX, true);
+         JUnitTools.assertMatrixEquals(expectedX, x, 1.0e-6);
+      }
+   }
+
    private ConstrainedQPSolver[] createSolvers()
    {
       ConstrainedQPSolver[] optimizers = { //new JOptimizerConstrainedQPSolver(),
             new OASESConstrainedQPSolver(registry),
             new QuadProgSolver(),
-            new CompositeActiveSetQPSolver(registry)
+            new CompositeActiveSetQPSolver(registry),
+            new WarmStartActiveSetQPSolver()
       };
       return optimizers;
    }
@@ -46,6 +46,8 @@ import us.ihmc.robotics.sensors.ForceSensorDataHolderReadOnly;
 import us.ihmc.robotics.sensors.ForceSensorDataReadOnly;
 import us.ihmc.robotics.sensors.ForceSensorDefinition;
 import us.ihmc.robotics.sensors.IMUDefinition;
+import us.ihmc.robotics.time.ExecutionProfiler;
+import us.ihmc.robotics.time.ExecutionProfilerScope;
 import us.ihmc.robotics.time.ExecutionTimer;
 import us.ihmc.sensorProcessing.communication.producers.DRCPoseCommunicator;
 import us.ihmc.sensorProcessing.model.DesiredJointDataHolder;
@@ -92,6 +94,10 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
 
    private final LongYoVariable startClockTime = new LongYoVariable("startTime", estimatorRegistry);
    private final ExecutionTimer estimatorTimer = new ExecutionTimer("estimatorTimer", 10.0, estimatorRegistry);
+   private final ExecutionProfiler estimatorProfiler = new ExecutionProfiler("estimatorProfiler", estimatorRegistry);
+   private final ExecutionProfilerScope readProfilerScope = estimatorProfiler.createScope("read");
+   private final ExecutionProfilerScope doControlProfilerScope = estimatorProfiler.createScope("doControl");
+   private final ExecutionProfilerScope writeProfilerScope = estimatorProfiler.createScope("write");
 
    private final LongYoVariable actualEstimatorDT = new LongYoVariable("actualEstimatorDT", estimatorRegistry);
 
@@ -232,6 +238,8 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
    {
       try
       {
+         estimatorProfiler.startTick();
+         readProfilerScope.start();
          actualEstimatorDT.set(currentClockTime - startClockTime.getLongValue());
          startClockTime.set(currentClockTime);
 
@@ -244,6 +252,7 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
          {
             globalDataProducer.setRobotTime(estimatorTime.getLongValue());
          }
+         readProfilerScope.stop();
       }
       catch (Throwable e)
       {
@@ -266,9 +275,11 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
             firstTick.set(false);
          }
 
+         doControlProfilerScope.start();
          estimatorTimer.startMeasurement();
          estimatorController.doControl();
          estimatorTimer.stopMeasurement();
+         doControlProfilerScope.stop();
       }
       catch (Throwable e)
       {
@@ -285,6 +296,7 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
    {
       try
       {
+         writeProfilerScope.start();
          long startTimestamp = estimatorTime.getLongValue();
          threadDataSynchronizer.publishEstimatorState(startTimestamp, estimatorTick.getLongValue(), startClockTime.getLongValue());
          if (robotVisualizer != null)
@@ -295,6 +307,8 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
 
          rootFrame.getTransformToDesiredFrame(rootToWorldTransform, ReferenceFrame.getWorldFrame());
          yoGraphicsListRegistry.setControllerTransformToWorld(rootToWorldTransform);
+         writeProfilerScope.stop();
+         estimatorProfiler.stopTick();
       }
       catch (Throwable e)
       {
@@ -386,6 +400,15 @@ public class DRCEstimatorThread implements MultiThreadedRobotControlElement
       return yoGraphicsListRegistry;
    }
 
+   /**
+    * Profiler covering one estimator tick, from {@link #read(long)} to the end of {@link #write(long)}.
+    * It is disabled by default, enable it with its YoVariable or {@link ExecutionProfiler#setEnabled(boolean)}.
+    */
+   public ExecutionProfiler getExecutionProfiler()
+   {
+      return estimatorProfiler;
+   }
+
    public ForceSensorCalibrationModule getForceSensorCalibrationModule()
    {
       return drcStateEstimator.getForceSensorCalibrationModule();
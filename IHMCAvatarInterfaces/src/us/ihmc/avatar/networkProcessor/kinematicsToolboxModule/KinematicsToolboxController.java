@@ -2,6 +2,7 @@ package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
 
 import java.util.EnumMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.mutable.MutableDouble;
@@ -26,7 +27,9 @@ import us.ihmc.commonWalkingControlModules.momentumBasedController.GeometricJaco
 import us.ihmc.commonWalkingControlModules.momentumBasedController.HighLevelHumanoidControllerToolbox;
 import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.MomentumOptimizationSettings;
 import us.ihmc.communication.controllerAPI.CommandInputManager;
+import us.ihmc.communication.controllerAPI.CommandInputManager.HasReceivedInputListener;
 import us.ihmc.communication.controllerAPI.StatusMessageOutputManager;
+import us.ihmc.communication.controllerAPI.command.Command;
 import us.ihmc.communication.net.PacketConsumer;
 import us.ihmc.communication.packets.KinematicsToolboxOutputStatus;
 import us.ihmc.euclid.axisAngle.AxisAngle;
@@ -45,7 +48,10 @@ import us.ihmc.robotModels.FullHumanoidRobotModel;
 import us.ihmc.robotModels.FullRobotModelUtils;
 import us.ihmc.robotics.MathTools;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
 import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.IntegerYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
 import us.ihmc.robotics.geometry.AngleTools;
 import us.ihmc.robotics.geometry.FrameOrientation;
 import us.ihmc.robotics.geometry.FramePoint;
@@ -64,6 +70,7 @@ import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.Twist;
 import us.ihmc.robotics.screwTheory.TwistCalculator;
+import us.ihmc.robotics.time.YoLatencyStatistics;
 import us.ihmc.sensorProcessing.communication.packets.dataobjects.RobotConfigurationData;
 import us.ihmc.sensorProcessing.frames.CommonHumanoidReferenceFrames;
 
@@ -123,11 +130,47 @@ public class KinematicsToolboxController extends ToolboxController
 
    private final AtomicReference<PrivilegedConfigurationCommand> privilegedConfigurationCommandReference = new AtomicReference<PrivilegedConfigurationCommand>(null);
 
+   /**
+    * In streaming mode, each request is solved as soon as it is received: the solver iterates until the solution
+    * quality stops improving or the maximum number of iterations is reached, and the solution is reported right away.
+    * A request received while solving the previous one replaces it and the solver carries on from the current
+    * configuration. The QP is warm started with the active set of the previous iteration.
+    */
+   private final BooleanYoVariable streamingMode = new BooleanYoVariable("streamingMode", registry);
+   private final IntegerYoVariable maximumNumberOfIterationsPerRequest = new IntegerYoVariable("maximumNumberOfIterationsPerRequest", registry);
+   private final DoubleYoVariable convergenceTolerance = new DoubleYoVariable("convergenceTolerance", registry);
+   private final IntegerYoVariable numberOfIterationsForLastRequest = new IntegerYoVariable("numberOfIterationsForLastRequest", registry);
+   private final LongYoVariable numberOfReplacedRequests = new LongYoVariable("numberOfReplacedRequests", registry);
+   private final YoLatencyStatistics requestLatencyStatistics = new YoLatencyStatistics("request", 100, registry);
+   /** Time at which the oldest command not consumed yet was received, the latency of a request is measured from it. */
+   private final AtomicLong oldestUnconsumedCommandReceiveTime = new AtomicLong(Long.MIN_VALUE);
+   private boolean hasPendingRequest = false;
+   private int numberOfIterationsForPendingRequest = 0;
+   private double previousSolutionQuality = Double.POSITIVE_INFINITY;
+
+   private final InverseKinematicsCommandList inverseKinematicsCommandList = new InverseKinematicsCommandList();
+   private final SideDependentList<SpatialVelocityCommand> handSpatialVelocityCommands = new SideDependentList<>(new SpatialVelocityCommand(), new SpatialVelocityCommand());
+   private final SideDependentList<SpatialVelocityCommand> footSpatialVelocityCommands = new SideDependentList<>(new SpatialVelocityCommand(), new SpatialVelocityCommand());
+   private final SpatialVelocityCommand chestSpatialVelocityCommand = new SpatialVelocityCommand();
+   private final SpatialVelocityCommand pelvisOrientationSpatialVelocityCommand = new SpatialVelocityCommand();
+   private final SpatialVelocityCommand pelvisHeightSpatialVelocityCommand = new SpatialVelocityCommand();
+   private final MomentumCommand momentumCommand = new MomentumCommand();
+   private final JointLimitReductionCommand jointLimitReductionCommand = new JointLimitReductionCommand();
+   private final DenseMatrix64F pelvisHeightSelectionMatrix = new DenseMatrix64F(1, 6);
+
    public KinematicsToolboxController(CommandInputManager commandInputManager, StatusMessageOutputManager statusOutputManager, FullHumanoidRobotModel desiredFullRobotModel,
          DRCRobotModel robotModel, YoGraphicsListRegistry yoGraphicsListRegistry, YoVariableRegistry parentRegistry)
    {
       super(statusOutputManager, parentRegistry);
       this.commandInputManager = commandInputManager;
+      commandInputManager.registerHasReceivedInputListener(new HasReceivedInputListener()
+      {
+         @Override
+         public void hasReceivedInput(Class<? extends Command<?, ?>> commandClass)
+         {
+            oldestUnconsumedCommandReceiveTime.compareAndSet(Long.MIN_VALUE, System.nanoTime());
+         }
+      });
 
       this.desiredFullRobotModel = desiredFullRobotModel;
       InverseDynamicsJoint[] controlledJoints = HighLevelHumanoidControllerToolbox.computeJointsToOptimizeFor(desiredFullRobotModel);
@@ -184,15 +227,98 @@ public class KinematicsToolboxController extends ToolboxController
       legJointLimitReductionFactors.put(LegJointName.KNEE_PITCH, kneeReductionFactor);
       legJointLimitReductionFactors.put(LegJointName.ANKLE_PITCH, ankleReductionFactor);
       legJointLimitReductionFactors.put(LegJointName.ANKLE_ROLL, ankleReductionFactor);
+
+      pelvisHeightSelectionMatrix.set(0, 5, 1.0);
+
+      streamingMode.set(false);
+      maximumNumberOfIterationsPerRequest.set(50);
+      convergenceTolerance.set(1.0e-5);
    }
 
    @Override
    protected void updateInternal()
    {
+      wholeBodyInverseKinematicsSolver.setUseWarmStart(streamingMode.getBooleanValue());
+
+      if (streamingMode.getBooleanValue())
+      {
+         updateStreaming();
+         return;
+      }
+
       updateTools();
 
       consumeCommands();
+      oldestUnconsumedCommandReceiveTime.set(Long.MIN_VALUE);
+
+      computeIteration();
+
+      tickCount++;
+      if (tickCount == numberOfTicksToSendSolution)
+      {
+         reportMessage(inverseKinematicsSolution);
+         tickCount = 0;
+      }
+   }
+
+   private void updateStreaming()
+   {
+      for (int iteration = 0; iteration < maximumNumberOfIterationsPerRequest.getIntegerValue(); iteration++)
+      {
+         updateTools();
 
+         long receiveTime = oldestUnconsumedCommandReceiveTime.getAndSet(Long.MIN_VALUE);
+         if (consumeCommands())
+         {
+            if (hasPendingRequest)
+               numberOfReplacedRequests.increment();
+            startNewRequest(receiveTime);
+         }
+         else if (receiveTime != Long.MIN_VALUE)
+         {
+            // The command was received after polling, keep its receive time for the next request.
+            oldestUnconsumedCommandReceiveTime.compareAndSet(Long.MIN_VALUE, receiveTime);
+         }
+
+         if (!hasPendingRequest)
+            return;
+
+         computeIteration();
+         numberOfIterationsForPendingRequest++;
+
+         double qualityImprovement = previousSolutionQuality - solutionQuality.getDoubleValue();
+         previousSolutionQuality = solutionQuality.getDoubleValue();
+
+         if (Math.abs(qualityImprovement) < convergenceTolerance.getDoubleValue()
+               || numberOfIterationsForPendingRequest >= maximumNumberOfIterationsPerRequest.getIntegerValue())
+         {
+            reportMessage(inverseKinematicsSolution);
+            requestLatencyStatistics.stop();
+            numberOfIterationsForLastRequest.set(numberOfIterationsForPendingRequest);
+            hasPendingRequest = false;
+            return;
+         }
+      }
+   }
+
+   /**
+    * @param receiveTime time at which the request was received, or {@link Long#MIN_VALUE} if unknown in which case the
+    *           latency is measured from now.
+    */
+   private void startNewRequest(long receiveTime)
+   {
+      hasPendingRequest = true;
+      numberOfIterationsForPendingRequest = 0;
+      previousSolutionQuality = Double.POSITIVE_INFINITY;
+
+      if (receiveTime == Long.MIN_VALUE)
+         requestLatencyStatistics.start();
+      else
+         requestLatencyStatistics.start(receiveTime);
+   }
+
+   private void computeIteration()
+   {
       wholeBodyInverseKinematicsSolver.reset();
       wholeBodyInverseKinematicsSolver.submitInverseKinematicsCommandList(computeInverseKinematicsCommands());
       wholeBodyInverseKinematicsSolver.compute();
@@ -201,25 +327,30 @@ public class KinematicsToolboxController extends ToolboxController
 
       inverseKinematicsSolution.setDesiredJointState(desiredRootJoint, oneDoFJoints);
       inverseKinematicsSolution.setSolutionQuality(solutionQuality.getDoubleValue());
-
-      tickCount++;
-      if (tickCount == numberOfTicksToSendSolution)
-      {
-         reportMessage(inverseKinematicsSolution);
-         tickCount = 0;
-      }
    }
 
    @Override
    protected boolean initialize()
    {
-      return initializeDesiredFullRobotModelToActual();
+      boolean success = initializeDesiredFullRobotModelToActual();
+
+      // Report the solution for the initial configuration as if it were a request.
+      if (success && streamingMode.getBooleanValue())
+         startNewRequest(Long.MIN_VALUE);
+
+      return success;
    }
 
-   private void consumeCommands()
+   /**
+    * @return whether at least one new command was received.
+    */
+   private boolean consumeCommands()
    {
+      boolean hasReceivedNewCommand = false;
+
       if (commandInputManager.isNewCommandAvailable(HandTrajectoryCommand.class))
       {
+         hasReceivedNewCommand = true;
          List<HandTrajectoryCommand> commands = commandInputManager.pollNewCommands(HandTrajectoryCommand.class);
          for (int i = 0; i < commands.size(); i++)
          {
@@ -235,6 +366,7 @@ public class KinematicsToolboxController extends ToolboxController
 
       if (commandInputManager.isNewCommandAvailable(ChestTrajectoryCommand.class))
       {
+         hasReceivedNewCommand = true;
          ChestTrajectoryCommand command = commandInputManager.pollNewestCommand(ChestTrajectoryCommand.class);
          FrameOrientation desiredChestOrientation = new FrameOrientation(worldFrame);
          command.getLastTrajectoryPoint().getOrientation(desiredChestOrientation);
@@ -244,6 +376,7 @@ public class KinematicsToolboxController extends ToolboxController
 
       if (commandInputManager.isNewCommandAvailable(PelvisHeightTrajectoryCommand.class))
       {
+         hasReceivedNewCommand = true;
          PelvisHeightTrajectoryCommand command = commandInputManager.pollNewestCommand(PelvisHeightTrajectoryCommand.class);
          double desiredHeight = command.getLastTrajectoryPoint().getPosition();
          desiredPelvisHeight.set(desiredHeight);
@@ -251,6 +384,7 @@ public class KinematicsToolboxController extends ToolboxController
 
       if (commandInputManager.isNewCommandAvailable(PelvisOrientationTrajectoryCommand.class))
       {
+         hasReceivedNewCommand = true;
          PelvisOrientationTrajectoryCommand command = commandInputManager.pollNewestCommand(PelvisOrientationTrajectoryCommand.class);
          FrameOrientation desiredPelvisOrientation = new FrameOrientation(worldFrame);
          command.getLastTrajectoryPoint().getOrientation(desiredPelvisOrientation);
@@ -260,6 +394,7 @@ public class KinematicsToolboxController extends ToolboxController
 
       if (commandInputManager.isNewCommandAvailable(TrackingWeightsCommand.class))
       {
+         hasReceivedNewCommand = true;
          TrackingWeightsCommand command = commandInputManager.pollNewestCommand(TrackingWeightsCommand.class);
          handWeight.set(command.handWeight);
          footWeight.set(command.footWeight);
@@ -271,6 +406,7 @@ public class KinematicsToolboxController extends ToolboxController
          privilegedMaxVelocity.set(command.privilegedMaxVelocity);
       }
 
+      return hasReceivedNewCommand;
    }
 
    public void updateTools()
@@ -282,10 +418,18 @@ public class KinematicsToolboxController extends ToolboxController
    }
 
    private final MutableDouble tempErrorMagnitude = new MutableDouble();
-
+   private final Twist desiredTwist = new Twist();
+   private final FrameVector desiredAngularVelocity = new FrameVector();
+   private final FrameVector2d desiredMomentumXY = new FrameVector2d();
+   private final FramePoint desiredPelvisHeightPosition = new FramePoint();
+
+   /**
+    * Updates the commands for the current configuration of the desired robot. The commands are reused from one
+    * iteration to the next so this method does not allocate memory.
+    */
    private InverseKinematicsCommandList computeInverseKinematicsCommands()
    {
-      InverseKinematicsCommandList ret = new InverseKinematicsCommandList();
+      inverseKinematicsCommandList.clear();
 
       RigidBody elevator = desiredFullRobotModel.getElevator();
       double newSolutionQuality = 0.0;
@@ -298,13 +442,13 @@ public class KinematicsToolboxController extends ToolboxController
             RigidBody hand = desiredFullRobotModel.getHand(robotSide);
             ReferenceFrame handControlFrame = desiredFullRobotModel.getHandControlFrame(robotSide);
             DenseMatrix64F selectionMatrix = handSelectionMatrices.get(robotSide);
-            Twist desiredHandTwist = computeDesiredTwist(desiredHandPose, hand, handControlFrame, selectionMatrix, tempErrorMagnitude);
+            computeDesiredTwist(desiredHandPose, hand, handControlFrame, selectionMatrix, tempErrorMagnitude, desiredTwist);
             newSolutionQuality += handWeight.getDoubleValue() * tempErrorMagnitude.doubleValue();
-            SpatialVelocityCommand spatialVelocityCommand = new SpatialVelocityCommand();
+            SpatialVelocityCommand spatialVelocityCommand = handSpatialVelocityCommands.get(robotSide);
             spatialVelocityCommand.set(elevator, hand);
-            spatialVelocityCommand.setSpatialVelocity(desiredHandTwist, selectionMatrix);
+            spatialVelocityCommand.setSpatialVelocity(desiredTwist, selectionMatrix);
             spatialVelocityCommand.setWeight(handWeight.getDoubleValue());
-            ret.addCommand(spatialVelocityCommand);
+            inverseKinematicsCommandList.addCommand(spatialVelocityCommand);
 
             desiredHandPosesViz.get(robotSide).setPose(desiredHandPose);
          }
@@ -319,13 +463,13 @@ public class KinematicsToolboxController extends ToolboxController
          {
             RigidBody foot = desiredFullRobotModel.getFoot(robotSide);
             DenseMatrix64F selectionMatrix = footSelectionMatrices.get(robotSide);
-            Twist desiredFootTwist = computeDesiredTwist(desiredFootPose, foot, selectionMatrix, tempErrorMagnitude);
+            computeDesiredTwist(desiredFootPose, foot, selectionMatrix, tempErrorMagnitude, desiredTwist);
             newSolutionQuality += footWeight.getDoubleValue() * tempErrorMagnitude.doubleValue();
-            SpatialVelocityCommand spatialVelocityCommand = new SpatialVelocityCommand();
+            SpatialVelocityCommand spatialVelocityCommand = footSpatialVelocityCommands.get(robotSide);
             spatialVelocityCommand.set(elevator, foot);
-            spatialVelocityCommand.setSpatialVelocity(desiredFootTwist, selectionMatrix);
+            spatialVelocityCommand.setSpatialVelocity(desiredTwist, selectionMatrix);
             spatialVelocityCommand.setWeight(footWeight.getDoubleValue());
-            ret.addCommand(spatialVelocityCommand);
+            inverseKinematicsCommandList.addCommand(spatialVelocityCommand);
 
             desiredFootPosesViz.get(robotSide).setPose(desiredFootPose);
          }
@@ -336,96 +480,93 @@ public class KinematicsToolboxController extends ToolboxController
       FramePoint2d desiredCoMXY = desiredCenterOfMassXYReference.get();
       if (desiredCoMXY != null)
       {
-         FrameVector2d desiredMomentumXY = computeDesiredMomentumXY(desiredCoMXY, tempErrorMagnitude);
+         computeDesiredMomentumXY(desiredCoMXY, tempErrorMagnitude, desiredMomentumXY);
          newSolutionQuality += momentumWeight.getDoubleValue() * tempErrorMagnitude.doubleValue();
-         MomentumCommand momentumCommand = new MomentumCommand();
          momentumCommand.setLinearMomentumXY(desiredMomentumXY);
          momentumCommand.setWeight(momentumWeight.getDoubleValue());
-         ret.addCommand(momentumCommand);
+         inverseKinematicsCommandList.addCommand(momentumCommand);
       }
 
       FrameOrientation desiredChestOrientation = desiredChestOrientationReference.get();
       if (desiredChestOrientation != null)
       {
          RigidBody chest = desiredFullRobotModel.getChest();
-         Twist desiredChestTwist = computeDesiredTwist(desiredChestOrientation, chest, chestSelectionMatrix, tempErrorMagnitude);
+         computeDesiredTwist(desiredChestOrientation, chest, chestSelectionMatrix, tempErrorMagnitude, desiredTwist);
          newSolutionQuality += chestWeight.getDoubleValue() * tempErrorMagnitude.doubleValue();
          ReferenceFrame chestFrame = chest.getBodyFixedFrame();
-         FrameVector desiredChestAngularVelocity = new FrameVector();
-         desiredChestTwist.getAngularVelocityInBaseFrame(desiredChestAngularVelocity);
-         SpatialVelocityCommand spatialVelocityCommand = new SpatialVelocityCommand();
-         spatialVelocityCommand.set(elevator, chest);
-         spatialVelocityCommand.setAngularVelocity(chestFrame, elevatorFrame, desiredChestAngularVelocity);
-         spatialVelocityCommand.setSpatialVelocity(desiredChestTwist, chestSelectionMatrix);
-         spatialVelocityCommand.setWeight(chestWeight.getDoubleValue());
-         ret.addCommand(spatialVelocityCommand);
+         desiredTwist.getAngularVelocityInBaseFrame(desiredAngularVelocity);
+         chestSpatialVelocityCommand.set(elevator, chest);
+         chestSpatialVelocityCommand.setAngularVelocity(chestFrame, elevatorFrame, desiredAngularVelocity);
+         chestSpatialVelocityCommand.setSpatialVelocity(desiredTwist, chestSelectionMatrix);
+         chestSpatialVelocityCommand.setWeight(chestWeight.getDoubleValue());
+         inverseKinematicsCommandList.addCommand(chestSpatialVelocityCommand);
       }
 
       FrameOrientation desiredPelvisOrientation = desiredPelvisOrientationReference.get();
       if (desiredPelvisOrientation != null)
       {
          RigidBody pelvis = desiredFullRobotModel.getPelvis();
-         Twist desiredPelvisTwist = computeDesiredTwist(desiredPelvisOrientation, pelvis, pelvisSelectionMatrix, tempErrorMagnitude);
+         computeDesiredTwist(desiredPelvisOrientation, pelvis, pelvisSelectionMatrix, tempErrorMagnitude, desiredTwist);
          newSolutionQuality += pelvisOrientationWeight.getDoubleValue() * tempErrorMagnitude.doubleValue();
          ReferenceFrame pelvisFrame = pelvis.getBodyFixedFrame();
-         FrameVector desiredPelvisAngularVelocity = new FrameVector();
-         desiredPelvisTwist.getAngularVelocityInBaseFrame(desiredPelvisAngularVelocity);
-         SpatialVelocityCommand spatialVelocityCommand = new SpatialVelocityCommand();
-         spatialVelocityCommand.set(elevator, pelvis);
-         spatialVelocityCommand.setAngularVelocity(pelvisFrame, elevatorFrame, desiredPelvisAngularVelocity);
-         spatialVelocityCommand.setSpatialVelocity(desiredPelvisTwist, pelvisSelectionMatrix);
-         spatialVelocityCommand.setWeight(pelvisOrientationWeight.getDoubleValue());
-         ret.addCommand(spatialVelocityCommand);
+         desiredTwist.getAngularVelocityInBaseFrame(desiredAngularVelocity);
+         pelvisOrientationSpatialVelocityCommand.set(elevator, pelvis);
+         pelvisOrientationSpatialVelocityCommand.setAngularVelocity(pelvisFrame, elevatorFrame, desiredAngularVelocity);
+         pelvisOrientationSpatialVelocityCommand.setSpatialVelocity(desiredTwist, pelvisSelectionMatrix);
+         pelvisOrientationSpatialVelocityCommand.setWeight(pelvisOrientationWeight.getDoubleValue());
+         inverseKinematicsCommandList.addCommand(pelvisOrientationSpatialVelocityCommand);
       }
 
       if (!desiredPelvisHeight.isNaN())
       {
          RigidBody pelvis = desiredFullRobotModel.getPelvis();
          ReferenceFrame pelvisFrame = pelvis.getParentJoint().getFrameAfterJoint(); // As defined in CommonHumanoidReferenceFrames.
-         DenseMatrix64F heightSelectionMatrix = new DenseMatrix64F(1, 6);
-         heightSelectionMatrix.set(0, 5, 1.0);
-         Twist desiredPelvisTwist = computeDesiredTwist(new FramePoint(worldFrame, 0.0, 0.0, desiredPelvisHeight.getDoubleValue()), pelvis, pelvisFrame, heightSelectionMatrix, tempErrorMagnitude);
+         desiredPelvisHeightPosition.setIncludingFrame(worldFrame, 0.0, 0.0, desiredPelvisHeight.getDoubleValue());
+         computeDesiredTwist(desiredPelvisHeightPosition, pelvis, pelvisFrame, pelvisHeightSelectionMatrix, tempErrorMagnitude, desiredTwist);
          newSolutionQuality += pelvisHeightWeight.getDoubleValue() * tempErrorMagnitude.doubleValue();
-         SpatialVelocityCommand spatialVelocityCommand = new SpatialVelocityCommand();
-         spatialVelocityCommand.set(elevator, pelvis);
-         spatialVelocityCommand.setSpatialVelocity(desiredPelvisTwist, heightSelectionMatrix);
-         spatialVelocityCommand.setWeight(pelvisHeightWeight.getDoubleValue());
-         ret.addCommand(spatialVelocityCommand);
+         pelvisHeightSpatialVelocityCommand.set(elevator, pelvis);
+         pelvisHeightSpatialVelocityCommand.setSpatialVelocity(desiredTwist, pelvisHeightSelectionMatrix);
+         pelvisHeightSpatialVelocityCommand.setWeight(pelvisHeightWeight.getDoubleValue());
+         inverseKinematicsCommandList.addCommand(pelvisHeightSpatialVelocityCommand);
       }
       
-      ret.addCommand(privilegedConfigurationCommandReference.getAndSet(null));
+      inverseKinematicsCommandList.addCommand(privilegedConfigurationCommandReference.getAndSet(null));
 
-      JointLimitReductionCommand jointLimitReductionCommand = new JointLimitReductionCommand();
+      jointLimitReductionCommand.clear();
       for (RobotSide robotSide : RobotSide.values)
       {
-         for (LegJointName legJointName : desiredFullRobotModel.getRobotSpecificJointNames().getLegJointNames())
+         LegJointName[] legJointNames = desiredFullRobotModel.getRobotSpecificJointNames().getLegJointNames();
+         for (int i = 0; i < legJointNames.length; i++)
          {
-            OneDoFJoint joint = desiredFullRobotModel.getLegJoint(robotSide, legJointName);
-            double reductionFactor = legJointLimitReductionFactors.get(legJointName).getDoubleValue();
+            OneDoFJoint joint = desiredFullRobotModel.getLegJoint(robotSide, legJointNames[i]);
+            double reductionFactor = legJointLimitReductionFactors.get(legJointNames[i]).getDoubleValue();
             jointLimitReductionCommand.addReductionFactor(joint, reductionFactor);
          }
       }
 
       solutionQuality.set(newSolutionQuality);
-      ret.addCommand(jointLimitReductionCommand);
+      inverseKinematicsCommandList.addCommand(jointLimitReductionCommand);
 
-      return ret;
+      return inverseKinematicsCommandList;
    }
 
    private final FramePose errorFramePose = new FramePose();
    private final FrameOrientation errorFrameOrientation = new FrameOrientation();
+   private final FramePoint errorFramePosition = new FramePoint();
+   private final FramePoint2d errorCoMXY = new FramePoint2d();
    private final AxisAngle errorAxisAngle = new AxisAngle();
    private final Vector3D errorRotation = new Vector3D();
    private final Vector3D errorPosition = new Vector3D();
+   private final Vector3D zeroVector = new Vector3D();
    private final DenseMatrix64F spatialError = new DenseMatrix64F(6, 1);
    private final DenseMatrix64F subspaceError = new DenseMatrix64F(6, 1);
 
-   public Twist computeDesiredTwist(FramePose desiredPose, RigidBody endEffector, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude)
+   public void computeDesiredTwist(FramePose desiredPose, RigidBody endEffector, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwistToPack)
    {
-      return computeDesiredTwist(desiredPose, endEffector, endEffector.getBodyFixedFrame(), selectionMatrix, errorMagnitude);
+      computeDesiredTwist(desiredPose, endEffector, endEffector.getBodyFixedFrame(), selectionMatrix, errorMagnitude, desiredTwistToPack);
    }
 
-   public Twist computeDesiredTwist(FramePose desiredPose, RigidBody endEffector, ReferenceFrame controlFrame, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude)
+   public void computeDesiredTwist(FramePose desiredPose, RigidBody endEffector, ReferenceFrame controlFrame, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwistToPack)
    {
       errorFramePose.setIncludingFrame(desiredPose);
       errorFramePose.changeFrame(controlFrame);
@@ -436,23 +577,16 @@ public class KinematicsToolboxController extends ToolboxController
       errorRotation.scale(AngleTools.trimAngleMinusPiToPi(errorAxisAngle.getAngle()));
 
       ReferenceFrame endEffectorFrame = endEffector.getBodyFixedFrame();
-      Twist desiredTwist = new Twist();
-      desiredTwist.set(endEffectorFrame, elevatorFrame, controlFrame, errorPosition, errorRotation);
-      desiredTwist.getMatrix(spatialError, 0);
-      subspaceError.reshape(selectionMatrix.getNumRows(), 1);
-      CommonOps.mult(selectionMatrix, spatialError, subspaceError);
-      errorMagnitude.setValue(NormOps.normP2(subspaceError));
-      desiredTwist.scale(1.0 / updateDT);
-
-      return desiredTwist;
+      desiredTwistToPack.set(endEffectorFrame, elevatorFrame, controlFrame, errorPosition, errorRotation);
+      computeErrorMagnitudeAndScaleTwist(selectionMatrix, errorMagnitude, desiredTwistToPack);
    }
 
-   public Twist computeDesiredTwist(FrameOrientation desiredOrientation, RigidBody endEffector, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude)
+   public void computeDesiredTwist(FrameOrientation desiredOrientation, RigidBody endEffector, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwistToPack)
    {
-      return computeDesiredTwist(desiredOrientation, endEffector, endEffector.getBodyFixedFrame(), selectionMatrix, errorMagnitude);
+      computeDesiredTwist(desiredOrientation, endEffector, endEffector.getBodyFixedFrame(), selectionMatrix, errorMagnitude, desiredTwistToPack);
    }
 
-   public Twist computeDesiredTwist(FrameOrientation desiredOrientation, RigidBody endEffector, ReferenceFrame controlFrame, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude)
+   public void computeDesiredTwist(FrameOrientation desiredOrientation, RigidBody endEffector, ReferenceFrame controlFrame, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwistToPack)
    {
       errorFrameOrientation.setIncludingFrame(desiredOrientation);
       errorFrameOrientation.changeFrame(controlFrame);
@@ -462,38 +596,33 @@ public class KinematicsToolboxController extends ToolboxController
       errorRotation.scale(AngleTools.trimAngleMinusPiToPi(errorAxisAngle.getAngle()));
 
       ReferenceFrame endEffectorFrame = endEffector.getBodyFixedFrame();
-      Twist desiredTwist = new Twist();
-      desiredTwist.set(endEffectorFrame, elevatorFrame, controlFrame, new Vector3D(), errorRotation);
-      desiredTwist.getMatrix(spatialError, 0);
-      subspaceError.reshape(selectionMatrix.getNumRows(), 1);
-      CommonOps.mult(selectionMatrix, spatialError, subspaceError);
-      errorMagnitude.setValue(NormOps.normP2(subspaceError));
-      desiredTwist.scale(1.0 / updateDT);
-
-      return desiredTwist;
+      desiredTwistToPack.set(endEffectorFrame, elevatorFrame, controlFrame, zeroVector, errorRotation);
+      computeErrorMagnitudeAndScaleTwist(selectionMatrix, errorMagnitude, desiredTwistToPack);
    }
 
-   public Twist computeDesiredTwist(FramePoint desiredPosition, RigidBody endEffector, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude)
+   public void computeDesiredTwist(FramePoint desiredPosition, RigidBody endEffector, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwistToPack)
    {
-      return computeDesiredTwist(desiredPosition, endEffector, endEffector.getBodyFixedFrame(), selectionMatrix, errorMagnitude);
+      computeDesiredTwist(desiredPosition, endEffector, endEffector.getBodyFixedFrame(), selectionMatrix, errorMagnitude, desiredTwistToPack);
    }
 
-   public Twist computeDesiredTwist(FramePoint desiredPosition, RigidBody endEffector, ReferenceFrame controlFrame, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude)
+   public void computeDesiredTwist(FramePoint desiredPosition, RigidBody endEffector, ReferenceFrame controlFrame, DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwistToPack)
    {
-      errorFramePose.setPoseIncludingFrame(desiredPosition, new FrameOrientation(desiredPosition.getReferenceFrame()));
-      errorFramePose.changeFrame(controlFrame);
-      errorFramePose.getPosition(errorPosition);
+      errorFramePosition.setIncludingFrame(desiredPosition);
+      errorFramePosition.changeFrame(controlFrame);
+      errorFramePosition.get(errorPosition);
 
       ReferenceFrame endEffectorFrame = endEffector.getBodyFixedFrame();
-      Twist desiredTwist = new Twist();
-      desiredTwist.set(endEffectorFrame, elevatorFrame, controlFrame, errorPosition, new Vector3D());
+      desiredTwistToPack.set(endEffectorFrame, elevatorFrame, controlFrame, errorPosition, zeroVector);
+      computeErrorMagnitudeAndScaleTwist(selectionMatrix, errorMagnitude, desiredTwistToPack);
+   }
+
+   private void computeErrorMagnitudeAndScaleTwist(DenseMatrix64F selectionMatrix, MutableDouble errorMagnitude, Twist desiredTwist)
+   {
       desiredTwist.getMatrix(spatialError, 0);
       subspaceError.reshape(selectionMatrix.getNumRows(), 1);
       CommonOps.mult(selectionMatrix, spatialError, subspaceError);
       errorMagnitude.setValue(NormOps.normP2(subspaceError));
       desiredTwist.scale(1.0 / updateDT);
-
-      return desiredTwist;
    }
 
    public FrameVector computeDesiredAngularVelocity(FrameOrientation desiredOrientation, ReferenceFrame controlFrame)
@@ -521,11 +650,9 @@ public class KinematicsToolboxController extends ToolboxController
       return ret;
    }
 
-   public FrameVector2d computeDesiredMomentumXY(FramePoint2d desiredCoMXY, MutableDouble errorMagnitude)
+   public void computeDesiredMomentumXY(FramePoint2d desiredCoMXY, MutableDouble errorMagnitude, FrameVector2d desiredMomentumXYToPack)
    {
-      FrameVector2d ret = new FrameVector2d();
-
-      FramePoint2d errorCoMXY = new FramePoint2d(desiredCoMXY);
+      errorCoMXY.setIncludingFrame(desiredCoMXY);
       errorCoMXY.changeFrame(referenceFrames.getCenterOfMassFrame());
 
       errorMagnitude.setValue(MathTools.square(errorCoMXY.getX()) + MathTools.square(errorCoMXY.getY()));
@@ -533,10 +660,8 @@ public class KinematicsToolboxController extends ToolboxController
 
       errorCoMXY.scale(1.0 / updateDT);
 
-      ret.setIncludingFrame(errorCoMXY);
-      ret.scale(toolbox.getTotalRobotMass());
-
-      return ret;
+      desiredMomentumXYToPack.setIncludingFrame(errorCoMXY);
+      desiredMomentumXYToPack.scale(toolbox.getTotalRobotMass());
    }
 
    private void updateDesiredFullRobotModelState()
@@ -641,6 +766,39 @@ public class KinematicsToolboxController extends ToolboxController
       };
    }
 
+   public void setStreamingMode(boolean enable)
+   {
+      streamingMode.set(enable);
+   }
+
+   public boolean isStreamingMode()
+   {
+      return streamingMode.getBooleanValue();
+   }
+
+   /**
+    * @return the number of iterations the solver took for the last request solved in streaming mode.
+    */
+   public int getNumberOfIterationsForLastRequest()
+   {
+      return numberOfIterationsForLastRequest.getIntegerValue();
+   }
+
+   public long getNumberOfReplacedRequests()
+   {
+      return numberOfReplacedRequests.getLongValue();
+   }
+
+   public int getMaximumNumberOfIterationsPerRequest()
+   {
+      return maximumNumberOfIterationsPerRequest.getIntegerValue();
+   }
+
+   public YoLatencyStatistics getRequestLatencyStatistics()
+   {
+      return requestLatencyStatistics;
+   }
+
    public FullHumanoidRobotModel getDesiredFullRobotModel()
    {
       return desiredFullRobotModel;
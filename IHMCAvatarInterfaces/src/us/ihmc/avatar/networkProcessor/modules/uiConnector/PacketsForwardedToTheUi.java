@@ -19,6 +19,7 @@ import us.ihmc.humanoidRobotics.communication.packets.behaviors.DoorLocationPack
 import us.ihmc.humanoidRobotics.communication.packets.behaviors.SimpleCoactiveBehaviorDataPacket;
 import us.ihmc.humanoidRobotics.communication.packets.behaviors.ValveLocationPacket;
 import us.ihmc.humanoidRobotics.communication.packets.behaviors.script.ScriptBehaviorStatusPacket;
+import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage;
 import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeMessage;
 import us.ihmc.humanoidRobotics.communication.packets.manipulation.ArmTrajectoryMessage;
 import us.ihmc.humanoidRobotics.communication.packets.manipulation.ControlStatusPacket;
@@ -102,6 +103,7 @@ public class PacketsForwardedToTheUi
       UIPositionCheckerPacket.class,
       PlanarRegionsListMessage.class,
       HeightQuadTreeMessage.class,
+      HeightQuadTreeDeltaMessage.class,
       LidarScanMessage.class,
       HeatMapPacket.class,
       BoundingBoxesPacket.class
@@ -7,6 +7,7 @@ public class HeightQuadTree
    private float resolution = Float.NaN;
    private float sizeX = Float.NaN;
    private float sizeY = Float.NaN;
+   private long revision = -1L;
 
    public HeightQuadTree()
    {
@@ -37,6 +38,15 @@ public class HeightQuadTree
       return sizeY;
    }
 
+   /**
+    * @return the revision of the last {@link us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage}
+    *         applied to this tree, or -1 if none was.
+    */
+   public long getRevision()
+   {
+      return revision;
+   }
+
    public void setRoot(HeightQuadTreeNode root)
    {
       this.root = root;
@@ -61,4 +71,9 @@ public class HeightQuadTree
    {
       this.sizeY = sizeY;
    }
+
+   public void setRevision(long revision)
+   {
+      this.revision = revision;
+   }
 }
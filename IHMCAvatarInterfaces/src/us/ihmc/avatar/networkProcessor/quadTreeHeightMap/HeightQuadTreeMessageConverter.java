@@ -3,6 +3,7 @@ package us.ihmc.avatar.networkProcessor.quadTreeHeightMap;
 import java.util.ArrayList;
 
 import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage;
 import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeMessage;
 import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeNodeMessage;
 import us.ihmc.robotics.quadTree.Box;
@@ -11,6 +12,12 @@ import us.ihmc.robotics.quadTree.QuadTreeForGroundNode;
 
 public class HeightQuadTreeMessageConverter
 {
+   /** Height resolution of the {@link HeightQuadTreeDeltaMessage}, the quantized heights cover +/- 65m around the offset. */
+   public static final float DELTA_MESSAGE_HEIGHT_RESOLUTION = 0.002f;
+
+   private static final int CELL_INDEX_BITS = 28;
+   private static final long CELL_INDEX_MASK = (1L << CELL_INDEX_BITS) - 1L;
+
    public static HeightQuadTreeMessage convertQuadTreeForGround(QuadTreeForGround quadTreeToConvert)
    {
       return convertQuadTreeForGround(quadTreeToConvert, null, Double.POSITIVE_INFINITY);
@@ -137,23 +144,180 @@ public class HeightQuadTreeMessageConverter
          if (childMessage == null)
             continue;
 
-         HeightQuadTreeNode child = new HeightQuadTreeNode();
-         child.setSizeX(0.5f * node.getSizeX());
-         child.setSizeY(0.5f * node.getSizeY());
+         HeightQuadTreeNode child = createChild(node, childIndex);
+         child.setHeight(childMessage.height);
+         node.setChild(childIndex, child);
+         fullDepthCopy(child, childMessage);
+      }
+   }
+
+   private static HeightQuadTreeNode createChild(HeightQuadTreeNode parent, int childIndex)
+   {
+      HeightQuadTreeNode child = new HeightQuadTreeNode();
+      child.setSizeX(0.5f * parent.getSizeX());
+      child.setSizeY(0.5f * parent.getSizeY());
 
-         if ((childIndex & 1) != 0)
-            child.setCenterX(node.getCenterX() + 0.5f * child.getSizeX());
-         else
-            child.setCenterX(node.getCenterX() - 0.5f * child.getSizeX());
+      if ((childIndex & 1) != 0)
+         child.setCenterX(parent.getCenterX() + 0.5f * child.getSizeX());
+      else
+         child.setCenterX(parent.getCenterX() - 0.5f * child.getSizeX());
+
+      if ((childIndex & 2) != 0)
+         child.setCenterY(parent.getCenterY() + 0.5f * child.getSizeY());
+      else
+         child.setCenterY(parent.getCenterY() - 0.5f * child.getSizeY());
+
+      child.setHeight(Float.NaN);
+      return child;
+   }
+
+   public static HeightQuadTree convertMessage(HeightQuadTreeDeltaMessage messageToConvert)
+   {
+      if (!messageToConvert.isFullSnapshot())
+         throw new RuntimeException("Can only convert a full snapshot, apply the deltas to an existing " + HeightQuadTree.class.getSimpleName() + " instead.");
+
+      HeightQuadTree heightQuadTree = new HeightQuadTree();
+      applyMessage(messageToConvert, heightQuadTree);
+      return heightQuadTree;
+   }
 
-         if ((childIndex & 2) != 0)
-            child.setCenterY(node.getCenterY() + 0.5f * child.getSizeY());
+   /**
+    * Updates the given quad tree with a full snapshot or with the changes since the revision it is at.
+    *
+    * @param message the full snapshot or the delta to apply.
+    * @param heightQuadTreeToUpdate the quad tree to update, its revision is updated to the revision of the message.
+    * @return {@code false} if the message could not be applied as it is older than the tree, or it is a delta that
+    *         misses changes between the revision of the tree and the base revision of the delta. The next request should
+    *         then use the current revision of the tree to get the missing changes.
+    */
+   public static boolean applyMessage(HeightQuadTreeDeltaMessage message, HeightQuadTree heightQuadTreeToUpdate)
+   {
+      if (message.isFullSnapshot())
+      {
+         heightQuadTreeToUpdate.setDefaultHeight(message.defaultHeight);
+         heightQuadTreeToUpdate.setResolution(message.resolution);
+         heightQuadTreeToUpdate.setSizeX(message.sizeX);
+         heightQuadTreeToUpdate.setSizeY(message.sizeY);
+
+         HeightQuadTreeNode root = new HeightQuadTreeNode();
+         root.setHeight(Float.NaN);
+         root.setCenterX(0.0f);
+         root.setCenterY(0.0f);
+         root.setSizeX(message.sizeX);
+         root.setSizeY(message.sizeY);
+         heightQuadTreeToUpdate.setRoot(root);
+      }
+      else if (heightQuadTreeToUpdate.getRoot() == null || message.baseRevision > heightQuadTreeToUpdate.getRevision()
+            || message.revision <= heightQuadTreeToUpdate.getRevision())
+      {
+         return false;
+      }
+
+      HeightQuadTreeNode root = heightQuadTreeToUpdate.getRoot();
+
+      for (int cellIndex = 0; cellIndex < message.getNumberOfCells(); cellIndex++)
+      {
+         long cellKey = message.cellKeys[cellIndex];
+         int depth = getCellDepth(cellKey);
+         int xIndex = getCellXIndex(cellKey);
+         int yIndex = getCellYIndex(cellKey);
+         short quantizedHeight = message.cellHeights[cellIndex];
+
+         if (quantizedHeight == HeightQuadTreeDeltaMessage.REMOVED_CELL_HEIGHT)
+            removeCell(root, depth, xIndex, yIndex);
          else
-            child.setCenterY(node.getCenterY() - 0.5f * child.getSizeY());
+            setCellHeight(root, depth, xIndex, yIndex, dequantizeHeight(quantizedHeight, message.heightOffset, message.heightResolution));
+      }
 
-         child.setHeight(childMessage.height);
-         node.setChild(childIndex, child);
-         fullDepthCopy(child, childMessage);
+      heightQuadTreeToUpdate.setRevision(message.revision);
+      return true;
+   }
+
+   private static void setCellHeight(HeightQuadTreeNode root, int depth, int xIndex, int yIndex, float height)
+   {
+      HeightQuadTreeNode node = root;
+
+      for (int level = depth - 1; level >= 0; level--)
+      {
+         int childIndex = getChildIndex(xIndex, yIndex, level);
+
+         if (!node.hasChildrenArray())
+            node.assignChildrenArray();
+
+         HeightQuadTreeNode child = node.getChild(childIndex);
+         if (child == null)
+         {
+            child = createChild(node, childIndex);
+            node.setChild(childIndex, child);
+         }
+         node = child;
+      }
+
+      node.setHeight(height);
+   }
+
+   /**
+    * @return whether the node has neither a height nor children after removing the cell, so it can be removed from its parent.
+    */
+   private static boolean removeCell(HeightQuadTreeNode node, int level, int xIndex, int yIndex)
+   {
+      if (level == 0)
+      {
+         node.setHeight(Float.NaN);
+      }
+      else
+      {
+         int childIndex = getChildIndex(xIndex, yIndex, level - 1);
+         HeightQuadTreeNode child = node.getChild(childIndex);
+         if (child != null && removeCell(child, level - 1, xIndex, yIndex))
+            node.setChild(childIndex, null);
       }
+
+      return Float.isNaN(node.getHeight()) && node.getNumberOfChildren() == 0;
+   }
+
+   /**
+    * Same indexing as the morton code used in the {@link HeightQuadTreeNodeMessage}: the first bit is set for the children
+    * with the greater x, the second bit for the children with the greater y.
+    */
+   private static int getChildIndex(int xIndex, int yIndex, int level)
+   {
+      return ((xIndex >> level) & 1) | (((yIndex >> level) & 1) << 1);
+   }
+
+   /**
+    * Packs the depth of a cell in the tree and its coordinates, in number of cells of the same size from the minimum x and y
+    * of the tree, into a single key.
+    */
+   public static long computeCellKey(int depth, int xIndex, int yIndex)
+   {
+      return ((long) depth << (2 * CELL_INDEX_BITS)) | ((long) xIndex << CELL_INDEX_BITS) | (long) yIndex;
+   }
+
+   public static int getCellDepth(long cellKey)
+   {
+      return (int) (cellKey >>> (2 * CELL_INDEX_BITS));
+   }
+
+   public static int getCellXIndex(long cellKey)
+   {
+      return (int) ((cellKey >>> CELL_INDEX_BITS) & CELL_INDEX_MASK);
+   }
+
+   public static int getCellYIndex(long cellKey)
+   {
+      return (int) (cellKey & CELL_INDEX_MASK);
+   }
+
+   public static short quantizeHeight(double height, float heightOffset, float heightResolution)
+   {
+      long quantizedHeight = Math.round((height - heightOffset) / heightResolution);
+      // Short.MIN_VALUE is reserved for the removed cells.
+      return (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, quantizedHeight));
+   }
+
+   public static float dequantizeHeight(short quantizedHeight, float heightOffset, float heightResolution)
+   {
+      return heightOffset + heightResolution * quantizedHeight;
    }
 }
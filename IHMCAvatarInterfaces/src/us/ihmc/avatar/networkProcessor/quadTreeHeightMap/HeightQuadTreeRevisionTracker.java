@@ -0,0 +1,261 @@
+package us.ihmc.avatar.networkProcessor.quadTreeHeightMap;
+
+import java.util.ArrayList;
+
+import gnu.trove.iterator.TLongLongIterator;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.list.array.TShortArrayList;
+import gnu.trove.map.hash.TLongLongHashMap;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage;
+import us.ihmc.robotics.quadTree.Box;
+import us.ihmc.robotics.quadTree.QuadTreeForGround;
+import us.ihmc.robotics.quadTree.QuadTreeForGroundLeaf;
+import us.ihmc.robotics.quadTree.QuadTreeForGroundListener;
+import us.ihmc.robotics.quadTree.QuadTreeForGroundNode;
+
+/**
+ * Listens to a {@link QuadTreeForGround} to remember at which revision each of its leaves last changed, so the
+ * {@link HeightQuadTreeDeltaMessage} sent to a client only holds the leaves that changed since the last revision it
+ * received.
+ * <p>
+ * The revision is incremented every time a message is created. Every {@link #setFullSnapshotPeriod(int)} revisions, a
+ * full snapshot is sent instead of a delta so the clients can resynchronize, and the removed leaves are forgotten. A
+ * client that is further behind than the last full snapshot also gets a full snapshot. The full snapshots can be limited
+ * to the leaves around a point, such as the robot position, while the deltas hold all the changes.
+ * </p>
+ * <p>
+ * A delta can be applied by any client at a revision between its base revision and its revision. When several clients
+ * are waiting for an update, the message should be created with the oldest of their revisions. A client that receives a
+ * delta based on a revision it does not have yet refuses it, see
+ * {@link HeightQuadTreeMessageConverter#applyMessage(HeightQuadTreeDeltaMessage, HeightQuadTree)}, and has to request
+ * the changes since its own revision.
+ * </p>
+ */
+public class HeightQuadTreeRevisionTracker implements QuadTreeForGroundListener
+{
+   private static final int DEFAULT_FULL_SNAPSHOT_PERIOD = 50;
+   private static final String ROOT_ID = "root";
+
+   private final QuadTreeForGround quadTree;
+   /** For each leaf that changed since the last full snapshot, the revision including the last change. */
+   private final TLongLongHashMap cellRevisions = new TLongLongHashMap();
+
+   private long lastRevision = 0L;
+   private long oldestDeltaBaseRevision = 0L;
+   private int fullSnapshotPeriod = DEFAULT_FULL_SNAPSHOT_PERIOD;
+
+   private final TLongArrayList cellKeys = new TLongArrayList();
+   private final TShortArrayList cellHeights = new TShortArrayList();
+   private final ArrayList<QuadTreeForGroundNode> children = new ArrayList<>();
+
+   public HeightQuadTreeRevisionTracker(QuadTreeForGround quadTree)
+   {
+      this.quadTree = quadTree;
+      quadTree.addQuadTreeListener(this);
+   }
+
+   public void setFullSnapshotPeriod(int fullSnapshotPeriod)
+   {
+      this.fullSnapshotPeriod = fullSnapshotPeriod;
+   }
+
+   public long getLastRevision()
+   {
+      return lastRevision;
+   }
+
+   /**
+    * To be called after the quad tree is cleared. The clients then get a full snapshot whatever their last revision is.
+    */
+   public void clear()
+   {
+      cellRevisions.clear();
+      oldestDeltaBaseRevision = lastRevision + 1L;
+   }
+
+   /**
+    * Creates the message for a new revision of the quad tree, the full snapshots hold all the leaves.
+    *
+    * @param lastReceivedRevision the last revision received by the client, or a negative value to get a full snapshot.
+    * @return a delta holding the leaves that changed since {@code lastReceivedRevision} if possible, a full snapshot
+    *         otherwise.
+    */
+   public HeightQuadTreeDeltaMessage createMessage(long lastReceivedRevision)
+   {
+      return createMessage(lastReceivedRevision, null, Double.POSITIVE_INFINITY);
+   }
+
+   /**
+    * Creates the message for a new revision of the quad tree.
+    *
+    * @param lastReceivedRevision the oldest last revision received by the clients waiting for this message, or a negative
+    *           value to get a full snapshot.
+    * @param fullSnapshotCenter the center of the circle the leaves of a full snapshot have to be in. Not used when
+    *           {@code fullSnapshotRadius} is infinite.
+    * @param fullSnapshotRadius the radius of the circle the leaves of a full snapshot have to be in.
+    * @return a delta holding the leaves that changed since {@code lastReceivedRevision} if possible, a full snapshot
+    *         otherwise.
+    */
+   public HeightQuadTreeDeltaMessage createMessage(long lastReceivedRevision, Point2D fullSnapshotCenter, double fullSnapshotRadius)
+   {
+      lastRevision++;
+
+      boolean fullSnapshot = lastReceivedRevision < oldestDeltaBaseRevision || lastReceivedRevision >= lastRevision;
+      fullSnapshot |= fullSnapshotPeriod > 0 && lastRevision % fullSnapshotPeriod == 0;
+
+      QuadTreeForGroundNode rootNode = quadTree.getRootNode();
+      Box bounds = rootNode.getBounds();
+      double defaultHeight = rootNode.getDefaultHeightWhenNoPoints();
+
+      HeightQuadTreeDeltaMessage message = new HeightQuadTreeDeltaMessage();
+      message.revision = lastRevision;
+      message.baseRevision = fullSnapshot ? HeightQuadTreeDeltaMessage.FULL_SNAPSHOT_BASE_REVISION : lastReceivedRevision;
+      message.defaultHeight = (float) defaultHeight;
+      message.resolution = (float) quadTree.getQuadTreeParameters().getResolution();
+      message.sizeX = (float) (bounds.maxX - bounds.minX);
+      message.sizeY = (float) (bounds.maxY - bounds.minY);
+      message.heightOffset = Double.isNaN(defaultHeight) ? 0.0f : (float) defaultHeight;
+      message.heightResolution = HeightQuadTreeMessageConverter.DELTA_MESSAGE_HEIGHT_RESOLUTION;
+
+      cellKeys.resetQuick();
+      cellHeights.resetQuick();
+
+      for (TLongLongIterator iterator = cellRevisions.iterator(); iterator.hasNext();)
+      {
+         iterator.advance();
+         long cellKey = iterator.key();
+
+         if (!fullSnapshot && iterator.value() <= lastReceivedRevision)
+            continue;
+
+         QuadTreeForGroundLeaf leaf = findLeaf(rootNode, cellKey);
+
+         if (leaf != null)
+         {
+            if (fullSnapshot && !isCellInsideCircle(bounds, cellKey, fullSnapshotCenter, fullSnapshotRadius))
+               continue;
+
+            cellKeys.add(cellKey);
+            cellHeights.add(HeightQuadTreeMessageConverter.quantizeHeight(leaf.getAveragePoint().getZ(), message.heightOffset, message.heightResolution));
+         }
+         else if (fullSnapshot)
+         {
+            // The clients all resynchronize with the full snapshot, no need to remember the removed leaves anymore.
+            iterator.remove();
+         }
+         else
+         {
+            cellKeys.add(cellKey);
+            cellHeights.add(HeightQuadTreeDeltaMessage.REMOVED_CELL_HEIGHT);
+         }
+      }
+
+      if (fullSnapshot)
+         oldestDeltaBaseRevision = lastRevision;
+
+      message.cellKeys = cellKeys.toArray();
+      message.cellHeights = cellHeights.toArray();
+      return message;
+   }
+
+   private static boolean isCellInsideCircle(Box rootBounds, long cellKey, Point2D circleCenter, double circleRadius)
+   {
+      if (Double.isInfinite(circleRadius))
+         return true;
+
+      int numberOfCellsPerSide = 1 << HeightQuadTreeMessageConverter.getCellDepth(cellKey);
+      double cellSizeX = (rootBounds.maxX - rootBounds.minX) / numberOfCellsPerSide;
+      double cellSizeY = (rootBounds.maxY - rootBounds.minY) / numberOfCellsPerSide;
+      double dx = rootBounds.minX + (HeightQuadTreeMessageConverter.getCellXIndex(cellKey) + 0.5) * cellSizeX - circleCenter.getX();
+      double dy = rootBounds.minY + (HeightQuadTreeMessageConverter.getCellYIndex(cellKey) + 0.5) * cellSizeY - circleCenter.getY();
+      return dx * dx + dy * dy < circleRadius * circleRadius;
+   }
+
+   private QuadTreeForGroundLeaf findLeaf(QuadTreeForGroundNode rootNode, long cellKey)
+   {
+      int depth = HeightQuadTreeMessageConverter.getCellDepth(cellKey);
+      int xIndex = HeightQuadTreeMessageConverter.getCellXIndex(cellKey);
+      int yIndex = HeightQuadTreeMessageConverter.getCellYIndex(cellKey);
+
+      QuadTreeForGroundNode node = rootNode;
+
+      for (int level = depth - 1; level >= 0; level--)
+      {
+         if (!node.hasChildren())
+            return null;
+
+         boolean east = ((xIndex >> level) & 1) != 0;
+         boolean north = ((yIndex >> level) & 1) != 0;
+
+         // The children are in the order NW, NE, SE, SW.
+         children.clear();
+         node.getChildrenNodes(children);
+         if (north)
+            node = east ? children.get(1) : children.get(0);
+         else
+            node = east ? children.get(2) : children.get(3);
+      }
+
+      QuadTreeForGroundLeaf leaf = node.getLeaf();
+      if (leaf == null || leaf.getNumberOfPoints() == 0)
+         return null;
+      return leaf;
+   }
+
+   private void markCellChanged(String nodeId)
+   {
+      cellRevisions.put(computeCellKey(nodeId), lastRevision + 1L);
+   }
+
+   /**
+    * The id of the root is "root" and the id of each child is the id of its parent followed by its quadrant: NW, NE, SE, or
+    * SW.
+    */
+   static long computeCellKey(String nodeId)
+   {
+      int depth = (nodeId.length() - ROOT_ID.length()) / 2;
+      int xIndex = 0;
+      int yIndex = 0;
+
+      for (int i = ROOT_ID.length(); i < nodeId.length(); i += 2)
+      {
+         xIndex <<= 1;
+         yIndex <<= 1;
+         if (nodeId.charAt(i) == 'N')
+            yIndex |= 1;
+         if (nodeId.charAt(i + 1) == 'E')
+            xIndex |= 1;
+      }
+
+      return HeightQuadTreeMessageConverter.computeCellKey(depth, xIndex, yIndex);
+   }
+
+   @Override
+   public void nodeAdded(String id, Box bounds, float x, float y, float height)
+   {
+      markCellChanged(id);
+   }
+
+   @Override
+   public void nodeRemoved(String id)
+   {
+      markCellChanged(id);
+   }
+
+   @Override
+   public void RawPointAdded(float x, float y, float z)
+   {
+   }
+
+   @Override
+   public void PopToOctree(Point3D32 location)
+   {
+   }
+
+   @Override
+   public void PopToOctree(Point3D32 location, Point3D32 LidarHeadLocation)
+   {
+   }
+}
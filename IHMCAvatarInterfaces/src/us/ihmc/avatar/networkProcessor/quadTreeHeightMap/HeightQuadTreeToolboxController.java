@@ -46,6 +46,7 @@ public class HeightQuadTreeToolboxController extends ToolboxController
    private static final double QUAD_TREE_EXTENT = 200;
 
    private final QuadTreeForGroundHeightMap quadTree;
+   private final HeightQuadTreeRevisionTracker revisionTracker;
 
    private float quadtreeHeightThreshold = 0.02f;
    private float quadTreeMaxMultiLevelZChangeToFilterNoise = 0.2f;
@@ -68,7 +69,8 @@ public class HeightQuadTreeToolboxController extends ToolboxController
    private final PacketCommunicator packetCommunicator;
 
    private final Point2D robotPosition2d = new Point2D();
-   private final double quadTreeMessageMaxRadius = 5.0;
+   /** The full snapshots only hold the leaves around the robot, the deltas hold all the changes. */
+   private final double fullSnapshotMaxRadius = 5.0;
 
    public HeightQuadTreeToolboxController(FullHumanoidRobotModel fullRobotModel, PacketCommunicator packetCommunicator, CommandInputManager commandInputManager,
          StatusMessageOutputManager statusOutputManager, YoVariableRegistry parentRegistry)
@@ -89,6 +91,7 @@ public class HeightQuadTreeToolboxController extends ToolboxController
             quadTreeMaxMultiLevelZChangeToFilterNoise, maxSameHeightPointsPerNode, maxAllowableXYDistanceForAPointToBeConsideredClose, maximumNumberOfPoints);
 
       quadTree = new QuadTreeForGroundHeightMap(bounds, quadTreeParameters);
+      revisionTracker = new HeightQuadTreeRevisionTracker(quadTree);
    }
 
    @Override
@@ -99,6 +102,8 @@ public class HeightQuadTreeToolboxController extends ToolboxController
 
    private final FramePoint scanPoint = new FramePoint();
    private final MutableBoolean quadTreeUpdateRequested = new MutableBoolean(false);
+   /** The oldest last received revision among the pending requests, such that all the requesters can apply the reply. */
+   private long oldestRevisionReceivedByRequesters = -1L;
 
    @Override
    protected void updateInternal()
@@ -113,17 +118,29 @@ public class HeightQuadTreeToolboxController extends ToolboxController
 
       if (commandInputManager.isNewCommandAvailable(HeightQuadTreeToolboxRequestCommand.class))
       {
-         HeightQuadTreeToolboxRequestCommand command = commandInputManager.pollNewestCommand(HeightQuadTreeToolboxRequestCommand.class);
+         List<HeightQuadTreeToolboxRequestCommand> commands = commandInputManager.pollNewCommands(HeightQuadTreeToolboxRequestCommand.class);
 
-         if (command.isQuadTreeUpdateRequested())
-            quadTreeUpdateRequested.setTrue();
-
-         if (command.isClearQuadTreeRequested())
+         for (int commandIndex = 0; commandIndex < commands.size(); commandIndex++)
          {
-            PrintTools.info("clearing the quad tree!");
-            quadTree.clearTree(Double.NaN);
-            commandInputManager.flushAllCommands();
-            return;
+            HeightQuadTreeToolboxRequestCommand command = commands.get(commandIndex);
+
+            if (command.isQuadTreeUpdateRequested())
+            {
+               long lastReceivedRevision = command.getLastReceivedRevision();
+               if (quadTreeUpdateRequested.booleanValue())
+                  lastReceivedRevision = Math.min(lastReceivedRevision, oldestRevisionReceivedByRequesters);
+               oldestRevisionReceivedByRequesters = lastReceivedRevision;
+               quadTreeUpdateRequested.setTrue();
+            }
+
+            if (command.isClearQuadTreeRequested())
+            {
+               PrintTools.info("clearing the quad tree!");
+               quadTree.clearTree(Double.NaN);
+               revisionTracker.clear();
+               commandInputManager.flushAllCommands();
+               return;
+            }
          }
       }
 
@@ -179,7 +196,7 @@ public class HeightQuadTreeToolboxController extends ToolboxController
          Point3D rootJointPosition = new Point3D();
          rootJoint.getTranslation(rootJointPosition);
          robotPosition2d.set(rootJointPosition.getX(), rootJointPosition.getY());
-         reportMessage(HeightQuadTreeMessageConverter.convertQuadTreeForGround(quadTree, robotPosition2d, quadTreeMessageMaxRadius));
+         reportMessage(revisionTracker.createMessage(oldestRevisionReceivedByRequesters, robotPosition2d, fullSnapshotMaxRadius));
          quadTreeUpdateRequested.setFalse();
       }
    }
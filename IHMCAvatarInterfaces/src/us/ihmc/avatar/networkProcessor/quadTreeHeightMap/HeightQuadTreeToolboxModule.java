@@ -14,7 +14,7 @@ import us.ihmc.communication.packets.Packet;
 import us.ihmc.communication.packets.PacketDestination;
 import us.ihmc.communication.packets.StatusPacket;
 import us.ihmc.communication.util.NetworkPorts;
-import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeMessage;
+import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage;
 import us.ihmc.humanoidRobotics.communication.packets.walking.CapturabilityBasedStatus;
 import us.ihmc.humanoidRobotics.communication.toolbox.heightQuadTree.command.HeightQuadTreeToolboxRequestCommand;
 import us.ihmc.humanoidRobotics.communication.toolbox.heightQuadTree.command.LidarScanCommand;
@@ -57,7 +57,7 @@ public class HeightQuadTreeToolboxModule extends ToolboxModule
    @Override
    public List<Class<? extends StatusPacket<?>>> createListOfSupportedStatus()
    {
-      return Collections.singletonList(HeightQuadTreeMessage.class);
+      return Collections.singletonList(HeightQuadTreeDeltaMessage.class);
    }
 
    @Override
@@ -3,7 +3,10 @@ package us.ihmc.avatar.ros;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.ros.internal.message.Message;
 import org.ros.message.MessageFactory;
@@ -35,11 +38,17 @@ import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.trajectories.TrajectoryType;
 import us.ihmc.utilities.ros.msgToPacket.converter.GenericROSTranslationTools;
 import us.ihmc.utilities.ros.msgToPacket.converter.RosEnumConversionException;
+import us.ihmc.utilities.ros.msgToPacket.converter.RosMessageConverterRegistry;
 
 public class IHMCROSTranslationRuntimeTools
 {
    private static final MessageFactory messageFactory = GenericROSTranslationTools.getMessageFactory();
 
+   private static final ConcurrentHashMap<Class<?>, Method> customConvertToRosMessageMethods = new ConcurrentHashMap<>();
+   private static final ConcurrentHashMap<Class<?>, Method> customConvertToIHMCMessageMethods = new ConcurrentHashMap<>();
+   private static final Set<Class<?>> typesWithoutCustomConversion = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+   private static final ConcurrentHashMap<String, Class<?>> rosMessageClasses = new ConcurrentHashMap<>();
+
    public static Message convertToRosMessage(Packet<?> ihmcMessage)
          throws InvocationTargetException, IllegalAccessException, NoSuchMethodException, ClassNotFoundException
    {
@@ -47,16 +56,15 @@ public class IHMCROSTranslationRuntimeTools
       {
          return null;
       }
-      Class<? extends Packet> aClass = ihmcMessage.getClass();
-      try
+      Method convertToRosMessageMethod = getCustomConversionMethod(customConvertToRosMessageMethods, "customConvertToRosMessage", ihmcMessage.getClass());
+
+      if (convertToRosMessageMethod != null)
       {
-         Method convertToRosMessageMethod = IHMCROSTranslationRuntimeTools.class.getDeclaredMethod("customConvertToRosMessage", aClass);
-         convertToRosMessageMethod.setAccessible(true);
          return (Message) convertToRosMessageMethod.invoke(null, ihmcMessage);
       }
-      catch (NoSuchMethodException exception)
+      else
       {
-         return GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
+         return RosMessageConverterRegistry.convertIHMCMessageToRosMessage(ihmcMessage);
       }
    }
 
@@ -68,18 +76,49 @@ public class IHMCROSTranslationRuntimeTools
       {
          return null;
       }
-      Class<?> aClass = Class.forName(rosMessage.toRawMessage().getType().replace("/", "."));
+      String rosType = rosMessage.toRawMessage().getType();
+      Class<?> aClass = rosMessageClasses.get(rosType);
+      if (aClass == null)
+      {
+         aClass = Class.forName(rosType.replace("/", "."));
+         rosMessageClasses.put(rosType, aClass);
+      }
 
-      try
+      Method convertToIHMCMessageMethod = getCustomConversionMethod(customConvertToIHMCMessageMethods, "customConvertToIHMCMessage", aClass);
+
+      if (convertToIHMCMessageMethod != null)
       {
-         Method convertToIHMCMessageMethod = IHMCROSTranslationRuntimeTools.class.getDeclaredMethod("customConvertToIHMCMessage", aClass);
-         convertToIHMCMessageMethod.setAccessible(true);
          return (Packet<?>) convertToIHMCMessageMethod.invoke(null, rosMessage);
       }
-      catch (NoSuchMethodException exception)
+      else
+      {
+         return RosMessageConverterRegistry.convertRosMessageToIHMCMessage(rosMessage);
+      }
+   }
+
+   /**
+    * Looks up the custom conversion method for the given message type once, and caches the result, including when there is none.
+    */
+   private static Method getCustomConversionMethod(ConcurrentHashMap<Class<?>, Method> customConversionMethods, String methodName, Class<?> messageClass)
+   {
+      Method method = customConversionMethods.get(messageClass);
+
+      if (method == null && !typesWithoutCustomConversion.contains(messageClass))
       {
-         return GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+         try
+         {
+            method = IHMCROSTranslationRuntimeTools.class.getDeclaredMethod(methodName, messageClass);
+            method.setAccessible(true);
+            customConversionMethods.put(messageClass, method);
+         }
+         catch (NoSuchMethodException exception)
+         {
+            // The IHMC and ROS message classes are distinct, so one set is enough for both directions.
+            typesWithoutCustomConversion.add(messageClass);
+         }
       }
+
+      return method;
    }
 
    private static Packet customConvertToIHMCMessage(FootstepDataListRosMessage message) throws Exception
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
 import org.junit.Before;
@@ -19,6 +20,7 @@ import us.ihmc.commons.PrintTools;
 import us.ihmc.communication.PacketRouter;
 import us.ihmc.communication.packetCommunicator.PacketCommunicator;
 import us.ihmc.communication.packets.PacketDestination;
+import us.ihmc.communication.packets.TextToSpeechPacket;
 import us.ihmc.communication.util.NetworkPorts;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.euclid.axisAngle.AxisAngle;
@@ -28,11 +30,13 @@ import us.ihmc.euclid.tuple3D.Vector3D;
 import us.ihmc.euclid.tuple4D.Quaternion;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
 import us.ihmc.humanoidBehaviors.IHMCHumanoidBehaviorManager;
+import us.ihmc.humanoidBehaviors.behaviors.AbstractBehavior;
 import us.ihmc.humanoidBehaviors.behaviors.diagnostic.DiagnosticBehavior;
 import us.ihmc.humanoidBehaviors.behaviors.diagnostic.DiagnosticBehavior.DiagnosticTask;
 import us.ihmc.humanoidBehaviors.behaviors.primitives.PelvisOrientationTrajectoryBehavior;
 import us.ihmc.humanoidBehaviors.behaviors.primitives.WalkToLocationBehavior;
 import us.ihmc.humanoidBehaviors.communication.CommunicationBridge;
+import us.ihmc.humanoidBehaviors.communication.ConcurrentListeningQueue;
 import us.ihmc.humanoidBehaviors.dispatcher.BehaviorControlModeSubscriber;
 import us.ihmc.humanoidBehaviors.dispatcher.BehaviorDispatcher;
 import us.ihmc.humanoidBehaviors.dispatcher.HumanoidBehaviorTypeSubscriber;
@@ -55,6 +59,7 @@ import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
 import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
 import us.ihmc.robotics.dataStructures.variable.EnumYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
 import us.ihmc.robotics.geometry.FramePose;
 import us.ihmc.robotics.geometry.FramePose2d;
 import us.ihmc.robotics.math.frames.YoFrameConvexPolygon2d;
@@ -238,7 +243,7 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
       PelvisOrientationTrajectoryBehavior pelvisOrientationTrajectoryBehavior = new PelvisOrientationTrajectoryBehavior(communicationBridge, yoTime);
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.TEST, pelvisOrientationTrajectoryBehavior);
 
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
       HumanoidBehaviorTypePacket requestPelvisPoseBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.TEST);
       behaviorCommunicatorClient.send(requestPelvisPoseBehaviorPacket);
@@ -282,7 +287,7 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
             walkingControllerParameters);
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.WALK_TO_LOCATION, walkToLocationBehavior);
 
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
 
       HumanoidBehaviorTypePacket requestWalkToObjectBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.WALK_TO_LOCATION);
@@ -348,7 +353,7 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
 
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.DIAGNOSTIC, diagnosticBehavior);
 
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
       HumanoidBehaviorTypePacket requestDiagnosticBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.DIAGNOSTIC);
       behaviorCommunicatorClient.send(requestDiagnosticBehaviorPacket);
@@ -390,7 +395,7 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
             walkingControllerParameters);
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.WALK_TO_LOCATION, walkToLocationBehavior);
 
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
 
       HumanoidBehaviorTypePacket requestWalkToObjectBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.WALK_TO_LOCATION);
@@ -439,7 +444,7 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
             walkingControllerParameters);
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.WALK_TO_LOCATION, walkToLocationBehavior);
 
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
 
       HumanoidBehaviorTypePacket requestWalkToObjectBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.WALK_TO_LOCATION);
@@ -489,6 +494,95 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
       BambooTools.reportTestFinishedMessage(simulationTestingParameters.getShowWindows());
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 300000)
+   public void testReactiveDispatcherOnlyRunsOnEvents() throws InterruptedException
+   {
+      // Periods long enough for the periodic wake-ups to never happen during the test.
+      double periodLongerThanTest = 1000.0;
+      CountingBehavior countingBehavior = new CountingBehavior(communicationBridge);
+      behaviorDispatcher.addBehavior(HumanoidBehaviorType.TEST, countingBehavior);
+      LongYoVariable numberOfIdleControlCycles = (LongYoVariable) registry.getVariable("stopNumberOfControlCycles");
+
+      behaviorDispatcher.startReactive(periodLongerThanTest, periodLongerThanTest);
+      waitUntilAtLeast(numberOfIdleControlCycles, 1);
+
+      // Without packets nor requests, the idle dispatcher does not run.
+      long idleControlCycles = numberOfIdleControlCycles.getLongValue();
+      Thread.sleep(200);
+      assertEquals(idleControlCycles, numberOfIdleControlCycles.getLongValue());
+      assertEquals(0, countingBehavior.numberOfControlCycles.get());
+
+      // The request wakes up the dispatcher, which switches to the requested behavior and runs it right away.
+      behaviorCommunicatorClient.send(new HumanoidBehaviorTypePacket(HumanoidBehaviorType.TEST));
+      waitUntilAtLeast(countingBehavior.numberOfControlCycles, 1);
+      assertEquals(HumanoidBehaviorType.TEST, behaviorDispatcher.getCurrentBehaviorType());
+
+      // The running behavior does not run until it receives a packet.
+      Thread.sleep(200);
+      long runningControlCycles = countingBehavior.numberOfControlCycles.get();
+      Thread.sleep(200);
+      assertEquals(runningControlCycles, countingBehavior.numberOfControlCycles.get());
+
+      for (int i = 1; i <= 5; i++)
+      {
+         behaviorCommunicatorClient.send(new TextToSpeechPacket("packet " + i));
+         waitUntilAtLeast(countingBehavior.numberOfReceivedPackets, i);
+      }
+      assertTrue(countingBehavior.numberOfControlCycles.get() > runningControlCycles);
+
+      // Stopping switches back to the idle behavior.
+      behaviorCommunicatorClient.send(new BehaviorControlModePacket(BehaviorControlModeEnum.STOP));
+      waitUntilAtLeast(numberOfIdleControlCycles, idleControlCycles + 1);
+      assertEquals(HumanoidBehaviorType.STOP, behaviorDispatcher.getCurrentBehaviorType());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 300000)
+   public void testReactiveDispatcherRunsOnWakeUpRequests() throws InterruptedException
+   {
+      CountingBehavior countingBehavior = new CountingBehavior(communicationBridge);
+      behaviorDispatcher.addBehavior(HumanoidBehaviorType.TEST, countingBehavior);
+
+      behaviorDispatcher.startReactive(1000.0, 1000.0);
+      behaviorCommunicatorClient.send(new HumanoidBehaviorTypePacket(HumanoidBehaviorType.TEST));
+      waitUntilAtLeast(countingBehavior.numberOfControlCycles, 1);
+      Thread.sleep(200);
+
+      long controlCycles = countingBehavior.numberOfControlCycles.get();
+      countingBehavior.requestWakeUpIn(0.05);
+      waitUntilAtLeast(countingBehavior.numberOfControlCycles, controlCycles + 1);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 300000)
+   public void testReactiveDispatcherPollsTheRunningBehavior() throws InterruptedException
+   {
+      CountingBehavior countingBehavior = new CountingBehavior(communicationBridge);
+      behaviorDispatcher.addBehavior(HumanoidBehaviorType.TEST, countingBehavior);
+
+      // Without any event, the running behavior is still run with the given period.
+      behaviorDispatcher.startReactive(0.01, 1000.0);
+      behaviorCommunicatorClient.send(new HumanoidBehaviorTypePacket(HumanoidBehaviorType.TEST));
+      waitUntilAtLeast(countingBehavior.numberOfControlCycles, 10);
+   }
+
+   private static void waitUntilAtLeast(LongYoVariable variable, long value) throws InterruptedException
+   {
+      while (variable.getLongValue() < value)
+      {
+         Thread.sleep(1);
+      }
+   }
+
+   private static void waitUntilAtLeast(AtomicLong counter, long value) throws InterruptedException
+   {
+      while (counter.get() < value)
+      {
+         Thread.sleep(1);
+      }
+   }
+
    private FramePose2d offsetCurrentRobotMidFeetZUpPose(double walkDistance)
    {
       FramePose2d targetMidFeetPose = getCurrentMidFeetPose2dTheHardWayBecauseReferenceFramesDontUpdateProperly(robot);
@@ -585,4 +679,62 @@ public abstract class HumanoidBehaviorDispatcherTest implements MultiRobotTestIn
       assertEquals("Pose orientation error :" + orientationDistance + " exceeds threshold: " + ORIENTATION_THRESHOLD, 0.0, orientationDistance,
             ORIENTATION_THRESHOLD);
    }
+
+   private static class CountingBehavior extends AbstractBehavior
+   {
+      private final AtomicLong numberOfControlCycles = new AtomicLong(0);
+      private final AtomicLong numberOfReceivedPackets = new AtomicLong(0);
+      private final ConcurrentListeningQueue<TextToSpeechPacket> textToSpeechQueue = new ConcurrentListeningQueue<>(20);
+
+      public CountingBehavior(CommunicationBridge communicationBridge)
+      {
+         super(communicationBridge);
+         attachNetworkListeningQueue(textToSpeechQueue, TextToSpeechPacket.class);
+      }
+
+      @Override
+      public void doControl()
+      {
+         while (textToSpeechQueue.poll() != null)
+            numberOfReceivedPackets.incrementAndGet();
+         numberOfControlCycles.incrementAndGet();
+      }
+
+      @Override
+      protected void requestWakeUpIn(double delayInSeconds)
+      {
+         super.requestWakeUpIn(delayInSeconds);
+      }
+
+      @Override
+      public boolean isDone()
+      {
+         return false;
+      }
+
+      @Override
+      public void onBehaviorEntered()
+      {
+      }
+
+      @Override
+      public void onBehaviorAborted()
+      {
+      }
+
+      @Override
+      public void onBehaviorPaused()
+      {
+      }
+
+      @Override
+      public void onBehaviorResumed()
+      {
+      }
+
+      @Override
+      public void onBehaviorExited()
+      {
+      }
+   }
 }
@@ -0,0 +1,251 @@
+package us.ihmc.avatar.networkProcessor.kinematicsToolboxModule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ihmc.avatar.MultiRobotTestInterface;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.communication.controllerAPI.CommandInputManager;
+import us.ihmc.communication.controllerAPI.StatusMessageOutputManager;
+import us.ihmc.communication.controllerAPI.StatusMessageOutputManager.StatusMessageListener;
+import us.ihmc.communication.controllerAPI.command.Command;
+import us.ihmc.communication.packets.KinematicsToolboxOutputStatus;
+import us.ihmc.communication.packets.PacketDestination;
+import us.ihmc.communication.packets.StatusPacket;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple4D.Quaternion;
+import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.ChestTrajectoryCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.HandTrajectoryCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.PelvisHeightTrajectoryCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.PelvisOrientationTrajectoryCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.TrackingWeightsCommand;
+import us.ihmc.humanoidRobotics.communication.controllerAPI.command.WholeBodyTrajectoryCommand;
+import us.ihmc.humanoidRobotics.communication.packets.manipulation.HandTrajectoryMessage;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotModels.FullRobotModelUtils;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.geometry.FramePoint;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.sensors.ForceSensorDefinition;
+import us.ihmc.robotics.sensors.IMUDefinition;
+import us.ihmc.sensorProcessing.communication.packets.dataobjects.RobotConfigurationData;
+
+public abstract class KinematicsToolboxControllerTest implements MultiRobotTestInterface
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+   private static final RobotSide robotSide = RobotSide.LEFT;
+
+   private FullHumanoidRobotModel actualFullRobotModel;
+   private CommandInputManager commandInputManager;
+   private KinematicsToolboxController toolboxController;
+   private final List<KinematicsToolboxOutputStatus> reportedSolutions = new ArrayList<>();
+
+   @Before
+   public void setup()
+   {
+      DRCRobotModel robotModel = getRobotModel();
+
+      List<Class<? extends Command<?, ?>>> commands = new ArrayList<>();
+      commands.add(HandTrajectoryCommand.class);
+      commands.add(ChestTrajectoryCommand.class);
+      commands.add(PelvisHeightTrajectoryCommand.class);
+      commands.add(PelvisOrientationTrajectoryCommand.class);
+      commands.add(WholeBodyTrajectoryCommand.class);
+      commands.add(TrackingWeightsCommand.class);
+      commandInputManager = new CommandInputManager(commands);
+
+      List<Class<? extends StatusPacket<?>>> statusMessages = new ArrayList<>();
+      statusMessages.add(KinematicsToolboxOutputStatus.class);
+      StatusMessageOutputManager statusOutputManager = new StatusMessageOutputManager(statusMessages);
+      statusOutputManager.attachStatusMessageListener(KinematicsToolboxOutputStatus.class, new StatusMessageListener<KinematicsToolboxOutputStatus>()
+      {
+         @Override
+         public void receivedNewMessageStatus(KinematicsToolboxOutputStatus statusMessage)
+         {
+            KinematicsToolboxOutputStatus solution = new KinematicsToolboxOutputStatus();
+            solution.set(statusMessage);
+            reportedSolutions.add(solution);
+         }
+      });
+
+      FullHumanoidRobotModel desiredFullRobotModel = robotModel.createFullRobotModel();
+      toolboxController = new KinematicsToolboxController(commandInputManager, statusOutputManager, desiredFullRobotModel, robotModel,
+                                                          new YoGraphicsListRegistry(), new YoVariableRegistry("testRegistry"));
+      toolboxController.setPacketDestination(PacketDestination.BEHAVIOR_MODULE);
+      toolboxController.setStreamingMode(true);
+
+      actualFullRobotModel = robotModel.createFullRobotModel();
+      // Away from the joint limits and from the singular straight arms and knees.
+      for (OneDoFJoint joint : FullRobotModelUtils.getAllJointsExcludingHands(actualFullRobotModel))
+      {
+         if (Double.isFinite(joint.getJointLimitLower()) && Double.isFinite(joint.getJointLimitUpper()))
+            joint.setQ(0.5 * (joint.getJointLimitLower() + joint.getJointLimitUpper()));
+      }
+      actualFullRobotModel.getRootJoint().setPosition(0.0, 0.0, 0.8);
+      actualFullRobotModel.updateFrames();
+   }
+
+   @After
+   public void tearDown()
+   {
+      toolboxController = null;
+      commandInputManager = null;
+      actualFullRobotModel = null;
+      reportedSolutions.clear();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 30000)
+   public void testStreamingRequestIsSolvedWithinOneTick() throws InterruptedException
+   {
+      initializeToActualConfiguration();
+      assertEquals(1, reportedSolutions.size());
+
+      Point3D desiredHandPosition = getActualHandPosition();
+      desiredHandPosition.add(0.05, 0.0, 0.05);
+      double initialError = getDesiredHandPositionError(desiredHandPosition);
+
+      submitHandRequest(desiredHandPosition);
+      // The latency is measured from the reception of the request, not from when the toolbox polls it.
+      Thread.sleep(50);
+      toolboxController.update();
+
+      assertEquals(2, reportedSolutions.size());
+      assertTrue(toolboxController.getNumberOfIterationsForLastRequest() > 0);
+      assertTrue(toolboxController.getNumberOfIterationsForLastRequest() <= toolboxController.getMaximumNumberOfIterationsPerRequest());
+      assertTrue(getDesiredHandPositionError(desiredHandPosition) < 0.1 * initialError);
+      assertEquals(2, toolboxController.getRequestLatencyStatistics().getNumberOfSamples());
+      assertTrue(toolboxController.getRequestLatencyStatistics().getLastLatency() >= 0.05);
+
+      // Without new request, nothing is solved or reported.
+      toolboxController.update();
+      assertEquals(2, reportedSolutions.size());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 30000)
+   public void testStreamingRequestIsWarmStartedFromThePreviousSolution()
+   {
+      initializeToActualConfiguration();
+
+      Point3D desiredHandPosition = getActualHandPosition();
+      desiredHandPosition.add(0.05, 0.0, 0.05);
+
+      submitHandRequest(desiredHandPosition);
+      toolboxController.update();
+      int numberOfIterationsFromActualConfiguration = toolboxController.getNumberOfIterationsForLastRequest();
+      double error = getDesiredHandPositionError(desiredHandPosition);
+
+      // The same request again starts from the previous solution, so it converges right away.
+      submitHandRequest(desiredHandPosition);
+      toolboxController.update();
+
+      assertEquals(3, reportedSolutions.size());
+      assertTrue(toolboxController.getNumberOfIterationsForLastRequest() < numberOfIterationsFromActualConfiguration);
+      assertTrue(getDesiredHandPositionError(desiredHandPosition) <= error + 1.0e-4);
+      assertSolutionsAreClose(reportedSolutions.get(1), reportedSolutions.get(2), 1.0e-2);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 30000)
+   public void testStreamingSolverIsResetOnNewRequest()
+   {
+      initializeToActualConfiguration();
+
+      Point3D firstDesiredHandPosition = getActualHandPosition();
+      firstDesiredHandPosition.add(0.05, 0.0, 0.05);
+      submitHandRequest(firstDesiredHandPosition);
+      toolboxController.update();
+      assertEquals(2, reportedSolutions.size());
+
+      Point3D secondDesiredHandPosition = getActualHandPosition();
+      secondDesiredHandPosition.add(-0.05, 0.0, 0.0);
+      double initialError = getDesiredHandPositionError(secondDesiredHandPosition);
+      submitHandRequest(secondDesiredHandPosition);
+      toolboxController.update();
+
+      // The new request is solved with its own iteration budget and replaces the previous target.
+      assertEquals(3, reportedSolutions.size());
+      assertTrue(toolboxController.getNumberOfIterationsForLastRequest() > 0);
+      assertTrue(toolboxController.getNumberOfIterationsForLastRequest() <= toolboxController.getMaximumNumberOfIterationsPerRequest());
+      assertTrue(getDesiredHandPositionError(secondDesiredHandPosition) < 0.1 * initialError);
+      assertEquals(0, toolboxController.getNumberOfReplacedRequests());
+
+      // A new initialization starts over from the actual configuration of the robot.
+      toolboxController.requestInitialize();
+      initializeToActualConfiguration();
+      assertEquals(4, reportedSolutions.size());
+
+      OneDoFJoint[] actualJoints = FullRobotModelUtils.getAllJointsExcludingHands(actualFullRobotModel);
+      OneDoFJoint[] desiredJoints = FullRobotModelUtils.getAllJointsExcludingHands(toolboxController.getDesiredFullRobotModel());
+      float[] initialSolution = reportedSolutions.get(3).getJointAngles();
+      for (int i = 0; i < actualJoints.length; i++)
+      {
+         // Only the regularization moves the joints away from the initial configuration.
+         assertEquals(actualJoints[i].getQ(), desiredJoints[i].getQ(), 1.0e-2);
+         assertEquals(actualJoints[i].getQ(), initialSolution[i], 1.0e-2);
+      }
+   }
+
+   private void initializeToActualConfiguration()
+   {
+      OneDoFJoint[] joints = FullRobotModelUtils.getAllJointsExcludingHands(actualFullRobotModel);
+      RobotConfigurationData robotConfigurationData = new RobotConfigurationData(joints, new ForceSensorDefinition[0], null, new IMUDefinition[0]);
+      robotConfigurationData.setJointState(new ArrayList<>(Arrays.asList(joints)));
+      Vector3D rootTranslation = new Vector3D();
+      Quaternion rootOrientation = new Quaternion();
+      actualFullRobotModel.getRootJoint().getTranslation(rootTranslation);
+      actualFullRobotModel.getRootJoint().getRotation(rootOrientation);
+      robotConfigurationData.setRootTranslation(rootTranslation);
+      robotConfigurationData.setRootOrientation(rootOrientation);
+
+      toolboxController.createRobotConfigurationDataConsumer().receivedPacket(robotConfigurationData);
+      toolboxController.update();
+   }
+
+   private void submitHandRequest(Point3D desiredHandPosition)
+   {
+      Quaternion desiredHandOrientation = new Quaternion();
+      actualFullRobotModel.getHandControlFrame(robotSide).getTransformToWorldFrame().getRotation(desiredHandOrientation);
+      HandTrajectoryMessage message = new HandTrajectoryMessage(robotSide, 0.0, desiredHandPosition, desiredHandOrientation, worldFrame, worldFrame);
+      commandInputManager.submitMessage(message);
+   }
+
+   private Point3D getActualHandPosition()
+   {
+      FramePoint handPosition = new FramePoint(actualFullRobotModel.getHandControlFrame(robotSide));
+      handPosition.changeFrame(worldFrame);
+      return handPosition.getPoint();
+   }
+
+   private double getDesiredHandPositionError(Point3D desiredHandPosition)
+   {
+      FullHumanoidRobotModel desiredFullRobotModel = toolboxController.getDesiredFullRobotModel();
+      desiredFullRobotModel.updateFrames();
+      FramePoint handPosition = new FramePoint(desiredFullRobotModel.getHandControlFrame(robotSide));
+      handPosition.changeFrame(worldFrame);
+      return handPosition.getPoint().distance(desiredHandPosition);
+   }
+
+   private static void assertSolutionsAreClose(KinematicsToolboxOutputStatus expected, KinematicsToolboxOutputStatus actual, double epsilon)
+   {
+      assertNotNull(expected.getJointAngles());
+      assertEquals(expected.getJointAngles().length, actual.getJointAngles().length);
+      for (int i = 0; i < expected.getJointAngles().length; i++)
+         assertEquals(expected.getJointAngles()[i], actual.getJointAngles()[i], epsilon);
+   }
+}
@@ -0,0 +1,192 @@
+package us.ihmc.avatar.networkProcessor.quadTreeHeightMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage;
+import us.ihmc.robotics.quadTree.Box;
+import us.ihmc.robotics.quadTree.QuadTreeForGround;
+import us.ihmc.robotics.quadTree.QuadTreeForGroundParameters;
+
+public class HeightQuadTreeRevisionTrackerTest
+{
+   private static final double HEIGHT_EPSILON = 0.5 * HeightQuadTreeMessageConverter.DELTA_MESSAGE_HEIGHT_RESOLUTION + 1.0e-5;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testDeltasKeepClientInSyncWithFullConversion()
+   {
+      Random random = new Random(4253L);
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.05, 0.02, 0.2, 4, 0.2, 5000);
+      QuadTreeForGround quadTree = new QuadTreeForGround(new Box(-10.0, -10.0, 10.0, 10.0), parameters);
+      HeightQuadTreeRevisionTracker revisionTracker = new HeightQuadTreeRevisionTracker(quadTree);
+      revisionTracker.setFullSnapshotPeriod(10);
+
+      HeightQuadTree clientQuadTree = new HeightQuadTree();
+
+      for (int iteration = 0; iteration < 25; iteration++)
+      {
+         // Most of the time the robot only sees a small patch, sometimes a large area.
+         double patchSize = iteration % 7 == 0 ? 4.0 : 0.5;
+         double patchX = 2.0 * (random.nextDouble() - 0.5);
+         double patchY = 2.0 * (random.nextDouble() - 0.5);
+
+         for (int i = 0; i < 2000; i++)
+         {
+            double x = patchX + patchSize * (random.nextDouble() - 0.5);
+            double y = patchY + patchSize * (random.nextDouble() - 0.5);
+            double z = x > 0.0 ? 0.3 : 0.0;
+            quadTree.put(x, y, z + 0.01 * random.nextDouble());
+         }
+
+         HeightQuadTreeDeltaMessage message = revisionTracker.createMessage(clientQuadTree.getRevision());
+         assertEquals(iteration == 0 || message.revision % 10 == 0, message.isFullSnapshot());
+         assertTrue(HeightQuadTreeMessageConverter.applyMessage(message, clientQuadTree));
+         assertEquals(message.revision, clientQuadTree.getRevision());
+
+         HeightQuadTree expectedQuadTree = HeightQuadTreeMessageConverter.convertMessage(HeightQuadTreeMessageConverter.convertQuadTreeForGround(quadTree,
+               new Point2D(), Double.POSITIVE_INFINITY));
+         assertNodesEqual(expectedQuadTree.getRoot(), clientQuadTree.getRoot());
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testMissedDeltaIsNotApplied()
+   {
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.05, 0.02, 0.2, 4, 0.2, 5000);
+      QuadTreeForGround quadTree = new QuadTreeForGround(new Box(-10.0, -10.0, 10.0, 10.0), parameters);
+      HeightQuadTreeRevisionTracker revisionTracker = new HeightQuadTreeRevisionTracker(quadTree);
+
+      HeightQuadTree clientQuadTree = new HeightQuadTree();
+      quadTree.put(1.0, 1.0, 0.1);
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(revisionTracker.createMessage(-1L), clientQuadTree));
+      long clientRevision = clientQuadTree.getRevision();
+
+      // The client misses this revision.
+      quadTree.put(-1.0, 1.0, 0.2);
+      HeightQuadTreeDeltaMessage missedMessage = revisionTracker.createMessage(clientRevision);
+      quadTree.put(-1.0, -1.0, 0.3);
+      HeightQuadTreeDeltaMessage nextMessage = revisionTracker.createMessage(missedMessage.revision);
+
+      assertFalse(nextMessage.isFullSnapshot());
+      assertEquals(1, nextMessage.getNumberOfCells());
+      assertFalse(HeightQuadTreeMessageConverter.applyMessage(nextMessage, clientQuadTree));
+      assertEquals(clientRevision, clientQuadTree.getRevision());
+
+      // Requesting the changes since its own revision brings the client back in sync.
+      HeightQuadTreeDeltaMessage catchUpMessage = revisionTracker.createMessage(clientQuadTree.getRevision());
+      assertEquals(4, catchUpMessage.getNumberOfCells());
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(catchUpMessage, clientQuadTree));
+
+      HeightQuadTree expectedQuadTree = HeightQuadTreeMessageConverter.convertMessage(HeightQuadTreeMessageConverter.convertQuadTreeForGround(quadTree,
+            new Point2D(), Double.POSITIVE_INFINITY));
+      assertNodesEqual(expectedQuadTree.getRoot(), clientQuadTree.getRoot());
+
+      // After the tree is cleared, the client gets a full snapshot.
+      quadTree.clear();
+      revisionTracker.clear();
+      HeightQuadTreeDeltaMessage messageAfterClear = revisionTracker.createMessage(clientQuadTree.getRevision());
+      assertTrue(messageAfterClear.isFullSnapshot());
+      assertEquals(0, messageAfterClear.getNumberOfCells());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testFullSnapshotIsLimitedToRadius()
+   {
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.05, 0.02, 0.2, 4, 0.2, 5000);
+      QuadTreeForGround quadTree = new QuadTreeForGround(new Box(-10.0, -10.0, 10.0, 10.0), parameters);
+      HeightQuadTreeRevisionTracker revisionTracker = new HeightQuadTreeRevisionTracker(quadTree);
+
+      HeightQuadTree clientQuadTree = new HeightQuadTree();
+      quadTree.put(1.0, 1.0, 0.1);
+      quadTree.put(8.0, -8.0, 0.2);
+      Point2D robotPosition = new Point2D(1.5, 1.5);
+      double radius = 2.0;
+
+      HeightQuadTreeDeltaMessage fullSnapshot = revisionTracker.createMessage(-1L, robotPosition, radius);
+      assertTrue(fullSnapshot.isFullSnapshot());
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(fullSnapshot, clientQuadTree));
+
+      HeightQuadTree expectedQuadTree = HeightQuadTreeMessageConverter.convertMessage(HeightQuadTreeMessageConverter.convertQuadTreeForGround(quadTree,
+            robotPosition, radius));
+      assertNodesEqual(expectedQuadTree.getRoot(), clientQuadTree.getRoot());
+      // Only the leaf close to the robot is sent.
+      assertEquals(1, fullSnapshot.getNumberOfCells());
+
+      // The deltas are not limited.
+      quadTree.put(-8.0, 8.0, 0.3);
+      HeightQuadTreeDeltaMessage delta = revisionTracker.createMessage(clientQuadTree.getRevision(), robotPosition, radius);
+      assertFalse(delta.isFullSnapshot());
+      assertTrue(delta.getNumberOfCells() > 0);
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(delta, clientQuadTree));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDeltaBasedOnOldestRevisionIsAppliedByAllClients()
+   {
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.05, 0.02, 0.2, 4, 0.2, 5000);
+      QuadTreeForGround quadTree = new QuadTreeForGround(new Box(-10.0, -10.0, 10.0, 10.0), parameters);
+      HeightQuadTreeRevisionTracker revisionTracker = new HeightQuadTreeRevisionTracker(quadTree);
+
+      HeightQuadTree firstClientQuadTree = new HeightQuadTree();
+      HeightQuadTree secondClientQuadTree = new HeightQuadTree();
+
+      quadTree.put(1.0, 1.0, 0.1);
+      HeightQuadTreeDeltaMessage firstMessage = revisionTracker.createMessage(-1L);
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(firstMessage, firstClientQuadTree));
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(firstMessage, secondClientQuadTree));
+
+      // Only the first client gets this revision.
+      quadTree.put(-1.0, 1.0, 0.2);
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(revisionTracker.createMessage(firstClientQuadTree.getRevision()), firstClientQuadTree));
+
+      // A delta based on the revision of the first client is refused by the second client, which has to request again.
+      quadTree.put(-1.0, -1.0, 0.3);
+      HeightQuadTreeDeltaMessage deltaForFirstClient = revisionTracker.createMessage(firstClientQuadTree.getRevision());
+      assertFalse(HeightQuadTreeMessageConverter.applyMessage(deltaForFirstClient, secondClientQuadTree));
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(deltaForFirstClient, firstClientQuadTree));
+
+      // A delta based on the oldest revision of the two clients is applied by both.
+      quadTree.put(1.0, -1.0, 0.4);
+      long oldestRevision = Math.min(firstClientQuadTree.getRevision(), secondClientQuadTree.getRevision());
+      HeightQuadTreeDeltaMessage deltaForBothClients = revisionTracker.createMessage(oldestRevision);
+      assertFalse(deltaForBothClients.isFullSnapshot());
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(deltaForBothClients, firstClientQuadTree));
+      assertTrue(HeightQuadTreeMessageConverter.applyMessage(deltaForBothClients, secondClientQuadTree));
+
+      HeightQuadTree expectedQuadTree = HeightQuadTreeMessageConverter.convertMessage(HeightQuadTreeMessageConverter.convertQuadTreeForGround(quadTree,
+            new Point2D(), Double.POSITIVE_INFINITY));
+      assertNodesEqual(expectedQuadTree.getRoot(), firstClientQuadTree.getRoot());
+      assertNodesEqual(expectedQuadTree.getRoot(), secondClientQuadTree.getRoot());
+   }
+
+   private static void assertNodesEqual(HeightQuadTreeNode expected, HeightQuadTreeNode actual)
+   {
+      assertNotNull(actual);
+      assertEquals(expected.getCenterX(), actual.getCenterX(), 1.0e-5);
+      assertEquals(expected.getCenterY(), actual.getCenterY(), 1.0e-5);
+      assertEquals(Float.isNaN(expected.getHeight()), Float.isNaN(actual.getHeight()));
+      if (!Float.isNaN(expected.getHeight()))
+         assertEquals(expected.getHeight(), actual.getHeight(), HEIGHT_EPSILON);
+
+      assertEquals(expected.getNumberOfChildren(), actual.getNumberOfChildren());
+
+      for (int childIndex = 0; childIndex < 4; childIndex++)
+      {
+         HeightQuadTreeNode expectedChild = expected.getChild(childIndex);
+         if (expectedChild != null)
+            assertNodesEqual(expectedChild, actual.getChild(childIndex));
+      }
+   }
+}
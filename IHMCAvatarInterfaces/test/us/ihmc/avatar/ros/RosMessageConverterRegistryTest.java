@@ -0,0 +1,148 @@
+package us.ihmc.avatar.ros;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.ros.internal.message.Message;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.utilities.ros.msgToPacket.converter.GenericROSTranslationTools;
+import us.ihmc.utilities.ros.msgToPacket.converter.RosMessageConverterRegistry;
+
+public class RosMessageConverterRegistryTest
+{
+   private static final int NUMBER_OF_ITERATIONS = 20;
+
+   @ContinuousIntegrationTest(estimatedDuration = 5.0)
+   @Test(timeout = 120000)
+   public void testSameConversionsAsGenericROSTranslationTools() throws Exception
+   {
+      List<Constructor<?>> randomConstructors = new ArrayList<>();
+      for (Class<?> aClass : GenericROSTranslationTools.getAllRosMessagePacketAnnotatedClasses())
+      {
+         if (Modifier.isAbstract(aClass.getModifiers()))
+            continue;
+
+         try
+         {
+            randomConstructors.add(aClass.getConstructor(Random.class));
+         }
+         catch (NoSuchMethodException e)
+         {
+            // Only the packets with a random constructor are tested.
+         }
+      }
+      assertTrue(randomConstructors.size() > 0);
+
+      Random random = new Random(1976L);
+      int numberOfSuccessfulConversions = 0;
+
+      for (int i = 0; i < NUMBER_OF_ITERATIONS; i++)
+      {
+         for (Constructor<?> randomConstructor : randomConstructors)
+         {
+            Packet<?> ihmcMessage = (Packet<?>) randomConstructor.newInstance(random);
+            String errorMessage = ihmcMessage.getClass().getSimpleName();
+
+            Message expectedRosMessage = null;
+            Exception expectedException = null;
+            try
+            {
+               expectedRosMessage = GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
+            }
+            catch (Exception e)
+            {
+               expectedException = e;
+            }
+
+            try
+            {
+               Message rosMessage = RosMessageConverterRegistry.convertIHMCMessageToRosMessage(ihmcMessage);
+               assertTrue(errorMessage + " should have failed with " + expectedException, expectedException == null);
+               assertEquals(errorMessage, expectedRosMessage, rosMessage);
+            }
+            catch (Exception e)
+            {
+               assertNotNull(errorMessage + " failed with " + e, expectedException);
+               assertEquals(errorMessage, expectedException.getClass(), e.getClass());
+               continue;
+            }
+
+            Packet<?> expectedIHMCMessage = null;
+            expectedException = null;
+            try
+            {
+               expectedIHMCMessage = GenericROSTranslationTools.convertRosMessageToIHMCMessage(expectedRosMessage);
+            }
+            catch (Exception e)
+            {
+               expectedException = e;
+            }
+
+            try
+            {
+               Packet<?> convertedIHMCMessage = RosMessageConverterRegistry.convertRosMessageToIHMCMessage(expectedRosMessage);
+               assertTrue(errorMessage + " should have failed with " + expectedException, expectedException == null);
+               assertDeepEquals(errorMessage, expectedIHMCMessage, convertedIHMCMessage);
+               numberOfSuccessfulConversions++;
+            }
+            catch (Exception e)
+            {
+               assertNotNull(errorMessage + " failed with " + e, expectedException);
+               assertEquals(errorMessage, expectedException.getClass(), e.getClass());
+            }
+         }
+      }
+
+      assertTrue(numberOfSuccessfulConversions > 0);
+   }
+
+   private static void assertDeepEquals(String errorMessage, Object expected, Object actual) throws IllegalAccessException
+   {
+      if (expected == null || actual == null)
+      {
+         assertTrue(errorMessage, expected == actual);
+         return;
+      }
+
+      assertEquals(errorMessage, expected.getClass(), actual.getClass());
+
+      if (expected.getClass().isArray())
+      {
+         assertEquals(errorMessage, Array.getLength(expected), Array.getLength(actual));
+         for (int i = 0; i < Array.getLength(expected); i++)
+            assertDeepEquals(errorMessage + "[" + i + "]", Array.get(expected, i), Array.get(actual, i));
+      }
+      else if (expected instanceof List)
+      {
+         List<?> expectedList = (List<?>) expected;
+         List<?> actualList = (List<?>) actual;
+         assertEquals(errorMessage, expectedList.size(), actualList.size());
+         for (int i = 0; i < expectedList.size(); i++)
+            assertDeepEquals(errorMessage + "[" + i + "]", expectedList.get(i), actualList.get(i));
+      }
+      else if (expected instanceof Packet)
+      {
+         for (Field field : expected.getClass().getFields())
+         {
+            if (!Modifier.isStatic(field.getModifiers()))
+               assertDeepEquals(errorMessage + "." + field.getName(), field.get(expected), field.get(actual));
+         }
+      }
+      else
+      {
+         assertEquals(errorMessage, expected, actual);
+      }
+   }
+}
@@ -195,7 +195,7 @@ public abstract class AvatarEndToEndFootstepPlanningTest implements MultiRobotTe
                                                                                                                       yoGraphicsListRegistry, goalDetectorBehaviorService, createYoVariableServerForPlannerVisualizer);
 
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.WALK_TO_GOAL_ANYTIME_PLANNER, walkOverTerrainStateMachineBehavior);
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
       HumanoidBehaviorTypePacket requestWalkToObjectBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.WALK_TO_GOAL_ANYTIME_PLANNER);
       behaviorCommunicatorClient.send(requestWalkToObjectBehaviorPacket);
@@ -253,7 +253,7 @@ public abstract class AvatarEndToEndFootstepPlanningTest implements MultiRobotTe
                                                                                                                       createYoVariableServerForPlannerVisualizer);
 
       behaviorDispatcher.addBehavior(HumanoidBehaviorType.WALK_TO_GOAL_ANYTIME_PLANNER, walkOverTerrainStateMachineBehavior);
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
       HumanoidBehaviorTypePacket requestWalkToObjectBehaviorPacket = new HumanoidBehaviorTypePacket(HumanoidBehaviorType.WALK_TO_GOAL_ANYTIME_PLANNER);
       behaviorCommunicatorClient.send(requestWalkToObjectBehaviorPacket);
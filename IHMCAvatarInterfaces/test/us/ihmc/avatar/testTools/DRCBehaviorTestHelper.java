@@ -226,7 +226,7 @@ public class DRCBehaviorTestHelper extends DRCSimulationTestHelper
       HumanoidBehaviorType testBehaviorType = HumanoidBehaviorType.TEST;
       behaviorDispatcher.addBehavior(testBehaviorType, behaviorToTest);
 
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
 
       HumanoidBehaviorTypePacket requestTestBehaviorPacket = new HumanoidBehaviorTypePacket(testBehaviorType);
@@ -425,7 +425,7 @@ public class DRCBehaviorTestHelper extends DRCSimulationTestHelper
    
    public boolean executeBehaviorUntilDoneUsingBehaviorDispatcher(final AbstractBehavior behavior) throws SimulationExceededMaximumTimeException
    {
-      behaviorDispatcher.start();
+      behaviorDispatcher.startReactive();
 
       
       boolean success = true;
@@ -0,0 +1,252 @@
+package us.ihmc.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the CSV results of a JMH run to a stored baseline.
+ * <p>
+ * The primary score of every benchmark and its normalized allocation rate ({@code gc.alloc.rate.norm}) are compared,
+ * the other secondary metrics depend too much on the machine to be meaningful. A benchmark regresses when it is worse
+ * than the baseline by more than the relative tolerance and by more than the score errors. Benchmarks only present in
+ * one of the two files are reported but do not fail the comparison.
+ * </p>
+ * Usage: {@code JMHBaselineComparator <baseline.csv> <results.csv> [relativeTolerance]}, exits with 1 if any benchmark regressed.
+ */
+public class JMHBaselineComparator
+{
+   private static final String ALLOCATION_METRIC_SUFFIX = "gc.alloc.rate.norm";
+
+   private final double relativeTolerance;
+
+   public JMHBaselineComparator(double relativeTolerance)
+   {
+      this.relativeTolerance = relativeTolerance;
+   }
+
+   /**
+    * @return the number of regressions.
+    */
+   public int compare(Map<String, JMHResult> baseline, Map<String, JMHResult> results)
+   {
+      int numberOfRegressions = 0;
+
+      for (JMHResult result : results.values())
+      {
+         JMHResult baselineResult = baseline.get(result.key);
+
+         if (baselineResult == null)
+         {
+            System.out.println("NEW        " + result.key + ": " + result.score + " " + result.unit);
+            continue;
+         }
+
+         if (!baselineResult.unit.equals(result.unit))
+         {
+            System.out.println("SKIPPED    " + result.key + ": unit changed from " + baselineResult.unit + " to " + result.unit);
+            continue;
+         }
+
+         double change = result.getRelativeChangeFrom(baselineResult);
+         boolean isSignificant = Math.abs(result.score - baselineResult.score) > result.error + baselineResult.error;
+         String status;
+
+         if (change > relativeTolerance && isSignificant)
+         {
+            status = "REGRESSION ";
+            numberOfRegressions++;
+         }
+         else if (change < -relativeTolerance && isSignificant)
+         {
+            status = "IMPROVED   ";
+         }
+         else
+         {
+            status = "OK         ";
+         }
+
+         System.out.println(status + result.key + ": " + baselineResult.score + " -> " + result.score + " " + result.unit
+               + String.format(" (%+.1f%%)", 100.0 * change));
+      }
+
+      for (String key : baseline.keySet())
+      {
+         if (!results.containsKey(key))
+            System.out.println("MISSING    " + key);
+      }
+
+      return numberOfRegressions;
+   }
+
+   /**
+    * Reads the results of a JMH CSV file, see {@code -rf csv}.
+    */
+   public static Map<String, JMHResult> readResults(File csvFile) throws IOException
+   {
+      Map<String, JMHResult> results = new LinkedHashMap<>();
+
+      try (BufferedReader reader = new BufferedReader(new FileReader(csvFile)))
+      {
+         String headerLine = reader.readLine();
+         if (headerLine == null)
+            return results;
+
+         List<String> header = parseLine(headerLine);
+         int benchmarkIndex = header.indexOf("Benchmark");
+         int modeIndex = header.indexOf("Mode");
+         int scoreIndex = header.indexOf("Score");
+         int errorIndex = header.indexOf("Score Error (99.9%)");
+         int unitIndex = header.indexOf("Unit");
+
+         if (benchmarkIndex < 0 || modeIndex < 0 || scoreIndex < 0 || unitIndex < 0)
+            throw new RuntimeException(csvFile + " is not a JMH CSV result file.");
+
+         String line;
+         while ((line = reader.readLine()) != null)
+         {
+            if (line.trim().isEmpty())
+               continue;
+
+            List<String> fields = parseLine(line);
+            String benchmark = fields.get(benchmarkIndex);
+            boolean isAllocationMetric = benchmark.endsWith(ALLOCATION_METRIC_SUFFIX);
+
+            if (benchmark.contains(":") && !isAllocationMetric)
+               continue;
+
+            StringBuilder key = new StringBuilder(benchmark);
+            for (int i = 0; i < header.size(); i++)
+            {
+               if (header.get(i).startsWith("Param: ") && i < fields.size() && !fields.get(i).isEmpty())
+                  key.append(" ").append(header.get(i).substring("Param: ".length())).append("=").append(fields.get(i));
+            }
+
+            JMHResult result = new JMHResult();
+            result.key = key.toString();
+            result.mode = fields.get(modeIndex);
+            result.score = parseDouble(fields.get(scoreIndex));
+            result.error = errorIndex < 0 ? 0.0 : parseDouble(fields.get(errorIndex));
+            result.unit = fields.get(unitIndex);
+            result.isAllocationMetric = isAllocationMetric;
+            results.put(result.key, result);
+         }
+      }
+
+      return results;
+   }
+
+   private static double parseDouble(String value)
+   {
+      if (value.isEmpty() || value.equals("NaN"))
+         return 0.0;
+      return Double.parseDouble(value);
+   }
+
+   private static List<String> parseLine(String line)
+   {
+      List<String> fields = new ArrayList<>();
+      StringBuilder field = new StringBuilder();
+      boolean isQuoted = false;
+
+      for (int i = 0; i < line.length(); i++)
+      {
+         char c = line.charAt(i);
+
+         if (c == '"')
+         {
+            if (isQuoted && i + 1 < line.length() && line.charAt(i + 1) == '"')
+            {
+               field.append('"');
+               i++;
+            }
+            else
+            {
+               isQuoted = !isQuoted;
+            }
+         }
+         else if (c == ',' && !isQuoted)
+         {
+            fields.add(field.toString());
+            field.setLength(0);
+         }
+         else
+         {
+            field.append(c);
+         }
+      }
+
+      fields.add(field.toString());
+      return fields;
+   }
+
+   public static class JMHResult
+   {
+      private String key;
+      private String mode;
+      private double score;
+      private double error;
+      private String unit;
+      private boolean isAllocationMetric;
+
+      /**
+       * @return the relative change from the baseline, positive when this result is worse.
+       */
+      public double getRelativeChangeFrom(JMHResult baseline)
+      {
+         if (baseline.score == 0.0)
+            return score == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+
+         double change = (score - baseline.score) / Math.abs(baseline.score);
+
+         // For the throughput modes a higher score is better.
+         if (!isAllocationMetric && mode.equals("thrpt"))
+            change = -change;
+
+         return change;
+      }
+
+      public String getKey()
+      {
+         return key;
+      }
+
+      public double getScore()
+      {
+         return score;
+      }
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length < 2)
+      {
+         System.err.println("Usage: JMHBaselineComparator <baseline.csv> <results.csv> [relativeTolerance]");
+         System.exit(2);
+      }
+
+      File baselineFile = new File(args[0]);
+      File resultsFile = new File(args[1]);
+      double relativeTolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+
+      if (!baselineFile.exists())
+      {
+         System.out.println("No baseline at " + baselineFile + ", run the jmhStoreBaseline task to create one.");
+         return;
+      }
+
+      JMHBaselineComparator comparator = new JMHBaselineComparator(relativeTolerance);
+      int numberOfRegressions = comparator.compare(readResults(baselineFile), readResults(resultsFile));
+
+      if (numberOfRegressions > 0)
+      {
+         System.out.println(numberOfRegressions + " benchmark(s) regressed by more than " + 100.0 * relativeTolerance + "%.");
+         System.exit(1);
+      }
+   }
+}
@@ -0,0 +1,129 @@
+package us.ihmc.benchmarks.controllerCore;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.benchmarks.tools.BenchmarkRobot;
+import us.ihmc.commonWalkingControlModules.bipedSupportPolygons.BipedSupportPolygons;
+import us.ihmc.commonWalkingControlModules.bipedSupportPolygons.YoPlaneContactState;
+import us.ihmc.commonWalkingControlModules.desiredFootStep.footstepGenerator.FootstepTestHelper;
+import us.ihmc.commonWalkingControlModules.instantaneousCapturePoint.ICPPlanner;
+import us.ihmc.humanoidRobotics.bipedSupportPolygons.ContactableFoot;
+import us.ihmc.humanoidRobotics.footstep.Footstep;
+import us.ihmc.humanoidRobotics.footstep.FootstepTiming;
+import us.ihmc.humanoidRobotics.frames.HumanoidReferenceFrames;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.geometry.FramePoint2d;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+/**
+ * Measures the {@link ICPPlanner} with the parameters and the feet of a real robot: planning a single support phase
+ * with three upcoming footsteps, and the evaluation of the plan done on every control tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ICPPlannerBenchmark
+{
+   private static final int NUMBER_OF_FOOTSTEPS = 3;
+   private static final double singleSupportDuration = 0.8;
+   private static final double doubleSupportDuration = 0.25;
+
+   @Param({"ATLAS", "VALKYRIE"})
+   public BenchmarkRobot robot;
+
+   private ICPPlanner icpPlanner;
+   private List<Footstep> footsteps;
+   private double controlDT;
+
+   private final FootstepTiming timing = new FootstepTiming(singleSupportDuration, doubleSupportDuration);
+   private final FramePoint2d desiredCapturePoint = new FramePoint2d();
+   private double time = 0.0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry(getClass().getSimpleName());
+
+      DRCRobotModel robotModel = robot.createRobotModel();
+      FullHumanoidRobotModel fullRobotModel = robotModel.createFullRobotModel();
+      HumanoidReferenceFrames referenceFrames = new HumanoidReferenceFrames(fullRobotModel);
+      referenceFrames.updateFrames();
+      controlDT = robotModel.getControllerDT();
+
+      SideDependentList<ContactableFoot> feet = robotModel.getContactPointParameters().getContactableBodiesFactory()
+                                                          .createFootContactableBodies(fullRobotModel, referenceFrames);
+      SideDependentList<ReferenceFrame> ankleFrames = new SideDependentList<>();
+      SideDependentList<YoPlaneContactState> contactStates = new SideDependentList<>();
+
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         ContactableFoot foot = feet.get(robotSide);
+         ankleFrames.put(robotSide, foot.getFrameAfterParentJoint());
+         YoPlaneContactState contactState = new YoPlaneContactState(robotSide.getCamelCaseNameForStartOfExpression() + "Foot", foot.getRigidBody(),
+                                                                    foot.getSoleFrame(), foot.getContactPoints2d(), 0.8, registry);
+         contactState.setFullyConstrained();
+         contactStates.put(robotSide, contactState);
+      }
+
+      BipedSupportPolygons bipedSupportPolygons = new BipedSupportPolygons(referenceFrames.getAnkleZUpReferenceFrames(), referenceFrames.getMidFeetZUpFrame(),
+                                                                           referenceFrames.getSoleZUpFrames(), registry, null);
+      bipedSupportPolygons.updateUsingContactStates(contactStates);
+
+      icpPlanner = new ICPPlanner(bipedSupportPolygons, feet, robotModel.getCapturePointPlannerParameters(), registry, null);
+      icpPlanner.setOmega0(robotModel.getWalkingControllerParameters().getOmega0());
+      icpPlanner.setFinalTransferDuration(doubleSupportDuration);
+
+      footsteps = new FootstepTestHelper(feet, ankleFrames).createFootsteps(0.25, 0.3, NUMBER_OF_FOOTSTEPS);
+
+      planSingleSupport();
+   }
+
+   private void planSingleSupport()
+   {
+      icpPlanner.clearPlan();
+      for (int i = 0; i < footsteps.size(); i++)
+         icpPlanner.addFootstepToPlan(footsteps.get(i), timing);
+      icpPlanner.setSupportLeg(footsteps.get(0).getRobotSide().getOppositeSide());
+      icpPlanner.initializeForSingleSupport(0.0);
+   }
+
+   @Benchmark
+   public void planSingleSupportWithUpcomingFootsteps()
+   {
+      planSingleSupport();
+      icpPlanner.updateCurrentPlan();
+   }
+
+   @Benchmark
+   public FramePoint2d computeDesiredCapturePoint()
+   {
+      time += controlDT;
+      if (time > singleSupportDuration)
+         time = 0.0;
+
+      icpPlanner.compute(time);
+      icpPlanner.getDesiredCapturePointPosition(desiredCapturePoint);
+      return desiredCapturePoint;
+   }
+}
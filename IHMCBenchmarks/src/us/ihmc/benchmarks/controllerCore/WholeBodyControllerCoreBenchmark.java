@@ -0,0 +1,202 @@
+package us.ihmc.benchmarks.controllerCore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.benchmarks.tools.BenchmarkRobot;
+import us.ihmc.benchmarks.tools.RobotStateSequence;
+import us.ihmc.commonWalkingControlModules.controllerCore.WholeBodyControlCoreToolbox;
+import us.ihmc.commonWalkingControlModules.controllerCore.WholeBodyControllerCore;
+import us.ihmc.commonWalkingControlModules.controllerCore.WholeBodyControllerCoreMode;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.ControllerCoreCommand;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.feedbackController.FeedbackControlCommandList;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.feedbackController.SpatialFeedbackControlCommand;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.inverseDynamics.MomentumRateCommand;
+import us.ihmc.commonWalkingControlModules.controllerCore.command.inverseDynamics.PlaneContactStateCommand;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.GeometricJacobianHolder;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.HighLevelHumanoidControllerToolbox;
+import us.ihmc.humanoidRobotics.bipedSupportPolygons.ContactableFoot;
+import us.ihmc.humanoidRobotics.bipedSupportPolygons.ContactablePlaneBody;
+import us.ihmc.humanoidRobotics.frames.HumanoidReferenceFrames;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.controllers.SE3PIDGainsInterface;
+import us.ihmc.robotics.controllers.YoSymmetricSE3PIDGains;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.geometry.FrameOrientation;
+import us.ihmc.robotics.geometry.FramePoint;
+import us.ihmc.robotics.geometry.FramePoint2d;
+import us.ihmc.robotics.geometry.FrameVector;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.RigidBody;
+import us.ihmc.robotics.screwTheory.TwistCalculator;
+
+/**
+ * Measures one tick of the {@link WholeBodyControllerCore} in inverse dynamics mode for a humanoid standing on both feet:
+ * spatial feedback on the hands and the chest, both feet in contact, and a desired linear momentum rate.
+ * Each invocation updates the frames, Jacobians and twists from the next robot state before computing, like the
+ * controller thread does.
+ * <p>
+ * With worker threads, the controller core runs in its parallel mode and computes the Jacobians itself, such that
+ * comparing the two parameter values gives the tick latency gained by the parallel mode.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class WholeBodyControllerCoreBenchmark
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+   private static final double gravityZ = 9.81;
+
+   @Param({"ATLAS", "VALKYRIE"})
+   public BenchmarkRobot robot;
+
+   @Param({"0", "2"})
+   public int numberOfWorkerThreads;
+
+   private FullHumanoidRobotModel fullRobotModel;
+   private HumanoidReferenceFrames referenceFrames;
+   private RobotStateSequence stateSequence;
+   private TwistCalculator twistCalculator;
+   private GeometricJacobianHolder geometricJacobianHolder;
+   private WholeBodyControlCoreToolbox toolbox;
+   private WholeBodyControllerCore controllerCore;
+
+   private final ControllerCoreCommand controllerCoreCommand = new ControllerCoreCommand(WholeBodyControllerCoreMode.INVERSE_DYNAMICS);
+   private final List<SpatialFeedbackControlCommand> spatialFeedbackControlCommands = new ArrayList<>();
+   private final List<PlaneContactStateCommand> planeContactStateCommands = new ArrayList<>();
+   private final MomentumRateCommand momentumRateCommand = new MomentumRateCommand();
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry(getClass().getSimpleName());
+
+      DRCRobotModel robotModel = robot.createRobotModel();
+      fullRobotModel = robotModel.createFullRobotModel();
+      referenceFrames = new HumanoidReferenceFrames(fullRobotModel);
+      stateSequence = new RobotStateSequence(fullRobotModel, 1000, 4521L);
+
+      RigidBody elevator = fullRobotModel.getElevator();
+      twistCalculator = new TwistCalculator(worldFrame, elevator);
+      geometricJacobianHolder = new GeometricJacobianHolder();
+
+      SideDependentList<ContactableFoot> feet = robotModel.getContactPointParameters().getContactableBodiesFactory()
+                                                          .createFootContactableBodies(fullRobotModel, referenceFrames);
+      List<ContactablePlaneBody> contactablePlaneBodies = new ArrayList<>();
+      for (RobotSide robotSide : RobotSide.values)
+         contactablePlaneBodies.add(feet.get(robotSide));
+
+      InverseDynamicsJoint[] jointsToOptimizeFor = HighLevelHumanoidControllerToolbox.computeJointsToOptimizeFor(fullRobotModel);
+      toolbox = new WholeBodyControlCoreToolbox(robotModel.getControllerDT(), gravityZ, fullRobotModel.getRootJoint(), jointsToOptimizeFor,
+                                                referenceFrames.getCenterOfMassFrame(), twistCalculator, geometricJacobianHolder,
+                                                robotModel.getWalkingControllerParameters().getMomentumOptimizationSettings(), null, registry);
+      toolbox.setupForInverseDynamicsSolver(contactablePlaneBodies);
+      if (numberOfWorkerThreads > 0)
+         toolbox.setupForParallelExecution(numberOfWorkerThreads);
+
+      referenceFrames.updateFrames();
+
+      YoSymmetricSE3PIDGains gains = new YoSymmetricSE3PIDGains("benchmark", registry);
+      gains.setProportionalGain(100.0);
+      gains.setDampingRatio(1.0);
+      gains.createDerivativeGainUpdater(true);
+
+      FeedbackControlCommandList template = new FeedbackControlCommandList();
+      RigidBody chest = fullRobotModel.getChest();
+      spatialFeedbackControlCommands.add(createSpatialCommand(elevator, chest, gains, 0.0, 0.0, 0.0));
+      for (RobotSide robotSide : RobotSide.values)
+         spatialFeedbackControlCommands.add(createSpatialCommand(chest, fullRobotModel.getHand(robotSide), gains, 0.1, robotSide.negateIfRightSide(0.05), 0.1));
+      for (int i = 0; i < spatialFeedbackControlCommands.size(); i++)
+         template.addCommand(spatialFeedbackControlCommands.get(i));
+
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         ContactableFoot foot = feet.get(robotSide);
+         PlaneContactStateCommand planeContactStateCommand = new PlaneContactStateCommand();
+         planeContactStateCommand.setContactingRigidBody(foot.getRigidBody());
+         planeContactStateCommand.setCoefficientOfFriction(0.8);
+         planeContactStateCommand.setContactNormal(new FrameVector(worldFrame, 0.0, 0.0, 1.0));
+         List<FramePoint2d> contactPoints = foot.getContactPoints2d();
+         for (int i = 0; i < contactPoints.size(); i++)
+            planeContactStateCommand.addPointInContact(contactPoints.get(i));
+         planeContactStateCommands.add(planeContactStateCommand);
+      }
+
+      momentumRateCommand.setLinearMomentumRateOfChange(new FrameVector(referenceFrames.getCenterOfMassFrame(), 0.0, 0.0, 0.0));
+      momentumRateCommand.setWeights(0.0, 0.0, 0.0, 1.0, 1.0, 1.0);
+
+      controllerCore = new WholeBodyControllerCore(toolbox, template, registry);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown()
+   {
+      toolbox.closeAndDispose();
+   }
+
+   /**
+    * Creates a command holding the current pose of the end-effector shifted by the given offset, with a zero desired velocity and acceleration.
+    */
+   private static SpatialFeedbackControlCommand createSpatialCommand(RigidBody base, RigidBody endEffector, SE3PIDGainsInterface gains, double offsetX,
+                                                                     double offsetY, double offsetZ)
+   {
+      SpatialFeedbackControlCommand command = new SpatialFeedbackControlCommand();
+      command.set(base, endEffector);
+      command.setGains(gains);
+      command.setWeightForSolver(10.0);
+
+      FramePoint desiredPosition = new FramePoint(endEffector.getBodyFixedFrame());
+      desiredPosition.changeFrame(worldFrame);
+      desiredPosition.add(offsetX, offsetY, offsetZ);
+      FrameOrientation desiredOrientation = new FrameOrientation(endEffector.getBodyFixedFrame());
+      desiredOrientation.changeFrame(worldFrame);
+
+      command.set(desiredPosition, new FrameVector(worldFrame), new FrameVector(worldFrame));
+      command.set(desiredOrientation, new FrameVector(worldFrame), new FrameVector(worldFrame));
+      return command;
+   }
+
+   @Benchmark
+   public void computeInverseDynamics()
+   {
+      stateSequence.applyNextState();
+      referenceFrames.updateFrames();
+      twistCalculator.compute();
+      // In the parallel mode the controller core computes the Jacobians.
+      if (numberOfWorkerThreads == 0)
+         geometricJacobianHolder.compute();
+
+      controllerCoreCommand.clear();
+      for (int i = 0; i < spatialFeedbackControlCommands.size(); i++)
+         controllerCoreCommand.addFeedbackControlCommand(spatialFeedbackControlCommands.get(i));
+      for (int i = 0; i < planeContactStateCommands.size(); i++)
+         controllerCoreCommand.addInverseDynamicsCommand(planeContactStateCommands.get(i));
+      controllerCoreCommand.addInverseDynamicsCommand(momentumRateCommand);
+
+      controllerCore.submitControllerCoreCommand(controllerCoreCommand);
+      controllerCore.compute();
+   }
+}
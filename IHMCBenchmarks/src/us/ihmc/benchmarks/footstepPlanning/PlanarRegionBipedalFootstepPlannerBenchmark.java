@@ -0,0 +1,121 @@
+package us.ihmc.benchmarks.footstepPlanning;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.FootstepPlannerGoal;
+import us.ihmc.footstepPlanning.FootstepPlannerGoalType;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.footstepPlanning.graphSearch.BipedalFootstepPlannerParameters;
+import us.ihmc.footstepPlanning.graphSearch.PlanarRegionBipedalFootstepPlanner;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.geometry.FramePose;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+
+/**
+ * Measures a complete plan of the {@link PlanarRegionBipedalFootstepPlanner} on the staircase and the cinder block field
+ * used by the rough terrain planner tests, with the same planner parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class PlanarRegionBipedalFootstepPlannerBenchmark
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   public enum Environment
+   {
+      STAIRCASE, CINDER_BLOCK_FIELD
+   }
+
+   @Param({"STAIRCASE", "CINDER_BLOCK_FIELD"})
+   public Environment environment;
+
+   private PlanarRegionBipedalFootstepPlanner planner;
+   private PlanarRegionsList planarRegionsList;
+   private FramePose initialStanceFootPose;
+   private RobotSide initialStanceSide;
+   private FootstepPlannerGoal goal;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry(getClass().getSimpleName());
+      BipedalFootstepPlannerParameters parameters = new BipedalFootstepPlannerParameters(registry);
+      parameters.setMaximumStepReach(0.4);
+      parameters.setMaximumStepZ(0.25);
+      parameters.setMaximumStepXWhenForwardAndDown(0.25);
+      parameters.setMaximumStepZWhenForwardAndDown(0.25);
+      parameters.setMaximumStepYaw(0.15);
+      parameters.setMaximumStepWidth(0.4);
+      parameters.setMinimumStepWidth(0.15);
+      parameters.setMinimumFootholdPercent(0.8);
+      parameters.setIdealFootstep(0.3, 0.2);
+
+      planner = new PlanarRegionBipedalFootstepPlanner(parameters, registry);
+      planner.setFeetPolygons(PlanningTestTools.createDefaultFootPolygons());
+      planner.setMaximumNumberOfNodesToExpand(Integer.MAX_VALUE);
+      planner.setTimeout(10.0);
+
+      initialStanceFootPose = new FramePose(worldFrame);
+      FramePose goalPose = new FramePose(worldFrame);
+
+      switch (environment)
+      {
+      case STAIRCASE:
+         planarRegionsList = PlanarRegionsListExamples.generateStairCase(new Vector3D());
+         initialStanceSide = RobotSide.LEFT;
+         goalPose.setPosition(2.0, -0.2, 0.53);
+         break;
+      case CINDER_BLOCK_FIELD:
+         planarRegionsList = PlanarRegionsListExamples.generateCinderBlockField(0.0, 0.0, 0.4, 0.15, 21, 6, 0.1);
+         initialStanceFootPose.setPosition(0.0, -0.7, 0.0);
+         initialStanceSide = RobotSide.RIGHT;
+         goalPose.setPosition(9.0, 0.0, 0.0);
+         break;
+      default:
+         throw new RuntimeException("Unhandled environment: " + environment);
+      }
+
+      goal = new FootstepPlannerGoal();
+      goal.setFootstepPlannerGoalType(FootstepPlannerGoalType.POSE_BETWEEN_FEET);
+      goal.setGoalPoseBetweenFeet(goalPose);
+      goal.setXYGoal(new Point2D(goalPose.getX(), goalPose.getY()), 0.5);
+   }
+
+   @Benchmark
+   public FootstepPlan plan()
+   {
+      planner.setInitialStanceFoot(initialStanceFootPose, initialStanceSide);
+      planner.setGoal(goal);
+      planner.setPlanarRegions(planarRegionsList);
+
+      FootstepPlanningResult result = planner.plan();
+      if (!result.validForExecution())
+         throw new RuntimeException("The planner did not find a valid plan on the " + environment + ": " + result);
+
+      return planner.getPlan();
+   }
+}
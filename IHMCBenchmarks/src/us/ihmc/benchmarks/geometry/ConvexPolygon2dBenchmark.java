@@ -0,0 +1,248 @@
+package us.ihmc.benchmarks.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.euclid.tuple2D.Point2D;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.ConvexPolygonShrinker;
+import us.ihmc.robotics.geometry.ConvexPolygonTools;
+import us.ihmc.robotics.geometry.LineSegment2d;
+import us.ihmc.robotics.geometry.PackedConvexPolygon2d;
+
+/**
+ * Measures the {@link ConvexPolygon2d} operations used for the support polygons and the footholds: building the hull,
+ * point queries, projection, combining the two feet, intersecting a foot with a planar region and shrinking a foot.
+ * Each operation is also measured on the {@link PackedConvexPolygon2d} implementation.
+ * <p>
+ * The polygons are random foot sized polygons generated from a fixed seed, and each invocation works on the next one
+ * of the pool.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ConvexPolygon2dBenchmark
+{
+   private static final int NUMBER_OF_POLYGONS = 512;
+
+   @Param({"4", "8", "16"})
+   public int numberOfVertices;
+
+   private double[][] vertexCoordinates;
+   private ConvexPolygon2d[] leftFeet;
+   private ConvexPolygon2d[] rightFeet;
+   private ConvexPolygon2d[] regions;
+   private Point2D[] queryPoints;
+
+   private PackedConvexPolygon2d[] packedLeftFeet;
+   private PackedConvexPolygon2d[] packedRightFeet;
+   private PackedConvexPolygon2d[] packedRegions;
+
+   private final ConvexPolygon2d polygonToUpdate = new ConvexPolygon2d();
+   private final ConvexPolygon2d combinedPolygon = new ConvexPolygon2d();
+   private final ConvexPolygon2d intersectionPolygon = new ConvexPolygon2d();
+   private final LineSegment2d connectingEdge1 = new LineSegment2d();
+   private final LineSegment2d connectingEdge2 = new LineSegment2d();
+   private final Point2D pointToProject = new Point2D();
+   private final ConvexPolygonShrinker shrinker = new ConvexPolygonShrinker();
+   private final ConvexPolygon2d shrunkPolygon = new ConvexPolygon2d();
+
+   private final PackedConvexPolygon2d packedPolygonToUpdate = new PackedConvexPolygon2d();
+   private final PackedConvexPolygon2d packedCombinedPolygon = new PackedConvexPolygon2d();
+   private final PackedConvexPolygon2d packedIntersectionPolygon = new PackedConvexPolygon2d();
+   private final PackedConvexPolygon2d packedShrunkPolygon = new PackedConvexPolygon2d();
+
+   private int index = 0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      Random random = new Random(1976L);
+
+      vertexCoordinates = new double[NUMBER_OF_POLYGONS][];
+      leftFeet = new ConvexPolygon2d[NUMBER_OF_POLYGONS];
+      rightFeet = new ConvexPolygon2d[NUMBER_OF_POLYGONS];
+      regions = new ConvexPolygon2d[NUMBER_OF_POLYGONS];
+      queryPoints = new Point2D[NUMBER_OF_POLYGONS];
+      packedLeftFeet = new PackedConvexPolygon2d[NUMBER_OF_POLYGONS];
+      packedRightFeet = new PackedConvexPolygon2d[NUMBER_OF_POLYGONS];
+      packedRegions = new PackedConvexPolygon2d[NUMBER_OF_POLYGONS];
+
+      for (int i = 0; i < NUMBER_OF_POLYGONS; i++)
+      {
+         vertexCoordinates[i] = createRandomVertices(random, 0.0, 0.0, 0.2, 0.1);
+         leftFeet[i] = createPolygon(createRandomVertices(random, 0.0, 0.15, 0.2, 0.1));
+         rightFeet[i] = createPolygon(createRandomVertices(random, 0.1, -0.15, 0.2, 0.1));
+         regions[i] = createPolygon(createRandomVertices(random, 0.1, 0.1, 0.4, 0.4));
+         queryPoints[i] = new Point2D(0.3 * (random.nextDouble() - 0.5), 0.6 * (random.nextDouble() - 0.5));
+
+         packedLeftFeet[i] = createPackedPolygon(leftFeet[i]);
+         packedRightFeet[i] = createPackedPolygon(rightFeet[i]);
+         packedRegions[i] = createPackedPolygon(regions[i]);
+      }
+
+      // Grows the storage of the packed polygons outside of the measurement.
+      for (int i = 0; i < NUMBER_OF_POLYGONS; i++)
+      {
+         addVerticesAndUpdatePacked();
+         combinePackedPolygons();
+         intersectPackedPolygons();
+      }
+   }
+
+   private double[] createRandomVertices(Random random, double centerX, double centerY, double sizeX, double sizeY)
+   {
+      double[] vertices = new double[2 * numberOfVertices];
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         double angle = 2.0 * Math.PI * (i + 0.5 * random.nextDouble()) / numberOfVertices;
+         vertices[2 * i] = centerX + 0.5 * sizeX * Math.cos(angle);
+         vertices[2 * i + 1] = centerY + 0.5 * sizeY * Math.sin(angle);
+      }
+
+      return vertices;
+   }
+
+   private static ConvexPolygon2d createPolygon(double[] vertices)
+   {
+      ConvexPolygon2d polygon = new ConvexPolygon2d();
+      for (int i = 0; i < vertices.length; i += 2)
+         polygon.addVertex(vertices[i], vertices[i + 1]);
+      polygon.update();
+      return polygon;
+   }
+
+   private static PackedConvexPolygon2d createPackedPolygon(ConvexPolygon2d polygon)
+   {
+      PackedConvexPolygon2d packedPolygon = new PackedConvexPolygon2d();
+      packedPolygon.set(polygon);
+      return packedPolygon;
+   }
+
+   private int nextIndex()
+   {
+      index++;
+      if (index == NUMBER_OF_POLYGONS)
+         index = 0;
+      return index;
+   }
+
+   @Benchmark
+   public ConvexPolygon2d addVerticesAndUpdate()
+   {
+      double[] vertices = vertexCoordinates[nextIndex()];
+
+      polygonToUpdate.clear();
+      for (int i = 0; i < vertices.length; i += 2)
+         polygonToUpdate.addVertex(vertices[i], vertices[i + 1]);
+      polygonToUpdate.update();
+      return polygonToUpdate;
+   }
+
+   @Benchmark
+   public boolean isPointInside()
+   {
+      int i = nextIndex();
+      return leftFeet[i].isPointInside(queryPoints[i].getX(), queryPoints[i].getY());
+   }
+
+   @Benchmark
+   public Point2D orthogonalProjection()
+   {
+      int i = nextIndex();
+      pointToProject.set(queryPoints[i]);
+      rightFeet[i].orthogonalProjection(pointToProject);
+      return pointToProject;
+   }
+
+   @Benchmark
+   public ConvexPolygon2d combineDisjointPolygons()
+   {
+      int i = nextIndex();
+      ConvexPolygonTools.combineDisjointPolygons(leftFeet[i], rightFeet[i], combinedPolygon, connectingEdge1, connectingEdge2);
+      return combinedPolygon;
+   }
+
+   @Benchmark
+   public ConvexPolygon2d computeIntersectionOfPolygons()
+   {
+      int i = nextIndex();
+      ConvexPolygonTools.computeIntersectionOfPolygons(regions[i], leftFeet[i], intersectionPolygon);
+      return intersectionPolygon;
+   }
+
+   @Benchmark
+   public ConvexPolygon2d shrinkConstantDistance()
+   {
+      shrinker.shrinkConstantDistanceInto(leftFeet[nextIndex()], 0.02, shrunkPolygon);
+      return shrunkPolygon;
+   }
+
+   @Benchmark
+   public PackedConvexPolygon2d addVerticesAndUpdatePacked()
+   {
+      double[] vertices = vertexCoordinates[nextIndex()];
+
+      packedPolygonToUpdate.clear();
+      packedPolygonToUpdate.addVertices(vertices, numberOfVertices);
+      packedPolygonToUpdate.update();
+      return packedPolygonToUpdate;
+   }
+
+   @Benchmark
+   public boolean isPointInsidePacked()
+   {
+      int i = nextIndex();
+      return packedLeftFeet[i].isPointInside(queryPoints[i].getX(), queryPoints[i].getY());
+   }
+
+   @Benchmark
+   public Point2D orthogonalProjectionPacked()
+   {
+      int i = nextIndex();
+      pointToProject.set(queryPoints[i]);
+      packedRightFeet[i].orthogonalProjection(pointToProject);
+      return pointToProject;
+   }
+
+   @Benchmark
+   public PackedConvexPolygon2d combinePackedPolygons()
+   {
+      int i = nextIndex();
+      packedCombinedPolygon.setAndUpdate(packedLeftFeet[i], packedRightFeet[i]);
+      return packedCombinedPolygon;
+   }
+
+   @Benchmark
+   public PackedConvexPolygon2d intersectPackedPolygons()
+   {
+      int i = nextIndex();
+      packedIntersectionPolygon.setToIntersection(packedRegions[i], packedLeftFeet[i]);
+      return packedIntersectionPolygon;
+   }
+
+   @Benchmark
+   public PackedConvexPolygon2d shrinkPackedPolygon()
+   {
+      packedShrunkPolygon.setToShrunkPolygon(packedLeftFeet[nextIndex()], 0.02);
+      return packedShrunkPolygon;
+   }
+}
@@ -0,0 +1,134 @@
+package us.ihmc.benchmarks.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+
+/**
+ * Measures the {@link PlanarRegionsList} queries used by the footstep planners and snappers, with and without the
+ * spatial index, on a grid of small tilted regions similar to the output of the perception.
+ * <p>
+ * The regions and the queries are generated from a fixed seed, and each invocation uses the next query of the pool.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PlanarRegionsListQueryBenchmark
+{
+   private static final int NUMBER_OF_QUERIES = 512;
+   private static final double REGION_SIZE = 1.0;
+
+   @Param({"100", "1000"})
+   public int numberOfRegions;
+
+   @Param({"true", "false"})
+   public boolean useSpatialIndex;
+
+   private PlanarRegionsList planarRegionsList;
+   private ConvexPolygon2d[] footPolygons;
+   private Point3D[] queryPoints;
+
+   private int index = 0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      Random random = new Random(1776L);
+
+      int gridSize = (int) Math.ceil(Math.sqrt(numberOfRegions));
+      List<PlanarRegion> planarRegions = new ArrayList<>();
+
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         ConvexPolygon2d polygon = new ConvexPolygon2d();
+         polygon.addVertex(0.0, 0.0);
+         polygon.addVertex(REGION_SIZE, 0.0);
+         polygon.addVertex(REGION_SIZE, REGION_SIZE);
+         polygon.addVertex(0.0, REGION_SIZE);
+         polygon.update();
+         List<ConvexPolygon2d> polygons = new ArrayList<>();
+         polygons.add(polygon);
+
+         RigidBodyTransform transform = new RigidBodyTransform();
+         transform.setRotationEuler(0.2 * (random.nextDouble() - 0.5), 0.2 * (random.nextDouble() - 0.5), 0.0);
+         transform.setTranslation((i % gridSize) * REGION_SIZE, (i / gridSize) * REGION_SIZE, 0.3 * random.nextDouble());
+         planarRegions.add(new PlanarRegion(transform, polygons));
+      }
+
+      planarRegionsList = new PlanarRegionsList(planarRegions);
+      planarRegionsList.setUseSpatialIndex(useSpatialIndex);
+
+      footPolygons = new ConvexPolygon2d[NUMBER_OF_QUERIES];
+      queryPoints = new Point3D[NUMBER_OF_QUERIES];
+      double extent = gridSize * REGION_SIZE;
+
+      for (int i = 0; i < NUMBER_OF_QUERIES; i++)
+      {
+         double x = extent * random.nextDouble();
+         double y = extent * random.nextDouble();
+
+         footPolygons[i] = new ConvexPolygon2d();
+         footPolygons[i].addVertex(x - 0.1, y - 0.05);
+         footPolygons[i].addVertex(x + 0.1, y - 0.05);
+         footPolygons[i].addVertex(x + 0.1, y + 0.05);
+         footPolygons[i].addVertex(x - 0.1, y + 0.05);
+         footPolygons[i].update();
+
+         queryPoints[i] = new Point3D(x, y, 0.15);
+      }
+
+      // Builds the index outside of the measurement.
+      planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(0.0, 0.0);
+   }
+
+   private int nextIndex()
+   {
+      index++;
+      if (index == NUMBER_OF_QUERIES)
+         index = 0;
+      return index;
+   }
+
+   @Benchmark
+   public List<PlanarRegion> findPlanarRegionsIntersectingPolygon()
+   {
+      return planarRegionsList.findPlanarRegionsIntersectingPolygon(footPolygons[nextIndex()]);
+   }
+
+   @Benchmark
+   public List<PlanarRegion> findPlanarRegionsContainingPointByProjectionOntoXYPlane()
+   {
+      Point3D queryPoint = queryPoints[nextIndex()];
+      return planarRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(queryPoint.getX(), queryPoint.getY());
+   }
+
+   @Benchmark
+   public List<PlanarRegion> findPlanarRegionsContainingPoint()
+   {
+      return planarRegionsList.findPlanarRegionsContainingPoint(queryPoints[nextIndex()], 0.2);
+   }
+}
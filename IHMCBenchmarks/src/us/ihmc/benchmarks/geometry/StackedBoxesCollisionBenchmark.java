@@ -0,0 +1,114 @@
+package us.ihmc.benchmarks.geometry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.simulationconstructionset.physics.CollisionShape;
+import us.ihmc.simulationconstructionset.physics.CollisionShapeDescription;
+import us.ihmc.simulationconstructionset.physics.CollisionShapeFactory;
+import us.ihmc.simulationconstructionset.physics.collision.CollisionDetectionResult;
+import us.ihmc.simulationconstructionset.physics.collision.simple.SimpleCollisionDetector;
+
+/**
+ * Measures one tick of the {@link SimpleCollisionDetector} on a stack of resting boxes, with and without warm starting
+ * GJK with the separating vector of the previous tick.
+ * <p>
+ * The boxes slightly interpenetrate and jitter by a fraction of a millimeter at every tick, as they would in a
+ * simulation. The jitter is generated from a fixed seed, and each invocation uses the next configuration of the pool.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StackedBoxesCollisionBenchmark
+{
+   private static final int NUMBER_OF_CONFIGURATIONS = 256;
+   private static final double HALF_SIZE = 0.1;
+   private static final double PENETRATION = 0.001;
+   private static final double JITTER = 0.0002;
+
+   @Param({"4", "16"})
+   public int numberOfBoxes;
+
+   @Param({"true", "false"})
+   public boolean useWarmStart;
+
+   private SimpleCollisionDetector detector;
+   private CollisionShape[] boxes;
+   private RigidBodyTransform[][] transforms;
+   private final CollisionDetectionResult result = new CollisionDetectionResult();
+
+   private int index = 0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      Random random = new Random(1776L);
+
+      detector = new SimpleCollisionDetector();
+      detector.setUseWarmStart(useWarmStart);
+      CollisionShapeFactory shapeFactory = detector.getShapeFactory();
+
+      boxes = new CollisionShape[numberOfBoxes];
+      for (int i = 0; i < numberOfBoxes; i++)
+      {
+         CollisionShapeDescription<?> box = shapeFactory.createBox(HALF_SIZE, HALF_SIZE, HALF_SIZE);
+         boxes[i] = shapeFactory.addShape(box);
+      }
+
+      transforms = new RigidBodyTransform[NUMBER_OF_CONFIGURATIONS][numberOfBoxes];
+      for (int configuration = 0; configuration < NUMBER_OF_CONFIGURATIONS; configuration++)
+      {
+         for (int i = 0; i < numberOfBoxes; i++)
+         {
+            RigidBodyTransform transform = new RigidBodyTransform();
+            transform.setRotationYawAndZeroTranslation(0.01 * (random.nextDouble() - 0.5));
+            double x = JITTER * (random.nextDouble() - 0.5);
+            double y = JITTER * (random.nextDouble() - 0.5);
+            double z = (2.0 * HALF_SIZE - PENETRATION) * i + JITTER * (random.nextDouble() - 0.5);
+            transform.setTranslation(x, y, z);
+            transforms[configuration][i] = transform;
+         }
+      }
+
+      // Fills the warm start data outside of the measurement.
+      performCollisionDetection();
+   }
+
+   private int nextIndex()
+   {
+      index++;
+      if (index == NUMBER_OF_CONFIGURATIONS)
+         index = 0;
+      return index;
+   }
+
+   @Benchmark
+   public CollisionDetectionResult performCollisionDetection()
+   {
+      RigidBodyTransform[] configuration = transforms[nextIndex()];
+      for (int i = 0; i < numberOfBoxes; i++)
+         boxes[i].setTransformToWorld(configuration[i]);
+
+      result.clear();
+      detector.performCollisionDetection(result);
+      return result;
+   }
+}
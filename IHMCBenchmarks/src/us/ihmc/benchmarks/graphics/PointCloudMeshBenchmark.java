@@ -0,0 +1,106 @@
+package us.ihmc.benchmarks.graphics;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jme3.scene.Mesh;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.graphicsDescription.MergedPointCloud3DMeshGenerator;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.PointCloud3DMeshGenerator;
+import us.ihmc.jMonkeyEngineToolkit.jme.JMEMeshDataInterpreter;
+
+/**
+ * Measures the time to update the meshes of a point cloud and convert them to JME meshes, using
+ * one mesh per point with the {@link PointCloud3DMeshGenerator} or a few merged meshes with the
+ * {@link MergedPointCloud3DMeshGenerator}.
+ * <p>
+ * With one mesh per point, every update creates new JME meshes as the graphics engine does. With
+ * the merged meshes, the JME meshes are created once and their buffers are updated in place. No
+ * rendering is involved, so the benchmark runs headless.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PointCloudMeshBenchmark
+{
+   private static final int RESOLUTION = 4;
+   private static final double POINT_RADIUS = 0.01;
+
+   @Param({"1000", "10000", "100000"})
+   public int numberOfPoints;
+
+   @Param({"true", "false"})
+   public boolean mergeMeshes;
+
+   private Point3D[] points;
+   private PointCloud3DMeshGenerator pointCloudMeshGenerator;
+   private MergedPointCloud3DMeshGenerator mergedPointCloudMeshGenerator;
+   private Mesh[] mergedMeshes;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      Random random = new Random(1776L);
+      points = new Point3D[numberOfPoints];
+      for (int i = 0; i < numberOfPoints; i++)
+         points[i] = new Point3D(random.nextDouble(), random.nextDouble(), random.nextDouble());
+
+      if (mergeMeshes)
+      {
+         mergedPointCloudMeshGenerator = new MergedPointCloud3DMeshGenerator(numberOfPoints, RESOLUTION, POINT_RADIUS);
+         mergedPointCloudMeshGenerator.compute(points);
+         MeshDataHolder[] meshDataHolders = mergedPointCloudMeshGenerator.getMeshDataHolders();
+         mergedMeshes = new Mesh[meshDataHolders.length];
+         for (int i = 0; i < meshDataHolders.length; i++)
+            mergedMeshes[i] = JMEMeshDataInterpreter.interpretMeshData(meshDataHolders[i]);
+      }
+      else
+      {
+         pointCloudMeshGenerator = new PointCloud3DMeshGenerator(numberOfPoints, RESOLUTION, POINT_RADIUS);
+      }
+   }
+
+   @Benchmark
+   public Object updatePointCloud()
+   {
+      for (int i = 0; i < numberOfPoints; i++)
+         points[i].setZ(points[i].getZ() + 1.0e-3);
+
+      if (mergeMeshes)
+      {
+         mergedPointCloudMeshGenerator.compute(points);
+         MeshDataHolder[] meshDataHolders = mergedPointCloudMeshGenerator.getMeshDataHolders();
+         for (int i = 0; i < meshDataHolders.length; i++)
+            JMEMeshDataInterpreter.updateMeshData(mergedMeshes[i], meshDataHolders[i]);
+         return mergedMeshes;
+      }
+      else
+      {
+         pointCloudMeshGenerator.compute(points);
+         MeshDataHolder[] meshDataHolders = pointCloudMeshGenerator.getMeshDataHolders();
+         Mesh[] meshes = new Mesh[meshDataHolders.length];
+         for (int i = 0; i < meshDataHolders.length; i++)
+            meshes[i] = JMEMeshDataInterpreter.interpretMeshData(meshDataHolders[i]);
+         return meshes;
+      }
+   }
+}
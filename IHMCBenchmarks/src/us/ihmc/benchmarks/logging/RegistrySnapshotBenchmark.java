@@ -0,0 +1,126 @@
+package us.ihmc.benchmarks.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.robotDataLogger.RegistryBuffer;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.EnumYoVariable;
+import us.ihmc.robotics.dataStructures.variable.IntegerYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariableSlab;
+import us.ihmc.robotics.robotSide.RobotSide;
+
+/**
+ * Measures the snapshot of a registry tree of 30000 variables taken by the logger on every control tick, with the
+ * values stored in each variable and with the values stored in a contiguous {@link YoVariableSlab}.
+ * <p>
+ * The variables are created interleaved with other allocations, as they would be in a controller, such that they are
+ * not trivially contiguous in the heap.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RegistrySnapshotBenchmark
+{
+   private static final int NUMBER_OF_REGISTRIES = 300;
+   private static final int NUMBER_OF_VARIABLES_PER_REGISTRY = 100;
+
+   @Param({"false", "true"})
+   public boolean useSlab;
+
+   private final List<Object> otherAllocations = new ArrayList<>();
+   private final List<DoubleYoVariable> doubleVariables = new ArrayList<>();
+   private RegistryBuffer registryBuffer;
+   private long timestamp = 0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      YoVariableRegistry rootRegistry = new YoVariableRegistry("root");
+      YoVariableRegistry parentRegistry = rootRegistry;
+
+      for (int registryIndex = 0; registryIndex < NUMBER_OF_REGISTRIES; registryIndex++)
+      {
+         YoVariableRegistry registry = new YoVariableRegistry("registry" + registryIndex);
+         parentRegistry.addChild(registry);
+         // Make a tree a few levels deep.
+         if (registryIndex % 10 == 0)
+            parentRegistry = registry;
+
+         for (int variableIndex = 0; variableIndex < NUMBER_OF_VARIABLES_PER_REGISTRY; variableIndex++)
+         {
+            String name = "variable" + registryIndex + "_" + variableIndex;
+
+            switch (variableIndex % 10)
+            {
+            case 0:
+               new IntegerYoVariable(name, registry).set(variableIndex);
+               break;
+            case 1:
+               new BooleanYoVariable(name, registry).set(true);
+               break;
+            case 2:
+               new EnumYoVariable<>(name, registry, RobotSide.class).set(RobotSide.RIGHT);
+               break;
+            case 3:
+               new LongYoVariable(name, registry).set(variableIndex);
+               break;
+            default:
+               DoubleYoVariable doubleVariable = new DoubleYoVariable(name, registry);
+               doubleVariable.set(variableIndex);
+               doubleVariables.add(doubleVariable);
+               break;
+            }
+
+            otherAllocations.add(new double[8]);
+         }
+      }
+
+      ArrayList<YoVariable<?>> variables = rootRegistry.getAllVariablesIncludingDescendants();
+      if (useSlab)
+         new YoVariableSlab(variables);
+
+      registryBuffer = new RegistryBuffer(0, variables);
+      if (registryBuffer.isUsingSlab() != useSlab)
+         throw new RuntimeException("The registry buffer is not using the expected storage.");
+   }
+
+   @Benchmark
+   public void snapshot()
+   {
+      registryBuffer.update(timestamp++);
+   }
+
+   /**
+    * Writes every double variable, to check that controller code is not slowed down by the storage.
+    */
+   @Benchmark
+   public void setAllDoubleVariables()
+   {
+      double value = timestamp++;
+      for (int i = 0; i < doubleVariables.size(); i++)
+         doubleVariables.get(i).add(value);
+   }
+}
@@ -0,0 +1,225 @@
+package us.ihmc.benchmarks.quadruped;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.convexOptimization.quadraticProgram.ConstrainedQPSolver;
+import us.ihmc.convexOptimization.quadraticProgram.QuadProgSolver;
+import us.ihmc.convexOptimization.quadraticProgram.SimpleDiagonalActiveSetQPSolver;
+import us.ihmc.convexOptimization.quadraticProgram.WarmStartActiveSetQPSolver;
+import us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl.QuadrupedDcmBasedMpcOptimizationWithLaneChange;
+import us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl.QuadrupedMpcDenseFinalDcmMap;
+import us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl.QuadrupedMpcFinalDcmMap;
+import us.ihmc.tools.exceptions.NoConvergenceException;
+
+/**
+ * Measures one control tick of the {@link QuadrupedDcmBasedMpcOptimizationWithLaneChange} quadratic program against the
+ * length of the preview, in number of constant center of pressure intervals: computing the final dcm map and solving the
+ * program.
+ * <p>
+ * The condensed map with the warm started solver, as used by the controller, is compared to the condensed map with a
+ * cold QuadProg solve and to the dense formulation with a cold QuadProg solve, which the controller used before. The
+ * ticks replay a trot in which the current time and the dcm move while the timing of the queued steps is unchanged.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class QuadrupedDcmMpcBenchmark
+{
+   private static final int NUMBER_OF_TICKS = 100;
+   private static final int NUMBER_OF_CONTACTS = 2;
+   private static final double NATURAL_FREQUENCY = 3.0;
+
+   @Param({"2", "5", "10", "20", "40"})
+   public int numberOfIntervals;
+
+   private double[] intervalStartTimes;
+   private double[] intervalCopPositionsX;
+   private double[] intervalCopPositionsY;
+   private double[] intervalStepAdjustmentPressures;
+   private final double[] contactPositionsX = {0.5, -0.5};
+   private final double[] contactPositionsY = {0.15, -0.15};
+   private double[] tickStartTimes;
+   private double[] tickDcmPositionsX;
+   private double[] tickDcmPositionsY;
+
+   private QuadrupedMpcFinalDcmMap finalDcmMap;
+   private final QuadrupedMpcDenseFinalDcmMap denseFinalDcmMap = new QuadrupedMpcDenseFinalDcmMap();
+   private final WarmStartActiveSetQPSolver warmStartSolver = new WarmStartActiveSetQPSolver(new SimpleDiagonalActiveSetQPSolver());
+   private final QuadProgSolver quadProgSolver = new QuadProgSolver();
+
+   private final DenseMatrix64F CmSB = new DenseMatrix64F(2, 6);
+   private final DenseMatrix64F CmSx0py0 = new DenseMatrix64F(2, 1);
+   private final DenseMatrix64F A = new DenseMatrix64F(6, 6);
+   private final DenseMatrix64F b = new DenseMatrix64F(6, 1);
+   private final DenseMatrix64F Aeq = new DenseMatrix64F(3, 6);
+   private final DenseMatrix64F beq = new DenseMatrix64F(3, 1);
+   private final DenseMatrix64F Ain = new DenseMatrix64F(4, 6);
+   private final DenseMatrix64F bin = new DenseMatrix64F(4, 1);
+   private final DenseMatrix64F solution = new DenseMatrix64F(6, 1);
+
+   private int tick = 0;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      Random random = new Random(4592L);
+
+      intervalStartTimes = new double[numberOfIntervals];
+      intervalCopPositionsX = new double[numberOfIntervals];
+      intervalCopPositionsY = new double[numberOfIntervals];
+      intervalStepAdjustmentPressures = new double[numberOfIntervals];
+      for (int i = 0; i < numberOfIntervals; i++)
+      {
+         // Trot: 0.3 s steps and 0.05 s of quadruple support.
+         intervalStartTimes[i] = 0.175 * i;
+         intervalCopPositionsX[i] = 0.1 * i + 0.02 * (random.nextDouble() - 0.5);
+         intervalCopPositionsY[i] = 0.02 * (random.nextDouble() - 0.5);
+         intervalStepAdjustmentPressures[i] = i == 0 ? 0.0 : 0.5;
+      }
+
+      tickStartTimes = new double[NUMBER_OF_TICKS];
+      tickDcmPositionsX = new double[NUMBER_OF_TICKS];
+      tickDcmPositionsY = new double[NUMBER_OF_TICKS];
+      double firstIntervalDuration = numberOfIntervals > 1 ? intervalStartTimes[1] : 1.0;
+      for (int i = 0; i < NUMBER_OF_TICKS; i++)
+      {
+         tickStartTimes[i] = 0.9 * firstIntervalDuration * i / NUMBER_OF_TICKS;
+         tickDcmPositionsX[i] = 0.05 * i / NUMBER_OF_TICKS;
+         tickDcmPositionsY[i] = 0.02 * (random.nextDouble() - 0.5);
+      }
+
+      finalDcmMap = new QuadrupedMpcFinalDcmMap(numberOfIntervals);
+      initializeCostAndInequalityConstraints();
+   }
+
+   @Benchmark
+   public DenseMatrix64F condensedMapWarmStartedSolve() throws NoConvergenceException
+   {
+      nextTick();
+      computeCondensedMap();
+      return solve(warmStartSolver, tick == 0);
+   }
+
+   @Benchmark
+   public DenseMatrix64F condensedMapColdSolve() throws NoConvergenceException
+   {
+      nextTick();
+      computeCondensedMap();
+      return solve(quadProgSolver, true);
+   }
+
+   @Benchmark
+   public DenseMatrix64F denseMapColdSolve() throws NoConvergenceException
+   {
+      nextTick();
+      denseFinalDcmMap.compute(numberOfIntervals, intervalStartTimes, intervalCopPositionsX, intervalCopPositionsY, intervalStepAdjustmentPressures,
+            NUMBER_OF_CONTACTS, contactPositionsX, contactPositionsY, NATURAL_FREQUENCY, tickDcmPositionsX[tick], tickDcmPositionsY[tick], CmSB, CmSx0py0);
+      return solve(quadProgSolver, true);
+   }
+
+   private void nextTick()
+   {
+      tick = (tick + 1) % NUMBER_OF_TICKS;
+      intervalStartTimes[0] = tickStartTimes[tick];
+   }
+
+   private void computeCondensedMap()
+   {
+      finalDcmMap.setNumberOfIntervals(numberOfIntervals);
+      for (int i = 0; i < numberOfIntervals; i++)
+      {
+         finalDcmMap.setInterval(i, intervalStartTimes[i], intervalCopPositionsX[i], intervalCopPositionsY[i], intervalStepAdjustmentPressures[i]);
+      }
+      finalDcmMap.clearContacts();
+      for (int i = 0; i < NUMBER_OF_CONTACTS; i++)
+      {
+         finalDcmMap.addContact(contactPositionsX[i], contactPositionsY[i]);
+      }
+      finalDcmMap.compute(NATURAL_FREQUENCY, tickDcmPositionsX[tick], tickDcmPositionsY[tick], CmSB, CmSx0py0);
+   }
+
+   private void initializeCostAndInequalityConstraints()
+   {
+      int size = NUMBER_OF_CONTACTS + 2;
+      A.reshape(size, size);
+      b.reshape(size, 1);
+      A.zero();
+      b.zero();
+      for (int i = 0; i < NUMBER_OF_CONTACTS; i++)
+      {
+         A.set(i, i, 1.0);
+         b.set(i, 0, 1.0 / NUMBER_OF_CONTACTS);
+      }
+      for (int i = NUMBER_OF_CONTACTS; i < size; i++)
+      {
+         A.set(i, i, 100000.0);
+      }
+      CommonOps.multTransA(A, b, b);
+      CommonOps.scale(-2, b, b);
+
+      Ain.reshape(NUMBER_OF_CONTACTS, size);
+      bin.reshape(NUMBER_OF_CONTACTS, 1);
+      Ain.zero();
+      for (int i = 0; i < NUMBER_OF_CONTACTS; i++)
+      {
+         Ain.set(i, i, -1);
+         bin.set(i, 0, -0.001);
+      }
+   }
+
+   private DenseMatrix64F solve(ConstrainedQPSolver solver, boolean initialize) throws NoConvergenceException
+   {
+      int size = NUMBER_OF_CONTACTS + 2;
+      Aeq.reshape(3, size);
+      beq.reshape(3, 1);
+      Aeq.zero();
+      for (int i = 0; i < size; i++)
+      {
+         Aeq.set(0, i, CmSB.get(0, i));
+         Aeq.set(1, i, CmSB.get(1, i));
+      }
+      for (int i = 0; i < NUMBER_OF_CONTACTS; i++)
+      {
+         Aeq.set(2, i, 1);
+      }
+      beq.set(0, 0, -CmSx0py0.get(0, 0));
+      beq.set(1, 0, -CmSx0py0.get(1, 0));
+      beq.set(2, 0, 1);
+      for (int i = 0; i < 3; i++)
+      {
+         // Normalize constraint if beq > 1, as the controller does.
+         if (Math.abs(beq.get(i, 0)) > 1.0)
+         {
+            for (int j = 0; j < size; j++)
+            {
+               Aeq.set(i, j, Aeq.get(i, j) / beq.get(i, 0));
+            }
+            beq.set(i, 0, 1.0);
+         }
+      }
+
+      solution.reshape(size, 1);
+      solver.solve(A, b, Aeq, beq, Ain, bin, solution, initialize);
+      return solution;
+   }
+}
@@ -0,0 +1,72 @@
+package us.ihmc.benchmarks.robotModels;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.atlas.AtlasRobotModel;
+import us.ihmc.atlas.AtlasRobotVersion;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.modelFileLoaders.SdfLoader.SDFRobotDescriptionCache;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+import us.ihmc.valkyrie.ValkyrieRobotModel;
+
+/**
+ * Measures the time to create the robot models of Atlas and Valkyrie, with and without the
+ * {@link SDFRobotDescriptionCache}.
+ * <p>
+ * With the cache, a first model is created during the setup to fill a temporary cache directory, so
+ * every measured creation loads the description from the cache.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class RobotModelStartupBenchmark
+{
+   @Param({"Atlas", "Valkyrie"})
+   public String robot;
+
+   @Param({"false", "true"})
+   public boolean useCache;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      System.setProperty(SDFRobotDescriptionCache.CACHE_ENABLED_PROPERTY, Boolean.toString(useCache));
+
+      if (useCache)
+      {
+         System.setProperty(SDFRobotDescriptionCache.CACHE_DIRECTORY_PROPERTY, Files.createTempDirectory("robotModelCache").toString());
+         createRobotModel();
+      }
+   }
+
+   @Benchmark
+   public RobotDescription createRobotModel()
+   {
+      DRCRobotModel robotModel;
+
+      if (robot.equals("Atlas"))
+         robotModel = new AtlasRobotModel(AtlasRobotVersion.ATLAS_UNPLUGGED_V5_NO_HANDS, DRCRobotModel.RobotTarget.SCS, false);
+      else
+         robotModel = new ValkyrieRobotModel(DRCRobotModel.RobotTarget.SCS, false);
+
+      return robotModel.getRobotDescription();
+   }
+}
@@ -0,0 +1,98 @@
+package us.ihmc.benchmarks.robotics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import us.ihmc.benchmarks.tools.BenchmarkRobot;
+import us.ihmc.benchmarks.tools.RobotStateSequence;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.screwTheory.GeometricJacobian;
+import us.ihmc.robotics.screwTheory.RigidBody;
+
+/**
+ * Measures {@link GeometricJacobian#compute()} for the arms and the legs of a humanoid, the same Jacobians the
+ * controller core computes for the hand and foot commands on every tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GeometricJacobianBenchmark
+{
+   @Param({"ATLAS", "VALKYRIE"})
+   public BenchmarkRobot robot;
+
+   private FullHumanoidRobotModel fullRobotModel;
+   private RobotStateSequence stateSequence;
+   private GeometricJacobian[] armJacobians;
+   private GeometricJacobian[] legJacobians;
+   private GeometricJacobian[] elevatorToHandJacobians;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      fullRobotModel = robot.createRobotModel().createFullRobotModel();
+      stateSequence = new RobotStateSequence(fullRobotModel, 1000, 9872L);
+
+      RigidBody elevator = fullRobotModel.getElevator();
+      RigidBody pelvis = fullRobotModel.getPelvis();
+      RigidBody chest = fullRobotModel.getChest();
+
+      armJacobians = new GeometricJacobian[RobotSide.values.length];
+      legJacobians = new GeometricJacobian[RobotSide.values.length];
+      elevatorToHandJacobians = new GeometricJacobian[RobotSide.values.length];
+
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         RigidBody hand = fullRobotModel.getHand(robotSide);
+         RigidBody foot = fullRobotModel.getFoot(robotSide);
+         armJacobians[robotSide.ordinal()] = new GeometricJacobian(chest, hand, hand.getBodyFixedFrame());
+         legJacobians[robotSide.ordinal()] = new GeometricJacobian(pelvis, foot, foot.getBodyFixedFrame());
+         elevatorToHandJacobians[robotSide.ordinal()] = new GeometricJacobian(elevator, hand, hand.getBodyFixedFrame());
+      }
+   }
+
+   @Benchmark
+   public void computeLimbJacobians(Blackhole blackhole)
+   {
+      stateSequence.applyNextState();
+      fullRobotModel.updateFrames();
+
+      for (int i = 0; i < armJacobians.length; i++)
+      {
+         armJacobians[i].compute();
+         legJacobians[i].compute();
+         blackhole.consume(armJacobians[i].getJacobianMatrix());
+         blackhole.consume(legJacobians[i].getJacobianMatrix());
+      }
+   }
+
+   @Benchmark
+   public void computeWholeBodyHandJacobians(Blackhole blackhole)
+   {
+      stateSequence.applyNextState();
+      fullRobotModel.updateFrames();
+
+      for (int i = 0; i < elevatorToHandJacobians.length; i++)
+      {
+         elevatorToHandJacobians[i].compute();
+         blackhole.consume(elevatorToHandJacobians[i].getJacobianMatrix());
+      }
+   }
+}
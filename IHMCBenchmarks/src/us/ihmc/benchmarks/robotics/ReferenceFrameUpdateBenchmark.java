@@ -0,0 +1,63 @@
+package us.ihmc.benchmarks.robotics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.ihmc.benchmarks.tools.BenchmarkRobot;
+import us.ihmc.benchmarks.tools.RobotStateSequence;
+import us.ihmc.humanoidRobotics.frames.HumanoidReferenceFrames;
+import us.ihmc.robotModels.FullHumanoidRobotModel;
+
+/**
+ * Measures the update of all the frames of a full humanoid robot model and of its {@link HumanoidReferenceFrames},
+ * which is done several times per control tick by the estimator and the controller.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ReferenceFrameUpdateBenchmark
+{
+   @Param({"ATLAS", "VALKYRIE"})
+   public BenchmarkRobot robot;
+
+   private FullHumanoidRobotModel fullRobotModel;
+   private HumanoidReferenceFrames referenceFrames;
+   private RobotStateSequence stateSequence;
+
+   @Setup(Level.Trial)
+   public void setup()
+   {
+      fullRobotModel = robot.createRobotModel().createFullRobotModel();
+      referenceFrames = new HumanoidReferenceFrames(fullRobotModel);
+      stateSequence = new RobotStateSequence(fullRobotModel, 1000, 2387L);
+   }
+
+   @Benchmark
+   public void updateFullRobotModelFrames()
+   {
+      stateSequence.applyNextState();
+      fullRobotModel.updateFrames();
+   }
+
+   @Benchmark
+   public void updateHumanoidReferenceFrames()
+   {
+      stateSequence.applyNextState();
+      referenceFrames.updateFrames();
+   }
+}
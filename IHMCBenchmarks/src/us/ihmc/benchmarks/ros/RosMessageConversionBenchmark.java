@@ -0,0 +1,107 @@
+package us.ihmc.benchmarks.ros;
+
+import java.lang.reflect.Constructor;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ros.internal.message.Message;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.utilities.ros.msgToPacket.converter.GenericROSTranslationTools;
+import us.ihmc.utilities.ros.msgToPacket.converter.RosMessageConverterRegistry;
+
+/**
+ * Measures the throughput of the conversions between the IHMC packets and the ROS messages, comparing the reflective
+ * {@link GenericROSTranslationTools} with the cached {@link RosMessageConverterRegistry}.
+ * <p>
+ * The messages are random messages generated from a fixed seed, and each invocation converts the next one of the pool.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RosMessageConversionBenchmark
+{
+   private static final int NUMBER_OF_MESSAGES = 64;
+
+   @Param({"HighLevelStateMessage", "NeckTrajectoryMessage", "ArmTrajectoryMessage"})
+   public String messageName;
+
+   private Packet<?>[] ihmcMessages;
+   private Message[] rosMessages;
+
+   private int index = 0;
+
+   @Setup(Level.Trial)
+   public void setup() throws Exception
+   {
+      Class<?> messageClass = null;
+      for (Class<?> annotatedClass : GenericROSTranslationTools.getAllRosMessagePacketAnnotatedClasses())
+      {
+         if (annotatedClass.getSimpleName().equals(messageName))
+            messageClass = annotatedClass;
+      }
+
+      if (messageClass == null)
+         throw new RuntimeException("Unknown message: " + messageName);
+
+      Constructor<?> randomConstructor = messageClass.getConstructor(Random.class);
+      Random random = new Random(1976L);
+
+      ihmcMessages = new Packet<?>[NUMBER_OF_MESSAGES];
+      rosMessages = new Message[NUMBER_OF_MESSAGES];
+
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++)
+      {
+         ihmcMessages[i] = (Packet<?>) randomConstructor.newInstance(random);
+         rosMessages[i] = GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessages[i]);
+      }
+   }
+
+   private int nextIndex()
+   {
+      index++;
+      if (index == NUMBER_OF_MESSAGES)
+         index = 0;
+      return index;
+   }
+
+   @Benchmark
+   public Message ihmcToRosReflective() throws Exception
+   {
+      return GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessages[nextIndex()]);
+   }
+
+   @Benchmark
+   public Message ihmcToRosCompiled() throws Exception
+   {
+      return RosMessageConverterRegistry.convertIHMCMessageToRosMessage(ihmcMessages[nextIndex()]);
+   }
+
+   @Benchmark
+   public Packet<?> rosToIHMCReflective() throws Exception
+   {
+      return GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessages[nextIndex()]);
+   }
+
+   @Benchmark
+   public Packet<?> rosToIHMCCompiled() throws Exception
+   {
+      return RosMessageConverterRegistry.convertRosMessageToIHMCMessage(rosMessages[nextIndex()]);
+   }
+}
@@ -0,0 +1,27 @@
+package us.ihmc.benchmarks.tools;
+
+import us.ihmc.atlas.AtlasRobotModel;
+import us.ihmc.atlas.AtlasRobotVersion;
+import us.ihmc.avatar.drcRobot.DRCRobotModel;
+import us.ihmc.valkyrie.ValkyrieRobotModel;
+
+/**
+ * Robots the benchmarks can be run with. Used as a JMH {@code @Param} so every suite reports one score per robot.
+ */
+public enum BenchmarkRobot
+{
+   ATLAS, VALKYRIE;
+
+   public DRCRobotModel createRobotModel()
+   {
+      switch (this)
+      {
+      case ATLAS:
+         return new AtlasRobotModel(AtlasRobotVersion.ATLAS_UNPLUGGED_V5_NO_HANDS, DRCRobotModel.RobotTarget.SCS, true);
+      case VALKYRIE:
+         return new ValkyrieRobotModel(DRCRobotModel.RobotTarget.SCS, true);
+      default:
+         throw new RuntimeException("Unhandled robot: " + this);
+      }
+   }
+}
@@ -0,0 +1,99 @@
+package us.ihmc.benchmarks.tools;
+
+import java.util.Random;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.robotModels.FullRobotModel;
+import us.ihmc.robotics.screwTheory.FloatingInverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.OneDoFJoint;
+
+/**
+ * Sequence of robot states played back by the benchmarks, so each invocation works on a different configuration
+ * instead of letting the JIT and the caches see the same input over and over.
+ * <p>
+ * The states are a smooth joint space motion around the middle of the joint limits with a drifting root joint, generated
+ * from a fixed seed so every run of a benchmark sees the exact same inputs.
+ * </p>
+ */
+public class RobotStateSequence
+{
+   private final OneDoFJoint[] joints;
+   private final FloatingInverseDynamicsJoint rootJoint;
+
+   private final double[][] jointPositions;
+   private final double[][] jointVelocities;
+   private final RigidBodyTransform[] rootJointTransforms;
+
+   private int index = 0;
+
+   public RobotStateSequence(FullRobotModel fullRobotModel, int numberOfStates, long seed)
+   {
+      joints = fullRobotModel.getOneDoFJoints();
+      rootJoint = fullRobotModel.getRootJoint();
+
+      jointPositions = new double[numberOfStates][joints.length];
+      jointVelocities = new double[numberOfStates][joints.length];
+      rootJointTransforms = new RigidBodyTransform[numberOfStates];
+
+      Random random = new Random(seed);
+      double[] frequencies = new double[joints.length];
+      double[] phases = new double[joints.length];
+      for (int jointIndex = 0; jointIndex < joints.length; jointIndex++)
+      {
+         frequencies[jointIndex] = 0.5 + random.nextDouble();
+         phases[jointIndex] = 2.0 * Math.PI * random.nextDouble();
+      }
+
+      double dt = 0.004;
+
+      for (int stateIndex = 0; stateIndex < numberOfStates; stateIndex++)
+      {
+         double time = stateIndex * dt;
+
+         for (int jointIndex = 0; jointIndex < joints.length; jointIndex++)
+         {
+            OneDoFJoint joint = joints[jointIndex];
+            double lower = Math.max(joint.getJointLimitLower(), -Math.PI);
+            double upper = Math.min(joint.getJointLimitUpper(), Math.PI);
+            double middle = 0.5 * (lower + upper);
+            double amplitude = 0.25 * (upper - lower);
+            double omega = 2.0 * Math.PI * frequencies[jointIndex];
+
+            jointPositions[stateIndex][jointIndex] = middle + amplitude * Math.sin(omega * time + phases[jointIndex]);
+            jointVelocities[stateIndex][jointIndex] = amplitude * omega * Math.cos(omega * time + phases[jointIndex]);
+         }
+
+         RigidBodyTransform rootJointTransform = new RigidBodyTransform();
+         rootJointTransform.setRotationYawPitchRoll(0.2 * Math.sin(time), 0.05 * Math.sin(2.0 * time), 0.05 * Math.cos(3.0 * time));
+         rootJointTransform.setTranslation(0.1 * time, 0.05 * Math.sin(time), 1.0 + 0.02 * Math.sin(4.0 * time));
+         rootJointTransforms[stateIndex] = rootJointTransform;
+      }
+   }
+
+   /**
+    * Writes the next state of the sequence in the robot model, looping back to the first state after the last one.
+    * The frames of the robot model are not updated.
+    */
+   public void applyNextState()
+   {
+      double[] q = jointPositions[index];
+      double[] qd = jointVelocities[index];
+
+      for (int jointIndex = 0; jointIndex < joints.length; jointIndex++)
+      {
+         joints[jointIndex].setQ(q[jointIndex]);
+         joints[jointIndex].setQd(qd[jointIndex]);
+      }
+
+      rootJoint.setPositionAndRotation(rootJointTransforms[index]);
+
+      index++;
+      if (index == jointPositions.length)
+         index = 0;
+   }
+
+   public int getNumberOfStates()
+   {
+      return jointPositions.length;
+   }
+}
@@ -3,54 +3,137 @@ package us.ihmc.communication.producers;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import boofcv.struct.calib.IntrinsicParameters;
 import us.ihmc.codecs.generated.YUVPicture;
 import us.ihmc.codecs.generated.YUVPicture.YUVSubsamplingType;
 import us.ihmc.codecs.yuv.JPEGEncoder;
 import us.ihmc.codecs.yuv.YUVPictureConverter;
+import us.ihmc.commons.Conversions;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple4D.Quaternion;
+import us.ihmc.tools.thread.ThreadTools;
 
+/**
+ * Encodes the images of each {@link VideoSource} with its own {@link JPEGEncoder} on a worker pool shared by all the
+ * servers, so the different cameras are encoded in parallel.
+ * <p>
+ * {@link #updateImage} only hands the image over to the encoder of its video source and returns. When a new image
+ * arrives before the previous one of the same video source was encoded, the previous one is dropped. The image must not
+ * be modified by the caller after it was handed over.
+ * </p>
+ */
 public class JPEGCompressedVideoDataServer implements CompressedVideoDataServer
 {
-   private static final Object hackyLockBecauseJPEGEncoderIsNotThreadsafe = new Object();
-   
-   private final YUVPictureConverter converter = new YUVPictureConverter();
-   private final JPEGEncoder encoder = new JPEGEncoder();
+   private static final int JPEG_QUALITY = 75;
+   private static final int NUMBER_OF_ENCODING_THREADS = Math.min(Runtime.getRuntime().availableProcessors(), VideoSource.values.length);
+
+   private static ExecutorService sharedEncodingExecutor = null;
+
    private final CompressedVideoHandler handler;
-   
+   private final Executor encodingExecutor;
+   private final EnumMap<VideoSource, VideoSourceEncoder> videoSourceEncoders = new EnumMap<>(VideoSource.class);
+   private volatile boolean closed = false;
+
    public JPEGCompressedVideoDataServer(CompressedVideoHandler handler)
+   {
+      this(handler, getSharedEncodingExecutor());
+   }
+
+   public JPEGCompressedVideoDataServer(CompressedVideoHandler handler, Executor encodingExecutor)
    {
       this.handler = handler;
+      this.encodingExecutor = encodingExecutor;
+   }
+
+   private static synchronized ExecutorService getSharedEncodingExecutor()
+   {
+      if (sharedEncodingExecutor == null)
+      {
+         final ThreadFactory namedThreadFactory = ThreadTools.getNamedThreadFactory(JPEGCompressedVideoDataServer.class.getSimpleName());
+         sharedEncodingExecutor = Executors.newFixedThreadPool(NUMBER_OF_ENCODING_THREADS, new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+               Thread thread = namedThreadFactory.newThread(runnable);
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+
+      return sharedEncodingExecutor;
    }
 
    @Override
    public void updateImage(VideoSource videoSource, BufferedImage bufferedImage, long timeStamp, Point3D cameraPosition, Quaternion cameraOrientation, IntrinsicParameters intrinsicParameters)
    {
-      YUVPicture picture = converter.fromBufferedImage(bufferedImage, YUVSubsamplingType.YUV420);
-      try
+      if (closed)
+         return;
+
+      getOrCreateVideoSourceEncoder(videoSource).submitImage(bufferedImage, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
+   }
+
+   private VideoSourceEncoder getOrCreateVideoSourceEncoder(VideoSource videoSource)
+   {
+      synchronized (videoSourceEncoders)
       {
-         ByteBuffer buffer;
-         synchronized (hackyLockBecauseJPEGEncoderIsNotThreadsafe)
+         VideoSourceEncoder videoSourceEncoder = videoSourceEncoders.get(videoSource);
+
+         if (videoSourceEncoder == null)
          {
-            buffer = encoder.encode(picture, 75);
+            videoSourceEncoder = new VideoSourceEncoder(videoSource);
+            videoSourceEncoders.put(videoSource, videoSourceEncoder);
          }
-         byte[] data =  new byte[buffer.remaining()];
-         buffer.get(data);
-         handler.newVideoPacketAvailable(videoSource, timeStamp, data, cameraPosition, cameraOrientation, intrinsicParameters);
+
+         return videoSourceEncoder;
       }
-      catch (IOException e)
+   }
+
+   private VideoSourceEncoder getVideoSourceEncoder(VideoSource videoSource)
+   {
+      synchronized (videoSourceEncoders)
       {
-         e.printStackTrace();
+         return videoSourceEncoders.get(videoSource);
       }
-      picture.delete();
+   }
+
+   /**
+    * @return the number of images of the given video source that were replaced by a newer image before being encoded.
+    */
+   public long getNumberOfDroppedFrames(VideoSource videoSource)
+   {
+      VideoSourceEncoder videoSourceEncoder = getVideoSourceEncoder(videoSource);
+      return videoSourceEncoder == null ? 0 : videoSourceEncoder.getNumberOfDroppedFrames();
+   }
+
+   public long getNumberOfEncodedFrames(VideoSource videoSource)
+   {
+      VideoSourceEncoder videoSourceEncoder = getVideoSourceEncoder(videoSource);
+      return videoSourceEncoder == null ? 0 : videoSourceEncoder.getNumberOfEncodedFrames();
+   }
+
+   /**
+    * @return the average time in seconds between the reception of an image of the given video source and the
+    *         corresponding packet being handed to the {@link CompressedVideoHandler}, NaN if no image of the video source
+    *         was encoded yet.
+    */
+   public double getAverageLatency(VideoSource videoSource)
+   {
+      VideoSourceEncoder videoSourceEncoder = getVideoSourceEncoder(videoSource);
+      return videoSourceEncoder == null ? Double.NaN : videoSourceEncoder.getAverageLatency();
    }
 
    @Override
    public void close()
    {
-      // TODO
+      closed = true;
    }
 
    @Override
@@ -64,4 +147,159 @@ public class JPEGCompressedVideoDataServer implements CompressedVideoDataServer
    {
       // TODO
    }
+
+   private static class Frame
+   {
+      private BufferedImage bufferedImage;
+      private long timeStamp;
+      private Point3D cameraPosition;
+      private Quaternion cameraOrientation;
+      private IntrinsicParameters intrinsicParameters;
+      private long receptionTime;
+
+      private void set(BufferedImage bufferedImage, long timeStamp, Point3D cameraPosition, Quaternion cameraOrientation, IntrinsicParameters intrinsicParameters)
+      {
+         this.bufferedImage = bufferedImage;
+         this.timeStamp = timeStamp;
+         // The packets sent by the handler keep the pose, and the callers reuse theirs for the next image.
+         this.cameraPosition = new Point3D(cameraPosition);
+         this.cameraOrientation = new Quaternion(cameraOrientation);
+         this.intrinsicParameters = intrinsicParameters;
+         receptionTime = System.nanoTime();
+      }
+
+      private void clear()
+      {
+         bufferedImage = null;
+         cameraPosition = null;
+         cameraOrientation = null;
+         intrinsicParameters = null;
+      }
+   }
+
+   /**
+    * Holds the encoder of a video source and the latest image waiting to be encoded. At most one encoding task per video
+    * source is queued in the executor at any time, and the two {@link Frame}s are swapped between the caller and the
+    * encoding thread. The {@link YUVPictureConverter} and {@link JPEGEncoder} are reused for all the images of the video
+    * source.
+    */
+   private class VideoSourceEncoder implements Runnable
+   {
+      private final VideoSource videoSource;
+      private final YUVPictureConverter converter = new YUVPictureConverter();
+      private final JPEGEncoder encoder = new JPEGEncoder();
+
+      private Frame pendingFrame = null;
+      private Frame spareFrame = new Frame();
+      private boolean encodingTaskQueued = false;
+
+      private long numberOfDroppedFrames = 0;
+      private long numberOfEncodedFrames = 0;
+      private long totalLatency = 0;
+
+      public VideoSourceEncoder(VideoSource videoSource)
+      {
+         this.videoSource = videoSource;
+      }
+
+      public void submitImage(BufferedImage bufferedImage, long timeStamp, Point3D cameraPosition, Quaternion cameraOrientation,
+                              IntrinsicParameters intrinsicParameters)
+      {
+         boolean queueEncodingTask;
+
+         synchronized (this)
+         {
+            if (pendingFrame != null)
+            {
+               numberOfDroppedFrames++;
+            }
+            else
+            {
+               pendingFrame = spareFrame != null ? spareFrame : new Frame();
+               spareFrame = null;
+            }
+
+            pendingFrame.set(bufferedImage, timeStamp, cameraPosition, cameraOrientation, intrinsicParameters);
+
+            queueEncodingTask = !encodingTaskQueued;
+            encodingTaskQueued = true;
+         }
+
+         if (queueEncodingTask)
+            encodingExecutor.execute(this);
+      }
+
+      @Override
+      public void run()
+      {
+         Frame frame;
+
+         synchronized (this)
+         {
+            frame = pendingFrame;
+            pendingFrame = null;
+         }
+
+         boolean requeueEncodingTask;
+
+         try
+         {
+            encode(frame);
+         }
+         finally
+         {
+            long latency = System.nanoTime() - frame.receptionTime;
+            frame.clear();
+
+            synchronized (this)
+            {
+               spareFrame = frame;
+               numberOfEncodedFrames++;
+               totalLatency += latency;
+
+               // Go to the back of the queue to let the other video sources be encoded.
+               requeueEncodingTask = pendingFrame != null && !closed;
+               encodingTaskQueued = requeueEncodingTask;
+            }
+         }
+
+         if (requeueEncodingTask)
+            encodingExecutor.execute(this);
+      }
+
+      private void encode(Frame frame)
+      {
+         YUVPicture picture = converter.fromBufferedImage(frame.bufferedImage, YUVSubsamplingType.YUV420);
+         try
+         {
+            ByteBuffer buffer = encoder.encode(picture, JPEG_QUALITY);
+            // The handler keeps the data in the packet it sends, so it cannot be a pooled buffer.
+            byte[] data = new byte[buffer.remaining()];
+            buffer.get(data);
+            handler.newVideoPacketAvailable(videoSource, frame.timeStamp, data, frame.cameraPosition, frame.cameraOrientation, frame.intrinsicParameters);
+         }
+         catch (IOException e)
+         {
+            e.printStackTrace();
+         }
+         picture.delete();
+      }
+
+      public synchronized long getNumberOfDroppedFrames()
+      {
+         return numberOfDroppedFrames;
+      }
+
+      public synchronized long getNumberOfEncodedFrames()
+      {
+         return numberOfEncodedFrames;
+      }
+
+      public synchronized double getAverageLatency()
+      {
+         if (numberOfEncodedFrames == 0)
+            return Double.NaN;
+         return Conversions.nanosecondsToSeconds(totalLatency) / numberOfEncodedFrames;
+      }
+   }
 }
@@ -0,0 +1,150 @@
+package us.ihmc.communication.producers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import boofcv.struct.calib.IntrinsicParameters;
+import us.ihmc.communication.net.NetStateListener;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple4D.Quaternion;
+
+public class JPEGCompressedVideoDataServerTest
+{
+   private static final VideoSource FIRST_SOURCE = VideoSource.MULTISENSE_LEFT_EYE;
+   private static final VideoSource SECOND_SOURCE = VideoSource.FISHEYE_LEFT;
+   private static final VideoSource UNUSED_SOURCE = VideoSource.CV_THRESHOLD;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSourcesAreEncodedConcurrentlyAndBusyFramesAreDropped() throws InterruptedException
+   {
+      // Each source is held in the handler until both are in it, which only happens if they are encoded concurrently.
+      CountDownLatch bothSourcesInHandler = new CountDownLatch(2);
+      CountDownLatch releaseHandler = new CountDownLatch(1);
+      BlockingVideoHandler handler = new BlockingVideoHandler(bothSourcesInHandler, releaseHandler);
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      JPEGCompressedVideoDataServer server = new JPEGCompressedVideoDataServer(handler, executor);
+
+      try
+      {
+         BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+
+         server.updateImage(FIRST_SOURCE, image, 0L, new Point3D(), new Quaternion(), null);
+         server.updateImage(SECOND_SOURCE, image, 0L, new Point3D(), new Quaternion(), null);
+         assertTrue("The video sources were not encoded concurrently", bothSourcesInHandler.await(10, TimeUnit.SECONDS));
+
+         // The encoder of the first source is busy: the first image waits, the next ones replace it.
+         for (long timeStamp = 1L; timeStamp <= 3L; timeStamp++)
+            server.updateImage(FIRST_SOURCE, image, timeStamp, new Point3D(), new Quaternion(), null);
+
+         assertEquals(2, server.getNumberOfDroppedFrames(FIRST_SOURCE));
+         assertEquals(0, server.getNumberOfDroppedFrames(SECOND_SOURCE));
+
+         releaseHandler.countDown();
+
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+         while (server.getNumberOfEncodedFrames(FIRST_SOURCE) < 2 || server.getNumberOfEncodedFrames(SECOND_SOURCE) < 1)
+         {
+            assertTrue("The frames were not all encoded", System.nanoTime() < deadline);
+            Thread.sleep(1);
+         }
+
+         // Only the latest image is encoded after the busy period.
+         assertEquals(2, server.getNumberOfEncodedFrames(FIRST_SOURCE));
+         assertEquals(1, server.getNumberOfEncodedFrames(SECOND_SOURCE));
+         assertEquals(2, handler.getTimeStamps(FIRST_SOURCE).size());
+         assertEquals(0L, handler.getTimeStamps(FIRST_SOURCE).get(0).longValue());
+         assertEquals(3L, handler.getTimeStamps(FIRST_SOURCE).get(1).longValue());
+         assertTrue(server.getAverageLatency(FIRST_SOURCE) > 0.0);
+      }
+      finally
+      {
+         releaseHandler.countDown();
+         server.close();
+         executor.shutdownNow();
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testStatisticsOfUnusedSource()
+   {
+      JPEGCompressedVideoDataServer server = new JPEGCompressedVideoDataServer(new BlockingVideoHandler(null, null), Runnable::run);
+
+      assertEquals(0, server.getNumberOfDroppedFrames(UNUSED_SOURCE));
+      assertEquals(0, server.getNumberOfEncodedFrames(UNUSED_SOURCE));
+      assertTrue(Double.isNaN(server.getAverageLatency(UNUSED_SOURCE)));
+      server.close();
+   }
+
+   private static class BlockingVideoHandler implements CompressedVideoHandler
+   {
+      private final CountDownLatch sourcesInHandler;
+      private final CountDownLatch releaseHandler;
+      private final EnumMap<VideoSource, List<Long>> timeStamps = new EnumMap<>(VideoSource.class);
+
+      public BlockingVideoHandler(CountDownLatch sourcesInHandler, CountDownLatch releaseHandler)
+      {
+         this.sourcesInHandler = sourcesInHandler;
+         this.releaseHandler = releaseHandler;
+      }
+
+      @Override
+      public void newVideoPacketAvailable(VideoSource videoSource, long timeStamp, byte[] data, Point3D position, Quaternion orientation,
+                                          IntrinsicParameters intrinsicParameters)
+      {
+         synchronized (timeStamps)
+         {
+            if (!timeStamps.containsKey(videoSource))
+               timeStamps.put(videoSource, new ArrayList<>());
+            timeStamps.get(videoSource).add(timeStamp);
+         }
+
+         if (sourcesInHandler == null)
+            return;
+
+         sourcesInHandler.countDown();
+
+         try
+         {
+            releaseHandler.await();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+      public List<Long> getTimeStamps(VideoSource videoSource)
+      {
+         synchronized (timeStamps)
+         {
+            return new ArrayList<>(timeStamps.get(videoSource));
+         }
+      }
+
+      @Override
+      public void addNetStateListener(NetStateListener compressedVideoDataServer)
+      {
+      }
+
+      @Override
+      public boolean isConnected()
+      {
+         return true;
+      }
+   }
+}
@@ -14,6 +14,7 @@ import us.ihmc.footstepPlanning.aStar.implementations.DistanceAndYawBasedCost;
 import us.ihmc.footstepPlanning.aStar.implementations.DistanceAndYawBasedHeuristics;
 import us.ihmc.footstepPlanning.aStar.implementations.SimpleNodeChecker;
 import us.ihmc.footstepPlanning.aStar.implementations.SimpleSideBasedExpansion;
+import us.ihmc.footstepPlanning.aStar.implementations.SnapBasedNodeChecker;
 import us.ihmc.robotics.geometry.FramePose;
 import us.ihmc.robotics.geometry.PlanarRegionsList;
 import us.ihmc.robotics.referenceFrames.PoseReferenceFrame;
@@ -229,4 +230,21 @@ public class AStarFootstepPlanner implements FootstepPlanner
 
       return new AStarFootstepPlanner(nodeChecker, heuristics, expansion, stepCostCalculator, viz);
    }
+
+   /**
+    * Creates a planner checking the nodes by snapping the foot onto the planar regions.
+    *
+    * @param snapper snaps the nodes and stores the results. Keeping the same snapper between plans makes replanning on
+    *           an unchanged map cheap.
+    */
+   public static AStarFootstepPlanner createRoughTerrainPlanner(GraphVisualization viz, FootstepNodeSnapper snapper)
+   {
+      SnapBasedNodeChecker nodeChecker = new SnapBasedNodeChecker(snapper);
+      SimpleSideBasedExpansion expansion = new SimpleSideBasedExpansion();
+
+      DistanceAndYawBasedHeuristics heuristics = new DistanceAndYawBasedHeuristics(DEFAULT_YAW_WEIGHT);
+      DistanceAndYawBasedCost stepCostCalculator = new DistanceAndYawBasedCost(DEFAULT_COST_PER_STEP, DEFAULT_YAW_WEIGHT);
+
+      return new AStarFootstepPlanner(nodeChecker, heuristics, expansion, stepCostCalculator, viz);
+   }
 }
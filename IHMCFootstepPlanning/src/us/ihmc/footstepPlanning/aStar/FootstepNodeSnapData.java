@@ -0,0 +1,61 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+
+/**
+ * Result of snapping the foot of a {@link FootstepNode} onto the planar regions, as computed by
+ * {@link FootstepNodeSnapper}.
+ */
+public class FootstepNodeSnapData
+{
+   private final RigidBodyTransform snapTransform;
+   private final ConvexPolygon2d croppedFoothold;
+   private final double footholdArea;
+
+   // Bounding box of the foot polygon in world used to invalidate this data when the regions change.
+   final double footMinX, footMinY, footMaxX, footMaxY;
+
+   FootstepNodeSnapData(RigidBodyTransform snapTransform, ConvexPolygon2d croppedFoothold, double footholdArea, ConvexPolygon2d footPolygonInWorld)
+   {
+      this.snapTransform = snapTransform;
+      this.croppedFoothold = croppedFoothold;
+      this.footholdArea = footholdArea;
+
+      footMinX = footPolygonInWorld.getMinX();
+      footMinY = footPolygonInWorld.getMinY();
+      footMaxX = footPolygonInWorld.getMaxX();
+      footMaxY = footPolygonInWorld.getMaxY();
+   }
+
+   /**
+    * @return the transform snapping the foot from the node at z = 0 onto the planar regions, or null if the node could
+    *         not be snapped.
+    */
+   public RigidBodyTransform getSnapTransform()
+   {
+      return snapTransform;
+   }
+
+   /**
+    * @return the part of the foot supported by the planar region, expressed in the sole frame, or null if the node
+    *         could not be snapped.
+    */
+   public ConvexPolygon2d getCroppedFoothold()
+   {
+      return croppedFoothold;
+   }
+
+   /**
+    * @return the area of the cropped foothold, 0 if the node could not be snapped.
+    */
+   public double getFootholdArea()
+   {
+      return footholdArea;
+   }
+
+   public boolean isSnapped()
+   {
+      return snapTransform != null;
+   }
+}
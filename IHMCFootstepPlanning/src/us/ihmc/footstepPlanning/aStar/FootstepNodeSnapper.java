@@ -0,0 +1,190 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListPolygonSnapper;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+/**
+ * Snaps the foot of {@link FootstepNode}s onto the planar regions and remembers the result for each node.
+ * <p>
+ * The planners revisit the same nodes many times, and successive plans on the same map visit mostly the same nodes. The
+ * snap data of a node is computed the first time the node is snapped and reused afterwards. When new planar regions
+ * are set, the regions that did not change are matched with the previous ones and only the nodes whose foot overlaps
+ * an added or removed region are snapped again, such that replanning on an unchanged map does not snap anything.
+ * </p>
+ */
+public class FootstepNodeSnapper
+{
+   private static final double REGION_EPSILON = 1.0e-7;
+
+   private final SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame;
+   private final HashMap<FootstepNode, FootstepNodeSnapData> snapDataHolder = new HashMap<>();
+   private PlanarRegionsList planarRegionsList;
+
+   private final PlanarRegion planarRegionToPack = new PlanarRegion();
+
+   public FootstepNodeSnapper(SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame)
+   {
+      this.footPolygonsInSoleFrame = footPolygonsInSoleFrame;
+   }
+
+   /**
+    * Sets the planar regions to snap onto and invalidates the snap data affected by the regions that changed.
+    */
+   public void setPlanarRegions(PlanarRegionsList planarRegionsList)
+   {
+      if (this.planarRegionsList == null || planarRegionsList == null)
+         snapDataHolder.clear();
+      else if (planarRegionsList != this.planarRegionsList)
+         invalidateChangedRegions(this.planarRegionsList, planarRegionsList);
+
+      this.planarRegionsList = planarRegionsList;
+   }
+
+   public PlanarRegionsList getPlanarRegionsList()
+   {
+      return planarRegionsList;
+   }
+
+   /**
+    * Returns the snap data of the given node, computing it only if this node has not been snapped on the current
+    * regions yet. The planar regions have to be set before calling this method.
+    */
+   public FootstepNodeSnapData snapFootstepNode(FootstepNode node)
+   {
+      if (planarRegionsList == null)
+         throw new RuntimeException("Need to set the planar regions before snapping.");
+
+      FootstepNodeSnapData snapData = snapDataHolder.get(node);
+      if (snapData == null)
+      {
+         snapData = computeSnapData(node);
+         snapDataHolder.put(node, snapData);
+      }
+      return snapData;
+   }
+
+   private FootstepNodeSnapData computeSnapData(FootstepNode node)
+   {
+      ConvexPolygon2d footPolygonInSoleFrame = footPolygonsInSoleFrame.get(node.getRobotSide());
+
+      RigidBodyTransform soleTransform = new RigidBodyTransform();
+      soleTransform.setRotationYawAndZeroTranslation(node.getYaw());
+      soleTransform.setTranslation(node.getX(), node.getY(), 0.0);
+
+      ConvexPolygon2d footPolygonInWorld = new ConvexPolygon2d(footPolygonInSoleFrame);
+      footPolygonInWorld.applyTransformAndProjectToXYPlane(soleTransform);
+
+      RigidBodyTransform snapTransform = PlanarRegionsListPolygonSnapper.snapPolygonToPlanarRegionsList(footPolygonInWorld, planarRegionsList,
+                                                                                                         planarRegionToPack);
+      if (snapTransform == null)
+         return new FootstepNodeSnapData(null, null, 0.0, footPolygonInWorld);
+
+      RigidBodyTransform snappedSoleTransform = new RigidBodyTransform(snapTransform);
+      snappedSoleTransform.multiply(soleTransform);
+
+      ConvexPolygon2d croppedFoothold = new ConvexPolygon2d();
+      double footholdArea = planarRegionToPack.getPolygonIntersectionAreaWhenSnapped(footPolygonInSoleFrame, snappedSoleTransform, croppedFoothold);
+
+      return new FootstepNodeSnapData(snapTransform, croppedFoothold, footholdArea, footPolygonInWorld);
+   }
+
+   /**
+    * Matches the new regions with the previous ones, and removes the snap data of the nodes overlapping a region that
+    * only exists in one of the two lists.
+    */
+   private void invalidateChangedRegions(PlanarRegionsList previousRegions, PlanarRegionsList newRegions)
+   {
+      List<PlanarRegion> unmatchedPreviousRegions = new ArrayList<>();
+      for (int i = 0; i < previousRegions.getNumberOfPlanarRegions(); i++)
+         unmatchedPreviousRegions.add(previousRegions.getPlanarRegion(i));
+
+      List<PlanarRegion> changedRegions = new ArrayList<>();
+
+      for (int i = 0; i < newRegions.getNumberOfPlanarRegions(); i++)
+      {
+         PlanarRegion newRegion = newRegions.getPlanarRegion(i);
+         int matchIndex = findMatchingRegion(newRegion, unmatchedPreviousRegions);
+         if (matchIndex == -1)
+            changedRegions.add(newRegion);
+         else
+            unmatchedPreviousRegions.remove(matchIndex);
+      }
+
+      changedRegions.addAll(unmatchedPreviousRegions);
+
+      if (changedRegions.isEmpty())
+         return;
+
+      Iterator<FootstepNodeSnapData> iterator = snapDataHolder.values().iterator();
+      while (iterator.hasNext())
+      {
+         FootstepNodeSnapData snapData = iterator.next();
+         for (int i = 0; i < changedRegions.size(); i++)
+         {
+            if (isFootOverlappingRegion(snapData, changedRegions.get(i)))
+            {
+               iterator.remove();
+               break;
+            }
+         }
+      }
+   }
+
+   private static int findMatchingRegion(PlanarRegion region, List<PlanarRegion> candidates)
+   {
+      BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+
+      for (int i = 0; i < candidates.size(); i++)
+      {
+         PlanarRegion candidate = candidates.get(i);
+         BoundingBox3D candidateBoundingBox = candidate.getBoundingBox3dInWorld();
+
+         // Cheap rejection before comparing the polygons.
+         if (Math.abs(boundingBox.getMinX() - candidateBoundingBox.getMinX()) > REGION_EPSILON
+               || Math.abs(boundingBox.getMinY() - candidateBoundingBox.getMinY()) > REGION_EPSILON
+               || Math.abs(boundingBox.getMaxZ() - candidateBoundingBox.getMaxZ()) > REGION_EPSILON)
+            continue;
+
+         if (region.epsilonEquals(candidate, REGION_EPSILON))
+            return i;
+      }
+
+      return -1;
+   }
+
+   private static boolean isFootOverlappingRegion(FootstepNodeSnapData snapData, PlanarRegion region)
+   {
+      BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+      double epsilon = region.getBoundingBoxEpsilon();
+
+      // Regions with NaN bounding boxes have no polygon and cannot affect the snap.
+      return boundingBox.getMinX() - epsilon <= snapData.footMaxX && snapData.footMinX <= boundingBox.getMaxX() + epsilon
+            && boundingBox.getMinY() - epsilon <= snapData.footMaxY && snapData.footMinY <= boundingBox.getMaxY() + epsilon;
+   }
+
+   /**
+    * Removes all the snap data.
+    */
+   public void clear()
+   {
+      snapDataHolder.clear();
+   }
+
+   /**
+    * @return the number of nodes which snap data is currently stored.
+    */
+   public int getNumberOfSnappedNodes()
+   {
+      return snapDataHolder.size();
+   }
+}
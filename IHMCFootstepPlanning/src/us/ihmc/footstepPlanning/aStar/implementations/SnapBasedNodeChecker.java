@@ -1,9 +1,8 @@
 package us.ihmc.footstepPlanning.aStar.implementations;
 
-import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.footstepPlanning.aStar.FootstepNode;
 import us.ihmc.footstepPlanning.aStar.FootstepNodeChecker;
-import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListPolygonSnapper;
+import us.ihmc.footstepPlanning.aStar.FootstepNodeSnapper;
 import us.ihmc.robotics.geometry.ConvexPolygon2d;
 import us.ihmc.robotics.geometry.PlanarRegionsList;
 import us.ihmc.robotics.robotSide.SideDependentList;
@@ -11,18 +10,27 @@ import us.ihmc.robotics.robotSide.SideDependentList;
 public class SnapBasedNodeChecker implements FootstepNodeChecker
 {
    private PlanarRegionsList planarRegions;
-   private final ConvexPolygon2d footPolygon = new ConvexPolygon2d();
-   private final SideDependentList<ConvexPolygon2d> footPolygons;
+   private final FootstepNodeSnapper snapper;
 
    public SnapBasedNodeChecker(SideDependentList<ConvexPolygon2d> footPolygons)
    {
-      this.footPolygons = footPolygons;
+      this(new FootstepNodeSnapper(footPolygons));
+   }
+
+   /**
+    * @param snapper used to snap the nodes. It can be shared with other components and kept between plans to reuse the
+    *           snap data.
+    */
+   public SnapBasedNodeChecker(FootstepNodeSnapper snapper)
+   {
+      this.snapper = snapper;
    }
 
    @Override
    public void setPlanarRegions(PlanarRegionsList planarRegions)
    {
       this.planarRegions = planarRegions;
+      snapper.setPlanarRegions(planarRegions);
    }
 
    @Override
@@ -31,17 +39,7 @@ public class SnapBasedNodeChecker implements FootstepNodeChecker
       if (planarRegions == null)
          return true;
 
-      footPolygon.setAndUpdate(footPolygons.get(node.getRobotSide()));
-      RigidBodyTransform worldToSole = new RigidBodyTransform();
-      worldToSole.setRotationYawAndZeroTranslation(node.getYaw());
-      worldToSole.setTranslation(node.getX(), node.getY(), 0.0);
-      footPolygon.applyTransformAndProjectToXYPlane(worldToSole);
-
-      RigidBodyTransform snapTransform = PlanarRegionsListPolygonSnapper.snapPolygonToPlanarRegionsList(footPolygon, planarRegions);
-      if (snapTransform == null)
-         return false;
-
-      return true;
+      return snapper.snapFootstepNode(node).isSnapped();
    }
 
 }
@@ -16,6 +16,7 @@ public interface BipedalFootstepPlannerListener
    public abstract void nodeUnderConsiderationWasRejected(BipedalFootstepPlannerNode rejectedNode, BipedalFootstepPlannerNodeRejectionReason reason);
    public abstract void nodeUnderConsiderationWasSuccessful(BipedalFootstepPlannerNode node);
 
+   public abstract void partialSolutionWasFound(FootstepPlan partialFootstepPlan);
    public abstract void solutionWasFound(FootstepPlan footstepPlan);
    public abstract void solutionWasNotFound();
 }
@@ -18,7 +18,7 @@ public class BipedalFootstepPlannerNode
 {
    private RobotSide footstepSide;
    private RigidBodyTransform soleTransform = new RigidBodyTransform();
-   private BipedalFootstepPlannerNode parentNode;
+   private volatile BipedalFootstepPlannerNode parentNode;
 
    private ArrayList<BipedalFootstepPlannerNode> childrenNodes = new ArrayList<>();
    private double estimatedCostToGoal;
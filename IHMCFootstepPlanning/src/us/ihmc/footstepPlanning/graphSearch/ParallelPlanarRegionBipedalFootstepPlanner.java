@@ -0,0 +1,439 @@
+package us.ihmc.footstepPlanning.graphSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.tools.thread.ThreadTools;
+
+/**
+ * Anytime version of the {@link PlanarRegionBipedalFootstepPlanner} that expands the frontier with several worker
+ * threads and honors the timeout as a hard wall-clock deadline.
+ * <p>
+ * The workers share a concurrent open list and closed set, and each one owns its own
+ * {@link PlanarRegionPotentialNextStepCalculator} as the calculator is not thread safe. The search is depth first until
+ * a goal is reached and breadth first afterwards, as in the single-threaded planner. The worker threads are started
+ * with the planner and reused by every call to {@link #plan()}, call {@link #destroy()} to stop them.
+ * </p>
+ * <p>
+ * The thread calling {@link #plan()} supervises the workers and is the only one to call the
+ * {@link BipedalFootstepPlannerListener}: every publishing period, it publishes the best plan found so far with
+ * {@link BipedalFootstepPlannerListener#partialSolutionWasFound(FootstepPlan)} if it improved. This is the plan to the
+ * cheapest goal node, or before any goal node is found, the plan to the node closest to the goal. The listener is not
+ * notified of the individual nodes being expanded.
+ * </p>
+ * <p>
+ * When the deadline or the node budget is reached before a goal is found, {@link #plan()} returns
+ * {@link FootstepPlanningResult#TIMED_OUT_BEFORE_SOLUTION} and {@link #getPlan()} returns the plan to the node closest
+ * to the goal, so there is always a plan to show to the operator. {@link #plan()} returns at the latest one node
+ * expansion after the deadline.
+ * </p>
+ */
+public class ParallelPlanarRegionBipedalFootstepPlanner extends PlanarRegionBipedalFootstepPlanner
+{
+   private static final double DEFAULT_PARTIAL_PLAN_PUBLISHING_PERIOD = 0.1;
+
+   private final List<PlanarRegionPotentialNextStepCalculator> workerCalculators = new ArrayList<>();
+   private final List<Runnable> workers = new ArrayList<>();
+   private final ThreadPoolExecutor workerExecutor;
+
+   private final DoubleYoVariable partialPlanPublishingPeriod = new DoubleYoVariable("partialPlanPublishingPeriod", registry);
+
+   private final ConcurrentLinkedDeque<BipedalFootstepPlannerNode> openList = new ConcurrentLinkedDeque<>();
+   private final ConcurrentHashMap<BipedalFootstepPlannerNode, BipedalFootstepPlannerNode> closedSet = new ConcurrentHashMap<>();
+
+   private final AtomicInteger activeWorkers = new AtomicInteger();
+   private final AtomicInteger nodesExpanded = new AtomicInteger();
+   private final AtomicReference<BipedalFootstepPlannerNode> cheapestGoalNode = new AtomicReference<>();
+   private final AtomicReference<BipedalFootstepPlannerNode> closestNodeToGoal = new AtomicReference<>();
+   private final AtomicReference<Throwable> workerException = new AtomicReference<>();
+
+   private volatile CountDownLatch workersDone;
+   private volatile boolean stopRequested = false;
+   private volatile boolean openListExhausted = false;
+   private volatile double smallestCostToGoal = Double.POSITIVE_INFINITY;
+
+   // Copied from the YoVariables before starting the workers.
+   private long deadline;
+   private int nodeBudget;
+   private boolean stopAtFirstGoal;
+
+   private BipedalFootstepPlannerNode partialPlanEndNode = null;
+
+   public ParallelPlanarRegionBipedalFootstepPlanner(BipedalFootstepPlannerParameters parameters, int numberOfThreads, YoVariableRegistry parentRegistry)
+   {
+      super(parameters, parentRegistry);
+
+      if (numberOfThreads < 1)
+         throw new RuntimeException("The number of threads must be at least 1, was: " + numberOfThreads);
+
+      for (int i = 0; i < numberOfThreads; i++)
+      {
+         YoVariableRegistry workerRegistry = new YoVariableRegistry("Worker" + i);
+         registry.addChild(workerRegistry);
+         PlanarRegionPotentialNextStepCalculator calculator = new PlanarRegionPotentialNextStepCalculator(parameters, workerRegistry, null);
+         workerCalculators.add(calculator);
+         workers.add(createWorker(calculator));
+      }
+
+      final ThreadFactory namedThreadFactory = ThreadTools.getNamedThreadFactory(getClass().getSimpleName());
+      workerExecutor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                                              new ThreadFactory()
+                                              {
+                                                 @Override
+                                                 public Thread newThread(Runnable runnable)
+                                                 {
+                                                    Thread thread = namedThreadFactory.newThread(runnable);
+                                                    thread.setDaemon(true);
+                                                    return thread;
+                                                 }
+                                              });
+      workerExecutor.prestartAllCoreThreads();
+
+      partialPlanPublishingPeriod.set(DEFAULT_PARTIAL_PLAN_PUBLISHING_PERIOD);
+   }
+
+   /**
+    * Stops the worker threads. The planner cannot be used afterwards.
+    */
+   public void destroy()
+   {
+      workerExecutor.shutdownNow();
+   }
+
+   public void setPartialPlanPublishingPeriod(double periodInSeconds)
+   {
+      partialPlanPublishingPeriod.set(periodInSeconds);
+   }
+
+   public int getNumberOfThreads()
+   {
+      return workerCalculators.size();
+   }
+
+   @Override
+   public FootstepPlan getPlan()
+   {
+      if (bestGoalNode != null)
+         return new FootstepPlan(bestGoalNode);
+      if (partialPlanEndNode != null)
+         return new FootstepPlan(partialPlanEndNode);
+      return null;
+   }
+
+   @Override
+   public FootstepPlanningResult plan()
+   {
+      bestGoalNode = null;
+      partialPlanEndNode = null;
+      goalNodes.clear();
+      footstepPlan = null;
+
+      if (!initialStanceFootWasSet || !goalWasSet)
+      {
+         return FootstepPlanningResult.NO_PATH_EXISTS;
+      }
+
+      initialize();
+      stack.clear();
+
+      for (int i = 0; i < workerCalculators.size(); i++)
+      {
+         PlanarRegionPotentialNextStepCalculator calculator = workerCalculators.get(i);
+         calculator.setFeetPolygons(footPolygonsInSoleFrame, controllerPolygonsInSoleFrame);
+         if (planarRegionsList != null)
+            calculator.setPlanarRegions(planarRegionsList);
+         calculator.setGoal(goal);
+         calculator.setStartNode(startNode);
+      }
+
+      openList.clear();
+      closedSet.clear();
+      openList.push(startNode);
+      activeWorkers.set(0);
+      nodesExpanded.set(0);
+      cheapestGoalNode.set(null);
+      closestNodeToGoal.set(null);
+      workerException.set(null);
+      stopRequested = false;
+      openListExhausted = false;
+      smallestCostToGoal = Double.POSITIVE_INFINITY;
+
+      planningStartTime.set(System.nanoTime());
+      double timeoutInSeconds = timeout.getDoubleValue();
+      if (Double.isInfinite(timeoutInSeconds))
+         deadline = Long.MAX_VALUE;
+      else
+         deadline = planningStartTime.getLongValue() + Conversions.secondsToNanoseconds(timeoutInSeconds);
+      nodeBudget = maximumNumberOfNodesToExpand.getIntegerValue();
+      stopAtFirstGoal = exitAfterInitialSolution.getBooleanValue();
+
+      startWorkers();
+      superviseWorkers();
+
+      numberOfNodesExpanded.set(nodesExpanded.get());
+
+      Throwable exception = workerException.get();
+      if (exception != null)
+         throw new RuntimeException("A footstep planner worker failed.", exception);
+
+      if (goalNodes.isEmpty())
+      {
+         if (openListExhausted)
+         {
+            notifyListenerSolutionWasNotFound();
+            return FootstepPlanningResult.NO_PATH_EXISTS;
+         }
+
+         partialPlanEndNode = closestNodeToGoal.get();
+         if (partialPlanEndNode != null)
+            notifyListenerPartialSolutionWasFound(new FootstepPlan(partialPlanEndNode));
+         return FootstepPlanningResult.TIMED_OUT_BEFORE_SOLUTION;
+      }
+
+      updateGoalPath(Double.POSITIVE_INFINITY);
+      notifyListenerSolutionWasFound(new FootstepPlan(bestGoalNode));
+
+      if (openListExhausted)
+         return FootstepPlanningResult.OPTIMAL_SOLUTION;
+      return FootstepPlanningResult.SUB_OPTIMAL_SOLUTION;
+   }
+
+   private Runnable createWorker(final PlanarRegionPotentialNextStepCalculator calculator)
+   {
+      return new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               expandNodes(calculator);
+            }
+            catch (Throwable e)
+            {
+               workerException.compareAndSet(null, e);
+               stopRequested = true;
+            }
+            finally
+            {
+               workersDone.countDown();
+            }
+         }
+      };
+   }
+
+   private void startWorkers()
+   {
+      if (workerExecutor.isShutdown())
+         throw new RuntimeException("The planner was destroyed.");
+
+      workersDone = new CountDownLatch(workers.size());
+
+      for (int i = 0; i < workers.size(); i++)
+      {
+         workerExecutor.execute(workers.get(i));
+      }
+   }
+
+   /**
+    * Publishes the partial plans at the requested period until the workers are done or the deadline is reached, and
+    * waits for the workers to finish their current expansion.
+    */
+   private void superviseWorkers()
+   {
+      CountDownLatch workersDone = this.workersDone;
+      long publishingPeriod = Math.max(1L, Conversions.secondsToNanoseconds(partialPlanPublishingPeriod.getDoubleValue()));
+      BipedalFootstepPlannerNode lastPublishedEndNode = null;
+
+      try
+      {
+         while (true)
+         {
+            long timeLeft = deadline - System.nanoTime();
+            if (timeLeft <= 0L)
+               break;
+            if (workersDone.await(Math.min(publishingPeriod, timeLeft), TimeUnit.NANOSECONDS))
+               break;
+
+            BipedalFootstepPlannerNode bestEndNode = cheapestGoalNode.get();
+            if (bestEndNode == null)
+               bestEndNode = closestNodeToGoal.get();
+
+            if (bestEndNode != null && bestEndNode != lastPublishedEndNode)
+            {
+               lastPublishedEndNode = bestEndNode;
+               notifyListenerPartialSolutionWasFound(new FootstepPlan(bestEndNode));
+            }
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+
+      stopRequested = true;
+
+      boolean interrupted = false;
+      while (workersDone.getCount() > 0L)
+      {
+         try
+         {
+            workersDone.await();
+         }
+         catch (InterruptedException e)
+         {
+            interrupted = true;
+         }
+      }
+
+      if (interrupted)
+         Thread.currentThread().interrupt();
+   }
+
+   private void expandNodes(PlanarRegionPotentialNextStepCalculator calculator)
+   {
+      while (!stopRequested)
+      {
+         // A worker counts as active before polling so the others cannot consider the search over while it holds a node.
+         activeWorkers.incrementAndGet();
+
+         BipedalFootstepPlannerNode nodeToExpand;
+         // find a path to the goal fast using depth first then refine using breath first
+         if (cheapestGoalNode.get() == null)
+            nodeToExpand = openList.pollFirst();
+         else
+            nodeToExpand = openList.pollLast();
+
+         if (nodeToExpand == null)
+         {
+            if (activeWorkers.decrementAndGet() == 0 && openList.isEmpty())
+            {
+               openListExhausted = true;
+               return;
+            }
+
+            Thread.yield();
+            continue;
+         }
+
+         try
+         {
+            expandNode(calculator, nodeToExpand);
+         }
+         finally
+         {
+            activeWorkers.decrementAndGet();
+         }
+
+         if (nodesExpanded.get() > nodeBudget || System.nanoTime() > deadline)
+            stopRequested = true;
+      }
+   }
+
+   private void expandNode(PlanarRegionPotentialNextStepCalculator calculator, BipedalFootstepPlannerNode nodeToExpand)
+   {
+      // if going to the node is more expensive then going to the goal there is no point in expanding it.
+      double costToNode = nodeToExpand.getCostToHereFromStart();
+      if (costToNode > smallestCostToGoal)
+         return;
+
+      // if we already found this node make sure we update its parent in case we found a better path here.
+      BipedalFootstepPlannerNode equivalentNode = closedSet.putIfAbsent(nodeToExpand, nodeToExpand);
+      if (equivalentNode != null)
+      {
+         synchronized (equivalentNode)
+         {
+            // Unlike the single-threaded planner, a path of the same cost does not expand the node again.
+            if (costToNode > equivalentNode.getCostToHereFromStart() - 1.0e-5)
+               return;
+
+            equivalentNode.setParentNode(nodeToExpand.getParentNode());
+         }
+         nodeToExpand = equivalentNode;
+      }
+
+      nodesExpanded.incrementAndGet();
+
+      if (nodeToExpand.isAtGoal())
+      {
+         addGoalNode(nodeToExpand);
+         return;
+      }
+
+      rememberIfClosestToGoal(calculator, nodeToExpand);
+
+      ArrayList<BipedalFootstepPlannerNode> nodesToAddFromWorstToBest;
+      synchronized (nodeToExpand)
+      {
+         nodesToAddFromWorstToBest = calculator.computeChildrenNodes(nodeToExpand, smallestCostToGoal);
+      }
+
+      for (int i = 0; i < nodesToAddFromWorstToBest.size(); i++)
+      {
+         BipedalFootstepPlannerNode node = nodesToAddFromWorstToBest.get(i);
+         if (node.getCostToHereFromStart() > smallestCostToGoal)
+            continue;
+
+         openList.push(node);
+      }
+   }
+
+   private void addGoalNode(BipedalFootstepPlannerNode goalNode)
+   {
+      synchronized (goalNodes)
+      {
+         goalNodes.add(goalNode);
+
+         // The cost of a goal node can decrease after it was found when one of its ancestors gets rewired.
+         BipedalFootstepPlannerNode cheapestNode = cheapestGoalNode.get();
+         if (cheapestNode == null || goalNode.getCostToHereFromStart() < cheapestNode.getCostToHereFromStart())
+         {
+            cheapestNode = goalNode;
+            cheapestGoalNode.set(goalNode);
+         }
+         smallestCostToGoal = cheapestNode.getCostToHereFromStart();
+      }
+
+      if (stopAtFirstGoal)
+         stopRequested = true;
+   }
+
+   private void rememberIfClosestToGoal(PlanarRegionPotentialNextStepCalculator calculator, BipedalFootstepPlannerNode node)
+   {
+      Point3D goalPosition = calculator.getGoalPosition(node.getRobotSide());
+      double distanceToGoal = goalPosition.distance(node.getSolePosition());
+      node.setEstimatedCostToGoal(distanceToGoal);
+
+      while (true)
+      {
+         BipedalFootstepPlannerNode closestNode = closestNodeToGoal.get();
+         if (closestNode != null && distanceToGoal + 0.01 >= closestNode.getEstimatedCostToGoal())
+            return;
+         if (closestNodeToGoal.compareAndSet(closestNode, node))
+            return;
+      }
+   }
+
+   protected void notifyListenerPartialSolutionWasFound(FootstepPlan partialFootstepPlan)
+   {
+      if (listener != null)
+      {
+         listener.partialSolutionWasFound(partialFootstepPlan);
+      }
+   }
+}
@@ -36,6 +36,9 @@ public class PlanarRegionBipedalFootstepPlanner implements FootstepPlanner
    protected final HashMap<Integer, List<BipedalFootstepPlannerNode>> mapToAllExploredNodes = new HashMap<>();
 
    protected SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame;
+   protected SideDependentList<ConvexPolygon2d> controllerPolygonsInSoleFrame;
+   protected FootstepPlannerGoal goal;
+   protected PlanarRegionsList planarRegionsList;
 
    protected RobotSide initialSide;
    protected RigidBodyTransform initialFootPose = new RigidBodyTransform();
@@ -87,12 +90,14 @@ public class PlanarRegionBipedalFootstepPlanner implements FootstepPlanner
    public void setFeetPolygons(SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame)
    {
       this.footPolygonsInSoleFrame = footPolygonsInSoleFrame;
+      this.controllerPolygonsInSoleFrame = footPolygonsInSoleFrame;
       planarRegionPotentialNextStepCalculator.setFeetPolygons(footPolygonsInSoleFrame, footPolygonsInSoleFrame);
    }
 
    public void setFeetPolygons(SideDependentList<ConvexPolygon2d> footPolygonsInSoleFrame, SideDependentList<ConvexPolygon2d> controllerPolygonsInSoleFrame)
    {
       this.footPolygonsInSoleFrame = footPolygonsInSoleFrame;
+      this.controllerPolygonsInSoleFrame = controllerPolygonsInSoleFrame;
       planarRegionPotentialNextStepCalculator.setFeetPolygons(footPolygonsInSoleFrame, controllerPolygonsInSoleFrame);
    }
 
@@ -116,6 +121,7 @@ public class PlanarRegionBipedalFootstepPlanner implements FootstepPlanner
    @Override
    public final void setGoal(FootstepPlannerGoal goal)
    {
+      this.goal = goal;
       planarRegionPotentialNextStepCalculator.setGoal(goal);
       goalWasSet = true;
    }
@@ -123,6 +129,7 @@ public class PlanarRegionBipedalFootstepPlanner implements FootstepPlanner
    @Override
    public void setPlanarRegions(PlanarRegionsList planarRegionsList)
    {
+      this.planarRegionsList = planarRegionsList;
       planarRegionPotentialNextStepCalculator.setPlanarRegions(planarRegionsList);
    }
 
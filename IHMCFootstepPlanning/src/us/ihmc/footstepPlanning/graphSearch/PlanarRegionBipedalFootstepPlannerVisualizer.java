@@ -367,6 +367,12 @@ public class PlanarRegionBipedalFootstepPlannerVisualizer implements BipedalFoot
       footstepToExpandViz.setPosition(framePointToPack);
    }
 
+   @Override
+   public void partialSolutionWasFound(FootstepPlan partialFootstepPlan)
+   {
+      solutionWasFound(partialFootstepPlan);
+   }
+
    @Override
    public void solutionWasFound(FootstepPlan footstepPlan)
    {
@@ -0,0 +1,109 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.robotics.geometry.ConvexPolygon2d;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+@ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class FootstepNodeSnapperTest
+{
+   private static final double epsilon = 1.0e-7;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSnapDataIsComputedOnce()
+   {
+      FootstepNodeSnapper snapper = new FootstepNodeSnapper(createFootPolygons());
+      snapper.setPlanarRegions(createBoxes(false));
+
+      FootstepNode nodeOnBox = new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT);
+      FootstepNodeSnapData snapData = snapper.snapFootstepNode(nodeOnBox);
+
+      assertTrue(snapData.isSnapped());
+      RigidBodyTransform expectedTransform = new RigidBodyTransform();
+      expectedTransform.setTranslation(0.0, 0.0, 0.3);
+      assertTrue(expectedTransform.epsilonEquals(snapData.getSnapTransform(), epsilon));
+      assertEquals(0.2 * 0.1, snapData.getFootholdArea(), epsilon);
+      assertEquals(0.2 * 0.1, snapData.getCroppedFoothold().getArea(), epsilon);
+
+      assertSame(snapData, snapper.snapFootstepNode(new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT)));
+      assertEquals(1, snapper.getNumberOfSnappedNodes());
+
+      FootstepNodeSnapData snapDataOutside = snapper.snapFootstepNode(new FootstepNode(5.0, 5.0, 0.0, RobotSide.RIGHT));
+      assertFalse(snapDataOutside.isSnapped());
+      assertEquals(0.0, snapDataOutside.getFootholdArea(), epsilon);
+      assertEquals(2, snapper.getNumberOfSnappedNodes());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSnapDataIsKeptForUnchangedRegions()
+   {
+      FootstepNodeSnapper snapper = new FootstepNodeSnapper(createFootPolygons());
+      snapper.setPlanarRegions(createBoxes(false));
+
+      FootstepNode nodeOnFirstBox = new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT);
+      FootstepNode nodeNextToSecondBox = new FootstepNode(2.0, 0.0, 0.0, RobotSide.LEFT);
+      FootstepNodeSnapData snapDataOnFirstBox = snapper.snapFootstepNode(nodeOnFirstBox);
+      FootstepNodeSnapData snapDataNextToSecondBox = snapper.snapFootstepNode(nodeNextToSecondBox);
+      assertFalse(snapDataNextToSecondBox.isSnapped());
+
+      // Same map received again, as a new list.
+      snapper.setPlanarRegions(createBoxes(false));
+      assertSame(snapDataOnFirstBox, snapper.snapFootstepNode(nodeOnFirstBox));
+      assertSame(snapDataNextToSecondBox, snapper.snapFootstepNode(nodeNextToSecondBox));
+
+      // A box is added under the second node, only this node is snapped again.
+      snapper.setPlanarRegions(createBoxes(true));
+      assertSame(snapDataOnFirstBox, snapper.snapFootstepNode(nodeOnFirstBox));
+      FootstepNodeSnapData newSnapDataOnSecondBox = snapper.snapFootstepNode(nodeNextToSecondBox);
+      assertNotSame(snapDataNextToSecondBox, newSnapDataOnSecondBox);
+      assertTrue(newSnapDataOnSecondBox.isSnapped());
+
+      // Clearing the regions clears everything.
+      snapper.setPlanarRegions(null);
+      assertEquals(0, snapper.getNumberOfSnappedNodes());
+   }
+
+   private static PlanarRegionsList createBoxes(boolean addSecondBox)
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.addCubeReferencedAtBottomMiddle(1.0, 1.0, 0.3);
+      if (addSecondBox)
+      {
+         generator.translate(2.0, 0.0, 0.0);
+         generator.addCubeReferencedAtBottomMiddle(1.0, 1.0, 0.2);
+      }
+      return generator.getPlanarRegionsList();
+   }
+
+   private static SideDependentList<ConvexPolygon2d> createFootPolygons()
+   {
+      SideDependentList<ConvexPolygon2d> footPolygons = new SideDependentList<>();
+      for (RobotSide robotSide : RobotSide.values)
+      {
+         ConvexPolygon2d footPolygon = new ConvexPolygon2d();
+         footPolygon.addVertex(0.1, 0.05);
+         footPolygon.addVertex(0.1, -0.05);
+         footPolygon.addVertex(-0.1, -0.05);
+         footPolygon.addVertex(-0.1, 0.05);
+         footPolygon.update();
+         footPolygons.put(robotSide, footPolygon);
+      }
+      return footPolygons;
+   }
+}
@@ -0,0 +1,245 @@
+package us.ihmc.footstepPlanning.graphSearch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.FootstepPlannerGoal;
+import us.ihmc.footstepPlanning.FootstepPlannerGoalType;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.geometry.FramePose;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.referenceFrames.ReferenceFrame;
+import us.ihmc.robotics.robotSide.RobotSide;
+
+public class ParallelPlanarRegionBipedalFootstepPlannerTest
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+   private static final int NUMBER_OF_THREADS = 4;
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testStraightLineOnFlatGround()
+   {
+      ParallelPlanarRegionBipedalFootstepPlanner planner = createPlanner(new YoVariableRegistry("Test"));
+      planner.setMaximumNumberOfNodesToExpand(Integer.MAX_VALUE);
+      planner.setTimeout(10.0);
+
+      PlanarRegionsList flatGround = PlanarRegionsListExamples.generateFlatGround(20.0, 20.0);
+
+      FramePose initialStanceFootPose = new FramePose(worldFrame);
+      initialStanceFootPose.setPosition(0.0, -0.1, 0.0);
+      FramePose goalPose = new FramePose(worldFrame);
+      goalPose.setPosition(3.0, 0.0, 0.0);
+
+      FootstepPlan footstepPlan = PlanningTestTools.runPlanner(planner, initialStanceFootPose, RobotSide.RIGHT, goalPose, flatGround);
+      assertTrue(PlanningTestTools.isGoalNextToLastStep(goalPose, footstepPlan));
+      planner.destroy();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testPlanIsAvailableWhenTheDeadlineIsReached()
+   {
+      ParallelPlanarRegionBipedalFootstepPlanner planner = createPlanner(new YoVariableRegistry("Test"));
+      double timeout = 0.2;
+      planner.setMaximumNumberOfNodesToExpand(Integer.MAX_VALUE);
+      planner.setExitAfterInitialSolution(false);
+      planner.setTimeout(timeout);
+      planner.setPartialPlanPublishingPeriod(0.05);
+
+      PlanarRegionsList cinderBlockField = PlanarRegionsListExamples.generateCinderBlockField(0.0, 0.0, 0.4, 0.15, 21, 6, 0.1);
+
+      FramePose initialStanceFootPose = new FramePose(worldFrame);
+      FramePose goalPose = new FramePose(worldFrame);
+      goalPose.setPosition(9.0, 0.3, 0.0);
+
+      FootstepPlannerGoal goal = new FootstepPlannerGoal();
+      goal.setFootstepPlannerGoalType(FootstepPlannerGoalType.POSE_BETWEEN_FEET);
+      goal.setGoalPoseBetweenFeet(goalPose);
+
+      planner.setInitialStanceFoot(initialStanceFootPose, RobotSide.LEFT);
+      planner.setGoal(goal);
+      planner.setPlanarRegions(cinderBlockField);
+
+      long startTime = System.nanoTime();
+      FootstepPlanningResult result = planner.plan();
+      double planningTime = Conversions.nanosecondsToSeconds(System.nanoTime() - startTime);
+
+      assertTrue("Planning took " + planningTime + "s", planningTime < timeout + 0.5);
+      assertTrue(result != FootstepPlanningResult.NO_PATH_EXISTS);
+
+      FootstepPlan footstepPlan = planner.getPlan();
+      assertNotNull(footstepPlan);
+      assertTrue(footstepPlan.getNumberOfSteps() > 1);
+      planner.destroy();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testTooShortDeadlinePublishesBestPartialPlan()
+   {
+      ParallelPlanarRegionBipedalFootstepPlanner planner = createPlanner(new YoVariableRegistry("Test"));
+      PartialPlanRecorder recorder = new PartialPlanRecorder();
+      planner.setBipedalFootstepPlannerListener(recorder);
+      double timeout = 0.05;
+      planner.setMaximumNumberOfNodesToExpand(Integer.MAX_VALUE);
+      planner.setExitAfterInitialSolution(false);
+      planner.setTimeout(timeout);
+      planner.setPartialPlanPublishingPeriod(0.01);
+
+      PlanarRegionsList cinderBlockField = PlanarRegionsListExamples.generateCinderBlockField(0.0, 0.0, 0.4, 0.15, 21, 6, 0.1);
+
+      // The goal is past the end of the field, so the planner cannot reach it and has to give up at the deadline.
+      FramePose initialStanceFootPose = new FramePose(worldFrame);
+      FramePose goalPose = new FramePose(worldFrame);
+      goalPose.setPosition(30.0, 0.3, 0.0);
+
+      FootstepPlannerGoal goal = new FootstepPlannerGoal();
+      goal.setFootstepPlannerGoalType(FootstepPlannerGoalType.POSE_BETWEEN_FEET);
+      goal.setGoalPoseBetweenFeet(goalPose);
+
+      planner.setInitialStanceFoot(initialStanceFootPose, RobotSide.LEFT);
+      planner.setGoal(goal);
+      planner.setPlanarRegions(cinderBlockField);
+
+      int numberOfWorkerThreads = -1;
+      for (int i = 0; i < 2; i++)
+      {
+         recorder.clear();
+
+         long startTime = System.nanoTime();
+         FootstepPlanningResult result = planner.plan();
+         double planningTime = Conversions.nanosecondsToSeconds(System.nanoTime() - startTime);
+
+         assertEquals(FootstepPlanningResult.TIMED_OUT_BEFORE_SOLUTION, result);
+         assertTrue("Planning took " + planningTime + "s", planningTime < timeout + 0.5);
+         assertFalse(recorder.solutionWasFound);
+
+         FootstepPlan footstepPlan = planner.getPlan();
+         assertNotNull(footstepPlan);
+         assertTrue(footstepPlan.getNumberOfSteps() > 1);
+
+         // The plan returned is the last one published.
+         assertFalse(recorder.partialPlans.isEmpty());
+         FootstepPlan lastPublishedPlan = recorder.partialPlans.get(recorder.partialPlans.size() - 1);
+         assertEquals(footstepPlan.getNumberOfSteps(), lastPublishedPlan.getNumberOfSteps());
+         for (int stepIndex = 0; stepIndex < footstepPlan.getNumberOfSteps(); stepIndex++)
+            assertTrue(footstepPlan.getFootstep(stepIndex).epsilonEquals(lastPublishedPlan.getFootstep(stepIndex), 1.0e-10));
+
+         // The worker threads are reused from one plan to the next.
+         if (numberOfWorkerThreads < 0)
+            numberOfWorkerThreads = countWorkerThreads();
+         else
+            assertEquals(numberOfWorkerThreads, countWorkerThreads());
+      }
+
+      planner.destroy();
+   }
+
+   private static int countWorkerThreads()
+   {
+      int numberOfWorkerThreads = 0;
+      for (Thread thread : Thread.getAllStackTraces().keySet())
+      {
+         if (thread.isAlive() && thread.getName().startsWith(ParallelPlanarRegionBipedalFootstepPlanner.class.getSimpleName()))
+            numberOfWorkerThreads++;
+      }
+      return numberOfWorkerThreads;
+   }
+
+   private static class PartialPlanRecorder implements BipedalFootstepPlannerListener
+   {
+      private final List<FootstepPlan> partialPlans = new ArrayList<>();
+      private boolean solutionWasFound = false;
+
+      void clear()
+      {
+         partialPlans.clear();
+         solutionWasFound = false;
+      }
+
+      @Override
+      public void partialSolutionWasFound(FootstepPlan partialFootstepPlan)
+      {
+         partialPlans.add(partialFootstepPlan);
+      }
+
+      @Override
+      public void solutionWasFound(FootstepPlan footstepPlan)
+      {
+         solutionWasFound = true;
+      }
+
+      @Override
+      public void goalWasSet(RigidBodyTransform goalLeftFootPose, RigidBodyTransform goalRightFootPose)
+      {
+      }
+
+      @Override
+      public void startNodeWasAdded(BipedalFootstepPlannerNode startNode)
+      {
+      }
+
+      @Override
+      public void planarRegionsListSet(PlanarRegionsList planarRegionsList)
+      {
+      }
+
+      @Override
+      public void nodeIsBeingExpanded(BipedalFootstepPlannerNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void nodeUnderConsideration(BipedalFootstepPlannerNode nodeToExpand)
+      {
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasRejected(BipedalFootstepPlannerNode rejectedNode, BipedalFootstepPlannerNodeRejectionReason reason)
+      {
+      }
+
+      @Override
+      public void nodeUnderConsiderationWasSuccessful(BipedalFootstepPlannerNode node)
+      {
+      }
+
+      @Override
+      public void solutionWasNotFound()
+      {
+      }
+   }
+
+   private ParallelPlanarRegionBipedalFootstepPlanner createPlanner(YoVariableRegistry registry)
+   {
+      BipedalFootstepPlannerParameters parameters = new BipedalFootstepPlannerParameters(registry);
+      parameters.setMaximumStepReach(0.4);
+      parameters.setMaximumStepZ(0.25);
+      parameters.setMaximumStepXWhenForwardAndDown(0.25);
+      parameters.setMaximumStepZWhenForwardAndDown(0.25);
+      parameters.setMaximumStepYaw(0.15);
+      parameters.setMaximumStepWidth(0.4);
+      parameters.setMinimumStepWidth(0.15);
+      parameters.setMinimumFootholdPercent(0.8);
+      parameters.setIdealFootstep(0.3, 0.2);
+
+      ParallelPlanarRegionBipedalFootstepPlanner planner = new ParallelPlanarRegionBipedalFootstepPlanner(parameters, NUMBER_OF_THREADS, registry);
+      planner.setFeetPolygons(PlanningTestTools.createDefaultFootPolygons());
+      return planner;
+   }
+}
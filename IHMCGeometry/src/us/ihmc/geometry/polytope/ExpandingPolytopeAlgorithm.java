@@ -1,7 +1,7 @@
 package us.ihmc.geometry.polytope;
 
+import java.util.ArrayList;
 import java.util.PriorityQueue;
-import java.util.Set;
 
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
@@ -25,6 +25,11 @@ public class ExpandingPolytopeAlgorithm
    private ExpandingPolytopeAlgorithmListener listener;
 
    private final RecyclingArrayList<ExpandingPolytopeEntry> polytopeEntryPool = new RecyclingArrayList<>(ExpandingPolytopeEntry.class);
+   private final RecyclingArrayList<Point3D> polytopeVertexPool = new RecyclingArrayList<>(Point3D.class);
+
+   private final THashMap<Point3D, ExpandingPolytopeEntry[]> mapFromStitchVertexToTriangles = new THashMap<>();
+   private final ArrayList<ExpandingPolytopeEntry[]> stitchTrianglePairPool = new ArrayList<>();
+   private int numberOfStitchTrianglePairs = 0;
 
    private final Vector3D tempVector12 = new Vector3D();
    private final Vector3D tempVector13 = new Vector3D();
@@ -44,6 +49,7 @@ public class ExpandingPolytopeAlgorithm
    public void setPolytopes(SimplexPolytope simplex, SupportingVertexHolder polytopeOne, SupportingVertexHolder polytopeTwo)
    {
       polytopeEntryPool.clear();
+      polytopeVertexPool.clear();
 
       correspondingPointsOnA.clear();
       correspondingPointsOnB.clear();
@@ -142,6 +148,7 @@ public class ExpandingPolytopeAlgorithm
    }
 
    private final Vector3D supportDirection = new Vector3D();
+   private final Vector3D w = new Vector3D();
 
    public void computeExpandedPolytope(Vector3D separatingVectorToPack, Point3D closestPointOnA, Point3D closestPointOnB)
    {
@@ -191,7 +198,6 @@ public class ExpandingPolytopeAlgorithm
             supportDirection.negate();
             Point3D supportingVertexB = polytopeB.getSupportingVertex(supportDirection);
 
-            Vector3D w = new Vector3D();
             w.sub(supportingVertexA, supportingVertexB);
 
             if (listener != null)
@@ -222,14 +228,15 @@ public class ExpandingPolytopeAlgorithm
                // edgeList now is the entire silhouette of the current polytope as seen from w.
 
                ExpandingPolytopeEntry firstNewEntry = null;
-               Point3D wPoint = new Point3D(w);
+               Point3D wPoint = polytopeVertexPool.add();
+               wPoint.set(w);
                correspondingPointsOnA.put(wPoint, supportingVertexA);
                correspondingPointsOnB.put(wPoint, supportingVertexB);
 
                int numberOfEdges = edgeList.getNumberOfEdges();
 
-               //TODO: Recycle the trash here...
-               THashMap<Point3D, ExpandingPolytopeEntry[]> mapFromStitchVertexToTriangles = new THashMap<>();
+               mapFromStitchVertexToTriangles.clear();
+               numberOfStitchTrianglePairs = 0;
 
                for (int edgeIndex = 0; edgeIndex < numberOfEdges; edgeIndex++)
                {
@@ -260,9 +267,9 @@ public class ExpandingPolytopeAlgorithm
                      return;
                   }
 
-                  ExpandingPolytopeEntry[] twoTriangles = getOrCreateTwoTriangleArray(mapFromStitchVertexToTriangles, sentryVertexOne);
+                  ExpandingPolytopeEntry[] twoTriangles = getOrCreateTwoTriangleArray(sentryVertexOne);
                   storeNewEntry(newEntry, twoTriangles);
-                  twoTriangles = getOrCreateTwoTriangleArray(mapFromStitchVertexToTriangles, sentryVertexTwo);
+                  twoTriangles = getOrCreateTwoTriangleArray(sentryVertexTwo);
                   storeNewEntry(newEntry, twoTriangles);
 
                   newEntry.setAdjacentTriangle(0, sentry, sentryEdgeIndex);
@@ -286,11 +293,9 @@ public class ExpandingPolytopeAlgorithm
                }
 
                // Stich em up:
-               Set<Point3D> keySet = mapFromStitchVertexToTriangles.keySet();
-
-               for (Point3D stitchVertex : keySet)
+               for (int pairIndex = 0; pairIndex < numberOfStitchTrianglePairs; pairIndex++)
                {
-                  ExpandingPolytopeEntry[] trianglesToStitch = mapFromStitchVertexToTriangles.get(stitchVertex);
+                  ExpandingPolytopeEntry[] trianglesToStitch = stitchTrianglePairPool.get(pairIndex);
                   if ((trianglesToStitch[0] == null) || (trianglesToStitch[1] == null))
                   {
                      throw new RuntimeException("Stitch triangle is null");
@@ -342,13 +347,17 @@ public class ExpandingPolytopeAlgorithm
       }
    }
 
-   private ExpandingPolytopeEntry[] getOrCreateTwoTriangleArray(THashMap<Point3D, ExpandingPolytopeEntry[]> mapFromStitchVertexToTriangles,
-         Point3D sentryVertexOne)
+   private ExpandingPolytopeEntry[] getOrCreateTwoTriangleArray(Point3D sentryVertexOne)
    {
       ExpandingPolytopeEntry[] twoTriangleArray = mapFromStitchVertexToTriangles.get(sentryVertexOne);
       if (twoTriangleArray == null)
       {
-         twoTriangleArray = new ExpandingPolytopeEntry[2];
+         // The arrays are recycled between expansions, one per vertex of the silhouette.
+         if (numberOfStitchTrianglePairs == stitchTrianglePairPool.size())
+            stitchTrianglePairPool.add(new ExpandingPolytopeEntry[2]);
+         twoTriangleArray = stitchTrianglePairPool.get(numberOfStitchTrianglePairs++);
+         twoTriangleArray[0] = null;
+         twoTriangleArray[1] = null;
          mapFromStitchVertexToTriangles.put(sentryVertexOne, twoTriangleArray);
       }
 
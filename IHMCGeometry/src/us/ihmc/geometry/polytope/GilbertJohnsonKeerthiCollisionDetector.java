@@ -22,6 +22,7 @@ public class GilbertJohnsonKeerthiCollisionDetector
    private GilbertJohnsonKeerthiCollisionDetectorListener listener;
 
    private final RecyclingArrayList<Point3D> poolOfPoints = new RecyclingArrayList<Point3D>(Point3D.class);
+   private int numberOfIterations = 0;
 
    public void computeSupportPointOnMinkowskiDifference(ConvexPolytope cubeOne, ConvexPolytope cubeTwo, Vector3D supportDirection, Point3D supportPoint)
    {
@@ -81,7 +82,7 @@ public class GilbertJohnsonKeerthiCollisionDetector
          listener.addedVertexToSimplex(simplex, minkowskiDifferenceVertex, vertexOne, vertexTwo);
       }
 
-      int iterations = 0;
+      numberOfIterations = 0;
       int metStoppingConditionsCount = 0;
       Point3D closestPointToOrigin = poolOfPoints.add();
       closestPointToOrigin.set(0.0, 0.0, 0.0);
@@ -178,14 +179,14 @@ public class GilbertJohnsonKeerthiCollisionDetector
             return false;
          }
 
-         iterations++;
-         if (iterations > 100)
+         numberOfIterations++;
+         if (numberOfIterations > 100)
          {
             System.out.println("Seems to be looping... lambda = " + percentCloser);
             System.out.println("Seems to be looping... closestPointToOrigin = " + closestPointToOrigin);
          }
 
-         if (iterations > 106)
+         if (numberOfIterations > 106)
          {
             simplex.getClosestPointsOnAAndB(pointOnAToPack, pointOnBToPack);
 
@@ -222,6 +223,16 @@ public class GilbertJohnsonKeerthiCollisionDetector
       }
    }
 
+   /**
+    * @return the number of vertices added to the simplex during the last call to
+    *         {@link #arePolytopesColliding(Vector3D, SupportingVertexHolder, SupportingVertexHolder, Point3D, Point3D)}.
+    *         A good initial guess of the separating vector reduces it.
+    */
+   public int getNumberOfIterations()
+   {
+      return numberOfIterations;
+   }
+
    public SimplexPolytope getSimplex()
    {
       return simplex;
@@ -3,8 +3,10 @@ package us.ihmc.geometry.polytope;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
 
+import org.ejml.alg.dense.linsol.LinearSolverSafe;
 import org.ejml.data.DenseMatrix64F;
-import org.ejml.ops.CommonOps;
+import org.ejml.factory.LinearSolverFactory;
+import org.ejml.interfaces.linsol.LinearSolver;
 
 import gnu.trove.map.hash.THashMap;
 import gnu.trove.map.hash.TObjectDoubleHashMap;
@@ -450,11 +452,16 @@ public class SimplexPolytope
       return true;
    }
 
+   private final DenseMatrix64F tetragonMatrix = new DenseMatrix64F(4, 4);
+   private final DenseMatrix64F tetragonVector = new DenseMatrix64F(4, 1);
+   private final DenseMatrix64F tetragonLambdas = new DenseMatrix64F(4, 1);
+   // Same solver as CommonOps.solve() for a square matrix, created once to not generate garbage.
+   private final LinearSolver<DenseMatrix64F> tetragonSolver = new LinearSolverSafe<>(LinearSolverFactory.linear(4));
+
    private void projectInsideTetragon(Point3D closestPointToOrigin)
    {
       // Compute barycentric coordinates for point inside the tetragon.
 
-      DenseMatrix64F tetragonMatrix = new DenseMatrix64F(4, 4);
 
       tetragonMatrix.set(0, 0, pointOne.getX());
       tetragonMatrix.set(1, 0, pointOne.getY());
@@ -476,14 +483,15 @@ public class SimplexPolytope
       tetragonMatrix.set(2, 3, pointFour.getZ());
       tetragonMatrix.set(3, 3, 1.0);
 
-      DenseMatrix64F tetragonVector = new DenseMatrix64F(4, 1);
       tetragonVector.set(0, 0, 0.0);
       tetragonVector.set(1, 0, 0.0);
       tetragonVector.set(2, 0, 0.0);
       tetragonVector.set(3, 0, 1.0);
 
-      DenseMatrix64F tetragonLambdas = new DenseMatrix64F(4, 1);
-      CommonOps.solve(tetragonMatrix, tetragonVector, tetragonLambdas);
+      if (tetragonSolver.setA(tetragonMatrix))
+         tetragonSolver.solve(tetragonVector, tetragonLambdas);
+      else
+         tetragonLambdas.zero();
 
       lambdas.clear();
       setLambda(pointOne, tetragonLambdas.get(0, 0));
@@ -949,10 +957,10 @@ public class SimplexPolytope
       if (pointFour == null)
          return Double.NaN;
 
-      Vector3D vectorAB = new Vector3D();
-      Vector3D vectorAC = new Vector3D();
-      Vector3D vectorAD = new Vector3D();
-      Vector3D normalVector = new Vector3D();
+      Vector3D vectorAB = tempVector1;
+      Vector3D vectorAC = tempVector2;
+      Vector3D vectorAD = tempVector3;
+      Vector3D normalVector = tempNormalVector1;
 
       vectorAB.sub(pointTwo, pointOne);
       vectorAC.sub(pointThree, pointOne);
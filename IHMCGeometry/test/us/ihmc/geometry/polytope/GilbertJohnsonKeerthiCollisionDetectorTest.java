@@ -82,6 +82,38 @@ public class GilbertJohnsonKeerthiCollisionDetectorTest
       //TODO: Test for closestPoints. Where should they be?
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testWarmStartWithPreviousSeparatingVector()
+   {
+      GilbertJohnsonKeerthiCollisionDetector detector = new GilbertJohnsonKeerthiCollisionDetector();
+
+      ConvexPolytope cubeOne = ConvexPolytopeConstructor.constructUnitCube();
+      ConvexPolytope cubeTwo = ConvexPolytopeConstructor.constructUnitCube();
+      rotateObject(cubeOne, 0.1, 0.2, 0.3);
+      translateObject(cubeOne, 1.0, 2.0, 3.0);
+      translateObject(cubeTwo, 4.0, 6.0, 2.0);
+
+      Point3D closestPointOnA = new Point3D();
+      Point3D closestPointOnB = new Point3D();
+      assertFalse(detector.arePolytopesColliding(cubeOne, cubeTwo, closestPointOnA, closestPointOnB));
+      int coldStartIterations = detector.getNumberOfIterations();
+
+      Vector3D previousSeparatingVector = new Vector3D();
+      previousSeparatingVector.sub(closestPointOnB, closestPointOnA);
+
+      // Slightly moved, as between two ticks of a simulation.
+      translateObject(cubeTwo, 0.001, -0.002, 0.001);
+      assertFalse(detector.arePolytopesColliding(cubeOne, cubeTwo, closestPointOnA, closestPointOnB));
+      Point3D expectedPointOnA = new Point3D(closestPointOnA);
+      Point3D expectedPointOnB = new Point3D(closestPointOnB);
+
+      assertFalse(detector.arePolytopesColliding(previousSeparatingVector, cubeOne, cubeTwo, closestPointOnA, closestPointOnB));
+      EuclidCoreTestTools.assertTuple3DEquals("", expectedPointOnA, closestPointOnA, 1e-7);
+      EuclidCoreTestTools.assertTuple3DEquals("", expectedPointOnB, closestPointOnB, 1e-7);
+      assertTrue(detector.getNumberOfIterations() <= coldStartIterations);
+   }
+
    private void translateObject(ConvexPolytope polytope, double x, double y, double z)
    {
       RigidBodyTransform transform = new RigidBodyTransform();
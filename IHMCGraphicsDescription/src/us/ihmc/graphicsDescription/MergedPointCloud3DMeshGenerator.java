@@ -0,0 +1,264 @@
+package us.ihmc.graphicsDescription;
+
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DBasics;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+
+/**
+ * Mesh generator for large clouds of 3D points represented as spheres.
+ * <p>
+ * As opposed to the {@link PointCloud3DMeshGenerator} which creates one mesh per point, the
+ * spheres are merged into a few meshes, each containing at most {@code maxVerticesPerMesh}
+ * vertices. The meshes are created once and only their vertices are rewritten when calling the
+ * compute method, such that the number of vertices, normals, and triangles of each mesh never
+ * changes. This allows to render clouds of tens of thousands of points using only a few scene
+ * nodes, and allows the graphics engine to upload the new vertices without rebuilding its
+ * geometries.
+ * </p>
+ * <p>
+ * The number of points to display can vary from one call to another as long as it does not exceed
+ * the capacity of this generator. The spheres that are not used are collapsed into a single vertex
+ * and are not visible.
+ * </p>
+ * <p>
+ * The vertices of each mesh are rewritten while holding the lock of its {@link MeshDataHolder}, so
+ * a renderer copying a mesh while synchronized on it never sees a partially updated mesh.
+ * </p>
+ */
+public class MergedPointCloud3DMeshGenerator
+{
+   /** Maximum number of vertices per mesh such that the triangle indices fit in 16 bits. */
+   public static final int DEFAULT_MAX_VERTICES_PER_MESH = 65536;
+
+   /**
+    * The meshes for this generator. Note that the meshes are recycled.
+    */
+   private final MeshDataHolder[] meshDataHolders;
+   /**
+    * The {@code pointTemplate} is used to reset the other meshes without recomputing the actual
+    * meshes.
+    */
+   private final MeshDataHolder pointTemplate;
+   private final int capacity;
+   private final int pointsPerMesh;
+   private double pointRadius = 1.0;
+   private int numberOfPoints = 0;
+
+   /**
+    * Create a new mesh generator given the properties necessary to initialize the meshes.
+    *
+    * @param capacity maximum number of spheres to be displayed. Necessary to evaluate the number of
+    *           meshes needed for this generator.
+    * @param resolution refers to the quality of the rendering for each sphere. A high value will
+    *           result in a smooth sphere, while a low value result in a polygonized sphere.
+    * @param pointRadius radius used to create all the spheres.
+    */
+   public MergedPointCloud3DMeshGenerator(int capacity, int resolution, double pointRadius)
+   {
+      this(capacity, resolution, pointRadius, DEFAULT_MAX_VERTICES_PER_MESH);
+   }
+
+   /**
+    * Create a new mesh generator given the properties necessary to initialize the meshes.
+    *
+    * @param capacity maximum number of spheres to be displayed. Necessary to evaluate the number of
+    *           meshes needed for this generator.
+    * @param resolution refers to the quality of the rendering for each sphere. A high value will
+    *           result in a smooth sphere, while a low value result in a polygonized sphere.
+    * @param pointRadius radius used to create all the spheres.
+    * @param maxVerticesPerMesh the maximum number of vertices in each of the output meshes.
+    * @throws RuntimeException if a single sphere has more than {@code maxVerticesPerMesh} vertices.
+    */
+   public MergedPointCloud3DMeshGenerator(int capacity, int resolution, double pointRadius, int maxVerticesPerMesh)
+   {
+      this.capacity = capacity;
+      this.pointRadius = pointRadius;
+      pointTemplate = MeshDataGenerator.Sphere(pointRadius, resolution, resolution);
+
+      int verticesPerPoint = pointTemplate.getVertices().length;
+      if (verticesPerPoint > maxVerticesPerMesh)
+         throw new RuntimeException("A sphere has " + verticesPerPoint + " vertices which is more than maxVerticesPerMesh: " + maxVerticesPerMesh);
+
+      pointsPerMesh = maxVerticesPerMesh / verticesPerPoint;
+      int numberOfMeshes = (capacity + pointsPerMesh - 1) / pointsPerMesh;
+      meshDataHolders = new MeshDataHolder[numberOfMeshes];
+
+      for (int meshIndex = 0; meshIndex < numberOfMeshes; meshIndex++)
+      {
+         int numberOfPointsInMesh = Math.min(pointsPerMesh, capacity - meshIndex * pointsPerMesh);
+         meshDataHolders[meshIndex] = createMergedMesh(numberOfPointsInMesh);
+      }
+
+      compute(new Point3DReadOnly[0], 0);
+   }
+
+   private MeshDataHolder createMergedMesh(int numberOfPointsInMesh)
+   {
+      Point3D32[] templateVertices = pointTemplate.getVertices();
+      TexCoord2f[] templateTexturePoints = pointTemplate.getTexturePoints();
+      Vector3D32[] templateNormals = pointTemplate.getVertexNormals();
+      int[] templateTriangleIndices = pointTemplate.getTriangleIndices();
+
+      int verticesPerPoint = templateVertices.length;
+      Point3D32[] vertices = new Point3D32[numberOfPointsInMesh * verticesPerPoint];
+      TexCoord2f[] texturePoints = new TexCoord2f[numberOfPointsInMesh * verticesPerPoint];
+      Vector3D32[] normals = new Vector3D32[numberOfPointsInMesh * verticesPerPoint];
+      int[] triangleIndices = new int[numberOfPointsInMesh * templateTriangleIndices.length];
+
+      for (int pointIndex = 0; pointIndex < numberOfPointsInMesh; pointIndex++)
+      {
+         int vertexOffset = pointIndex * verticesPerPoint;
+
+         for (int i = 0; i < verticesPerPoint; i++)
+         {
+            vertices[vertexOffset + i] = new Point3D32();
+            texturePoints[vertexOffset + i] = new TexCoord2f(templateTexturePoints[i]);
+            normals[vertexOffset + i] = new Vector3D32(templateNormals[i]);
+         }
+
+         int indexOffset = pointIndex * templateTriangleIndices.length;
+
+         for (int i = 0; i < templateTriangleIndices.length; i++)
+            triangleIndices[indexOffset + i] = vertexOffset + templateTriangleIndices[i];
+      }
+
+      return new MeshDataHolder(vertices, texturePoints, triangleIndices, normals);
+   }
+
+   /**
+    * Update the meshes of this generator to represent a cloud of spheres located at the given
+    * locations.
+    * <p>
+    * The resulting meshes can be obtained using {@link #getMeshDataHolders()}.
+    * </p>
+    *
+    * @param pointLocations the positions for each sphere.
+    * @throws RuntimeException if {@code pointLocations.length > this.getCapacity()}.
+    */
+   public void compute(Point3DReadOnly[] pointLocations)
+   {
+      compute(pointLocations, pointLocations.length);
+   }
+
+   /**
+    * Update the meshes of this generator to represent a cloud of spheres located at the first
+    * {@code numberOfPoints} given locations. Points containing NaN are not displayed.
+    * <p>
+    * The resulting meshes can be obtained using {@link #getMeshDataHolders()}.
+    * </p>
+    *
+    * @param pointLocations the positions for each sphere.
+    * @param numberOfPoints the number of points to display.
+    * @throws RuntimeException if {@code numberOfPoints > this.getCapacity()}.
+    */
+   public void compute(Point3DReadOnly[] pointLocations, int numberOfPoints)
+   {
+      if (numberOfPoints > capacity)
+         throw new RuntimeException("Too many points. Capacity: " + capacity + ", but was: " + numberOfPoints);
+
+      this.numberOfPoints = numberOfPoints;
+      Point3D32[] templateVertices = pointTemplate.getVertices();
+      int verticesPerPoint = templateVertices.length;
+
+      for (int meshIndex = 0; meshIndex < meshDataHolders.length; meshIndex++)
+      {
+         MeshDataHolder meshDataHolder = meshDataHolders[meshIndex];
+         Point3D32[] meshVertices = meshDataHolder.getVertices();
+         int numberOfPointsInMesh = meshVertices.length / verticesPerPoint;
+         // The hidden spheres are collapsed onto a visible point to not enlarge the bounds of the mesh.
+         Point3DReadOnly collapsedLocation = null;
+
+         for (int i = 0; i < numberOfPointsInMesh; i++)
+         {
+            int pointIndex = meshIndex * pointsPerMesh + i;
+
+            if (pointIndex < numberOfPoints && !pointLocations[pointIndex].containsNaN())
+            {
+               collapsedLocation = pointLocations[pointIndex];
+               break;
+            }
+         }
+
+         synchronized (meshDataHolder)
+         {
+            for (int i = 0; i < numberOfPointsInMesh; i++)
+            {
+               int pointIndex = meshIndex * pointsPerMesh + i;
+               int vertexOffset = i * verticesPerPoint;
+
+               if (pointIndex < numberOfPoints && !pointLocations[pointIndex].containsNaN())
+               {
+                  Point3DReadOnly center = pointLocations[pointIndex];
+
+                  for (int vertexIndex = 0; vertexIndex < verticesPerPoint; vertexIndex++)
+                     meshVertices[vertexOffset + vertexIndex].add(templateVertices[vertexIndex], center);
+               }
+               else
+               {
+                  for (int vertexIndex = 0; vertexIndex < verticesPerPoint; vertexIndex++)
+                  {
+                     if (collapsedLocation == null)
+                        meshVertices[vertexOffset + vertexIndex].setToZero();
+                     else
+                        meshVertices[vertexOffset + vertexIndex].set(collapsedLocation);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Changes the radius used for all the spheres.
+    * <p>
+    * The compute method has to be called before the change is effective on the output meshes.
+    * </p>
+    *
+    * @param pointRadius the new radius to be used for the spheres.
+    */
+   public void setPointRadius(double pointRadius)
+   {
+      double scale = pointRadius / this.pointRadius;
+
+      for (Point3DBasics vertex : pointTemplate.getVertices())
+      {
+         vertex.scale(scale);
+      }
+      this.pointRadius = pointRadius;
+   }
+
+   /**
+    * Gets the maximum number of spheres this generator can display.
+    *
+    * @return the capacity of this generator.
+    */
+   public int getCapacity()
+   {
+      return capacity;
+   }
+
+   /**
+    * Gets the number of spheres displayed since the last call to the compute method.
+    *
+    * @return the number of points.
+    */
+   public int getNumberOfPoints()
+   {
+      return numberOfPoints;
+   }
+
+   /**
+    * Gets the reference to the output meshes of this generator.
+    * <p>
+    * WARNING: the meshes are part of the internal memory of this generator and are updated when
+    * calling the compute method. Their size never changes.
+    * </p>
+    *
+    * @return the reference to the output meshes of this generator.
+    */
+   public MeshDataHolder[] getMeshDataHolders()
+   {
+      return meshDataHolders;
+   }
+}
@@ -123,12 +123,20 @@ public class BagOfBalls
 
    public BagOfBalls(double sizeInMeters, String name, List<AppearanceDefinition> appearances, GraphicType graphicType, YoVariableRegistry parentRegistry,
                      YoGraphicsListRegistry yoGraphicsListRegistry)
+   {
+      this(sizeInMeters, name, appearances, graphicType, false, parentRegistry, yoGraphicsListRegistry);
+   }
+
+   private BagOfBalls(double sizeInMeters, String name, List<AppearanceDefinition> appearances, GraphicType graphicType, boolean mergeBalls,
+                      YoVariableRegistry parentRegistry, YoGraphicsListRegistry yoGraphicsListRegistry)
    {
       YoVariableRegistry registry = new YoVariableRegistry(name + "Balls");
+      List<YoFramePoint> yoFramePoints = new ArrayList<>();
 
       for (int i = 0; i < appearances.size(); i++)
       {
          YoFramePoint yoFramePoint = new YoFramePoint(name + i, "", worldFrame, registry);
+         yoFramePoints.add(yoFramePoint);
          YoGraphicPosition newPosition;
          if (graphicType != null)
             newPosition = new YoGraphicPosition(name + i, yoFramePoint, sizeInMeters, appearances.get(i), graphicType);
@@ -140,7 +148,10 @@ public class BagOfBalls
 
       index = 0;
 
-      registerYoGraphics(name, registry, parentRegistry, yoGraphicsListRegistry);
+      if (mergeBalls && !appearances.isEmpty())
+         registerMergedYoGraphic(name, yoFramePoints, sizeInMeters, appearances.get(0), yoGraphicsListRegistry);
+      else
+         registerYoGraphics(name, registry, parentRegistry, yoGraphicsListRegistry);
       if (graphicType != null)
          registerArtifacts(name, yoGraphicsListRegistry);
 
@@ -208,6 +219,42 @@ public class BagOfBalls
       return new BagOfBalls(sizeInMeters, name, appearances, parentYoVariableRegistry, yoGraphicsListRegistry);
    }
 
+   /**
+    * Creates a BagOfBalls that is displayed with a single {@link YoGraphicPointCloud} instead of
+    * one {@link YoGraphicPosition} per ball, which is much cheaper to render for a large number of
+    * balls.
+    * <p>
+    * All the balls share the same appearance, such that the appearances given when setting the
+    * balls are ignored. The balls are not displayed in the remote visualizers.
+    * </p>
+    *
+    * @param numberOfBalls int Number of balls to create.
+    * @param sizeInMeters double Size of each ball in meters.
+    * @param name String Name of the BagOfBalls to create.
+    * @param appearance Appearance of the balls.
+    * @param parentYoVariableRegistry YoVariableRegistry to register the BagOfBalls with.
+    * @param yoGraphicsListRegistry YoGraphicsListRegistry to register the BagOfBalls
+    *           with.
+    * @return BagOfBalls
+    */
+   public static BagOfBalls createMergedBag(int numberOfBalls, double sizeInMeters, String name, AppearanceDefinition appearance,
+                                            YoVariableRegistry parentYoVariableRegistry, YoGraphicsListRegistry yoGraphicsListRegistry)
+   {
+      return new BagOfBalls(sizeInMeters, name, toList(appearance, numberOfBalls), DEFAULT_GRAPHIC_TYPE, true, parentYoVariableRegistry,
+                            yoGraphicsListRegistry);
+   }
+
+   private void registerMergedYoGraphic(String name, List<YoFramePoint> yoFramePoints, double sizeInMeters, AppearanceDefinition appearance,
+                                        YoGraphicsListRegistry yoGraphicsListRegistry)
+   {
+      if (yoGraphicsListRegistry != null)
+      {
+         yoGraphicsList = new YoGraphicsList(name + "Balls");
+         yoGraphicsList.add(new YoGraphicPointCloud(name, yoFramePoints, sizeInMeters, appearance));
+         yoGraphicsListRegistry.registerYoGraphicsList(yoGraphicsList);
+      }
+   }
+
    private void registerYoGraphics(String name, YoVariableRegistry registry, YoVariableRegistry parentYoVariableRegistry,
                                    YoGraphicsListRegistry yoGraphicsListRegistry)
    {
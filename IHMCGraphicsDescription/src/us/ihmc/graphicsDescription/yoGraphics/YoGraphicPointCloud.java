@@ -0,0 +1,116 @@
+package us.ihmc.graphicsDescription.yoGraphics;
+
+import java.util.List;
+
+import us.ihmc.euclid.transform.AffineTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.graphicsDescription.Graphics3DObject;
+import us.ihmc.graphicsDescription.MergedPointCloud3DMeshGenerator;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
+import us.ihmc.graphicsDescription.plotting.artifact.Artifact;
+import us.ihmc.robotics.math.frames.YoFramePoint;
+
+/**
+ * {@link YoGraphic} displaying a set of {@link YoFramePoint}s as spheres of the same size and
+ * appearance.
+ * <p>
+ * As opposed to using one {@link YoGraphicPosition} per point, all the spheres are merged into a
+ * few meshes generated by a {@link MergedPointCloud3DMeshGenerator}, which makes it suitable for
+ * displaying thousands of points. The meshes are only updated when one of the points has changed.
+ * The points containing NaN are not displayed. The meshes are rewritten in place while holding
+ * their lock, and the graphics engine only uploads the latest version when the points change
+ * faster than it renders.
+ * </p>
+ * <p>
+ * Note that this {@link YoGraphic} is not a {@link RemoteYoGraphic}, so it is not displayed in
+ * the remote visualizers.
+ * </p>
+ */
+public class YoGraphicPointCloud extends YoGraphic
+{
+   private static final int RESOLUTION = 8;
+
+   private final List<YoFramePoint> points;
+   private final Point3D[] pointLocations;
+   private final MergedPointCloud3DMeshGenerator meshGenerator;
+   private final Graphics3DObject graphics3dObject = new Graphics3DObject();
+   private final Graphics3DAddMeshDataInstruction[] graphics3DAddMeshDataInstructions;
+   private boolean initialized = false;
+
+   public YoGraphicPointCloud(String name, List<YoFramePoint> points, double radius, AppearanceDefinition appearance)
+   {
+      super(name);
+
+      this.points = points;
+      pointLocations = new Point3D[points.size()];
+      for (int i = 0; i < points.size(); i++)
+         pointLocations[i] = new Point3D();
+
+      meshGenerator = new MergedPointCloud3DMeshGenerator(points.size(), RESOLUTION, radius);
+
+      graphics3dObject.setChangeable(true);
+      MeshDataHolder[] meshDataHolders = meshGenerator.getMeshDataHolders();
+      graphics3DAddMeshDataInstructions = new Graphics3DAddMeshDataInstruction[meshDataHolders.length];
+      for (int i = 0; i < meshDataHolders.length; i++)
+         graphics3DAddMeshDataInstructions[i] = graphics3dObject.addMeshData(meshDataHolders[i], appearance);
+   }
+
+   @Override
+   public void update()
+   {
+      boolean hasChanged = !initialized;
+
+      for (int i = 0; i < points.size(); i++)
+      {
+         YoFramePoint point = points.get(i);
+         Point3D pointLocation = pointLocations[i];
+
+         if (Double.compare(point.getX(), pointLocation.getX()) != 0 || Double.compare(point.getY(), pointLocation.getY()) != 0
+               || Double.compare(point.getZ(), pointLocation.getZ()) != 0)
+         {
+            pointLocation.set(point.getX(), point.getY(), point.getZ());
+            hasChanged = true;
+         }
+      }
+
+      if (!hasChanged)
+         return;
+
+      initialized = true;
+      meshGenerator.compute(pointLocations);
+
+      MeshDataHolder[] meshDataHolders = meshGenerator.getMeshDataHolders();
+      for (int i = 0; i < meshDataHolders.length; i++)
+         graphics3DAddMeshDataInstructions[i].setMesh(meshDataHolders[i]);
+   }
+
+   @Override
+   public Graphics3DObject getLinkGraphics()
+   {
+      return graphics3dObject;
+   }
+
+   @Override
+   protected void computeRotationTranslation(AffineTransform transform)
+   {
+      transform.setIdentity();
+      update();
+   }
+
+   @Override
+   protected boolean containsNaN()
+   { // The points containing NaN are hidden individually.
+      return false;
+   }
+
+   /**
+    * Not implemented for this {@link YoGraphic}.
+    */
+   @Override
+   public Artifact createArtifact()
+   {
+      throw new RuntimeException("Implement Me!");
+   }
+}
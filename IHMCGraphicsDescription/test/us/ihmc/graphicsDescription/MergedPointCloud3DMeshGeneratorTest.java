@@ -0,0 +1,91 @@
+package us.ihmc.graphicsDescription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+
+public class MergedPointCloud3DMeshGeneratorTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testMeshesMatchSeparateSpheres()
+   {
+      int numberOfPoints = 25;
+      int resolution = 6;
+      double radius = 0.05;
+      MeshDataHolder sphere = MeshDataGenerator.Sphere(radius, resolution, resolution);
+      int verticesPerPoint = sphere.getVertices().length;
+
+      // Small meshes to test the splitting of the points.
+      MergedPointCloud3DMeshGenerator generator = new MergedPointCloud3DMeshGenerator(numberOfPoints, resolution, radius, 10 * verticesPerPoint + 1);
+      MeshDataHolder[] meshDataHolders = generator.getMeshDataHolders();
+      assertEquals(3, meshDataHolders.length);
+      assertEquals(5 * verticesPerPoint, meshDataHolders[2].getVertices().length);
+      assertEquals(5 * sphere.getTriangleIndices().length, meshDataHolders[2].getTriangleIndices().length);
+
+      Point3D[] points = new Point3D[numberOfPoints];
+      for (int i = 0; i < numberOfPoints; i++)
+         points[i] = new Point3D(i, 2.0 * i, -i);
+
+      generator.compute(points);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         MeshDataHolder meshDataHolder = meshDataHolders[i / 10];
+         int vertexOffset = (i % 10) * verticesPerPoint;
+         int indexOffset = (i % 10) * sphere.getTriangleIndices().length;
+
+         for (int vertexIndex = 0; vertexIndex < verticesPerPoint; vertexIndex++)
+         {
+            Point3D32 expected = new Point3D32();
+            expected.add(sphere.getVertices()[vertexIndex], points[i]);
+            assertTrue(expected.epsilonEquals(meshDataHolder.getVertices()[vertexOffset + vertexIndex], 1.0e-5));
+         }
+
+         for (int j = 0; j < sphere.getTriangleIndices().length; j++)
+            assertEquals(vertexOffset + sphere.getTriangleIndices()[j], meshDataHolder.getTriangleIndices()[indexOffset + j]);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testHiddenPoints()
+   {
+      MergedPointCloud3DMeshGenerator generator = new MergedPointCloud3DMeshGenerator(10, 4, 0.1);
+      MeshDataHolder[] meshDataHolders = generator.getMeshDataHolders();
+      assertEquals(1, meshDataHolders.length);
+      int numberOfVertices = meshDataHolders[0].getVertices().length;
+      int verticesPerPoint = numberOfVertices / 10;
+
+      Point3DReadOnly[] points = {new Point3D(Double.NaN, 0.0, 0.0), new Point3D(1.0, 1.0, 1.0), new Point3D(2.0, 2.0, 2.0)};
+      generator.compute(points, 2);
+
+      assertEquals(2, generator.getNumberOfPoints());
+      assertEquals(numberOfVertices, meshDataHolders[0].getVertices().length);
+
+      // The NaN point and the unused points are collapsed onto the first visible point.
+      for (int vertexIndex = 0; vertexIndex < numberOfVertices; vertexIndex++)
+      {
+         if (vertexIndex >= verticesPerPoint && vertexIndex < 2 * verticesPerPoint)
+            continue;
+         assertTrue(meshDataHolders[0].getVertices()[vertexIndex].epsilonEquals(new Point3D32(1.0f, 1.0f, 1.0f), 0.0));
+      }
+
+      try
+      {
+         generator.compute(new Point3D[11]);
+         fail("The capacity of the generator should not be exceeded.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+   }
+}
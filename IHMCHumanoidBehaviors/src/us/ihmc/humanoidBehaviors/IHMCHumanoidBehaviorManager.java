@@ -159,7 +159,7 @@ public class IHMCHumanoidBehaviorManager
          yoVariableServer.start();
       }
 
-      dispatcher.start();
+      dispatcher.startReactive();
    }
 
    /**
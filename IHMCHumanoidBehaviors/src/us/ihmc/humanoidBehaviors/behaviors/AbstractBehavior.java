@@ -10,7 +10,8 @@ import us.ihmc.humanoidBehaviors.behaviors.behaviorServices.BehaviorService;
 import us.ihmc.humanoidBehaviors.coactiveDesignFramework.CoactiveElement;
 import us.ihmc.humanoidBehaviors.communication.CommunicationBridge;
 import us.ihmc.humanoidBehaviors.communication.CommunicationBridgeInterface;
-import us.ihmc.humanoidBehaviors.communication.ConcurrentListeningQueue;
+import us.ihmc.humanoidBehaviors.communication.ListeningQueue;
+import us.ihmc.humanoidBehaviors.dispatcher.BehaviorWakeUpScheduler;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
 import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
@@ -35,7 +36,7 @@ public abstract class AbstractBehavior implements RobotController
 
    protected final CommunicationBridge communicationBridge;
 
-   protected final HashMap<Class<?>, ArrayList<ConcurrentListeningQueue<?>>> localListeningNetworkQueues = new HashMap<Class<?>, ArrayList<ConcurrentListeningQueue<?>>>();
+   protected final HashMap<Class<?>, ArrayList<ListeningQueue<?>>> localListeningNetworkQueues = new HashMap<Class<?>, ArrayList<ListeningQueue<?>>>();
 
    protected final String behaviorName;
 
@@ -52,6 +53,8 @@ public abstract class AbstractBehavior implements RobotController
 
    private final List<BehaviorService> behaviorsServices;
 
+   private BehaviorWakeUpScheduler wakeUpScheduler = null;
+
    public AbstractBehavior(CommunicationBridgeInterface communicationBridge)
    {
       this(null, communicationBridge);
@@ -88,11 +91,11 @@ public abstract class AbstractBehavior implements RobotController
       communicationBridge.sendPacketToUI(obj);
    }
 
-   public void attachNetworkListeningQueue(ConcurrentListeningQueue<?> queue, Class<?> key)
+   public void attachNetworkListeningQueue(ListeningQueue<?> queue, Class<?> key)
    {
       if (!localListeningNetworkQueues.containsKey(key))
       {
-         localListeningNetworkQueues.put(key, new ArrayList<ConcurrentListeningQueue<?>>());
+         localListeningNetworkQueues.put(key, new ArrayList<ListeningQueue<?>>());
       }
       localListeningNetworkQueues.get(key).add(queue);
    }
@@ -102,6 +105,22 @@ public abstract class AbstractBehavior implements RobotController
       behaviorsServices.add(behaviorService);
    }
 
+   public void setWakeUpScheduler(BehaviorWakeUpScheduler wakeUpScheduler)
+   {
+      this.wakeUpScheduler = wakeUpScheduler;
+   }
+
+   /**
+    * Asks the dispatcher to run this behavior again after the given delay, for instance when waiting for a trajectory to
+    * finish. Only needed when the dispatcher runs in reactive mode, the packets received by the behavior already wake it
+    * up.
+    */
+   protected void requestWakeUpIn(double delayInSeconds)
+   {
+      if (wakeUpScheduler != null)
+         wakeUpScheduler.wakeUpIn(delayInSeconds);
+   }
+
    /**
     * Initialization method called when switching to this behavior.
     */
@@ -224,7 +243,7 @@ public abstract class AbstractBehavior implements RobotController
       }
       for (Class<?> key : localListeningNetworkQueues.keySet())
       {
-         for (ConcurrentListeningQueue<?> queue : localListeningNetworkQueues.get(key))
+         for (ListeningQueue<?> queue : localListeningNetworkQueues.get(key))
          {
             if (DEBUG)
                System.out.println("-- adding listener for " + key);
@@ -242,7 +261,7 @@ public abstract class AbstractBehavior implements RobotController
       }
       for (Class<?> key : localListeningNetworkQueues.keySet())
       {
-         for (ConcurrentListeningQueue<?> queue : localListeningNetworkQueues.get(key))
+         for (ListeningQueue<?> queue : localListeningNetworkQueues.get(key))
          {
             communicationBridge.detachNetworkListeningQueue(queue, key);
          }
@@ -13,7 +13,7 @@ import us.ihmc.communication.producers.JPEGDecompressor;
 import us.ihmc.communication.producers.VideoSource;
 import us.ihmc.euclid.tuple2D.Point2D;
 import us.ihmc.humanoidBehaviors.communication.CommunicationBridgeInterface;
-import us.ihmc.humanoidBehaviors.communication.ConcurrentListeningQueue;
+import us.ihmc.humanoidBehaviors.communication.LatestValueListeningQueue;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.VideoPacket;
 import us.ihmc.ihmcPerception.OpenCVTools;
 import us.ihmc.ihmcPerception.vision.shapes.HSVRange;
@@ -25,8 +25,8 @@ import us.ihmc.tools.thread.ThreadTools;
 
 public class ColoredCircularBlobDetectorBehaviorService extends ThreadedBehaviorService
 {
-   private final ConcurrentListeningQueue<VideoPacket> videoPacketQueue = new ConcurrentListeningQueue<>(2);
-   private final ConcurrentListeningQueue<RobotConfigurationData> robotConfigurationDataQueue = new ConcurrentListeningQueue<>(2);
+   private final LatestValueListeningQueue<VideoPacket> videoPacketQueue = new LatestValueListeningQueue<>();
+   private final LatestValueListeningQueue<RobotConfigurationData> robotConfigurationDataQueue = new LatestValueListeningQueue<>();
    private long videoTimestamp = -1L;
 
    private final JPEGDecompressor jpegDecompressor = new JPEGDecompressor();
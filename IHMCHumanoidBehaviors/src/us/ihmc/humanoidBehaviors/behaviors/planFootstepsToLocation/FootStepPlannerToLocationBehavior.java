@@ -18,6 +18,7 @@ import us.ihmc.humanoidBehaviors.behaviors.AbstractBehavior;
 import us.ihmc.humanoidBehaviors.behaviors.behaviorServices.FiducialDetectorBehaviorService;
 import us.ihmc.humanoidBehaviors.communication.CommunicationBridgeInterface;
 import us.ihmc.humanoidBehaviors.communication.ConcurrentListeningQueue;
+import us.ihmc.humanoidBehaviors.communication.LatestValueListeningQueue;
 import us.ihmc.humanoidRobotics.communication.packets.ExecutionMode;
 import us.ihmc.humanoidRobotics.communication.packets.walking.FootstepDataListMessage;
 import us.ihmc.humanoidRobotics.communication.packets.walking.FootstepDataMessage;
@@ -47,7 +48,7 @@ public class FootStepPlannerToLocationBehavior extends AbstractBehavior
    private final FramePose tempLeftFootPose = new FramePose();
    private final FramePose tempRightFootPose = new FramePose();
 
-   private final ConcurrentListeningQueue<RobotConfigurationData> robotConfigurationDataQueue;
+   private final LatestValueListeningQueue<RobotConfigurationData> robotConfigurationDataQueue;
    private final ConcurrentListeningQueue<FootstepStatus> footstepStatusQueue;
    private final ConcurrentListeningQueue<WalkingStatusMessage> walkingStatusQueue;
    private final ConcurrentListeningQueue<PlanarRegionsListMessage> planarRegionsListQueue = new ConcurrentListeningQueue<>(10);
@@ -117,7 +118,7 @@ public class FootStepPlannerToLocationBehavior extends AbstractBehavior
       actualFootStatusPoses = new SideDependentList<>(leftFootstepStatusPose, rightFootstepStatusPose);
 
       footstepStatusQueue = new ConcurrentListeningQueue<FootstepStatus>(40);
-      robotConfigurationDataQueue = new ConcurrentListeningQueue<RobotConfigurationData>(40);
+      robotConfigurationDataQueue = new LatestValueListeningQueue<RobotConfigurationData>();
       walkingStatusQueue = new ConcurrentListeningQueue<WalkingStatusMessage>(10);
       attachNetworkListeningQueue(robotConfigurationDataQueue, RobotConfigurationData.class);
       attachNetworkListeningQueue(footstepStatusQueue, FootstepStatus.class);
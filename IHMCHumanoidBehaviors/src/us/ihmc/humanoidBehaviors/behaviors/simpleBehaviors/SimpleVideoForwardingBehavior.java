@@ -7,7 +7,7 @@ import us.ihmc.communication.packets.PacketDestination;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple4D.Quaternion;
 import us.ihmc.humanoidBehaviors.communication.CommunicationBridge;
-import us.ihmc.humanoidBehaviors.communication.ConcurrentListeningQueue;
+import us.ihmc.humanoidBehaviors.communication.ListeningQueue;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.VideoPacket;
 
 public class SimpleVideoForwardingBehavior extends ImageProcessingBehavior
@@ -37,7 +37,7 @@ public class SimpleVideoForwardingBehavior extends ImageProcessingBehavior
    @Override
    public void onBehaviorEntered()
    {
-      for(ConcurrentListeningQueue<VideoPacket> queue : communicationBridge.getListeningNetworkQueues().get(VideoPacket.class))
+      for(ListeningQueue<?> queue : communicationBridge.getListeningNetworkQueues().get(VideoPacket.class))
       {
          queue.clear();
       }
@@ -0,0 +1,103 @@
+package us.ihmc.humanoidBehaviors.communication;
+
+import java.util.function.Function;
+
+/**
+ * Keeps the most recent packet for each key, for instance for each robot side, in the order in which the keys were
+ * first received. A new packet replaces the packet with the same key that was not taken yet. When the queue holds
+ * packets for the maximum number of keys, the oldest packet is dropped to make room for a new key.
+ */
+public class CoalescingListeningQueue<K, T> extends ListeningQueue<T>
+{
+   private final Function<T, K> keyExtractor;
+
+   private final Object[] keys;
+   private final Object[] packets;
+   private int head = 0;
+   private volatile int size = 0;
+   private int latestPacketIndex = -1;
+
+   public CoalescingListeningQueue(int maximumNumberOfKeys, Function<T, K> keyExtractor)
+   {
+      this.keyExtractor = keyExtractor;
+      keys = new Object[Math.max(1, maximumNumberOfKeys)];
+      packets = new Object[keys.length];
+   }
+
+   @Override
+   public boolean isNewPacketAvailable()
+   {
+      return size > 0;
+   }
+
+   @Override
+   protected synchronized boolean putPacket(T packet)
+   {
+      K key = keyExtractor.apply(packet);
+
+      for (int i = 0; i < size; i++)
+      {
+         int index = (head + i) % packets.length;
+
+         if (key == null ? keys[index] == null : key.equals(keys[index]))
+         {
+            packets[index] = packet;
+            latestPacketIndex = index;
+            return true;
+         }
+      }
+
+      latestPacketIndex = (head + size) % packets.length;
+      keys[latestPacketIndex] = key;
+      packets[latestPacketIndex] = packet;
+
+      if (size < packets.length)
+      {
+         size++;
+         return false;
+      }
+
+      head = (head + 1) % packets.length;
+      return true;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   protected synchronized T pollPacket()
+   {
+      if (size == 0)
+         return null;
+
+      T packet = (T) packets[head];
+      keys[head] = null;
+      packets[head] = null;
+      head = (head + 1) % packets.length;
+      size--;
+
+      return packet;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   protected synchronized T pollLatestPacketAndClear()
+   {
+      if (size == 0)
+         return null;
+
+      T latestPacket = (T) packets[latestPacketIndex];
+      if (latestPacket == null) // The latest packet was polled, take the last one received for a new key instead.
+         latestPacket = (T) packets[(head + size - 1) % packets.length];
+
+      for (int i = 0; i < size; i++)
+      {
+         int index = (head + i) % packets.length;
+         keys[index] = null;
+         packets[index] = null;
+      }
+
+      head = 0;
+      size = 0;
+
+      return latestPacket;
+   }
+}
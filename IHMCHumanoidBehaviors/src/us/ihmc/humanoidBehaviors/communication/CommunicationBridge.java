@@ -17,10 +17,11 @@ import us.ihmc.robotics.dataStructures.variable.YoVariable;
 public class CommunicationBridge implements CommunicationBridgeInterface
 {
    private final PacketCommunicator packetCommunicator;
-   protected final HashMap<Class<?>, ArrayList<ConcurrentListeningQueue>> listeningNetworkQueues = new HashMap<Class<?>, ArrayList<ConcurrentListeningQueue>>();
+   protected final HashMap<Class<?>, ArrayList<ListeningQueue>> listeningNetworkQueues = new HashMap<Class<?>, ArrayList<ListeningQueue>>();
    ArrayList<CoactiveDataListenerInterface> coactiveDataListeners = new ArrayList<CoactiveDataListenerInterface>();
 
    private final GlobalObjectConsumer objectCosumer;
+   private volatile Runnable queuedPacketListener = null;
 
    public CommunicationBridge(PacketCommunicator packetCommunicator)
    {
@@ -31,11 +32,20 @@ public class CommunicationBridge implements CommunicationBridgeInterface
 
    }
 
-   public HashMap<Class<?>, ArrayList<ConcurrentListeningQueue>> getListeningNetworkQueues()
+   public HashMap<Class<?>, ArrayList<ListeningQueue>> getListeningNetworkQueues()
    {
       return listeningNetworkQueues;
    }
 
+   /**
+    * Sets the listener notified when a packet from the network was put in at least one of the attached
+    * {@link ListeningQueue}s, that is when a packet is available for the behaviors that are running.
+    */
+   public void setQueuedPacketListener(Runnable queuedPacketListener)
+   {
+      this.queuedPacketListener = queuedPacketListener;
+   }
+
    public void consumeObjectFromNetwork(Object object)
    {
       notifyNetworkListeners(object);
@@ -43,27 +53,49 @@ public class CommunicationBridge implements CommunicationBridgeInterface
 
    private void notifyNetworkListeners(Object object)
    {
-      ArrayList<ConcurrentListeningQueue> queues = listeningNetworkQueues.get(object.getClass());
+      ArrayList<ListeningQueue> queues = listeningNetworkQueues.get(object.getClass());
       if (queues != null)
       {
          for (int i = 0; i < queues.size(); i++)
          {
             queues.get(i).put(object);
          }
+
+         Runnable listener = queuedPacketListener;
+         if (listener != null && !queues.isEmpty())
+            listener.run();
       }
    }
 
-   public void attachNetworkListeningQueue(ConcurrentListeningQueue queue, Class<?> key)
+   /**
+    * @return the number of packets of the given class dropped by the queues currently attached, see
+    *         {@link ListeningQueue#getNumberOfDroppedPackets()}.
+    */
+   public long getNumberOfDroppedPackets(Class<?> key)
+   {
+      long numberOfDroppedPackets = 0;
+      ArrayList<ListeningQueue> queues = listeningNetworkQueues.get(key);
+
+      if (queues != null)
+      {
+         for (int i = 0; i < queues.size(); i++)
+            numberOfDroppedPackets += queues.get(i).getNumberOfDroppedPackets();
+      }
+
+      return numberOfDroppedPackets;
+   }
+
+   public void attachNetworkListeningQueue(ListeningQueue queue, Class<?> key)
    {
       if (!listeningNetworkQueues.containsKey(key))
       {
-         listeningNetworkQueues.put(key, new ArrayList<ConcurrentListeningQueue>());
+         listeningNetworkQueues.put(key, new ArrayList<ListeningQueue>());
       }
       listeningNetworkQueues.get(key).add(queue);
    }
    
    
-   public void detachNetworkListeningQueue(ConcurrentListeningQueue queue, Class<?> key)
+   public void detachNetworkListeningQueue(ListeningQueue queue, Class<?> key)
    {
       if (listeningNetworkQueues.containsKey(key))
       {
@@ -15,5 +15,5 @@ public interface CommunicationBridgeInterface
    public void detachGlobalListener(GlobalPacketConsumer listener);
    public <T extends Packet<?>> void attachListener(Class<T> clazz, PacketConsumer<T> listener);
    public <T extends Packet> void detachListener(Class<T> clazz, PacketConsumer<T> listener);
-   public void attachNetworkListeningQueue(ConcurrentListeningQueue queue, Class<?> key);
+   public void attachNetworkListeningQueue(ListeningQueue queue, Class<?> key);
 }
@@ -1,20 +1,19 @@
 package us.ihmc.humanoidBehaviors.communication;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
-
 import us.ihmc.commons.PrintTools;
 
-public class ConcurrentListeningQueue<T>
+/**
+ * Keeps the most recent packets in order in a ring buffer. When the buffer is full, the oldest packet is dropped to
+ * make room for the new one.
+ */
+public class ConcurrentListeningQueue<T> extends ListeningQueue<T>
 {
    private final boolean DEBUG = false;
 
-   private final ConcurrentLinkedQueue<T> packetQueue = new ConcurrentLinkedQueue<T>();
-   private T lastPacket = null;
-
-   private AtomicInteger size = new AtomicInteger(0);
+   private Object[] packets;
+   private int head = 0;
+   private volatile int size = 0;
 
-   private int maximumSizeToBuffer;
    private final StackTraceElement[] elementsOnCreation;
 
    private boolean printedOverflowWarning = false;
@@ -22,66 +21,95 @@ public class ConcurrentListeningQueue<T>
    public ConcurrentListeningQueue(int maximumSizeToBuffer)
    {
       elementsOnCreation = Thread.currentThread().getStackTrace();
-      this.maximumSizeToBuffer = maximumSizeToBuffer;
+      packets = new Object[Math.max(1, maximumSizeToBuffer)];
    }
 
    /**
     * Sets the maximum size to buffer. If items are added to the buffer after it reaches this size, it throws away old ones and keeps the new ones.
     * @param maximumSizeToBuffer
     */
-   public void setMaximumSizeToBuffer(int maximumSizeToBuffer)
+   public synchronized void setMaximumSizeToBuffer(int maximumSizeToBuffer)
    {
-      this.maximumSizeToBuffer = maximumSizeToBuffer;
+      Object[] newPackets = new Object[Math.max(1, maximumSizeToBuffer)];
+      int newSize = Math.min(size, newPackets.length);
+
+      for (int i = 0; i < newSize; i++)
+      {
+         newPackets[i] = packets[(head + size - newSize + i) % packets.length];
+      }
+
+      packets = newPackets;
+      head = 0;
+      size = newSize;
    }
 
-   public int getMaximumSizeToBuffer()
+   public synchronized int getMaximumSizeToBuffer()
    {
-      return maximumSizeToBuffer;
+      return packets.length;
    }
 
+   @Override
    public boolean isNewPacketAvailable()
    {
-      return !packetQueue.isEmpty();
+      return size > 0;
    }
 
-   public T getLatestPacket()
+   @Override
+   protected synchronized boolean putPacket(T packet)
    {
-      while (isNewPacketAvailable())
+      packets[(head + size) % packets.length] = packet;
+
+      if (size < packets.length)
       {
-         poll();
+         size++;
+         return false;
       }
 
-      return lastPacket;
+      head = (head + 1) % packets.length;
+
+      if (!printedOverflowWarning)
+      {
+         printedOverflowWarning = true;
+         if (DEBUG)
+            printOverflowWarning();
+      }
+
+      return true;
    }
 
-   public T poll()
+   @Override
+   @SuppressWarnings("unchecked")
+   protected synchronized T pollPacket()
    {
-      T polledPacket = packetQueue.poll();
+      if (size == 0)
+         return null;
 
-      if (polledPacket != null)
-      {
-         size.decrementAndGet();
-      }
+      T packet = (T) packets[head];
+      packets[head] = null;
+      head = (head + 1) % packets.length;
+      size--;
 
-      lastPacket = polledPacket;
-      return polledPacket;
+      return packet;
    }
 
-   public void put(T object)
+   @Override
+   @SuppressWarnings("unchecked")
+   protected synchronized T pollLatestPacketAndClear()
    {
-      if (size.get() > maximumSizeToBuffer)
+      if (size == 0)
+         return null;
+
+      T latestPacket = (T) packets[(head + size - 1) % packets.length];
+
+      for (int i = 0; i < size; i++)
       {
-         poll();
-         if (!printedOverflowWarning)
-         {
-            printedOverflowWarning = true;
-            if (DEBUG)
-               printOverflowWarning();
-         }
+         packets[(head + i) % packets.length] = null;
       }
 
-      packetQueue.add(object);
-      size.incrementAndGet();
+      head = 0;
+      size = 0;
+
+      return latestPacket;
    }
 
    private void printOverflowWarning()
@@ -94,10 +122,4 @@ public class ConcurrentListeningQueue<T>
          PrintTools.warn("\tat " + s.getClassName() + "." + s.getMethodName() + "(" + s.getFileName() + ":" + s.getLineNumber() + ")");
       }
    }
-
-   public void clear()
-   {
-      packetQueue.clear();
-      size.set(0);
-   }
 }
@@ -0,0 +1,40 @@
+package us.ihmc.humanoidBehaviors.communication;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Only keeps the most recent packet, replacing the previous one if it was not taken yet. Meant for the packets of
+ * which only the latest value matters, as {@code RobotConfigurationData} or the video packets.
+ */
+public class LatestValueListeningQueue<T> extends ListeningQueue<T>
+{
+   private final AtomicReference<T> latestPacket = new AtomicReference<>(null);
+
+   public LatestValueListeningQueue()
+   {
+   }
+
+   @Override
+   public boolean isNewPacketAvailable()
+   {
+      return latestPacket.get() != null;
+   }
+
+   @Override
+   protected boolean putPacket(T packet)
+   {
+      return latestPacket.getAndSet(packet) != null;
+   }
+
+   @Override
+   protected T pollPacket()
+   {
+      return latestPacket.getAndSet(null);
+   }
+
+   @Override
+   protected T pollLatestPacketAndClear()
+   {
+      return latestPacket.getAndSet(null);
+   }
+}
@@ -0,0 +1,92 @@
+package us.ihmc.humanoidBehaviors.communication;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mailbox in which the network thread puts the packets received for a behavior, and from which the behavior takes
+ * them. The implementations are bounded and do not allocate when a packet is put or taken: when full, they drop a
+ * packet, counted by {@link #getNumberOfDroppedPackets()}.
+ * <ul>
+ * <li>{@link ConcurrentListeningQueue} keeps the most recent packets in order,
+ * <li>{@link LatestValueListeningQueue} only keeps the most recent packet,
+ * <li>{@link CoalescingListeningQueue} only keeps the most recent packet for each key.
+ * </ul>
+ * The packets can be put from any number of threads, but only one thread should take them.
+ */
+public abstract class ListeningQueue<T>
+{
+   private final AtomicLong numberOfReceivedPackets = new AtomicLong(0);
+   private final AtomicLong numberOfDroppedPackets = new AtomicLong(0);
+
+   private T lastPacket = null;
+
+   /**
+    * Stores the packet.
+    * 
+    * @return whether a packet that was not taken yet had to be dropped to store this one.
+    */
+   protected abstract boolean putPacket(T packet);
+
+   /**
+    * @return the oldest packet stored, or null if there is none.
+    */
+   protected abstract T pollPacket();
+
+   /**
+    * Removes all the packets stored.
+    * 
+    * @return the most recent packet stored, or null if there is none.
+    */
+   protected abstract T pollLatestPacketAndClear();
+
+   public abstract boolean isNewPacketAvailable();
+
+   public void put(T packet)
+   {
+      numberOfReceivedPackets.incrementAndGet();
+
+      if (putPacket(packet))
+         numberOfDroppedPackets.incrementAndGet();
+   }
+
+   public T poll()
+   {
+      lastPacket = pollPacket();
+      return lastPacket;
+   }
+
+   /**
+    * Removes all the packets stored and returns the most recent one. When there is no new packet, returns the last
+    * packet that was taken from this queue.
+    */
+   public T getLatestPacket()
+   {
+      T latestPacket = pollLatestPacketAndClear();
+
+      if (latestPacket != null)
+         lastPacket = latestPacket;
+
+      return lastPacket;
+   }
+
+   public void clear()
+   {
+      pollLatestPacketAndClear();
+   }
+
+   /**
+    * @return the number of packets put in this queue.
+    */
+   public long getNumberOfReceivedPackets()
+   {
+      return numberOfReceivedPackets.get();
+   }
+
+   /**
+    * @return the number of packets dropped by this queue before being taken.
+    */
+   public long getNumberOfDroppedPackets()
+   {
+      return numberOfDroppedPackets.get();
+   }
+}
@@ -1,17 +1,26 @@
 package us.ihmc.humanoidBehaviors.communication;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
-
+import us.ihmc.commons.PrintTools;
 import us.ihmc.communication.packetCommunicator.PacketCommunicator;
 import us.ihmc.communication.packetCommunicator.interfaces.GlobalPacketConsumer;
 import us.ihmc.communication.packets.Packet;
 import us.ihmc.tools.thread.ThreadTools;
 
+/**
+ * Forwards the packets received by a communicator to another one from a separate thread, such that a slow destination
+ * does not block the source. The packets are forwarded in the order they were received. They are only dropped if more
+ * than {@value #MAXIMUM_NUMBER_OF_QUEUED_PACKETS} are received between two forwarding cycles, in which case a warning
+ * is printed.
+ */
 public class NonBlockingGlobalObjectConsumerRelay implements GlobalPacketConsumer
 {
    private static final boolean DEBUG = false;
+   private static final int MAXIMUM_NUMBER_OF_QUEUED_PACKETS = 1000;
+   private static final long DROPPED_PACKETS_WARNING_PERIOD_NANOS = 5000000000L;
 
-   private final ConcurrentLinkedQueue<Packet<?>> queuedData = new ConcurrentLinkedQueue<Packet<?>>(); 
+   private final ConcurrentListeningQueue<Packet<?>> queuedData = new ConcurrentListeningQueue<Packet<?>>(MAXIMUM_NUMBER_OF_QUEUED_PACKETS);
+   private long numberOfDroppedPacketsWarned = 0;
+   private long lastDroppedPacketsWarningTime = Long.MIN_VALUE;
    private final PacketCommunicator communicatorToForwardFrom;
    private final PacketCommunicator communicatorToForwardTo;
    
@@ -37,7 +46,34 @@ public class NonBlockingGlobalObjectConsumerRelay implements GlobalPacketConsume
    @Override
    public void receivedPacket(Packet<?> packet)
    {
-      queuedData.add(packet);
+      queuedData.put(packet);
+      warnIfPacketsWereDropped();
+   }
+
+   private synchronized void warnIfPacketsWereDropped()
+   {
+      long numberOfDroppedPackets = queuedData.getNumberOfDroppedPackets();
+      if (numberOfDroppedPackets == numberOfDroppedPacketsWarned)
+         return;
+
+      long time = System.nanoTime();
+      if (lastDroppedPacketsWarningTime == Long.MIN_VALUE || time - lastDroppedPacketsWarningTime > DROPPED_PACKETS_WARNING_PERIOD_NANOS)
+      {
+         PrintTools.warn(this, "Dropped " + (numberOfDroppedPackets - numberOfDroppedPacketsWarned) + " packets from "
+               + communicatorToForwardFrom.getClass().getSimpleName() + ", more than " + MAXIMUM_NUMBER_OF_QUEUED_PACKETS
+               + " packets were received between two forwarding cycles.");
+         numberOfDroppedPacketsWarned = numberOfDroppedPackets;
+         lastDroppedPacketsWarningTime = time;
+      }
+   }
+
+   /**
+    * @return the number of packets dropped because more than {@value #MAXIMUM_NUMBER_OF_QUEUED_PACKETS} of them were
+    *         received between two forwarding cycles.
+    */
+   public long getNumberOfDroppedPackets()
+   {
+      return queuedData.getNumberOfDroppedPackets();
    }
 
    private boolean isRunning = true;
@@ -51,7 +87,7 @@ public class NonBlockingGlobalObjectConsumerRelay implements GlobalPacketConsume
             while (isRunning)
             {
                Packet<?> dataObject;
-               while((dataObject = queuedData.poll()) != null)
+               while ((dataObject = queuedData.poll()) != null)
                {
                   if (DEBUG)
                   {
@@ -9,6 +9,7 @@ import us.ihmc.humanoidRobotics.communication.packets.behaviors.BehaviorControlM
 public class BehaviorControlModeSubscriber implements PacketConsumer<BehaviorControlModePacket>
 {
    private final AtomicReference<BehaviorControlModePacket> packetReference = new AtomicReference<BehaviorControlModePacket>(null);
+   private volatile Runnable newRequestListener = null;
 
    public BehaviorControlModeSubscriber()
    {
@@ -25,10 +26,22 @@ public class BehaviorControlModeSubscriber implements PacketConsumer<BehaviorCon
       return packetReference.getAndSet(null).getRequestedControl();
    }
 
+   /**
+    * Sets the listener notified when a new control is requested.
+    */
+   public void setNewRequestListener(Runnable newRequestListener)
+   {
+      this.newRequestListener = newRequestListener;
+   }
+
    @Override
    public void receivedPacket(BehaviorControlModePacket object)
    {
       packetReference.set(object);
       System.out.println(getClass().getSimpleName() + " received packet");
+
+      Runnable listener = newRequestListener;
+      if (listener != null)
+         listener.run();
    }
 }
@@ -1,10 +1,14 @@
 package us.ihmc.humanoidBehaviors.dispatcher;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import us.ihmc.commonWalkingControlModules.controllers.Updatable;
 import us.ihmc.commons.Conversions;
@@ -26,19 +30,28 @@ import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
 import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
 import us.ihmc.robotics.dataStructures.variable.EnumYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
 import us.ihmc.robotics.stateMachines.conditionBasedStateMachine.StateMachineTools;
 import us.ihmc.robotics.stateMachines.conditionBasedStateMachine.StateTransitionAction;
 import us.ihmc.sensorProcessing.communication.subscribers.RobotDataReceiver;
+import us.ihmc.tools.FormattingTools;
 import us.ihmc.tools.thread.ThreadTools;
 
 /**
  * The BehaviorDispatcher is used to select the behavior to run and to execute operator's commands as pause, resume, stop, etc.
  * DO NOT add smart AI stuff in there, create and register a new behavior in {@link IHMCHumanoidBehaviorManager} instead.
- *
+ * <p>
+ * The dispatcher either polls the behaviors at a fixed rate, see {@link #start()}, or runs them in reactive mode, see
+ * {@link #startReactive(double, double)}, where a control cycle only runs when a packet is received by the running
+ * behavior, the operator sends a request, a behavior asks to be woken up or the state machine switched behavior.
+ * </p>
  */
-public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
+public class BehaviorDispatcher<E extends Enum<E>> implements Runnable, BehaviorWakeUpScheduler
 {
    private static final boolean DEBUG = true;
+   private static final long POLLING_PERIOD_IN_MILLISECONDS = 10;
+   private static final double DEFAULT_RUNNING_BEHAVIOR_PERIOD = 0.01;
+   private static final double DEFAULT_IDLE_PERIOD = 0.1;
    private final Class<E> behaviorEnum;
    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(ThreadTools.getNamedThreadFactory("BehaviorDispatcher"));
 
@@ -67,6 +80,31 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
    private E stopBehavior;
    private E currentBehavior;
 
+   private final EnumMap<E, BehaviorTimingStatistics> behaviorTimingStatistics;
+
+   private volatile boolean reactive = false;
+   private double runningBehaviorPeriod = DEFAULT_RUNNING_BEHAVIOR_PERIOD;
+   private double idlePeriod = DEFAULT_IDLE_PERIOD;
+   private final AtomicBoolean controlCycleRequested = new AtomicBoolean(false);
+   private volatile long wakeUpRequestTime = -1;
+   private ScheduledFuture<?> nextPeriodicWakeUp = null;
+   private final Runnable wakeUpTask = new Runnable()
+   {
+      @Override
+      public void run()
+      {
+         wakeUp();
+      }
+   };
+   private final Runnable reactiveControlCycle = new Runnable()
+   {
+      @Override
+      public void run()
+      {
+         runReactiveControlCycle();
+      }
+   };
+
    public BehaviorDispatcher(DoubleYoVariable yoTime, RobotDataReceiver robotDataReceiver, BehaviorControlModeSubscriber desiredBehaviorControlSubscriber,
          BehaviorTypeSubscriber<E> desiredBehaviorSubscriber, CommunicationBridge communicationBridge, YoVariableServer yoVaribleServer, Class<E> behaviourEnum,
          E stopBehavior, YoVariableRegistry parentRegistry, YoGraphicsListRegistry yoGraphicsListRegistry)
@@ -84,6 +122,7 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
       this.desiredBehaviorControlSubscriber = desiredBehaviorControlSubscriber;
 
       stateMachine = new BehaviorStateMachine<E>("behaviorState", "behaviorSwitchTime", behaviourEnum, yoTime, registry);
+      behaviorTimingStatistics = new EnumMap<>(behaviourEnum);
 
       SimpleDoNothingBehavior simpleForwardingBehavior = new SimpleDoNothingBehavior(communicationBridge);
       addBehavior(stopBehavior, simpleForwardingBehavior);
@@ -91,12 +130,22 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
 
       requestedBehavior.set(null);
 
+      communicationBridge.setQueuedPacketListener(wakeUpTask);
+      desiredBehaviorSubscriber.setNewRequestListener(wakeUpTask);
+      desiredBehaviorControlSubscriber.setNewRequestListener(wakeUpTask);
+
       parentRegistry.addChild(registry);
    }
 
    public void requestBehavior(E behaviorEnum)
    {
       requestedBehavior.set(behaviorEnum);
+      wakeUp();
+   }
+
+   public E getCurrentBehaviorType()
+   {
+      return stateMachine.getCurrentStateEnum();
    }
 
    public void addBehaviors(List<E> Es, List<AbstractBehavior> newBehaviors)
@@ -116,6 +165,10 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
 
       this.stateMachine.addState(behaviorStateToAdd);
       this.registry.addChild(behaviorToAdd.getYoVariableRegistry());
+      behaviorToAdd.setWakeUpScheduler(this);
+
+      if (!behaviorTimingStatistics.containsKey(E))
+         behaviorTimingStatistics.put(E, new BehaviorTimingStatistics(E));
 
       ArrayList<BehaviorAction<E>> allOtherBehaviorStates = new ArrayList<BehaviorAction<E>>();
 
@@ -242,9 +295,41 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
 
    @Override
    public void run()
+   {
+      runControlCycle(-1);
+   }
+
+   private void runReactiveControlCycle()
+   {
+      long wakeUpRequestTime = this.wakeUpRequestTime;
+      controlCycleRequested.set(false);
+
+      E behaviorBeforeControlCycle = stateMachine.getCurrentStateEnum();
+      runControlCycle(wakeUpRequestTime);
+      E behaviorAfterControlCycle = stateMachine.getCurrentStateEnum();
+
+      if (behaviorAfterControlCycle != behaviorBeforeControlCycle)
+      {
+         // Run the new behavior right away instead of waiting for its first packet.
+         wakeUp();
+      }
+      else if (!controlCycleRequested.get())
+      {
+         if (nextPeriodicWakeUp != null)
+            nextPeriodicWakeUp.cancel(false);
+
+         double period = behaviorAfterControlCycle == stopBehavior ? idlePeriod : runningBehaviorPeriod;
+         nextPeriodicWakeUp = schedule(wakeUpTask, period);
+      }
+   }
+
+   private void runControlCycle(long wakeUpRequestTime)
    {
       try
       {
+         long controlCycleStartTime = System.nanoTime();
+         BehaviorTimingStatistics timingStatistics = behaviorTimingStatistics.get(stateMachine.getCurrentStateEnum());
+
          if (!hasBeenInitialized.getBooleanValue())
          {
             initialize();
@@ -253,6 +338,9 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
 
          doControl();
 
+         if (timingStatistics != null)
+            timingStatistics.update(wakeUpRequestTime, controlCycleStartTime, System.nanoTime());
+
          if (yoVaribleServer != null)
          {
             yoVaribleServer.update(Conversions.secondsToNanoseconds(yoTime.getDoubleValue()));
@@ -288,16 +376,89 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
       }
    }
 
+   /**
+    * Starts polling the behaviors every 10 milliseconds.
+    */
    public void start()
    {
       // do start
-      scheduler.scheduleAtFixedRate(this, 0, 10, TimeUnit.MILLISECONDS);
+      scheduler.scheduleAtFixedRate(this, 0, POLLING_PERIOD_IN_MILLISECONDS, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Starts running the behaviors in reactive mode with the default periods.
+    */
+   public void startReactive()
+   {
+      startReactive(DEFAULT_RUNNING_BEHAVIOR_PERIOD, DEFAULT_IDLE_PERIOD);
+   }
+
+   /**
+    * Starts running the behaviors in reactive mode: a control cycle runs when a packet is put in a queue of the running
+    * behavior, when the operator requests a behavior or a control mode, when a behavior asks for it with
+    * {@link AbstractBehavior#requestWakeUpIn(double)} and right after a change of behavior. The requests made while a
+    * control cycle is pending are merged.
+    * <p>
+    * When none of these events happen the control cycle still runs periodically, for the behaviors that check timers and
+    * for the {@link Updatable}s and the {@link YoVariableServer}.
+    * </p>
+    *
+    * @param runningBehaviorPeriod the maximum time in seconds between two control cycles when a behavior is running.
+    * @param idlePeriod the maximum time in seconds between two control cycles when no behavior is running.
+    */
+   public void startReactive(double runningBehaviorPeriod, double idlePeriod)
+   {
+      this.runningBehaviorPeriod = runningBehaviorPeriod;
+      this.idlePeriod = idlePeriod;
+      reactive = true;
+      wakeUp();
+   }
+
+   @Override
+   public void wakeUp()
+   {
+      if (!reactive)
+         return;
+
+      if (controlCycleRequested.compareAndSet(false, true))
+      {
+         wakeUpRequestTime = System.nanoTime();
+
+         try
+         {
+            scheduler.execute(reactiveControlCycle);
+         }
+         catch (RejectedExecutionException e)
+         {
+            // The dispatcher has been disposed.
+         }
+      }
+   }
+
+   @Override
+   public void wakeUpIn(double delayInSeconds)
+   {
+      if (reactive)
+         schedule(wakeUpTask, delayInSeconds);
+   }
+
+   private ScheduledFuture<?> schedule(Runnable task, double delayInSeconds)
+   {
+      try
+      {
+         return scheduler.schedule(task, Conversions.secondsToNanoseconds(delayInSeconds), TimeUnit.NANOSECONDS);
+      }
+      catch (RejectedExecutionException e)
+      {
+         return null;
+      }
    }
 
    public void closeAndDispose()
    {
 
       // do stop
+      reactive = false;
       scheduler.shutdown();
       try
       {
@@ -308,4 +469,46 @@ public class BehaviorDispatcher<E extends Enum<E>> implements Runnable
          throw new RuntimeException("Cannot shutdown BehaviorDispatcher", e);
       }
    }
+
+   /**
+    * Latency and duration of the control cycles run while a behavior is the current behavior, visible in the
+    * {@link YoVariableRegistry} of the dispatcher. The wake-up latency is the time between the first event requesting a
+    * control cycle and the start of the cycle, it is only measured in reactive mode.
+    */
+   private class BehaviorTimingStatistics
+   {
+      private final LongYoVariable numberOfControlCycles;
+      private final DoubleYoVariable wakeUpLatency;
+      private final DoubleYoVariable averageWakeUpLatency;
+      private final DoubleYoVariable maximumWakeUpLatency;
+      private final DoubleYoVariable controlCycleDuration;
+      private final DoubleYoVariable averageControlCycleDuration;
+
+      public BehaviorTimingStatistics(E behavior)
+      {
+         String prefix = FormattingTools.underscoredToCamelCase(behavior.name(), false);
+         numberOfControlCycles = new LongYoVariable(prefix + "NumberOfControlCycles", registry);
+         wakeUpLatency = new DoubleYoVariable(prefix + "WakeUpLatency", registry);
+         averageWakeUpLatency = new DoubleYoVariable(prefix + "AverageWakeUpLatency", registry);
+         maximumWakeUpLatency = new DoubleYoVariable(prefix + "MaximumWakeUpLatency", registry);
+         controlCycleDuration = new DoubleYoVariable(prefix + "ControlCycleDuration", registry);
+         averageControlCycleDuration = new DoubleYoVariable(prefix + "AverageControlCycleDuration", registry);
+      }
+
+      public void update(long wakeUpRequestTime, long controlCycleStartTime, long controlCycleEndTime)
+      {
+         numberOfControlCycles.increment();
+         long n = numberOfControlCycles.getLongValue();
+
+         controlCycleDuration.set(Conversions.nanosecondsToSeconds(controlCycleEndTime - controlCycleStartTime));
+         averageControlCycleDuration.add((controlCycleDuration.getDoubleValue() - averageControlCycleDuration.getDoubleValue()) / n);
+
+         if (wakeUpRequestTime < 0)
+            return;
+
+         wakeUpLatency.set(Conversions.nanosecondsToSeconds(controlCycleStartTime - wakeUpRequestTime));
+         averageWakeUpLatency.add((wakeUpLatency.getDoubleValue() - averageWakeUpLatency.getDoubleValue()) / n);
+         maximumWakeUpLatency.set(Math.max(maximumWakeUpLatency.getDoubleValue(), wakeUpLatency.getDoubleValue()));
+      }
+   }
 }
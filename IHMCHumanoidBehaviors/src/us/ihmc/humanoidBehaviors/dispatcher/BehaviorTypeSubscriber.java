@@ -4,4 +4,12 @@ public interface BehaviorTypeSubscriber<E extends Enum<E>>
 {
    boolean checkForNewBehaviorRequested();
    E getRequestedBehavior();
+
+   /**
+    * Sets the listener notified when a new behavior is requested. Ignored by default, in which case the request is only
+    * seen at the next control cycle of the {@link BehaviorDispatcher}.
+    */
+   default void setNewRequestListener(Runnable newRequestListener)
+   {
+   }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package us.ihmc.humanoidBehaviors.dispatcher;
+
+/**
+ * Wakes up the {@link BehaviorDispatcher} when it runs the behaviors in reactive mode, see
+ * {@link BehaviorDispatcher#startReactive(double, double)}. Both methods can be called from any thread and do nothing
+ * when the dispatcher polls the behaviors at a fixed rate.
+ */
+public interface BehaviorWakeUpScheduler
+{
+   /**
+    * Runs a control cycle of the dispatcher as soon as possible. Several requests made before the cycle runs result in a
+    * single cycle.
+    */
+   public void wakeUp();
+
+   /**
+    * Runs a control cycle of the dispatcher after the given delay.
+    */
+   public void wakeUpIn(double delayInSeconds);
+}
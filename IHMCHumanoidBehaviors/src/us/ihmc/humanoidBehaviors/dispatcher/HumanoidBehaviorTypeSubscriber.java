@@ -9,6 +9,7 @@ import us.ihmc.humanoidRobotics.communication.packets.behaviors.HumanoidBehavior
 public class HumanoidBehaviorTypeSubscriber implements PacketConsumer<HumanoidBehaviorTypePacket>, BehaviorTypeSubscriber<HumanoidBehaviorType>
 {
    private final AtomicReference<HumanoidBehaviorTypePacket> packetReference = new AtomicReference<HumanoidBehaviorTypePacket>(null);
+   private volatile Runnable newRequestListener = null;
 
    public HumanoidBehaviorTypeSubscriber()
    {
@@ -33,10 +34,20 @@ public class HumanoidBehaviorTypeSubscriber implements PacketConsumer<HumanoidBe
       return packetReference.getAndSet(null).getBehaviorType();
    }
 
+   @Override
+   public void setNewRequestListener(Runnable newRequestListener)
+   {
+      this.newRequestListener = newRequestListener;
+   }
+
    @Override
    public void receivedPacket(HumanoidBehaviorTypePacket object)
    {
       packetReference.set(object);
       System.out.println(getClass().getSimpleName() + " received packet");
+
+      Runnable listener = newRequestListener;
+      if (listener != null)
+         listener.run();
    }
 }
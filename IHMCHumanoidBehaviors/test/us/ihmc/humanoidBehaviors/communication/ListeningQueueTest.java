@@ -0,0 +1,136 @@
+package us.ihmc.humanoidBehaviors.communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class ListeningQueueTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testConcurrentListeningQueueDropsOldestPackets()
+   {
+      ConcurrentListeningQueue<Integer> queue = new ConcurrentListeningQueue<>(3);
+      assertFalse(queue.isNewPacketAvailable());
+      assertNull(queue.poll());
+
+      for (int i = 0; i < 5; i++)
+         queue.put(i);
+
+      assertEquals(5, queue.getNumberOfReceivedPackets());
+      assertEquals(2, queue.getNumberOfDroppedPackets());
+      assertEquals(2, (int) queue.poll());
+      assertEquals(3, (int) queue.poll());
+
+      queue.put(5);
+      queue.put(6);
+      assertEquals(6, (int) queue.getLatestPacket());
+      assertFalse(queue.isNewPacketAvailable());
+      // Without new packet, the last packet taken is returned again.
+      assertEquals(6, (int) queue.getLatestPacket());
+
+      for (int i = 0; i < 10; i++)
+         queue.put(i);
+      queue.setMaximumSizeToBuffer(2);
+      assertEquals(8, (int) queue.poll());
+      assertEquals(9, (int) queue.poll());
+      assertNull(queue.poll());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testLatestValueListeningQueue()
+   {
+      LatestValueListeningQueue<Integer> queue = new LatestValueListeningQueue<>();
+
+      queue.put(0);
+      queue.put(1);
+      assertTrue(queue.isNewPacketAvailable());
+      assertEquals(1, queue.getNumberOfDroppedPackets());
+      assertEquals(1, (int) queue.poll());
+      assertFalse(queue.isNewPacketAvailable());
+
+      queue.put(2);
+      queue.clear();
+      assertFalse(queue.isNewPacketAvailable());
+      assertEquals(1, (int) queue.getLatestPacket());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testCoalescingListeningQueue()
+   {
+      CoalescingListeningQueue<Integer, Integer> queue = new CoalescingListeningQueue<>(2, new Function<Integer, Integer>()
+      {
+         @Override
+         public Integer apply(Integer packet)
+         {
+            return packet % 10;
+         }
+      });
+
+      queue.put(1);
+      queue.put(2);
+      queue.put(11);
+      assertEquals(1, queue.getNumberOfDroppedPackets());
+      assertEquals(11, (int) queue.poll());
+      assertEquals(2, (int) queue.poll());
+      assertNull(queue.poll());
+
+      // A third key drops the oldest packet.
+      queue.put(1);
+      queue.put(2);
+      queue.put(3);
+      assertEquals(2, queue.getNumberOfDroppedPackets());
+      assertEquals(2, (int) queue.poll());
+
+      queue.put(13);
+      assertEquals(13, (int) queue.getLatestPacket());
+      assertFalse(queue.isNewPacketAvailable());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testConcurrentProducers() throws InterruptedException
+   {
+      final ConcurrentListeningQueue<Integer> queue = new ConcurrentListeningQueue<>(16);
+      final int numberOfPacketsPerProducer = 100000;
+      Thread[] producers = new Thread[4];
+
+      for (int i = 0; i < producers.length; i++)
+      {
+         producers[i] = new Thread(new Runnable()
+         {
+            @Override
+            public void run()
+            {
+               for (int j = 0; j < numberOfPacketsPerProducer; j++)
+                  queue.put(j);
+            }
+         });
+         producers[i].start();
+      }
+
+      long numberOfTakenPackets = 0;
+      boolean producersAlive = true;
+      while (producersAlive || queue.isNewPacketAvailable())
+      {
+         producersAlive = false;
+         for (Thread producer : producers)
+            producersAlive |= producer.isAlive();
+
+         if (queue.poll() != null)
+            numberOfTakenPackets++;
+      }
+
+      assertEquals(producers.length * numberOfPacketsPerProducer, queue.getNumberOfReceivedPackets());
+      assertEquals(queue.getNumberOfReceivedPackets(), numberOfTakenPackets + queue.getNumberOfDroppedPackets());
+   }
+}
@@ -0,0 +1,80 @@
+package us.ihmc.humanoidRobotics.communication.packets.heightQuadTree;
+
+import java.util.Arrays;
+
+import us.ihmc.communication.packets.StatusPacket;
+
+/**
+ * Compact version of the {@link HeightQuadTreeMessage} that only holds the leaves that changed since
+ * {@link #baseRevision}, or all the leaves for a full snapshot.
+ * <p>
+ * Each leaf is identified by a key packing its depth in the tree and its integer coordinates at that depth, and its
+ * height is quantized to {@link #heightResolution} around {@link #heightOffset}. A leaf that was removed has the height
+ * {@link #REMOVED_CELL_HEIGHT}.
+ * </p>
+ */
+public class HeightQuadTreeDeltaMessage extends StatusPacket<HeightQuadTreeDeltaMessage>
+{
+   public static final long FULL_SNAPSHOT_BASE_REVISION = -1L;
+   public static final short REMOVED_CELL_HEIGHT = Short.MIN_VALUE;
+
+   public long revision;
+   public long baseRevision = FULL_SNAPSHOT_BASE_REVISION;
+   public float defaultHeight = Float.NaN;
+   public float resolution = Float.NaN;
+   public float sizeX = Float.NaN;
+   public float sizeY = Float.NaN;
+   public float heightOffset;
+   public float heightResolution;
+   public long[] cellKeys;
+   public short[] cellHeights;
+
+   public HeightQuadTreeDeltaMessage()
+   {
+   }
+
+   public boolean isFullSnapshot()
+   {
+      return baseRevision == FULL_SNAPSHOT_BASE_REVISION;
+   }
+
+   public int getNumberOfCells()
+   {
+      return cellKeys == null ? 0 : cellKeys.length;
+   }
+
+   @Override
+   public void set(HeightQuadTreeDeltaMessage other)
+   {
+      revision = other.revision;
+      baseRevision = other.baseRevision;
+      defaultHeight = other.defaultHeight;
+      resolution = other.resolution;
+      sizeX = other.sizeX;
+      sizeY = other.sizeY;
+      heightOffset = other.heightOffset;
+      heightResolution = other.heightResolution;
+      cellKeys = other.cellKeys == null ? null : Arrays.copyOf(other.cellKeys, other.cellKeys.length);
+      cellHeights = other.cellHeights == null ? null : Arrays.copyOf(other.cellHeights, other.cellHeights.length);
+   }
+
+   @Override
+   public boolean epsilonEquals(HeightQuadTreeDeltaMessage other, double epsilon)
+   {
+      if (revision != other.revision)
+         return false;
+      if (baseRevision != other.baseRevision)
+         return false;
+      if (Float.compare(defaultHeight, other.defaultHeight) != 0)
+         return false;
+      if (Float.compare(resolution, other.resolution) != 0)
+         return false;
+      if (Float.compare(heightOffset, other.heightOffset) != 0)
+         return false;
+      if (Float.compare(heightResolution, other.heightResolution) != 0)
+         return false;
+      if (!Arrays.equals(cellKeys, other.cellKeys))
+         return false;
+      return Arrays.equals(cellHeights, other.cellHeights);
+   }
+}
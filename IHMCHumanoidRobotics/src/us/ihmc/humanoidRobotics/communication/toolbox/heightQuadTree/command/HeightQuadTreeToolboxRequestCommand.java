@@ -6,12 +6,14 @@ public class HeightQuadTreeToolboxRequestCommand implements Command<HeightQuadTr
 {
    private boolean requestClearQuadTree;
    private boolean requestQuadTreeUpdate;
+   private long lastReceivedRevision = -1L;
 
    @Override
    public void clear()
    {
       requestClearQuadTree = false;
       requestQuadTreeUpdate = false;
+      lastReceivedRevision = -1L;
    }
 
    @Override
@@ -19,6 +21,7 @@ public class HeightQuadTreeToolboxRequestCommand implements Command<HeightQuadTr
    {
       requestClearQuadTree = other.requestClearQuadTree;
       requestQuadTreeUpdate = other.requestQuadTreeUpdate;
+      lastReceivedRevision = other.lastReceivedRevision;
    }
 
    @Override
@@ -27,6 +30,7 @@ public class HeightQuadTreeToolboxRequestCommand implements Command<HeightQuadTr
       
       requestClearQuadTree = message.requestClearQuadTree;
       requestQuadTreeUpdate = message.requestQuadTreeUpdate;
+      lastReceivedRevision = message.lastReceivedRevision;
    }
 
    public boolean isClearQuadTreeRequested()
@@ -39,6 +43,11 @@ public class HeightQuadTreeToolboxRequestCommand implements Command<HeightQuadTr
       return requestQuadTreeUpdate;
    }
 
+   public long getLastReceivedRevision()
+   {
+      return lastReceivedRevision;
+   }
+
    @Override
    public Class<HeightQuadTreeToolboxRequestMessage> getMessageClass()
    {
@@ -7,6 +7,13 @@ public class HeightQuadTreeToolboxRequestMessage extends TrackablePacket<HeightQ
 {
    public boolean requestClearQuadTree;
    public boolean requestQuadTreeUpdate;
+   /**
+    * Revision of the last quad tree received by the requester, the toolbox only sends what changed since. Negative to
+    * request a full snapshot, which only holds the area around the robot. The reply goes to all the requesters and is based
+    * on the oldest of their revisions; a requester that gets a delta based on a revision it does not have has to request
+    * again with its own revision.
+    */
+   public long lastReceivedRevision = -1L;
 
    public HeightQuadTreeToolboxRequestMessage()
    {
@@ -23,11 +30,17 @@ public class HeightQuadTreeToolboxRequestMessage extends TrackablePacket<HeightQ
    }
 
    public static HeightQuadTreeToolboxRequestMessage requestQuadTreeUpdate(PacketDestination destination)
+   {
+      return requestQuadTreeUpdate(destination, -1L);
+   }
+
+   public static HeightQuadTreeToolboxRequestMessage requestQuadTreeUpdate(PacketDestination destination, long lastReceivedRevision)
    {
       HeightQuadTreeToolboxRequestMessage requestMessage = new HeightQuadTreeToolboxRequestMessage();
       requestMessage.setDestination(destination);
       requestMessage.requestClearQuadTree = false;
       requestMessage.requestQuadTreeUpdate = true;
+      requestMessage.lastReceivedRevision = lastReceivedRevision;
       return requestMessage;
    }
 
@@ -41,6 +54,11 @@ public class HeightQuadTreeToolboxRequestMessage extends TrackablePacket<HeightQ
       return requestQuadTreeUpdate;
    }
 
+   public long getLastReceivedRevision()
+   {
+      return lastReceivedRevision;
+   }
+
    @Override
    public boolean epsilonEquals(HeightQuadTreeToolboxRequestMessage other, double epsilon)
    {
@@ -48,6 +66,8 @@ public class HeightQuadTreeToolboxRequestMessage extends TrackablePacket<HeightQ
          return false;
       if (requestQuadTreeUpdate != other.requestQuadTreeUpdate)
          return false;
+      if (lastReceivedRevision != other.lastReceivedRevision)
+         return false;
       return true;
    }
 
@@ -82,6 +82,7 @@ import us.ihmc.humanoidRobotics.communication.packets.dataobjects.HighLevelState
 import us.ihmc.humanoidRobotics.communication.packets.driving.DrivingStatePacket;
 import us.ihmc.humanoidRobotics.communication.packets.driving.DrivingTrajectoryPacket;
 import us.ihmc.humanoidRobotics.communication.packets.driving.VehiclePosePacket;
+import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeDeltaMessage;
 import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeMessage;
 import us.ihmc.humanoidRobotics.communication.packets.heightQuadTree.HeightQuadTreeNodeMessage;
 import us.ihmc.humanoidRobotics.communication.packets.manipulation.ArmDesiredAccelerationsMessage;
@@ -491,6 +492,8 @@ public class IHMCCommunicationKryoNetClassList extends NetClassList
       registerPacketClass(HeightQuadTreeMessage.class);
       registerPacketField(HeightQuadTreeNodeMessage.class);
       registerPacketField(HeightQuadTreeNodeMessage[].class);
+      registerPacketClass(HeightQuadTreeDeltaMessage.class);
+      registerPacketField(short[].class);
 
       // Lidar messages
       registerPacketClass(LidarScanMessage.class);
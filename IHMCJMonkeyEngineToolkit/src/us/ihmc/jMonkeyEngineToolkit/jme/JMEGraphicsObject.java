@@ -6,6 +6,8 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.jme3.app.Application;
 import com.jme3.asset.AssetManager;
@@ -425,22 +427,50 @@ public class JMEGraphicsObject extends Graphics3DInstructionExecutor
 
       addAppearanceChangedListener(graphics3dObjectAddMeshData, geometry);
 
+      // Only the latest mesh is uploaded, the changes made while an upload is pending are coalesced into it.
+      final AtomicReference<MeshDataHolder> latestMesh = new AtomicReference<>();
+      final AtomicBoolean meshUploadPending = new AtomicBoolean(false);
+
       graphics3dObjectAddMeshData.setMeshChangedListener(new MeshChangedListener()
       {
 
-         public void meshChanged(final MeshDataHolder newMesh)
+         public void meshChanged(MeshDataHolder changedMesh)
          {
             checkIfNotImmutable();
 
+            latestMesh.set(changedMesh);
+            if (meshUploadPending.getAndSet(true))
+               return;
+
             application.enqueue(new Callable<Object>()
             {
                public Object call() throws Exception
                {
+                  // Cleared before reading the mesh, so a change made from now on enqueues a new upload.
+                  meshUploadPending.set(false);
+                  MeshDataHolder newMesh = latestMesh.get();
+
+                  // Meshes that keep their size, as the merged point cloud meshes, are only uploaded again.
+                  if (meshHolder.getQuantity() == 1 && meshHolder.getChild(0) instanceof Geometry)
+                  {
+                     Geometry currentGeometry = (Geometry) meshHolder.getChild(0);
+
+                     if (JMEMeshDataInterpreter.updateMeshData(currentGeometry.getMesh(), newMesh))
+                     {
+                        currentGeometry.updateModelBound();
+                        return null;
+                     }
+                  }
+
                   meshHolder.detachAllChildren();
                   if (newMesh == null)
                      return null;
 
-                  Mesh mesh = JMEMeshDataInterpreter.interpretMeshData(newMesh);
+                  Mesh mesh;
+                  synchronized (newMesh)
+                  {
+                     mesh = JMEMeshDataInterpreter.interpretMeshData(newMesh);
+                  }
                   Geometry geometry = new Geometry("MeshData", mesh);
                   setGeometryMaterialBasedOnAppearance(geometry, graphics3dObjectAddMeshData.getAppearance());
                   meshHolder.attachChild(geometry);
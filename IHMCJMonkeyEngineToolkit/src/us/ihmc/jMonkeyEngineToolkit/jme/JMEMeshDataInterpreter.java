@@ -1,12 +1,19 @@
 package us.ihmc.jMonkeyEngineToolkit.jme;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
 import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
 import com.jme3.scene.VertexBuffer.Type;
 import com.jme3.util.BufferUtils;
 
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
 import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.TexCoord2f;
 import us.ihmc.jMonkeyEngineToolkit.jme.util.JMEDataTypeUtils;
 
 public class JMEMeshDataInterpreter
@@ -35,4 +42,83 @@ public class JMEMeshDataInterpreter
 
       return mesh;
    }
+
+   /**
+    * Copies the data of {@code meshData} into the existing buffers of {@code mesh}, which then
+    * only has to be uploaded again to the GPU. No buffer is allocated.
+    * <p>
+    * This is only possible when {@code mesh} has the same number of vertices and triangles as
+    * {@code meshData} and the same kind of texture coordinates, for instance when {@code mesh} was
+    * created from {@code meshData} and only the vertices of {@code meshData} have changed since.
+    * </p>
+    * 
+    * @param mesh the mesh to update. Modified.
+    * @param meshData the new data for the mesh. Not modified. Its lock is held during the copy.
+    * @return {@code true} if the mesh was updated, {@code false} if it has to be recreated with
+    *         {@link #interpretMeshData(MeshDataHolder)} instead.
+    */
+   public static boolean updateMeshData(Mesh mesh, MeshDataHolder meshData)
+   {
+      if (meshData == null)
+         return false;
+
+      // The data is copied while holding the lock of meshData so it cannot be rewritten in the middle of the copy.
+      synchronized (meshData)
+      {
+         Point3D32[] vertices = meshData.getVertices();
+         TexCoord2f[] textureCoords = meshData.getTexturePoints();
+         Vector3D32[] normals = meshData.getVertexNormals();
+         int[] triangleIndices = meshData.getTriangleIndices();
+
+         VertexBuffer positionBuffer = mesh.getBuffer(Type.Position);
+         VertexBuffer textureCoordBuffer = mesh.getBuffer(Type.TexCoord);
+         VertexBuffer normalBuffer = mesh.getBuffer(Type.Normal);
+         VertexBuffer indexBuffer = mesh.getBuffer(Type.Index);
+
+         if (positionBuffer == null || normalBuffer == null || indexBuffer == null)
+            return false;
+         if (positionBuffer.getData().capacity() != 3 * vertices.length || normalBuffer.getData().capacity() != 3 * normals.length)
+            return false;
+         if (indexBuffer.getData().capacity() != triangleIndices.length)
+            return false;
+         if ((textureCoords == null) != (textureCoordBuffer == null))
+            return false;
+         if (textureCoords != null && textureCoordBuffer.getData().capacity() != 2 * textureCoords.length)
+            return false;
+
+         FloatBuffer positions = (FloatBuffer) positionBuffer.getData();
+         positions.clear();
+         for (Point3D32 vertex : vertices)
+            positions.put(vertex.getX32()).put(vertex.getY32()).put(vertex.getZ32());
+         positions.clear();
+         positionBuffer.updateData(positions);
+
+         if (textureCoords != null)
+         {
+            FloatBuffer texture = (FloatBuffer) textureCoordBuffer.getData();
+            texture.clear();
+            for (TexCoord2f textureCoord : textureCoords)
+               texture.put(textureCoord.x).put(textureCoord.y);
+            texture.clear();
+            textureCoordBuffer.updateData(texture);
+         }
+
+         FloatBuffer normalData = (FloatBuffer) normalBuffer.getData();
+         normalData.clear();
+         for (Vector3D32 normal : normals)
+            normalData.put(normal.getX32()).put(normal.getY32()).put(normal.getZ32());
+         normalData.clear();
+         normalBuffer.updateData(normalData);
+
+         IntBuffer indices = (IntBuffer) indexBuffer.getData();
+         indices.clear();
+         indices.put(triangleIndices);
+         indices.clear();
+         indexBuffer.updateData(indices);
+
+         mesh.updateBound();
+      }
+
+      return true;
+   }
 }
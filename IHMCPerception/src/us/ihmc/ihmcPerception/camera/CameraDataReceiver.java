@@ -3,6 +3,7 @@ package us.ihmc.ihmcPerception.camera;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import us.ihmc.euclid.tuple3D.Point3D;
@@ -36,6 +37,7 @@ public class CameraDataReceiver extends Thread
    private final PPSTimestampOffsetProvider ppsTimestampOffsetProvider;
 
    private final LinkedBlockingQueue<CameraData> dataQueue = new LinkedBlockingQueue<>(2);
+   private final AtomicLong numberOfDroppedFrames = new AtomicLong();
    private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
    private volatile boolean running = true;
 
@@ -74,45 +76,50 @@ public class CameraDataReceiver extends Thread
             if (data != null)
             {
                readWriteLock.writeLock().lock();
-
-               if (DEBUG)
+               try
                {
-                  System.out.println("Updating full robot model");
-               }
-               long robotTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(data.timestamp);
+                  if (DEBUG)
+                  {
+                     System.out.println("Updating full robot model");
+                  }
+                  long robotTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(data.timestamp);
 
-               if(useTimestamps)
-               {
-                  if (robotConfigurationDataBuffer.updateFullRobotModel(false, robotTimestamp, fullRobotModel, null) < 0)
+                  if(useTimestamps)
                   {
-                     if(DEBUG)
+                     if (robotConfigurationDataBuffer.updateFullRobotModel(false, robotTimestamp, fullRobotModel, null) < 0)
                      {
-                        System.out.println("Cannot update full robot model, skipping frame");
+                        if(DEBUG)
+                        {
+                           System.out.println("Cannot update full robot model, skipping frame");
+                        }
+
+                        continue;
                      }
+                  }
+                  else
+                  {
+                     robotConfigurationDataBuffer.updateFullRobotModelWithNewestData(fullRobotModel, null);
+                  }
+                  cameraFrame.update();
+                  cameraFrame.getTransformToWorldFrame().get(cameraOrientation, cameraPosition);
 
-                     continue;
+                  if (DEBUG)
+                  {
+                     System.out.println(cameraFrame.getTransformToParent());
+                     System.out.println(cameraPosition);
+                     System.out.println(cameraOrientation);
+                  }
+                  for (int i = 0; i < stereoListeners.size(); i++)
+                  {
+                     stereoListeners.get(i).newImageAvailable(data, cameraFrame.getTransformToWorldFrame());
                   }
-               }
-               else
-               {
-                  robotConfigurationDataBuffer.updateFullRobotModelWithNewestData(fullRobotModel, null);
-               }
-               cameraFrame.update();
-               cameraFrame.getTransformToWorldFrame().get(cameraOrientation, cameraPosition);
 
-               if (DEBUG)
-               {
-                  System.out.println(cameraFrame.getTransformToParent());
-                  System.out.println(cameraPosition);
-                  System.out.println(cameraOrientation);
+                  compressedVideoDataServer.updateImage(data.videoSource, data.image, robotTimestamp, cameraPosition, cameraOrientation, data.intrinsicParameters);
                }
-               for (int i = 0; i < stereoListeners.size(); i++)
+               finally
                {
-                  stereoListeners.get(i).newImageAvailable(data, cameraFrame.getTransformToWorldFrame());
+                  readWriteLock.writeLock().unlock();
                }
-
-               compressedVideoDataServer.updateImage(data.videoSource, data.image, robotTimestamp, cameraPosition, cameraOrientation, data.intrinsicParameters);
-               readWriteLock.writeLock().unlock();
             }
          }
          catch (InterruptedException e)
@@ -129,7 +136,22 @@ public class CameraDataReceiver extends Thread
 
    public void updateImage(VideoSource videoSource, BufferedImage bufferedImage, long timeStamp, IntrinsicParameters intrinsicParameters)
    {
-      dataQueue.offer(new CameraData(videoSource, bufferedImage, timeStamp, intrinsicParameters));
+      CameraData cameraData = new CameraData(videoSource, bufferedImage, timeStamp, intrinsicParameters);
+
+      // Drop the oldest image rather than the newest one when the receiver is falling behind.
+      while (!dataQueue.offer(cameraData))
+      {
+         if (dataQueue.poll() != null)
+            numberOfDroppedFrames.incrementAndGet();
+      }
+   }
+
+   /**
+    * @return the number of images dropped because the receiver thread could not keep up.
+    */
+   public long getNumberOfDroppedFrames()
+   {
+      return numberOfDroppedFrames.get();
    }
 
    public void registerCameraListener(DRCStereoListener drcStereoListener)
@@ -19,7 +19,6 @@ import us.ihmc.euclid.tuple4D.Quaternion;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.DepthDataStateCommand;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.LidarPosePacket;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.PointCloudWorldPacket;
-import us.ihmc.robotics.dataStructures.TimestampedPoint;
 import us.ihmc.tools.thread.ThreadTools;
 
 public class PointCloudWorldPacketGenerator implements Runnable
@@ -77,19 +76,14 @@ public class PointCloudWorldPacketGenerator implements Runnable
 
       readLock.lock();
       ArrayList<Point3D> groundPoints = new ArrayList<>();
-      ArrayList<TimestampedPoint> nearScanTimestampedPoints = depthDataFilter.getNearScan().getPointsCopy();
+      float[] nearScanPoints = depthDataFilter.getNearScan().getPointsXYZ();
       packet.defaultGroundHeight = (float) depthDataFilter.getQuadTree().getDefaultHeightWhenNoPoints();
       depthDataFilter.getQuadTree().getCellAverageStoredPoints(groundPoints);
       readLock.unlock();
 
       packet.setGroundQuadTreeSupport(groundPoints.toArray(new Point3D[groundPoints.size()]));
 
-      ArrayList<Point3D> nearScanPoints = new ArrayList<>();
-      for (TimestampedPoint point : nearScanTimestampedPoints)
-      {
-         nearScanPoints.add(new Point3D(point.getX(), point.getY(), point.getZ()));
-      }
-      packet.setDecayingWorldScan(nearScanPoints.toArray(new Point3D[nearScanPoints.size()]));
+      packet.decayingWorldScan = nearScanPoints;
       packet.timestamp = System.nanoTime();
       return packet;
    }
@@ -4,8 +4,7 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
 
 import us.ihmc.quadrupedRobotics.planning.ContactState;
-import us.ihmc.convexOptimization.quadraticProgram.ConstrainedQPSolver;
-import us.ihmc.convexOptimization.quadraticProgram.QuadProgSolver;
+import us.ihmc.convexOptimization.quadraticProgram.WarmStartActiveSetQPSolver;
 import us.ihmc.quadrupedRobotics.estimator.referenceFrames.QuadrupedReferenceFrames;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.EnumYoVariable;
@@ -23,7 +22,8 @@ public class QuadrupedContactForceOptimization
    private final ReferenceFrame comFrame;
    private final QuadrantDependentList<ReferenceFrame> soleFrame;
    private final ReferenceFrame worldFrame;
-   private static final ConstrainedQPSolver qpSolver = new QuadProgSolver();
+   private final WarmStartActiveSetQPSolver qpSolver = new WarmStartActiveSetQPSolver();
+   private int qpContactStateCode = -1;
 
    private final FrameVector comTorqueCommand;
    private final FrameVector comTorqueSolution;
@@ -463,10 +463,22 @@ public class QuadrupedContactForceOptimization
       DenseMatrix64F bin = qpInequalityVector;
       DenseMatrix64F Ain = qpInequalityMatrix;
 
+      // the active set of the previous solve is only a good guess if the same feet are in contact
+      int contactStateCode = 0;
+      for (RobotQuadrant robotQuadrant : RobotQuadrant.values)
+      {
+         if (contactState.get(robotQuadrant) == ContactState.IN_CONTACT)
+         {
+            contactStateCode |= 1 << robotQuadrant.ordinal();
+         }
+      }
+      boolean contactStateChanged = contactStateCode != qpContactStateCode;
+      qpContactStateCode = contactStateCode;
+
       // solve constrained quadratic program
       try
       {
-         qpSolver.solve(A, b, Aeq, beq, Ain, bin, u, false);
+         qpSolver.solve(A, b, Aeq, beq, Ain, bin, u, contactStateChanged);
       }
       catch (NoConvergenceException e)
       {
@@ -3,8 +3,8 @@ package us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl;
 import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
 
-import us.ihmc.convexOptimization.quadraticProgram.ConstrainedQPSolver;
-import us.ihmc.convexOptimization.quadraticProgram.QuadProgSolver;
+import us.ihmc.convexOptimization.quadraticProgram.SimpleDiagonalActiveSetQPSolver;
+import us.ihmc.convexOptimization.quadraticProgram.WarmStartActiveSetQPSolver;
 import us.ihmc.graphicsDescription.appearance.YoAppearance;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicPosition;
 import us.ihmc.graphicsDescription.yoGraphics.YoGraphicsListRegistry;
@@ -34,27 +34,24 @@ public class QuadrupedDcmBasedMpcOptimizationWithLaneChange implements Quadruped
    private final QuadrupedTimedContactSequence timedContactSequence;
    private final QuadrupedPiecewiseConstantCopTrajectory piecewiseConstantCopTrajectory;
 
-   private final ConstrainedQPSolver qpSolver = new QuadProgSolver();
+   private final WarmStartActiveSetQPSolver qpSolver = new WarmStartActiveSetQPSolver(new SimpleDiagonalActiveSetQPSolver());
    private final DenseMatrix64F qpSolutionVector = new DenseMatrix64F(6, 1);
-   private final DenseMatrix64F qpCostVector = new DenseMatrix64F(100, 1);
-   private final DenseMatrix64F qpCostMatrix = new DenseMatrix64F(100, 100);
-   private final DenseMatrix64F qpEqualityVector = new DenseMatrix64F(100, 1);
-   private final DenseMatrix64F qpEqualityMatrix = new DenseMatrix64F(100, 100);
-   private final DenseMatrix64F qpInequalityVector = new DenseMatrix64F(100, 1);
-   private final DenseMatrix64F qpInequalityMatrix = new DenseMatrix64F(100, 100);
-
-   private final DenseMatrix64F x0 = new DenseMatrix64F(100, 1);
-   private final DenseMatrix64F y0 = new DenseMatrix64F(2, 1);
-   private final DenseMatrix64F B = new DenseMatrix64F(100, 6);
-   private final DenseMatrix64F C = new DenseMatrix64F(2, 100);
-   private final DenseMatrix64F S = new DenseMatrix64F(2, 100);
-   private final DenseMatrix64F CmS = new DenseMatrix64F(2, 100);
+   private final DenseMatrix64F qpCostVector = new DenseMatrix64F(6, 1);
+   private final DenseMatrix64F qpCostMatrix = new DenseMatrix64F(6, 6);
+   private final DenseMatrix64F qpEqualityVector = new DenseMatrix64F(3, 1);
+   private final DenseMatrix64F qpEqualityMatrix = new DenseMatrix64F(3, 6);
+   private final DenseMatrix64F qpInequalityVector = new DenseMatrix64F(4, 1);
+   private final DenseMatrix64F qpInequalityMatrix = new DenseMatrix64F(4, 6);
+
    private final DenseMatrix64F CmSB = new DenseMatrix64F(2, 6);
    private final DenseMatrix64F CmSx0py0 = new DenseMatrix64F(2, 1);
 
+   private final QuadrupedMpcFinalDcmMap finalDcmMap;
+
    private int numberOfContacts = 0;
    private int numberOfIntervals = 0;
    private int numberOfPreviewSteps = 0;
+   private int contactStateCode = -1;
 
    private YoFramePoint yoCmpPositionSetpoint = new YoFramePoint("cmpPositionSetpoint", ReferenceFrame.getWorldFrame(), registry);
    private YoFrameVector yoStepAdjustmentVector = new YoFrameVector("stepAdjustmentVector", ReferenceFrame.getWorldFrame(), registry);
@@ -67,6 +64,7 @@ public class QuadrupedDcmBasedMpcOptimizationWithLaneChange implements Quadruped
       this.currentDcmEstimate = new FramePoint();
       this.timedContactSequence = new QuadrupedTimedContactSequence(0, 2 * maxPreviewSteps + 4);
       this.piecewiseConstantCopTrajectory = new QuadrupedPiecewiseConstantCopTrajectory(timedContactSequence.capacity());
+      this.finalDcmMap = new QuadrupedMpcFinalDcmMap(timedContactSequence.capacity() + 1);
 
       if (graphicsListRegistry != null)
       {
@@ -82,6 +80,9 @@ public class QuadrupedDcmBasedMpcOptimizationWithLaneChange implements Quadruped
    public void initialize()
    {
       timedContactSequence.initialize();
+      finalDcmMap.reset();
+      contactStateCode = -1;
+      qpSolver.resetActiveSet();
    }
 
    @Override
@@ -110,14 +111,20 @@ public class QuadrupedDcmBasedMpcOptimizationWithLaneChange implements Quadruped
 
       // Compute current number of contacts.
       numberOfContacts = 0;
+      int newContactStateCode = 0;
       for (RobotQuadrant robotQuadrant : RobotQuadrant.values)
       {
          if (currentContactState.get(robotQuadrant) == ContactState.IN_CONTACT)
          {
             numberOfContacts++;
+            newContactStateCode |= 1 << robotQuadrant.ordinal();
          }
       }
 
+      // The previous active set is only a good guess if the same feet are in contact.
+      boolean contactStateChanged = newContactStateCode != contactStateCode;
+      contactStateCode = newContactStateCode;
+
       // Compute number of steps occurring inside preview window.
       numberOfPreviewSteps = 1;
       for (int i = 1; i < queuedSteps.size(); i++)
@@ -150,7 +157,7 @@ public class QuadrupedDcmBasedMpcOptimizationWithLaneChange implements Quadruped
       u.reshape(numberOfContacts + 2, 1);
       try
       {
-         qpSolver.solve(A, b, Aeq, beq, Ain, bin, u, false);
+         qpSolver.solve(A, b, Aeq, beq, Ain, bin, u, contactStateChanged);
       }
       catch (NoConvergenceException e)
       {
@@ -213,64 +220,27 @@ public class QuadrupedDcmBasedMpcOptimizationWithLaneChange implements Quadruped
    private void initializeEqualityConstraints(QuadrantDependentList<ContactState> currentContactState, QuadrantDependentList<FramePoint> currentSolePosition)
    {
       // Initialize equality constraints. (Aeq u = beq)
-      x0.reshape(2 * numberOfIntervals, 1);                    // center of pressure offset
-      y0.reshape(2, 1);                                        // final divergent component of motion offset
-      B.reshape(2 * numberOfIntervals, numberOfContacts + 2);  // center of pressure map
-      C.reshape(2, 2 * numberOfIntervals);                     // final divergent component of motion map
-      S.reshape(2, 2 * numberOfIntervals);                     // final interval selection matrix
-      B.zero();
-      C.zero();
-      S.zero();
-
-      int rowOffset = 0;
-      int columnOffset = 0;
-      for (Direction direction : Direction.values2D())
+      // The final dcm is (C - S)Bu + (C - S)x0 + y0, see QuadrupedMpcFinalDcmMap.
+      finalDcmMap.setNumberOfIntervals(numberOfIntervals);
+      for (int i = 0; i < numberOfIntervals; i++)
       {
-         columnOffset = 0;
-         for (RobotQuadrant robotQuadrant : RobotQuadrant.values)
-         {
-            if (currentContactState.get(robotQuadrant) == ContactState.IN_CONTACT)
-            {
-               currentSolePosition.get(robotQuadrant).changeFrame(ReferenceFrame.getWorldFrame());
-               B.set(rowOffset, columnOffset, currentSolePosition.get(robotQuadrant).get(direction));
-               columnOffset++;
-            }
-         }
-
-         for (int i = 0; i < numberOfIntervals; i++)
-         {
-            piecewiseConstantCopTrajectory.getCopPositionAtStartOfInterval(i).changeFrame(ReferenceFrame.getWorldFrame());
-            x0.set(i * 2 + rowOffset, 0, piecewiseConstantCopTrajectory.getCopPositionAtStartOfInterval(i).get(direction));
-            B.set(i * 2 + rowOffset, numberOfContacts + rowOffset, piecewiseConstantCopTrajectory.getNormalizedPressureContributedByQueuedSteps(i));
-         }
-         x0.set(rowOffset, 0, 0);
+         FramePoint copPosition = piecewiseConstantCopTrajectory.getCopPositionAtStartOfInterval(i);
+         copPosition.changeFrame(ReferenceFrame.getWorldFrame());
+         finalDcmMap.setInterval(i, piecewiseConstantCopTrajectory.getTimeAtStartOfInterval(i), copPosition.getX(), copPosition.getY(),
+               piecewiseConstantCopTrajectory.getNormalizedPressureContributedByQueuedSteps(i));
+      }
 
-         double naturalFrequency = linearInvertedPendulumModel.getNaturalFrequency();
-         for (int i = numberOfIntervals - 2; i >= 0; i--)
+      finalDcmMap.clearContacts();
+      for (RobotQuadrant robotQuadrant : RobotQuadrant.values)
+      {
+         if (currentContactState.get(robotQuadrant) == ContactState.IN_CONTACT)
          {
-            double tn = piecewiseConstantCopTrajectory.getTimeAtStartOfInterval(numberOfIntervals - 1) - piecewiseConstantCopTrajectory
-                  .getTimeAtStartOfInterval(i + 1);
-            double ti = piecewiseConstantCopTrajectory.getTimeAtStartOfInterval(i + 1) - piecewiseConstantCopTrajectory.getTimeAtStartOfInterval(i);
-            double expn = Math.exp(naturalFrequency * tn);
-            double expi = Math.exp(naturalFrequency * ti);
-            C.set(rowOffset, i * 2 + rowOffset, expn * (1 - expi));
+            currentSolePosition.get(robotQuadrant).changeFrame(ReferenceFrame.getWorldFrame());
+            finalDcmMap.addContact(currentSolePosition.get(robotQuadrant).getX(), currentSolePosition.get(robotQuadrant).getY());
          }
-         C.set(rowOffset, 2 * numberOfIntervals - 2 + rowOffset, 0);
-         S.set(rowOffset, 2 * numberOfIntervals - 2 + rowOffset, 1);
-
-         double previewTime =
-               piecewiseConstantCopTrajectory.getTimeAtStartOfInterval(numberOfIntervals - 1) - piecewiseConstantCopTrajectory.getTimeAtStartOfInterval(0);
-         y0.set(rowOffset, 0, Math.exp(naturalFrequency * previewTime) * currentDcmEstimate.get(direction));
-         rowOffset++;
       }
 
-      CmS.reshape(2, 2 * numberOfIntervals);
-      CmSB.reshape(2, numberOfContacts + 2);
-      CmSx0py0.reshape(2, 1);
-      CommonOps.subtract(C, S, CmS);
-      CommonOps.mult(CmS, B, CmSB);
-      CmSx0py0.set(y0);
-      CommonOps.multAdd(CmS, x0, CmSx0py0);
+      finalDcmMap.compute(linearInvertedPendulumModel.getNaturalFrequency(), currentDcmEstimate.getX(), currentDcmEstimate.getY(), CmSB, CmSx0py0);
 
       DenseMatrix64F Aeq = qpEqualityMatrix;
       Aeq.reshape(3, numberOfContacts + 2);
@@ -0,0 +1,181 @@
+package us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl;
+
+import org.ejml.data.DenseMatrix64F;
+
+/**
+ * Map from the variables of the {@link QuadrupedDcmBasedMpcOptimizationWithLaneChange} to the divergent component of
+ * motion at the end of the preview window.
+ * <p>
+ * The preview is split in intervals of constant center of pressure. The center of pressure of the first interval is given
+ * by the normalized contact pressures of the feet in contact, the center of pressure of the following intervals is the
+ * nominal one plus the step adjustment weighted by the pressure contributed by the queued steps. The final dcm is
+ * (C - S)(Bu + x0) + y0, where x0 and B map the variables u to the interval centers of pressure and C, S and y0 map the
+ * centers of pressure and the current dcm to the final dcm.
+ * </p>
+ * <p>
+ * Only the first row of B depends on the contact pressures and only its step adjustment columns depend on the other
+ * intervals, so (C - S)B and (C - S)x0 + y0 are accumulated from one coefficient per interval instead of building the
+ * matrices of the whole preview. The coefficients of the intervals after the first one only depend on the timing of the
+ * intervals and are only recomputed when it changes.
+ * </p>
+ */
+public class QuadrupedMpcFinalDcmMap
+{
+   private final double[] intervalStartTimes;
+   private final double[] intervalCopPositionsX;
+   private final double[] intervalCopPositionsY;
+   private final double[] intervalStepAdjustmentPressures;
+   private final double[] contactPositionsX = new double[4];
+   private final double[] contactPositionsY = new double[4];
+
+   private final double[] intervalCoefficients;
+   private final double[] intervalCoefficientsStartTimes;
+   private double initialDcmCoefficient = 0.0;
+   private double previewExponentialFromSecondInterval = 0.0;
+   private double intervalCoefficientsNaturalFrequency = Double.NaN;
+   private int intervalCoefficientsNumberOfIntervals = 0;
+
+   private int numberOfIntervals = 0;
+   private int numberOfContacts = 0;
+
+   public QuadrupedMpcFinalDcmMap(int maximumNumberOfIntervals)
+   {
+      intervalStartTimes = new double[maximumNumberOfIntervals];
+      intervalCopPositionsX = new double[maximumNumberOfIntervals];
+      intervalCopPositionsY = new double[maximumNumberOfIntervals];
+      intervalStepAdjustmentPressures = new double[maximumNumberOfIntervals];
+      intervalCoefficients = new double[maximumNumberOfIntervals];
+      intervalCoefficientsStartTimes = new double[maximumNumberOfIntervals];
+   }
+
+   /**
+    * Forces the interval coefficients to be recomputed on the next call to {@link #compute}.
+    */
+   public void reset()
+   {
+      intervalCoefficientsNumberOfIntervals = 0;
+   }
+
+   public void setNumberOfIntervals(int numberOfIntervals)
+   {
+      if (numberOfIntervals < 1 || numberOfIntervals > intervalStartTimes.length)
+         throw new RuntimeException("Invalid number of intervals: " + numberOfIntervals + ", maximum: " + intervalStartTimes.length);
+
+      this.numberOfIntervals = numberOfIntervals;
+   }
+
+   /**
+    * @param intervalIndex the index of the interval, the first interval starts at the current time.
+    * @param startTime the time at the start of the interval.
+    * @param copX the nominal x coordinate of the center of pressure of the interval, not used for the first interval.
+    * @param copY the nominal y coordinate of the center of pressure of the interval, not used for the first interval.
+    * @param normalizedPressureContributedByQueuedSteps the weight of the step adjustment in the center of pressure of
+    *           the interval.
+    */
+   public void setInterval(int intervalIndex, double startTime, double copX, double copY, double normalizedPressureContributedByQueuedSteps)
+   {
+      intervalStartTimes[intervalIndex] = startTime;
+      intervalCopPositionsX[intervalIndex] = copX;
+      intervalCopPositionsY[intervalIndex] = copY;
+      intervalStepAdjustmentPressures[intervalIndex] = normalizedPressureContributedByQueuedSteps;
+   }
+
+   public void clearContacts()
+   {
+      numberOfContacts = 0;
+   }
+
+   /**
+    * Adds a foot in contact, in the order of the contact pressures in the variables of the optimization.
+    */
+   public void addContact(double soleX, double soleY)
+   {
+      contactPositionsX[numberOfContacts] = soleX;
+      contactPositionsY[numberOfContacts] = soleY;
+      numberOfContacts++;
+   }
+
+   /**
+    * Computes the map from u = [contact pressures, step adjustment x, step adjustment y] to the final dcm.
+    *
+    * @param naturalFrequency the natural frequency of the linear inverted pendulum.
+    * @param currentDcmX the x coordinate of the current dcm.
+    * @param currentDcmY the y coordinate of the current dcm.
+    * @param CmSBToPack (C - S)B, reshaped to 2 x (number of contacts + 2).
+    * @param CmSx0py0ToPack (C - S)x0 + y0, reshaped to 2 x 1.
+    */
+   public void compute(double naturalFrequency, double currentDcmX, double currentDcmY, DenseMatrix64F CmSBToPack, DenseMatrix64F CmSx0py0ToPack)
+   {
+      updateIntervalCoefficients(naturalFrequency);
+
+      CmSBToPack.reshape(2, numberOfContacts + 2);
+      CmSx0py0ToPack.reshape(2, 1);
+      CmSBToPack.zero();
+
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         CmSBToPack.set(0, i, intervalCoefficients[0] * contactPositionsX[i]);
+         CmSBToPack.set(1, i, intervalCoefficients[0] * contactPositionsY[i]);
+      }
+
+      double stepAdjustmentCoefficient = 0.0;
+      for (int i = 0; i < numberOfIntervals; i++)
+      {
+         stepAdjustmentCoefficient += intervalCoefficients[i] * intervalStepAdjustmentPressures[i];
+      }
+      CmSBToPack.set(0, numberOfContacts, stepAdjustmentCoefficient);
+      CmSBToPack.set(1, numberOfContacts + 1, stepAdjustmentCoefficient);
+
+      // The center of pressure of the first interval is given by the contact pressures.
+      double finalDcmOffsetX = initialDcmCoefficient * currentDcmX;
+      double finalDcmOffsetY = initialDcmCoefficient * currentDcmY;
+      for (int i = 1; i < numberOfIntervals; i++)
+      {
+         finalDcmOffsetX += intervalCoefficients[i] * intervalCopPositionsX[i];
+         finalDcmOffsetY += intervalCoefficients[i] * intervalCopPositionsY[i];
+      }
+      CmSx0py0ToPack.set(0, 0, finalDcmOffsetX);
+      CmSx0py0ToPack.set(1, 0, finalDcmOffsetY);
+   }
+
+   private void updateIntervalCoefficients(double naturalFrequency)
+   {
+      boolean timingChanged = numberOfIntervals != intervalCoefficientsNumberOfIntervals || naturalFrequency != intervalCoefficientsNaturalFrequency;
+      for (int i = 1; i < numberOfIntervals && !timingChanged; i++)
+      {
+         timingChanged = intervalStartTimes[i] != intervalCoefficientsStartTimes[i];
+      }
+
+      if (timingChanged)
+      {
+         intervalCoefficientsNumberOfIntervals = numberOfIntervals;
+         intervalCoefficientsNaturalFrequency = naturalFrequency;
+         System.arraycopy(intervalStartTimes, 1, intervalCoefficientsStartTimes, 1, numberOfIntervals - 1);
+
+         double finalTime = intervalStartTimes[numberOfIntervals - 1];
+         for (int i = 1; i < numberOfIntervals - 1; i++)
+         {
+            double expn = Math.exp(naturalFrequency * (finalTime - intervalStartTimes[i + 1]));
+            double expi = Math.exp(naturalFrequency * (intervalStartTimes[i + 1] - intervalStartTimes[i]));
+            intervalCoefficients[i] = expn * (1 - expi);
+         }
+         // The last interval is the final dcm itself, selected by S.
+         intervalCoefficients[numberOfIntervals - 1] = -1;
+
+         if (numberOfIntervals > 1)
+            previewExponentialFromSecondInterval = Math.exp(naturalFrequency * (finalTime - intervalStartTimes[1]));
+      }
+
+      // The first interval starts at the current time, so its coefficient changes at every tick.
+      if (numberOfIntervals > 1)
+      {
+         double expi = Math.exp(naturalFrequency * (intervalStartTimes[1] - intervalStartTimes[0]));
+         intervalCoefficients[0] = previewExponentialFromSecondInterval * (1 - expi);
+         initialDcmCoefficient = previewExponentialFromSecondInterval * expi;
+      }
+      else
+      {
+         initialDcmCoefficient = 1.0;
+      }
+   }
+}
@@ -0,0 +1,73 @@
+package us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+
+/**
+ * Reference implementation of {@link QuadrupedMpcFinalDcmMap} that builds the dense x0, y0, B, C and S matrices of the
+ * whole preview, as {@link QuadrupedDcmBasedMpcOptimizationWithLaneChange} used to.
+ */
+public class QuadrupedMpcDenseFinalDcmMap
+{
+   private final DenseMatrix64F x0 = new DenseMatrix64F(100, 1);
+   private final DenseMatrix64F y0 = new DenseMatrix64F(2, 1);
+   private final DenseMatrix64F B = new DenseMatrix64F(100, 6);
+   private final DenseMatrix64F C = new DenseMatrix64F(2, 100);
+   private final DenseMatrix64F S = new DenseMatrix64F(2, 100);
+   private final DenseMatrix64F CmS = new DenseMatrix64F(2, 100);
+
+   public void compute(int numberOfIntervals, double[] intervalStartTimes, double[] intervalCopPositionsX, double[] intervalCopPositionsY,
+         double[] intervalStepAdjustmentPressures, int numberOfContacts, double[] contactPositionsX, double[] contactPositionsY, double naturalFrequency,
+         double currentDcmX, double currentDcmY, DenseMatrix64F CmSBToPack, DenseMatrix64F CmSx0py0ToPack)
+   {
+      x0.reshape(2 * numberOfIntervals, 1);                    // center of pressure offset
+      y0.reshape(2, 1);                                        // final divergent component of motion offset
+      B.reshape(2 * numberOfIntervals, numberOfContacts + 2);  // center of pressure map
+      C.reshape(2, 2 * numberOfIntervals);                     // final divergent component of motion map
+      S.reshape(2, 2 * numberOfIntervals);                     // final interval selection matrix
+      B.zero();
+      C.zero();
+      S.zero();
+
+      for (int rowOffset = 0; rowOffset < 2; rowOffset++)
+      {
+         double[] contactPositions = rowOffset == 0 ? contactPositionsX : contactPositionsY;
+         double[] intervalCopPositions = rowOffset == 0 ? intervalCopPositionsX : intervalCopPositionsY;
+         double currentDcm = rowOffset == 0 ? currentDcmX : currentDcmY;
+
+         for (int columnOffset = 0; columnOffset < numberOfContacts; columnOffset++)
+         {
+            B.set(rowOffset, columnOffset, contactPositions[columnOffset]);
+         }
+
+         for (int i = 0; i < numberOfIntervals; i++)
+         {
+            x0.set(i * 2 + rowOffset, 0, intervalCopPositions[i]);
+            B.set(i * 2 + rowOffset, numberOfContacts + rowOffset, intervalStepAdjustmentPressures[i]);
+         }
+         x0.set(rowOffset, 0, 0);
+
+         for (int i = numberOfIntervals - 2; i >= 0; i--)
+         {
+            double tn = intervalStartTimes[numberOfIntervals - 1] - intervalStartTimes[i + 1];
+            double ti = intervalStartTimes[i + 1] - intervalStartTimes[i];
+            double expn = Math.exp(naturalFrequency * tn);
+            double expi = Math.exp(naturalFrequency * ti);
+            C.set(rowOffset, i * 2 + rowOffset, expn * (1 - expi));
+         }
+         C.set(rowOffset, 2 * numberOfIntervals - 2 + rowOffset, 0);
+         S.set(rowOffset, 2 * numberOfIntervals - 2 + rowOffset, 1);
+
+         double previewTime = intervalStartTimes[numberOfIntervals - 1] - intervalStartTimes[0];
+         y0.set(rowOffset, 0, Math.exp(naturalFrequency * previewTime) * currentDcm);
+      }
+
+      CmS.reshape(2, 2 * numberOfIntervals);
+      CmSBToPack.reshape(2, numberOfContacts + 2);
+      CmSx0py0ToPack.reshape(2, 1);
+      CommonOps.subtract(C, S, CmS);
+      CommonOps.mult(CmS, B, CmSBToPack);
+      CmSx0py0ToPack.set(y0);
+      CommonOps.multAdd(CmS, x0, CmSx0py0ToPack);
+   }
+}
@@ -0,0 +1,308 @@
+package us.ihmc.quadrupedRobotics.optimization.modelPredictiveControl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.convexOptimization.quadraticProgram.ConstrainedQPSolver;
+import us.ihmc.convexOptimization.quadraticProgram.QuadProgSolver;
+import us.ihmc.convexOptimization.quadraticProgram.SimpleDiagonalActiveSetQPSolver;
+import us.ihmc.convexOptimization.quadraticProgram.WarmStartActiveSetQPSolver;
+import us.ihmc.tools.exceptions.NoConvergenceException;
+
+@ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class QuadrupedMpcFinalDcmMapTest
+{
+   private static final int ITERATIONS = 1000;
+   private static final int MAXIMUM_NUMBER_OF_INTERVALS = 20;
+   private static final double EPSILON = 1.0e-9;
+
+   private final double[] intervalStartTimes = new double[MAXIMUM_NUMBER_OF_INTERVALS];
+   private final double[] intervalCopPositionsX = new double[MAXIMUM_NUMBER_OF_INTERVALS];
+   private final double[] intervalCopPositionsY = new double[MAXIMUM_NUMBER_OF_INTERVALS];
+   private final double[] intervalStepAdjustmentPressures = new double[MAXIMUM_NUMBER_OF_INTERVALS];
+   private final double[] contactPositionsX = new double[4];
+   private final double[] contactPositionsY = new double[4];
+   private final double[] nominalContactPressures = new double[4];
+   private int numberOfIntervals;
+   private int numberOfContacts;
+   private double naturalFrequency;
+   private double currentDcmX;
+   private double currentDcmY;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCondensedMapMatchesDenseFormulation()
+   {
+      Random random = new Random(4624L);
+      QuadrupedMpcFinalDcmMap finalDcmMap = new QuadrupedMpcFinalDcmMap(MAXIMUM_NUMBER_OF_INTERVALS);
+      QuadrupedMpcDenseFinalDcmMap denseFinalDcmMap = new QuadrupedMpcDenseFinalDcmMap();
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         // One interval when no step starts in the preview window.
+         int numberOfIntervals = i % 10 == 0 ? 1 : 1 + random.nextInt(MAXIMUM_NUMBER_OF_INTERVALS);
+         generateRandomProblem(random, numberOfIntervals);
+         assertMapsEqual(finalDcmMap, denseFinalDcmMap);
+
+         // The following ticks of the same contact sequence reuse the interval coefficients.
+         for (int tick = 0; tick < 5; tick++)
+         {
+            if (numberOfIntervals > 1)
+               intervalStartTimes[0] += random.nextDouble() * (intervalStartTimes[1] - intervalStartTimes[0]);
+            generateRandomPositions(random);
+            assertMapsEqual(finalDcmMap, denseFinalDcmMap);
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCondensedMapIsUpdatedWhenTheTimingChanges()
+   {
+      Random random = new Random(2346L);
+      QuadrupedMpcFinalDcmMap finalDcmMap = new QuadrupedMpcFinalDcmMap(MAXIMUM_NUMBER_OF_INTERVALS);
+      QuadrupedMpcDenseFinalDcmMap denseFinalDcmMap = new QuadrupedMpcDenseFinalDcmMap();
+
+      generateRandomProblem(random, 6);
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         switch (random.nextInt(4))
+         {
+         case 0:
+            // A step starts or ends: the number of intervals changes.
+            generateRandomProblem(random, 1 + random.nextInt(MAXIMUM_NUMBER_OF_INTERVALS));
+            break;
+         case 1:
+            // A step is rescheduled: the same number of intervals with a different timing.
+            int interval = 1 + random.nextInt(Math.max(numberOfIntervals - 1, 1));
+            if (interval < numberOfIntervals)
+               intervalStartTimes[interval] = interval + 1 < numberOfIntervals ? 0.5 * (intervalStartTimes[interval] + intervalStartTimes[interval + 1])
+                     : intervalStartTimes[interval] + 0.1;
+            break;
+         case 2:
+            naturalFrequency = 2.0 + 2.0 * random.nextDouble();
+            break;
+         default:
+            generateRandomPositions(random);
+            break;
+         }
+
+         assertMapsEqual(finalDcmMap, denseFinalDcmMap);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWarmStartedCondensedSolutionMatchesDenseSolution() throws NoConvergenceException
+   {
+      Random random = new Random(1467L);
+      QuadrupedMpcFinalDcmMap finalDcmMap = new QuadrupedMpcFinalDcmMap(MAXIMUM_NUMBER_OF_INTERVALS);
+      QuadrupedMpcDenseFinalDcmMap denseFinalDcmMap = new QuadrupedMpcDenseFinalDcmMap();
+      WarmStartActiveSetQPSolver warmStartSolver = new WarmStartActiveSetQPSolver(new SimpleDiagonalActiveSetQPSolver());
+      QuadProgSolver quadProgSolver = new QuadProgSolver();
+
+      DenseMatrix64F CmSB = new DenseMatrix64F(2, 6);
+      DenseMatrix64F CmSx0py0 = new DenseMatrix64F(2, 1);
+      DenseMatrix64F solution = new DenseMatrix64F(6, 1);
+      DenseMatrix64F expectedSolution = new DenseMatrix64F(6, 1);
+
+      int previousNumberOfContacts = -1;
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         // Sequences of ticks with the same contacts, such that the warm start is used.
+         if (i % 20 == 0)
+         {
+            generateRandomProblem(random, i % 40 == 0 ? 1 : 1 + random.nextInt(MAXIMUM_NUMBER_OF_INTERVALS));
+         }
+         else
+         {
+            // With a single interval, the dcm has to stay in the support polygon.
+            if (numberOfIntervals > 1)
+            {
+               intervalStartTimes[0] += 0.01 * (intervalStartTimes[1] - intervalStartTimes[0]);
+               currentDcmX += 0.01 * (random.nextDouble() - 0.5);
+               currentDcmY += 0.01 * (random.nextDouble() - 0.5);
+            }
+         }
+
+         finalDcmMap.setNumberOfIntervals(numberOfIntervals);
+         for (int j = 0; j < numberOfIntervals; j++)
+            finalDcmMap.setInterval(j, intervalStartTimes[j], intervalCopPositionsX[j], intervalCopPositionsY[j], intervalStepAdjustmentPressures[j]);
+         finalDcmMap.clearContacts();
+         for (int j = 0; j < numberOfContacts; j++)
+            finalDcmMap.addContact(contactPositionsX[j], contactPositionsY[j]);
+         finalDcmMap.compute(naturalFrequency, currentDcmX, currentDcmY, CmSB, CmSx0py0);
+         boolean contactsChanged = numberOfContacts != previousNumberOfContacts || i % 20 == 0;
+         previousNumberOfContacts = numberOfContacts;
+         solveMpcQP(CmSB, CmSx0py0, warmStartSolver, contactsChanged, solution);
+
+         denseFinalDcmMap.compute(numberOfIntervals, intervalStartTimes, intervalCopPositionsX, intervalCopPositionsY, intervalStepAdjustmentPressures,
+               numberOfContacts, contactPositionsX, contactPositionsY, naturalFrequency, currentDcmX, currentDcmY, CmSB, CmSx0py0);
+         solveMpcQP(CmSB, CmSx0py0, quadProgSolver, true, expectedSolution);
+
+         assertEquals(expectedSolution.getNumRows(), solution.getNumRows());
+         for (int j = 0; j < solution.getNumRows(); j++)
+         {
+            assertEquals(expectedSolution.get(j, 0), solution.get(j, 0), 1.0e-6);
+         }
+      }
+   }
+
+   private void assertMapsEqual(QuadrupedMpcFinalDcmMap finalDcmMap, QuadrupedMpcDenseFinalDcmMap denseFinalDcmMap)
+   {
+      DenseMatrix64F CmSB = new DenseMatrix64F(2, 6);
+      DenseMatrix64F CmSx0py0 = new DenseMatrix64F(2, 1);
+      DenseMatrix64F expectedCmSB = new DenseMatrix64F(2, 6);
+      DenseMatrix64F expectedCmSx0py0 = new DenseMatrix64F(2, 1);
+
+      finalDcmMap.setNumberOfIntervals(numberOfIntervals);
+      for (int i = 0; i < numberOfIntervals; i++)
+      {
+         finalDcmMap.setInterval(i, intervalStartTimes[i], intervalCopPositionsX[i], intervalCopPositionsY[i], intervalStepAdjustmentPressures[i]);
+      }
+      finalDcmMap.clearContacts();
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         finalDcmMap.addContact(contactPositionsX[i], contactPositionsY[i]);
+      }
+      finalDcmMap.compute(naturalFrequency, currentDcmX, currentDcmY, CmSB, CmSx0py0);
+
+      denseFinalDcmMap.compute(numberOfIntervals, intervalStartTimes, intervalCopPositionsX, intervalCopPositionsY, intervalStepAdjustmentPressures,
+            numberOfContacts, contactPositionsX, contactPositionsY, naturalFrequency, currentDcmX, currentDcmY, expectedCmSB, expectedCmSx0py0);
+
+      assertMatricesEqual(expectedCmSB, CmSB);
+      assertMatricesEqual(expectedCmSx0py0, CmSx0py0);
+   }
+
+   private static void assertMatricesEqual(DenseMatrix64F expected, DenseMatrix64F actual)
+   {
+      assertEquals(expected.getNumRows(), actual.getNumRows());
+      assertEquals(expected.getNumCols(), actual.getNumCols());
+      for (int i = 0; i < expected.getNumElements(); i++)
+      {
+         // The exponentials of the preview make the coefficients grow, the error is relative.
+         assertEquals(expected.get(i), actual.get(i), EPSILON * Math.max(1.0, Math.abs(expected.get(i))));
+      }
+   }
+
+   private void generateRandomProblem(Random random, int numberOfIntervals)
+   {
+      this.numberOfIntervals = numberOfIntervals;
+      numberOfContacts = 2 + random.nextInt(3);
+      naturalFrequency = 2.0 + 2.0 * random.nextDouble();
+
+      intervalStartTimes[0] = 10.0 * random.nextDouble();
+      for (int i = 1; i < numberOfIntervals; i++)
+      {
+         intervalStartTimes[i] = intervalStartTimes[i - 1] + 0.05 + 0.2 * random.nextDouble();
+      }
+
+      for (int i = 0; i < numberOfIntervals; i++)
+      {
+         intervalStepAdjustmentPressures[i] = i == 0 ? 0.0 : random.nextDouble();
+      }
+
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         nominalContactPressures[i] = 1.0 / numberOfContacts;
+      }
+
+      generateRandomPositions(random);
+   }
+
+   private void generateRandomPositions(Random random)
+   {
+      for (int i = 0; i < numberOfIntervals; i++)
+      {
+         intervalCopPositionsX[i] = random.nextDouble() - 0.5;
+         intervalCopPositionsY[i] = random.nextDouble() - 0.5;
+      }
+
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         contactPositionsX[i] = random.nextDouble() - 0.5;
+         contactPositionsY[i] = random.nextDouble() - 0.5;
+      }
+
+      // The current dcm is inside the support polygon, such that the problem is feasible without step adjustment.
+      double totalWeight = 0.0;
+      currentDcmX = 0.0;
+      currentDcmY = 0.0;
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         double weight = 0.2 + random.nextDouble();
+         currentDcmX += weight * contactPositionsX[i];
+         currentDcmY += weight * contactPositionsY[i];
+         totalWeight += weight;
+      }
+      currentDcmX /= totalWeight;
+      currentDcmY /= totalWeight;
+   }
+
+   /**
+    * Same quadratic program as {@link QuadrupedDcmBasedMpcOptimizationWithLaneChange}.
+    */
+   private void solveMpcQP(DenseMatrix64F CmSB, DenseMatrix64F CmSx0py0, ConstrainedQPSolver solver, boolean initialize, DenseMatrix64F solutionToPack)
+         throws NoConvergenceException
+   {
+      int size = numberOfContacts + 2;
+      DenseMatrix64F A = new DenseMatrix64F(size, size);
+      DenseMatrix64F b = new DenseMatrix64F(size, 1);
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         A.set(i, i, 1.0);
+         b.set(i, 0, nominalContactPressures[i]);
+      }
+      for (int i = numberOfContacts; i < size; i++)
+      {
+         A.set(i, i, 100000.0);
+      }
+      CommonOps.multTransA(A, b, b);
+      CommonOps.scale(-2, b, b);
+
+      DenseMatrix64F Aeq = new DenseMatrix64F(3, size);
+      DenseMatrix64F beq = new DenseMatrix64F(3, 1);
+      for (int i = 0; i < size; i++)
+      {
+         Aeq.set(0, i, CmSB.get(0, i));
+         Aeq.set(1, i, CmSB.get(1, i));
+      }
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         Aeq.set(2, i, 1);
+      }
+      beq.set(0, 0, -CmSx0py0.get(0, 0));
+      beq.set(1, 0, -CmSx0py0.get(1, 0));
+      beq.set(2, 0, 1);
+      for (int i = 0; i < 3; i++)
+      {
+         if (Math.abs(beq.get(i, 0)) > 1.0)
+         {
+            for (int j = 0; j < size; j++)
+            {
+               Aeq.set(i, j, Aeq.get(i, j) / beq.get(i, 0));
+            }
+            beq.set(i, 0, 1.0);
+         }
+      }
+
+      DenseMatrix64F Ain = new DenseMatrix64F(numberOfContacts, size);
+      DenseMatrix64F bin = new DenseMatrix64F(numberOfContacts, 1);
+      for (int i = 0; i < numberOfContacts; i++)
+      {
+         Ain.set(i, i, -1);
+         bin.set(i, 0, -0.001);
+      }
+
+      solutionToPack.reshape(size, 1);
+      solver.solve(A, b, Aeq, beq, Ain, bin, solutionToPack, initialize);
+   }
+}
@@ -140,7 +140,7 @@ public class GenericROSTranslationTools
 
       for (Method getter : ReflectionUtils.getMethods(rosMessageClass, ReflectionUtils.withPrefix("get")))
       {
-         String fieldName = StringUtils.uncapitalize(getter.getName().replace("get", ""));
+         String fieldName = getIHMCFieldNameForRosGetter(getter);
          try
          {
             Field field = ihmcMessageClass.getField(fieldName);
@@ -527,11 +527,16 @@ public class GenericROSTranslationTools
       return "get" + StringUtils.capitalize(field.getName());
    }
 
-   private static String getRosSetterNameForField(Field field)
+   static String getRosSetterNameForField(Field field)
    {
       return "set" + StringUtils.capitalize(field.getName());
    }
 
+   static String getIHMCFieldNameForRosGetter(Method rosGetter)
+   {
+      return StringUtils.uncapitalize(rosGetter.getName().replace("get", ""));
+   }
+
    public static Point2D convertPoint2DRos(Point2dRosMessage point2dRosMessage)
    {
       if(point2dRosMessage == null)
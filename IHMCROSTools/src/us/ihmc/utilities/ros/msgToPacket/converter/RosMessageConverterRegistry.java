@@ -0,0 +1,541 @@
+package us.ihmc.utilities.ros.msgToPacket.converter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.reflections.ReflectionUtils;
+import org.ros.internal.message.Message;
+
+import us.ihmc.communication.packets.Packet;
+import us.ihmc.communication.ros.generators.RosExportedField;
+import us.ihmc.communication.ros.generators.RosMessagePacket;
+
+/**
+ * Same conversions as {@link GenericROSTranslationTools#convertIHMCMessageToRosMessage(Packet)} and
+ * {@link GenericROSTranslationTools#convertRosMessageToIHMCMessage(Message)}, but the reflection is only done once per
+ * message type. The first conversion of a type resolves its fields, getters and setters into {@link MethodHandle}s and
+ * the resulting converter is cached for the following messages.
+ * <p>
+ * The types that {@link GenericROSTranslationTools} cannot convert, because a setter or a field is missing or because
+ * they use a field type that is not supported here, keep being converted by {@link GenericROSTranslationTools} so the
+ * result, or the exception, is the same.
+ * </p>
+ */
+public class RosMessageConverterRegistry
+{
+   private static final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+   private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+   private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+   private static final MethodType BYTE_SETTER_TYPE = MethodType.methodType(void.class, Object.class, byte.class);
+
+   private static final ConcurrentHashMap<Class<?>, IHMCToRosMessageConverter> ihmcToRosConverters = new ConcurrentHashMap<>();
+   private static final ConcurrentHashMap<String, RosToIHMCMessageConverter> rosToIHMCConverters = new ConcurrentHashMap<>();
+
+   private static final IHMCToRosMessageConverter reflectiveIHMCToRosConverter = new IHMCToRosMessageConverter()
+   {
+      @Override
+      public Message convert(Packet<?> ihmcMessage)
+            throws IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException
+      {
+         return GenericROSTranslationTools.convertIHMCMessageToRosMessage(ihmcMessage);
+      }
+   };
+
+   private static final RosToIHMCMessageConverter reflectiveRosToIHMCConverter = new RosToIHMCMessageConverter()
+   {
+      @Override
+      public Packet<?> convert(Message rosMessage) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException, InstantiationException,
+            InvocationTargetException, RosEnumConversionException
+      {
+         return GenericROSTranslationTools.convertRosMessageToIHMCMessage(rosMessage);
+      }
+   };
+
+   public static Message convertIHMCMessageToRosMessage(Packet<?> ihmcMessage)
+         throws IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException
+   {
+      Class<?> ihmcMessageClass = ihmcMessage.getClass();
+      IHMCToRosMessageConverter converter = ihmcToRosConverters.get(ihmcMessageClass);
+
+      if (converter == null)
+      {
+         converter = compileIHMCToRosMessageConverter(ihmcMessageClass);
+         ihmcToRosConverters.putIfAbsent(ihmcMessageClass, converter);
+      }
+
+      return converter.convert(ihmcMessage);
+   }
+
+   public static Packet<?> convertRosMessageToIHMCMessage(Message rosMessage) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException,
+         InstantiationException, InvocationTargetException, RosEnumConversionException
+   {
+      String fullRosTypeName = rosMessage.toRawMessage().getType();
+      RosToIHMCMessageConverter converter = rosToIHMCConverters.get(fullRosTypeName);
+
+      if (converter == null)
+      {
+         converter = compileRosToIHMCMessageConverter(fullRosTypeName);
+         rosToIHMCConverters.putIfAbsent(fullRosTypeName, converter);
+      }
+
+      return converter.convert(rosMessage);
+   }
+
+   private static IHMCToRosMessageConverter compileIHMCToRosMessageConverter(Class<?> ihmcMessageClass)
+   {
+      try
+      {
+         String rosMessageClassName = GenericROSTranslationTools.getRosMessageClassNameFromIHMCMessage(ihmcMessageClass.getSimpleName());
+         RosMessagePacket rosAnnotation = ihmcMessageClass.getAnnotation(RosMessagePacket.class);
+         if (rosAnnotation == null)
+            return reflectiveIHMCToRosConverter;
+         String rosType = rosAnnotation.rosPackage() + "/" + rosMessageClassName;
+         Class<?> rosMessageClass = Class.forName(rosType.replace("/", "."));
+
+         ArrayList<IHMCToRosFieldConverter> fieldConverters = new ArrayList<>();
+
+         for (Field field : ihmcMessageClass.getFields())
+         {
+            if (!field.isAnnotationPresent(RosExportedField.class))
+               continue;
+
+            Class<?> fieldType = field.getType();
+            String setterName = GenericROSTranslationTools.getRosSetterNameForField(field);
+            MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+
+            if (fieldType.getCanonicalName().contains("javax.vecmath"))
+            {
+               return reflectiveIHMCToRosConverter;
+            }
+            else if (fieldType.isArray() && !fieldType.getComponentType().isPrimitive())
+            {
+               MethodHandle setter = lookup.unreflect(rosMessageClass.getMethod(setterName, List.class)).asType(SETTER_TYPE);
+               fieldConverters.add(new ListFromArrayFieldConverter(getter, setter));
+            }
+            else if (Enum.class.isAssignableFrom(fieldType))
+            {
+               MethodHandle setter = lookup.unreflect(rosMessageClass.getMethod(setterName, byte.class)).asType(BYTE_SETTER_TYPE);
+               fieldConverters.add(new ByteFromEnumFieldConverter(getter, setter));
+            }
+            else
+            {
+               MethodHandle setter = lookup.unreflect(rosMessageClass.getMethod(setterName, fieldType)).asType(SETTER_TYPE);
+               fieldConverters.add(new DirectIHMCToRosFieldConverter(getter, setter));
+            }
+         }
+
+         return new CompiledIHMCToRosMessageConverter(rosType, fieldConverters.toArray(new IHMCToRosFieldConverter[fieldConverters.size()]));
+      }
+      catch (ReflectiveOperationException | RuntimeException e)
+      {
+         return reflectiveIHMCToRosConverter;
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private static RosToIHMCMessageConverter compileRosToIHMCMessageConverter(String fullRosTypeName)
+   {
+      try
+      {
+         String rosMessageName = fullRosTypeName.split("/")[1];
+         Class<?> rosMessageClass = Class.forName(fullRosTypeName.replace("/", "."));
+         Class<? extends Packet> ihmcMessageClass = GenericROSTranslationTools
+               .getIHMCMessageClassForROSMessage(GenericROSTranslationTools.getAllRosMessagePacketAnnotatedClasses(), rosMessageName);
+         if (ihmcMessageClass == null)
+            return reflectiveRosToIHMCConverter;
+
+         ArrayList<RosToIHMCFieldConverter> fieldConverters = new ArrayList<>();
+
+         for (Method rosGetter : ReflectionUtils.getMethods(rosMessageClass, ReflectionUtils.withPrefix("get")))
+         {
+            String fieldName = GenericROSTranslationTools.getIHMCFieldNameForRosGetter(rosGetter);
+            Field ihmcField;
+            try
+            {
+               ihmcField = ihmcMessageClass.getField(fieldName);
+            }
+            catch (NoSuchFieldException e)
+            {
+               System.out.println("Couldn't find field " + fieldName + " for class " + ihmcMessageClass.getSimpleName());
+               continue;
+            }
+
+            Class<?> ihmcMessageFieldType = ihmcField.getType();
+            MethodHandle getter = lookup.unreflect(rosGetter).asType(GETTER_TYPE);
+            MethodHandle setter = lookup.unreflectSetter(ihmcField).asType(SETTER_TYPE);
+
+            if (List.class.isAssignableFrom(rosGetter.getReturnType()) && ihmcMessageFieldType.isArray())
+            {
+               fieldConverters.add(new ArrayFromListFieldConverter(getter, setter, ihmcMessageFieldType.getComponentType()));
+            }
+            else if (ihmcMessageFieldType.isEnum())
+            {
+               fieldConverters.add(new EnumFromByteFieldConverter(getter, setter, (Class<? extends Enum>) ihmcMessageFieldType));
+            }
+            else if (ihmcMessageFieldType.getCanonicalName().contains("javax.vecmath"))
+            {
+               return reflectiveRosToIHMCConverter;
+            }
+            else
+            {
+               fieldConverters.add(new DirectRosToIHMCFieldConverter(getter, setter));
+            }
+         }
+
+         if (fieldConverters.isEmpty())
+            return reflectiveRosToIHMCConverter;
+
+         MethodHandle constructor = lookup.findConstructor(ihmcMessageClass, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+         return new CompiledRosToIHMCMessageConverter(constructor, fieldConverters.toArray(new RosToIHMCFieldConverter[fieldConverters.size()]));
+      }
+      catch (ReflectiveOperationException | RuntimeException e)
+      {
+         return reflectiveRosToIHMCConverter;
+      }
+   }
+
+   private static InvocationTargetException wrap(Throwable throwable)
+   {
+      if (throwable instanceof Error)
+         throw (Error) throwable;
+      return new InvocationTargetException(throwable);
+   }
+
+   private static interface IHMCToRosMessageConverter
+   {
+      public Message convert(Packet<?> ihmcMessage) throws IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException;
+   }
+
+   private static interface RosToIHMCMessageConverter
+   {
+      public Packet<?> convert(Message rosMessage) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException, InstantiationException,
+            InvocationTargetException, RosEnumConversionException;
+   }
+
+   private static interface IHMCToRosFieldConverter
+   {
+      public void convert(Packet<?> ihmcMessage, Message rosMessage) throws InvocationTargetException;
+   }
+
+   private static interface RosToIHMCFieldConverter
+   {
+      public void convert(Message rosMessage, Packet<?> ihmcMessage)
+            throws InvocationTargetException, ClassNotFoundException, NoSuchFieldException, IllegalAccessException, InstantiationException,
+            RosEnumConversionException;
+   }
+
+   private static class CompiledIHMCToRosMessageConverter implements IHMCToRosMessageConverter
+   {
+      private final String rosType;
+      private final IHMCToRosFieldConverter[] fieldConverters;
+
+      public CompiledIHMCToRosMessageConverter(String rosType, IHMCToRosFieldConverter[] fieldConverters)
+      {
+         this.rosType = rosType;
+         this.fieldConverters = fieldConverters;
+      }
+
+      @Override
+      public Message convert(Packet<?> ihmcMessage) throws InvocationTargetException
+      {
+         Message message = GenericROSTranslationTools.getMessageFactory().newFromType(rosType);
+
+         for (IHMCToRosFieldConverter fieldConverter : fieldConverters)
+         {
+            fieldConverter.convert(ihmcMessage, message);
+         }
+
+         return message;
+      }
+   }
+
+   private static class DirectIHMCToRosFieldConverter implements IHMCToRosFieldConverter
+   {
+      private final MethodHandle ihmcGetter;
+      private final MethodHandle rosSetter;
+
+      public DirectIHMCToRosFieldConverter(MethodHandle ihmcGetter, MethodHandle rosSetter)
+      {
+         this.ihmcGetter = ihmcGetter;
+         this.rosSetter = rosSetter;
+      }
+
+      @Override
+      public void convert(Packet<?> ihmcMessage, Message rosMessage) throws InvocationTargetException
+      {
+         Object value;
+         try
+         {
+            value = (Object) ihmcGetter.invokeExact((Object) ihmcMessage);
+         }
+         catch (Throwable e)
+         {
+            throw new RuntimeException(e);
+         }
+
+         try
+         {
+            rosSetter.invokeExact((Object) rosMessage, value);
+         }
+         catch (Throwable e)
+         {
+            throw wrap(e);
+         }
+      }
+   }
+
+   private static class ListFromArrayFieldConverter implements IHMCToRosFieldConverter
+   {
+      private final MethodHandle ihmcGetter;
+      private final MethodHandle rosSetter;
+
+      public ListFromArrayFieldConverter(MethodHandle ihmcGetter, MethodHandle rosSetter)
+      {
+         this.ihmcGetter = ihmcGetter;
+         this.rosSetter = rosSetter;
+      }
+
+      @Override
+      public void convert(Packet<?> ihmcMessage, Message rosMessage) throws InvocationTargetException
+      {
+         Object[] fieldAsArray;
+         try
+         {
+            fieldAsArray = (Object[]) (Object) ihmcGetter.invokeExact((Object) ihmcMessage);
+         }
+         catch (Throwable e)
+         {
+            throw new RuntimeException(e);
+         }
+
+         List<Object> objects;
+         if (fieldAsArray == null)
+            objects = new ArrayList<>();
+         else
+            objects = Arrays.asList(fieldAsArray);
+
+         try
+         {
+            rosSetter.invokeExact((Object) rosMessage, (Object) objects);
+         }
+         catch (Throwable e)
+         {
+            throw wrap(e);
+         }
+      }
+   }
+
+   private static class ByteFromEnumFieldConverter implements IHMCToRosFieldConverter
+   {
+      private final MethodHandle ihmcGetter;
+      private final MethodHandle rosSetter;
+
+      public ByteFromEnumFieldConverter(MethodHandle ihmcGetter, MethodHandle rosSetter)
+      {
+         this.ihmcGetter = ihmcGetter;
+         this.rosSetter = rosSetter;
+      }
+
+      @Override
+      public void convert(Packet<?> ihmcMessage, Message rosMessage) throws InvocationTargetException
+      {
+         Enum<?> enumField;
+         try
+         {
+            enumField = (Enum<?>) (Object) ihmcGetter.invokeExact((Object) ihmcMessage);
+         }
+         catch (Throwable e)
+         {
+            throw new RuntimeException(e);
+         }
+
+         if (enumField == null)
+            return;
+
+         try
+         {
+            rosSetter.invokeExact((Object) rosMessage, (byte) enumField.ordinal());
+         }
+         catch (Throwable e)
+         {
+            throw wrap(e);
+         }
+      }
+   }
+
+   private static class CompiledRosToIHMCMessageConverter implements RosToIHMCMessageConverter
+   {
+      private final MethodHandle ihmcConstructor;
+      private final RosToIHMCFieldConverter[] fieldConverters;
+
+      public CompiledRosToIHMCMessageConverter(MethodHandle ihmcConstructor, RosToIHMCFieldConverter[] fieldConverters)
+      {
+         this.ihmcConstructor = ihmcConstructor;
+         this.fieldConverters = fieldConverters;
+      }
+
+      @Override
+      public Packet<?> convert(Message rosMessage) throws ClassNotFoundException, NoSuchFieldException, IllegalAccessException, InstantiationException,
+            InvocationTargetException, RosEnumConversionException
+      {
+         Packet<?> ihmcMessage;
+         try
+         {
+            ihmcMessage = (Packet<?>) (Object) ihmcConstructor.invokeExact();
+         }
+         catch (Throwable e)
+         {
+            if (e instanceof RuntimeException)
+               throw (RuntimeException) e;
+            if (e instanceof Error)
+               throw (Error) e;
+            throw new RuntimeException(e);
+         }
+
+         for (RosToIHMCFieldConverter fieldConverter : fieldConverters)
+         {
+            fieldConverter.convert(rosMessage, ihmcMessage);
+         }
+
+         return ihmcMessage;
+      }
+   }
+
+   private static class DirectRosToIHMCFieldConverter implements RosToIHMCFieldConverter
+   {
+      private final MethodHandle rosGetter;
+      private final MethodHandle ihmcSetter;
+
+      public DirectRosToIHMCFieldConverter(MethodHandle rosGetter, MethodHandle ihmcSetter)
+      {
+         this.rosGetter = rosGetter;
+         this.ihmcSetter = ihmcSetter;
+      }
+
+      @Override
+      public void convert(Message rosMessage, Packet<?> ihmcMessage) throws InvocationTargetException
+      {
+         Object value;
+         try
+         {
+            value = (Object) rosGetter.invokeExact((Object) rosMessage);
+         }
+         catch (Throwable e)
+         {
+            throw wrap(e);
+         }
+
+         setIHMCField(ihmcSetter, ihmcMessage, value);
+      }
+   }
+
+   private static void setIHMCField(MethodHandle ihmcSetter, Packet<?> ihmcMessage, Object value)
+   {
+      try
+      {
+         ihmcSetter.invokeExact((Object) ihmcMessage, value);
+      }
+      catch (ClassCastException | NullPointerException e)
+      {
+         // Same exception as Field.set(Object, Object) for a value of the wrong type or null for a primitive field.
+         throw new IllegalArgumentException(e);
+      }
+      catch (Throwable e)
+      {
+         if (e instanceof RuntimeException)
+            throw (RuntimeException) e;
+         if (e instanceof Error)
+            throw (Error) e;
+         throw new RuntimeException(e);
+      }
+   }
+
+   private static class ArrayFromListFieldConverter implements RosToIHMCFieldConverter
+   {
+      private final MethodHandle rosGetter;
+      private final MethodHandle ihmcSetter;
+      private final Class<?> componentType;
+
+      public ArrayFromListFieldConverter(MethodHandle rosGetter, MethodHandle ihmcSetter, Class<?> componentType)
+      {
+         this.rosGetter = rosGetter;
+         this.ihmcSetter = ihmcSetter;
+         this.componentType = componentType;
+      }
+
+      @Override
+      public void convert(Message rosMessage, Packet<?> ihmcMessage) throws InvocationTargetException, ClassNotFoundException, NoSuchFieldException,
+            IllegalAccessException, InstantiationException, RosEnumConversionException
+      {
+         List<?> rosValues;
+         try
+         {
+            rosValues = (List<?>) (Object) rosGetter.invokeExact((Object) rosMessage);
+         }
+         catch (Throwable e)
+         {
+            throw wrap(e);
+         }
+
+         Object ihmcArray = Array.newInstance(componentType, rosValues.size());
+
+         int i = 0;
+         for (Object value : rosValues)
+         {
+            if (value instanceof Message)
+               Array.set(ihmcArray, i, convertRosMessageToIHMCMessage((Message) value));
+            else
+               Array.set(ihmcArray, i, value);
+
+            i++;
+         }
+
+         setIHMCField(ihmcSetter, ihmcMessage, ihmcArray);
+      }
+   }
+
+   @SuppressWarnings("rawtypes")
+   private static class EnumFromByteFieldConverter implements RosToIHMCFieldConverter
+   {
+      private final MethodHandle rosGetter;
+      private final MethodHandle ihmcSetter;
+      private final Class<? extends Enum> enumClass;
+      private final Enum[] enumConstants;
+
+      public EnumFromByteFieldConverter(MethodHandle rosGetter, MethodHandle ihmcSetter, Class<? extends Enum> enumClass)
+      {
+         this.rosGetter = rosGetter;
+         this.ihmcSetter = ihmcSetter;
+         this.enumClass = enumClass;
+         this.enumConstants = enumClass.getEnumConstants();
+      }
+
+      @Override
+      public void convert(Message rosMessage, Packet<?> ihmcMessage) throws InvocationTargetException, RosEnumConversionException
+      {
+         byte ordinal;
+         try
+         {
+            ordinal = (byte) (Object) rosGetter.invokeExact((Object) rosMessage);
+         }
+         catch (Throwable e)
+         {
+            throw wrap(e);
+         }
+
+         if (ordinal >= enumConstants.length)
+            throw new RosEnumConversionException(enumClass, ordinal, "");
+
+         setIHMCField(ihmcSetter, ihmcMessage, enumConstants[ordinal]);
+      }
+   }
+}
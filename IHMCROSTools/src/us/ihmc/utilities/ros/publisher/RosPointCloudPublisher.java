@@ -1,43 +1,70 @@
 package us.ihmc.utilities.ros.publisher;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.buffer.LittleEndianHeapChannelBuffer;
 import org.ros.message.Time;
 
 import sensor_msgs.PointCloud2;
+import sensor_msgs.PointField;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.robotics.dataStructures.MutableColor;
 import us.ihmc.utilities.ros.types.PointType;
 
+/**
+ * Publishes point clouds as {@link PointCloud2} messages with the fields of its {@link PointType}.
+ * <p>
+ * The packed clouds, {@code x0, y0, z0, x1, y1, z1, ...}, are copied in bulk into a small pool of direct buffers and
+ * messages that are reused, so publishing them does not allocate once the pool is large enough for the clouds. The
+ * intensities and colors that do not fit the {@link PointType} of the publisher are dropped, so an {@link PointType#XYZ}
+ * publisher can publish the geometry only of any cloud. A downsampling factor {@code n} publishes every n-th point.
+ * </p>
+ * <p>
+ * The published messages are serialized later on the dispatcher thread of the publisher. A pooled message is reused
+ * only after {@code numberOfPooledMessages - 1} other packed clouds were published, so the pool has to be deep enough
+ * for the dispatcher to keep up with the rate of the clouds.
+ * </p>
+ */
 public class RosPointCloudPublisher extends RosTopicPublisher<PointCloud2>
 {
- 
+   private static final int DEFAULT_NUMBER_OF_POOLED_MESSAGES = 3;
 
    PointType pointType;
 
+   private List<PointField> pointFields = null;
+   private final PooledMessage[] pooledMessages;
+   private int pooledMessageIndex = 0;
+
    public RosPointCloudPublisher(PointType pointType, boolean latch)
+   {
+      this(pointType, latch, DEFAULT_NUMBER_OF_POOLED_MESSAGES);
+   }
+
+   public RosPointCloudPublisher(PointType pointType, boolean latch, int numberOfPooledMessages)
    {
       super(PointCloud2._TYPE, latch);
       this.pointType = pointType;
-   }
-   
 
+      if (numberOfPooledMessages < 1)
+         throw new RuntimeException("The number of pooled messages has to be at least 1, was: " + numberOfPooledMessages);
+
+      pooledMessages = new PooledMessage[numberOfPooledMessages];
+      for (int i = 0; i < numberOfPooledMessages; i++)
+         pooledMessages[i] = new PooledMessage();
+   }
 
    public void publish(Point3D[] points, float[] intensities, String frameId)
    {
       PointCloud2 message = getMessage();
-      message.getHeader().setFrameId(frameId);
-      message.getHeader().setStamp(Time.fromMillis(System.currentTimeMillis()));
-      message.setHeight(1);
-      message.setWidth(points.length);
-      message.setPointStep(pointType.getPointStep());
-      int dataLength = pointType.getPointStep() * points.length;
-      message.setRowStep(dataLength);
-      message.setIsBigendian(false);
-      message.setIsDense(true);
-      message.setFields(pointType.getPointField());
-      
-      ChannelBuffer buffer = new LittleEndianHeapChannelBuffer(dataLength);
+      setHeaderAndFields(message, points.length, frameId);
+
+      ChannelBuffer buffer = new LittleEndianHeapChannelBuffer(message.getRowStep());
       for(int i=0;i<points.length;i++)
       {
          buffer.writeFloat((float)points[i].getX());
@@ -50,23 +77,12 @@ public class RosPointCloudPublisher extends RosTopicPublisher<PointCloud2>
       publish(message);
    }
 
-
-
    public void publish(Point3D[] points, MutableColor[] colors, String frameId)
    {
       PointCloud2 message = getMessage();
-      message.getHeader().setFrameId(frameId);
-      message.getHeader().setStamp(Time.fromMillis(System.currentTimeMillis()));
-      message.setHeight(1);
-      message.setWidth(points.length);
-      message.setPointStep(pointType.getPointStep());
-      int dataLength = pointType.getPointStep() * points.length;
-      message.setRowStep(dataLength);
-      message.setIsBigendian(false);
-      message.setIsDense(true);
-      message.setFields(pointType.getPointField());
-      
-      ChannelBuffer buffer = new LittleEndianHeapChannelBuffer(dataLength);
+      setHeaderAndFields(message, points.length, frameId);
+
+      ChannelBuffer buffer = new LittleEndianHeapChannelBuffer(message.getRowStep());
       for(int i=0;i<points.length;i++)
       {
          buffer.writeFloat((float)points[i].getX());
@@ -86,18 +102,9 @@ public class RosPointCloudPublisher extends RosTopicPublisher<PointCloud2>
    public void publish(Point3D[] points, MutableColor color, String frameId)
    {
       PointCloud2 message = getMessage();
-      message.getHeader().setFrameId(frameId);
-      message.getHeader().setStamp(Time.fromMillis(System.currentTimeMillis()));
-      message.setHeight(1);
-      message.setWidth(points.length);
-      message.setPointStep(pointType.getPointStep());
-      int dataLength = pointType.getPointStep() * points.length;
-      message.setRowStep(dataLength);
-      message.setIsBigendian(false);
-      message.setIsDense(true);
-      message.setFields(pointType.getPointField());
+      setHeaderAndFields(message, points.length, frameId);
 
-      ChannelBuffer buffer = new LittleEndianHeapChannelBuffer(dataLength);
+      ChannelBuffer buffer = new LittleEndianHeapChannelBuffer(message.getRowStep());
       for(int i=0;i<points.length;i++)
       {
          buffer.writeFloat((float)points[i].getX());
@@ -113,4 +120,215 @@ public class RosPointCloudPublisher extends RosTopicPublisher<PointCloud2>
       publish(message);
    }
 
+   /**
+    * Publishes the first {@code numberOfPoints} points of the packed cloud {@code xyz}. The intensity or color field of
+    * the {@link PointType} of the publisher, if any, is set to zero.
+    */
+   public void publish(float[] xyz, int numberOfPoints, String frameId)
+   {
+      publish(xyz, (float[]) null, numberOfPoints, 1, frameId);
+   }
+
+   /**
+    * Publishes every {@code downsamplingFactor}-th point of the first {@code numberOfPoints} points of the packed cloud
+    * {@code xyz}.
+    *
+    * @param intensities the intensity of each point of {@code xyz}, dropped by a {@link PointType#XYZ} publisher. Can be
+    *           {@code null}, in which case the intensities are set to zero.
+    */
+   public synchronized void publish(float[] xyz, float[] intensities, int numberOfPoints, int downsamplingFactor, String frameId)
+   {
+      checkExtraField(intensities != null, PointType.XYZI);
+      checkCloudSize(xyz.length, intensities == null ? -1 : intensities.length, numberOfPoints, downsamplingFactor);
+
+      int numberOfPublishedPoints = getNumberOfPublishedPoints(numberOfPoints, downsamplingFactor);
+      PooledMessage pooledMessage = nextPooledMessage(numberOfPublishedPoints);
+      FloatBuffer floatBuffer = pooledMessage.floatBuffer;
+      int floatsPerPoint = pointType.getPointStep() / 4;
+
+      if (floatsPerPoint == 3 && downsamplingFactor == 1)
+      {
+         floatBuffer.clear();
+         floatBuffer.put(xyz, 0, 3 * numberOfPoints);
+      }
+      else
+      {
+         for (int i = 0, offset = 0; i < numberOfPoints; i += downsamplingFactor, offset += floatsPerPoint)
+         {
+            floatBuffer.put(offset, xyz[3 * i]);
+            floatBuffer.put(offset + 1, xyz[3 * i + 1]);
+            floatBuffer.put(offset + 2, xyz[3 * i + 2]);
+            if (floatsPerPoint == 4)
+               floatBuffer.put(offset + 3, intensities == null ? 0.0f : intensities[i]);
+         }
+      }
+
+      publish(pooledMessage, numberOfPublishedPoints, frameId);
+   }
+
+   /**
+    * Publishes every {@code downsamplingFactor}-th point of the first {@code numberOfPoints} points of the packed cloud
+    * {@code xyz}.
+    *
+    * @param rgb the color of each point of {@code xyz} packed as {@code 0x00RRGGBB}, dropped by a {@link PointType#XYZ}
+    *           publisher. Can be {@code null}, in which case the points are black.
+    */
+   public synchronized void publish(float[] xyz, int[] rgb, int numberOfPoints, int downsamplingFactor, String frameId)
+   {
+      checkExtraField(rgb != null, PointType.XYZRGB);
+      checkCloudSize(xyz.length, rgb == null ? -1 : rgb.length, numberOfPoints, downsamplingFactor);
+
+      int numberOfPublishedPoints = getNumberOfPublishedPoints(numberOfPoints, downsamplingFactor);
+      PooledMessage pooledMessage = nextPooledMessage(numberOfPublishedPoints);
+      FloatBuffer floatBuffer = pooledMessage.floatBuffer;
+      IntBuffer intBuffer = pooledMessage.intBuffer;
+      int floatsPerPoint = pointType.getPointStep() / 4;
+
+      if (floatsPerPoint == 3 && downsamplingFactor == 1)
+      {
+         floatBuffer.clear();
+         floatBuffer.put(xyz, 0, 3 * numberOfPoints);
+      }
+      else
+      {
+         for (int i = 0, offset = 0; i < numberOfPoints; i += downsamplingFactor, offset += floatsPerPoint)
+         {
+            floatBuffer.put(offset, xyz[3 * i]);
+            floatBuffer.put(offset + 1, xyz[3 * i + 1]);
+            floatBuffer.put(offset + 2, xyz[3 * i + 2]);
+            // The color bytes are blue, green, red, 0 in the little endian data.
+            if (floatsPerPoint == 4)
+               intBuffer.put(offset + 3, rgb == null ? 0 : rgb[i] & 0x00FFFFFF);
+         }
+      }
+
+      publish(pooledMessage, numberOfPublishedPoints, frameId);
+   }
+
+   /**
+    * Publishes every {@code downsamplingFactor}-th point of the packed cloud held in the remaining floats of
+    * {@code xyz}. The positions of {@code xyz} and {@code intensities} are left unchanged.
+    *
+    * @param intensities the intensity of each point of {@code xyz} starting at its position, dropped by a
+    *           {@link PointType#XYZ} publisher. Can be {@code null}, in which case the intensities are set to zero.
+    */
+   public synchronized void publish(FloatBuffer xyz, FloatBuffer intensities, int downsamplingFactor, String frameId)
+   {
+      checkExtraField(intensities != null, PointType.XYZI);
+      int numberOfPoints = xyz.remaining() / 3;
+      checkCloudSize(3 * numberOfPoints, intensities == null ? -1 : intensities.remaining(), numberOfPoints, downsamplingFactor);
+
+      int numberOfPublishedPoints = getNumberOfPublishedPoints(numberOfPoints, downsamplingFactor);
+      PooledMessage pooledMessage = nextPooledMessage(numberOfPublishedPoints);
+      FloatBuffer floatBuffer = pooledMessage.floatBuffer;
+      int floatsPerPoint = pointType.getPointStep() / 4;
+      int xyzStart = xyz.position();
+
+      if (floatsPerPoint == 3 && downsamplingFactor == 1)
+      {
+         int xyzLimit = xyz.limit();
+         xyz.limit(xyzStart + 3 * numberOfPoints);
+         floatBuffer.clear();
+         floatBuffer.put(xyz);
+         xyz.limit(xyzLimit);
+         xyz.position(xyzStart);
+      }
+      else
+      {
+         int intensitiesStart = intensities == null ? 0 : intensities.position();
+
+         for (int i = 0, offset = 0; i < numberOfPoints; i += downsamplingFactor, offset += floatsPerPoint)
+         {
+            floatBuffer.put(offset, xyz.get(xyzStart + 3 * i));
+            floatBuffer.put(offset + 1, xyz.get(xyzStart + 3 * i + 1));
+            floatBuffer.put(offset + 2, xyz.get(xyzStart + 3 * i + 2));
+            if (floatsPerPoint == 4)
+               floatBuffer.put(offset + 3, intensities == null ? 0.0f : intensities.get(intensitiesStart + i));
+         }
+      }
+
+      publish(pooledMessage, numberOfPublishedPoints, frameId);
+   }
+
+   private void checkExtraField(boolean hasExtraField, PointType extraFieldPointType)
+   {
+      if (hasExtraField && pointType != PointType.XYZ && pointType != extraFieldPointType)
+         throw new RuntimeException("Cannot publish a " + extraFieldPointType + " cloud with a " + pointType + " publisher");
+   }
+
+   private static void checkCloudSize(int xyzLength, int extraFieldLength, int numberOfPoints, int downsamplingFactor)
+   {
+      if (downsamplingFactor < 1)
+         throw new RuntimeException("The downsampling factor has to be at least 1, was: " + downsamplingFactor);
+      if (numberOfPoints < 0 || xyzLength < 3 * numberOfPoints || (extraFieldLength != -1 && extraFieldLength < numberOfPoints))
+         throw new RuntimeException("The cloud is smaller than the number of points: " + numberOfPoints);
+   }
+
+   private static int getNumberOfPublishedPoints(int numberOfPoints, int downsamplingFactor)
+   {
+      return (numberOfPoints + downsamplingFactor - 1) / downsamplingFactor;
+   }
+
+   private PooledMessage nextPooledMessage(int numberOfPublishedPoints)
+   {
+      PooledMessage pooledMessage = pooledMessages[pooledMessageIndex];
+      pooledMessageIndex = (pooledMessageIndex + 1) % pooledMessages.length;
+
+      if (pooledMessage.message == null)
+         pooledMessage.message = getMessage();
+      pooledMessage.ensureCapacity(pointType.getPointStep() * numberOfPublishedPoints);
+
+      return pooledMessage;
+   }
+
+   private void publish(PooledMessage pooledMessage, int numberOfPublishedPoints, String frameId)
+   {
+      PointCloud2 message = pooledMessage.message;
+      setHeaderAndFields(message, numberOfPublishedPoints, frameId);
+      pooledMessage.channelBuffer.setIndex(0, message.getRowStep());
+      message.setData(pooledMessage.channelBuffer);
+
+      publish(message);
+   }
+
+   private void setHeaderAndFields(PointCloud2 message, int numberOfPoints, String frameId)
+   {
+      if (pointFields == null)
+         pointFields = pointType.getPointField();
+
+      message.getHeader().setFrameId(frameId);
+      message.getHeader().setStamp(Time.fromMillis(System.currentTimeMillis()));
+      message.setHeight(1);
+      message.setWidth(numberOfPoints);
+      message.setPointStep(pointType.getPointStep());
+      message.setRowStep(pointType.getPointStep() * numberOfPoints);
+      message.setIsBigendian(false);
+      message.setIsDense(true);
+      message.setFields(pointFields);
+   }
+
+   /**
+    * A reusable message with its little endian direct buffer and the float and int views of the buffer. The buffer only
+    * grows, doubling its capacity.
+    */
+   private static class PooledMessage
+   {
+      private PointCloud2 message = null;
+      private ByteBuffer byteBuffer = null;
+      private FloatBuffer floatBuffer = null;
+      private IntBuffer intBuffer = null;
+      private ChannelBuffer channelBuffer = null;
+
+      private void ensureCapacity(int dataLength)
+      {
+         if (byteBuffer != null && byteBuffer.capacity() >= dataLength)
+            return;
+
+         int capacity = byteBuffer == null ? dataLength : Math.max(dataLength, 2 * byteBuffer.capacity());
+         byteBuffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+         floatBuffer = byteBuffer.asFloatBuffer();
+         intBuffer = byteBuffer.asIntBuffer();
+         channelBuffer = ChannelBuffers.wrappedBuffer(byteBuffer);
+      }
+   }
 }
@@ -3,10 +3,16 @@ package us.ihmc.utilities.ros;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.Color;
 import java.net.URISyntaxException;
+import java.nio.FloatBuffer;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
@@ -19,6 +25,7 @@ import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.robotics.dataStructures.MutableColor;
 import us.ihmc.utilities.ros.publisher.RosPointCloudPublisher;
 import us.ihmc.utilities.ros.subscriber.RosPointCloudSubscriber;
+import us.ihmc.utilities.ros.subscriber.RosPointCloudSubscriber.UnpackedPointCloud;
 import us.ihmc.utilities.ros.types.PointType;
 
 @ContinuousIntegrationPlan(categories=IntegrationCategory.FLAKY)
@@ -38,6 +45,198 @@ public class RosPointCloudPublisherSubscriberTest extends IHMCRosTestWithRosCore
       testPubSubSingleCloud(PointType.XYZRGB);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testPubSubPackedDownsampledXYZICloud() throws URISyntaxException, InterruptedException
+   {
+      RosMainNode rosMainNode = new RosMainNode(rosMasterURI, "topicClientTestNode");
+
+      String testTopic = "/packedCloudTest";
+      final String testFrameId = "/testFrame";
+      final float[] testXYZ = new float[] {1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f};
+      final float[] testIntensities = new float[] {1.0f, 2.0f, 3.0f};
+
+      final RosPointCloudPublisher publisher = new RosPointCloudPublisher(PointType.XYZI, true);
+      rosMainNode.attachPublisher(testTopic, publisher);
+
+      final CountDownLatch latch = new CountDownLatch(1);
+      RosPointCloudSubscriber subscriber = new RosPointCloudSubscriber()
+      {
+         @Override
+         public void onNewMessage(PointCloud2 pointCloud)
+         {
+            UnpackedPointCloud unpackedCloud = super.unpackPointsAndIntensities(pointCloud);
+            assertEquals(PointType.XYZI, unpackedCloud.getPointType());
+            assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+            assertArrayEquals(new float[] {1.0f, 3.0f}, unpackedCloud.getIntensities(), 1e-10f);
+            assertEquals(testFrameId, pointCloud.getHeader().getFrameId());
+            latch.countDown();
+         }
+      };
+      rosMainNode.attachSubscriber(testTopic, subscriber);
+
+      rosMainNode.execute();
+      subscriber.wailTillRegistered();
+      publisher.waitTillRegistered();
+
+      publisher.publish(testXYZ, testIntensities, 3, 2, testFrameId);
+
+      assertTrue(latch.await(2, TimeUnit.SECONDS));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testPubSubPackedXYZCloud() throws URISyntaxException, InterruptedException
+   {
+      RosPointCloudPublisher publisher = new RosPointCloudPublisher(PointType.XYZ, true);
+      CloudCollector collector = attach("/packedXYZCloudTest", publisher);
+
+      // The points past numberOfPoints are not published.
+      float[] testXYZ = new float[] {1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f, 10.0f, 11.0f, 12.0f};
+      publisher.publish(testXYZ, 3, "/testFrame");
+
+      UnpackedPointCloud unpackedCloud = collector.next();
+      assertEquals(PointType.XYZ, unpackedCloud.getPointType());
+      assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(4.0, 5.0, 6.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+      assertNull(unpackedCloud.getIntensities());
+      assertEquals("/testFrame", collector.lastFrameId);
+
+      // The intensities are dropped by an XYZ publisher.
+      publisher.publish(testXYZ, new float[] {1.0f, 2.0f, 3.0f, 4.0f}, 4, 2, "/testFrame");
+
+      unpackedCloud = collector.next();
+      assertEquals(PointType.XYZ, unpackedCloud.getPointType());
+      assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testPubSubPackedXYZRGBCloud() throws URISyntaxException, InterruptedException
+   {
+      RosPointCloudPublisher publisher = new RosPointCloudPublisher(PointType.XYZRGB, true);
+      CloudCollector collector = attach("/packedXYZRGBCloudTest", publisher);
+
+      float[] testXYZ = new float[] {1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f};
+      int[] testRGB = new int[] {0x112233, 0x445566, 0xFF778899};
+      publisher.publish(testXYZ, testRGB, 3, 1, "/testFrame");
+
+      UnpackedPointCloud unpackedCloud = collector.next();
+      assertEquals(PointType.XYZRGB, unpackedCloud.getPointType());
+      assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(4.0, 5.0, 6.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+      // The alpha byte is not published.
+      assertArrayEquals(new Color[] {new Color(0x112233), new Color(0x445566), new Color(0x778899)}, unpackedCloud.getPointColors());
+
+      publisher.publish(testXYZ, testRGB, 3, 2, "/testFrame");
+
+      unpackedCloud = collector.next();
+      assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+      assertArrayEquals(new Color[] {new Color(0x112233), new Color(0x778899)}, unpackedCloud.getPointColors());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testPubSubFloatBufferClouds() throws URISyntaxException, InterruptedException
+   {
+      RosPointCloudPublisher xyziPublisher = new RosPointCloudPublisher(PointType.XYZI, true);
+      CloudCollector xyziCollector = attach("/floatBufferXYZICloudTest", xyziPublisher);
+      RosPointCloudPublisher xyzPublisher = new RosPointCloudPublisher(PointType.XYZ, true);
+      CloudCollector xyzCollector = attach("/floatBufferXYZCloudTest", xyzPublisher);
+
+      // The clouds start after the first point of the buffers.
+      FloatBuffer xyz = FloatBuffer.wrap(new float[] {-1.0f, -1.0f, -1.0f, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f});
+      xyz.position(3);
+      FloatBuffer intensities = FloatBuffer.wrap(new float[] {-1.0f, 1.0f, 2.0f, 3.0f});
+      intensities.position(1);
+
+      xyziPublisher.publish(xyz, intensities, 1, "/testFrame");
+
+      UnpackedPointCloud unpackedCloud = xyziCollector.next();
+      assertEquals(PointType.XYZI, unpackedCloud.getPointType());
+      assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(4.0, 5.0, 6.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+      assertArrayEquals(new float[] {1.0f, 2.0f, 3.0f}, unpackedCloud.getIntensities(), 1e-10f);
+      assertEquals(3, xyz.position());
+      assertEquals(1, intensities.position());
+
+      xyzPublisher.publish(xyz, null, 1, "/testFrame");
+
+      unpackedCloud = xyzCollector.next();
+      assertEquals(PointType.XYZ, unpackedCloud.getPointType());
+      assertArrayEquals(new Point3D[] {new Point3D(1.0, 2.0, 3.0), new Point3D(4.0, 5.0, 6.0), new Point3D(7.0, 8.0, 9.0)}, unpackedCloud.getPoints());
+      assertEquals(3, xyz.position());
+      assertEquals(12, xyz.limit());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testPooledMessagesAreReused() throws URISyntaxException, InterruptedException
+   {
+      int numberOfPooledMessages = 2;
+      RosPointCloudPublisher publisher = new RosPointCloudPublisher(PointType.XYZI, true, numberOfPooledMessages);
+      CloudCollector collector = attach("/pooledCloudTest", publisher);
+
+      // The clouds grow and shrink so the pooled buffers are both enlarged and reused for smaller clouds.
+      int[] cloudSizes = new int[] {2, 5, 1, 8, 3, 3, 6};
+      for (int cloudIndex = 0; cloudIndex < cloudSizes.length; cloudIndex++)
+      {
+         int numberOfPoints = cloudSizes[cloudIndex];
+         float[] xyz = new float[3 * numberOfPoints];
+         float[] intensities = new float[numberOfPoints];
+         Point3D[] expectedPoints = new Point3D[numberOfPoints];
+
+         for (int i = 0; i < numberOfPoints; i++)
+         {
+            xyz[3 * i] = cloudIndex;
+            xyz[3 * i + 1] = i;
+            xyz[3 * i + 2] = -i;
+            intensities[i] = 10.0f * cloudIndex + i;
+            expectedPoints[i] = new Point3D(cloudIndex, i, -i);
+         }
+
+         publisher.publish(xyz, intensities, numberOfPoints, 1, "/testFrame" + cloudIndex);
+
+         UnpackedPointCloud unpackedCloud = collector.next();
+         assertArrayEquals(expectedPoints, unpackedCloud.getPoints());
+         assertArrayEquals(intensities, unpackedCloud.getIntensities(), 1e-10f);
+         assertEquals("/testFrame" + cloudIndex, collector.lastFrameId);
+      }
+   }
+
+   private CloudCollector attach(String testTopic, RosPointCloudPublisher publisher) throws URISyntaxException
+   {
+      RosMainNode rosMainNode = new RosMainNode(rosMasterURI, "topicClientTestNode");
+      rosMainNode.attachPublisher(testTopic, publisher);
+      CloudCollector collector = new CloudCollector();
+      rosMainNode.attachSubscriber(testTopic, collector);
+
+      rosMainNode.execute();
+      collector.wailTillRegistered();
+      publisher.waitTillRegistered();
+      return collector;
+   }
+
+   /**
+    * Unpacks the clouds on the subscriber thread, the assertions are done on the test thread.
+    */
+   private static class CloudCollector extends RosPointCloudSubscriber
+   {
+      private final BlockingQueue<UnpackedPointCloud> unpackedClouds = new LinkedBlockingQueue<>();
+      private volatile String lastFrameId;
+
+      @Override
+      public void onNewMessage(PointCloud2 pointCloud)
+      {
+         lastFrameId = pointCloud.getHeader().getFrameId();
+         unpackedClouds.add(unpackPointsAndIntensities(pointCloud));
+      }
+
+      public UnpackedPointCloud next() throws InterruptedException
+      {
+         UnpackedPointCloud unpackedCloud = unpackedClouds.poll(2, TimeUnit.SECONDS);
+         assertNotNull("No cloud received", unpackedCloud);
+         return unpackedCloud;
+      }
+   }
+
    private void testPubSubSingleCloud(final PointType testPointType) throws URISyntaxException, InterruptedException
    {
       RosMainNode rosMainNode = new RosMainNode(rosMasterURI, "topicClientTestNode");
@@ -4,8 +4,14 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import us.ihmc.concurrent.Builder;
@@ -15,13 +21,56 @@ import us.ihmc.multicastLogDataProtocol.control.SummaryProvider;
 import us.ihmc.multicastLogDataProtocol.modelLoaders.LogModelProvider;
 import us.ihmc.robotDataLogger.YoVariableHandShakeBuilder;
 
+/**
+ * Streams data packets to any number of TCP clients.
+ *
+ * All the connections are handled by a single thread using a selector. {@link #send(ByteBuffer)} copies the data once in
+ * a preallocated packet and hands it over to the selector thread, which shares the packet between the clients and
+ * hands it back once all the clients have written it. Each client has a bounded queue of packets; when a client cannot
+ * keep up, its oldest queued packet that is not being written is dropped. Clients can request to only receive every Nth
+ * packet.
+ *
+ * The packet pool grows by a full client queue when a client connects and shrinks again when it disconnects, such that
+ * clients that do not keep up never take the packets of the other clients.
+ *
+ * Optionally, the server keeps the last packets sent in a history that is replayed to clients when they connect.
+ */
 public class MultiClientStreamingDataTCPServer extends Thread
 {
+   private static final int DISCARD_BUFFER_SIZE = 64;
 
-   private final ClientHandler handlers[] = new ClientHandler[4];
    private final ServerSocketChannel server;
-   
-   private ByteBuffer handshakeBuffer;
+   private final Selector selector;
+   private final int dataSize;
+   private final int bufferLength;
+
+   private final ByteBuffer handshakeBuffer;
+   private final ByteBuffer discardBuffer = ByteBuffer.allocateDirect(DISCARD_BUFFER_SIZE);
+
+   // Only used by the thread calling send(), linked through Packet.next
+   private Packet freePackets = null;
+
+   private final ConcurrentRingBuffer<PacketReference> newPackets;
+   // Packets handed back by the selector thread once all their references are released, linked through Packet.next.
+   // Unlike a ring buffer it has no capacity, such that the selector thread can add packets to the pool.
+   private final AtomicReference<Packet> releasedPackets = new AtomicReference<>();
+   // Set when the selector has been woken up for packets it did not take yet
+   private final AtomicBoolean selectorWakeUpPending = new AtomicBoolean(false);
+
+   // Only used by the selector thread
+   private final ArrayList<ClientConnection> streamingClients = new ArrayList<>();
+   private Packet[] history = new Packet[0];
+   private int historyHead = 0;
+   private int historySize = 0;
+   // Packets of disconnected clients that are removed from the pool when they are released
+   private int numberOfPacketsToRetire = 0;
+
+   private volatile int numberOfStreamingClients = 0;
+   private volatile InetSocketAddress[] udpAddresses = new InetSocketAddress[0];
+   private volatile boolean running = true;
+
+   private long numberOfPacketsDroppedBeforeFanOut = 0;
+   private volatile long numberOfPacketsDroppedForSlowClients = 0;
 
    public MultiClientStreamingDataTCPServer(int port, int dataSize, int bufferLength) throws IOException
    {
@@ -29,24 +78,39 @@ public class MultiClientStreamingDataTCPServer extends Thread
    }
 
    /**
-    * Create new server 
+    * Create new server
     * @param port port to accept connections on
     * @param handshakeBuffer ByteBuffer with handshake data
     * @param dataSize Maximum length of data send by this server
-    * @param bufferLength Number of buffers. Memory usage is 4 * bufferLength * dataSize bytes.
-    *  
+    * @param bufferLength Maximum number of packets queued per client. The packets are shared between clients and
+    *  preallocated, memory usage is (bufferLength + 1) * dataSize bytes plus the same amount per streaming client.
+    *
     * @throws IOException
     */
    public MultiClientStreamingDataTCPServer(int port, ByteBuffer handshakeBuffer, int dataSize, int bufferLength) throws IOException
    {
-      server = ServerSocketChannel.open();
-      server.bind(new InetSocketAddress(port));
+      super("StreamingDataTCPServer");
+
       this.handshakeBuffer = handshakeBuffer;
-      for (int i = 0; i < handlers.length; i++)
+      this.dataSize = dataSize;
+      this.bufferLength = bufferLength;
+
+      newPackets = new ConcurrentRingBuffer<>(new Builder<PacketReference>()
       {
-         handlers[i] = new ClientHandler(dataSize, bufferLength);
-         new Thread(handlers[i], "StreamingDataTCPServer-" + i).start();
-      }
+         @Override
+         public PacketReference newInstance()
+         {
+            return new PacketReference();
+         }
+      }, bufferLength);
+
+      createPacketPool(0);
+
+      selector = Selector.open();
+      server = ServerSocketChannel.open();
+      server.bind(new InetSocketAddress(port));
+      server.configureBlocking(false);
+      server.register(selector, SelectionKey.OP_ACCEPT);
    }
 
    public MultiClientStreamingDataTCPServer(int port, YoVariableHandShakeBuilder handshakeBuilder, LogModelProvider logModelProvider, SummaryProvider summaryProvider, int dataSize, int bufferLength)
@@ -69,7 +133,7 @@ public class MultiClientStreamingDataTCPServer extends Thread
          handshake.resourceDirectories = logModelProvider.getResourceDirectories();
          handshake.resourceZip = logModelProvider.getResourceZip();
       }
-      
+
       if(summaryProvider != null)
       {
          handshake.createSummary = summaryProvider.isSummarize();
@@ -81,95 +145,342 @@ public class MultiClientStreamingDataTCPServer extends Thread
 
    }
 
+   /**
+    * Keep the last packets sent and replay them to clients when they connect, before the live packets. The history
+    * packets are kept in the packet pool, which grows by historyLength * dataSize bytes plus the same amount per
+    * streaming client.
+    *
+    * Must be called before the server is started and before sending the first packet.
+    *
+    * @param historyLength number of packets to keep
+    */
+   public void setHistoryLength(int historyLength)
+   {
+      if (getState() != Thread.State.NEW)
+      {
+         throw new RuntimeException("The history length cannot be changed after the server has started.");
+      }
+      if (historyLength < 0)
+      {
+         throw new RuntimeException("The history length must be positive or zero, got " + historyLength);
+      }
+      history = new Packet[historyLength];
+      createPacketPool(historyLength);
+   }
+
+   private void createPacketPool(int historyLength)
+   {
+      // Covers the hand-over buffer and the history, the packets queued for the clients are added when they connect.
+      int poolSize = bufferLength + historyLength + 1;
+
+      freePackets = null;
+      for (int i = 0; i < poolSize; i++)
+      {
+         Packet packet = new Packet(dataSize);
+         packet.next = freePackets;
+         freePackets = packet;
+      }
+   }
+
    public void send(ByteBuffer data)
    {
-      for (int i = 0; i < handlers.length; i++)
+      send(data, true);
+   }
+
+   /**
+    * Sends the remaining data of the buffer to all the streaming clients. The position of data is not modified.
+    *
+    * This method does not block and does not allocate. The selector thread is only woken up when it has taken all the
+    * previous packets. It can only be called from a single thread.
+    *
+    * @param data packet to send
+    * @param addToHistory false for packets that should not be replayed to new clients, such as keep alives.
+    */
+   public void send(ByteBuffer data, boolean addToHistory)
+   {
+      boolean keepPacket = addToHistory && history.length > 0;
+      if (numberOfStreamingClients == 0 && !keepPacket)
+      {
+         return;
+      }
+
+      Packet packet = getFreePacket();
+      if (packet == null)
       {
-         ClientHandler handler = handlers[i];
-         data.mark();
-         handler.send(data);
-         data.reset();
+         // Should not happen, the pool covers the hand-over buffer, the history and the queues of all the clients.
+         numberOfPacketsDroppedBeforeFanOut++;
+         return;
+      }
+
+      PacketReference reference = newPackets.next();
+      if (reference == null)
+      {
+         // The selector thread is not keeping up, no client would get this packet in time anyway.
+         packet.next = freePackets;
+         freePackets = packet;
+         numberOfPacketsDroppedBeforeFanOut++;
+         return;
+      }
+
+      packet.set(data);
+      // One reference for the hand-over to the selector thread
+      packet.references = 1;
+      reference.packet = packet;
+      reference.addToHistory = keepPacket;
+      newPackets.commit();
+
+      if (selectorWakeUpPending.compareAndSet(false, true))
+      {
+         selector.wakeup();
       }
    }
 
-   private void addClient(int sendPacketsEveryNthTick, SocketChannel client)
+   private Packet getFreePacket()
    {
-      for(int i = 0; i < handlers.length; i++)
+      if (freePackets == null)
       {
-         if(handlers[i].setClient(client, sendPacketsEveryNthTick))
+         freePackets = releasedPackets.getAndSet(null);
+         if (freePackets == null)
          {
-            return;
+            return null;
          }
       }
-      // To many connections, closing 
-      try
+
+      Packet packet = freePackets;
+      freePackets = packet.next;
+      packet.next = null;
+      return packet;
+   }
+
+   /**
+    * Releases a reference to the packet and hands the packet back to the thread calling send() when it is not used
+    * anymore, unless the pool is shrinking. Only called from the selector thread.
+    */
+   private void release(Packet packet)
+   {
+      if (--packet.references == 0)
       {
-         System.out.println("Too many connections, closing client " + client);
-         client.close();
+         if (numberOfPacketsToRetire > 0)
+         {
+            numberOfPacketsToRetire--;
+            return;
+         }
+         handBack(packet);
       }
-      catch (IOException e)
-      {
+   }
 
+   /**
+    * Hands a free packet to the thread calling send(). Only called from the selector thread, which is the only one
+    * pushing, such that the stack cannot see the same packet twice at the top.
+    */
+   private void handBack(Packet packet)
+   {
+      Packet top;
+      do
+      {
+         top = releasedPackets.get();
+         packet.next = top;
       }
+      while (!releasedPackets.compareAndSet(top, packet));
    }
 
+   @Override
    public void run()
    {
-      ByteBuffer startByteBuffer = ByteBuffer.allocateDirect(1);
-      for (;;)
+      while (running)
       {
          try
          {
-            SocketChannel client = server.accept();
-            client.socket().setSendBufferSize(1000000); // Large send buffer to not loose packets
+            selector.select();
+         }
+         catch (IOException | ClosedSelectorException e)
+         {
+            break;
+         }
+
+         if (!running)
+         {
+            break;
+         }
+
+         Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+         while (selectedKeys.hasNext())
+         {
+            SelectionKey key = selectedKeys.next();
+            selectedKeys.remove();
 
-            startByteBuffer.clear();
-            int read = client.read(startByteBuffer); // Reading one byte is guaranteed
-            startByteBuffer.flip();
-            if (read == -1)
+            if (!key.isValid())
             {
-               client.close();
                continue;
             }
 
-            byte request = startByteBuffer.get();
-            if (request == LogHandshake.HANDSHAKE_REQUEST)
+            if (key.isAcceptable())
             {
-               handshakeBuffer.clear();
-               while (handshakeBuffer.hasRemaining())
-               {
-                  client.write(handshakeBuffer);
-               }
-               client.close();
+               acceptClient();
                continue;
             }
-            else if (request == LogHandshake.STREAM_REQUEST)
+
+            ClientConnection connection = (ClientConnection) key.attachment();
+            try
             {
-               startByteBuffer.clear();
-               read = client.read(startByteBuffer);
-               startByteBuffer.flip();
-               if (read == -1)
+               if (key.isReadable())
                {
-                  client.close();
-                  continue;
+                  connection.read();
+               }
+               if (key.isValid() && key.isWritable())
+               {
+                  connection.write();
                }
-               addClient(startByteBuffer.get() & 0xFF, client);
             }
-            else
+            catch (IOException e)
             {
-               System.err.println(client + " send unknown request");
+               connection.close();
             }
+         }
+
+         fanOutNewPackets();
+      }
+
+      closeAll();
+   }
+
+   private void acceptClient()
+   {
+      try
+      {
+         SocketChannel client = server.accept();
+         if (client == null)
+         {
+            return;
+         }
+         client.socket().setSendBufferSize(1000000); // Large send buffer to not loose packets
+         client.configureBlocking(false);
+         ClientConnection connection = new ClientConnection(client);
+         connection.key = client.register(selector, SelectionKey.OP_READ, connection);
+      }
+      catch (IOException e)
+      {
+         e.printStackTrace();
+      }
+   }
+
+   private void fanOutNewPackets()
+   {
+      // Cleared before taking the packets, such that a packet committed after this point wakes up the selector again.
+      selectorWakeUpPending.set(false);
 
+      if (!newPackets.poll())
+      {
+         return;
+      }
+
+      PacketReference reference;
+      while ((reference = newPackets.read()) != null)
+      {
+         Packet packet = reference.packet;
+         reference.packet = null;
+
+         for (int i = 0; i < streamingClients.size(); i++)
+         {
+            streamingClients.get(i).queue(packet);
          }
-         catch (IOException e)
+
+         if (reference.addToHistory)
          {
-            e.printStackTrace();
+            addToHistory(packet);
          }
+
+         release(packet);
+      }
+      newPackets.flush();
+   }
+
+   private void addToHistory(Packet packet)
+   {
+      if (historySize == history.length)
+      {
+         release(history[historyHead]);
+         history[historyHead] = null;
+         historyHead = (historyHead + 1) % history.length;
+         historySize--;
+      }
+
+      packet.references++;
+      history[(historyHead + historySize) % history.length] = packet;
+      historySize++;
+   }
+
+   private void startStreaming(ClientConnection connection)
+   {
+      System.out.println("Accepted client:  " + connection.client);
+
+      // The client can hold on to a full queue of packets and to the packet it is writing, grow the pool before it is
+      // used such that it never takes the packets of the other clients.
+      int numberOfPacketsHeldByClient = connection.queue.length + 1;
+      int numberOfRetiredPacketsToKeep = Math.min(numberOfPacketsToRetire, numberOfPacketsHeldByClient);
+      numberOfPacketsToRetire -= numberOfRetiredPacketsToKeep;
+      for (int i = numberOfRetiredPacketsToKeep; i < numberOfPacketsHeldByClient; i++)
+      {
+         handBack(new Packet(dataSize));
+      }
+
+      for (int i = 0; i < historySize; i++)
+      {
+         connection.queue(history[(historyHead + i) % history.length]);
+      }
+      streamingClients.add(connection);
+      numberOfStreamingClients = streamingClients.size();
+      updateUDPAddresses();
+   }
+
+   private void stopStreaming(ClientConnection connection)
+   {
+      if (streamingClients.remove(connection))
+      {
+         System.out.println("Connection closed:  " + connection.client);
+         // The packets still queued for the client are released after this, and are the first to leave the pool.
+         numberOfPacketsToRetire += connection.queue.length + 1;
+         numberOfStreamingClients = streamingClients.size();
+         updateUDPAddresses();
+      }
+   }
+
+   private void updateUDPAddresses()
+   {
+      ArrayList<InetSocketAddress> addresses = new ArrayList<>();
+      for (int i = 0; i < streamingClients.size(); i++)
+      {
+         InetSocketAddress address = streamingClients.get(i).udpAddress;
+         if (address != null)
+         {
+            addresses.add(address);
+         }
+      }
+      udpAddresses = addresses.toArray(new InetSocketAddress[addresses.size()]);
+   }
+
+   private void closeAll()
+   {
+      for (SelectionKey key : selector.keys())
+      {
+         if (key.attachment() instanceof ClientConnection)
+         {
+            ((ClientConnection) key.attachment()).close();
+         }
+      }
+
+      try
+      {
+         selector.close();
+      }
+      catch (IOException e)
+      {
       }
    }
 
    public void close()
    {
+      running = false;
       try
       {
          server.close();
@@ -177,203 +488,290 @@ public class MultiClientStreamingDataTCPServer extends Thread
       catch (IOException e)
       {
       }
+      selector.wakeup();
    }
 
-   private static class ClientHandler implements Runnable
+   /**
+    * Addresses of the streaming clients, for sending them UDP packets. The array is replaced when a client connects or
+    * disconnects and must not be modified.
+    */
+   public InetSocketAddress[] getUDPAddresses()
    {
+      return udpAddresses;
+   }
 
-      private final ConcurrentRingBuffer<ByteBuffer> data;
+   public int getNumberOfStreamingClients()
+   {
+      return numberOfStreamingClients;
+   }
 
+   public int getPort()
+   {
+      return server.socket().getLocalPort();
+   }
 
-      private final Object dataLock = new Object();
-      
-      private volatile boolean active = false;
+   /**
+    * @return the number of packets that were not handed over to the selector thread because it was not keeping up or
+    *         because all the packets were held by slow clients.
+    */
+   public long getNumberOfPacketsDroppedBeforeFanOut()
+   {
+      return numberOfPacketsDroppedBeforeFanOut;
+   }
 
-      private long count;
-      private int sendEveryNTicks;
-      private SocketChannel client;
-      
+   /**
+    * @return the number of packets dropped from the queue of a client because it was not keeping up.
+    */
+   public long getNumberOfPacketsDroppedForSlowClients()
+   {
+      return numberOfPacketsDroppedForSlowClients;
+   }
 
-      private AtomicReference<InetSocketAddress> udpAddress = new AtomicReference<InetSocketAddress>(null);
-      
-      private ClientHandler(final int dataSize, int bufferLength)
+   private static class Packet
+   {
+      private final ByteBuffer data;
+      // Next packet in the list of free packets
+      private Packet next;
+      // Set by the thread calling send() before the hand-over, then only modified by the selector thread.
+      private int references = 0;
+      private int length;
+
+      private Packet(int dataSize)
       {
-         data = new ConcurrentRingBuffer<>(new Builder<ByteBuffer>()
-         {
+         data = ByteBuffer.allocateDirect(dataSize);
+      }
 
-            @Override
-            public ByteBuffer newInstance()
-            {
-               return ByteBuffer.allocateDirect(dataSize);
-            }
-         }, bufferLength);
+      private void set(ByteBuffer dataToSend)
+      {
+         data.clear();
+         dataToSend.mark();
+         data.put(dataToSend);
+         dataToSend.reset();
+         data.flip();
+         length = data.limit();
       }
 
-      @Override
-      public void run()
+   }
+
+   private static class PacketReference
+   {
+      private Packet packet;
+      private boolean addToHistory;
+   }
+
+   private enum ClientState
+   {
+      READING_REQUEST, SENDING_HANDSHAKE, STREAMING
+   }
+
+   private class ClientConnection
+   {
+      private final SocketChannel client;
+      private SelectionKey key;
+      private ClientState state = ClientState.READING_REQUEST;
+
+      private final ByteBuffer requestBuffer = ByteBuffer.allocate(2);
+      private ByteBuffer handshake;
+
+      private InetSocketAddress udpAddress;
+      private int sendEveryNTicks = 1;
+      private long count = 0;
+
+      private final Packet[] queue = new Packet[bufferLength + history.length];
+      private int queueHead = 0;
+      private int queueSize = 0;
+      // Position in the packet at the head of the queue, a packet that is partially written cannot be dropped.
+      private int headPosition = 0;
+
+      private ClientConnection(SocketChannel client)
       {
-         for (;;)
+         this.client = client;
+      }
+
+      private void read() throws IOException
+      {
+         if (state != ClientState.READING_REQUEST)
          {
-            synchronized (dataLock)
-            {
-               while (!active)
-               {
-                  try
-                  {
-                     dataLock.wait();
-                  }
-                  catch (InterruptedException e)
-                  {
-                  }
-               }
-               
-               // Flush queue
-               data.poll();
-               while (data.read() != null);
-               data.flush();
-               
-            }            
-            System.out.println("Accepted client:  " + client);
-
-            for (;;)
+            // Nothing is expected from a streaming client, only detect when it closes the connection.
+            discardBuffer.clear();
+            if (client.read(discardBuffer) == -1)
             {
-               if (!client.isConnected())
-               {
-                  if (!client.isConnectionPending())
-                  {
-                     break;
-                  }
-                  continue;
-               }
+               close();
+            }
+            return;
+         }
 
-               if (data.poll())
-               {
-                  ByteBuffer currentData = data.read();
-                  try
-                  {
-                     client.write(currentData);
-                  }
-                  catch (IOException e)
-                  {
-                     break;
-                  }
-                  data.flush();
-               }
-               else
-               {
-                  synchronized (dataLock)
-                  {
-                     try
-                     {
-                        dataLock.wait();
-                     }
-                     catch (InterruptedException e)
-                     {
-                     }
-                     
-                  }
-               }
+         if (client.read(requestBuffer) == -1)
+         {
+            close();
+            return;
+         }
 
-            }
-            System.out.println("Connection closed:  " + client);
-            
-            udpAddress.set(null);
-            try
-            {
-               client.close();
-            }
-            catch (IOException e)
+         if (requestBuffer.position() == 0)
+         {
+            return;
+         }
+
+         byte request = requestBuffer.get(0);
+         if (request == LogHandshake.HANDSHAKE_REQUEST)
+         {
+            handshake = handshakeBuffer.duplicate();
+            handshake.clear();
+            state = ClientState.SENDING_HANDSHAKE;
+            key.interestOps(SelectionKey.OP_WRITE);
+         }
+         else if (request == LogHandshake.STREAM_REQUEST)
+         {
+            if (requestBuffer.position() < 2)
             {
+               return;
             }
+            sendEveryNTicks = Math.max(1, requestBuffer.get(1) & 0xFF);
+            udpAddress = getRemoteAddress();
+            state = ClientState.STREAMING;
+            startStreaming(this);
+         }
+         else
+         {
+            System.err.println(client + " send unknown request");
+            close();
+         }
+      }
 
-            synchronized (dataLock)
+      private InetSocketAddress getRemoteAddress()
+      {
+         try
+         {
+            SocketAddress socketAddress = client.getRemoteAddress();
+            if (socketAddress instanceof InetSocketAddress)
             {
-               active = false;               
+               return new InetSocketAddress(((InetSocketAddress) socketAddress).getAddress(), ((InetSocketAddress) socketAddress).getPort());
             }
          }
+         catch (IOException e)
+         {
+         }
+         return null;
+      }
+
+      private void queue(Packet packet)
+      {
+         if (count++ % sendEveryNTicks != 0)
+         {
+            return;
+         }
+
+         if (queueSize == queue.length && !dropOldest())
+         {
+            return;
+         }
+
+         packet.references++;
+         queue[(queueHead + queueSize) % queue.length] = packet;
+         queueSize++;
+
+         key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
       }
 
       /**
-       * Set the client
-       * @param client
-       * @param sendEveryNTicks
-       * 
-       * @return true if this thread can accept the client
+       * Drops the oldest queued packet that is not partially written.
+       *
+       * @return false if the only queued packet is partially written, in which case the new packet has to be dropped.
        */
-      public boolean setClient(SocketChannel client, int sendEveryNTicks)
+      private boolean dropOldest()
       {
-         boolean internalActive;
-         synchronized (dataLock)
+         numberOfPacketsDroppedForSlowClients++;
+
+         if (headPosition == 0)
+         {
+            release(queue[queueHead]);
+            queue[queueHead] = null;
+            queueHead = (queueHead + 1) % queue.length;
+            queueSize--;
+            headPosition = 0;
+            return true;
+         }
+         else if (queueSize == 1)
          {
-            internalActive = active;
-            if (!internalActive)
+            // Dropping the packet being written would corrupt the stream.
+            return false;
+         }
+         else
+         {
+            // Keep the packet being written, drop the next one and shift the remaining ones.
+            int dropIndex = (queueHead + 1) % queue.length;
+            release(queue[dropIndex]);
+            for (int i = 1; i < queueSize - 1; i++)
             {
-               this.client = client;
-               this.sendEveryNTicks = sendEveryNTicks;
-               try
-               {
-                  SocketAddress socketAddress = client.getRemoteAddress();
-                  if(socketAddress instanceof InetSocketAddress)
-                  {
-                     this.udpAddress.set(new InetSocketAddress(((InetSocketAddress) socketAddress).getAddress(), ((InetSocketAddress) socketAddress).getPort()));
-                  }
-                  else
-                  {
-                     this.udpAddress = null;
-                  }
-               }
-               catch(Exception e)
-               {
-                  this.udpAddress.set(null);
-               }
-               this.active = true;
-               dataLock.notifyAll();
+               queue[(queueHead + i) % queue.length] = queue[(queueHead + i + 1) % queue.length];
             }
-            
+            queue[(queueHead + queueSize - 1) % queue.length] = null;
+            queueSize--;
+            return true;
          }
-         return !internalActive;
       }
 
-      public void send(ByteBuffer dataToSend)
+      private void write() throws IOException
       {
-         if (active)
+         if (state == ClientState.SENDING_HANDSHAKE)
          {
-
-            if (count % sendEveryNTicks == 0)
+            client.write(handshake);
+            if (!handshake.hasRemaining())
             {
-               ByteBuffer nextData = data.next();
+               close();
+            }
+            return;
+         }
 
-               if (nextData != null)
-               {
-                  nextData.clear();
-                  nextData.put(dataToSend);
-                  nextData.flip();
-               }
-               data.commit();
-               synchronized (dataLock)
-               {
-                  dataLock.notifyAll();
-               }
+         while (queueSize > 0)
+         {
+            Packet packet = queue[queueHead];
+            // The packets are shared, the position is only used by this thread for the duration of the write.
+            packet.data.limit(packet.length);
+            packet.data.position(headPosition);
+            client.write(packet.data);
+            headPosition = packet.data.position();
+
+            if (headPosition < packet.length)
+            {
+               // The socket buffer is full
+               return;
             }
-            count++;
+
+            release(queue[queueHead]);
+            queue[queueHead] = null;
+            queueHead = (queueHead + 1) % queue.length;
+            queueSize--;
+            headPosition = 0;
          }
+
+         key.interestOps(SelectionKey.OP_READ);
       }
-      
-      public InetSocketAddress getUDPAddress()
+
+      private void close()
       {
-         return udpAddress.get();
-      }
+         stopStreaming(this);
 
-   }
-   
-   public InetSocketAddress getUDPAddress(int client)
-   {
-      return handlers[client].getUDPAddress();
-   }
+         while (queueSize > 0)
+         {
+            release(queue[queueHead]);
+            queue[queueHead] = null;
+            queueHead = (queueHead + 1) % queue.length;
+            queueSize--;
+         }
 
-   public int getMaximumNumberOfConnections()
-   {
-      return handlers.length;
-   }
+         if (key != null)
+         {
+            key.cancel();
+         }
 
+         try
+         {
+            client.close();
+         }
+         catch (IOException e)
+         {
+         }
+      }
+   }
 }
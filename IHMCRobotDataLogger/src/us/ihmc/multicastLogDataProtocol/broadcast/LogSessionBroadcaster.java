@@ -59,10 +59,19 @@ public class LogSessionBroadcaster extends Thread
    private final byte[] cameras;
 
    public LogSessionBroadcaster(InetSocketAddress controlAddress, InetAddress dataAddress, String className, LogSettings logSettings)
+   {
+      this(getInterface(controlAddress.getAddress()), controlAddress, dataAddress, className, logSettings);
+   }
+
+   /**
+    * Announce a session on the given interface. This allows announcing a session whose control server runs on another
+    * computer, as done by the log stream relay.
+    */
+   public LogSessionBroadcaster(NetworkInterface iface, InetSocketAddress controlAddress, InetAddress dataAddress, String className, LogSettings logSettings)
    {
       try
       {
-         this.iface = NetworkInterface.getByInetAddress(controlAddress.getAddress());
+         this.iface = iface;
          PrintTools.info(this, "Announcing logging session on: " + iface);
          this.controlAddress = controlAddress;
          this.dataAddress = dataAddress;
@@ -280,6 +289,18 @@ public class LogSessionBroadcaster extends Thread
       return sessionID;
    }
 
+   private static NetworkInterface getInterface(InetAddress address)
+   {
+      try
+      {
+         return NetworkInterface.getByInetAddress(address);
+      }
+      catch (SocketException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
    private static long createTempSessionID() throws IOException
    {
       String prefix = "LogSession";
@@ -4,6 +4,7 @@ import java.nio.LongBuffer;
 import java.util.List;
 
 import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariableSlab;
 
 public class RegistryBuffer
 {
@@ -11,6 +12,7 @@ public class RegistryBuffer
    
    private final long[] data;
    private final YoVariable<?>[] variables;
+   private final YoVariableSlab slab;
 
    private long timestamp;
    
@@ -19,17 +21,29 @@ public class RegistryBuffer
       this.variableOffset = variableOffset;
       this.data = new long[variables.size()];
       this.variables = variables.toArray(new YoVariable[variables.size()]);
+      this.slab = YoVariableSlab.findContiguousSlab(this.variables);
    }
    
    public void update(long timestamp)
    {
       this.timestamp = timestamp;
+      if(slab != null)
+      {
+         slab.getValues(data);
+         return;
+      }
+      
       for(int i = 0; i < variables.length; i++)
       {
          data[i] = variables[i].getValueAsLongBits();
       }
    }
    
+   public boolean isUsingSlab()
+   {
+      return slab != null;
+   }
+   
    public void getIntoBuffer(LongBuffer buffer, int initialOffset)
    {
       buffer.position(initialOffset + variableOffset);
@@ -99,20 +99,17 @@ public class YoVariableProducer implements Runnable
    public void publishTimestampRealtime(long timestamp)
    {
       timestampBuffer.putLong(4, timestamp);
-      for(int i = 0; i < server.getMaximumNumberOfConnections(); i++)
+      InetSocketAddress[] targets = server.getUDPAddresses();
+      for(int i = 0; i < targets.length; i++)
       {
-         InetSocketAddress target = server.getUDPAddress(i);
-         if(target != null)
+         timestampBuffer.clear();
+         try
          {
-            timestampBuffer.clear();
-            try
-            {
-               channel.send(timestampBuffer, target);
-            }
-            catch (IOException e)
-            {
-               System.out.println(e.getMessage());
-            }
+            channel.send(timestampBuffer, targets[i]);
+         }
+         catch (IOException e)
+         {
+            System.out.println(e.getMessage());
          }
       }
    }
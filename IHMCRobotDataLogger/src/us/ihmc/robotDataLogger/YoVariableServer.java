@@ -27,6 +27,7 @@ import us.ihmc.robotics.TickAndUpdatable;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.IntegerYoVariable;
 import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariableSlab;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.util.PeriodicThreadScheduler;
 
@@ -73,6 +74,7 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
    private long uid = 0; 
    
    private boolean sendKeepAlive = false;
+   private boolean useContiguousValueStorage = false;
    
    private final SummaryProvider summaryProvider = new SummaryProvider();
    
@@ -125,6 +127,29 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
       this.sendKeepAlive = sendKeepAlive;
    }
    
+   /**
+    * When enabled, the values of the variables of each logged registry are moved to a contiguous {@link YoVariableSlab}
+    * when the server starts, and the snapshot taken on every update becomes a single array copy.
+    * 
+    * Must be called before {@link #start()}.
+    */
+   public void setUseContiguousValueStorage(boolean useContiguousValueStorage)
+   {
+      if(started)
+      {
+         throw new RuntimeException("Cannot change the value storage after the server has started");
+      }
+      this.useContiguousValueStorage = useContiguousValueStorage;
+   }
+   
+   private void createValueSlab(List<YoVariable<?>> variables)
+   {
+      if(useContiguousValueStorage && YoVariableSlab.findContiguousSlab(variables.toArray(new YoVariable[variables.size()])) == null)
+      {
+         new YoVariableSlab(variables);
+      }
+   }
+   
    private List<JointHolder> startControlServer()
    {
       
@@ -137,6 +162,7 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
       {
          controlServer.getHandshakeBuilder().addDynamicGraphicObjects(mainYoGraphicsListRegistry);
       }
+      createValueSlab(variables);
       FullStateBuffer.Builder builder = new FullStateBuffer.Builder(mainOffset, variables, jointHolders);
       mainBuffer = new ConcurrentRingBuffer<FullStateBuffer>(builder, VARIABLE_BUFFER_CAPACITY);
       variableChangeData.put(mainRegistry, new ConcurrentRingBuffer<>(new VariableChangedMessage.Builder(), CHANGED_BUFFER_CAPACITY));
@@ -217,6 +243,7 @@ public class YoVariableServer implements RobotVisualizer, TickAndUpdatable
       {
          controlServer.getHandshakeBuilder().addDynamicGraphicObjects(yoGraphicsListRegistry);
       }
+      createValueSlab(variables);
       RegistryBuffer.Builder builder = new RegistryBuffer.Builder(variableOffset, variables);
       ConcurrentRingBuffer<RegistryBuffer> buffer = new ConcurrentRingBuffer<>(builder, VARIABLE_BUFFER_CAPACITY);
       
@@ -24,7 +24,8 @@ public enum LogSettings
    BABY_BEAST(true),
    V2EXO(true),
    MEGABOTS(true, "239.255.25.5"),
-   FOOTSTEP_PLANNER(true);
+   FOOTSTEP_PLANNER(true),
+   RELAY(false);
 
    private final boolean log;
    private final InetAddress videoStream;
@@ -0,0 +1,419 @@
+package us.ihmc.robotDataLogger.relay;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.martiansoftware.jsap.FlaggedOption;
+import com.martiansoftware.jsap.JSAP;
+import com.martiansoftware.jsap.JSAPException;
+import com.martiansoftware.jsap.JSAPResult;
+import com.martiansoftware.jsap.Parameter;
+import com.martiansoftware.jsap.SimpleJSAP;
+
+import us.ihmc.commons.PrintTools;
+import us.ihmc.multicastLogDataProtocol.LogPacketHandler;
+import us.ihmc.multicastLogDataProtocol.LogUtils;
+import us.ihmc.multicastLogDataProtocol.MultiClientStreamingDataTCPServer;
+import us.ihmc.multicastLogDataProtocol.StreamingDataTCPClient;
+import us.ihmc.multicastLogDataProtocol.broadcast.AnnounceRequest;
+import us.ihmc.multicastLogDataProtocol.broadcast.LogSessionBroadcaster;
+import us.ihmc.multicastLogDataProtocol.broadcast.LogSessionDisplay;
+import us.ihmc.multicastLogDataProtocol.control.LogHandshake;
+import us.ihmc.robotDataLogger.LogDataHeader;
+import us.ihmc.robotDataLogger.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.YoVariableProducer;
+import us.ihmc.robotDataLogger.logger.LogSettings;
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Subscribes once to a robot log session and serves it to any number of visualizers and loggers.
+ *
+ * The relay requests the handshake and model of the session once, then announces itself as a new session with the data
+ * served by the relay and the control port of the robot, so variable changes still go directly to the robot. The relay
+ * sessions are announced with logging disabled, the logger keeps logging the robot session directly.
+ *
+ * Two sessions are announced:
+ * <ul>
+ * <li> "[name]Relay" forwards every packet,
+ * <li> "[name]RelaySlowLink" forwards one packet in slowLinkDecimation, for viewers on slow links.
+ * </ul>
+ * Both replay the last packets received to clients that connect, so a late joiner starts with recent history. The history
+ * packets are preallocated direct buffers of the size of a full variable frame, so the history is shortened to fit in
+ * maximumHistorySize bytes when the frames are large.
+ */
+public class LogStreamRelay implements LogPacketHandler
+{
+   private static final int BUFFER_LENGTH = 128;
+   public static final long DEFAULT_MAXIMUM_HISTORY_SIZE = 256L * 1024L * 1024L;
+
+   private final AnnounceRequest upstreamSession;
+   private final StreamingDataTCPClient upstreamClient;
+   private final InetAddress relayAddress;
+   private final double historyDuration;
+   private final long maximumHistorySize;
+   private final int slowLinkDecimation;
+   private final boolean announce;
+
+   private LogSessionBroadcaster broadcaster;
+   private MultiClientStreamingDataTCPServer server;
+   private LogSessionBroadcaster slowLinkBroadcaster;
+   private MultiClientStreamingDataTCPServer slowLinkServer;
+   private TimestampRelay timestampRelay;
+
+   private ByteBuffer packetBuffer;
+   private volatile long numberOfPacketsReceived = 0;
+   private final AtomicBoolean closed = new AtomicBoolean(false);
+
+   /**
+    * @param upstreamSession the robot session to relay
+    * @param relayAddress address of this computer on the network the relay is served on
+    * @param historyDuration duration in seconds of the history replayed to new clients
+    * @param maximumHistorySize maximum number of bytes allocated for the history of both sessions
+    * @param slowLinkDecimation only one in slowLinkDecimation packets is sent to the slow link session, 0 disables it
+    */
+   public LogStreamRelay(AnnounceRequest upstreamSession, InetAddress relayAddress, double historyDuration, long maximumHistorySize, int slowLinkDecimation)
+   {
+      this(upstreamSession, relayAddress, historyDuration, maximumHistorySize, slowLinkDecimation, true);
+   }
+
+   /**
+    * @param announce false to serve the relay on ephemeral ports without announcing it, for testing
+    */
+   LogStreamRelay(AnnounceRequest upstreamSession, InetAddress relayAddress, double historyDuration, long maximumHistorySize, int slowLinkDecimation,
+                  boolean announce)
+   {
+      if (!(historyDuration >= 0.0))
+      {
+         throw new RuntimeException("The history duration must be positive or zero, got " + historyDuration);
+      }
+      if (maximumHistorySize < 0)
+      {
+         throw new RuntimeException("The maximum history size must be positive or zero, got " + maximumHistorySize);
+      }
+      if (slowLinkDecimation < 0)
+      {
+         throw new RuntimeException("The slow link decimation must be positive or zero, got " + slowLinkDecimation);
+      }
+
+      this.upstreamSession = upstreamSession;
+      this.relayAddress = relayAddress;
+      this.historyDuration = historyDuration;
+      this.maximumHistorySize = maximumHistorySize;
+      this.slowLinkDecimation = slowLinkDecimation;
+      this.announce = announce;
+
+      InetAddress dataAddress;
+      try
+      {
+         dataAddress = InetAddress.getByAddress(upstreamSession.getDataIP());
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+
+      upstreamClient = new StreamingDataTCPClient(dataAddress, upstreamSession.getDataPort(), this, 1);
+   }
+
+   public void start() throws IOException
+   {
+      PrintTools.info(this, "Requesting handshake from " + upstreamSession.getName());
+      LogHandshake handshake = upstreamClient.getHandshake();
+      if (handshake == null)
+      {
+         throw new IOException("Invalid handshake received from " + upstreamSession.getName());
+      }
+
+      YoVariableHandshakeParser parser = new YoVariableHandshakeParser("relay");
+      parser.parseFrom(handshake.protoShake);
+      int dataSize = SnappyUtils.maxCompressedLength(parser.getBufferSize()) + LogDataHeader.length();
+      int requestedHistoryLength = (int) Math.min(Math.ceil(historyDuration / parser.getDt()), Integer.MAX_VALUE);
+      int historyLength = computeHistoryLength(requestedHistoryLength, dataSize, maximumHistorySize, slowLinkDecimation);
+      if (historyLength < requestedHistoryLength)
+      {
+         PrintTools.warn(this, "Shortening the history to " + historyLength * parser.getDt() + "s to fit in " + maximumHistorySize + " bytes.");
+      }
+      packetBuffer = ByteBuffer.allocateDirect(dataSize);
+
+      // Serialize the handshake once, it is served from memory to all the clients.
+      ByteBuffer handshakeBuffer = handshake.toBuffer();
+
+      NetworkInterface iface = NetworkInterface.getByInetAddress(relayAddress);
+      InetSocketAddress controlAddress = new InetSocketAddress(InetAddress.getByAddress(upstreamSession.getControlIP()), upstreamSession.getControlPort());
+
+      int port = 0;
+      if (announce)
+      {
+         broadcaster = new LogSessionBroadcaster(iface, controlAddress, relayAddress, upstreamSession.getName() + "Relay", LogSettings.RELAY);
+         broadcaster.requestPort();
+         port = broadcaster.getPort();
+      }
+      server = new MultiClientStreamingDataTCPServer(port, handshakeBuffer, dataSize, BUFFER_LENGTH);
+      server.setHistoryLength(historyLength);
+
+      if (slowLinkDecimation > 0)
+      {
+         int slowLinkPort = 0;
+         if (announce)
+         {
+            slowLinkBroadcaster = new LogSessionBroadcaster(iface, controlAddress, relayAddress, upstreamSession.getName() + "RelaySlowLink", LogSettings.RELAY);
+            slowLinkBroadcaster.requestPort();
+            slowLinkPort = slowLinkBroadcaster.getPort();
+         }
+         slowLinkServer = new MultiClientStreamingDataTCPServer(slowLinkPort, handshakeBuffer.duplicate(), dataSize, BUFFER_LENGTH);
+         slowLinkServer.setHistoryLength(historyLength / slowLinkDecimation);
+      }
+
+      server.start();
+      if (slowLinkServer != null)
+      {
+         slowLinkServer.start();
+      }
+      if (announce)
+      {
+         broadcaster.start();
+         if (slowLinkBroadcaster != null)
+         {
+            slowLinkBroadcaster.start();
+         }
+      }
+
+      upstreamClient.start();
+      PrintTools.info(this, "Relaying " + upstreamSession.getName() + " on " + relayAddress);
+   }
+
+   /**
+    * The history of each server takes 2 * historyLength * dataSize bytes of its packet pool, the slow link server keeps
+    * historyLength / slowLinkDecimation packets.
+    *
+    * @return the longest history up to requestedHistoryLength for which both servers fit in maximumHistorySize bytes
+    */
+   static int computeHistoryLength(int requestedHistoryLength, int dataSize, long maximumHistorySize, int slowLinkDecimation)
+   {
+      double packetsPerHistoryPacket = slowLinkDecimation > 0 ? 1.0 + 1.0 / slowLinkDecimation : 1.0;
+      long maximumHistoryLength = (long) (maximumHistorySize / (2.0 * dataSize * packetsPerHistoryPacket));
+      return (int) Math.min(requestedHistoryLength, maximumHistoryLength);
+   }
+
+   int getPort()
+   {
+      return server.getPort();
+   }
+
+   int getSlowLinkPort()
+   {
+      return slowLinkServer.getPort();
+   }
+
+   long getNumberOfPacketsReceived()
+   {
+      return numberOfPacketsReceived;
+   }
+
+   @Override
+   public void timestampReceived(long timestamp)
+   {
+   }
+
+   @Override
+   public void newDataAvailable(LogDataHeader header, ByteBuffer buffer)
+   {
+      packetBuffer.clear();
+      header.writeBuffer(0, packetBuffer);
+      packetBuffer.position(LogDataHeader.length());
+      buffer.clear();
+      packetBuffer.put(buffer);
+      packetBuffer.flip();
+
+      server.send(packetBuffer);
+      if (slowLinkServer != null && numberOfPacketsReceived % slowLinkDecimation == 0)
+      {
+         slowLinkServer.send(packetBuffer);
+      }
+      numberOfPacketsReceived++;
+   }
+
+   @Override
+   public void keepAlive()
+   {
+      LogDataHeader header = new LogDataHeader();
+      header.setUid(-1);
+      header.setTimestamp(-1);
+      header.setType(LogDataHeader.KEEP_ALIVE_PACKET);
+      header.setDataSize(0);
+      header.setCrc32(0);
+
+      packetBuffer.clear();
+      header.writeBuffer(0, packetBuffer);
+      packetBuffer.limit(LogDataHeader.length());
+
+      server.send(packetBuffer, false);
+      if (slowLinkServer != null)
+      {
+         slowLinkServer.send(packetBuffer, false);
+      }
+   }
+
+   @Override
+   public void connected(InetSocketAddress localAddress)
+   {
+      timestampRelay = new TimestampRelay(localAddress);
+      timestampRelay.start();
+   }
+
+   @Override
+   public void timeout()
+   {
+      PrintTools.info(this, "Connection to " + upstreamSession.getName() + " lost, shutting down relay.");
+      close();
+   }
+
+   public void close()
+   {
+      if (closed.getAndSet(true))
+      {
+         return;
+      }
+
+      if (timestampRelay != null)
+      {
+         timestampRelay.interrupt();
+      }
+      upstreamClient.requestStop();
+
+      if (broadcaster != null)
+      {
+         broadcaster.close();
+      }
+      server.close();
+      if (slowLinkBroadcaster != null)
+      {
+         slowLinkBroadcaster.close();
+      }
+      if (slowLinkServer != null)
+      {
+         slowLinkServer.close();
+      }
+   }
+
+   /**
+    * Forwards the timestamps the robot sends over UDP to the connected clients.
+    */
+   private class TimestampRelay extends Thread
+   {
+      private static final int TIMEOUT = 1000;
+      private final InetSocketAddress address;
+
+      private TimestampRelay(InetSocketAddress localAddress)
+      {
+         super("TimestampRelay");
+         address = new InetSocketAddress(localAddress.getAddress(), localAddress.getPort());
+      }
+
+      @Override
+      public void run()
+      {
+         try
+         {
+            DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET).setOption(StandardSocketOptions.SO_REUSEADDR, true).bind(address);
+            channel.configureBlocking(false);
+            Selector selector = Selector.open();
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            ByteBuffer timestampBuffer = ByteBuffer.allocateDirect(12);
+
+            while (!interrupted())
+            {
+               if (selector.select(TIMEOUT) > 0)
+               {
+                  selector.selectedKeys().remove(key);
+                  if (key.isReadable())
+                  {
+                     timestampBuffer.clear();
+                     channel.receive(timestampBuffer);
+                     timestampBuffer.flip();
+
+                     if (timestampBuffer.remaining() == 12 && timestampBuffer.getInt(0) == YoVariableProducer.TIMESTAMP_HEADER)
+                     {
+                        forward(channel, timestampBuffer, server.getUDPAddresses());
+                        if (slowLinkServer != null)
+                        {
+                           forward(channel, timestampBuffer, slowLinkServer.getUDPAddresses());
+                        }
+                     }
+                  }
+               }
+            }
+
+            channel.close();
+         }
+         catch (IOException e)
+         {
+            e.printStackTrace();
+         }
+      }
+
+      private void forward(DatagramChannel channel, ByteBuffer timestampBuffer, InetSocketAddress[] targets) throws IOException
+      {
+         for (int i = 0; i < targets.length; i++)
+         {
+            timestampBuffer.position(0);
+            channel.send(timestampBuffer, targets[i]);
+         }
+      }
+   }
+
+   public static void main(String[] args) throws JSAPException, IOException
+   {
+      SimpleJSAP jsap = new SimpleJSAP("LogStreamRelay", "Relays a robot log session to any number of visualizers", new Parameter[] {
+            new FlaggedOption("robotHost", JSAP.STRING_PARSER, null, JSAP.NOT_REQUIRED, 'r', "robot",
+                  "Data IP of the session to relay. If not set, the session is selected in a dialog."),
+            new FlaggedOption("relayHost", JSAP.STRING_PARSER, null, JSAP.NOT_REQUIRED, 'a', "address",
+                  "Address of a host on the network to serve the relay on. Defaults to the network of the robot."),
+            new FlaggedOption("history", JSAP.DOUBLE_PARSER, "5.0", JSAP.NOT_REQUIRED, 't', "history",
+                  "Duration in seconds of the history replayed to new clients"),
+            new FlaggedOption("historySize", JSAP.LONG_PARSER, String.valueOf(DEFAULT_MAXIMUM_HISTORY_SIZE / (1024L * 1024L)), JSAP.NOT_REQUIRED, 'm',
+                  "historySize", "Maximum memory in MB allocated for the history, the history is shortened to fit"),
+            new FlaggedOption("slowLinkDecimation", JSAP.INTEGER_PARSER, "10", JSAP.NOT_REQUIRED, 's', "slowLinkDecimation",
+                  "Only send one packet in N to the slow link session, 0 disables the slow link session") });
+      JSAPResult config = jsap.parse(args);
+      if (jsap.messagePrinted())
+      {
+         System.out.println(jsap.getUsage());
+         System.out.println(jsap.getHelp());
+         System.exit(-1);
+      }
+
+      AnnounceRequest session;
+      if (config.getString("robotHost") != null)
+      {
+         session = new LogSessionDisplay().getAnnounceRequestByIP(config.getString("robotHost"));
+      }
+      else
+      {
+         session = LogSessionDisplay.getAnnounceRequest();
+      }
+
+      InetAddress relayAddress;
+      if (config.getString("relayHost") != null)
+      {
+         relayAddress = LogUtils.getMyIP(config.getString("relayHost"));
+      }
+      else
+      {
+         relayAddress = LogUtils.getMyIP(session.getDataIP());
+      }
+
+      LogStreamRelay relay = new LogStreamRelay(session, relayAddress, config.getDouble("history"), config.getLong("historySize") * 1024L * 1024L,
+                                                 config.getInt("slowLinkDecimation"));
+      relay.start();
+   }
+}
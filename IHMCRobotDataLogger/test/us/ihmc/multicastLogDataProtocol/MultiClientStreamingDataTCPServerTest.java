@@ -0,0 +1,316 @@
+package us.ihmc.multicastLogDataProtocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.multicastLogDataProtocol.control.LogHandshake;
+
+public class MultiClientStreamingDataTCPServerTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testStreamingToManyClientsWithDecimation() throws IOException, InterruptedException
+   {
+      int numberOfClients = 12;
+      int numberOfPackets = 40;
+
+      MultiClientStreamingDataTCPServer server = new MultiClientStreamingDataTCPServer(0, 8, numberOfPackets);
+      server.start();
+
+      SocketChannel[] clients = new SocketChannel[numberOfClients];
+      for (int i = 0; i < numberOfClients; i++)
+      {
+         clients[i] = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+         ByteBuffer request = ByteBuffer.allocate(2);
+         request.put(LogHandshake.STREAM_REQUEST);
+         request.put((byte) (i % 3 == 0 ? 2 : 1));
+         request.flip();
+         clients[i].write(request);
+      }
+
+      while (server.getNumberOfStreamingClients() < numberOfClients)
+      {
+         Thread.sleep(1);
+      }
+      assertEquals(numberOfClients, server.getUDPAddresses().length);
+
+      ByteBuffer data = ByteBuffer.allocateDirect(8);
+      for (int i = 0; i < numberOfPackets; i++)
+      {
+         data.clear();
+         data.putLong((long) i);
+         data.flip();
+         server.send(data);
+         assertEquals(0, data.position());
+      }
+
+      ByteBuffer received = ByteBuffer.allocate(8);
+      for (int i = 0; i < numberOfClients; i++)
+      {
+         int sendEveryNTicks = i % 3 == 0 ? 2 : 1;
+         for (int packet = 0; packet < numberOfPackets; packet += sendEveryNTicks)
+         {
+            received.clear();
+            while (received.hasRemaining())
+            {
+               clients[i].read(received);
+            }
+            received.flip();
+            assertEquals(packet, received.getLong());
+         }
+         clients[i].close();
+      }
+
+      while (server.getNumberOfStreamingClients() > 0)
+      {
+         Thread.sleep(1);
+      }
+
+      assertEquals(0, server.getNumberOfPacketsDroppedBeforeFanOut());
+      assertEquals(0, server.getNumberOfPacketsDroppedForSlowClients());
+      server.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testSlowClientWithSingleQueuedPacketReceivesWholePackets() throws IOException, InterruptedException
+   {
+      // Larger than the socket buffers, such that the packets are always partially written first.
+      int dataSize = 4 * 1024 * 1024;
+      MultiClientStreamingDataTCPServer server = new MultiClientStreamingDataTCPServer(0, dataSize, 1);
+      server.start();
+
+      // A small receive buffer, such that the socket buffers fill up quickly.
+      SocketChannel client = SocketChannel.open();
+      client.setOption(StandardSocketOptions.SO_RCVBUF, 64 * 1024);
+      client.connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+      ByteBuffer request = ByteBuffer.allocate(2);
+      request.put(LogHandshake.STREAM_REQUEST);
+      request.put((byte) 1);
+      request.flip();
+      client.write(request);
+
+      while (server.getNumberOfStreamingClients() < 1)
+      {
+         Thread.sleep(1);
+      }
+
+      AtomicLong lastSentPacket = new AtomicLong(-1);
+      AtomicBoolean sending = new AtomicBoolean(true);
+      Thread sender = new Thread(() ->
+      {
+         ByteBuffer data = ByteBuffer.allocateDirect(dataSize);
+         for (long packet = 0; sending.get(); packet++)
+         {
+            data.clear();
+            while (data.hasRemaining())
+            {
+               data.putLong(packet);
+            }
+            data.flip();
+            server.send(data);
+            lastSentPacket.set(packet);
+
+            try
+            {
+               Thread.sleep(1);
+            }
+            catch (InterruptedException e)
+            {
+               return;
+            }
+         }
+      });
+      sender.start();
+
+      // Do not read for a while, such that the socket buffers fill up and the head packet is partially written.
+      Thread.sleep(300);
+      assertTrue(server.getNumberOfPacketsDroppedForSlowClients() > 0);
+
+      long packetsToReceiveUntil = lastSentPacket.get() + 20;
+      long previousPacket = -1;
+      ByteBuffer received = ByteBuffer.allocate(dataSize);
+      while (previousPacket < packetsToReceiveUntil)
+      {
+         received.clear();
+         while (received.hasRemaining())
+         {
+            client.read(received);
+         }
+         received.flip();
+
+         long packet = received.getLong();
+         assertTrue(packet > previousPacket);
+         while (received.hasRemaining())
+         {
+            assertEquals(packet, received.getLong());
+         }
+         previousPacket = packet;
+      }
+
+      sending.set(false);
+      sender.join();
+      client.close();
+      server.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testStalledClientsDoNotStarveFastClient() throws IOException, InterruptedException
+   {
+      // Larger than the socket buffers, such that the stalled clients hold on to a full queue of packets.
+      int dataSize = 256 * 1024;
+      int bufferLength = 4;
+      int numberOfPackets = 100;
+      int[] stalledClientsSendEveryNTicks = {1, 2, 3, 5};
+
+      MultiClientStreamingDataTCPServer server = new MultiClientStreamingDataTCPServer(0, dataSize, bufferLength);
+      server.start();
+
+      SocketChannel[] stalledClients = new SocketChannel[stalledClientsSendEveryNTicks.length];
+      for (int i = 0; i < stalledClients.length; i++)
+      {
+         stalledClients[i] = SocketChannel.open();
+         stalledClients[i].setOption(StandardSocketOptions.SO_RCVBUF, 64 * 1024);
+         stalledClients[i].connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+         requestStream(stalledClients[i], stalledClientsSendEveryNTicks[i]);
+      }
+      SocketChannel fastClient = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+      requestStream(fastClient, 1);
+
+      while (server.getNumberOfStreamingClients() < stalledClients.length + 1)
+      {
+         Thread.sleep(1);
+      }
+
+      ByteBuffer data = ByteBuffer.allocateDirect(dataSize);
+      ByteBuffer received = ByteBuffer.allocate(dataSize);
+      for (long packet = 0; packet < numberOfPackets; packet++)
+      {
+         data.clear();
+         data.putLong(packet);
+         data.position(dataSize);
+         data.flip();
+         server.send(data);
+         assertEquals(0, server.getNumberOfPacketsDroppedBeforeFanOut());
+
+         // The fast client reads every packet before the next one is sent, the stalled clients never read.
+         received.clear();
+         while (received.hasRemaining())
+         {
+            fastClient.read(received);
+         }
+         received.flip();
+         assertEquals(packet, received.getLong());
+      }
+
+      assertTrue(server.getNumberOfPacketsDroppedForSlowClients() > 0);
+
+      for (int i = 0; i < stalledClients.length; i++)
+      {
+         stalledClients[i].close();
+      }
+      fastClient.close();
+      server.close();
+   }
+
+   private static void requestStream(SocketChannel client, int sendEveryNTicks) throws IOException
+   {
+      ByteBuffer request = ByteBuffer.allocate(2);
+      request.put(LogHandshake.STREAM_REQUEST);
+      request.put((byte) sendEveryNTicks);
+      request.flip();
+      client.write(request);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testHistoryIsReplayedToLateClients() throws IOException, InterruptedException
+   {
+      int historyLength = 10;
+      MultiClientStreamingDataTCPServer server = new MultiClientStreamingDataTCPServer(0, 8, 4);
+      server.setHistoryLength(historyLength);
+      server.start();
+
+      ByteBuffer data = ByteBuffer.allocateDirect(8);
+      for (int i = 0; i < 25; i++)
+      {
+         data.clear();
+         data.putLong((long) i);
+         data.flip();
+         server.send(data, i % 5 != 0);
+         // Give the selector thread time to take the packet, the hand-over buffer is only 4 packets long.
+         Thread.sleep(5);
+      }
+
+      SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+      ByteBuffer request = ByteBuffer.allocate(2);
+      request.put(LogHandshake.STREAM_REQUEST);
+      request.put((byte) 1);
+      request.flip();
+      client.write(request);
+
+      ByteBuffer received = ByteBuffer.allocate(8);
+      // Every fifth packet is not added to the history.
+      long[] expected = {13, 14, 16, 17, 18, 19, 21, 22, 23, 24};
+      for (int i = 0; i < expected.length; i++)
+      {
+         received.clear();
+         while (received.hasRemaining())
+         {
+            client.read(received);
+         }
+         received.flip();
+         assertEquals(expected[i], received.getLong());
+      }
+
+      client.close();
+      server.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testHandshake() throws IOException
+   {
+      ByteBuffer handshake = ByteBuffer.allocate(100000);
+      for (int i = 0; i < handshake.capacity(); i++)
+      {
+         handshake.put((byte) i);
+      }
+
+      MultiClientStreamingDataTCPServer server = new MultiClientStreamingDataTCPServer(0, handshake, 8, 4);
+      server.start();
+
+      SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+      ByteBuffer request = ByteBuffer.allocate(1);
+      request.put(LogHandshake.HANDSHAKE_REQUEST);
+      request.flip();
+      client.write(request);
+
+      ByteBuffer received = ByteBuffer.allocate(handshake.capacity() + 1);
+      while (client.read(received) != -1)
+      {
+      }
+      received.flip();
+
+      assertEquals(handshake.capacity(), received.remaining());
+      for (int i = 0; i < handshake.capacity(); i++)
+      {
+         assertEquals((byte) i, received.get());
+      }
+
+      client.close();
+      server.close();
+   }
+}
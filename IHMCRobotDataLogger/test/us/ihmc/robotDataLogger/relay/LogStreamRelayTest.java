@@ -0,0 +1,180 @@
+package us.ihmc.robotDataLogger.relay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.multicastLogDataProtocol.MultiClientStreamingDataTCPServer;
+import us.ihmc.multicastLogDataProtocol.broadcast.AnnounceRequest;
+import us.ihmc.multicastLogDataProtocol.control.LogHandshake;
+import us.ihmc.robotDataLogger.LogDataHeader;
+import us.ihmc.robotDataLogger.YoVariableHandShakeBuilder;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+
+public class LogStreamRelayTest
+{
+   private static final double DT = 0.001;
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testLateClientsReceiveTheHistory() throws IOException, InterruptedException
+   {
+      int numberOfPackets = 60;
+      double historyDuration = 0.02;
+      int historyLength = 20;
+      int slowLinkDecimation = 4;
+
+      YoVariableRegistry registry = new YoVariableRegistry("robot");
+      for (int i = 0; i < 10; i++)
+      {
+         new DoubleYoVariable("variable" + i, registry);
+      }
+      YoVariableHandShakeBuilder handshakeBuilder = new YoVariableHandShakeBuilder(null, DT);
+      handshakeBuilder.addRegistry(registry, new ArrayList<YoVariable<?>>());
+
+      int dataSize = LogDataHeader.length() + 8;
+      MultiClientStreamingDataTCPServer upstream = new MultiClientStreamingDataTCPServer(0, handshakeBuilder, null, null, dataSize, 128);
+      upstream.start();
+
+      InetAddress loopback = InetAddress.getByName("127.0.0.1");
+      AnnounceRequest session = new AnnounceRequest();
+      session.setName("robot");
+      session.setDataIP(loopback.getAddress());
+      session.setDataPort(upstream.getPort());
+      session.setControlIP(loopback.getAddress());
+      session.setControlPort(upstream.getPort());
+
+      LogStreamRelay relay = new LogStreamRelay(session, loopback, historyDuration, LogStreamRelay.DEFAULT_MAXIMUM_HISTORY_SIZE, slowLinkDecimation, false);
+      relay.start();
+
+      while (upstream.getNumberOfStreamingClients() < 1)
+      {
+         Thread.sleep(1);
+      }
+
+      LogDataHeader header = new LogDataHeader();
+      ByteBuffer data = ByteBuffer.allocateDirect(dataSize);
+      for (int i = 0; i < numberOfPackets; i++)
+      {
+         header.setUid(i);
+         header.setTimestamp(i);
+         header.setType(LogDataHeader.DATA_PACKET);
+         header.setDataSize(8);
+         header.setCrc32(0);
+
+         data.clear();
+         header.writeBuffer(0, data);
+         data.position(LogDataHeader.length());
+         data.putLong((long) i);
+         data.flip();
+         upstream.send(data);
+         Thread.sleep(1);
+      }
+
+      while (relay.getNumberOfPacketsReceived() < numberOfPackets)
+      {
+         Thread.sleep(1);
+      }
+      // Give the selector threads of the relay time to add the last packets to the history.
+      Thread.sleep(100);
+
+      long[] expected = new long[historyLength];
+      for (int i = 0; i < historyLength; i++)
+      {
+         expected[i] = numberOfPackets - historyLength + i;
+      }
+      assertReceives(relay.getPort(), expected);
+
+      // The slow link relays packets 0, 4, 8, ... and keeps historyLength / slowLinkDecimation of them.
+      long[] expectedSlowLink = new long[historyLength / slowLinkDecimation];
+      for (int i = 0; i < expectedSlowLink.length; i++)
+      {
+         expectedSlowLink[i] = numberOfPackets - historyLength + i * slowLinkDecimation;
+      }
+      assertReceives(relay.getSlowLinkPort(), expectedSlowLink);
+
+      relay.close();
+      upstream.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testHistoryIsShortenedToFitInTheMaximumSize()
+   {
+      int dataSize = 1000;
+      assertEquals(5000, LogStreamRelay.computeHistoryLength(5000, dataSize, Long.MAX_VALUE, 10));
+      assertEquals(5000, LogStreamRelay.computeHistoryLength(5000, dataSize, 2L * 5000 * dataSize, 0));
+      assertEquals(2500, LogStreamRelay.computeHistoryLength(5000, dataSize, 2L * 2500 * dataSize, 0));
+      // The slow link session keeps one in slowLinkDecimation packets of the history of the full rate session.
+      assertEquals(2000, LogStreamRelay.computeHistoryLength(5000, dataSize, 2L * (2000 + 500) * dataSize, 4));
+      assertEquals(0, LogStreamRelay.computeHistoryLength(5000, dataSize, 0, 10));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testNegativeHistoryDurationIsRejected()
+   {
+      new LogStreamRelay(new AnnounceRequest(), null, -1.0, LogStreamRelay.DEFAULT_MAXIMUM_HISTORY_SIZE, 10);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testNegativeMaximumHistorySizeIsRejected()
+   {
+      new LogStreamRelay(new AnnounceRequest(), null, 5.0, -1, 10);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testNegativeSlowLinkDecimationIsRejected()
+   {
+      new LogStreamRelay(new AnnounceRequest(), null, 5.0, LogStreamRelay.DEFAULT_MAXIMUM_HISTORY_SIZE, -1);
+   }
+
+   private static void assertReceives(int port, long[] expectedTimestamps) throws IOException
+   {
+      SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+      ByteBuffer request = ByteBuffer.allocate(2);
+      request.put(LogHandshake.STREAM_REQUEST);
+      request.put((byte) 1);
+      request.flip();
+      client.write(request);
+
+      LogDataHeader header = new LogDataHeader();
+      ByteBuffer headerBuffer = ByteBuffer.allocate(LogDataHeader.length());
+      ByteBuffer payload = ByteBuffer.allocate(8);
+      for (int i = 0; i < expectedTimestamps.length; i++)
+      {
+         headerBuffer.clear();
+         while (headerBuffer.hasRemaining())
+         {
+            client.read(headerBuffer);
+         }
+         headerBuffer.flip();
+         assertTrue(header.readBuffer(headerBuffer));
+         assertEquals(expectedTimestamps[i], header.getTimestamp());
+         assertEquals(8, header.getDataSize());
+
+         payload.clear();
+         while (payload.hasRemaining())
+         {
+            client.read(payload);
+         }
+         payload.flip();
+         assertEquals(expectedTimestamps[i], payload.getLong());
+      }
+
+      client.close();
+   }
+}
@@ -0,0 +1,1016 @@
+package us.ihmc.robotics.robotDescription;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import us.ihmc.euclid.geometry.LineSegment3D;
+import us.ihmc.euclid.matrix.RotationMatrix;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DReadOnly;
+import us.ihmc.graphicsDescription.Graphics3DObject;
+import us.ihmc.graphicsDescription.MeshDataHolder;
+import us.ihmc.graphicsDescription.TexCoord2f;
+import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
+import us.ihmc.graphicsDescription.appearance.SDFAppearance;
+import us.ihmc.graphicsDescription.appearance.YoAppearanceMaterial;
+import us.ihmc.graphicsDescription.appearance.YoAppearanceRGBColor;
+import us.ihmc.graphicsDescription.appearance.YoAppearanceTexture;
+import us.ihmc.graphicsDescription.instructions.ConeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CubeGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.CylinderGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.EllipsoidGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddMeshDataInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddModelFileInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.Graphics3DPrimitiveInstruction;
+import us.ihmc.graphicsDescription.instructions.SphereGraphics3DInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DIdentityInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DRotateInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DScaleInstruction;
+import us.ihmc.graphicsDescription.instructions.primitives.Graphics3DTranslateInstruction;
+import us.ihmc.robotics.Plane;
+import us.ihmc.robotics.dataStructures.MutableColor;
+import us.ihmc.robotics.lidar.LidarScanParameters;
+
+/**
+ * Compact binary encoding of a {@link RobotDescription}, used to cache the result of parsing a
+ * robot model file.
+ * <p>
+ * The whole tree is written: joints, links, inertia, collision shapes, kinematic points, sensors
+ * and the graphics instructions of the links. Model files referenced by the graphics are stored as
+ * references and are loaded by the graphics backend as usual, while mesh data held in memory is
+ * stored inline. The data is big-endian and is read from a {@link ByteBuffer}, so it can be read
+ * directly from a memory-mapped file.
+ * </p>
+ * <p>
+ * Only the description classes of this package and the graphics instructions produced by the model
+ * file loaders are supported. {@link #write(RobotDescription)} throws a {@link RuntimeException}
+ * when it finds anything else, for instance a subclass of a joint description or a height map, in
+ * which case the description cannot be cached.
+ * </p>
+ */
+public class RobotDescriptionBinaryFormat
+{
+   /** Has to be incremented every time the encoding changes. */
+   public static final int FORMAT_VERSION = 1;
+   private static final int MAGIC_NUMBER = 0x49524442; // "IRDB"
+
+   private static final byte FLOATING_JOINT = 0;
+   private static final byte FLOATING_PLANAR_JOINT = 1;
+   private static final byte PIN_JOINT = 2;
+   private static final byte SLIDER_JOINT = 3;
+   private static final byte SPRING_PIN_JOINT = 4;
+   private static final byte GENERIC_JOINT = 5;
+
+   private static final byte SPHERE = 0;
+   private static final byte CUBE = 1;
+   private static final byte CYLINDER = 2;
+   private static final byte CAPSULE = 3;
+
+   private static final byte IDENTITY = 0;
+   private static final byte TRANSLATE = 1;
+   private static final byte ROTATE = 2;
+   private static final byte SCALE = 3;
+   private static final byte MODEL_FILE = 4;
+   private static final byte CUBE_GRAPHICS = 5;
+   private static final byte CYLINDER_GRAPHICS = 6;
+   private static final byte CONE_GRAPHICS = 7;
+   private static final byte SPHERE_GRAPHICS = 8;
+   private static final byte ELLIPSOID_GRAPHICS = 9;
+   private static final byte MESH_DATA = 10;
+
+   private static final byte NO_APPEARANCE = 0;
+   private static final byte RGB_COLOR_APPEARANCE = 1;
+   private static final byte MATERIAL_APPEARANCE = 2;
+   private static final byte SDF_APPEARANCE = 3;
+   private static final byte TEXTURE_APPEARANCE = 4;
+
+   private RobotDescriptionBinaryFormat()
+   {
+   }
+
+   public static byte[] write(RobotDescription robotDescription)
+   {
+      try
+      {
+         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(1 << 16);
+         DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+
+         output.writeInt(MAGIC_NUMBER);
+         output.writeInt(FORMAT_VERSION);
+         writeString(robotDescription.getName(), output);
+
+         ArrayList<JointDescription> rootJoints = robotDescription.getRootJoints();
+         output.writeInt(rootJoints.size());
+         for (int i = 0; i < rootJoints.size(); i++)
+            writeJoint(rootJoints.get(i), output);
+
+         output.flush();
+         return byteArrayOutputStream.toByteArray();
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   /**
+    * Reads a description written by {@link #write(RobotDescription)} starting at the current
+    * position of the buffer.
+    *
+    * @throws RuntimeException if the buffer does not contain a description written with the current
+    *            {@link #FORMAT_VERSION}.
+    */
+   public static RobotDescription read(ByteBuffer buffer)
+   {
+      if (buffer.getInt() != MAGIC_NUMBER)
+         throw new RuntimeException("Not a binary robot description.");
+      int formatVersion = buffer.getInt();
+      if (formatVersion != FORMAT_VERSION)
+         throw new RuntimeException("Unsupported binary robot description version: " + formatVersion + ", expected: " + FORMAT_VERSION);
+
+      RobotDescription robotDescription = new RobotDescription(readString(buffer));
+
+      int numberOfRootJoints = buffer.getInt();
+      for (int i = 0; i < numberOfRootJoints; i++)
+         robotDescription.addRootJoint(readJoint(buffer));
+
+      return robotDescription;
+   }
+
+   private static void writeJoint(JointDescription joint, DataOutputStream output) throws IOException
+   {
+      Class<?> jointClass = joint.getClass();
+
+      if (jointClass == FloatingJointDescription.class)
+      {
+         output.writeByte(FLOATING_JOINT);
+         writeString(joint.getName(), output);
+         writeString(((FloatingJointDescription) joint).getJointVariableName(), output);
+      }
+      else if (jointClass == FloatingPlanarJointDescription.class)
+      {
+         output.writeByte(FLOATING_PLANAR_JOINT);
+         writeString(joint.getName(), output);
+         output.writeByte(((FloatingPlanarJointDescription) joint).getPlane().ordinal());
+      }
+      else if (jointClass == PinJointDescription.class || jointClass == SliderJointDescription.class || jointClass == SpringPinJointDescription.class)
+      {
+         if (jointClass == PinJointDescription.class)
+            output.writeByte(PIN_JOINT);
+         else if (jointClass == SliderJointDescription.class)
+            output.writeByte(SLIDER_JOINT);
+         else
+            output.writeByte(SPRING_PIN_JOINT);
+         writeString(joint.getName(), output);
+         writeOneDoFJointProperties((OneDoFJointDescription) joint, output);
+      }
+      else if (jointClass == JointDescription.class)
+      {
+         output.writeByte(GENERIC_JOINT);
+         writeString(joint.getName(), output);
+      }
+      else
+      {
+         throw new RuntimeException("Unsupported joint description: " + jointClass.getSimpleName());
+      }
+
+      Vector3D offset = new Vector3D();
+      joint.getOffsetFromParentJoint(offset);
+      writeTuple(offset, output);
+      output.writeBoolean(joint.isDynamic());
+
+      LinkDescription link = joint.getLink();
+      output.writeBoolean(link != null);
+      if (link != null)
+         writeLink(link, output);
+
+      writeKinematicPoints(joint.getKinematicPoints(), output);
+      writeKinematicPoints(joint.getExternalForcePoints(), output);
+      writeKinematicPoints(joint.getGroundContactPoints(), output);
+
+      ArrayList<JointWrenchSensorDescription> wrenchSensors = joint.getWrenchSensors();
+      output.writeInt(wrenchSensors.size());
+      for (int i = 0; i < wrenchSensors.size(); i++)
+         writeSensor(wrenchSensors.get(i), output);
+
+      ArrayList<CameraSensorDescription> cameraSensors = joint.getCameraSensors();
+      output.writeInt(cameraSensors.size());
+      for (int i = 0; i < cameraSensors.size(); i++)
+      {
+         CameraSensorDescription cameraSensor = cameraSensors.get(i);
+         writeSensor(cameraSensor, output);
+         output.writeDouble(cameraSensor.getFieldOfView());
+         output.writeDouble(cameraSensor.getClipNear());
+         output.writeDouble(cameraSensor.getClipFar());
+         output.writeInt(cameraSensor.getImageWidth());
+         output.writeInt(cameraSensor.getImageHeight());
+      }
+
+      ArrayList<IMUSensorDescription> imuSensors = joint.getIMUSensors();
+      output.writeInt(imuSensors.size());
+      for (int i = 0; i < imuSensors.size(); i++)
+      {
+         IMUSensorDescription imuSensor = imuSensors.get(i);
+         writeSensor(imuSensor, output);
+         output.writeDouble(imuSensor.getAccelerationNoiseMean());
+         output.writeDouble(imuSensor.getAccelerationNoiseStandardDeviation());
+         output.writeDouble(imuSensor.getAccelerationBiasMean());
+         output.writeDouble(imuSensor.getAccelerationBiasStandardDeviation());
+         output.writeDouble(imuSensor.getAngularVelocityNoiseMean());
+         output.writeDouble(imuSensor.getAngularVelocityNoiseStandardDeviation());
+         output.writeDouble(imuSensor.getAngularVelocityBiasMean());
+         output.writeDouble(imuSensor.getAngularVelocityBiasStandardDeviation());
+      }
+
+      ArrayList<LidarSensorDescription> lidarSensors = joint.getLidarSensors();
+      output.writeInt(lidarSensors.size());
+      for (int i = 0; i < lidarSensors.size(); i++)
+      {
+         LidarSensorDescription lidarSensor = lidarSensors.get(i);
+         writeSensor(lidarSensor, output);
+         LidarScanParameters parameters = lidarSensor.getLidarScanParameters();
+         output.writeLong(parameters.timestamp);
+         output.writeFloat(parameters.sweepYawMax);
+         output.writeFloat(parameters.sweepYawMin);
+         output.writeFloat(parameters.heightPitchMax);
+         output.writeFloat(parameters.heightPitchMin);
+         output.writeFloat(parameters.timeIncrement);
+         output.writeFloat(parameters.scanTime);
+         output.writeFloat(parameters.minRange);
+         output.writeFloat(parameters.maxRange);
+         output.writeInt(parameters.pointsPerSweep);
+         output.writeInt(parameters.scanHeight);
+      }
+
+      ArrayList<ForceSensorDescription> forceSensors = joint.getForceSensors();
+      output.writeInt(forceSensors.size());
+      for (int i = 0; i < forceSensors.size(); i++)
+      {
+         ForceSensorDescription forceSensor = forceSensors.get(i);
+         writeSensor(forceSensor, output);
+         output.writeBoolean(forceSensor.useGroundContactPoints());
+      }
+
+      ArrayList<JointDescription> childrenJoints = joint.getChildrenJoints();
+      output.writeInt(childrenJoints.size());
+      for (int i = 0; i < childrenJoints.size(); i++)
+         writeJoint(childrenJoints.get(i), output);
+   }
+
+   private static JointDescription readJoint(ByteBuffer buffer)
+   {
+      byte jointType = buffer.get();
+      String name = readString(buffer);
+      JointDescription joint;
+
+      switch (jointType)
+      {
+      case FLOATING_JOINT:
+         joint = new FloatingJointDescription(name, readString(buffer));
+         break;
+      case FLOATING_PLANAR_JOINT:
+         joint = new FloatingPlanarJointDescription(name, Plane.values()[buffer.get()]);
+         break;
+      case PIN_JOINT:
+      case SLIDER_JOINT:
+      case SPRING_PIN_JOINT:
+         joint = readOneDoFJoint(jointType, name, buffer);
+         break;
+      case GENERIC_JOINT:
+         joint = new JointDescription(name, new Vector3D());
+         break;
+      default:
+         throw new RuntimeException("Unknown joint type: " + jointType);
+      }
+
+      joint.setOffsetFromParentJoint(readVector(buffer));
+      joint.setIsDynamic(buffer.get() != 0);
+
+      if (buffer.get() != 0)
+         joint.setLink(readLink(buffer));
+
+      int numberOfKinematicPoints = buffer.getInt();
+      for (int i = 0; i < numberOfKinematicPoints; i++)
+         joint.addKinematicPoint(new KinematicPointDescription(readString(buffer), readVector(buffer)));
+      int numberOfExternalForcePoints = buffer.getInt();
+      for (int i = 0; i < numberOfExternalForcePoints; i++)
+         joint.addExternalForcePoint(new ExternalForcePointDescription(readString(buffer), readVector(buffer)));
+      int numberOfGroundContactPoints = buffer.getInt();
+      for (int i = 0; i < numberOfGroundContactPoints; i++)
+         joint.addGroundContactPoint(new GroundContactPointDescription(readString(buffer), readVector(buffer)));
+
+      int numberOfWrenchSensors = buffer.getInt();
+      for (int i = 0; i < numberOfWrenchSensors; i++)
+         joint.addJointWrenchSensor(new JointWrenchSensorDescription(readString(buffer), readTransform(buffer)));
+
+      int numberOfCameraSensors = buffer.getInt();
+      for (int i = 0; i < numberOfCameraSensors; i++)
+      {
+         CameraSensorDescription cameraSensor = new CameraSensorDescription(readString(buffer), readTransform(buffer));
+         cameraSensor.setFieldOfView(buffer.getDouble());
+         cameraSensor.setClipNear(buffer.getDouble());
+         cameraSensor.setClipFar(buffer.getDouble());
+         cameraSensor.setImageWidth(buffer.getInt());
+         cameraSensor.setImageHeight(buffer.getInt());
+         joint.addCameraSensor(cameraSensor);
+      }
+
+      int numberOfIMUSensors = buffer.getInt();
+      for (int i = 0; i < numberOfIMUSensors; i++)
+      {
+         IMUSensorDescription imuSensor = new IMUSensorDescription(readString(buffer), readTransform(buffer));
+         imuSensor.setAccelerationNoiseParameters(buffer.getDouble(), buffer.getDouble());
+         imuSensor.setAccelerationBiasParameters(buffer.getDouble(), buffer.getDouble());
+         imuSensor.setAngularVelocityNoiseParameters(buffer.getDouble(), buffer.getDouble());
+         imuSensor.setAngularVelocityBiasParameters(buffer.getDouble(), buffer.getDouble());
+         joint.addIMUSensor(imuSensor);
+      }
+
+      int numberOfLidarSensors = buffer.getInt();
+      for (int i = 0; i < numberOfLidarSensors; i++)
+      {
+         String sensorName = readString(buffer);
+         RigidBodyTransform transformToJoint = readTransform(buffer);
+         LidarScanParameters parameters = new LidarScanParameters();
+         parameters.timestamp = buffer.getLong();
+         parameters.sweepYawMax = buffer.getFloat();
+         parameters.sweepYawMin = buffer.getFloat();
+         parameters.heightPitchMax = buffer.getFloat();
+         parameters.heightPitchMin = buffer.getFloat();
+         parameters.timeIncrement = buffer.getFloat();
+         parameters.scanTime = buffer.getFloat();
+         parameters.minRange = buffer.getFloat();
+         parameters.maxRange = buffer.getFloat();
+         parameters.pointsPerSweep = buffer.getInt();
+         parameters.scanHeight = buffer.getInt();
+         joint.addLidarSensor(new LidarSensorDescription(sensorName, transformToJoint, parameters));
+      }
+
+      int numberOfForceSensors = buffer.getInt();
+      for (int i = 0; i < numberOfForceSensors; i++)
+      {
+         ForceSensorDescription forceSensor = new ForceSensorDescription(readString(buffer), readTransform(buffer));
+         forceSensor.setUseGroundContactPoints(buffer.get() != 0);
+         joint.addForceSensor(forceSensor);
+      }
+
+      int numberOfChildren = buffer.getInt();
+      for (int i = 0; i < numberOfChildren; i++)
+         joint.addJoint(readJoint(buffer));
+
+      return joint;
+   }
+
+   private static void writeOneDoFJointProperties(OneDoFJointDescription joint, DataOutputStream output) throws IOException
+   {
+      Vector3D jointAxis = new Vector3D();
+      joint.getJointAxis(jointAxis);
+      writeTuple(jointAxis, output);
+
+      output.writeBoolean(joint.containsLimitStops());
+      if (joint.containsLimitStops())
+      {
+         double[] limitStopParameters = joint.getLimitStopParameters();
+         for (int i = 0; i < limitStopParameters.length; i++)
+            output.writeDouble(limitStopParameters[i]);
+      }
+
+      output.writeDouble(joint.getEffortLimit());
+      output.writeDouble(joint.getVelocityLimit());
+      output.writeDouble(joint.getVelocityDamping());
+      output.writeDouble(joint.getDamping());
+      output.writeDouble(joint.getStiction());
+   }
+
+   private static OneDoFJointDescription readOneDoFJoint(byte jointType, String name, ByteBuffer buffer)
+   {
+      Vector3D offset = new Vector3D();
+      Vector3D jointAxis = readVector(buffer);
+      OneDoFJointDescription joint;
+
+      if (jointType == PIN_JOINT)
+         joint = new PinJointDescription(name, offset, jointAxis);
+      else if (jointType == SLIDER_JOINT)
+         joint = new SliderJointDescription(name, offset, jointAxis);
+      else
+         joint = new SpringPinJointDescription(name, offset, jointAxis);
+
+      if (buffer.get() != 0)
+         joint.setLimitStops(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+
+      joint.setEffortLimit(buffer.getDouble());
+      joint.setVelocityLimits(buffer.getDouble(), buffer.getDouble());
+      joint.setDamping(buffer.getDouble());
+      joint.setStiction(buffer.getDouble());
+
+      return joint;
+   }
+
+   private static void writeLink(LinkDescription link, DataOutputStream output) throws IOException
+   {
+      writeString(link.getName(), output);
+      output.writeDouble(link.getMass());
+      writeTuple(link.getCenterOfMassOffset(), output);
+
+      double[] momentOfInertia = link.getMomentOfInertia().getData();
+      for (int i = 0; i < 9; i++)
+         output.writeDouble(momentOfInertia[i]);
+
+      LinkGraphicsDescription linkGraphics = link.getLinkGraphics();
+      output.writeBoolean(linkGraphics != null);
+      if (linkGraphics != null)
+         writeGraphics(linkGraphics, output);
+
+      ArrayList<CollisionMeshDescription> collisionMeshes = link.getCollisionMeshes();
+      output.writeInt(collisionMeshes.size());
+      for (int i = 0; i < collisionMeshes.size(); i++)
+         writeCollisionMesh(collisionMeshes.get(i), output);
+   }
+
+   private static LinkDescription readLink(ByteBuffer buffer)
+   {
+      LinkDescription link = new LinkDescription(readString(buffer));
+      link.setMass(buffer.getDouble());
+      link.setCenterOfMassOffset(readVector(buffer));
+
+      double[] momentOfInertia = link.getMomentOfInertia().getData();
+      for (int i = 0; i < 9; i++)
+         momentOfInertia[i] = buffer.getDouble();
+
+      if (buffer.get() != 0)
+      {
+         LinkGraphicsDescription linkGraphics = new LinkGraphicsDescription();
+         readGraphics(linkGraphics, buffer);
+         link.setLinkGraphics(linkGraphics);
+      }
+
+      int numberOfCollisionMeshes = buffer.getInt();
+      for (int i = 0; i < numberOfCollisionMeshes; i++)
+         link.addCollisionMesh(readCollisionMesh(buffer));
+
+      return link;
+   }
+
+   private static void writeCollisionMesh(CollisionMeshDescription collisionMesh, DataOutputStream output) throws IOException
+   {
+      output.writeBoolean(collisionMesh.getIsGround());
+      output.writeInt(collisionMesh.getCollisionGroup());
+      output.writeInt(collisionMesh.getCollisionMask());
+      output.writeInt(collisionMesh.getEstimatedNumberOfContactPoints());
+
+      ArrayList<ConvexShapeDescription> convexShapes = new ArrayList<>();
+      collisionMesh.getConvexShapeDescriptions(convexShapes);
+      output.writeInt(convexShapes.size());
+
+      RigidBodyTransform transform = new RigidBodyTransform();
+
+      for (int i = 0; i < convexShapes.size(); i++)
+      {
+         ConvexShapeDescription convexShape = convexShapes.get(i);
+
+         if (convexShape instanceof SphereDescriptionReadOnly)
+         {
+            SphereDescriptionReadOnly sphere = (SphereDescriptionReadOnly) convexShape;
+            output.writeByte(SPHERE);
+            output.writeDouble(sphere.getRadius());
+            sphere.getRigidBodyTransform(transform);
+            writeTransform(transform, output);
+         }
+         else if (convexShape instanceof CubeDescriptionReadOnly)
+         {
+            CubeDescriptionReadOnly cube = (CubeDescriptionReadOnly) convexShape;
+            output.writeByte(CUBE);
+            output.writeDouble(cube.getLengthX());
+            output.writeDouble(cube.getWidthY());
+            output.writeDouble(cube.getHeightZ());
+            cube.getRigidBodyTransformToCenter(transform);
+            writeTransform(transform, output);
+         }
+         else if (convexShape instanceof CylinderDescriptionReadOnly)
+         {
+            CylinderDescriptionReadOnly cylinder = (CylinderDescriptionReadOnly) convexShape;
+            output.writeByte(CYLINDER);
+            output.writeDouble(cylinder.getRadius());
+            output.writeDouble(cylinder.getHeight());
+            cylinder.getRigidBodyTransformToCenter(transform);
+            writeTransform(transform, output);
+         }
+         else if (convexShape instanceof CapsuleDescriptionReadOnly)
+         {
+            CapsuleDescriptionReadOnly capsule = (CapsuleDescriptionReadOnly) convexShape;
+            LineSegment3D capToCapLineSegment = new LineSegment3D();
+            capsule.getCapToCapLineSegment(capToCapLineSegment);
+            output.writeByte(CAPSULE);
+            output.writeDouble(capsule.getRadius());
+            writeTuple(capToCapLineSegment.getFirstEndpoint(), output);
+            writeTuple(capToCapLineSegment.getSecondEndpoint(), output);
+         }
+         else
+         {
+            throw new RuntimeException("Unsupported convex shape: " + convexShape.getClass().getSimpleName());
+         }
+      }
+   }
+
+   private static CollisionMeshDescription readCollisionMesh(ByteBuffer buffer)
+   {
+      CollisionMeshDescription collisionMesh = new CollisionMeshDescription();
+      collisionMesh.setIsGround(buffer.get() != 0);
+      collisionMesh.setCollisionGroup(buffer.getInt());
+      collisionMesh.setCollisionMask(buffer.getInt());
+      collisionMesh.setEstimatedNumberOfContactPoints(buffer.getInt());
+
+      int numberOfConvexShapes = buffer.getInt();
+      for (int i = 0; i < numberOfConvexShapes; i++)
+      {
+         byte shapeType = buffer.get();
+
+         switch (shapeType)
+         {
+         case SPHERE:
+            collisionMesh.addConvexShape(new SphereDescriptionReadOnly(buffer.getDouble(), readTransform(buffer)));
+            break;
+         case CUBE:
+            collisionMesh.addConvexShape(new CubeDescriptionReadOnly(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), readTransform(buffer)));
+            break;
+         case CYLINDER:
+            collisionMesh.addConvexShape(new CylinderDescriptionReadOnly(buffer.getDouble(), buffer.getDouble(), readTransform(buffer)));
+            break;
+         case CAPSULE:
+            double radius = buffer.getDouble();
+            LineSegment3D capToCapLineSegment = new LineSegment3D();
+            capToCapLineSegment.set(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            // The segment is already expressed with the transform applied.
+            collisionMesh.addConvexShape(new CapsuleDescriptionReadOnly(radius, capToCapLineSegment, new RigidBodyTransform()));
+            break;
+         default:
+            throw new RuntimeException("Unknown convex shape type: " + shapeType);
+         }
+      }
+
+      return collisionMesh;
+   }
+
+   private static void writeGraphics(Graphics3DObject graphics, DataOutputStream output) throws IOException
+   {
+      ArrayList<Graphics3DPrimitiveInstruction> instructions = graphics.getGraphics3DInstructions();
+      output.writeInt(instructions.size());
+
+      for (int i = 0; i < instructions.size(); i++)
+      {
+         Graphics3DPrimitiveInstruction instruction = instructions.get(i);
+         Class<?> instructionClass = instruction.getClass();
+
+         if (instructionClass == Graphics3DIdentityInstruction.class)
+         {
+            output.writeByte(IDENTITY);
+         }
+         else if (instructionClass == Graphics3DTranslateInstruction.class)
+         {
+            output.writeByte(TRANSLATE);
+            writeTuple(((Graphics3DTranslateInstruction) instruction).getTranslation(), output);
+         }
+         else if (instructionClass == Graphics3DRotateInstruction.class)
+         {
+            output.writeByte(ROTATE);
+            writeRotation(((Graphics3DRotateInstruction) instruction).getRotationMatrix(), output);
+         }
+         else if (instructionClass == Graphics3DScaleInstruction.class)
+         {
+            output.writeByte(SCALE);
+            writeTuple(((Graphics3DScaleInstruction) instruction).getScaleFactor(), output);
+         }
+         else if (instructionClass == Graphics3DAddModelFileInstruction.class)
+         {
+            Graphics3DAddModelFileInstruction modelFile = (Graphics3DAddModelFileInstruction) instruction;
+            output.writeByte(MODEL_FILE);
+            writeString(modelFile.getFileName(), output);
+            writeString(modelFile.getSubmesh(), output);
+            output.writeBoolean(modelFile.centerSubmesh());
+            writeStrings(modelFile.getResourceDirectories(), output);
+         }
+         else if (instructionClass == CubeGraphics3DInstruction.class)
+         {
+            CubeGraphics3DInstruction cube = (CubeGraphics3DInstruction) instruction;
+            output.writeByte(CUBE_GRAPHICS);
+            output.writeDouble(cube.getLength());
+            output.writeDouble(cube.getWidth());
+            output.writeDouble(cube.getHeight());
+            output.writeBoolean(cube.getCenteredInTheCenter());
+            boolean[] textureFaces = cube.getTextureFaces();
+            output.writeInt(textureFaces == null ? -1 : textureFaces.length);
+            for (int j = 0; textureFaces != null && j < textureFaces.length; j++)
+               output.writeBoolean(textureFaces[j]);
+         }
+         else if (instructionClass == CylinderGraphics3DInstruction.class)
+         {
+            CylinderGraphics3DInstruction cylinder = (CylinderGraphics3DInstruction) instruction;
+            output.writeByte(CYLINDER_GRAPHICS);
+            output.writeDouble(cylinder.getRadius());
+            output.writeDouble(cylinder.getHeight());
+            output.writeInt(cylinder.getResolution());
+         }
+         else if (instructionClass == ConeGraphics3DInstruction.class)
+         {
+            ConeGraphics3DInstruction cone = (ConeGraphics3DInstruction) instruction;
+            output.writeByte(CONE_GRAPHICS);
+            output.writeDouble(cone.getHeight());
+            output.writeDouble(cone.getRadius());
+            output.writeInt(cone.getResolution());
+         }
+         else if (instructionClass == SphereGraphics3DInstruction.class)
+         {
+            SphereGraphics3DInstruction sphere = (SphereGraphics3DInstruction) instruction;
+            output.writeByte(SPHERE_GRAPHICS);
+            output.writeDouble(sphere.getRadius());
+            output.writeInt(sphere.getResolution());
+         }
+         else if (instructionClass == EllipsoidGraphics3DInstruction.class)
+         {
+            EllipsoidGraphics3DInstruction ellipsoid = (EllipsoidGraphics3DInstruction) instruction;
+            output.writeByte(ELLIPSOID_GRAPHICS);
+            output.writeDouble(ellipsoid.getXRadius());
+            output.writeDouble(ellipsoid.getYRadius());
+            output.writeDouble(ellipsoid.getZRadius());
+            output.writeInt(ellipsoid.getResolution());
+         }
+         else if (instructionClass == Graphics3DAddMeshDataInstruction.class)
+         {
+            output.writeByte(MESH_DATA);
+            writeMeshData(((Graphics3DAddMeshDataInstruction) instruction).getMeshData(), output);
+         }
+         else
+         {
+            throw new RuntimeException("Unsupported graphics instruction: " + instructionClass.getSimpleName());
+         }
+
+         if (instruction instanceof Graphics3DInstruction)
+            writeAppearance(((Graphics3DInstruction) instruction).getAppearance(), output);
+      }
+   }
+
+   private static void readGraphics(Graphics3DObject graphics, ByteBuffer buffer)
+   {
+      int numberOfInstructions = buffer.getInt();
+
+      for (int i = 0; i < numberOfInstructions; i++)
+      {
+         byte instructionType = buffer.get();
+         Graphics3DInstruction instructionWithAppearance;
+
+         switch (instructionType)
+         {
+         case IDENTITY:
+            graphics.addInstruction(new Graphics3DIdentityInstruction());
+            continue;
+         case TRANSLATE:
+            graphics.addInstruction(new Graphics3DTranslateInstruction(readVector(buffer)));
+            continue;
+         case ROTATE:
+            graphics.addInstruction(new Graphics3DRotateInstruction(readRotation(buffer)));
+            continue;
+         case SCALE:
+            graphics.addInstruction(new Graphics3DScaleInstruction(readVector(buffer)));
+            continue;
+         case MODEL_FILE:
+            String fileName = readString(buffer);
+            String submesh = readString(buffer);
+            boolean centerSubmesh = buffer.get() != 0;
+            List<String> resourceDirectories = readStrings(buffer);
+            instructionWithAppearance = new Graphics3DAddModelFileInstruction(fileName, submesh, centerSubmesh, null, resourceDirectories);
+            break;
+         case CUBE_GRAPHICS:
+            CubeGraphics3DInstruction cube = new CubeGraphics3DInstruction(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.get() != 0);
+            int numberOfTextureFaces = buffer.getInt();
+            if (numberOfTextureFaces >= 0)
+            {
+               boolean[] textureFaces = new boolean[numberOfTextureFaces];
+               for (int j = 0; j < numberOfTextureFaces; j++)
+                  textureFaces[j] = buffer.get() != 0;
+               cube.setTextureFaces(textureFaces);
+            }
+            instructionWithAppearance = cube;
+            break;
+         case CYLINDER_GRAPHICS:
+            instructionWithAppearance = new CylinderGraphics3DInstruction(buffer.getDouble(), buffer.getDouble(), buffer.getInt());
+            break;
+         case CONE_GRAPHICS:
+            instructionWithAppearance = new ConeGraphics3DInstruction(buffer.getDouble(), buffer.getDouble(), buffer.getInt());
+            break;
+         case SPHERE_GRAPHICS:
+            instructionWithAppearance = new SphereGraphics3DInstruction(buffer.getDouble(), buffer.getInt());
+            break;
+         case ELLIPSOID_GRAPHICS:
+            instructionWithAppearance = new EllipsoidGraphics3DInstruction(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getInt());
+            break;
+         case MESH_DATA:
+            instructionWithAppearance = new Graphics3DAddMeshDataInstruction(readMeshData(buffer), null);
+            break;
+         default:
+            throw new RuntimeException("Unknown graphics instruction type: " + instructionType);
+         }
+
+         instructionWithAppearance.setAppearance(readAppearance(buffer));
+         graphics.addInstruction(instructionWithAppearance);
+      }
+   }
+
+   private static void writeMeshData(MeshDataHolder meshData, DataOutputStream output) throws IOException
+   {
+      writeString(meshData.getName(), output);
+
+      Point3D32[] vertices = meshData.getVertices();
+      output.writeInt(vertices == null ? -1 : vertices.length);
+      for (int i = 0; vertices != null && i < vertices.length; i++)
+      {
+         output.writeFloat(vertices[i].getX32());
+         output.writeFloat(vertices[i].getY32());
+         output.writeFloat(vertices[i].getZ32());
+      }
+
+      TexCoord2f[] texturePoints = meshData.getTexturePoints();
+      output.writeInt(texturePoints == null ? -1 : texturePoints.length);
+      for (int i = 0; texturePoints != null && i < texturePoints.length; i++)
+      {
+         output.writeFloat(texturePoints[i].x);
+         output.writeFloat(texturePoints[i].y);
+      }
+
+      int[] triangleIndices = meshData.getTriangleIndices();
+      output.writeInt(triangleIndices == null ? -1 : triangleIndices.length);
+      for (int i = 0; triangleIndices != null && i < triangleIndices.length; i++)
+         output.writeInt(triangleIndices[i]);
+
+      Vector3D32[] vertexNormals = meshData.getVertexNormals();
+      output.writeInt(vertexNormals == null ? -1 : vertexNormals.length);
+      for (int i = 0; vertexNormals != null && i < vertexNormals.length; i++)
+      {
+         output.writeFloat(vertexNormals[i].getX32());
+         output.writeFloat(vertexNormals[i].getY32());
+         output.writeFloat(vertexNormals[i].getZ32());
+      }
+   }
+
+   private static MeshDataHolder readMeshData(ByteBuffer buffer)
+   {
+      String name = readString(buffer);
+
+      Point3D32[] vertices = null;
+      int numberOfVertices = buffer.getInt();
+      if (numberOfVertices >= 0)
+      {
+         vertices = new Point3D32[numberOfVertices];
+         for (int i = 0; i < numberOfVertices; i++)
+            vertices[i] = new Point3D32(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+      }
+
+      TexCoord2f[] texturePoints = null;
+      int numberOfTexturePoints = buffer.getInt();
+      if (numberOfTexturePoints >= 0)
+      {
+         texturePoints = new TexCoord2f[numberOfTexturePoints];
+         for (int i = 0; i < numberOfTexturePoints; i++)
+            texturePoints[i] = new TexCoord2f(buffer.getFloat(), buffer.getFloat());
+      }
+
+      int[] triangleIndices = null;
+      int numberOfTriangleIndices = buffer.getInt();
+      if (numberOfTriangleIndices >= 0)
+      {
+         triangleIndices = new int[numberOfTriangleIndices];
+         buffer.asIntBuffer().get(triangleIndices);
+         buffer.position(buffer.position() + 4 * numberOfTriangleIndices);
+      }
+
+      Vector3D32[] vertexNormals = null;
+      int numberOfVertexNormals = buffer.getInt();
+      if (numberOfVertexNormals >= 0)
+      {
+         vertexNormals = new Vector3D32[numberOfVertexNormals];
+         for (int i = 0; i < numberOfVertexNormals; i++)
+            vertexNormals[i] = new Vector3D32(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+      }
+
+      MeshDataHolder meshData = new MeshDataHolder(vertices, texturePoints, triangleIndices, vertexNormals);
+      meshData.setName(name);
+      return meshData;
+   }
+
+   private static void writeAppearance(AppearanceDefinition appearance, DataOutputStream output) throws IOException
+   {
+      if (appearance == null)
+      {
+         output.writeByte(NO_APPEARANCE);
+         return;
+      }
+
+      Class<?> appearanceClass = appearance.getClass();
+
+      if (appearanceClass == YoAppearanceRGBColor.class)
+      {
+         output.writeByte(RGB_COLOR_APPEARANCE);
+         writeColor(((YoAppearanceRGBColor) appearance).getColor(), output);
+      }
+      else if (appearanceClass == YoAppearanceMaterial.class)
+      {
+         YoAppearanceMaterial material = (YoAppearanceMaterial) appearance;
+         output.writeByte(MATERIAL_APPEARANCE);
+         writeColor(material.getAmbientColor(), output);
+         writeColor(material.getDiffuseColor(), output);
+         writeColor(material.getSpecularColor(), output);
+         output.writeFloat(material.getShininess());
+      }
+      else if (appearanceClass == SDFAppearance.class)
+      {
+         SDFAppearance sdfAppearance = (SDFAppearance) appearance;
+         output.writeByte(SDF_APPEARANCE);
+         writeStrings(sdfAppearance.getUrls(), output);
+         writeString(sdfAppearance.getName(), output);
+         writeStrings(sdfAppearance.getResourceDirectories(), output);
+      }
+      else if (appearanceClass == YoAppearanceTexture.class && ((YoAppearanceTexture) appearance).getPath() != null)
+      {
+         output.writeByte(TEXTURE_APPEARANCE);
+         writeString(((YoAppearanceTexture) appearance).getPath(), output);
+      }
+      else
+      {
+         throw new RuntimeException("Unsupported appearance: " + appearanceClass.getSimpleName());
+      }
+
+      output.writeDouble(appearance.getTransparency());
+   }
+
+   private static AppearanceDefinition readAppearance(ByteBuffer buffer)
+   {
+      byte appearanceType = buffer.get();
+      AppearanceDefinition appearance;
+
+      switch (appearanceType)
+      {
+      case NO_APPEARANCE:
+         return null;
+      case RGB_COLOR_APPEARANCE:
+         appearance = new YoAppearanceRGBColor(readColor(buffer), 0.0);
+         break;
+      case MATERIAL_APPEARANCE:
+         YoAppearanceMaterial material = new YoAppearanceMaterial();
+         material.setAmbientColor(readColor(buffer));
+         material.setDiffuseColor(readColor(buffer));
+         material.setSpecularColor(readColor(buffer));
+         material.setShininess(buffer.getFloat());
+         appearance = material;
+         break;
+      case SDF_APPEARANCE:
+         ArrayList<String> urls = readStrings(buffer);
+         String name = readString(buffer);
+         appearance = new SDFAppearance(urls, name, readStrings(buffer));
+         break;
+      case TEXTURE_APPEARANCE:
+         appearance = new YoAppearanceTexture(readString(buffer));
+         break;
+      default:
+         throw new RuntimeException("Unknown appearance type: " + appearanceType);
+      }
+
+      appearance.setTransparency(buffer.getDouble());
+      return appearance;
+   }
+
+   private static void writeKinematicPoints(List<? extends KinematicPointDescription> kinematicPoints, DataOutputStream output) throws IOException
+   {
+      output.writeInt(kinematicPoints.size());
+      for (int i = 0; i < kinematicPoints.size(); i++)
+      {
+         writeString(kinematicPoints.get(i).getName(), output);
+         writeTuple(kinematicPoints.get(i).getOffsetFromJoint(), output);
+      }
+   }
+
+   private static void writeSensor(SensorDescription sensor, DataOutputStream output) throws IOException
+   {
+      writeString(sensor.getName(), output);
+      writeTransform(sensor.getTransformToJoint(), output);
+   }
+
+   private static void writeTransform(RigidBodyTransform transform, DataOutputStream output) throws IOException
+   {
+      output.writeDouble(transform.getM00());
+      output.writeDouble(transform.getM01());
+      output.writeDouble(transform.getM02());
+      output.writeDouble(transform.getM03());
+      output.writeDouble(transform.getM10());
+      output.writeDouble(transform.getM11());
+      output.writeDouble(transform.getM12());
+      output.writeDouble(transform.getM13());
+      output.writeDouble(transform.getM20());
+      output.writeDouble(transform.getM21());
+      output.writeDouble(transform.getM22());
+      output.writeDouble(transform.getM23());
+   }
+
+   private static RigidBodyTransform readTransform(ByteBuffer buffer)
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.set(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                    buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+      return transform;
+   }
+
+   private static void writeRotation(RotationMatrix rotation, DataOutputStream output) throws IOException
+   {
+      output.writeDouble(rotation.getM00());
+      output.writeDouble(rotation.getM01());
+      output.writeDouble(rotation.getM02());
+      output.writeDouble(rotation.getM10());
+      output.writeDouble(rotation.getM11());
+      output.writeDouble(rotation.getM12());
+      output.writeDouble(rotation.getM20());
+      output.writeDouble(rotation.getM21());
+      output.writeDouble(rotation.getM22());
+   }
+
+   private static RotationMatrix readRotation(ByteBuffer buffer)
+   {
+      RotationMatrix rotation = new RotationMatrix();
+      rotation.set(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                   buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+      return rotation;
+   }
+
+   private static void writeTuple(Tuple3DReadOnly tuple, DataOutputStream output) throws IOException
+   {
+      output.writeDouble(tuple.getX());
+      output.writeDouble(tuple.getY());
+      output.writeDouble(tuple.getZ());
+   }
+
+   private static Vector3D readVector(ByteBuffer buffer)
+   {
+      return new Vector3D(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+   }
+
+   private static void writeColor(MutableColor color, DataOutputStream output) throws IOException
+   {
+      output.writeFloat(color.x);
+      output.writeFloat(color.y);
+      output.writeFloat(color.z);
+   }
+
+   private static MutableColor readColor(ByteBuffer buffer)
+   {
+      return new MutableColor(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+   }
+
+   private static void writeStrings(List<String> strings, DataOutputStream output) throws IOException
+   {
+      output.writeInt(strings == null ? -1 : strings.size());
+      for (int i = 0; strings != null && i < strings.size(); i++)
+         writeString(strings.get(i), output);
+   }
+
+   private static ArrayList<String> readStrings(ByteBuffer buffer)
+   {
+      int numberOfStrings = buffer.getInt();
+      if (numberOfStrings < 0)
+         return null;
+
+      ArrayList<String> strings = new ArrayList<>(numberOfStrings);
+      for (int i = 0; i < numberOfStrings; i++)
+         strings.add(readString(buffer));
+      return strings;
+   }
+
+   private static void writeString(String string, DataOutputStream output) throws IOException
+   {
+      if (string == null)
+      {
+         output.writeInt(-1);
+         return;
+      }
+
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+   }
+
+   private static String readString(ByteBuffer buffer)
+   {
+      int length = buffer.getInt();
+      if (length < 0)
+         return null;
+
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+}
@@ -0,0 +1,183 @@
+package us.ihmc.robotics.robotDescription;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.LineSegment3D;
+import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.graphicsDescription.MeshDataGenerator;
+import us.ihmc.graphicsDescription.appearance.YoAppearance;
+import us.ihmc.graphicsDescription.appearance.YoAppearanceMaterial;
+import us.ihmc.graphicsDescription.instructions.Graphics3DAddModelFileInstruction;
+import us.ihmc.robotics.Axis;
+import us.ihmc.robotics.lidar.LidarScanParameters;
+
+public class RobotDescriptionBinaryFormatTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testWriteAndRead()
+   {
+      RobotDescription robotDescription = createRobotDescription();
+      byte[] data = RobotDescriptionBinaryFormat.write(robotDescription);
+
+      RobotDescription readDescription = RobotDescriptionBinaryFormat.read(ByteBuffer.wrap(data));
+
+      // Everything that is written is read back, so writing the read description gives the same data.
+      assertArrayEquals(data, RobotDescriptionBinaryFormat.write(readDescription));
+
+      assertEquals("testRobot", readDescription.getName());
+      assertEquals(1, readDescription.getRootJoints().size());
+
+      FloatingJointDescription rootJoint = (FloatingJointDescription) readDescription.getRootJoints().get(0);
+      assertEquals("rootJoint", rootJoint.getName());
+      assertEquals("root", rootJoint.getJointVariableName());
+      assertEquals(1.5, rootJoint.getLink().getMass(), 0.0);
+      assertEquals(0.3, rootJoint.getLink().getMomentOfInertia().get(2, 2), 0.0);
+      assertEquals(2, rootJoint.getGroundContactPoints().size());
+      EuclidCoreTestTools.assertTuple3DEquals(new Vector3D(0.1, -0.2, 0.0), rootJoint.getGroundContactPoints().get(1).getOffsetFromJoint(), 0.0);
+      assertEquals(1, rootJoint.getIMUSensors().size());
+      assertEquals(0.02, rootJoint.getIMUSensors().get(0).getAngularVelocityBiasStandardDeviation(), 0.0);
+
+      PinJointDescription pinJoint = (PinJointDescription) rootJoint.getChildrenJoints().get(0);
+      assertTrue(pinJoint.getParentJoint() == rootJoint);
+      assertTrue(pinJoint.containsLimitStops());
+      assertArrayEquals(new double[] {-1.0, 1.0, 100.0, 10.0}, pinJoint.getLimitStopParameters(), 0.0);
+      assertEquals(5.0, pinJoint.getVelocityLimit(), 0.0);
+      assertEquals(1, pinJoint.getLink().getCollisionMeshes().size());
+
+      ArrayList<ConvexShapeDescription> convexShapes = new ArrayList<>();
+      pinJoint.getLink().getCollisionMeshes().get(0).getConvexShapeDescriptions(convexShapes);
+      assertEquals(4, convexShapes.size());
+      LineSegment3D capToCapLineSegment = new LineSegment3D();
+      ((CapsuleDescriptionReadOnly) convexShapes.get(3)).getCapToCapLineSegment(capToCapLineSegment);
+      EuclidCoreTestTools.assertTuple3DEquals(new Vector3D(0.0, 0.0, 0.5), capToCapLineSegment.getFirstEndpoint(), 1.0e-12);
+
+      Graphics3DAddModelFileInstruction modelFile = (Graphics3DAddModelFileInstruction) pinJoint.getLink().getLinkGraphics().getGraphics3DInstructions().get(0);
+      assertEquals("models/link.dae", modelFile.getFileName());
+      assertEquals(Arrays.asList("resources"), modelFile.getResourceDirectories());
+
+      SliderJointDescription sliderJoint = (SliderJointDescription) pinJoint.getChildrenJoints().get(0);
+      assertEquals(1, sliderJoint.getLidarSensors().size());
+      assertEquals(720, sliderJoint.getLidarSensors().get(0).getLidarScanParameters().getPointsPerSweep());
+      assertEquals(1, sliderJoint.getForceSensors().size());
+      assertTrue(sliderJoint.getForceSensors().get(0).useGroundContactPoints());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testUnsupportedContent()
+   {
+      RobotDescription robotDescription = new RobotDescription("testRobot");
+      robotDescription.addRootJoint(new PinJointDescription("joint", new Vector3D(), Axis.X)
+      {
+      });
+
+      try
+      {
+         RobotDescriptionBinaryFormat.write(robotDescription);
+         fail("Subclasses of the joint descriptions cannot be written.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+
+      byte[] data = RobotDescriptionBinaryFormat.write(new RobotDescription("testRobot"));
+      data[7]++;
+
+      try
+      {
+         RobotDescriptionBinaryFormat.read(ByteBuffer.wrap(data));
+         fail("Data written with another version of the format cannot be read.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+   }
+
+   private static RobotDescription createRobotDescription()
+   {
+      RobotDescription robotDescription = new RobotDescription("testRobot");
+
+      FloatingJointDescription rootJoint = new FloatingJointDescription("rootJoint", "root");
+      LinkDescription rootLink = new LinkDescription("rootLink");
+      rootLink.setMass(1.5);
+      rootLink.setCenterOfMassOffset(0.1, 0.2, 0.3);
+      rootLink.setMomentOfInertia(0.1, 0.2, 0.3);
+      LinkGraphicsDescription rootLinkGraphics = new LinkGraphicsDescription();
+      rootLinkGraphics.addCoordinateSystem(0.3);
+      rootLinkGraphics.identity();
+      rootLinkGraphics.scale(2.0);
+      rootLinkGraphics.addCube(0.1, 0.2, 0.3, true, YoAppearance.Red(), new boolean[] {true, false, true, false, true, false});
+      rootLinkGraphics.addSphere(0.1, YoAppearance.Blue());
+      rootLinkGraphics.addEllipsoid(0.1, 0.2, 0.3);
+      rootLinkGraphics.addMeshData(MeshDataGenerator.Sphere(0.1, 8, 8), YoAppearance.Texture("textures/texture.png"));
+      rootLink.setLinkGraphics(rootLinkGraphics);
+      rootJoint.setLink(rootLink);
+      rootJoint.addGroundContactPoint(new GroundContactPointDescription("gc_0", new Vector3D(0.1, 0.2, 0.0)));
+      rootJoint.addGroundContactPoint(new GroundContactPointDescription("gc_1", new Vector3D(0.1, -0.2, 0.0)));
+      rootJoint.addKinematicPoint(new KinematicPointDescription("kp_0", new Vector3D(0.0, 0.0, 1.0)));
+      IMUSensorDescription imuSensor = new IMUSensorDescription("imu", new RigidBodyTransform());
+      imuSensor.setAngularVelocityBiasParameters(0.01, 0.02);
+      rootJoint.addIMUSensor(imuSensor);
+      robotDescription.addRootJoint(rootJoint);
+
+      PinJointDescription pinJoint = new PinJointDescription("pinJoint", new Vector3D(0.0, 0.0, 0.5), Axis.Y);
+      pinJoint.setLimitStops(-1.0, 1.0, 100.0, 10.0);
+      pinJoint.setVelocityLimits(5.0, 2.0);
+      pinJoint.setEffortLimit(50.0);
+      pinJoint.setDamping(0.5);
+      LinkDescription pinLink = new LinkDescription("pinLink");
+      pinLink.setMassAndRadiiOfGyration(2.0, 0.1, 0.2, 0.3);
+      LinkGraphicsDescription pinLinkGraphics = new LinkGraphicsDescription();
+      YoAppearanceMaterial material = new YoAppearanceMaterial();
+      material.setDiffuseColor(0.1f, 0.2f, 0.3f);
+      material.setShininess(0.5f);
+      material.setTransparency(0.25);
+      pinLinkGraphics.addModelFile("models/link.dae", "submesh", true, Arrays.asList("resources"), material);
+      pinLink.setLinkGraphics(pinLinkGraphics);
+      CollisionMeshDescription collisionMesh = new CollisionMeshDescription();
+      collisionMesh.setCollisionGroup(0b01);
+      collisionMesh.setCollisionMask(0b10);
+      collisionMesh.translate(0.1, 0.0, 0.0);
+      collisionMesh.addSphere(0.1);
+      collisionMesh.addCubeReferencedAtCenter(0.1, 0.2, 0.3);
+      collisionMesh.addCylinderReferencedAtCenter(0.1, 0.5);
+      collisionMesh.identity();
+      LineSegment3D capsuleLineSegment = new LineSegment3D();
+      capsuleLineSegment.set(0.0, 0.0, 0.5, 0.0, 0.0, -0.5);
+      collisionMesh.addCapsule(0.1, capsuleLineSegment);
+      pinLink.addCollisionMesh(collisionMesh);
+      pinJoint.setLink(pinLink);
+      pinJoint.addCameraSensor(new CameraSensorDescription("camera", new RigidBodyTransform(), 1.0, 0.1, 10.0));
+      rootJoint.addJoint(pinJoint);
+
+      SliderJointDescription sliderJoint = new SliderJointDescription("sliderJoint", new Vector3D(0.1, 0.0, 0.0), Axis.X);
+      sliderJoint.setIsDynamic(false);
+      sliderJoint.setLink(new LinkDescription("sliderLink"));
+      RigidBodyTransform sensorTransform = new RigidBodyTransform();
+      sensorTransform.setRotationEulerAndZeroTranslation(0.1, 0.2, 0.3);
+      sensorTransform.setTranslation(0.1, 0.2, 0.3);
+      sliderJoint.addLidarSensor(new LidarSensorDescription("lidar", sensorTransform, new LidarScanParameters(720, -1.5, 1.5, 0.1, 30.0)));
+      ForceSensorDescription forceSensor = new ForceSensorDescription("forceSensor", sensorTransform);
+      forceSensor.setUseGroundContactPoints(true);
+      sliderJoint.addForceSensor(forceSensor);
+      sliderJoint.addJointWrenchSensor(new JointWrenchSensorDescription("wrenchSensor", new Vector3D(0.0, 0.1, 0.0)));
+      pinJoint.addJoint(sliderJoint);
+
+      return robotDescription;
+   }
+}
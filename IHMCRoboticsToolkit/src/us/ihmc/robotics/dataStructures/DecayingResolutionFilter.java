@@ -1,22 +1,45 @@
 package us.ihmc.robotics.dataStructures;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 
-import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TLongIntHashMap;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Point3D32;
 import us.ihmc.euclid.tuple3D.Vector3D32;
 
+/**
+ * Keeps at most one point per voxel of size {@code resolution}, forgetting the points older than {@code decayMillis} and
+ * the oldest points when there are more than {@code capacity}.
+ * <p>
+ * The points are stored in primitive arrays used as a ring buffer ordered by age, and a map from the voxel key to the
+ * index in the ring buffer is used to reject the points falling in an occupied voxel. Adding a point does not create any
+ * garbage once the ring buffer has grown to its working size.
+ * </p>
+ */
 public class DecayingResolutionFilter
 {
+   private static final int INITIAL_BUFFER_SIZE = 1024;
+   private static final long NO_KEY = Long.MIN_VALUE;
+   private static final int NO_SLOT = -1;
+
+   private static final int BITS_PER_AXIS = 21;
+   private static final long AXIS_MASK = (1L << BITS_PER_AXIS) - 1L;
+   private static final long AXIS_OFFSET = 1L << (BITS_PER_AXIS - 1);
+
    private double resolution;
    private long decayMillis;
-   int capacity = 100000;
+   private int capacity = 100000;
+
+   private final TLongIntHashMap slots;
 
-   private final TLongObjectHashMap<TimestampedPoint> map;
-   //   private final HashMap<Long, TimestampedPoint> map;
-   private final LinkedList<TimestampedPoint> list;
+   private float[] xs;
+   private float[] ys;
+   private float[] zs;
+   private long[] timestamps;
+   private long[] keys;
+   /** Index of the oldest point in the ring buffer. */
+   private int head = 0;
+   private int size = 0;
 
    public DecayingResolutionFilter(double resolution, long decayMillis, int maxSizeAllowed)
    {
@@ -24,8 +47,9 @@ public class DecayingResolutionFilter
       this.decayMillis = decayMillis;
       this.capacity = maxSizeAllowed;
 
-      map = new TLongObjectHashMap<TimestampedPoint>();
-      list = new LinkedList<TimestampedPoint>();
+      int bufferSize = capacity > 0 ? Math.min(capacity, INITIAL_BUFFER_SIZE) : INITIAL_BUFFER_SIZE;
+      slots = new TLongIntHashMap(bufferSize, 0.5f, NO_KEY, NO_SLOT);
+      allocateBuffer(bufferSize);
    }
 
    public boolean add(Point3D p)
@@ -38,137 +62,234 @@ public class DecayingResolutionFilter
       return add((float) x, (float) y, (float) z);
    }
 
-   public boolean add(float x, float y, float z)
+   public synchronized boolean add(float x, float y, float z)
    {
-      long hash = hash(x, y, z, resolution);
+      long time = System.currentTimeMillis();
+      removeDecayedPoints(time);
 
-      removeDecayedPoints();
-      
-      if (!map.containsKey(hash))
-      {
-         TimestampedPoint point = new TimestampedPoint(x, y, z, System.currentTimeMillis());
-         synchronized (list)
-         {
-            atomicAddToMapAndList(hash, point);
-         }
-         return true;
-      }
+      long key = computeKey(x, y, z);
 
-      return false;
-   }
+      if (slots.containsKey(key))
+         return false;
 
-   private synchronized void atomicAddToMapAndList(long hash, TimestampedPoint point)
-   {
-      map.put(hash, point);
-      list.addLast(point);
+      if (capacity > 0 && size >= capacity)
+         removeOldestPoint();
+      if (size == xs.length)
+         growBuffer();
+
+      int slot = getSlot(size);
+      xs[slot] = x;
+      ys[slot] = y;
+      zs[slot] = z;
+      timestamps[slot] = time;
+      keys[slot] = key;
+      slots.put(key, slot);
+      size++;
+
+      return true;
    }
 
-   private void removeDecayedPoints()
+   /**
+    * As the points are ordered by age, all the decayed points are at the start of the ring buffer and are removed in one
+    * go. When none has decayed, this only costs one comparison.
+    */
+   private void removeDecayedPoints(long time)
    {
-      TimestampedPoint timePoint;
+      if (decayMillis < 0)
+         return;
 
-      synchronized (list)
+      while (size > 0 && timestamps[head] + decayMillis <= time)
       {
-         if (list.size() >= capacity && capacity > 0)
-         {
-            atomicRemoveFromListAndMap();
-         }
+         removeOldestPoint();
       }
+   }
 
-      long time = System.currentTimeMillis();
-      while ((timePoint = list.peekFirst()) != null)
-      {
-         if (timePoint.timestamp + decayMillis > time || decayMillis<0)
-         {
-            return;
-         }
+   private void removeOldestPoint()
+   {
+      long key = keys[head];
 
-         synchronized (list)
-         {
-            atomicRemoveFromListAndMap();
-         }
-      }
+      // The voxel may be held by a more recent point after the resolution changed.
+      if (slots.get(key) == head)
+         slots.remove(key);
+
+      head++;
+      if (head == xs.length)
+         head = 0;
+      size--;
+   }
+
+   private void growBuffer()
+   {
+      int bufferSize = xs.length == 0 ? INITIAL_BUFFER_SIZE : 2 * xs.length;
+      if (capacity > 0)
+         bufferSize = Math.min(bufferSize, capacity);
+
+      float[] oldXs = xs;
+      float[] oldYs = ys;
+      float[] oldZs = zs;
+      long[] oldTimestamps = timestamps;
+      long[] oldKeys = keys;
+      int oldHead = head;
+
+      allocateBuffer(bufferSize);
+
+      // Unroll the old ring buffer so the oldest point is at index 0.
+      int firstPartLength = Math.min(size, oldXs.length - oldHead);
+      int secondPartLength = size - firstPartLength;
+      copyRingBufferPart(oldXs, oldYs, oldZs, oldTimestamps, oldKeys, oldHead, 0, firstPartLength);
+      copyRingBufferPart(oldXs, oldYs, oldZs, oldTimestamps, oldKeys, 0, firstPartLength, secondPartLength);
+      head = 0;
+
+      rebuildSlots();
+   }
+
+   private void copyRingBufferPart(float[] oldXs, float[] oldYs, float[] oldZs, long[] oldTimestamps, long[] oldKeys, int sourceIndex, int destinationIndex,
+                                   int length)
+   {
+      System.arraycopy(oldXs, sourceIndex, xs, destinationIndex, length);
+      System.arraycopy(oldYs, sourceIndex, ys, destinationIndex, length);
+      System.arraycopy(oldZs, sourceIndex, zs, destinationIndex, length);
+      System.arraycopy(oldTimestamps, sourceIndex, timestamps, destinationIndex, length);
+      System.arraycopy(oldKeys, sourceIndex, keys, destinationIndex, length);
+   }
+
+   private void allocateBuffer(int bufferSize)
+   {
+      xs = new float[bufferSize];
+      ys = new float[bufferSize];
+      zs = new float[bufferSize];
+      timestamps = new long[bufferSize];
+      keys = new long[bufferSize];
    }
 
-   private synchronized void atomicRemoveFromListAndMap()
+   private void rebuildSlots()
    {
-      TimestampedPoint timePoint;
-      timePoint = list.removeFirst();
-      map.remove(hash(timePoint));
+      slots.clear();
+
+      for (int i = 0; i < size; i++)
+      {
+         int slot = getSlot(i);
+         slots.put(keys[slot], slot);
+      }
    }
 
    //================================================================================
    // Private Utility Functions
    //================================================================================
 
-   private long hash(TimestampedPoint point)
+   /**
+    * @param index the age rank of the point, 0 being the oldest.
+    * @return the index of the point in the ring buffer.
+    */
+   private int getSlot(int index)
    {
-      return hash(point.getX32(), point.getY32(), point.getZ32(), resolution);
+      int slot = head + index;
+      if (slot >= xs.length)
+         slot -= xs.length;
+      return slot;
    }
 
-   private static final int bits = 20;
-   private static final int mask = 0xFFFFFFFF >>> bits;
-   private static final int offset = 1 << (bits - 1);
-
-   private long hash(float x, float y, float z, double res)
+   /**
+    * Packs the voxel coordinates in a long, using 21 bits per axis.
+    */
+   private long computeKey(float x, float y, float z)
    {
-      long hash = 0;
-      hash += (((int) (x / res) + offset) & mask) << 2 * bits;
-      hash += (((int) (y / res) + offset) & mask) << 1 * bits;
-      hash += (((int) (z / res) + offset) & mask) << 0 * bits;
+      long xIndex = ((long) Math.floor(x / resolution) + AXIS_OFFSET) & AXIS_MASK;
+      long yIndex = ((long) Math.floor(y / resolution) + AXIS_OFFSET) & AXIS_MASK;
+      long zIndex = ((long) Math.floor(z / resolution) + AXIS_OFFSET) & AXIS_MASK;
 
-      return hash;
+      return (xIndex << 2 * BITS_PER_AXIS) | (yIndex << BITS_PER_AXIS) | zIndex;
    }
 
    //================================================================================
    // Setters
    //================================================================================
 
-   public void clear()
+   public synchronized void clear()
    {
-      synchronized (list)
-      {
-         map.clear();
-         list.clear();
-      }
+      slots.clear();
+      head = 0;
+      size = 0;
    }
 
-   public void setResolution(double resolution)
+   public synchronized void setResolution(double resolution)
    {
+      if (resolution == this.resolution)
+         return;
+
       this.resolution = resolution;
+
+      for (int i = 0; i < size; i++)
+      {
+         int slot = getSlot(i);
+         keys[slot] = computeKey(xs[slot], ys[slot], zs[slot]);
+      }
+
+      rebuildSlots();
    }
 
-   public void setDecay(long decayMillis)
+   public synchronized void setDecay(long decayMillis)
    {
       this.decayMillis = decayMillis;
    }
 
-   public void setCapacity(int capacity)
+   public synchronized void setCapacity(int capacity)
    {
       this.capacity = capacity;
+
+      while (capacity > 0 && size > capacity)
+      {
+         removeOldestPoint();
+      }
    }
 
    //================================================================================
    // Getters
    //================================================================================
 
+   public synchronized int getNumberOfPoints()
+   {
+      return size;
+   }
+
    /**
-    * Get the points in a new array. The points them self are not copied.
-    * @return new Point3f array
+    * Packs the coordinates of the points, from the oldest to the newest, as x0, y0, z0, x1, y1, z1, ...
+    * @param xyzToPack array in which the coordinates are packed. Only the first points are packed if it is too small.
+    * @return the number of points packed.
     */
-   public Point3D32[] getPoints3f()
+   public synchronized int getPointsXYZ(float[] xyzToPack)
    {
-      synchronized (list)
-      {
-         Point3D32[] points = new Point3D32[list.size()];
+      int numberOfPoints = Math.min(size, xyzToPack.length / 3);
 
-         for (int i = 0; i < list.size(); i++)
-         {
-            points[i] = list.get(i);
-         }
-         
-         return points;
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         int slot = getSlot(i);
+         xyzToPack[3 * i] = xs[slot];
+         xyzToPack[3 * i + 1] = ys[slot];
+         xyzToPack[3 * i + 2] = zs[slot];
       }
+
+      return numberOfPoints;
+   }
+
+   /**
+    * Get the coordinates of the points in a new array sized for the current number of points, see {@link #getPointsXYZ(float[])}.
+    * @return new float array
+    */
+   public synchronized float[] getPointsXYZ()
+   {
+      float[] xyz = new float[3 * size];
+      getPointsXYZ(xyz);
+      return xyz;
+   }
+
+   /**
+    * Get a copy of the points in a new array.
+    * @return new Point3f array
+    */
+   public synchronized Point3D32[] getPoints3f()
+   {
+      return getPoints3fUnsynchronized();
    }
 
    /**
@@ -177,37 +298,48 @@ public class DecayingResolutionFilter
     */
    public Point3D32[] getPoints3fUnsynchronized()
    {
-      return list.toArray(new Point3D32[0]);
+      Point3D32[] points = new Point3D32[size];
+
+      for (int i = 0; i < points.length; i++)
+      {
+         int slot = getSlot(i);
+         points[i] = new Point3D32(xs[slot], ys[slot], zs[slot]);
+      }
+
+      return points;
    }
 
-   public ArrayList<TimestampedPoint> getPointsCopy()
+   public synchronized ArrayList<TimestampedPoint> getPointsCopy()
    {
-      // Thread-safely copies points into a new array
-      ArrayList<TimestampedPoint> copy;
+      ArrayList<TimestampedPoint> copy = new ArrayList<TimestampedPoint>(size);
 
-      synchronized (list)
+      for (int i = 0; i < size; i++)
       {
-         copy = new ArrayList<TimestampedPoint>(list);
+         int slot = getSlot(i);
+         copy.add(new TimestampedPoint(xs[slot], ys[slot], zs[slot], timestamps[slot]));
       }
 
       return copy;
    }
 
-   public Point3D32 getNearestIntersection(Point3D32 origin, Vector3D32 direction)
+   public synchronized Point3D32 getNearestIntersection(Point3D32 origin, Vector3D32 direction)
    {
-      ArrayList<TimestampedPoint> points = getPointsCopy();
       direction.normalize();
       float dx, dy, dz, dot;
       double distanceToLine, distance;
 
       double nearestDistance = Double.POSITIVE_INFINITY;
-      Point3D32 nearestPoint = null;
+      int nearestSlot = NO_SLOT;
 
-      for (Point3D32 p : points)
+      for (int i = 0; i < size; i++)
       {
-         dx = origin.getX32() - p.getX32();
-         dy = origin.getY32() - p.getY32();
-         dz = origin.getZ32() - p.getZ32();
+         int slot = getSlot(i);
+
+         dx = origin.getX32() - xs[slot];
+         dy = origin.getY32() - ys[slot];
+         dz = origin.getZ32() - zs[slot];
+
+         distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
 
          dot = dx * direction.getX32() + dy * direction.getY32() + dz * direction.getZ32();
 
@@ -219,15 +351,17 @@ public class DecayingResolutionFilter
 
          if (distanceToLine < resolution / 2)
          {
-            distance = origin.distance(p);
             if (distance < nearestDistance)
             {
                nearestDistance = distance;
-               nearestPoint = p;
+               nearestSlot = slot;
             }
          }
       }
 
-      return nearestPoint;
+      if (nearestSlot == NO_SLOT)
+         return null;
+      else
+         return new Point3D32(xs[nearestSlot], ys[nearestSlot], zs[nearestSlot]);
    }
-}
\ No newline at end of file
+}
@@ -54,6 +54,7 @@ public class BooleanYoVariable extends YoVariable<BooleanYoVariable>
       if (val != value)
       {
          this.val = value;
+         updateSlab();
          if (notifyListeners)
          {
             notifyVariableChangedListeners();
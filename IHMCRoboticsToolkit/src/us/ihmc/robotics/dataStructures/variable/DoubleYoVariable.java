@@ -160,6 +160,7 @@ public class DoubleYoVariable extends YoVariable<DoubleYoVariable>
       if (val != value)
       {
          val = value;
+         updateSlab();
          if (notifyListeners)
          {
             notifyVariableChangedListeners();
@@ -177,6 +177,7 @@ public class EnumYoVariable<T extends Enum<T>> extends YoVariable<EnumYoVariable
          if (!(valueOrdinal == ordinal))
          {
             valueOrdinal = ordinal;
+            updateSlab();
             if (notifyListeners)
             {
                notifyVariableChangedListeners();
@@ -187,6 +188,7 @@ public class EnumYoVariable<T extends Enum<T>> extends YoVariable<EnumYoVariable
       else
       {
          valueOrdinal = ordinal;
+         updateSlab();
          if (notifyListeners)
          {
             notifyVariableChangedListeners();
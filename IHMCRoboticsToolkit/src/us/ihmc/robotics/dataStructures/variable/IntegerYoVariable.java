@@ -43,6 +43,7 @@ public class IntegerYoVariable extends YoVariable<IntegerYoVariable>
       if (val != value)
       {
          val = value;
+         updateSlab();
          if(notifyListeners)
          {
             notifyVariableChangedListeners();
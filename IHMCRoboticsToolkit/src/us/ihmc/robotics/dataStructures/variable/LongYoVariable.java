@@ -45,6 +45,7 @@ public class LongYoVariable extends YoVariable<LongYoVariable>
       if (val != value)
       {
          val = value;
+         updateSlab();
          if(notifyListeners)
          {
             notifyVariableChangedListeners();
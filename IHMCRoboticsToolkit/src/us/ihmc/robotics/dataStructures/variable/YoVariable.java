@@ -37,6 +37,14 @@ public abstract class YoVariable<T extends YoVariable<T>>
    private String description;
    private YoVariableType type;
    private YoVariableRegistry registry;
+
+   /**
+    * Only set when the variable has been added to a {@link YoVariableSlab}. The value is still kept in the field of the
+    * variable and is also written to the slab every time it changes.
+    */
+   private YoVariableSlab slab = null;
+   private long[] slabValues = null;
+   private int slabIndex = -1;
    
    public YoVariable(YoVariableType type, String name, String description, YoVariableRegistry registry)
    {
@@ -364,6 +372,43 @@ public abstract class YoVariable<T extends YoVariable<T>>
    
    public abstract void setValueFromLongBits(long value, boolean notifyListeners);
 
+   /**
+    * Copies the current value of this variable to its slab, if any. Called by the built-in variable types every time
+    * their value changes.
+    */
+   protected final void updateSlab()
+   {
+      if (slabValues != null)
+         slabValues[slabIndex] = getValueAsLongBits();
+   }
+
+   /**
+    * Mirrors the value of this variable at the given index of the slab storage, starting with the current value.
+    */
+   final void attachToSlab(YoVariableSlab slab, long[] storage, int index)
+   {
+      if (this.slab != null)
+         throw new RuntimeException(getFullNameWithNameSpace() + " is already stored in a slab.");
+
+      storage[index] = getValueAsLongBits();
+      slabValues = storage;
+      slabIndex = index;
+      this.slab = slab;
+   }
+
+   final boolean isStoredAt(YoVariableSlab slab, int index)
+   {
+      return this.slab == slab && slabIndex == index;
+   }
+
+   /**
+    * @return the slab this variable is stored in, or null if the variable is not stored in a slab.
+    */
+   public final YoVariableSlab getSlab()
+   {
+      return slab;
+   }
+
    public abstract T duplicate(YoVariableRegistry newRegistry);
    
    /**
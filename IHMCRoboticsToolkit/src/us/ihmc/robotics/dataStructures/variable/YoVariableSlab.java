@@ -0,0 +1,73 @@
+package us.ihmc.robotics.dataStructures.variable;
+
+import java.util.List;
+
+/**
+ * Contiguous storage for the values of a list of YoVariables.
+ * <p>
+ * Once the slab is created, the value of the variable {@code i} of the list is also stored at the index {@code i} of a
+ * single {@code long[]}, encoded as returned by {@link YoVariable#getValueAsLongBits()}, and written there every time it
+ * changes. Taking a snapshot of all the variables is then a single array copy instead of a virtual call per variable.
+ * </p>
+ * <p>
+ * The variables keep reading their value from their own field, so variables that are not in a slab do not pay for it.
+ * A variable can only be stored in one slab, variables added to a registry after the slab has been created are not
+ * part of it.
+ * </p>
+ */
+public class YoVariableSlab
+{
+   private final long[] values;
+
+   public YoVariableSlab(List<YoVariable<?>> variables)
+   {
+      for (int i = 0; i < variables.size(); i++)
+      {
+         if (variables.get(i).getSlab() != null)
+            throw new RuntimeException(variables.get(i).getFullNameWithNameSpace() + " is already stored in a slab.");
+      }
+
+      values = new long[variables.size()];
+
+      for (int i = 0; i < variables.size(); i++)
+      {
+         variables.get(i).attachToSlab(this, values, i);
+      }
+   }
+
+   /**
+    * Finds the slab the given variables are stored in, if they are stored in the same order and nothing else is.
+    *
+    * @return the slab, or null if the variables are not stored contiguously.
+    */
+   public static YoVariableSlab findContiguousSlab(YoVariable<?>[] variables)
+   {
+      if (variables.length == 0)
+         return null;
+
+      YoVariableSlab slab = variables[0].getSlab();
+      if (slab == null || slab.getNumberOfVariables() != variables.length)
+         return null;
+
+      for (int i = 0; i < variables.length; i++)
+      {
+         if (!variables[i].isStoredAt(slab, i))
+            return null;
+      }
+
+      return slab;
+   }
+
+   /**
+    * Copies the values of all the variables, in order, at the beginning of the given array.
+    */
+   public void getValues(long[] valuesToPack)
+   {
+      System.arraycopy(values, 0, valuesToPack, 0, values.length);
+   }
+
+   public int getNumberOfVariables()
+   {
+      return values.length;
+   }
+}
@@ -369,6 +369,26 @@ public class ConvexPolygon2d implements GeometryObject<ConvexPolygon2d>
       update();
    }
 
+   /**
+    * Copies the vertices of the packed polygon.
+    * The packed polygon is already clockwise ordered, so unlike the other setters this does not run the convex hull algorithm.
+    * Note that this method recycles memory.
+    * @param packedPolygon {@code PackedConvexPolygon2d}
+    */
+   public void setAndUpdate(PackedConvexPolygon2d packedPolygon)
+   {
+      packedPolygon.checkIfUpToDate();
+
+      clear();
+      for (int i = 0; i < packedPolygon.getNumberOfVertices(); i++)
+         setOrCreate(packedPolygon.getVertexX(i), packedPolygon.getVertexY(i), i);
+      numberOfVertices = packedPolygon.getNumberOfVertices();
+
+      isUpToDate = true;
+      updateCentroidAndArea();
+      updateBoundingBox();
+   }
+
    /**
     * This method does:
     * 1- {@code clear()};
@@ -24,6 +24,9 @@ public class ConvexPolygonShrinker
    
    private final ConvexPolygonConstructorFromInteriorOfRays convexPolygonConstructorFromInteriorOfRays = new ConvexPolygonConstructorFromInteriorOfRays();
 
+   private final PackedConvexPolygon2d packedPolygonQ = new PackedConvexPolygon2d();
+   private final PackedConvexPolygon2d packedShrunkPolygon = new PackedConvexPolygon2d();
+
    public ConvexPolygonShrinker()
    {
       for (int i=0; i<8; i++)
@@ -92,6 +95,18 @@ public class ConvexPolygonShrinker
          return false;
       }
 
+      if (distance > 0.0)
+      {
+         // Shrinking only removes area, which is done by clipping the polygon with its edges moved inward.
+         packedPolygonQ.set(polygonQ);
+         boolean foundSolution = packedShrunkPolygon.setToShrunkPolygon(packedPolygonQ, distance);
+         if (foundSolution)
+            polygonToPack.setAndUpdate(packedShrunkPolygon);
+         else
+            setToCentroid(polygonQ, polygonToPack);
+         return foundSolution;
+      }
+
       rays.clear();
 
       int leftMostIndexOnPolygonQ = polygonQ.getMinXIndex();
@@ -121,13 +136,18 @@ public class ConvexPolygonShrinker
       boolean foundSolution = convexPolygonConstructorFromInteriorOfRays.constructFromInteriorOfRays(rays, polygonToPack);
       if (!foundSolution) 
       { 
-         polygonToPack.clear();
-         polygonToPack.addVertex(polygonQ.getCentroid());
-         polygonToPack.update();
+         setToCentroid(polygonQ, polygonToPack);
       }
 
       return foundSolution;
    }
+
+   private static void setToCentroid(ConvexPolygon2d polygonQ, ConvexPolygon2d polygonToPack)
+   {
+      polygonToPack.clear();
+      polygonToPack.addVertex(polygonQ.getCentroid());
+      polygonToPack.update();
+   }
    
    public void shrinkConstantDistanceInto(FrameConvexPolygon2d polygonQ, double distance, FrameConvexPolygon2d framePolygonToPack)
    {      
@@ -140,7 +160,7 @@ public class ConvexPolygonShrinker
       framePolygonToPack.clear(polygonQ.getReferenceFrame());
       framePolygonToPack.update();
       ConvexPolygon2d polygon2dToPack = framePolygonToPack.getConvexPolygon2d();
-      shrinkConstantDistanceInto(polygonQ.getConvexPolygon2dCopy(), distance, polygon2dToPack);
+      shrinkConstantDistanceInto(polygonQ.getConvexPolygon2d(), distance, polygon2dToPack);
 //      framePolygonToPack.updateFramePoints();
       framePolygonToPack.update();
    }
@@ -0,0 +1,823 @@
+package us.ihmc.robotics.geometry;
+
+import us.ihmc.euclid.tuple2D.interfaces.Point2DBasics;
+
+/**
+ * Convex polygon storing its vertices packed in a {@code double[]} as {@code x0, y0, x1, y1, ...}.
+ * <p>
+ * This is a lightweight counterpart of {@link ConvexPolygon2d} for the support polygon math done every controller tick:
+ * building the hull, point queries, projection, combining, intersecting and shrinking polygons. All these operations
+ * work in place and do not generate garbage once the storage has grown to the number of vertices used.
+ * </p>
+ * <p>
+ * The vertices are ordered as in {@link ConvexPolygon2d}: clockwise, all different, starting with the vertex with the
+ * minimum x (and maximum y if several have the minimum x), such that polygons can be exchanged with
+ * {@link #set(ConvexPolygon2d)} and {@link ConvexPolygon2d#setAndUpdate(PackedConvexPolygon2d)} without reordering.
+ * </p>
+ */
+public class PackedConvexPolygon2d
+{
+   private static final double DUPLICATE_VERTEX_EPSILON = 1.0e-7;
+   private static final int INSERTION_SORT_THRESHOLD = 12;
+
+   private double[] vertices;
+   private double[] buffer;
+   // Copy of the edges used to clip this polygon when it is also the polygon providing the edges.
+   private double[] clippingEdges = new double[0];
+   private int numberOfVertices = 0;
+   private boolean isUpToDate = false;
+
+   private double area = Double.NaN;
+   private double centroidX = Double.NaN, centroidY = Double.NaN;
+   private double minX = Double.NaN, minY = Double.NaN, maxX = Double.NaN, maxY = Double.NaN;
+
+   public PackedConvexPolygon2d()
+   {
+      this(8);
+   }
+
+   public PackedConvexPolygon2d(int initialCapacity)
+   {
+      vertices = new double[2 * Math.max(initialCapacity, 1)];
+      buffer = new double[vertices.length];
+   }
+
+   public void clear()
+   {
+      numberOfVertices = 0;
+      isUpToDate = false;
+   }
+
+   public void addVertex(double x, double y)
+   {
+      ensureCapacity(numberOfVertices + 1);
+      vertices[2 * numberOfVertices] = x;
+      vertices[2 * numberOfVertices + 1] = y;
+      numberOfVertices++;
+      isUpToDate = false;
+   }
+
+   /**
+    * Adds the first {@code numberOfVertices} vertices packed in {@code xy} as {@code x0, y0, x1, y1, ...}.
+    */
+   public void addVertices(double[] xy, int numberOfVertices)
+   {
+      ensureCapacity(this.numberOfVertices + numberOfVertices);
+      System.arraycopy(xy, 0, vertices, 2 * this.numberOfVertices, 2 * numberOfVertices);
+      this.numberOfVertices += numberOfVertices;
+      isUpToDate = false;
+   }
+
+   public void addVertices(PackedConvexPolygon2d other)
+   {
+      addVertices(other.vertices, other.numberOfVertices);
+   }
+
+   /**
+    * Computes the convex hull of the vertices added since the last call to {@link #clear()}, and updates the area,
+    * centroid and bounding box.
+    */
+   public void update()
+   {
+      if (isUpToDate)
+         return;
+
+      if (numberOfVertices > 1)
+         computeConvexHull();
+
+      updateProperties();
+   }
+
+   public void set(PackedConvexPolygon2d other)
+   {
+      other.checkIfUpToDate();
+
+      ensureCapacity(other.numberOfVertices);
+      System.arraycopy(other.vertices, 0, vertices, 0, 2 * other.numberOfVertices);
+      numberOfVertices = other.numberOfVertices;
+      area = other.area;
+      centroidX = other.centroidX;
+      centroidY = other.centroidY;
+      minX = other.minX;
+      minY = other.minY;
+      maxX = other.maxX;
+      maxY = other.maxY;
+      isUpToDate = true;
+   }
+
+   public void set(ConvexPolygon2d other)
+   {
+      other.checkIfUpToDate();
+
+      int otherNumberOfVertices = other.getNumberOfVertices();
+      ensureCapacity(otherNumberOfVertices);
+      for (int i = 0; i < otherNumberOfVertices; i++)
+      {
+         vertices[2 * i] = other.getVertexUnsafe(i).getX();
+         vertices[2 * i + 1] = other.getVertexUnsafe(i).getY();
+      }
+      numberOfVertices = otherNumberOfVertices;
+      updateProperties();
+   }
+
+   /**
+    * Sets this polygon to the convex hull of the two given polygons.
+    */
+   public void setAndUpdate(PackedConvexPolygon2d firstPolygon, PackedConvexPolygon2d secondPolygon)
+   {
+      clear();
+      addVertices(firstPolygon);
+      addVertices(secondPolygon);
+      update();
+   }
+
+   /**
+    * Sets this polygon to the intersection of the two given polygons. This polygon can be one of the arguments.
+    *
+    * @return false if the polygons do not intersect, in which case this polygon is empty.
+    */
+   public boolean setToIntersection(PackedConvexPolygon2d polygonP, PackedConvexPolygon2d polygonQ)
+   {
+      polygonP.checkIfUpToDate();
+      polygonQ.checkIfUpToDate();
+
+      if (polygonQ == this)
+      {
+         polygonQ = polygonP;
+         polygonP = this;
+      }
+
+      if (polygonP == polygonQ)
+      {
+         set(polygonP);
+         return numberOfVertices > 0;
+      }
+
+      if (polygonP.numberOfVertices == 0 || polygonQ.numberOfVertices == 0 || !doBoundingBoxesOverlap(polygonP, polygonQ))
+      {
+         clearAndUpdate();
+         return false;
+      }
+
+      if (polygonQ.numberOfVertices == 1)
+      {
+         double x = polygonQ.vertices[0];
+         double y = polygonQ.vertices[1];
+         if (!polygonP.isPointInside(x, y))
+         {
+            clearAndUpdate();
+            return false;
+         }
+
+         clear();
+         addVertex(x, y);
+         updateProperties();
+         return true;
+      }
+
+      if (polygonP != this)
+         copyVertices(polygonP);
+
+      for (int i = 0; i < polygonQ.numberOfVertices; i++)
+      {
+         int next = i == polygonQ.numberOfVertices - 1 ? 0 : i + 1;
+         double startX = polygonQ.vertices[2 * i];
+         double startY = polygonQ.vertices[2 * i + 1];
+         clipWithHalfPlane(startX, startY, polygonQ.vertices[2 * next] - startX, polygonQ.vertices[2 * next + 1] - startY, 0.0);
+
+         if (numberOfVertices == 0)
+            break;
+      }
+
+      normalizeAfterClipping();
+      return numberOfVertices > 0;
+   }
+
+   /**
+    * Sets this polygon to the given polygon with all its edges moved inward by {@code distance}. This polygon can be
+    * the argument. The polygon has to have at least three vertices.
+    *
+    * @return false if the polygon vanishes, in which case this polygon is empty.
+    */
+   public boolean setToShrunkPolygon(PackedConvexPolygon2d polygon, double distance)
+   {
+      polygon.checkIfUpToDate();
+
+      if (polygon.numberOfVertices < 3)
+         throw new RuntimeException("The polygon to shrink needs at least three vertices.");
+
+      int numberOfEdges = polygon.numberOfVertices;
+      double[] edges;
+
+      if (polygon == this)
+      {
+         // Clipping modifies the vertices of this polygon, the edges are read from a copy.
+         if (clippingEdges.length < 2 * numberOfEdges)
+            clippingEdges = new double[vertices.length];
+         System.arraycopy(vertices, 0, clippingEdges, 0, 2 * numberOfEdges);
+         edges = clippingEdges;
+      }
+      else
+      {
+         copyVertices(polygon);
+         edges = polygon.vertices;
+      }
+
+      // The shrunk polygon is the polygon clipped by each of its edges offset inward.
+      for (int i = 0; i < numberOfEdges; i++)
+      {
+         int next = i == numberOfEdges - 1 ? 0 : i + 1;
+         double startX = edges[2 * i];
+         double startY = edges[2 * i + 1];
+         clipWithHalfPlane(startX, startY, edges[2 * next] - startX, edges[2 * next + 1] - startY, distance);
+
+         if (numberOfVertices == 0)
+            break;
+      }
+
+      normalizeAfterClipping();
+      return numberOfVertices > 0;
+   }
+
+   public boolean isPointInside(double x, double y)
+   {
+      return isPointInside(x, y, 0.0);
+   }
+
+   /**
+    * Same as {@link ConvexPolygon2dCalculator#isPointInside(double, double, double, ConvexPolygon2d)}: the point is
+    * inside if it is at most {@code epsilon} outside of every edge.
+    */
+   public boolean isPointInside(double x, double y, double epsilon)
+   {
+      checkIfUpToDate();
+
+      if (numberOfVertices == 0)
+         return false;
+
+      // With a margin, a point near a sharp vertex can be outside of the bounding box and still be close enough to the edges.
+      if (epsilon == 0.0 && (x < minX || x > maxX || y < minY || y > maxY))
+         return false;
+
+      if (numberOfVertices == 1)
+         return Math.abs(vertices[0] - x) <= epsilon && Math.abs(vertices[1] - y) <= epsilon;
+
+      if (numberOfVertices == 2)
+         return Math.sqrt(distanceSquaredToEdge(0, x, y)) <= epsilon;
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         int next = i == numberOfVertices - 1 ? 0 : i + 1;
+         double edgeX = vertices[2 * next] - vertices[2 * i];
+         double edgeY = vertices[2 * next + 1] - vertices[2 * i + 1];
+         // Positive when the point is on the left of the edge, which is outside for a clockwise polygon.
+         double cross = edgeX * (y - vertices[2 * i + 1]) - edgeY * (x - vertices[2 * i]);
+
+         if (epsilon == 0.0)
+         {
+            if (cross > 0.0)
+               return false;
+         }
+         else if (cross > epsilon * Math.sqrt(edgeX * edgeX + edgeY * edgeY))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Moves the given point onto the boundary of the polygon if the point lies outside the polygon. If the point is
+    * inside the polygon it is not modified.
+    */
+   public void orthogonalProjection(Point2DBasics pointToProject)
+   {
+      checkIfUpToDate();
+
+      if (numberOfVertices == 0)
+         return;
+
+      double x = pointToProject.getX();
+      double y = pointToProject.getY();
+
+      if (numberOfVertices == 1)
+      {
+         pointToProject.set(vertices[0], vertices[1]);
+         return;
+      }
+
+      if (numberOfVertices > 2 && isPointInside(x, y))
+         return;
+
+      int closestEdge = findClosestEdge(x, y);
+      double percentage = getPercentageAlongEdge(closestEdge, x, y);
+      int next = closestEdge == numberOfVertices - 1 ? 0 : closestEdge + 1;
+      double startX = vertices[2 * closestEdge];
+      double startY = vertices[2 * closestEdge + 1];
+      pointToProject.set(startX + percentage * (vertices[2 * next] - startX), startY + percentage * (vertices[2 * next + 1] - startY));
+   }
+
+   /**
+    * @return the distance from the point to the boundary of the polygon, negative if the point is inside.
+    */
+   public double signedDistance(double x, double y)
+   {
+      checkIfUpToDate();
+
+      if (numberOfVertices == 0)
+         return Double.NaN;
+
+      if (numberOfVertices == 1)
+         return Math.sqrt((vertices[0] - x) * (vertices[0] - x) + (vertices[1] - y) * (vertices[1] - y));
+
+      double distance = Math.sqrt(distanceSquaredToEdge(findClosestEdge(x, y), x, y));
+
+      if (numberOfVertices > 2 && isPointInside(x, y))
+         return -distance;
+      return distance;
+   }
+
+   public int getNumberOfVertices()
+   {
+      return numberOfVertices;
+   }
+
+   public boolean isEmpty()
+   {
+      return numberOfVertices == 0;
+   }
+
+   public double getVertexX(int vertexIndex)
+   {
+      checkIndexInBoundaries(vertexIndex);
+      return vertices[2 * vertexIndex];
+   }
+
+   public double getVertexY(int vertexIndex)
+   {
+      checkIndexInBoundaries(vertexIndex);
+      return vertices[2 * vertexIndex + 1];
+   }
+
+   public void getVertex(int vertexIndex, Point2DBasics vertexToPack)
+   {
+      checkIndexInBoundaries(vertexIndex);
+      vertexToPack.set(vertices[2 * vertexIndex], vertices[2 * vertexIndex + 1]);
+   }
+
+   public double getArea()
+   {
+      checkIfUpToDate();
+      return area;
+   }
+
+   public void getCentroid(Point2DBasics centroidToPack)
+   {
+      checkIfUpToDate();
+      centroidToPack.set(centroidX, centroidY);
+   }
+
+   public double getCentroidX()
+   {
+      checkIfUpToDate();
+      return centroidX;
+   }
+
+   public double getCentroidY()
+   {
+      checkIfUpToDate();
+      return centroidY;
+   }
+
+   public double getMinX()
+   {
+      checkIfUpToDate();
+      return minX;
+   }
+
+   public double getMinY()
+   {
+      checkIfUpToDate();
+      return minY;
+   }
+
+   public double getMaxX()
+   {
+      checkIfUpToDate();
+      return maxX;
+   }
+
+   public double getMaxY()
+   {
+      checkIfUpToDate();
+      return maxY;
+   }
+
+   public boolean isUpToDate()
+   {
+      return isUpToDate;
+   }
+
+   public void checkIfUpToDate()
+   {
+      if (!isUpToDate)
+         throw new ConvexPolygonTools.OutdatedPolygonException("Call the update method before doing any other calculation!");
+   }
+
+   private void checkIndexInBoundaries(int vertexIndex)
+   {
+      if (vertexIndex < 0 || vertexIndex >= numberOfVertices)
+         throw new IndexOutOfBoundsException("vertexIndex = " + vertexIndex + ", numberOfVertices = " + numberOfVertices);
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder builder = new StringBuilder("Packed polygon: ");
+      for (int i = 0; i < numberOfVertices; i++)
+         builder.append("(").append(vertices[2 * i]).append(", ").append(vertices[2 * i + 1]).append(")");
+      return builder.toString();
+   }
+
+   private void clearAndUpdate()
+   {
+      clear();
+      updateProperties();
+   }
+
+   private void copyVertices(PackedConvexPolygon2d other)
+   {
+      if (other == this)
+         return;
+
+      ensureCapacity(other.numberOfVertices);
+      System.arraycopy(other.vertices, 0, vertices, 0, 2 * other.numberOfVertices);
+      numberOfVertices = other.numberOfVertices;
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (vertices.length >= 2 * capacity)
+         return;
+
+      double[] newVertices = new double[Math.max(4 * capacity, 2 * vertices.length)];
+      System.arraycopy(vertices, 0, newVertices, 0, 2 * numberOfVertices);
+      vertices = newVertices;
+      buffer = new double[newVertices.length];
+   }
+
+   private void ensureBufferCapacity(int capacity)
+   {
+      if (buffer.length < 2 * capacity)
+         buffer = new double[Math.max(2 * capacity, vertices.length)];
+   }
+
+   private static boolean doBoundingBoxesOverlap(PackedConvexPolygon2d polygonP, PackedConvexPolygon2d polygonQ)
+   {
+      return polygonP.minX <= polygonQ.maxX && polygonQ.minX <= polygonP.maxX && polygonP.minY <= polygonQ.maxY && polygonQ.minY <= polygonP.maxY;
+   }
+
+   /**
+    * Andrew's monotone chain on the packed vertices. The upper chain is built from left to right and the lower chain
+    * from right to left, which gives the clockwise order starting at the vertex with the minimum x and maximum y.
+    */
+   private void computeConvexHull()
+   {
+      sortVertices(0, numberOfVertices - 1);
+      removeConsecutiveDuplicates();
+
+      if (numberOfVertices < 3)
+         return;
+
+      ensureBufferCapacity(2 * numberOfVertices);
+      int hullSize = 0;
+
+      for (int i = 0; i < numberOfVertices; i++)
+         hullSize = pushOntoHull(i, hullSize, 2);
+
+      int upperChainSize = hullSize + 1;
+      for (int i = numberOfVertices - 2; i >= 0; i--)
+         hullSize = pushOntoHull(i, hullSize, upperChainSize);
+
+      // The first vertex was added again at the end of the lower chain.
+      numberOfVertices = hullSize - 1;
+      System.arraycopy(buffer, 0, vertices, 0, 2 * numberOfVertices);
+   }
+
+   private int pushOntoHull(int vertexIndex, int hullSize, int minimumChainSize)
+   {
+      double x = vertices[2 * vertexIndex];
+      double y = vertices[2 * vertexIndex + 1];
+
+      // Remove the last hull vertex as long as it does not make a right turn.
+      while (hullSize >= minimumChainSize)
+      {
+         double originX = buffer[2 * hullSize - 4];
+         double originY = buffer[2 * hullSize - 3];
+         double cross = (buffer[2 * hullSize - 2] - originX) * (y - originY) - (buffer[2 * hullSize - 1] - originY) * (x - originX);
+         if (cross < 0.0)
+            break;
+         hullSize--;
+      }
+
+      buffer[2 * hullSize] = x;
+      buffer[2 * hullSize + 1] = y;
+      return hullSize + 1;
+   }
+
+   private void removeConsecutiveDuplicates()
+   {
+      int size = 1;
+      for (int i = 1; i < numberOfVertices; i++)
+      {
+         double x = vertices[2 * i];
+         double y = vertices[2 * i + 1];
+         if (Math.abs(x - vertices[2 * size - 2]) <= DUPLICATE_VERTEX_EPSILON && Math.abs(y - vertices[2 * size - 1]) <= DUPLICATE_VERTEX_EPSILON)
+            continue;
+         vertices[2 * size] = x;
+         vertices[2 * size + 1] = y;
+         size++;
+      }
+      numberOfVertices = size;
+   }
+
+   /**
+    * Sorts the vertices in [low, high] by increasing x, and decreasing y for equal x.
+    */
+   private void sortVertices(int low, int high)
+   {
+      while (high - low >= INSERTION_SORT_THRESHOLD)
+      {
+         int middle = (low + high) >>> 1;
+         double pivotX = vertices[2 * middle];
+         double pivotY = vertices[2 * middle + 1];
+         int i = low;
+         int j = high;
+
+         while (i <= j)
+         {
+            while (compare(vertices[2 * i], vertices[2 * i + 1], pivotX, pivotY) < 0)
+               i++;
+            while (compare(vertices[2 * j], vertices[2 * j + 1], pivotX, pivotY) > 0)
+               j--;
+            if (i <= j)
+               swapVertices(i++, j--);
+         }
+
+         // Recurse on the smaller side to bound the stack depth.
+         if (j - low < high - i)
+         {
+            sortVertices(low, j);
+            low = i;
+         }
+         else
+         {
+            sortVertices(i, high);
+            high = j;
+         }
+      }
+
+      for (int i = low + 1; i <= high; i++)
+      {
+         double x = vertices[2 * i];
+         double y = vertices[2 * i + 1];
+         int j = i - 1;
+         while (j >= low && compare(vertices[2 * j], vertices[2 * j + 1], x, y) > 0)
+         {
+            vertices[2 * j + 2] = vertices[2 * j];
+            vertices[2 * j + 3] = vertices[2 * j + 1];
+            j--;
+         }
+         vertices[2 * j + 2] = x;
+         vertices[2 * j + 3] = y;
+      }
+   }
+
+   private static int compare(double x1, double y1, double x2, double y2)
+   {
+      if (x1 < x2)
+         return -1;
+      if (x1 > x2)
+         return 1;
+      if (y1 > y2)
+         return -1;
+      if (y1 < y2)
+         return 1;
+      return 0;
+   }
+
+   private void swapVertices(int i, int j)
+   {
+      double x = vertices[2 * i];
+      double y = vertices[2 * i + 1];
+      vertices[2 * i] = vertices[2 * j];
+      vertices[2 * i + 1] = vertices[2 * j + 1];
+      vertices[2 * j] = x;
+      vertices[2 * j + 1] = y;
+   }
+
+   /**
+    * Sutherland-Hodgman step: keeps the part of this polygon on the right of the line going through (startX, startY)
+    * with the direction (directionX, directionY), offset by {@code offset} toward the right.
+    */
+   private void clipWithHalfPlane(double startX, double startY, double directionX, double directionY, double offset)
+   {
+      double directionLength = Math.sqrt(directionX * directionX + directionY * directionY);
+      if (directionLength < DUPLICATE_VERTEX_EPSILON)
+         return;
+
+      double normalizedX = directionX / directionLength;
+      double normalizedY = directionY / directionLength;
+
+      ensureBufferCapacity(2 * numberOfVertices);
+      int newSize = 0;
+
+      double previousX = vertices[2 * numberOfVertices - 2];
+      double previousY = vertices[2 * numberOfVertices - 1];
+      double previousDistance = normalizedX * (previousY - startY) - normalizedY * (previousX - startX) + offset;
+
+      for (int i = 0; i < numberOfVertices; i++)
+      {
+         double x = vertices[2 * i];
+         double y = vertices[2 * i + 1];
+         // Positive on the left of the line, which is the side removed.
+         double distance = normalizedX * (y - startY) - normalizedY * (x - startX) + offset;
+
+         if ((distance <= 0.0) != (previousDistance <= 0.0))
+         {
+            double alpha = previousDistance / (previousDistance - distance);
+            buffer[2 * newSize] = previousX + alpha * (x - previousX);
+            buffer[2 * newSize + 1] = previousY + alpha * (y - previousY);
+            newSize++;
+         }
+
+         if (distance <= 0.0)
+         {
+            buffer[2 * newSize] = x;
+            buffer[2 * newSize + 1] = y;
+            newSize++;
+         }
+
+         previousX = x;
+         previousY = y;
+         previousDistance = distance;
+      }
+
+      double[] swap = vertices;
+      vertices = buffer;
+      buffer = swap;
+      numberOfVertices = newSize;
+   }
+
+   /**
+    * Removes the duplicate vertices created by clipping through a vertex, and rotates the vertices to start with the
+    * vertex with the minimum x and maximum y.
+    */
+   private void normalizeAfterClipping()
+   {
+      if (numberOfVertices > 1)
+      {
+         removeConsecutiveDuplicates();
+
+         while (numberOfVertices > 1 && Math.abs(vertices[0] - vertices[2 * numberOfVertices - 2]) <= DUPLICATE_VERTEX_EPSILON
+               && Math.abs(vertices[1] - vertices[2 * numberOfVertices - 1]) <= DUPLICATE_VERTEX_EPSILON)
+            numberOfVertices--;
+      }
+
+      int firstIndex = 0;
+      for (int i = 1; i < numberOfVertices; i++)
+      {
+         if (compare(vertices[2 * i], vertices[2 * i + 1], vertices[2 * firstIndex], vertices[2 * firstIndex + 1]) < 0)
+            firstIndex = i;
+      }
+
+      if (firstIndex != 0)
+      {
+         ensureBufferCapacity(numberOfVertices);
+         int tailLength = numberOfVertices - firstIndex;
+         System.arraycopy(vertices, 2 * firstIndex, buffer, 0, 2 * tailLength);
+         System.arraycopy(vertices, 0, buffer, 2 * tailLength, 2 * firstIndex);
+         double[] swap = vertices;
+         vertices = buffer;
+         buffer = swap;
+      }
+
+      updateProperties();
+   }
+
+   private int findClosestEdge(double x, double y)
+   {
+      int closestEdge = 0;
+      double closestDistanceSquared = Double.POSITIVE_INFINITY;
+      int numberOfEdges = numberOfVertices == 2 ? 1 : numberOfVertices;
+
+      for (int i = 0; i < numberOfEdges; i++)
+      {
+         double distanceSquared = distanceSquaredToEdge(i, x, y);
+         if (distanceSquared < closestDistanceSquared)
+         {
+            closestDistanceSquared = distanceSquared;
+            closestEdge = i;
+         }
+      }
+
+      return closestEdge;
+   }
+
+   private double getPercentageAlongEdge(int edgeIndex, double x, double y)
+   {
+      int next = edgeIndex == numberOfVertices - 1 ? 0 : edgeIndex + 1;
+      double startX = vertices[2 * edgeIndex];
+      double startY = vertices[2 * edgeIndex + 1];
+      double edgeX = vertices[2 * next] - startX;
+      double edgeY = vertices[2 * next + 1] - startY;
+      double lengthSquared = edgeX * edgeX + edgeY * edgeY;
+
+      if (lengthSquared < 1.0e-16)
+         return 0.0;
+
+      double percentage = ((x - startX) * edgeX + (y - startY) * edgeY) / lengthSquared;
+      return Math.max(0.0, Math.min(1.0, percentage));
+   }
+
+   private double distanceSquaredToEdge(int edgeIndex, double x, double y)
+   {
+      int next = edgeIndex == numberOfVertices - 1 ? 0 : edgeIndex + 1;
+      double percentage = getPercentageAlongEdge(edgeIndex, x, y);
+      double startX = vertices[2 * edgeIndex];
+      double startY = vertices[2 * edgeIndex + 1];
+      double dx = startX + percentage * (vertices[2 * next] - startX) - x;
+      double dy = startY + percentage * (vertices[2 * next + 1] - startY) - y;
+      return dx * dx + dy * dy;
+   }
+
+   // Same formulas as ConvexPolygon2d.updateCentroidAndArea().
+   private void updateProperties()
+   {
+      isUpToDate = true;
+
+      if (numberOfVertices == 0)
+      {
+         area = Double.NaN;
+         centroidX = centroidY = Double.NaN;
+         minX = minY = maxX = maxY = Double.NaN;
+         return;
+      }
+
+      minX = maxX = vertices[0];
+      minY = maxY = vertices[1];
+      for (int i = 1; i < numberOfVertices; i++)
+      {
+         minX = Math.min(minX, vertices[2 * i]);
+         maxX = Math.max(maxX, vertices[2 * i]);
+         minY = Math.min(minY, vertices[2 * i + 1]);
+         maxY = Math.max(maxY, vertices[2 * i + 1]);
+      }
+
+      area = 0.0;
+
+      if (numberOfVertices < 3)
+      {
+         centroidX = centroidY = 0.0;
+         for (int i = 0; i < numberOfVertices; i++)
+         {
+            centroidX += vertices[2 * i];
+            centroidY += vertices[2 * i + 1];
+         }
+         centroidX /= numberOfVertices;
+         centroidY /= numberOfVertices;
+         return;
+      }
+
+      double cx = 0.0;
+      double cy = 0.0;
+
+      for (int i = numberOfVertices - 1; i >= 0; i--)
+      {
+         int previous = i == 0 ? numberOfVertices - 1 : i - 1;
+         double x = vertices[2 * i];
+         double y = vertices[2 * i + 1];
+         double previousX = vertices[2 * previous];
+         double previousY = vertices[2 * previous + 1];
+
+         double weight = x * previousY - previousX * y;
+         cx += (x + previousX) * weight;
+         cy += (y + previousY) * weight;
+         area += weight;
+      }
+
+      area *= 0.5;
+
+      if (area < 1.0e-5)
+      {
+         centroidX = vertices[0];
+         centroidY = vertices[1];
+      }
+      else
+      {
+         centroidX = cx / (6.0 * area);
+         centroidY = cy / (6.0 * area);
+      }
+   }
+}
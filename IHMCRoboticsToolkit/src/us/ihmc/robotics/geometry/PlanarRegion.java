@@ -36,6 +36,8 @@ public class PlanarRegion
    private final BoundingBox3D boundingBox3dInWorld = new BoundingBox3D(new Point3D(Double.NaN, Double.NaN, Double.NaN),
          new Point3D(Double.NaN, Double.NaN, Double.NaN));
    private double boundingBoxEpsilon = DEFAULT_BOUNDING_BOX_EPSILON;
+   /** Incremented every time the bounding box is updated, used by {@link PlanarRegionsList} to detect stale spatial indices. */
+   private int boundingBoxVersion = 0;
    private final Point3D tempPointForConvexPolygonProjection = new Point3D();
 
    private final ConvexPolygon2d convexHull = new ConvexPolygon2d();
@@ -747,8 +749,19 @@ public class PlanarRegion
       updateBoundingBox();
    }
 
+   public double getBoundingBoxEpsilon()
+   {
+      return boundingBoxEpsilon;
+   }
+
+   int getBoundingBoxVersion()
+   {
+      return boundingBoxVersion;
+   }
+
    private void updateBoundingBox()
    {
+      boundingBoxVersion++;
       boundingBox3dInWorld.set(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
       for (int i = 0; i < this.getNumberOfConvexPolygons(); i++)
       {
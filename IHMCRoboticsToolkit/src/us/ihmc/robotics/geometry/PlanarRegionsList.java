@@ -3,6 +3,8 @@ package us.ihmc.robotics.geometry;
 import java.util.ArrayList;
 import java.util.List;
 
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.euclid.geometry.BoundingBox2D;
 import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple2D.Point2D;
@@ -10,8 +12,16 @@ import us.ihmc.euclid.tuple3D.Point3D;
 
 public class PlanarRegionsList
 {
+   /** Below this number of regions, the queries simply go through the list. */
+   private static final int MINIMUM_NUMBER_OF_REGIONS_FOR_SPATIAL_INDEX = 8;
+   /** Added to the bounding boxes of the index such that the index never rejects a region the exact test would accept. */
+   private static final double SPATIAL_INDEX_MARGIN = 1.0e-9;
+
    private final List<PlanarRegion> regions;
 
+   private boolean useSpatialIndex = true;
+   private volatile SpatialIndex spatialIndex = null;
+
    public PlanarRegionsList(PlanarRegion... planarRegions)
    {
       regions = new ArrayList<>();
@@ -45,9 +55,14 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      BoundingBox2D polygonBoundingBox = convexPolygon.getBoundingBox();
+      TIntArrayList candidates = findCandidateRegionIndices(polygonBoundingBox.getMinPoint().getX(), polygonBoundingBox.getMinPoint().getY(),
+                                                            polygonBoundingBox.getMaxPoint().getX(), polygonBoundingBox.getMaxPoint().getY());
+      int numberOfCandidates = candidates == null ? regions.size() : candidates.size();
+
+      for (int candidateIndex = 0; candidateIndex < numberOfCandidates; candidateIndex++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = regions.get(candidates == null ? candidateIndex : candidates.get(candidateIndex));
          if (candidateRegion.isVertical()) continue;
 
          if (candidateRegion.isPolygonIntersecting(convexPolygon))
@@ -69,9 +84,17 @@ public class PlanarRegionsList
     */
    public void findPlanarRegionsIntersectingLineSegment(LineSegment2d lineSegmentInWorld, ArrayList<PlanarRegion> intersectingRegionsToPack)
    {
-      for (int i = 0; i < regions.size(); i++)
+      Point2D firstEndpoint = lineSegmentInWorld.getFirstEndpoint();
+      Point2D secondEndpoint = lineSegmentInWorld.getSecondEndpoint();
+      TIntArrayList candidates = findCandidateRegionIndices(Math.min(firstEndpoint.getX(), secondEndpoint.getX()),
+                                                            Math.min(firstEndpoint.getY(), secondEndpoint.getY()),
+                                                            Math.max(firstEndpoint.getX(), secondEndpoint.getX()),
+                                                            Math.max(firstEndpoint.getY(), secondEndpoint.getY()));
+      int numberOfCandidates = candidates == null ? regions.size() : candidates.size();
+
+      for (int candidateIndex = 0; candidateIndex < numberOfCandidates; candidateIndex++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = regions.get(candidates == null ? candidateIndex : candidates.get(candidateIndex));
          if (isLineSegmentObviouslyOutsideBoundingBox(candidateRegion, lineSegmentInWorld)) continue;
 
          if (candidateRegion.isVertical()) continue;
@@ -120,9 +143,15 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      // The point is at most maximumOrthogonalDistance away from the region along each world axis.
+      double tolerance = Math.abs(maximumOrthogonalDistance);
+      TIntArrayList candidates = findCandidateRegionIndices(point.getX() - tolerance, point.getY() - tolerance, point.getX() + tolerance,
+                                                            point.getY() + tolerance);
+      int numberOfCandidates = candidates == null ? regions.size() : candidates.size();
+
+      for (int candidateIndex = 0; candidateIndex < numberOfCandidates; candidateIndex++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = regions.get(candidates == null ? candidateIndex : candidates.get(candidateIndex));
          if (candidateRegion.isPointInside(point, maximumOrthogonalDistance))
          {
             if (containers == null)
@@ -156,9 +185,12 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      TIntArrayList candidates = findCandidateRegionIndices(x, y, x, y);
+      int numberOfCandidates = candidates == null ? regions.size() : candidates.size();
+
+      for (int candidateIndex = 0; candidateIndex < numberOfCandidates; candidateIndex++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = regions.get(candidates == null ? candidateIndex : candidates.get(candidateIndex));
          if (candidateRegion.isPointInsideByProjectionOntoXYPlane(x, y))
          {
             if (containers == null)
@@ -170,6 +202,112 @@ public class PlanarRegionsList
       return containers;
    }
 
+   /**
+    * Enables or disables the spatial index used to speed up the queries on large lists. The results of the queries do
+    * not depend on this option. Enabled by default.
+    */
+   public void setUseSpatialIndex(boolean useSpatialIndex)
+   {
+      this.useSpatialIndex = useSpatialIndex;
+   }
+
+   /**
+    * Finds the indices of the regions which bounding box projected onto the XY-plane intersects the given box.
+    * @return the candidate indices in ascending order such that the queries return the regions in the order of the list,
+    *         or null when the index is not used and all the regions are candidates.
+    */
+   private TIntArrayList findCandidateRegionIndices(double minX, double minY, double maxX, double maxY)
+   {
+      SpatialIndex index = getSpatialIndex();
+      if (index == null)
+         return null;
+
+      TIntArrayList candidates = new TIntArrayList();
+      index.tree.findIntersectingBoxes(minX, minY, maxX, maxY, candidates);
+      candidates.sort();
+      return candidates;
+   }
+
+   private SpatialIndex getSpatialIndex()
+   {
+      if (!useSpatialIndex || regions.size() < MINIMUM_NUMBER_OF_REGIONS_FOR_SPATIAL_INDEX)
+         return null;
+
+      SpatialIndex index = spatialIndex;
+      if (index != null && index.isUpToDate(regions))
+         return index;
+      else
+         return rebuildSpatialIndex();
+   }
+
+   private synchronized SpatialIndex rebuildSpatialIndex()
+   {
+      // Another thread may have rebuilt the index in the meantime.
+      SpatialIndex index = spatialIndex;
+      if (index == null || !index.isUpToDate(regions))
+      {
+         index = new SpatialIndex(regions);
+         spatialIndex = index;
+      }
+      return index;
+   }
+
+   /**
+    * Immutable R-tree of the bounding boxes of the regions projected onto the XY-plane.
+    * <p>
+    * The regions can be modified after the index is built, so the index remembers the regions and the version of their
+    * bounding box, and is rebuilt when any of them has changed.
+    * </p>
+    */
+   private static class SpatialIndex
+   {
+      private final PlanarRegion[] indexedRegions;
+      private final int[] boundingBoxVersions;
+      private final RTree2d tree;
+
+      private SpatialIndex(List<PlanarRegion> regions)
+      {
+         int numberOfRegions = regions.size();
+         indexedRegions = new PlanarRegion[numberOfRegions];
+         boundingBoxVersions = new int[numberOfRegions];
+         double[] minX = new double[numberOfRegions];
+         double[] minY = new double[numberOfRegions];
+         double[] maxX = new double[numberOfRegions];
+         double[] maxY = new double[numberOfRegions];
+
+         for (int i = 0; i < numberOfRegions; i++)
+         {
+            PlanarRegion region = regions.get(i);
+            indexedRegions[i] = region;
+            boundingBoxVersions[i] = region.getBoundingBoxVersion();
+
+            BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+            double margin = region.getBoundingBoxEpsilon() + SPATIAL_INDEX_MARGIN;
+            minX[i] = boundingBox.getMinX() - margin;
+            minY[i] = boundingBox.getMinY() - margin;
+            maxX[i] = boundingBox.getMaxX() + margin;
+            maxY[i] = boundingBox.getMaxY() + margin;
+         }
+
+         tree = new RTree2d(minX, minY, maxX, maxY, numberOfRegions);
+      }
+
+      private boolean isUpToDate(List<PlanarRegion> regions)
+      {
+         if (regions.size() != indexedRegions.length)
+            return false;
+
+         for (int i = 0; i < indexedRegions.length; i++)
+         {
+            PlanarRegion region = regions.get(i);
+            if (region != indexedRegions[i] || region.getBoundingBoxVersion() != boundingBoxVersions[i])
+               return false;
+         }
+
+         return true;
+      }
+   }
+
    /** Returns true if this list of planar regions is empty (contains no planar regions). */
    public boolean isEmpty()
    {
@@ -0,0 +1,177 @@
+package us.ihmc.robotics.geometry;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Static 2D R-tree of axis-aligned boxes, bulk-loaded with the Sort-Tile-Recursive algorithm.
+ * <p>
+ * Each box is identified by the index it was given at construction. The tree cannot be modified once built, it is
+ * meant to be rebuilt when the boxes change. As it is immutable, it can be queried from several threads at once.
+ * </p>
+ */
+public class RTree2d
+{
+   /** Maximum number of children of a node. */
+   public static final int NODE_CAPACITY = 8;
+
+   private final Node root;
+   private final int numberOfBoxes;
+
+   /**
+    * Builds the tree. Boxes containing NaN are not added to the tree and are never returned by the queries.
+    *
+    * @param minX the minimum x-coordinate of each box.
+    * @param minY the minimum y-coordinate of each box.
+    * @param maxX the maximum x-coordinate of each box.
+    * @param maxY the maximum y-coordinate of each box.
+    * @param numberOfBoxes number of boxes to read from the arrays.
+    */
+   public RTree2d(double[] minX, double[] minY, double[] maxX, double[] maxY, int numberOfBoxes)
+   {
+      Node[] leaves = new Node[numberOfBoxes];
+      int numberOfLeaves = 0;
+
+      for (int i = 0; i < numberOfBoxes; i++)
+      {
+         if (Double.isNaN(minX[i]) || Double.isNaN(minY[i]) || Double.isNaN(maxX[i]) || Double.isNaN(maxY[i]))
+            continue;
+         leaves[numberOfLeaves++] = new Node(i, minX[i], minY[i], maxX[i], maxY[i]);
+      }
+
+      this.numberOfBoxes = numberOfLeaves;
+
+      Node[] level = Arrays.copyOf(leaves, numberOfLeaves);
+
+      while (level.length > 1)
+         level = packLevel(level);
+
+      root = level.length == 1 ? level[0] : null;
+   }
+
+   private static final Comparator<Node> centerXComparator = new Comparator<Node>()
+   {
+      @Override
+      public int compare(Node node1, Node node2)
+      {
+         return Double.compare(node1.minX + node1.maxX, node2.minX + node2.maxX);
+      }
+   };
+
+   private static final Comparator<Node> centerYComparator = new Comparator<Node>()
+   {
+      @Override
+      public int compare(Node node1, Node node2)
+      {
+         return Double.compare(node1.minY + node1.maxY, node2.minY + node2.maxY);
+      }
+   };
+
+   /**
+    * Sort-Tile-Recursive packing of one level: the nodes are sorted along x and cut in vertical slices, each slice is
+    * sorted along y and packed in parents of {@link #NODE_CAPACITY} children.
+    */
+   private static Node[] packLevel(Node[] nodes)
+   {
+      int numberOfParents = (nodes.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+      int numberOfSlices = (int) Math.ceil(Math.sqrt(numberOfParents));
+      int sliceSize = numberOfSlices * NODE_CAPACITY;
+
+      Arrays.sort(nodes, centerXComparator);
+
+      Node[] parents = new Node[numberOfParents];
+      int parentIndex = 0;
+
+      for (int sliceStart = 0; sliceStart < nodes.length; sliceStart += sliceSize)
+      {
+         int sliceEnd = Math.min(sliceStart + sliceSize, nodes.length);
+         Arrays.sort(nodes, sliceStart, sliceEnd, centerYComparator);
+
+         for (int childStart = sliceStart; childStart < sliceEnd; childStart += NODE_CAPACITY)
+         {
+            int childEnd = Math.min(childStart + NODE_CAPACITY, sliceEnd);
+            parents[parentIndex++] = new Node(Arrays.copyOfRange(nodes, childStart, childEnd));
+         }
+      }
+
+      return parentIndex == parents.length ? parents : Arrays.copyOf(parents, parentIndex);
+   }
+
+   /**
+    * Finds all the boxes intersecting the given query box, boundaries included.
+    *
+    * @param indicesToPack the indices of the intersecting boxes are added to this list, in no particular order.
+    */
+   public void findIntersectingBoxes(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, TIntArrayList indicesToPack)
+   {
+      if (root != null)
+         findIntersectingBoxes(root, queryMinX, queryMinY, queryMaxX, queryMaxY, indicesToPack);
+   }
+
+   private static void findIntersectingBoxes(Node node, double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, TIntArrayList indicesToPack)
+   {
+      if (!node.intersects(queryMinX, queryMinY, queryMaxX, queryMaxY))
+         return;
+
+      if (node.children == null)
+      {
+         indicesToPack.add(node.index);
+         return;
+      }
+
+      for (int i = 0; i < node.children.length; i++)
+         findIntersectingBoxes(node.children[i], queryMinX, queryMinY, queryMaxX, queryMaxY, indicesToPack);
+   }
+
+   /** @return the number of boxes stored in the tree, excluding the boxes containing NaN. */
+   public int getNumberOfBoxes()
+   {
+      return numberOfBoxes;
+   }
+
+   private static class Node
+   {
+      private final int index;
+      private final Node[] children;
+      private final double minX, minY, maxX, maxY;
+
+      private Node(int index, double minX, double minY, double maxX, double maxY)
+      {
+         this.index = index;
+         this.children = null;
+         this.minX = minX;
+         this.minY = minY;
+         this.maxX = maxX;
+         this.maxY = maxY;
+      }
+
+      private Node(Node[] children)
+      {
+         this.index = -1;
+         this.children = children;
+
+         double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+         double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+         for (Node child : children)
+         {
+            minX = Math.min(minX, child.minX);
+            minY = Math.min(minY, child.minY);
+            maxX = Math.max(maxX, child.maxX);
+            maxY = Math.max(maxY, child.maxY);
+         }
+
+         this.minX = minX;
+         this.minY = minY;
+         this.maxX = maxX;
+         this.maxY = maxY;
+      }
+
+      private boolean intersects(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY)
+      {
+         return minX <= queryMaxX && queryMinX <= maxX && minY <= queryMaxY && queryMinY <= maxY;
+      }
+   }
+}
@@ -216,9 +216,14 @@ public class QuadTreeForGroundLeaf
    public void removePoint(QuadTreeForGroundPoint quadTreeForGroundPoint)
    {
       points.remove(quadTreeForGroundPoint);
+      setAveragePointDirty();
       if(points.size() == 0)
       {
          node.merge();
       }
+      else
+      {
+         node.notifyListenersLeafChanged();
+      }
    }
 }
@@ -203,6 +203,7 @@ public class QuadTreeForGroundNode
       if (Math.abs(averagePoint.getZ() - point.getZ()) < parameters.getHeightThreshold())
       {
          updateLeafValue(point);
+         notifyListenersLeafChanged();
          QuadTreeForGroundPutResult quadTreePutResult = createNewResult();
 
          return quadTreePutResult;
@@ -603,12 +604,31 @@ public class QuadTreeForGroundNode
       }
       else
       {
+         for (QuadTreeForGroundListener listener : listeners)
+         {
+            listener.nodeRemoved(id);
+         }
+
          leaf = null;
          parent.merge();
       }
       
    }
 
+   /**
+    * Notifies the listeners that the points of the leaf of this node have changed without the leaf being created or
+    * removed, for instance when a point is evicted by the {@link QuadTreeForGroundPointLimiter}.
+    */
+   void notifyListenersLeafChanged()
+   {
+      for (QuadTreeForGroundListener listener : listeners)
+      {
+         Point3D averagePoint = leaf.getAveragePoint();
+         listener.nodeRemoved(id);
+         listener.nodeAdded(id, bounds, (float) averagePoint.getX(), (float) averagePoint.getY(), (float) averagePoint.getZ());
+      }
+   }
+
    public QuadTreeForGroundPutResult put(double x, double y, double z)
    {
       QuadTreeForGroundPoint point = new QuadTreeForGroundPoint(x, y, z);
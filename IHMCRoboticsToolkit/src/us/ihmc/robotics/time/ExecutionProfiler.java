@@ -0,0 +1,209 @@
+package us.ihmc.robotics.time;
+
+import java.util.function.LongSupplier;
+
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.BooleanYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+
+/**
+ * Hierarchical timing and allocation profiler for a real-time thread.
+ * <p>
+ * The profiler owns a root scope covering one tick of the thread, {@link #startTick()} and {@link #stopTick()} bracket it.
+ * Nested {@link ExecutionProfilerScope}s are created once with {@link #createScope(String)} or
+ * {@link ExecutionProfilerScope#createChild(String)} and then started and stopped around the code to measure.
+ * All the measurements are YoVariables so they are logged with the rest of the registry, and
+ * {@link #getFlameSummary()} gives a readable breakdown of the last tick.
+ * </p>
+ * <p>
+ * The profiler is disabled by default, it is enabled with {@link #setEnabled(boolean)} or its YoVariable. When
+ * disabled, starting and stopping a scope only costs reading a boolean. Allocation tracking relies on the per thread
+ * allocated bytes of the JVM, which costs a JNI call per scope, and is off by default independently of the timing.
+ * The allocation counter is calibrated on the first tick tracking allocations, on the thread being profiled.
+ * </p>
+ * <p>
+ * For tests, {@link #setThrowOnAllocationAfterWarmup(boolean)} makes {@link #stopTick()} throw a {@link RuntimeException}
+ * on the first tick after the warm-up period that allocated, naming the deepest scope that allocated.
+ * </p>
+ */
+public class ExecutionProfiler
+{
+   private final YoVariableRegistry registry;
+   private final BooleanYoVariable enabled;
+   private final BooleanYoVariable trackAllocations;
+   private final LongYoVariable numberOfWarmupTicks;
+   private final LongYoVariable tickCount;
+   private final LongYoVariable numberOfAllocatingTicksAfterWarmup;
+   private final LongYoVariable allocatedBytesAfterWarmup;
+
+   private final ThreadAllocationCounter allocationCounter = new ThreadAllocationCounter();
+   private final ExecutionProfilerScope tickScope;
+
+   private boolean throwOnAllocationAfterWarmup = false;
+   private LongSupplier nanoTimeClock = System::nanoTime;
+
+   public ExecutionProfiler(String name, YoVariableRegistry parentRegistry)
+   {
+      this(name, 1000, parentRegistry);
+   }
+
+   /**
+    * @param name name of the profiler, also used for its registry.
+    * @param numberOfWarmupTicks number of ticks during which allocations are expected and not reported.
+    * @param parentRegistry registry the profiler registry is added to.
+    */
+   public ExecutionProfiler(String name, long numberOfWarmupTicks, YoVariableRegistry parentRegistry)
+   {
+      registry = new YoVariableRegistry(name);
+
+      enabled = new BooleanYoVariable(name + "Enabled", registry);
+      trackAllocations = new BooleanYoVariable(name + "TrackAllocations", registry);
+      this.numberOfWarmupTicks = new LongYoVariable(name + "NumberOfWarmupTicks", registry);
+      tickCount = new LongYoVariable(name + "TickCount", registry);
+      numberOfAllocatingTicksAfterWarmup = new LongYoVariable(name + "NumberOfAllocatingTicksAfterWarmup", registry);
+      allocatedBytesAfterWarmup = new LongYoVariable(name + "AllocatedBytesAfterWarmup", registry);
+
+      enabled.set(false);
+      trackAllocations.set(false);
+      this.numberOfWarmupTicks.set(numberOfWarmupTicks);
+
+      tickScope = new ExecutionProfilerScope("tick", this, null, registry);
+
+      if (parentRegistry != null)
+         parentRegistry.addChild(registry);
+   }
+
+   /**
+    * Creates a scope directly under the tick scope. Scopes should be created before the real-time loop starts.
+    */
+   public ExecutionProfilerScope createScope(String name)
+   {
+      return tickScope.createChild(name);
+   }
+
+   public void startTick()
+   {
+      if (!enabled.getBooleanValue())
+         return;
+
+      if (trackAllocations.getBooleanValue() && !allocationCounter.isCalibrated())
+         allocationCounter.calibrate();
+
+      tickScope.clear();
+      tickScope.start();
+   }
+
+   public void stopTick()
+   {
+      if (!enabled.getBooleanValue())
+         return;
+
+      tickScope.stop();
+      tickCount.increment();
+
+      if (tickCount.getLongValue() <= numberOfWarmupTicks.getLongValue() || tickScope.getAllocatedBytes() <= 0)
+         return;
+
+      numberOfAllocatingTicksAfterWarmup.increment();
+      allocatedBytesAfterWarmup.add(tickScope.getAllocatedBytes());
+
+      if (throwOnAllocationAfterWarmup)
+      {
+         ExecutionProfilerScope culprit = tickScope.findDeepestAllocatingScope();
+         throw new RuntimeException(registry.getName() + ": " + culprit.getFullName() + " allocated " + culprit.getAllocatedBytes() + " bytes on tick "
+               + tickCount.getLongValue() + " after warm-up.\n" + getFlameSummary());
+      }
+   }
+
+   /**
+    * @return an indented breakdown of the last tick: time, share of the tick, maximum time and allocated bytes of every scope.
+    */
+   public String getFlameSummary()
+   {
+      StringBuilder summary = new StringBuilder();
+      tickScope.appendSummary(summary, 0, tickScope.getTime());
+      return summary.toString();
+   }
+
+   public void setEnabled(boolean enabled)
+   {
+      this.enabled.set(enabled);
+   }
+
+   public boolean isEnabled()
+   {
+      return enabled.getBooleanValue();
+   }
+
+   /**
+    * Allocation tracking can only be enabled if the JVM supports per thread allocation accounting.
+    */
+   public void setTrackAllocations(boolean trackAllocations)
+   {
+      this.trackAllocations.set(trackAllocations && allocationCounter.isSupported());
+   }
+
+   public boolean isTrackingAllocations()
+   {
+      return trackAllocations.getBooleanValue();
+   }
+
+   /**
+    * Replaces {@link System#nanoTime()} as the source of time of the scopes, for testing.
+    */
+   void setNanoTimeClock(LongSupplier nanoTimeClock)
+   {
+      this.nanoTimeClock = nanoTimeClock;
+   }
+
+   long nanoTime()
+   {
+      return nanoTimeClock.getAsLong();
+   }
+
+   public void setThrowOnAllocationAfterWarmup(boolean throwOnAllocationAfterWarmup)
+   {
+      this.throwOnAllocationAfterWarmup = throwOnAllocationAfterWarmup;
+
+      if (throwOnAllocationAfterWarmup)
+      {
+         setEnabled(true);
+         setTrackAllocations(true);
+      }
+   }
+
+   public void setNumberOfWarmupTicks(long numberOfWarmupTicks)
+   {
+      this.numberOfWarmupTicks.set(numberOfWarmupTicks);
+   }
+
+   public long getTickCount()
+   {
+      return tickCount.getLongValue();
+   }
+
+   public long getNumberOfAllocatingTicksAfterWarmup()
+   {
+      return numberOfAllocatingTicksAfterWarmup.getLongValue();
+   }
+
+   public long getAllocatedBytesAfterWarmup()
+   {
+      return allocatedBytesAfterWarmup.getLongValue();
+   }
+
+   public ExecutionProfilerScope getTickScope()
+   {
+      return tickScope;
+   }
+
+   ThreadAllocationCounter getAllocationCounter()
+   {
+      return allocationCounter;
+   }
+
+   public YoVariableRegistry getYoVariableRegistry()
+   {
+      return registry;
+   }
+}
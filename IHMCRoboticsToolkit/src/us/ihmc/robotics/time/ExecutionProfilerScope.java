@@ -0,0 +1,201 @@
+package us.ihmc.robotics.time;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+
+/**
+ * One node of the timing tree of an {@link ExecutionProfiler}. Each scope logs the time spent and the bytes allocated
+ * between {@link #start()} and {@link #stop()} in its own registry, nested in the registry of its parent scope.
+ * Both calls return immediately when the profiler is disabled.
+ */
+public class ExecutionProfilerScope
+{
+   private final String name;
+   private final ExecutionProfiler profiler;
+   private final ExecutionProfilerScope parent;
+   private final YoVariableRegistry registry;
+   private final List<ExecutionProfilerScope> children = new ArrayList<>();
+
+   private final DoubleYoVariable time;
+   private final DoubleYoVariable maximumTime;
+   private final LongYoVariable allocatedBytes;
+   private final LongYoVariable maximumAllocatedBytes;
+
+   private long startTime;
+   private long startAllocatedBytes;
+   private boolean isRunning = false;
+
+   ExecutionProfilerScope(String name, ExecutionProfiler profiler, ExecutionProfilerScope parent, YoVariableRegistry parentRegistry)
+   {
+      this.name = name;
+      this.profiler = profiler;
+      this.parent = parent;
+
+      registry = new YoVariableRegistry(name);
+      parentRegistry.addChild(registry);
+
+      time = new DoubleYoVariable(name + "Time", registry);
+      maximumTime = new DoubleYoVariable(name + "MaximumTime", registry);
+      allocatedBytes = new LongYoVariable(name + "AllocatedBytes", registry);
+      maximumAllocatedBytes = new LongYoVariable(name + "MaximumAllocatedBytes", registry);
+   }
+
+   /**
+    * Creates a scope nested in this one. Scopes should be created before the real-time loop starts.
+    */
+   public ExecutionProfilerScope createChild(String childName)
+   {
+      ExecutionProfilerScope child = new ExecutionProfilerScope(childName, profiler, this, registry);
+      children.add(child);
+      return child;
+   }
+
+   public void start()
+   {
+      if (!profiler.isEnabled())
+         return;
+
+      isRunning = true;
+
+      if (profiler.isTrackingAllocations())
+         startAllocatedBytes = profiler.getAllocationCounter().getAllocatedBytes();
+
+      startTime = profiler.nanoTime();
+   }
+
+   public void stop()
+   {
+      if (!isRunning)
+         return;
+
+      long stopTime = profiler.nanoTime();
+      isRunning = false;
+
+      double timeTaken = (stopTime - startTime) / 1.0e9;
+      time.set(timeTaken);
+      if (timeTaken > maximumTime.getDoubleValue())
+         maximumTime.set(timeTaken);
+
+      if (profiler.isTrackingAllocations())
+      {
+         long bytes = profiler.getAllocationCounter().getAllocatedBytes() - startAllocatedBytes;
+         allocatedBytes.set(bytes);
+         if (bytes > maximumAllocatedBytes.getLongValue())
+            maximumAllocatedBytes.set(bytes);
+      }
+      else
+      {
+         allocatedBytes.set(0);
+      }
+   }
+
+   void clear()
+   {
+      time.set(0.0);
+      allocatedBytes.set(0);
+
+      for (int i = 0; i < children.size(); i++)
+         children.get(i).clear();
+   }
+
+   /**
+    * Finds the deepest scope that allocated during the last tick, to point at the culprit rather than at its parents.
+    */
+   ExecutionProfilerScope findDeepestAllocatingScope()
+   {
+      if (allocatedBytes.getLongValue() <= 0)
+         return null;
+
+      for (int i = 0; i < children.size(); i++)
+      {
+         ExecutionProfilerScope allocatingChild = children.get(i).findDeepestAllocatingScope();
+         if (allocatingChild != null)
+            return allocatingChild;
+      }
+
+      return this;
+   }
+
+   void appendSummary(StringBuilder summary, int depth, double rootTime)
+   {
+      for (int i = 0; i < depth; i++)
+         summary.append("  ");
+
+      double timeTaken = time.getDoubleValue();
+      summary.append(name).append(": ");
+      summary.append(String.format("%.3f", timeTaken * 1.0e3)).append(" ms");
+      if (rootTime > 0.0)
+         summary.append(String.format(" (%.1f%%)", 100.0 * timeTaken / rootTime));
+      summary.append(", max ").append(String.format("%.3f", maximumTime.getDoubleValue() * 1.0e3)).append(" ms");
+      if (profiler.isTrackingAllocations())
+         summary.append(", ").append(allocatedBytes.getLongValue()).append(" bytes allocated");
+      summary.append(System.lineSeparator());
+
+      double childrenTime = 0.0;
+      for (int i = 0; i < children.size(); i++)
+      {
+         children.get(i).appendSummary(summary, depth + 1, rootTime);
+         childrenTime += children.get(i).getTime();
+      }
+
+      if (!children.isEmpty() && timeTaken > childrenTime)
+      {
+         for (int i = 0; i <= depth; i++)
+            summary.append("  ");
+         summary.append("(self): ").append(String.format("%.3f", (timeTaken - childrenTime) * 1.0e3)).append(" ms").append(System.lineSeparator());
+      }
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public String getFullName()
+   {
+      if (parent == null)
+         return name;
+      else
+         return parent.getFullName() + "." + name;
+   }
+
+   public ExecutionProfilerScope getParent()
+   {
+      return parent;
+   }
+
+   public List<ExecutionProfilerScope> getChildren()
+   {
+      return children;
+   }
+
+   /**
+    * @return the time in seconds spent in this scope during the last measurement.
+    */
+   public double getTime()
+   {
+      return time.getDoubleValue();
+   }
+
+   public double getMaximumTime()
+   {
+      return maximumTime.getDoubleValue();
+   }
+
+   /**
+    * @return the bytes allocated by the thread in this scope during the last measurement, 0 if allocation tracking is disabled.
+    */
+   public long getAllocatedBytes()
+   {
+      return allocatedBytes.getLongValue();
+   }
+
+   public long getMaximumAllocatedBytes()
+   {
+      return maximumAllocatedBytes.getLongValue();
+   }
+}
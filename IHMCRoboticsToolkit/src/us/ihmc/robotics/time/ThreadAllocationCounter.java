@@ -0,0 +1,87 @@
+package us.ihmc.robotics.time;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the calling thread using the HotSpot thread allocation accounting.
+ * <p>
+ * Depending on the JVM, querying the allocated bytes can itself allocate a few bytes. This overhead is measured by
+ * {@link #calibrate()}, on the first reading if it was not called before, and removed from every reading, so the
+ * difference between two readings on the same thread is the exact amount allocated in between, even when other
+ * readings were taken in the meantime.
+ * </p>
+ * A counter is meant to be used by a single thread, which should also be the thread calibrating it.
+ */
+public class ThreadAllocationCounter
+{
+   private static final int NUMBER_OF_CALIBRATION_CALLS = 16;
+
+   private final com.sun.management.ThreadMXBean threadMXBean;
+   private long overheadPerReading = 0;
+   private long numberOfReadings = 0;
+   private boolean isCalibrated = false;
+
+   public ThreadAllocationCounter()
+   {
+      java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+      if (threadMXBean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported())
+         this.threadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      else
+         this.threadMXBean = null;
+   }
+
+   /**
+    * Enables the allocation accounting of the JVM and measures the overhead of a reading on the calling thread. Does
+    * nothing if the JVM does not support it.
+    */
+   public void calibrate()
+   {
+      if (threadMXBean == null)
+         return;
+
+      threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+      long threadId = Thread.currentThread().getId();
+      long minimumOverhead = Long.MAX_VALUE;
+
+      for (int i = 0; i < NUMBER_OF_CALIBRATION_CALLS; i++)
+      {
+         long first = threadMXBean.getThreadAllocatedBytes(threadId);
+         long second = threadMXBean.getThreadAllocatedBytes(threadId);
+         minimumOverhead = Math.min(minimumOverhead, second - first);
+      }
+
+      overheadPerReading = Math.max(minimumOverhead, 0);
+      numberOfReadings = 0;
+      isCalibrated = true;
+   }
+
+   public boolean isCalibrated()
+   {
+      return isCalibrated;
+   }
+
+   /**
+    * @return whether the JVM supports per thread allocation accounting. If not, {@link #getAllocatedBytes()} always returns 0.
+    */
+   public boolean isSupported()
+   {
+      return threadMXBean != null;
+   }
+
+   /**
+    * @return the total number of bytes allocated by the calling thread, corrected for the allocations done by this counter.
+    */
+   public long getAllocatedBytes()
+   {
+      if (threadMXBean == null)
+         return 0;
+      if (!isCalibrated)
+         calibrate();
+
+      long allocatedBytes = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      numberOfReadings++;
+      return allocatedBytes - numberOfReadings * overheadPerReading;
+   }
+}
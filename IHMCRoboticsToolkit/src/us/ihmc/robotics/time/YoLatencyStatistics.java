@@ -0,0 +1,163 @@
+package us.ihmc.robotics.time;
+
+import java.util.Arrays;
+
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.LongYoVariable;
+
+/**
+ * Keeps the latencies of the last requests in a sliding window and publishes the median, the 90th and 99th
+ * percentiles and the maximum of the window as YoVariables.
+ * <p>
+ * No memory is allocated after construction. The percentiles are recomputed by sorting a copy of the window on every
+ * sample, so the window should be kept to a few hundred samples.
+ * </p>
+ */
+public class YoLatencyStatistics
+{
+   private final double[] window;
+   private final double[] sortedWindow;
+   private int numberOfSamplesInWindow = 0;
+   private int nextSampleIndex = 0;
+
+   private final LongYoVariable numberOfSamples;
+   private final DoubleYoVariable lastLatency;
+   private final DoubleYoVariable medianLatency;
+   private final DoubleYoVariable percentile90Latency;
+   private final DoubleYoVariable percentile99Latency;
+   private final DoubleYoVariable maximumLatency;
+
+   private long startTime = Long.MIN_VALUE;
+
+   /**
+    * @param namePrefix prefix of the YoVariables.
+    * @param windowSize number of the most recent samples the statistics are computed over.
+    * @param registry registry the YoVariables are added to.
+    */
+   public YoLatencyStatistics(String namePrefix, int windowSize, YoVariableRegistry registry)
+   {
+      if (windowSize < 1)
+         throw new RuntimeException("The window size has to be at least 1, was: " + windowSize);
+
+      window = new double[windowSize];
+      sortedWindow = new double[windowSize];
+
+      numberOfSamples = new LongYoVariable(namePrefix + "NumberOfSamples", registry);
+      lastLatency = new DoubleYoVariable(namePrefix + "LastLatency", registry);
+      medianLatency = new DoubleYoVariable(namePrefix + "MedianLatency", registry);
+      percentile90Latency = new DoubleYoVariable(namePrefix + "Percentile90Latency", registry);
+      percentile99Latency = new DoubleYoVariable(namePrefix + "Percentile99Latency", registry);
+      maximumLatency = new DoubleYoVariable(namePrefix + "MaximumLatency", registry);
+   }
+
+   /**
+    * Starts timing a request with {@link System#nanoTime()}. Restarting before {@link #stop()} discards the previous start.
+    */
+   public void start()
+   {
+      startTime = System.nanoTime();
+   }
+
+   /**
+    * Starts timing a request that was received at the given time, as returned by {@link System#nanoTime()}.
+    */
+   public void start(long receiveTime)
+   {
+      startTime = receiveTime;
+   }
+
+   /**
+    * Adds the time elapsed since the last call to {@link #start()} as a new sample. Does nothing if not started.
+    */
+   public void stop()
+   {
+      if (startTime == Long.MIN_VALUE)
+         return;
+
+      addSample((System.nanoTime() - startTime) / 1.0e9);
+      startTime = Long.MIN_VALUE;
+   }
+
+   public boolean isStarted()
+   {
+      return startTime != Long.MIN_VALUE;
+   }
+
+   /**
+    * @param latency latency of one request in seconds.
+    */
+   public void addSample(double latency)
+   {
+      window[nextSampleIndex] = latency;
+      nextSampleIndex++;
+      if (nextSampleIndex == window.length)
+         nextSampleIndex = 0;
+      if (numberOfSamplesInWindow < window.length)
+         numberOfSamplesInWindow++;
+
+      numberOfSamples.increment();
+      lastLatency.set(latency);
+
+      System.arraycopy(window, 0, sortedWindow, 0, numberOfSamplesInWindow);
+      Arrays.sort(sortedWindow, 0, numberOfSamplesInWindow);
+
+      medianLatency.set(getPercentile(0.5));
+      percentile90Latency.set(getPercentile(0.9));
+      percentile99Latency.set(getPercentile(0.99));
+      maximumLatency.set(sortedWindow[numberOfSamplesInWindow - 1]);
+   }
+
+   /**
+    * Nearest-rank percentile of the samples currently in the window.
+    */
+   private double getPercentile(double percentile)
+   {
+      int index = (int) Math.ceil(percentile * numberOfSamplesInWindow) - 1;
+      return sortedWindow[Math.max(0, Math.min(index, numberOfSamplesInWindow - 1))];
+   }
+
+   public void reset()
+   {
+      numberOfSamplesInWindow = 0;
+      nextSampleIndex = 0;
+      startTime = Long.MIN_VALUE;
+
+      numberOfSamples.set(0);
+      lastLatency.set(0.0);
+      medianLatency.set(0.0);
+      percentile90Latency.set(0.0);
+      percentile99Latency.set(0.0);
+      maximumLatency.set(0.0);
+   }
+
+   public long getNumberOfSamples()
+   {
+      return numberOfSamples.getLongValue();
+   }
+
+   public double getLastLatency()
+   {
+      return lastLatency.getDoubleValue();
+   }
+
+   public double getMedianLatency()
+   {
+      return medianLatency.getDoubleValue();
+   }
+
+   public double getPercentile90Latency()
+   {
+      return percentile90Latency.getDoubleValue();
+   }
+
+   public double getPercentile99Latency()
+   {
+      return percentile99Latency.getDoubleValue();
+   }
+
+   public double getMaximumLatency()
+   {
+      return maximumLatency.getDoubleValue();
+   }
+}
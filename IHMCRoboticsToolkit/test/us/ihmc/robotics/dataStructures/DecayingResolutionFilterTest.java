@@ -0,0 +1,104 @@
+package us.ihmc.robotics.dataStructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D32;
+import us.ihmc.euclid.tuple3D.Vector3D32;
+
+public class DecayingResolutionFilterTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testOnePointPerVoxel()
+   {
+      DecayingResolutionFilter filter = new DecayingResolutionFilter(0.1, -1, 0);
+
+      assertTrue(filter.add(0.01, 0.01, 0.01));
+      assertFalse(filter.add(0.09, 0.02, 0.05));
+      assertTrue(filter.add(-0.01, 0.01, 0.01));
+      assertTrue(filter.add(0.11, 0.01, 0.01));
+      assertEquals(3, filter.getNumberOfPoints());
+
+      // Coarser voxels merge the points.
+      filter.setResolution(1.0);
+      assertFalse(filter.add(0.5, 0.5, 0.5));
+      assertTrue(filter.add(1.5, 0.5, 0.5));
+
+      filter.clear();
+      assertEquals(0, filter.getNumberOfPoints());
+      assertTrue(filter.add(0.01, 0.01, 0.01));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testCapacityRemovesOldestPoints()
+   {
+      int capacity = 2500;
+      DecayingResolutionFilter filter = new DecayingResolutionFilter(0.1, -1, capacity);
+
+      int numberOfPoints = 10000;
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         assertTrue(filter.add(0.1 * i + 0.05, 0.0, 0.0));
+      }
+
+      assertEquals(capacity, filter.getNumberOfPoints());
+
+      float[] xyz = new float[3 * capacity];
+      assertEquals(capacity, filter.getPointsXYZ(xyz));
+      for (int i = 0; i < capacity; i++)
+      {
+         assertEquals(0.1 * (numberOfPoints - capacity + i) + 0.05, xyz[3 * i], 1.0e-3);
+      }
+
+      // The voxels of the removed points are free again.
+      assertTrue(filter.add(0.05, 0.0, 0.0));
+      assertFalse(filter.add(0.1 * (numberOfPoints - 1) + 0.05, 0.0, 0.0));
+
+      filter.setCapacity(10);
+      Point3D32[] points = filter.getPoints3f();
+      assertEquals(10, points.length);
+      assertEquals(0.05, points[9].getX(), 1.0e-3);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDecay() throws InterruptedException
+   {
+      DecayingResolutionFilter filter = new DecayingResolutionFilter(0.1, 50, 0);
+
+      for (int i = 0; i < 100; i++)
+      {
+         filter.add(0.1 * i + 0.05, 0.0, 0.0);
+      }
+      assertEquals(100, filter.getNumberOfPoints());
+
+      Thread.sleep(100);
+
+      assertTrue(filter.add(0.05, 0.0, 0.0));
+      assertEquals(1, filter.getNumberOfPoints());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testNearestIntersection()
+   {
+      DecayingResolutionFilter filter = new DecayingResolutionFilter(0.1, -1, 0);
+      filter.add(2.05, 0.05, 0.0);
+      filter.add(1.05, 0.05, 0.0);
+      filter.add(1.05, 1.05, 0.0);
+
+      Point3D32 nearest = filter.getNearestIntersection(new Point3D32(0.0f, 0.05f, 0.0f), new Vector3D32(1.0f, 0.0f, 0.0f));
+      assertNotNull(nearest);
+      assertEquals(1.05, nearest.getX(), 1.0e-5);
+
+      assertNull(filter.getNearestIntersection(new Point3D32(0.0f, 0.05f, 0.0f), new Vector3D32(0.0f, 0.0f, 1.0f)));
+   }
+}
@@ -0,0 +1,106 @@
+package us.ihmc.robotics.dataStructures.variable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+
+public class YoVariableSlabTest
+{
+   private enum TestEnum
+   {
+      ONE, TWO, THREE
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testValuesAreKeptAndStoredAsLongBits()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("testRegistry");
+      DoubleYoVariable doubleVariable = new DoubleYoVariable("doubleVariable", registry);
+      IntegerYoVariable integerVariable = new IntegerYoVariable("integerVariable", registry);
+      BooleanYoVariable booleanVariable = new BooleanYoVariable("booleanVariable", registry);
+      EnumYoVariable<TestEnum> enumVariable = new EnumYoVariable<>("enumVariable", registry, TestEnum.class, true);
+      LongYoVariable longVariable = new LongYoVariable("longVariable", registry);
+
+      doubleVariable.set(-3.5);
+      integerVariable.set(-42);
+      booleanVariable.set(true);
+      enumVariable.set(TestEnum.THREE);
+      longVariable.set(Long.MAX_VALUE);
+
+      ArrayList<YoVariable<?>> variables = registry.getAllVariables();
+      YoVariableSlab slab = new YoVariableSlab(variables);
+
+      assertEquals(-3.5, doubleVariable.getDoubleValue(), 0.0);
+      assertEquals(-42, integerVariable.getIntegerValue());
+      assertTrue(booleanVariable.getBooleanValue());
+      assertEquals(TestEnum.THREE, enumVariable.getEnumValue());
+      assertEquals(Long.MAX_VALUE, longVariable.getLongValue());
+
+      doubleVariable.set(Double.NaN);
+      integerVariable.increment();
+      booleanVariable.set(false);
+      enumVariable.set(null);
+      longVariable.decrement();
+
+      long[] values = new long[variables.size()];
+      slab.getValues(values);
+
+      for (int i = 0; i < variables.size(); i++)
+      {
+         assertSame(slab, variables.get(i).getSlab());
+         assertEquals(variables.get(i).getValueAsLongBits(), values[i]);
+      }
+
+      assertTrue(doubleVariable.isNaN());
+      assertEquals(-41, integerVariable.getIntegerValue());
+      assertFalse(booleanVariable.getBooleanValue());
+      assertNull(enumVariable.getEnumValue());
+      assertEquals(Long.MAX_VALUE - 1, longVariable.getLongValue());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testFindContiguousSlab()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("testRegistry");
+      for (int i = 0; i < 10; i++)
+         new DoubleYoVariable("variable" + i, registry);
+
+      List<YoVariable<?>> variables = registry.getAllVariables();
+      YoVariable<?>[] variableArray = variables.toArray(new YoVariable[variables.size()]);
+      assertNull(YoVariableSlab.findContiguousSlab(variableArray));
+
+      YoVariableSlab slab = new YoVariableSlab(variables);
+      assertSame(slab, YoVariableSlab.findContiguousSlab(variableArray));
+
+      YoVariable<?>[] subset = new YoVariable[] {variableArray[0], variableArray[1]};
+      assertNull(YoVariableSlab.findContiguousSlab(subset));
+
+      List<YoVariable<?>> reversed = new ArrayList<>(variables);
+      Collections.reverse(reversed);
+      assertNull(YoVariableSlab.findContiguousSlab(reversed.toArray(new YoVariable[reversed.size()])));
+
+      try
+      {
+         new YoVariableSlab(variables);
+         fail("A variable cannot be stored in two slabs.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+   }
+}
@@ -0,0 +1,203 @@
+package us.ihmc.robotics.geometry;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.tuple2D.Point2D;
+
+public class PackedConvexPolygon2dTest
+{
+   private static final int ITERATIONS = 1000;
+   private static final double epsilon = 1.0e-10;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testUpdateMatchesConvexPolygon2d()
+   {
+      Random random = new Random(1176L);
+      PackedConvexPolygon2d packedPolygon = new PackedConvexPolygon2d();
+      ConvexPolygon2d polygon = new ConvexPolygon2d();
+      ConvexPolygon2d polygonFromPacked = new ConvexPolygon2d();
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         int numberOfPoints = 1 + random.nextInt(30);
+         packedPolygon.clear();
+         polygon.clear();
+
+         for (int j = 0; j < numberOfPoints; j++)
+         {
+            double x = random.nextDouble();
+            double y = random.nextDouble();
+            packedPolygon.addVertex(x, y);
+            polygon.addVertex(x, y);
+         }
+
+         packedPolygon.update();
+         polygon.update();
+
+         assertEquals(polygon.getNumberOfVertices(), packedPolygon.getNumberOfVertices());
+         for (int j = 0; j < polygon.getNumberOfVertices(); j++)
+         {
+            assertEquals(polygon.getVertex(j).getX(), packedPolygon.getVertexX(j), epsilon);
+            assertEquals(polygon.getVertex(j).getY(), packedPolygon.getVertexY(j), epsilon);
+         }
+
+         if (polygon.getNumberOfVertices() > 2)
+            assertEquals(polygon.getArea(), packedPolygon.getArea(), epsilon);
+         assertEquals(polygon.getCentroid().getX(), packedPolygon.getCentroidX(), epsilon);
+         assertEquals(polygon.getCentroid().getY(), packedPolygon.getCentroidY(), epsilon);
+
+         polygonFromPacked.setAndUpdate(packedPolygon);
+         assertTrue(polygon.epsilonEquals(polygonFromPacked, epsilon));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPointQueriesMatchConvexPolygon2d()
+   {
+      Random random = new Random(1977L);
+      PackedConvexPolygon2d packedPolygon = new PackedConvexPolygon2d();
+      Point2D projection = new Point2D();
+      Point2D expectedProjection = new Point2D();
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         ConvexPolygon2d polygon = ConvexPolygon2d.generateRandomConvexPolygon2d(random, 1.0, 3 + random.nextInt(10));
+         packedPolygon.set(polygon);
+
+         double x = 3.0 * (random.nextDouble() - 0.5);
+         double y = 3.0 * (random.nextDouble() - 0.5);
+
+         assertEquals(ConvexPolygon2dCalculator.isPointInside(x, y, polygon), packedPolygon.isPointInside(x, y));
+         assertEquals(ConvexPolygon2dCalculator.isPointInside(x, y, 0.05, polygon), packedPolygon.isPointInside(x, y, 0.05));
+         assertEquals(ConvexPolygon2dCalculator.getSignedDistance(new Point2D(x, y), polygon), packedPolygon.signedDistance(x, y), 1.0e-7);
+
+         projection.set(x, y);
+         expectedProjection.set(x, y);
+         packedPolygon.orthogonalProjection(projection);
+         ConvexPolygon2dCalculator.orthogonalProjection(expectedProjection, polygon);
+         EuclidCoreTestTools.assertTuple2DEquals(expectedProjection, projection, 1.0e-7);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testCombineAndIntersectMatchConvexPolygonTools()
+   {
+      Random random = new Random(1776L);
+      PackedConvexPolygon2d packedPolygonP = new PackedConvexPolygon2d();
+      PackedConvexPolygon2d packedPolygonQ = new PackedConvexPolygon2d();
+      PackedConvexPolygon2d packedResult = new PackedConvexPolygon2d();
+      ConvexPolygon2d expectedResult = new ConvexPolygon2d();
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         ConvexPolygon2d polygonP = ConvexPolygon2d.generateRandomConvexPolygon2d(random, 1.0, 3 + random.nextInt(10));
+         ConvexPolygon2d polygonQ = ConvexPolygon2d.generateRandomConvexPolygon2d(random, 1.0, 3 + random.nextInt(10));
+         packedPolygonP.set(polygonP);
+         packedPolygonQ.set(polygonQ);
+
+         packedResult.setAndUpdate(packedPolygonP, packedPolygonQ);
+         expectedResult.setAndUpdate(polygonP, polygonQ);
+         assertEquals(expectedResult.getArea(), packedResult.getArea(), 1.0e-7);
+
+         boolean expectedIntersecting = ConvexPolygonTools.computeIntersectionOfPolygons(polygonP, polygonQ, expectedResult);
+         boolean intersecting = packedResult.setToIntersection(packedPolygonP, packedPolygonQ);
+
+         if (expectedIntersecting && expectedResult.getNumberOfVertices() > 2 && expectedResult.getArea() > 1.0e-5)
+         {
+            assertTrue(intersecting);
+            assertEquals(expectedResult.getArea(), packedResult.getArea(), 1.0e-7);
+         }
+
+         for (int j = 0; j < packedResult.getNumberOfVertices(); j++)
+         {
+            assertTrue(packedPolygonP.isPointInside(packedResult.getVertexX(j), packedResult.getVertexY(j), 1.0e-9));
+            assertTrue(packedPolygonQ.isPointInside(packedResult.getVertexX(j), packedResult.getVertexY(j), 1.0e-9));
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testShrinkSquare()
+   {
+      PackedConvexPolygon2d square = new PackedConvexPolygon2d();
+      square.addVertex(0.0, 0.0);
+      square.addVertex(1.0, 0.0);
+      square.addVertex(1.0, 1.0);
+      square.addVertex(0.0, 1.0);
+      square.update();
+
+      PackedConvexPolygon2d shrunkSquare = new PackedConvexPolygon2d();
+      assertTrue(shrunkSquare.setToShrunkPolygon(square, 0.1));
+      assertEquals(4, shrunkSquare.getNumberOfVertices());
+      assertEquals(0.8 * 0.8, shrunkSquare.getArea(), epsilon);
+
+      // Clockwise starting with the minimum x and maximum y, as ConvexPolygon2d.
+      assertEquals(0.1, shrunkSquare.getVertexX(0), epsilon);
+      assertEquals(0.9, shrunkSquare.getVertexY(0), epsilon);
+      assertEquals(0.9, shrunkSquare.getVertexX(1), epsilon);
+      assertEquals(0.9, shrunkSquare.getVertexY(1), epsilon);
+
+      assertFalse(shrunkSquare.setToShrunkPolygon(square, 0.6));
+      assertTrue(shrunkSquare.isEmpty());
+
+      // In place.
+      assertTrue(square.setToShrunkPolygon(square, 0.25));
+      assertEquals(0.5 * 0.5, square.getArea(), epsilon);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testInPlaceOperationsMatchOutOfPlace()
+   {
+      Random random = new Random(2017L);
+      PackedConvexPolygon2d polygon = new PackedConvexPolygon2d();
+      PackedConvexPolygon2d otherPolygon = new PackedConvexPolygon2d();
+      PackedConvexPolygon2d expectedResult = new PackedConvexPolygon2d();
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         PackedConvexPolygon2d original = new PackedConvexPolygon2d();
+         original.set(ConvexPolygon2d.generateRandomConvexPolygon2d(random, 1.0, 3 + random.nextInt(10)));
+         otherPolygon.set(ConvexPolygon2d.generateRandomConvexPolygon2d(random, 1.0, 3 + random.nextInt(10)));
+         double distance = 0.3 * random.nextDouble();
+
+         boolean expectedNotEmpty = expectedResult.setToShrunkPolygon(original, distance);
+         polygon.set(original);
+         assertEquals(expectedNotEmpty, polygon.setToShrunkPolygon(polygon, distance));
+         assertPolygonsEqual(expectedResult, polygon);
+
+         expectedNotEmpty = expectedResult.setToIntersection(original, otherPolygon);
+         polygon.set(original);
+         assertEquals(expectedNotEmpty, polygon.setToIntersection(polygon, otherPolygon));
+         assertPolygonsEqual(expectedResult, polygon);
+         polygon.set(original);
+         assertEquals(expectedNotEmpty, polygon.setToIntersection(otherPolygon, polygon));
+         assertPolygonsEqual(expectedResult, polygon);
+
+         polygon.set(original);
+         assertTrue(polygon.setToIntersection(polygon, polygon));
+         assertPolygonsEqual(original, polygon);
+      }
+   }
+
+   private static void assertPolygonsEqual(PackedConvexPolygon2d expected, PackedConvexPolygon2d actual)
+   {
+      assertEquals(expected.getNumberOfVertices(), actual.getNumberOfVertices());
+      for (int j = 0; j < expected.getNumberOfVertices(); j++)
+      {
+         assertEquals(expected.getVertexX(j), actual.getVertexX(j), epsilon);
+         assertEquals(expected.getVertexY(j), actual.getVertexY(j), epsilon);
+      }
+      assertEquals(expected.getArea(), actual.getArea(), epsilon);
+   }
+}
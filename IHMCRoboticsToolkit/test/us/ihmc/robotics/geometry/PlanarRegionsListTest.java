@@ -6,14 +6,18 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
 import us.ihmc.commons.MutationTestFacilitator;
+import us.ihmc.commons.RandomNumbers;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
 import us.ihmc.euclid.tuple2D.Point2D;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.random.RandomGeometry;
 
 public class PlanarRegionsListTest
 {
@@ -173,6 +177,66 @@ public class PlanarRegionsListTest
       assertNull(result);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testQueriesWithSpatialIndexMatchLinearSearch() throws Exception
+   {
+      Random random = new Random(4567L);
+      List<PlanarRegion> planarRegions = new ArrayList<>();
+      for (int i = 0; i < 200; i++)
+         planarRegions.add(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 6));
+
+      PlanarRegionsList indexedRegionsList = new PlanarRegionsList(planarRegions);
+      PlanarRegionsList linearRegionsList = new PlanarRegionsList(planarRegions);
+      linearRegionsList.setUseSpatialIndex(false);
+
+      assertQueriesMatch(random, indexedRegionsList, linearRegionsList);
+
+      // Modifying the regions after the first queries invalidates the index.
+      RigidBodyTransform transform = new RigidBodyTransform(RandomGeometry.nextQuaternion(random, Math.toRadians(20.0)), new Vector3D(1.0, -2.0, 0.5));
+      indexedRegionsList.transform(transform);
+      assertQueriesMatch(random, indexedRegionsList, linearRegionsList);
+
+      indexedRegionsList.pollPlanarRegion(17);
+      indexedRegionsList.addPlanarRegion(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 6));
+      assertQueriesMatch(random, indexedRegionsList, linearRegionsList);
+   }
+
+   private static void assertQueriesMatch(Random random, PlanarRegionsList indexedRegionsList, PlanarRegionsList linearRegionsList)
+   {
+      int numberOfNonEmptyResults = 0;
+
+      for (int i = 0; i < 500; i++)
+      {
+         double x = RandomNumbers.nextDouble(random, 12.0);
+         double y = RandomNumbers.nextDouble(random, 12.0);
+         List<PlanarRegion> expected = linearRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y);
+         assertEquals(expected, indexedRegionsList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y));
+         if (expected != null)
+            numberOfNonEmptyResults++;
+
+         ConvexPolygon2d polygon = PlanarRegionTest.translateConvexPolygon(x, y, ConvexPolygon2d.generateRandomConvexPolygon2d(random, 0.3, 5));
+         assertEquals(linearRegionsList.findPlanarRegionsIntersectingPolygon(polygon), indexedRegionsList.findPlanarRegionsIntersectingPolygon(polygon));
+
+         LineSegment2d lineSegment = new LineSegment2d(x, y, x + RandomNumbers.nextDouble(random, 2.0), y + RandomNumbers.nextDouble(random, 2.0));
+         ArrayList<PlanarRegion> expectedIntersecting = new ArrayList<>();
+         ArrayList<PlanarRegion> actualIntersecting = new ArrayList<>();
+         linearRegionsList.findPlanarRegionsIntersectingLineSegment(lineSegment, expectedIntersecting);
+         indexedRegionsList.findPlanarRegionsIntersectingLineSegment(lineSegment, actualIntersecting);
+         assertEquals(expectedIntersecting, actualIntersecting);
+
+         // Query slightly off the plane of a region to exercise the orthogonal distance.
+         PlanarRegion region = linearRegionsList.getPlanarRegion(random.nextInt(linearRegionsList.getNumberOfPlanarRegions()));
+         Point3D point = new Point3D();
+         point.setX(region.getBoundingBox3dInWorld().getMinX() + random.nextDouble() * 2.0);
+         point.setY(region.getBoundingBox3dInWorld().getMinY() + random.nextDouble() * 2.0);
+         point.setZ(region.getPlaneZGivenXY(point.getX(), point.getY()) + RandomNumbers.nextDouble(random, 0.1));
+         assertEquals(linearRegionsList.findPlanarRegionsContainingPoint(point, 0.05), indexedRegionsList.findPlanarRegionsContainingPoint(point, 0.05));
+      }
+
+      assertTrue(numberOfNonEmptyResults > 0);
+   }
+
    public static void main(String[] args)
    {
       MutationTestFacilitator.facilitateMutationTestForClass(PlanarRegionsList.class, PlanarRegionsListTest.class);
@@ -0,0 +1,87 @@
+package us.ihmc.robotics.geometry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class RTree2dTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testQueriesMatchBruteForce() throws Exception
+   {
+      Random random = new Random(2345L);
+
+      for (int numberOfBoxes : new int[] {0, 1, 7, 8, 9, 64, 65, 1000})
+      {
+         double[] minX = new double[numberOfBoxes];
+         double[] minY = new double[numberOfBoxes];
+         double[] maxX = new double[numberOfBoxes];
+         double[] maxY = new double[numberOfBoxes];
+
+         for (int i = 0; i < numberOfBoxes; i++)
+         {
+            minX[i] = 20.0 * random.nextDouble() - 10.0;
+            minY[i] = 20.0 * random.nextDouble() - 10.0;
+            maxX[i] = minX[i] + random.nextDouble();
+            maxY[i] = minY[i] + random.nextDouble();
+         }
+
+         RTree2d tree = new RTree2d(minX, minY, maxX, maxY, numberOfBoxes);
+         assertEquals(numberOfBoxes, tree.getNumberOfBoxes());
+
+         TIntArrayList actual = new TIntArrayList();
+         TIntArrayList expected = new TIntArrayList();
+
+         for (int query = 0; query < 200; query++)
+         {
+            double queryMinX = 22.0 * random.nextDouble() - 11.0;
+            double queryMinY = 22.0 * random.nextDouble() - 11.0;
+            double queryMaxX = queryMinX + 2.0 * random.nextDouble();
+            double queryMaxY = queryMinY + 2.0 * random.nextDouble();
+
+            expected.resetQuick();
+            for (int i = 0; i < numberOfBoxes; i++)
+            {
+               if (minX[i] <= queryMaxX && queryMinX <= maxX[i] && minY[i] <= queryMaxY && queryMinY <= maxY[i])
+                  expected.add(i);
+            }
+
+            actual.resetQuick();
+            tree.findIntersectingBoxes(queryMinX, queryMinY, queryMaxX, queryMaxY, actual);
+            actual.sort();
+
+            assertArrayEquals(expected.toArray(), actual.toArray());
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testBoxesWithNaNAreIgnored() throws Exception
+   {
+      double[] minX = {0.0, Double.NaN, 2.0};
+      double[] minY = {0.0, Double.NaN, 2.0};
+      double[] maxX = {1.0, Double.NaN, 3.0};
+      double[] maxY = {1.0, Double.NaN, 3.0};
+
+      RTree2d tree = new RTree2d(minX, minY, maxX, maxY, 3);
+      assertEquals(2, tree.getNumberOfBoxes());
+
+      TIntArrayList result = new TIntArrayList();
+      tree.findIntersectingBoxes(-10.0, -10.0, 10.0, 10.0, result);
+      result.sort();
+      assertArrayEquals(new int[] {0, 2}, result.toArray());
+
+      // Touching boundaries are intersecting.
+      result.resetQuick();
+      tree.findIntersectingBoxes(1.0, 1.0, 1.0, 1.0, result);
+      assertArrayEquals(new int[] {0}, result.toArray());
+   }
+}
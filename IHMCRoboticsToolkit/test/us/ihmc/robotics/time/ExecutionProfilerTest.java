@@ -0,0 +1,242 @@
+package us.ihmc.robotics.time;
+
+import static org.junit.Assert.*;
+
+import java.util.function.LongSupplier;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+
+public class ExecutionProfilerTest
+{
+   private Object garbage;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testNestedScopesAreTimed()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("testRegistry");
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", 0, registry);
+      FakeClock clock = new FakeClock();
+      profiler.setNanoTimeClock(clock);
+      profiler.setEnabled(true);
+      ExecutionProfilerScope outer = profiler.createScope("outer");
+      ExecutionProfilerScope inner = outer.createChild("inner");
+
+      profiler.startTick();
+      clock.advance(0.001);
+      outer.start();
+      inner.start();
+      clock.advance(0.020);
+      inner.stop();
+      clock.advance(0.010);
+      outer.stop();
+      profiler.stopTick();
+
+      assertEquals(1, profiler.getTickCount());
+      assertEquals(0.020, inner.getTime(), 1.0e-12);
+      assertEquals(0.030, outer.getTime(), 1.0e-12);
+      assertEquals(0.031, profiler.getTickScope().getTime(), 1.0e-12);
+      assertTrue(outer.getTime() >= inner.getTime());
+      assertEquals("tick.outer.inner", inner.getFullName());
+      assertNotNull(registry.getVariable("innerTime"));
+
+      String summary = profiler.getFlameSummary();
+      assertTrue(summary.contains("outer"));
+      assertTrue(summary.contains("inner"));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testMaximumTimeIsKept()
+   {
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", 0, new YoVariableRegistry("testRegistry"));
+      FakeClock clock = new FakeClock();
+      profiler.setNanoTimeClock(clock);
+      profiler.setEnabled(true);
+      ExecutionProfilerScope scope = profiler.createScope("scope");
+
+      double[] durations = {0.002, 0.005, 0.001};
+      for (double duration : durations)
+      {
+         profiler.startTick();
+         scope.start();
+         clock.advance(duration);
+         scope.stop();
+         profiler.stopTick();
+      }
+
+      assertEquals(0.001, scope.getTime(), 1.0e-12);
+      assertEquals(0.005, scope.getMaximumTime(), 1.0e-12);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testDisabledByDefault()
+   {
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", 0, new YoVariableRegistry("testRegistry"));
+      assertFalse(profiler.isEnabled());
+      assertFalse(profiler.isTrackingAllocations());
+      assertFalse(profiler.getAllocationCounter().isCalibrated());
+
+      // Enabling the timing does not turn on the allocation tracking.
+      profiler.setEnabled(true);
+      profiler.startTick();
+      profiler.stopTick();
+      assertFalse(profiler.isTrackingAllocations());
+      assertFalse(profiler.getAllocationCounter().isCalibrated());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDisabledProfilerDoesNotMeasure()
+   {
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", 0, new YoVariableRegistry("testRegistry"));
+      ExecutionProfilerScope scope = profiler.createScope("scope");
+      profiler.setTrackAllocations(true);
+      profiler.setEnabled(false);
+
+      profiler.startTick();
+      scope.start();
+      garbage = new double[100];
+      scope.stop();
+      profiler.stopTick();
+
+      assertEquals(0, profiler.getTickCount());
+      assertEquals(0.0, scope.getTime(), 0.0);
+      assertEquals(0, scope.getAllocatedBytes());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testAllocationCounting()
+   {
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", 0, new YoVariableRegistry("testRegistry"));
+      profiler.setEnabled(true);
+      profiler.setTrackAllocations(true);
+      if (!profiler.isTrackingAllocations())
+         return;
+
+      ExecutionProfilerScope allocating = profiler.createScope("allocating");
+      ExecutionProfilerScope notAllocating = profiler.createScope("notAllocating");
+
+      for (int i = 0; i < 10; i++)
+      {
+         profiler.startTick();
+         notAllocating.start();
+         notAllocating.stop();
+         allocating.start();
+         garbage = new double[1000];
+         allocating.stop();
+         profiler.stopTick();
+      }
+
+      assertEquals(0, notAllocating.getAllocatedBytes());
+      assertTrue(allocating.getAllocatedBytes() >= 8000);
+      assertEquals(allocating.getAllocatedBytes(), profiler.getTickScope().getAllocatedBytes());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testAllocationCounterIsCalibratedOnTheProfiledThread() throws InterruptedException
+   {
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", 0, new YoVariableRegistry("testRegistry"));
+      profiler.setEnabled(true);
+      profiler.setTrackAllocations(true);
+      if (!profiler.isTrackingAllocations())
+         return;
+
+      ExecutionProfilerScope notAllocating = profiler.createScope("notAllocating");
+      assertFalse(profiler.getAllocationCounter().isCalibrated());
+
+      long[] allocatedBytes = new long[10];
+      Thread profiledThread = new Thread(() ->
+      {
+         for (int i = 0; i < allocatedBytes.length; i++)
+         {
+            profiler.startTick();
+            notAllocating.start();
+            notAllocating.stop();
+            profiler.stopTick();
+            allocatedBytes[i] = notAllocating.getAllocatedBytes();
+         }
+      });
+      profiledThread.start();
+      profiledThread.join();
+
+      assertTrue(profiler.getAllocationCounter().isCalibrated());
+      for (int i = 0; i < allocatedBytes.length; i++)
+         assertEquals(0, allocatedBytes[i]);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testThrowOnAllocationAfterWarmup()
+   {
+      int numberOfWarmupTicks = 5;
+      ExecutionProfiler profiler = new ExecutionProfiler("profiler", numberOfWarmupTicks, new YoVariableRegistry("testRegistry"));
+      profiler.setThrowOnAllocationAfterWarmup(true);
+      if (!profiler.isTrackingAllocations())
+         return;
+
+      ExecutionProfilerScope controller = profiler.createScope("controller");
+      ExecutionProfilerScope culprit = controller.createChild("culprit");
+
+      for (int i = 0; i < numberOfWarmupTicks; i++)
+      {
+         profiler.startTick();
+         controller.start();
+         culprit.start();
+         garbage = new double[10];
+         culprit.stop();
+         controller.stop();
+         profiler.stopTick();
+      }
+
+      for (int i = 0; i < 10; i++)
+      {
+         profiler.startTick();
+         controller.start();
+         culprit.start();
+         culprit.stop();
+         controller.stop();
+         profiler.stopTick();
+      }
+
+      assertEquals(0, profiler.getNumberOfAllocatingTicksAfterWarmup());
+
+      try
+      {
+         profiler.startTick();
+         controller.start();
+         culprit.start();
+         garbage = new double[10];
+         culprit.stop();
+         controller.stop();
+         profiler.stopTick();
+         fail("Allocation after warm-up was not detected.");
+      }
+      catch (RuntimeException e)
+      {
+         assertTrue(e.getMessage().contains("tick.controller.culprit"));
+      }
+   }
+
+   private static class FakeClock implements LongSupplier
+   {
+      private long nanoTime = 0;
+
+      void advance(double seconds)
+      {
+         nanoTime += (long) (seconds * 1.0e9);
+      }
+
+      @Override
+      public long getAsLong()
+      {
+         return nanoTime;
+      }
+   }
+}
@@ -0,0 +1,85 @@
+package us.ihmc.robotics.time;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+
+public class YoLatencyStatisticsTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testPercentiles()
+   {
+      YoVariableRegistry registry = new YoVariableRegistry("testRegistry");
+      YoLatencyStatistics statistics = new YoLatencyStatistics("request", 100, registry);
+
+      // Shuffled on purpose, the percentiles should not depend on the order of the samples.
+      for (int i = 0; i < 100; i++)
+         statistics.addSample(((i * 37) % 100 + 1) * 1.0e-3);
+
+      assertEquals(100, statistics.getNumberOfSamples());
+      assertEquals(0.050, statistics.getMedianLatency(), 1.0e-12);
+      assertEquals(0.090, statistics.getPercentile90Latency(), 1.0e-12);
+      assertEquals(0.099, statistics.getPercentile99Latency(), 1.0e-12);
+      assertEquals(0.100, statistics.getMaximumLatency(), 1.0e-12);
+      assertNotNull(registry.getVariable("requestPercentile99Latency"));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testOnlyTheLastSamplesAreKept()
+   {
+      YoLatencyStatistics statistics = new YoLatencyStatistics("request", 10, new YoVariableRegistry("testRegistry"));
+
+      for (int i = 0; i < 10; i++)
+         statistics.addSample(1.0);
+      for (int i = 0; i < 10; i++)
+         statistics.addSample(0.001 * (i + 1));
+
+      assertEquals(20, statistics.getNumberOfSamples());
+      assertEquals(0.010, statistics.getMaximumLatency(), 1.0e-12);
+      assertEquals(0.005, statistics.getMedianLatency(), 1.0e-12);
+      assertEquals(0.010, statistics.getLastLatency(), 1.0e-12);
+
+      statistics.reset();
+      statistics.addSample(0.5);
+      assertEquals(1, statistics.getNumberOfSamples());
+      assertEquals(0.5, statistics.getMedianLatency(), 1.0e-12);
+      assertEquals(0.5, statistics.getPercentile99Latency(), 1.0e-12);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testStartAndStop() throws InterruptedException
+   {
+      YoLatencyStatistics statistics = new YoLatencyStatistics("request", 10, new YoVariableRegistry("testRegistry"));
+
+      statistics.stop();
+      assertEquals(0, statistics.getNumberOfSamples());
+
+      statistics.start();
+      assertTrue(statistics.isStarted());
+      Thread.sleep(20);
+      statistics.stop();
+
+      assertFalse(statistics.isStarted());
+      assertEquals(1, statistics.getNumberOfSamples());
+      assertEquals(0.02, statistics.getLastLatency(), 0.015);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testStartAtReceiveTime()
+   {
+      YoLatencyStatistics statistics = new YoLatencyStatistics("request", 10, new YoVariableRegistry("testRegistry"));
+
+      statistics.start(System.nanoTime() - 100000000L);
+      statistics.stop();
+
+      assertEquals(1, statistics.getNumberOfSamples());
+      assertTrue(statistics.getLastLatency() >= 0.1);
+   }
+}
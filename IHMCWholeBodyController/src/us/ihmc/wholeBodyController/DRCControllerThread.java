@@ -28,6 +28,8 @@ import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.sensors.CenterOfMassDataHolderReadOnly;
 import us.ihmc.robotics.sensors.ContactSensorHolder;
 import us.ihmc.robotics.sensors.ForceSensorDataHolderReadOnly;
+import us.ihmc.robotics.time.ExecutionProfiler;
+import us.ihmc.robotics.time.ExecutionProfilerScope;
 import us.ihmc.robotics.time.ExecutionTimer;
 import us.ihmc.sensorProcessing.model.RobotMotionStatus;
 import us.ihmc.sensorProcessing.model.RobotMotionStatusChangedListener;
@@ -76,6 +78,9 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
    private final ModularRobotController robotController;
 
    private final ExecutionTimer controllerTimer = new ExecutionTimer("controllerTimer", 10.0, registry);
+   private final ExecutionProfiler controllerProfiler = new ExecutionProfiler("controllerProfiler", registry);
+   private final ExecutionProfilerScope doControlProfilerScope = controllerProfiler.createScope("doControl");
+   private final ExecutionProfilerScope writeProfilerScope = controllerProfiler.createScope("write");
    private final LongYoVariable lastEstimatorStartTime = new LongYoVariable("nextExecutionTime", registry);
    private final LongYoVariable totalDelay = new LongYoVariable("totalDelay", registry);
    private final LongYoVariable expectedEstimatorTick = new LongYoVariable("expectedEstimatorTick", registry);
@@ -354,9 +359,12 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
                outputWriter.initialize();
                firstTick.set(false);
             }
+            controllerProfiler.startTick();
+            doControlProfilerScope.start();
             controllerTimer.startMeasurement();
             robotController.doControl();
             controllerTimer.stopMeasurement();
+            doControlProfilerScope.stop();
          }
       }
       catch (Exception e)
@@ -374,6 +382,7 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
       {
          if (runController.getBooleanValue())
          {
+            writeProfilerScope.start();
             outputWriter.writeAfterController(Conversions.secondsToNanoseconds(controllerTime.getDoubleValue()));
             totalDelay.set(timestamp - lastEstimatorStartTime.getLongValue());
 
@@ -385,6 +394,8 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
 
             rootFrame.getTransformToDesiredFrame(rootToWorldTransform, ReferenceFrame.getWorldFrame());
             yoGraphicsListRegistry.setControllerTransformToWorld(rootToWorldTransform);
+            writeProfilerScope.stop();
+            controllerProfiler.stopTick();
          }
 
       }
@@ -427,6 +438,16 @@ public class DRCControllerThread implements MultiThreadedRobotControlElement
       }
    }
 
+   /**
+    * Profiler covering one controller tick, from {@link #run()} to the end of {@link #write(long)}.
+    * Use it to create nested scopes in the controller or to fail tests allocating after warm-up.
+    * It is disabled by default, enable it with its YoVariable or {@link ExecutionProfiler#setEnabled(boolean)}.
+    */
+   public ExecutionProfiler getExecutionProfiler()
+   {
+      return controllerProfiler;
+   }
+
    public RobotController getRobotController()
    {
       return robotController;
@@ -0,0 +1,303 @@
+package us.ihmc.modelFileLoaders.SdfLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import us.ihmc.commons.PrintTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.robotics.partNames.ContactPointDefinitionHolder;
+import us.ihmc.robotics.partNames.JointNameMap;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+import us.ihmc.robotics.robotDescription.RobotDescriptionBinaryFormat;
+import us.ihmc.robotics.sensors.ContactSensorType;
+
+/**
+ * Creates the {@link RobotDescription}s of a robot from its SDF file, keeping the resolved
+ * descriptions in an on-disk cache so the SDF file does not have to be parsed and converted at
+ * every startup.
+ * <p>
+ * A cached description is stored with {@link RobotDescriptionBinaryFormat} in a file named after
+ * a SHA-1 hash of everything the description is computed from: the content of the SDF file, the
+ * resource directories, the joint map and contact points, the sensors added to the model, the
+ * configuration string given by the robot model, and the bytecode of the mutator and of the SDF
+ * loader classes. Changing any of these results in a new file, so stale descriptions are never
+ * loaded. The cached file is memory-mapped and decoded directly from the mapping.
+ * </p>
+ * <p>
+ * The SDF file is only parsed when a description is not in the cache, or when
+ * {@link #getSDFLoader()} is called. The cache is disabled by setting the system property
+ * {@value #CACHE_ENABLED_PROPERTY} to false, and its directory can be changed with
+ * {@value #CACHE_DIRECTORY_PROPERTY}, the default being {@code ~/.ihmc/robotModelCache}. The test
+ * tasks of the build put it in the build directory of each project.
+ * </p>
+ */
+public class SDFRobotDescriptionCache
+{
+   public static final String CACHE_ENABLED_PROPERTY = "robot.model.cache";
+   public static final String CACHE_DIRECTORY_PROPERTY = "robot.model.cache.dir";
+
+   private static final Class<?>[] LOADER_CLASSES = {JaxbSDFLoader.class, GeneralizedSDFRobotModel.class, SDFJointHolder.class, SDFLinkHolder.class,
+         RobotDescriptionFromSDFLoader.class, SDFGraphics3DObject.class, SDFCollisionMeshDescription.class, RobotDescriptionBinaryFormat.class};
+
+   private final boolean cacheEnabled;
+   private final Path cacheDirectory;
+
+   private final String[] resourceDirectories;
+   private final byte[] sdfFileContent;
+   private final SDFDescriptionMutator mutator;
+   private final String configuration;
+
+   private final List<Consumer<JaxbSDFLoader>> modelAdditions = new ArrayList<>();
+   private final StringBuilder modelAdditionsKey = new StringBuilder();
+   private JaxbSDFLoader loader = null;
+
+   private int numberOfCacheHits = 0;
+   private int numberOfCacheMisses = 0;
+
+   /**
+    * @param resourceDirectories the resource directories of the SDF file.
+    * @param sdfFile the SDF file. It is read entirely by this constructor.
+    * @param mutator the mutator applied to the model, can be null.
+    * @param configuration anything else the mutator depends on that is not part of the SDF file or
+    *           of the joint map, for instance the version of the robot.
+    */
+   public SDFRobotDescriptionCache(String[] resourceDirectories, InputStream sdfFile, SDFDescriptionMutator mutator, String configuration)
+   {
+      this(resourceDirectories, sdfFile, mutator, configuration, Boolean.parseBoolean(System.getProperty(CACHE_ENABLED_PROPERTY, "true")),
+           Paths.get(System.getProperty(CACHE_DIRECTORY_PROPERTY, Paths.get(System.getProperty("user.home"), ".ihmc", "robotModelCache").toString())));
+   }
+
+   public SDFRobotDescriptionCache(String[] resourceDirectories, InputStream sdfFile, SDFDescriptionMutator mutator, String configuration,
+                                   boolean cacheEnabled, Path cacheDirectory)
+   {
+      if (sdfFile == null)
+         throw new RuntimeException("Cannot find SDF file.");
+
+      this.resourceDirectories = resourceDirectories;
+      this.sdfFileContent = readFully(sdfFile);
+      this.mutator = mutator;
+      this.configuration = configuration;
+      this.cacheEnabled = cacheEnabled;
+      this.cacheDirectory = cacheDirectory;
+   }
+
+   public void addForceSensor(JointNameMap jointMap, String sensorName, String parentJointName, RigidBodyTransform transformToParentJoint)
+   {
+      RigidBodyTransform transform = new RigidBodyTransform(transformToParentJoint);
+      addModelAddition(sdfLoader -> sdfLoader.addForceSensor(jointMap, sensorName, parentJointName, transform),
+                       "forceSensor " + jointMap.getModelName() + " " + sensorName + " " + parentJointName + " " + transform);
+   }
+
+   public void addContactSensor(JointNameMap jointMap, String sensorName, String parentJointName, ContactSensorType type)
+   {
+      addModelAddition(sdfLoader -> sdfLoader.addContactSensor(jointMap, sensorName, parentJointName, type),
+                       "contactSensor " + jointMap.getModelName() + " " + sensorName + " " + parentJointName + " " + type);
+   }
+
+   private synchronized void addModelAddition(Consumer<JaxbSDFLoader> modelAddition, String key)
+   {
+      modelAdditions.add(modelAddition);
+      modelAdditionsKey.append(key).append('\n');
+
+      if (loader != null)
+         modelAddition.accept(loader);
+   }
+
+   /**
+    * Parses the SDF file if it has not been parsed yet.
+    *
+    * @return the loader holding the parsed SDF file, with the sensors added to this cache.
+    */
+   public synchronized JaxbSDFLoader getSDFLoader()
+   {
+      if (loader == null)
+      {
+         loader = DRCRobotSDFLoader.loadDRCRobot(resourceDirectories, new ByteArrayInputStream(sdfFileContent), mutator);
+         for (int i = 0; i < modelAdditions.size(); i++)
+            modelAdditions.get(i).accept(loader);
+      }
+
+      return loader;
+   }
+
+   /**
+    * Same as {@link JaxbSDFLoader#createRobotDescription(JointNameMap, ContactPointDefinitionHolder, boolean)},
+    * loading the description from the cache when possible. The cache is not used without a joint map.
+    */
+   public synchronized RobotDescription createRobotDescription(JointNameMap jointNameMap, ContactPointDefinitionHolder contactDefinition,
+                                                               boolean useCollisionMeshes)
+   {
+      if (!cacheEnabled || jointNameMap == null)
+         return getSDFLoader().createRobotDescription(jointNameMap, contactDefinition, useCollisionMeshes);
+
+      Path cacheFile = cacheDirectory.resolve(jointNameMap.getModelName() + "-" + computeKey(jointNameMap, contactDefinition, useCollisionMeshes) + ".bin");
+
+      if (Files.isRegularFile(cacheFile))
+      {
+         try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ))
+         {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            RobotDescription robotDescription = RobotDescriptionBinaryFormat.read(buffer);
+            numberOfCacheHits++;
+            return robotDescription;
+         }
+         catch (IOException | RuntimeException e)
+         {
+            PrintTools.warn(this, "Could not read the cached robot description " + cacheFile + ": " + e.getMessage());
+         }
+      }
+
+      numberOfCacheMisses++;
+      RobotDescription robotDescription = getSDFLoader().createRobotDescription(jointNameMap, contactDefinition, useCollisionMeshes);
+      writeCacheFile(robotDescription, cacheFile);
+      return robotDescription;
+   }
+
+   private void writeCacheFile(RobotDescription robotDescription, Path cacheFile)
+   {
+      byte[] data;
+      try
+      {
+         data = RobotDescriptionBinaryFormat.write(robotDescription);
+      }
+      catch (RuntimeException e)
+      {
+         PrintTools.warn(this, "The description of " + robotDescription.getName() + " cannot be cached: " + e.getMessage());
+         return;
+      }
+
+      try
+      {
+         Files.createDirectories(cacheDirectory);
+         // Written next to the final file and then moved, so another process never reads a partial file.
+         Path temporaryFile = Files.createTempFile(cacheDirectory, cacheFile.getFileName().toString(), ".tmp");
+         Files.write(temporaryFile, data);
+         Files.move(temporaryFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (IOException e)
+      {
+         PrintTools.warn(this, "Could not write the cached robot description " + cacheFile + ": " + e.getMessage());
+      }
+   }
+
+   String computeKey(JointNameMap jointNameMap, ContactPointDefinitionHolder contactDefinition, boolean useCollisionMeshes)
+   {
+      StringBuilder key = new StringBuilder();
+      key.append(RobotDescriptionBinaryFormat.FORMAT_VERSION).append('\n');
+      key.append(Arrays.toString(resourceDirectories)).append('\n');
+      key.append(configuration).append('\n');
+      key.append(useCollisionMeshes).append('\n');
+      key.append(modelAdditionsKey);
+
+      if (jointNameMap != null)
+      {
+         key.append(jointNameMap.getClass().getName()).append('\n');
+         key.append(jointNameMap.getModelName()).append('\n');
+         key.append(jointNameMap.getModelScale()).append(' ').append(jointNameMap.getMassScalePower()).append('\n');
+         key.append(Arrays.toString(jointNameMap.getHighInertiaForStableSimulationJoints())).append('\n');
+         key.append(jointNameMap.getLastSimulatedJoints() == null ? null : new TreeSet<>(jointNameMap.getLastSimulatedJoints())).append('\n');
+         key.append(Arrays.toString(jointNameMap.getJointNamesBeforeFeet())).append('\n');
+      }
+
+      if (contactDefinition != null)
+      {
+         key.append(contactDefinition.getClass().getName()).append('\n');
+         for (ImmutablePair<String, Vector3D> contactPoint : contactDefinition.getJointNameGroundContactPointMap())
+            key.append(contactPoint.getLeft()).append(' ').append(contactPoint.getRight()).append('\n');
+      }
+
+      try
+      {
+         MessageDigest digest = MessageDigest.getInstance("SHA-1");
+         digest.update(sdfFileContent);
+         digest.update(key.toString().getBytes(StandardCharsets.UTF_8));
+
+         if (mutator != null)
+            updateWithBytecode(digest, mutator.getClass());
+         if (jointNameMap != null)
+            updateWithBytecode(digest, jointNameMap.getClass());
+         if (contactDefinition != null)
+            updateWithBytecode(digest, contactDefinition.getClass());
+         for (Class<?> loaderClass : LOADER_CLASSES)
+            updateWithBytecode(digest, loaderClass);
+
+         StringBuilder hash = new StringBuilder();
+         for (byte b : digest.digest())
+            hash.append(String.format("%02x", b));
+         return hash.toString();
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   private static void updateWithBytecode(MessageDigest digest, Class<?> clazz)
+   {
+      String classFileName = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+
+      try (InputStream classFile = clazz.getResourceAsStream(classFileName))
+      {
+         if (classFile == null)
+         {
+            // No bytecode available, for instance for a generated class, the name is better than nothing.
+            digest.update(clazz.getName().getBytes(StandardCharsets.UTF_8));
+            return;
+         }
+
+         digest.update(readFully(classFile));
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   private static byte[] readFully(InputStream inputStream)
+   {
+      try
+      {
+         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+         byte[] buffer = new byte[8192];
+         int length;
+         while ((length = inputStream.read(buffer)) != -1)
+            outputStream.write(buffer, 0, length);
+         return outputStream.toByteArray();
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   public int getNumberOfCacheHits()
+   {
+      return numberOfCacheHits;
+   }
+
+   public int getNumberOfCacheMisses()
+   {
+      return numberOfCacheMisses;
+   }
+}
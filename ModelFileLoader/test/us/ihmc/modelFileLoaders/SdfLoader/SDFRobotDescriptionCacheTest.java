@@ -0,0 +1,360 @@
+package us.ihmc.modelFileLoaders.SdfLoader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.modelFileLoaders.SdfLoader.xmlDescription.SDFSensor;
+import us.ihmc.robotics.partNames.ArmJointName;
+import us.ihmc.robotics.partNames.JointNameMap;
+import us.ihmc.robotics.partNames.JointRole;
+import us.ihmc.robotics.partNames.LegJointName;
+import us.ihmc.robotics.partNames.NeckJointName;
+import us.ihmc.robotics.partNames.SpineJointName;
+import us.ihmc.robotics.robotDescription.RobotDescription;
+
+public class SDFRobotDescriptionCacheTest
+{
+   private static final String SDF_FILE = "sdfRobotTest.sdf";
+
+   private final JointNameMap jointNameMap = new TestJointNameMap();
+   private Path cacheDirectory;
+
+   @Before
+   public void createCacheDirectory() throws IOException
+   {
+      cacheDirectory = Files.createTempDirectory("robotModelCache");
+   }
+
+   @After
+   public void deleteCacheDirectory() throws IOException
+   {
+      try (Stream<Path> files = Files.list(cacheDirectory))
+      {
+         for (Path file : (Iterable<Path>) files::iterator)
+            Files.delete(file);
+      }
+      Files.delete(cacheDirectory);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testSecondLoadIsAHit()
+   {
+      SDFRobotDescriptionCache firstCache = createCache(readSDFFile(), new TestMutator(), "");
+      RobotDescription parsedDescription = firstCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, firstCache.getNumberOfCacheHits());
+      assertEquals(1, firstCache.getNumberOfCacheMisses());
+      assertEquals(1, countCacheFiles());
+
+      SDFRobotDescriptionCache secondCache = createCache(readSDFFile(), new TestMutator(), "");
+      RobotDescription cachedDescription = secondCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(1, secondCache.getNumberOfCacheHits());
+      assertEquals(0, secondCache.getNumberOfCacheMisses());
+      assertEquals(1, countCacheFiles());
+
+      assertEquals(parsedDescription.getName(), cachedDescription.getName());
+      assertEquals(parsedDescription.getRootJoints().size(), cachedDescription.getRootJoints().size());
+      assertEquals(parsedDescription.getRootJoints().get(0).getName(), cachedDescription.getRootJoints().get(0).getName());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testChangedSDFFileIsAMiss()
+   {
+      createCache(readSDFFile(), new TestMutator(), "").createRobotDescription(jointNameMap, null, false);
+
+      // A comment changes the content of the file but not the robot.
+      String sdfFile = new String(readSDFFile(), StandardCharsets.UTF_8).replaceFirst("<model ", "<!-- changed --><model ");
+      SDFRobotDescriptionCache changedCache = createCache(sdfFile.getBytes(StandardCharsets.UTF_8), new TestMutator(), "");
+      changedCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, changedCache.getNumberOfCacheHits());
+      assertEquals(1, changedCache.getNumberOfCacheMisses());
+      assertEquals(2, countCacheFiles());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testChangedMutatorIsAMiss()
+   {
+      createCache(readSDFFile(), new TestMutator(), "").createRobotDescription(jointNameMap, null, false);
+
+      SDFRobotDescriptionCache otherMutatorCache = createCache(readSDFFile(), new OtherTestMutator(), "");
+      otherMutatorCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, otherMutatorCache.getNumberOfCacheHits());
+      assertEquals(1, otherMutatorCache.getNumberOfCacheMisses());
+
+      SDFRobotDescriptionCache otherConfigurationCache = createCache(readSDFFile(), new TestMutator(), "otherVersion");
+      otherConfigurationCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, otherConfigurationCache.getNumberOfCacheHits());
+      assertEquals(1, otherConfigurationCache.getNumberOfCacheMisses());
+      assertEquals(3, countCacheFiles());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testChangedForceSensorIsAMiss()
+   {
+      RigidBodyTransform transformToParentJoint = new RigidBodyTransform();
+      transformToParentJoint.setTranslation(0.0, 0.0, 0.1);
+
+      SDFRobotDescriptionCache firstCache = createCache(readSDFFile(), new TestMutator(), "");
+      firstCache.addForceSensor(jointNameMap, "sensor", "back_bkx", transformToParentJoint);
+      firstCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(1, firstCache.getNumberOfCacheMisses());
+
+      SDFRobotDescriptionCache sameSensorCache = createCache(readSDFFile(), new TestMutator(), "");
+      sameSensorCache.addForceSensor(jointNameMap, "sensor", "back_bkx", transformToParentJoint);
+      sameSensorCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(1, sameSensorCache.getNumberOfCacheHits());
+
+      transformToParentJoint.setTranslation(0.0, 0.0, 0.2);
+      SDFRobotDescriptionCache movedSensorCache = createCache(readSDFFile(), new TestMutator(), "");
+      movedSensorCache.addForceSensor(jointNameMap, "sensor", "back_bkx", transformToParentJoint);
+      movedSensorCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, movedSensorCache.getNumberOfCacheHits());
+      assertEquals(1, movedSensorCache.getNumberOfCacheMisses());
+
+      SDFRobotDescriptionCache noSensorCache = createCache(readSDFFile(), new TestMutator(), "");
+      noSensorCache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, noSensorCache.getNumberOfCacheHits());
+      assertEquals(1, noSensorCache.getNumberOfCacheMisses());
+      assertEquals(3, countCacheFiles());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testKeyWithoutJointNameMap()
+   {
+      SDFRobotDescriptionCache cache = createCache(readSDFFile(), null, "");
+      assertEquals(cache.computeKey(null, null, false), cache.computeKey(null, null, false));
+      assertNotEquals(cache.computeKey(null, null, false), cache.computeKey(jointNameMap, null, false));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000, expected = RuntimeException.class)
+   public void testNoJointNameMapIsNotCached()
+   {
+      SDFRobotDescriptionCache cache = createCache(readSDFFile(), null, "");
+      try
+      {
+         // The loader does not create a description without a joint map, the cache must not get in the way.
+         cache.createRobotDescription(null, null, false);
+      }
+      finally
+      {
+         assertEquals(0, cache.getNumberOfCacheMisses());
+         assertEquals(0, countCacheFiles());
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testDisabledCacheDoesNotWrite()
+   {
+      SDFRobotDescriptionCache cache = new SDFRobotDescriptionCache(null, new ByteArrayInputStream(readSDFFile()), new TestMutator(), "", false,
+                                                                    cacheDirectory);
+      cache.createRobotDescription(jointNameMap, null, false);
+      cache.createRobotDescription(jointNameMap, null, false);
+      assertEquals(0, cache.getNumberOfCacheHits());
+      assertEquals(0, cache.getNumberOfCacheMisses());
+      assertEquals(0, countCacheFiles());
+   }
+
+   private SDFRobotDescriptionCache createCache(byte[] sdfFile, SDFDescriptionMutator mutator, String configuration)
+   {
+      return new SDFRobotDescriptionCache(null, new ByteArrayInputStream(sdfFile), mutator, configuration, true, cacheDirectory);
+   }
+
+   private byte[] readSDFFile()
+   {
+      try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(SDF_FILE))
+      {
+         byte[] buffer = new byte[8192];
+         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+         int length;
+         while ((length = inputStream.read(buffer)) != -1)
+            outputStream.write(buffer, 0, length);
+         return outputStream.toByteArray();
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   private int countCacheFiles()
+   {
+      try (Stream<Path> files = Files.list(cacheDirectory))
+      {
+         return (int) files.filter(file -> file.toString().endsWith(".bin")).count();
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   private static class TestMutator implements SDFDescriptionMutator
+   {
+      @Override
+      public void mutateJointForModel(GeneralizedSDFRobotModel model, SDFJointHolder jointHolder)
+      {
+      }
+
+      @Override
+      public void mutateLinkForModel(GeneralizedSDFRobotModel model, SDFLinkHolder linkHolder)
+      {
+      }
+
+      @Override
+      public void mutateSensorForModel(GeneralizedSDFRobotModel model, SDFSensor sensor)
+      {
+      }
+
+      @Override
+      public void mutateForceSensorForModel(GeneralizedSDFRobotModel model, SDFForceSensor forceSensor)
+      {
+      }
+
+      @Override
+      public void mutateContactSensorForModel(GeneralizedSDFRobotModel model, SDFContactSensor contactSensor)
+      {
+      }
+
+      @Override
+      public void mutateModelWithAdditions(GeneralizedSDFRobotModel model)
+      {
+      }
+   }
+
+   private static class OtherTestMutator extends TestMutator
+   {
+      @Override
+      public void mutateLinkForModel(GeneralizedSDFRobotModel model, SDFLinkHolder linkHolder)
+      {
+         linkHolder.setMass(linkHolder.getMass() * 1.1);
+      }
+   }
+
+   private static class TestJointNameMap implements JointNameMap
+   {
+      @Override
+      public String getModelName()
+      {
+         return "atlas";
+      }
+
+      @Override
+      public JointRole getJointRole(String jointName)
+      {
+         return null;
+      }
+
+      @Override
+      public NeckJointName getNeckJointName(String jointName)
+      {
+         return null;
+      }
+
+      @Override
+      public SpineJointName getSpineJointName(String jointName)
+      {
+         return null;
+      }
+
+      @Override
+      public String getPelvisName()
+      {
+         return "pelvis";
+      }
+
+      @Override
+      public String getUnsanitizedRootJointInSdf()
+      {
+         return "pelvis";
+      }
+
+      @Override
+      public String getChestName()
+      {
+         return null;
+      }
+
+      @Override
+      public String getHeadName()
+      {
+         return null;
+      }
+
+      @Override
+      public boolean isTorqueVelocityLimitsEnabled()
+      {
+         return false;
+      }
+
+      @Override
+      public Set<String> getLastSimulatedJoints()
+      {
+         return Collections.emptySet();
+      }
+
+      @Override
+      public String[] getJointNamesBeforeFeet()
+      {
+         return new String[0];
+      }
+
+      @Override
+      public Enum<?>[] getRobotSegments()
+      {
+         return null;
+      }
+
+      @Override
+      public Enum<?> getEndEffectorsRobotSegment(String joineNameBeforeEndEffector)
+      {
+         return null;
+      }
+
+      @Override
+      public LegJointName[] getLegJointNames()
+      {
+         return null;
+      }
+
+      @Override
+      public ArmJointName[] getArmJointNames()
+      {
+         return null;
+      }
+
+      @Override
+      public SpineJointName[] getSpineJointNames()
+      {
+         return null;
+      }
+
+      @Override
+      public NeckJointName[] getNeckJointNames()
+      {
+         return null;
+      }
+   }
+}
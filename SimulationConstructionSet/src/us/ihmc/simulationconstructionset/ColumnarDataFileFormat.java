@@ -0,0 +1,82 @@
+package us.ihmc.simulationconstructionset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Layout of the chunk-compressed columnar data files written by {@link ColumnarDataFileWriter}
+ * and read by {@link ColumnarDataFileReader}:
+ * <ul>
+ * <li>a fixed size header: magic number, format version, record DT, number of points, number of
+ * points per chunk, number of variables, and the offset of the chunk table,
+ * <li>the full names of the variables,
+ * <li>the chunk table holding, for each variable and each chunk, the offset and the size of the
+ * compressed chunk,
+ * <li>the compressed chunks, in no particular order.
+ * </ul>
+ * Each chunk holds the values of one variable for {@code pointsPerChunk} consecutive points, as
+ * doubles with their bytes shuffled, i.e. all the first bytes of the values then all the second
+ * bytes and so on, and compressed with deflate. Shuffling the bytes groups the sign and exponent
+ * bytes, which rarely change, and makes the chunks much more compressible.
+ */
+final class ColumnarDataFileFormat
+{
+   static final String FILE_EXTENSION = ".data.col";
+
+   static final int MAGIC_NUMBER = 0x5343534c; // "SCSL"
+   static final int FORMAT_VERSION = 1;
+   static final int FIXED_HEADER_SIZE = 2 * Integer.BYTES + Double.BYTES + 3 * Integer.BYTES + Long.BYTES;
+   static final int CHUNK_TABLE_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+   static final int DEFAULT_POINTS_PER_CHUNK = 8192;
+
+   private ColumnarDataFileFormat()
+   {
+   }
+
+   static int computeNumberOfChunks(int numberOfPoints, int pointsPerChunk)
+   {
+      return (numberOfPoints + pointsPerChunk - 1) / pointsPerChunk;
+   }
+
+   static void shuffle(double[] values, int numberOfValues, byte[] shuffledBytes)
+   {
+      for (int i = 0; i < numberOfValues; i++)
+      {
+         long bits = Double.doubleToRawLongBits(values[i]);
+
+         for (int byteIndex = 0; byteIndex < Double.BYTES; byteIndex++)
+            shuffledBytes[byteIndex * numberOfValues + i] = (byte) (bits >>> (56 - 8 * byteIndex));
+      }
+   }
+
+   static void unshuffle(byte[] shuffledBytes, int numberOfValues, double[] values, int offset)
+   {
+      for (int i = 0; i < numberOfValues; i++)
+      {
+         long bits = 0L;
+
+         for (int byteIndex = 0; byteIndex < Double.BYTES; byteIndex++)
+            bits = (bits << 8) | (shuffledBytes[byteIndex * numberOfValues + i] & 0xffL);
+
+         values[offset + i] = Double.longBitsToDouble(bits);
+      }
+   }
+
+   static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+   {
+      while (buffer.hasRemaining())
+         position += channel.write(buffer, position);
+   }
+
+   static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+   {
+      while (buffer.hasRemaining())
+      {
+         int read = channel.read(buffer, position);
+         if (read < 0)
+            throw new IOException("Unexpected end of the columnar data file.");
+         position += read;
+      }
+   }
+}
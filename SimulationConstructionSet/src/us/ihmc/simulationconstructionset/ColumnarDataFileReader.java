@@ -0,0 +1,201 @@
+package us.ihmc.simulationconstructionset;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the chunk-compressed columnar data files written by a {@link ColumnarDataFileWriter}.
+ * <p>
+ * Only the header, the variable names, and the chunk table are read when opening the file. The
+ * data of each variable is read and decompressed when requested with {@link #readColumn(int)},
+ * such that a few variables of a large file can be loaded quickly. The columns can be read from
+ * several threads at the same time.
+ * </p>
+ */
+public class ColumnarDataFileReader implements Closeable
+{
+   private final FileChannel channel;
+   private final double recordDT;
+   private final int numberOfPoints;
+   private final int pointsPerChunk;
+   private final int numberOfChunks;
+   private final List<String> variableNames;
+   private final long[] chunkOffsets;
+   private final int[] chunkSizes;
+
+   public ColumnarDataFileReader(File file) throws IOException
+   {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+      try
+      {
+         ByteBuffer header = ByteBuffer.allocate(ColumnarDataFileFormat.FIXED_HEADER_SIZE);
+         ColumnarDataFileFormat.readFully(channel, header, 0);
+         header.flip();
+
+         if (header.getInt() != ColumnarDataFileFormat.MAGIC_NUMBER)
+            throw new IOException(file + " is not a columnar data file.");
+
+         int version = header.getInt();
+         if (version != ColumnarDataFileFormat.FORMAT_VERSION)
+            throw new IOException("Unsupported columnar data file version: " + version + ", expected: " + ColumnarDataFileFormat.FORMAT_VERSION);
+
+         recordDT = header.getDouble();
+         numberOfPoints = header.getInt();
+         pointsPerChunk = header.getInt();
+         int numberOfVariables = header.getInt();
+         long chunkTableOffset = header.getLong();
+         numberOfChunks = ColumnarDataFileFormat.computeNumberOfChunks(numberOfPoints, pointsPerChunk);
+
+         ByteBuffer names = ByteBuffer.allocate((int) (chunkTableOffset - ColumnarDataFileFormat.FIXED_HEADER_SIZE));
+         ColumnarDataFileFormat.readFully(channel, names, ColumnarDataFileFormat.FIXED_HEADER_SIZE);
+         DataInputStream namesInput = new DataInputStream(new ByteArrayInputStream(names.array()));
+         List<String> variableNames = new ArrayList<>(numberOfVariables);
+         for (int i = 0; i < numberOfVariables; i++)
+            variableNames.add(namesInput.readUTF());
+         this.variableNames = Collections.unmodifiableList(variableNames);
+
+         ByteBuffer chunkTable = ByteBuffer.allocate(numberOfVariables * numberOfChunks * ColumnarDataFileFormat.CHUNK_TABLE_ENTRY_SIZE);
+         ColumnarDataFileFormat.readFully(channel, chunkTable, chunkTableOffset);
+         chunkTable.flip();
+         chunkOffsets = new long[numberOfVariables * numberOfChunks];
+         chunkSizes = new int[numberOfVariables * numberOfChunks];
+         for (int i = 0; i < chunkOffsets.length; i++)
+         {
+            chunkOffsets[i] = chunkTable.getLong();
+            chunkSizes[i] = chunkTable.getInt();
+         }
+      }
+      catch (IOException | RuntimeException e)
+      {
+         channel.close();
+         throw e;
+      }
+   }
+
+   public double getRecordDT()
+   {
+      return recordDT;
+   }
+
+   public int getNumberOfPoints()
+   {
+      return numberOfPoints;
+   }
+
+   public int getNumberOfVariables()
+   {
+      return variableNames.size();
+   }
+
+   /**
+    * @return the full names, with name space, of the variables in the file, in the order they
+    *         were written.
+    */
+   public List<String> getVariableNames()
+   {
+      return variableNames;
+   }
+
+   /**
+    * Reads the data of the variable with the given full name.
+    *
+    * @param variableName the full name, with name space, of the variable.
+    * @return the data of the variable.
+    * @throws IOException if the file could not be read.
+    * @throws RuntimeException if the file has no variable with the given name.
+    */
+   public double[] readColumn(String variableName) throws IOException
+   {
+      int variableIndex = variableNames.indexOf(variableName);
+      if (variableIndex == -1)
+         throw new RuntimeException("The file has no variable named: " + variableName);
+      return readColumn(variableIndex);
+   }
+
+   /**
+    * Reads the data of the {@code variableIndex}-th variable.
+    *
+    * @param variableIndex the index of the variable in {@link #getVariableNames()}.
+    * @return the data of the variable.
+    * @throws IOException if the file could not be read.
+    */
+   public double[] readColumn(int variableIndex) throws IOException
+   {
+      double[] values = new double[numberOfPoints];
+      readColumn(variableIndex, values);
+      return values;
+   }
+
+   /**
+    * Reads the data of the {@code variableIndex}-th variable in the first
+    * {@link #getNumberOfPoints()} elements of {@code valuesToPack}.
+    *
+    * @param variableIndex the index of the variable in {@link #getVariableNames()}.
+    * @param valuesToPack the array in which the data is stored. Modified.
+    * @throws IOException if the file could not be read.
+    */
+   public void readColumn(int variableIndex, double[] valuesToPack) throws IOException
+   {
+      if (valuesToPack.length < numberOfPoints)
+         throw new RuntimeException("The array is too small. Expected at least: " + numberOfPoints + ", but was: " + valuesToPack.length);
+
+      byte[] shuffledBytes = new byte[Math.min(pointsPerChunk, numberOfPoints) * Double.BYTES];
+      Inflater inflater = new Inflater();
+
+      try
+      {
+         for (int chunk = 0; chunk < numberOfChunks; chunk++)
+         {
+            int chunkIndex = variableIndex * numberOfChunks + chunk;
+            ByteBuffer compressedChunk = ByteBuffer.allocate(chunkSizes[chunkIndex]);
+            ColumnarDataFileFormat.readFully(channel, compressedChunk, chunkOffsets[chunkIndex]);
+
+            int firstPoint = chunk * pointsPerChunk;
+            int numberOfValues = Math.min(pointsPerChunk, numberOfPoints - firstPoint);
+            int expectedSize = numberOfValues * Double.BYTES;
+
+            inflater.reset();
+            inflater.setInput(compressedChunk.array());
+            int size = 0;
+            while (size < expectedSize && !inflater.finished())
+            {
+               int inflated = inflater.inflate(shuffledBytes, size, expectedSize - size);
+               if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                  break;
+               size += inflated;
+            }
+
+            if (size != expectedSize)
+               throw new IOException("Corrupted chunk " + chunk + " of variable " + variableNames.get(variableIndex));
+
+            ColumnarDataFileFormat.unshuffle(shuffledBytes, numberOfValues, valuesToPack, firstPoint);
+         }
+      }
+      catch (DataFormatException e)
+      {
+         throw new IOException("Corrupted data for variable " + variableNames.get(variableIndex), e);
+      }
+      finally
+      {
+         inflater.end();
+      }
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+      channel.close();
+   }
+}
@@ -0,0 +1,308 @@
+package us.ihmc.simulationconstructionset;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.tools.thread.ThreadTools;
+
+/**
+ * Writes the data of a {@link DataBuffer} in the chunk-compressed columnar format described in
+ * {@link ColumnarDataFileFormat}, which can be loaded column by column with a
+ * {@link ColumnarDataFileReader}.
+ * <p>
+ * The columns are split into chunks that are compressed in parallel by several threads, each
+ * thread writing its compressed chunks directly to the file with positional writes on a shared
+ * {@link FileChannel}. The values are read directly from the data buffer, one chunk at a time, so
+ * the export does not make a copy of the recorded data.
+ * </p>
+ */
+public class ColumnarDataFileWriter
+{
+   public static final String FILE_EXTENSION = ColumnarDataFileFormat.FILE_EXTENSION;
+
+   /** Size above which a thread writes its pending compressed chunks to the file. */
+   private static final int FLUSH_SIZE = 1 << 20;
+
+   private final File file;
+   private final int numberOfThreads;
+   private final int pointsPerChunk;
+
+   /**
+    * Creates a writer using one thread per available processor.
+    */
+   public ColumnarDataFileWriter(File file)
+   {
+      this(file, Runtime.getRuntime().availableProcessors(), ColumnarDataFileFormat.DEFAULT_POINTS_PER_CHUNK);
+   }
+
+   /**
+    * @param file the file to write to.
+    * @param numberOfThreads the number of threads compressing the columns.
+    * @param pointsPerChunk the number of points of each compressed chunk. Larger chunks compress
+    *           better, smaller chunks make reading a part of a column cheaper.
+    */
+   public ColumnarDataFileWriter(File file, int numberOfThreads, int pointsPerChunk)
+   {
+      if (numberOfThreads < 1)
+         throw new RuntimeException("The number of threads has to be at least 1, but was: " + numberOfThreads);
+      if (pointsPerChunk < 1)
+         throw new RuntimeException("The number of points per chunk has to be at least 1, but was: " + pointsPerChunk);
+
+      this.file = file;
+      this.numberOfThreads = numberOfThreads;
+      this.pointsPerChunk = pointsPerChunk;
+   }
+
+   /**
+    * Writes the data recorded in {@code dataBuffer} between its in and out points for the given
+    * variables. The variables that are not recorded by the data buffer are ignored.
+    *
+    * @param recordDT the time between two recorded points.
+    * @param dataBuffer the data to write. Not modified.
+    * @param variables the variables to write, in the order they are written.
+    * @throws IOException if the file could not be written.
+    */
+   public void write(double recordDT, DataBuffer dataBuffer, List<? extends YoVariable<?>> variables) throws IOException
+   {
+      List<DataBufferEntry> entries = new ArrayList<>();
+
+      for (YoVariable<?> variable : variables)
+      {
+         DataBufferEntry entry = dataBuffer.getEntry(variable);
+         if (entry != null)
+            entries.add(entry);
+      }
+
+      int numberOfPoints = dataBuffer.getBufferInOutLength();
+      int numberOfChunks = ColumnarDataFileFormat.computeNumberOfChunks(numberOfPoints, pointsPerChunk);
+
+      ByteArrayOutputStream variableNames = new ByteArrayOutputStream();
+      DataOutputStream variableNamesOutput = new DataOutputStream(variableNames);
+      for (DataBufferEntry entry : entries)
+         variableNamesOutput.writeUTF(entry.getVariable().getFullNameWithNameSpace());
+      variableNamesOutput.close();
+
+      long chunkTableOffset = ColumnarDataFileFormat.FIXED_HEADER_SIZE + variableNames.size();
+      long chunkTableSize = (long) entries.size() * numberOfChunks * ColumnarDataFileFormat.CHUNK_TABLE_ENTRY_SIZE;
+      long[] chunkOffsets = new long[entries.size() * numberOfChunks];
+      int[] chunkSizes = new int[entries.size() * numberOfChunks];
+
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         AtomicInteger nextColumn = new AtomicInteger(0);
+         AtomicLong nextChunkOffset = new AtomicLong(chunkTableOffset + chunkTableSize);
+         int inPoint = dataBuffer.getInPoint();
+         int numberOfWorkers = Math.max(1, Math.min(numberOfThreads, entries.size()));
+
+         if (numberOfWorkers == 1)
+         {
+            new ColumnWriter(channel, entries, inPoint, numberOfPoints, nextColumn, nextChunkOffset, chunkOffsets, chunkSizes).call();
+         }
+         else
+         {
+            ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers, ThreadTools.getNamedThreadFactory(getClass().getSimpleName()));
+
+            try
+            {
+               List<Future<Void>> workers = new ArrayList<>();
+               for (int i = 0; i < numberOfWorkers; i++)
+                  workers.add(executor.submit(new ColumnWriter(channel, entries, inPoint, numberOfPoints, nextColumn, nextChunkOffset, chunkOffsets,
+                                                               chunkSizes)));
+
+               for (Future<Void> worker : workers)
+                  worker.get();
+            }
+            catch (ExecutionException e)
+            {
+               nextColumn.set(entries.size());
+               if (e.getCause() instanceof IOException)
+                  throw (IOException) e.getCause();
+               throw new RuntimeException(e.getCause());
+            }
+            catch (InterruptedException e)
+            {
+               nextColumn.set(entries.size());
+               Thread.currentThread().interrupt();
+               throw new IOException("Interrupted while writing " + file, e);
+            }
+            finally
+            {
+               executor.shutdownNow();
+            }
+         }
+
+         ByteBuffer header = ByteBuffer.allocate((int) (chunkTableOffset + chunkTableSize));
+         header.putInt(ColumnarDataFileFormat.MAGIC_NUMBER);
+         header.putInt(ColumnarDataFileFormat.FORMAT_VERSION);
+         header.putDouble(recordDT);
+         header.putInt(numberOfPoints);
+         header.putInt(pointsPerChunk);
+         header.putInt(entries.size());
+         header.putLong(chunkTableOffset);
+         header.put(variableNames.toByteArray());
+
+         for (int i = 0; i < chunkOffsets.length; i++)
+         {
+            header.putLong(chunkOffsets[i]);
+            header.putInt(chunkSizes[i]);
+         }
+
+         header.flip();
+         ColumnarDataFileFormat.writeFully(channel, header, 0);
+      }
+   }
+
+   /**
+    * Compresses the columns one after the other, taking the next column that has not been written
+    * yet, and writes the compressed chunks in batches of about {@link #FLUSH_SIZE} bytes.
+    */
+   private class ColumnWriter implements Callable<Void>
+   {
+      private final FileChannel channel;
+      private final List<DataBufferEntry> entries;
+      private final int inPoint;
+      private final int numberOfPoints;
+      private final int numberOfChunks;
+      private final AtomicInteger nextColumn;
+      private final AtomicLong nextChunkOffset;
+      private final long[] chunkOffsets;
+      private final int[] chunkSizes;
+
+      private final double[] values = new double[pointsPerChunk];
+      private final byte[] shuffledBytes = new byte[pointsPerChunk * Double.BYTES];
+      private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      private byte[] compressedChunk = new byte[pointsPerChunk * Double.BYTES + 1024];
+
+      private byte[] pendingBytes = new byte[FLUSH_SIZE];
+      private int pendingSize = 0;
+      private int[] pendingChunkIndices = new int[64];
+      private int[] pendingChunkStarts = new int[64];
+      private int numberOfPendingChunks = 0;
+
+      public ColumnWriter(FileChannel channel, List<DataBufferEntry> entries, int inPoint, int numberOfPoints, AtomicInteger nextColumn,
+                          AtomicLong nextChunkOffset, long[] chunkOffsets, int[] chunkSizes)
+      {
+         this.channel = channel;
+         this.entries = entries;
+         this.inPoint = inPoint;
+         this.numberOfPoints = numberOfPoints;
+         this.numberOfChunks = ColumnarDataFileFormat.computeNumberOfChunks(numberOfPoints, pointsPerChunk);
+         this.nextColumn = nextColumn;
+         this.nextChunkOffset = nextChunkOffset;
+         this.chunkOffsets = chunkOffsets;
+         this.chunkSizes = chunkSizes;
+      }
+
+      @Override
+      public Void call() throws IOException
+      {
+         try
+         {
+            int column;
+            while ((column = nextColumn.getAndIncrement()) < entries.size())
+            {
+               double[] data = entries.get(column).getData();
+
+               for (int chunk = 0; chunk < numberOfChunks; chunk++)
+               {
+                  int firstPoint = chunk * pointsPerChunk;
+                  int numberOfValues = Math.min(pointsPerChunk, numberOfPoints - firstPoint);
+                  int index = (inPoint + firstPoint) % data.length;
+
+                  for (int i = 0; i < numberOfValues; i++)
+                  {
+                     values[i] = data[index];
+                     if (++index >= data.length)
+                        index = 0;
+                  }
+
+                  ColumnarDataFileFormat.shuffle(values, numberOfValues, shuffledBytes);
+                  int compressedSize = compress(numberOfValues * Double.BYTES);
+                  addPendingChunk(column * numberOfChunks + chunk, compressedSize);
+               }
+            }
+
+            flush();
+         }
+         finally
+         {
+            deflater.end();
+         }
+
+         return null;
+      }
+
+      private int compress(int length)
+      {
+         deflater.reset();
+         deflater.setInput(shuffledBytes, 0, length);
+         deflater.finish();
+
+         int compressedSize = 0;
+         while (!deflater.finished())
+         {
+            if (compressedSize == compressedChunk.length)
+               compressedChunk = Arrays.copyOf(compressedChunk, 2 * compressedChunk.length);
+            compressedSize += deflater.deflate(compressedChunk, compressedSize, compressedChunk.length - compressedSize);
+         }
+
+         return compressedSize;
+      }
+
+      private void addPendingChunk(int chunkIndex, int compressedSize) throws IOException
+      {
+         if (pendingSize + compressedSize > pendingBytes.length)
+         {
+            flush();
+            if (compressedSize > pendingBytes.length)
+               pendingBytes = new byte[compressedSize];
+         }
+
+         if (numberOfPendingChunks == pendingChunkIndices.length)
+         {
+            pendingChunkIndices = Arrays.copyOf(pendingChunkIndices, 2 * numberOfPendingChunks);
+            pendingChunkStarts = Arrays.copyOf(pendingChunkStarts, 2 * numberOfPendingChunks);
+         }
+
+         System.arraycopy(compressedChunk, 0, pendingBytes, pendingSize, compressedSize);
+         pendingChunkIndices[numberOfPendingChunks] = chunkIndex;
+         pendingChunkStarts[numberOfPendingChunks] = pendingSize;
+         chunkSizes[chunkIndex] = compressedSize;
+         numberOfPendingChunks++;
+         pendingSize += compressedSize;
+      }
+
+      private void flush() throws IOException
+      {
+         if (pendingSize == 0)
+            return;
+
+         long offset = nextChunkOffset.getAndAdd(pendingSize);
+         ColumnarDataFileFormat.writeFully(channel, ByteBuffer.wrap(pendingBytes, 0, pendingSize), offset);
+
+         for (int i = 0; i < numberOfPendingChunks; i++)
+            chunkOffsets[pendingChunkIndices[i]] = offset + pendingChunkStarts[i];
+
+         pendingSize = 0;
+         numberOfPendingChunks = 0;
+      }
+   }
+}
@@ -141,6 +141,11 @@ public class DataFileReader
    {
 //    try
 //    {
+      if (inFile.getName().endsWith(ColumnarDataFileWriter.FILE_EXTENSION))
+      {
+         return readColumnarData(newVars, rootRegistryToAddNewVariablesTo, dataBuffer);
+      }
+
       YoDataInputStream dataStream;
 
       if (inFile.getName().endsWith(".gz"))
@@ -313,6 +318,48 @@ public class DataFileReader
       return nPoints;
    }
 
+   /**
+    * Opens the file as a columnar data file written by a {@link ColumnarDataFileWriter}, such that
+    * its variables can be loaded lazily, one column at a time.
+    *
+    * @return the reader for the file. It has to be closed when done.
+    * @throws IOException if the file is not a columnar data file.
+    */
+   public ColumnarDataFileReader openColumnarData() throws IOException
+   {
+      if (inFile == null)
+         throw new IOException("Columnar data can only be read from a file.");
+
+      return new ColumnarDataFileReader(inFile);
+   }
+
+   private int readColumnarData(YoVariableList newVars, YoVariableRegistry rootRegistryToAddNewVariablesTo, DataBuffer dataBuffer) throws IOException
+   {
+      try (ColumnarDataFileReader reader = openColumnarData())
+      {
+         nVars = reader.getNumberOfVariables();
+         nPoints = reader.getNumberOfPoints();
+         recordDT = reader.getRecordDT();
+         varNames = new ArrayList<String>(reader.getVariableNames());
+
+         dataBuffer.clearAll(nPoints);
+
+         for (int i = 0; i < nVars; i++)
+         {
+            DataBufferEntry newEntry = getDataBufferEntry(varNames.get(i), dataBuffer, rootRegistryToAddNewVariablesTo, newVars);
+            double[] someData = newEntry.getData();
+            reader.readColumn(i, someData);
+            newEntry.setData(someData, nPoints);
+         }
+
+         dataBuffer.setInPoint(0);
+         dataBuffer.setOutPoint(nPoints - 1);
+         dataBuffer.setIndex(0);
+      }
+
+      return nPoints;
+   }
+
    private String replaceAll(String orig, String regex, String rep)
    {
       int index = 0;
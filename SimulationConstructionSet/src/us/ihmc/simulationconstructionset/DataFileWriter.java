@@ -9,8 +9,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
 import com.jmatio.io.MatFileIncrementalWriter;
@@ -204,6 +208,7 @@ public class DataFileWriter
       dataOutputStream.writeBytes("$DT " + String.valueOf(recordDT) + "\n");
 
       int nVars = 0;
+      HashSet<YoVariable<?>> varsToWrite = new HashSet<>(vars);
 
       if (entries != null)
       {
@@ -212,7 +217,7 @@ public class DataFileWriter
             DataBufferEntry entry = entries.get(i);
             YoVariable<?> variable = entry.getVariable();
 
-            if (vars.contains(variable))
+            if (varsToWrite.contains(variable))
                nVars++;
          }
       }
@@ -230,7 +235,7 @@ public class DataFileWriter
             DataBufferEntry entry = entries.get(i);
             YoVariable<?> variable = entry.getVariable();
 
-            if (vars.contains(variable))
+            if (varsToWrite.contains(variable))
             {
 //             dataOutputStream.writeBytes("$VAR " + variable.getName() + " " + entry.getManualMinScaling() + " " + entry.getManualMaxScaling() + "\n");
                dataOutputStream.writeBytes("$VAR " + variable.getFullNameWithNameSpace() + " " + entry.getManualMinScaling() + " "
@@ -370,6 +375,7 @@ public class DataFileWriter
          writer.write(dt);
          
 
+         HashSet<YoVariable<?>> varsToWrite = new HashSet<>(vars);
          MLStructure mlRoot=null, mlNode;
          for (int i = 0; i < entries.size(); i++)
          {
@@ -379,7 +385,7 @@ public class DataFileWriter
             ArrayList<String> subNames = variable.getNameSpace().getSubNames();
             int subNameDepth= 0;
 
-            if (vars.contains(variable))
+            if (varsToWrite.contains(variable))
             {
 
                //find/create root
@@ -438,6 +444,45 @@ public class DataFileWriter
    }
    
 
+   /**
+    * Writes the data of the given variables in the chunk-compressed columnar format, using one
+    * thread per available processor. The file can be loaded by the {@link DataFileReader} when its
+    * name ends with {@link ColumnarDataFileWriter#FILE_EXTENSION}, or read column by column with a
+    * {@link ColumnarDataFileReader}.
+    *
+    * @param recordDT the time between two recorded points.
+    * @param dataBuffer the data to write.
+    * @param vars the variables to write.
+    */
+   public void writeColumnarData(double recordDT, DataBuffer dataBuffer, List<? extends YoVariable<?>> vars)
+   {
+      writeColumnarData(recordDT, dataBuffer, vars, Runtime.getRuntime().availableProcessors());
+   }
+
+   public void writeColumnarData(double recordDT, DataBuffer dataBuffer, List<? extends YoVariable<?>> vars, int numberOfThreads)
+   {
+      try
+      {
+         ColumnarDataFileWriter writer = new ColumnarDataFileWriter(outFile, numberOfThreads, ColumnarDataFileFormat.DEFAULT_POINTS_PER_CHUNK);
+         writer.write(recordDT, dataBuffer, vars);
+      }
+      catch (IOException e)
+      {
+         e.printStackTrace();
+      }
+   }
+
+   private static HashMap<YoVariable<?>, Integer> createVariableIndexMap(ArrayList<? extends YoVariable<?>> vars)
+   {
+      HashMap<YoVariable<?>, Integer> varIndices = new HashMap<>();
+
+      // Same index as ArrayList.indexOf, i.e. the first occurrence.
+      for (int i = vars.size() - 1; i >= 0; i--)
+         varIndices.put(vars.get(i), i);
+
+      return varIndices;
+   }
+
    private void writeBinaryData(String model, double recordDT, DataBuffer dataBuffer, ArrayList<YoVariable<?>> vars, boolean compress, Robot robot)
    {
       try
@@ -447,22 +492,30 @@ public class DataFileWriter
          writeHeaderInformation(dataOutputStream, entries, model, recordDT, dataBuffer, vars, compress, robot);
 
          int bufferLength = dataBuffer.getBufferInOutLength();
+         HashSet<YoVariable<?>> varsToWrite = new HashSet<>(vars);
 
-         // Write the binary data here:
+         // Write the binary data here, one column at a time as the floats are written by DataOutputStream.writeFloat:
+         ByteBuffer columnBytes = ByteBuffer.allocate(bufferLength * Float.BYTES);
 
          for (int i = 0; i < entries.size(); i++)
          {
             DataBufferEntry entry = entries.get(i);
             YoVariable<?> variable = entry.getVariable();
 
-            if (vars.contains(variable))
+            if (varsToWrite.contains(variable))
             {
-               double[] data = entry.getWindowedData(dataBuffer.getInPoint(), /* dataBuffer.getOutPoint(), */ bufferLength);
+               double[] data = entry.getData();
+               int index = dataBuffer.getInPoint();
+               columnBytes.clear();
 
                for (int j = 0; j < bufferLength; j++)
                {
-                  dataOutputStream.writeFloat(((float) data[j]));
+                  columnBytes.putFloat((float) data[index]);
+                  if (++index >= data.length)
+                     index = 0;
                }
+
+               dataOutputStream.write(columnBytes.array(), 0, columnBytes.position());
             }
          }
 
@@ -504,19 +557,22 @@ public class DataFileWriter
 
 
          // Find the matching variables
+         HashMap<YoVariable<?>, Integer> varIndices = createVariableIndexMap(vars);
+
          for (int i = 0; i < entries.size(); i++)
          {
             DataBufferEntry entry = entries.get(i);
             YoVariable<?> variable = entry.getVariable();
+            Integer varIndex = varIndices.get(variable);
 
-            if (vars.contains(variable))
+            if (varIndex != null)
             {
-               varnamesToWrite[vars.indexOf(variable)] = entry.getVariable().getFullNameWithNameSpace();
-               varnamesToWrite[vars.indexOf(variable)] = varnamesToWrite[vars.indexOf(variable)].replace("[", "");
-               varnamesToWrite[vars.indexOf(variable)] = varnamesToWrite[vars.indexOf(variable)].replace("]", "");
+               varnamesToWrite[varIndex] = entry.getVariable().getFullNameWithNameSpace();
+               varnamesToWrite[varIndex] = varnamesToWrite[varIndex].replace("[", "");
+               varnamesToWrite[varIndex] = varnamesToWrite[varIndex].replace("]", "");
 
                double[] data = entry.getWindowedData(dataBuffer.getInPoint(), /* dataBuffer.getOutPoint(), */ bufferLength);
-               dataToWrite[vars.indexOf(variable)] = data;
+               dataToWrite[varIndex] = data;
             }
          }
 
@@ -571,17 +627,20 @@ public class DataFileWriter
          double[][] dataToWrite = new double[vars.size()][];
 
          // Find the matching variables
+         HashMap<YoVariable<?>, Integer> varIndices = createVariableIndexMap(vars);
+
          for (int i = 0; i < entries.size(); i++)
          {
             DataBufferEntry entry = entries.get(i);
             YoVariable<?> variable = entry.getVariable();
+            Integer varIndex = varIndices.get(variable);
 
-            if (vars.contains(variable))
+            if (varIndex != null)
             {
-               varnamesToWrite[vars.indexOf(variable)] = entry.getVariable().getFullNameWithNameSpace();
+               varnamesToWrite[varIndex] = entry.getVariable().getFullNameWithNameSpace();
 
                double[] data = entry.getWindowedData(dataBuffer.getInPoint(), /* dataBuffer.getOutPoint(), */ bufferLength);
-               dataToWrite[vars.indexOf(variable)] = data;
+               dataToWrite[varIndex] = data;
             }
          }
 
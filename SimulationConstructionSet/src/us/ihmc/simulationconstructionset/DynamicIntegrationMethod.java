@@ -2,5 +2,18 @@ package us.ihmc.simulationconstructionset;
 
 public enum DynamicIntegrationMethod
 {
-   RUNGE_KUTTA_FOURTH_ORDER, EULER_DOUBLE_STEPS;
+   RUNGE_KUTTA_FOURTH_ORDER, EULER_DOUBLE_STEPS,
+
+   /**
+    * Symplectic Euler: velocities are integrated first and the positions are then integrated with the new velocities.
+    * Ground contact is re-evaluated between the two half steps.
+    */
+   SEMI_IMPLICIT_EULER_DOUBLE_STEPS,
+
+   /**
+    * Fourth order Runge-Kutta with step doubling error control. The simulation DT is split into substeps sized
+    * to keep the estimated joint state error below {@link Robot#setAdaptiveIntegrationTolerance(double)}.
+    * Ground contact is re-evaluated at every substep.
+    */
+   RUNGE_KUTTA_ADAPTIVE_STEP;
 }
@@ -76,11 +76,21 @@ public class GroundContactPoint extends ExternalForcePoint
    {
       slip.set(isSlipping);
    }
+
+   public BooleanYoVariable getYoSlip()
+   {
+      return slip;
+   }
    
    public int getCollisionCount()
    {
       return collisionCount.getIntegerValue();
    }
+
+   public IntegerYoVariable getYoCollisionCount()
+   {
+      return collisionCount;
+   }
    
    public void incrementCollisionCount()
    {
@@ -19,8 +19,10 @@ import us.ihmc.robotics.dataStructures.listener.RewoundListener;
 import us.ihmc.robotics.dataStructures.registry.NameSpace;
 import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
 import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.IntegerYoVariable;
 import us.ihmc.robotics.dataStructures.variable.YoVariable;
 import us.ihmc.robotics.dataStructures.variable.YoVariableList;
+import us.ihmc.robotics.math.frames.YoFrameTuple;
 import us.ihmc.robotics.robotController.RobotController;
 import us.ihmc.simulationconstructionset.robotdefinition.ExternalForcePointDefinitionFixedFrame;
 import us.ihmc.simulationconstructionset.robotdefinition.GroundContactDefinitionFixedFrame;
@@ -67,6 +69,16 @@ public class Robot implements YoVariableHolder, GroundContactPointsHolder
    private ExternalForcePoint kp_body;
 
    private DynamicIntegrationMethod dynamicIntegrationMethod = DynamicIntegrationMethod.RUNGE_KUTTA_FOURTH_ORDER;
+
+   private double adaptiveIntegrationTolerance = 1.0e-6;
+   private double adaptiveIntegrationMinimumStepSize = 1.0e-6;
+   private double adaptiveIntegrationStepSize = Double.NaN;
+   private final IntegerYoVariable adaptiveIntegrationNumberOfSubsteps;
+   private final IntegerYoVariable adaptiveIntegrationNumberOfRejectedSubsteps;
+   private YoVariable<?>[] adaptiveIntegrationStateVariables;
+   private long[] adaptiveIntegrationStateAtSubstepStart;
+   private final ArrayList<DoubleYoVariable> adaptiveIntegrationErrorVariables = new ArrayList<DoubleYoVariable>();
+   private double[] adaptiveIntegrationFullStepValues;
    
    private final ArrayList<Graphics3DObject> staticLinkGraphics = new ArrayList<Graphics3DObject>();
    // private VarList robVars;
@@ -153,6 +165,10 @@ public class Robot implements YoVariableHolder, GroundContactPointsHolder
       gravityY = new DoubleYoVariable("gravityY", yoVariableRegistry);
       gravityZ = new DoubleYoVariable("gravityZ", yoVariableRegistry);
 
+      // Created with the robot so they are recorded whatever the integration method is set to later on.
+      adaptiveIntegrationNumberOfSubsteps = new IntegerYoVariable("adaptiveIntegrationNumberOfSubsteps", yoVariableRegistry);
+      adaptiveIntegrationNumberOfRejectedSubsteps = new IntegerYoVariable("adaptiveIntegrationNumberOfRejectedSubsteps", yoVariableRegistry);
+
       setDefaultGravityToEarthWithMetricUnits();
    }
 
@@ -160,6 +176,28 @@ public class Robot implements YoVariableHolder, GroundContactPointsHolder
    {
       this.dynamicIntegrationMethod = dynamicIntegrationMethod;
    }
+
+   /**
+    * Sets the maximum estimated error, on any joint position or velocity, accepted for a single substep
+    * when using {@link DynamicIntegrationMethod#RUNGE_KUTTA_ADAPTIVE_STEP}.
+    *
+    * @param tolerance maximum local error per substep.
+    */
+   public void setAdaptiveIntegrationTolerance(double tolerance)
+   {
+      this.adaptiveIntegrationTolerance = tolerance;
+   }
+
+   /**
+    * Sets the smallest substep the adaptive integrator can take. A substep of that size is accepted
+    * even if its estimated error is above the tolerance.
+    *
+    * @param minimumStepSize smallest substep in seconds.
+    */
+   public void setAdaptiveIntegrationMinimumStepSize(double minimumStepSize)
+   {
+      this.adaptiveIntegrationMinimumStepSize = minimumStepSize;
+   }
    
    private void setDefaultGravityToEarthWithMetricUnits()
    {
@@ -1025,22 +1063,7 @@ public class Robot implements YoVariableHolder, GroundContactPointsHolder
       {
       case RUNGE_KUTTA_FOURTH_ORDER:
       {
-         rootJointsRecursiveSaveTempState();
-
-         doDynamics(0);
-         rootJointsRecursiveEulerIntegrate(DT / 2.0);
-         doDynamics(1);
-
-         rootJointsRecursiveRestoreTempState();
-         rootJointsRecursiveEulerIntegrate(DT / 2.0);
-         doDynamics(2);
-
-         rootJointsRecursiveRestoreTempState();
-         rootJointsRecursiveEulerIntegrate(DT);
-         doDynamics(3);
-
-         rootJointsRecursiveRungeKuttaSum(DT);
-
+         doRungeKuttaFourthOrderStep(DT);
          t.set(temp_time + DT);
 
          break;
@@ -1063,6 +1086,27 @@ public class Robot implements YoVariableHolder, GroundContactPointsHolder
          break;
       }
 
+      case SEMI_IMPLICIT_EULER_DOUBLE_STEPS:
+      {
+         doSemiImplicitEulerStep(DT / 2.0);
+         t.set(temp_time + DT / 2.0);
+
+         updateGroundContact();
+
+         doSemiImplicitEulerStep(DT / 2.0);
+         t.set(temp_time + DT);
+
+         break;
+      }
+
+      case RUNGE_KUTTA_ADAPTIVE_STEP:
+      {
+         doAdaptiveRungeKuttaSteps(DT);
+         t.set(temp_time + DT);
+
+         break;
+      }
+
       default:
          throw new RuntimeException("Should not get here");
       }
@@ -1081,6 +1125,218 @@ public class Robot implements YoVariableHolder, GroundContactPointsHolder
    }
 
 
+   private void doRungeKuttaFourthOrderStep(double DT) throws UnreasonableAccelerationException
+   {
+      rootJointsRecursiveSaveTempState();
+
+      doDynamics(0);
+      rootJointsRecursiveEulerIntegrate(DT / 2.0);
+      doDynamics(1);
+
+      rootJointsRecursiveRestoreTempState();
+      rootJointsRecursiveEulerIntegrate(DT / 2.0);
+      doDynamics(2);
+
+      rootJointsRecursiveRestoreTempState();
+      rootJointsRecursiveEulerIntegrate(DT);
+      doDynamics(3);
+
+      rootJointsRecursiveRungeKuttaSum(DT);
+   }
+
+   /**
+    * Symplectic Euler step: qd_(n+1) = qd_n + h * qdd_n, q_(n+1) = q_n + h * qd_(n+1).
+    * The second Euler integration starts again from the saved state but uses the velocities produced by the first one,
+    * while the accelerations are unchanged since the dynamics are not recomputed in between.
+    * The orientation of floating joints is integrated from the saved angular velocity and therefore stays explicit.
+    *
+    * @param stepSize the step size h.
+    */
+   private void doSemiImplicitEulerStep(double stepSize) throws UnreasonableAccelerationException
+   {
+      rootJointsRecursiveSaveTempState();
+
+      doDynamics(0);
+      rootJointsRecursiveEulerIntegrate(stepSize);
+      rootJointsRecursiveEulerIntegrate(stepSize);
+   }
+
+   /**
+    * Re-evaluates the ground contact forces for the current robot state, the same way the {@link Simulator} does it once per tick.
+    */
+   private void updateGroundContact()
+   {
+      updateVelocities();
+      updateAllGroundContactPointVelocities();
+
+      if (groundContactModel != null)
+         groundContactModel.doGroundContact();
+
+      decideGroundContactPointsInContact();
+   }
+
+   /**
+    * Integrates over DT using RK4 substeps whose size is controlled by step doubling: each substep is computed once with
+    * a full step and once with two half steps, the difference giving an estimate of the local error. The two half steps
+    * result is kept when the error is below tolerance, otherwise the joint states and the ground contact point states are
+    * restored and the substep is retried with a smaller size. The accepted substep size is carried over to the next tick.
+    *
+    * @param DT the simulation time step to cover.
+    */
+   private void doAdaptiveRungeKuttaSteps(double DT) throws UnreasonableAccelerationException
+   {
+      if (adaptiveIntegrationStateVariables == null)
+         initializeAdaptiveIntegration();
+
+      if (Double.isNaN(adaptiveIntegrationStepSize))
+         adaptiveIntegrationStepSize = DT;
+
+      double substepStartTime = t.getDoubleValue();
+      double remainingTime = DT;
+      int numberOfSubsteps = 0;
+      int numberOfRejectedSubsteps = 0;
+      boolean isFirstSubstep = true;
+
+      while (remainingTime > 1.0e-12)
+      {
+         double stepSize = Math.min(adaptiveIntegrationStepSize, remainingTime);
+
+         if (!isFirstSubstep)
+            updateGroundContact();
+
+         for (int i = 0; i < adaptiveIntegrationStateVariables.length; i++)
+            adaptiveIntegrationStateAtSubstepStart[i] = adaptiveIntegrationStateVariables[i].getValueAsLongBits();
+
+         doRungeKuttaFourthOrderStep(stepSize);
+
+         for (int i = 0; i < adaptiveIntegrationErrorVariables.size(); i++)
+            adaptiveIntegrationFullStepValues[i] = adaptiveIntegrationErrorVariables.get(i).getDoubleValue();
+
+         restoreAdaptiveIntegrationState();
+
+         doRungeKuttaFourthOrderStep(stepSize / 2.0);
+         t.set(substepStartTime + stepSize / 2.0);
+         updateGroundContact();
+         doRungeKuttaFourthOrderStep(stepSize / 2.0);
+
+         double maximumError = 0.0;
+         for (int i = 0; i < adaptiveIntegrationErrorVariables.size(); i++)
+         {
+            double error = Math.abs(adaptiveIntegrationErrorVariables.get(i).getDoubleValue() - adaptiveIntegrationFullStepValues[i]);
+            maximumError = Math.max(maximumError, error);
+         }
+         // Richardson extrapolation: the two half steps error is about a fifteenth of the difference for a fourth order method.
+         maximumError /= 15.0;
+
+         double scale = maximumError > 0.0 ? 0.9 * Math.pow(adaptiveIntegrationTolerance / maximumError, 0.2) : 5.0;
+
+         if (maximumError <= adaptiveIntegrationTolerance || stepSize <= adaptiveIntegrationMinimumStepSize)
+         {
+            substepStartTime += stepSize;
+            remainingTime -= stepSize;
+            t.set(substepStartTime);
+            numberOfSubsteps++;
+            isFirstSubstep = false;
+
+            adaptiveIntegrationStepSize = Math.max(adaptiveIntegrationMinimumStepSize, stepSize * Math.min(5.0, scale));
+         }
+         else
+         {
+            restoreAdaptiveIntegrationState();
+            numberOfRejectedSubsteps++;
+
+            adaptiveIntegrationStepSize = Math.max(adaptiveIntegrationMinimumStepSize, stepSize * Math.max(0.1, scale));
+         }
+      }
+
+      adaptiveIntegrationNumberOfSubsteps.set(numberOfSubsteps);
+      adaptiveIntegrationNumberOfRejectedSubsteps.set(numberOfRejectedSubsteps);
+   }
+
+   private void restoreAdaptiveIntegrationState()
+   {
+      for (int i = 0; i < adaptiveIntegrationStateVariables.length; i++)
+         adaptiveIntegrationStateVariables[i].setValueFromLongBits(adaptiveIntegrationStateAtSubstepStart[i], false);
+   }
+
+   private void initializeAdaptiveIntegration()
+   {
+      adaptiveIntegrationErrorVariables.clear();
+      for (int i = 0; i < rootJoints.size(); i++)
+         recursiveGetIntegratedStateVariables(rootJoints.get(i), adaptiveIntegrationErrorVariables);
+      adaptiveIntegrationFullStepValues = new double[adaptiveIntegrationErrorVariables.size()];
+
+      // The ground contact points are saved with the joints so rejected substeps also undo the changes made by the
+      // ground contact model, a rejected first substep being retried without evaluating the ground contact again.
+      ArrayList<YoVariable<?>> stateVariables = new ArrayList<YoVariable<?>>(adaptiveIntegrationErrorVariables);
+      ArrayList<GroundContactPoint> groundContactPoints = getAllGroundContactPoints();
+      for (int i = 0; i < groundContactPoints.size(); i++)
+         getGroundContactPointStateVariables(groundContactPoints.get(i), stateVariables);
+
+      adaptiveIntegrationStateVariables = stateVariables.toArray(new YoVariable<?>[stateVariables.size()]);
+      adaptiveIntegrationStateAtSubstepStart = new long[adaptiveIntegrationStateVariables.length];
+   }
+
+   private static void getGroundContactPointStateVariables(GroundContactPoint groundContactPoint, ArrayList<YoVariable<?>> stateVariablesToPack)
+   {
+      addTupleVariables(groundContactPoint.getYoTouchdownLocation(), stateVariablesToPack);
+      addTupleVariables(groundContactPoint.getYoSurfaceNormal(), stateVariablesToPack);
+      addTupleVariables(groundContactPoint.getYoForce(), stateVariablesToPack);
+      addTupleVariables(groundContactPoint.getYoMoment(), stateVariablesToPack);
+      addTupleVariables(groundContactPoint.getYoImpulse(), stateVariablesToPack);
+      stateVariablesToPack.add(groundContactPoint.getYoFootSwitch());
+      stateVariablesToPack.add(groundContactPoint.getYoSlip());
+      stateVariablesToPack.add(groundContactPoint.getYoCollisionCount());
+   }
+
+   private static void addTupleVariables(YoFrameTuple<?, ?> tuple, ArrayList<YoVariable<?>> variablesToPack)
+   {
+      variablesToPack.add(tuple.getYoX());
+      variablesToPack.add(tuple.getYoY());
+      variablesToPack.add(tuple.getYoZ());
+   }
+
+   private static void recursiveGetIntegratedStateVariables(Joint joint, ArrayList<DoubleYoVariable> stateVariablesToPack)
+   {
+      if (joint instanceof OneDegreeOfFreedomJoint)
+      {
+         OneDegreeOfFreedomJoint oneDoFJoint = (OneDegreeOfFreedomJoint) joint;
+         stateVariablesToPack.add(oneDoFJoint.getQYoVariable());
+         stateVariablesToPack.add(oneDoFJoint.getQDYoVariable());
+      }
+      else if (joint instanceof FloatingJoint)
+      {
+         FloatingJoint floatingJoint = (FloatingJoint) joint;
+         stateVariablesToPack.add(floatingJoint.q_x);
+         stateVariablesToPack.add(floatingJoint.q_y);
+         stateVariablesToPack.add(floatingJoint.q_z);
+         stateVariablesToPack.add(floatingJoint.qd_x);
+         stateVariablesToPack.add(floatingJoint.qd_y);
+         stateVariablesToPack.add(floatingJoint.qd_z);
+         stateVariablesToPack.add(floatingJoint.q_qs);
+         stateVariablesToPack.add(floatingJoint.q_qx);
+         stateVariablesToPack.add(floatingJoint.q_qy);
+         stateVariablesToPack.add(floatingJoint.q_qz);
+         stateVariablesToPack.add(floatingJoint.qd_wx);
+         stateVariablesToPack.add(floatingJoint.qd_wy);
+         stateVariablesToPack.add(floatingJoint.qd_wz);
+      }
+      else if (joint instanceof FloatingPlanarJoint)
+      {
+         FloatingPlanarJoint floatingPlanarJoint = (FloatingPlanarJoint) joint;
+         stateVariablesToPack.add(floatingPlanarJoint.q_t1);
+         stateVariablesToPack.add(floatingPlanarJoint.q_t2);
+         stateVariablesToPack.add(floatingPlanarJoint.q_rot);
+         stateVariablesToPack.add(floatingPlanarJoint.qd_t1);
+         stateVariablesToPack.add(floatingPlanarJoint.qd_t2);
+         stateVariablesToPack.add(floatingPlanarJoint.qd_rot);
+      }
+
+      ArrayList<Joint> childrenJoints = joint.getChildrenJoints();
+      for (int i = 0; i < childrenJoints.size(); i++)
+         recursiveGetIntegratedStateVariables(childrenJoints.get(i), stateVariablesToPack);
+   }
+
    private void doDynamicsAndIntegrateWithFunction(double DT) throws UnreasonableAccelerationException
    {
       double temp_time = t.getDoubleValue();
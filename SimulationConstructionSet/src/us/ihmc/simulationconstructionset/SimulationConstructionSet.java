@@ -3505,6 +3505,23 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
       dataWriter.writeMatlabBinaryData( mySimulation.getDT() * mySimulation.getRecordFreq(), myDataBuffer, vars);
    }
 
+   /**
+    * Stores the data for the specified varGroup in a chunk-compressed columnar binary format, compressing the variables in parallel.
+    * To import the file with SCS it must have the extension data.col. The variables of such a file can also be loaded one by one with a {@link ColumnarDataFileReader}.<br />
+    * VarGroup "all" contains all simulation variables.
+    *
+    * @param varGroup   Name of the desired varGroup.
+    * @param chosenFile File to which data will be saved
+    */
+   public void writeColumnarData(String varGroup, File chosenFile)
+   {
+      DataFileWriter dataWriter = new DataFileWriter(chosenFile);
+      PrintTools.info(this, "Writing Data File " + chosenFile.getAbsolutePath());
+
+      ArrayList<YoVariable<?>> vars = myDataBuffer.getVarsFromGroup(varGroup, varGroupList);
+      dataWriter.writeColumnarData(mySimulation.getDT() * mySimulation.getRecordFreq(), myDataBuffer, vars);
+   }
+
    public File createVideo(String videoFilename)
    {
       File videoFile = new File(videoFilename);
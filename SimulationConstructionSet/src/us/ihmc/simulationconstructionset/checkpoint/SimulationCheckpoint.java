@@ -0,0 +1,97 @@
+package us.ihmc.simulationconstructionset.checkpoint;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Complete state of a simulation at a given time, as saved by a {@link SimulationCheckpointer}.
+ * <p>
+ * The checkpoint holds the raw value of every variable of the robots, which includes the joint
+ * states, the ground contact states, and the variables of the controllers, together with a hash
+ * of the names and types of these variables. It can only be restored in a simulation with the
+ * same variables, created in the same order, which is checked using the hash.
+ * </p>
+ * <p>
+ * A checkpoint can be converted to a compact binary blob with {@link #toByteArray()} to be stored
+ * or sent to another process.
+ * </p>
+ */
+public class SimulationCheckpoint
+{
+   private static final int MAGIC_NUMBER = 0x53434b50; // "SCKP"
+   private static final int FORMAT_VERSION = 1;
+   private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+   private final long structureHash;
+   private final long[] values;
+
+   SimulationCheckpoint(long structureHash, long[] values)
+   {
+      this.structureHash = structureHash;
+      this.values = values;
+   }
+
+   long getStructureHash()
+   {
+      return structureHash;
+   }
+
+   long[] getValues()
+   {
+      return values;
+   }
+
+   /**
+    * @return the number of variables saved in this checkpoint.
+    */
+   public int getNumberOfVariables()
+   {
+      return values.length;
+   }
+
+   /**
+    * Writes this checkpoint in a new binary blob that can be read back with
+    * {@link #fromByteArray(byte[])}.
+    *
+    * @return the binary blob.
+    */
+   public byte[] toByteArray()
+   {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + values.length * Long.BYTES);
+      buffer.putInt(MAGIC_NUMBER);
+      buffer.putInt(FORMAT_VERSION);
+      buffer.putLong(structureHash);
+      buffer.putInt(values.length);
+      buffer.asLongBuffer().put(values);
+      return buffer.array();
+   }
+
+   /**
+    * Reads a checkpoint from a binary blob created with {@link #toByteArray()}.
+    *
+    * @param data the binary blob.
+    * @return the checkpoint.
+    * @throws RuntimeException if the data is not a checkpoint of the current format.
+    */
+   public static SimulationCheckpoint fromByteArray(byte[] data)
+   {
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+
+      if (data.length < HEADER_SIZE || buffer.getInt() != MAGIC_NUMBER)
+         throw new RuntimeException("The data is not a simulation checkpoint.");
+
+      int version = buffer.getInt();
+      if (version != FORMAT_VERSION)
+         throw new RuntimeException("Unsupported simulation checkpoint version: " + version + ", expected: " + FORMAT_VERSION);
+
+      long structureHash = buffer.getLong();
+      int numberOfVariables = buffer.getInt();
+
+      if (buffer.remaining() != numberOfVariables * Long.BYTES)
+         throw new RuntimeException("Unexpected simulation checkpoint size. Expected: " + numberOfVariables + " variables, but was: "
+               + buffer.remaining() / Long.BYTES);
+
+      long[] values = new long[numberOfVariables];
+      buffer.asLongBuffer().get(values);
+      return new SimulationCheckpoint(structureHash, values);
+   }
+}
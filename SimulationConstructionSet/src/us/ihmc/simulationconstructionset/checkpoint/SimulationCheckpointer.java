@@ -0,0 +1,138 @@
+package us.ihmc.simulationconstructionset.checkpoint;
+
+import java.util.ArrayList;
+
+import us.ihmc.robotics.dataStructures.listener.RewoundListener;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.YoVariable;
+import us.ihmc.simulationconstructionset.Robot;
+
+/**
+ * Saves and restores the complete state of a set of robots without going through the
+ * {@link us.ihmc.simulationconstructionset.DataBuffer}.
+ * <p>
+ * The state of a simulation is held by the variables of the robots, which include the joint
+ * states, the ground contact states, and the variables of the controllers attached to the robots.
+ * A {@link SimulationCheckpoint} holds the raw values of all these variables, so restoring it only
+ * copies the values back and updates the robots, which takes a few microseconds.
+ * </p>
+ * <p>
+ * Restoring a checkpoint notifies the {@link RewoundListener}s of the robots, as rewinding the
+ * simulation does, such that the controllers can update the state that is not held by variables,
+ * such as their full robot models. State that is neither held by variables nor updated by a
+ * {@link RewoundListener} is not restored.
+ * </p>
+ * <p>
+ * A checkpoint can be restored in another simulation with the same robots and controllers, for
+ * instance to run several simulations in parallel from the same state with a
+ * {@link SimulationForkRunner}.
+ * </p>
+ */
+public class SimulationCheckpointer
+{
+   private final Robot[] robots;
+   private final YoVariable<?>[] variables;
+   private final RewoundListener[] rewoundListeners;
+   private final long structureHash;
+
+   public SimulationCheckpointer(Robot... robots)
+   {
+      this.robots = robots;
+
+      ArrayList<YoVariable<?>> allVariables = new ArrayList<>();
+      ArrayList<RewoundListener> allRewoundListeners = new ArrayList<>();
+
+      for (Robot robot : robots)
+      {
+         YoVariableRegistry registry = robot.getRobotsYoVariableRegistry();
+         allVariables.addAll(registry.getAllVariablesIncludingDescendants());
+         allRewoundListeners.addAll(registry.getAllSimulationRewoundListeners());
+      }
+
+      variables = allVariables.toArray(new YoVariable<?>[allVariables.size()]);
+      rewoundListeners = allRewoundListeners.toArray(new RewoundListener[allRewoundListeners.size()]);
+      structureHash = computeStructureHash(variables);
+   }
+
+   private static long computeStructureHash(YoVariable<?>[] variables)
+   {
+      // 64-bit FNV-1a hash of the names and types of the variables.
+      long hash = 0xcbf29ce484222325L;
+
+      for (YoVariable<?> variable : variables)
+      {
+         hash = hash(hash, variable.getFullNameWithNameSpace());
+         hash = hash(hash, variable.getYoVariableType().name());
+      }
+
+      return hash;
+   }
+
+   private static long hash(long hash, String string)
+   {
+      for (int i = 0; i < string.length(); i++)
+      {
+         hash ^= string.charAt(i);
+         hash *= 0x100000001b3L;
+      }
+
+      // Separator such that the names cannot be confused with their concatenation.
+      hash ^= 0xff;
+      hash *= 0x100000001b3L;
+      return hash;
+   }
+
+   /**
+    * Saves the current state of the robots in a new checkpoint.
+    *
+    * @return the checkpoint.
+    */
+   public SimulationCheckpoint save()
+   {
+      long[] values = new long[variables.length];
+
+      for (int i = 0; i < variables.length; i++)
+         values[i] = variables[i].getValueAsLongBits();
+
+      return new SimulationCheckpoint(structureHash, values);
+   }
+
+   /**
+    * Restores the state of the robots from the given checkpoint, updates the robots, and notifies
+    * the {@link RewoundListener}s of the robots.
+    *
+    * @param checkpoint the checkpoint to restore. Not modified.
+    * @throws RuntimeException if the checkpoint was not saved from robots with the same variables.
+    */
+   public void restore(SimulationCheckpoint checkpoint)
+   {
+      if (!isCompatible(checkpoint))
+         throw new RuntimeException("The checkpoint was saved from robots with different variables.");
+
+      long[] values = checkpoint.getValues();
+
+      for (int i = 0; i < variables.length; i++)
+         variables[i].setValueFromLongBits(values[i]);
+
+      for (Robot robot : robots)
+         robot.update();
+
+      for (RewoundListener rewoundListener : rewoundListeners)
+         rewoundListener.wasRewound();
+   }
+
+   /**
+    * @param checkpoint the checkpoint to check.
+    * @return whether the checkpoint was saved from robots with the same variables as the robots
+    *         of this checkpointer.
+    */
+   public boolean isCompatible(SimulationCheckpoint checkpoint)
+   {
+      return checkpoint.getStructureHash() == structureHash && checkpoint.getNumberOfVariables() == variables.length;
+   }
+
+   public Robot[] getRobots()
+   {
+      return robots;
+   }
+}
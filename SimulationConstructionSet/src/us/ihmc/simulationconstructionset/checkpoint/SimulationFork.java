@@ -0,0 +1,37 @@
+package us.ihmc.simulationconstructionset.checkpoint;
+
+import us.ihmc.simulationconstructionset.Simulation;
+
+/**
+ * Describes the simulations run in parallel by a {@link SimulationForkRunner} from a
+ * {@link SimulationCheckpoint}.
+ *
+ * @param <T> the type of the result of each fork.
+ */
+public interface SimulationFork<T>
+{
+   /**
+    * Creates a new simulation, with its robots and controllers, to run forks on. This is called
+    * once per thread of the {@link SimulationForkRunner}, possibly concurrently, so the simulations
+    * must not share any state.
+    * <p>
+    * The robots and controllers have to be created the same way as the ones the checkpoint was
+    * saved from, such that their variables are the same.
+    * </p>
+    *
+    * @return the new simulation.
+    */
+   public abstract Simulation createSimulation();
+
+   /**
+    * Runs one fork, for instance by applying a perturbation and simulating until the outcome is
+    * known. The state of the simulation has been restored from the checkpoint before this is
+    * called.
+    *
+    * @param forkIndex the index of the fork, in [0, numberOfForks[.
+    * @param simulation the simulation to run the fork on.
+    * @return the result of the fork.
+    * @throws Exception if the fork failed, which aborts all the forks.
+    */
+   public abstract T runFork(int forkIndex, Simulation simulation) throws Exception;
+}
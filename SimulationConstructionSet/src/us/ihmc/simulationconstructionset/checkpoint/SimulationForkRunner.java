@@ -0,0 +1,119 @@
+package us.ihmc.simulationconstructionset.checkpoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import us.ihmc.simulationconstructionset.Simulation;
+import us.ihmc.tools.thread.ThreadTools;
+
+/**
+ * Runs many simulations in parallel from the same {@link SimulationCheckpoint}, such that trials
+ * sharing the same beginning, as perturbation trials, only simulate that beginning once.
+ * <p>
+ * Each thread creates its own simulation once using {@link SimulationFork#createSimulation()} and
+ * then runs the forks one after the other, restoring the checkpoint before each of them.
+ * </p>
+ */
+public class SimulationForkRunner
+{
+   private final int numberOfThreads;
+
+   /**
+    * Creates a runner using one thread per available processor.
+    */
+   public SimulationForkRunner()
+   {
+      this(Runtime.getRuntime().availableProcessors());
+   }
+
+   public SimulationForkRunner(int numberOfThreads)
+   {
+      if (numberOfThreads < 1)
+         throw new RuntimeException("The number of threads has to be at least 1, but was: " + numberOfThreads);
+
+      this.numberOfThreads = numberOfThreads;
+   }
+
+   /**
+    * Runs {@code numberOfForks} forks from the given checkpoint and waits for all of them to be
+    * done.
+    *
+    * @param checkpoint the state to start each fork from. Not modified.
+    * @param numberOfForks the number of forks to run.
+    * @param fork creates the simulations and runs the forks.
+    * @return the results of the forks, in the order of their indices.
+    * @throws RuntimeException if a fork failed, or if the simulations created are not compatible
+    *            with the checkpoint.
+    */
+   public <T> List<T> run(SimulationCheckpoint checkpoint, int numberOfForks, SimulationFork<T> fork)
+   {
+      Object[] results = new Object[numberOfForks];
+      AtomicInteger nextForkIndex = new AtomicInteger(0);
+      int numberOfWorkers = Math.min(numberOfThreads, numberOfForks);
+
+      ExecutorService executor = Executors.newFixedThreadPool(Math.max(numberOfWorkers, 1), ThreadTools.getNamedThreadFactory(getClass().getSimpleName()));
+
+      try
+      {
+         List<Future<Void>> workers = new ArrayList<>();
+
+         for (int i = 0; i < numberOfWorkers; i++)
+         {
+            workers.add(executor.submit(new Callable<Void>()
+            {
+               @Override
+               public Void call() throws Exception
+               {
+                  Simulation simulation = fork.createSimulation();
+                  SimulationCheckpointer checkpointer = new SimulationCheckpointer(simulation.getRobots());
+
+                  int forkIndex;
+                  while ((forkIndex = nextForkIndex.getAndIncrement()) < numberOfForks)
+                  {
+                     checkpointer.restore(checkpoint);
+                     results[forkIndex] = fork.runFork(forkIndex, simulation);
+                  }
+
+                  simulation.closeAndDispose();
+                  return null;
+               }
+            }));
+         }
+
+         for (Future<Void> worker : workers)
+            worker.get();
+      }
+      catch (ExecutionException e)
+      {
+         // Stop the other workers as soon as possible.
+         nextForkIndex.set(numberOfForks);
+         throw new RuntimeException("A simulation fork failed.", e.getCause());
+      }
+      catch (InterruptedException e)
+      {
+         nextForkIndex.set(numberOfForks);
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Interrupted while running the simulation forks.", e);
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+
+      @SuppressWarnings("unchecked")
+      List<T> resultList = (List<T>) Arrays.asList(results);
+      return resultList;
+   }
+
+   public int getNumberOfThreads()
+   {
+      return numberOfThreads;
+   }
+}
@@ -12,6 +12,7 @@ import us.ihmc.geometry.polytope.ExpandingPolytopeAlgorithm;
 import us.ihmc.geometry.polytope.GilbertJohnsonKeerthiCollisionDetector;
 import us.ihmc.geometry.polytope.SimplexPolytope;
 import us.ihmc.geometry.polytope.SupportingVertexHolder;
+import us.ihmc.robotics.lists.RecyclingArrayList;
 import us.ihmc.simulationconstructionset.physics.CollisionShape;
 import us.ihmc.simulationconstructionset.physics.CollisionShapeDescription;
 import us.ihmc.simulationconstructionset.physics.CollisionShapeFactory;
@@ -55,6 +56,22 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
    private double percentChanceCheckCollision = 0.9;
 
 
+   private boolean useWarmStart = true;
+   // Last separating vector of each pair of objects, used as initial guess by GJK on the next tick.
+   private Vector3D[][] pairSeparatingVectors = null;
+   private Vector3D currentPairSeparatingVector = null;
+
+   /**
+    * When enabled, which is the default, the separating vector found by GJK for a pair of objects is remembered and
+    * used as initial guess for the same pair at the next call to {@link #performCollisionDetection(CollisionDetectionResult)}.
+    * As the objects move little between two ticks, GJK then converges in a few iterations.
+    */
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      this.useWarmStart = useWarmStart;
+      pairSeparatingVectors = null;
+   }
+
    public void setUseSimpleSpeedupMethod()
    {
       this.useSimpleSpeedupMethod = true;
@@ -77,6 +94,11 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
          haveCollided = new boolean[numberOfObjects][numberOfObjects];
       }
 
+      if (useWarmStart && ((pairSeparatingVectors == null) || (pairSeparatingVectors.length != numberOfObjects)))
+      {
+         resizePairSeparatingVectors(numberOfObjects);
+      }
+
       for (int i = 0; i < numberOfObjects; i++)
       {
          CollisionShape collisionShape = collisionObjects.get(i);
@@ -118,6 +140,13 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
             collisionChecks++;
             boolean areColliding = false;
 
+            if (useWarmStart)
+            {
+               if (pairSeparatingVectors[i][j] == null)
+                  pairSeparatingVectors[i][j] = new Vector3D(defaultInitialGuessOfSeparatingVector);
+               currentPairSeparatingVector = pairSeparatingVectors[i][j];
+            }
+
             //TODO: Make this shorter and more efficient...
             //TODO: Add Plane
             if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
@@ -242,6 +271,20 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
       }
    }
 
+   private void resizePairSeparatingVectors(int numberOfObjects)
+   {
+      Vector3D[][] previousPairSeparatingVectors = pairSeparatingVectors;
+      pairSeparatingVectors = new Vector3D[numberOfObjects][numberOfObjects];
+
+      if (previousPairSeparatingVectors == null)
+         return;
+
+      // Objects are only appended, so the previous pairs keep their indices.
+      int numberOfPreviousObjects = Math.min(previousPairSeparatingVectors.length, numberOfObjects);
+      for (int i = 0; i < numberOfPreviousObjects; i++)
+         System.arraycopy(previousPairSeparatingVectors[i], 0, pairSeparatingVectors[i], 0, numberOfPreviousObjects);
+   }
+
    public ArrayList<CollisionShape> getCollisionObjects()
    {
       return collisionObjects;
@@ -430,6 +473,14 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
    private final Point3D pointOnBToPack = new Point3D();
 
    private final Point3D centerOfSphere = new Point3D();
+   private final SupportingVertexHolder sphereAsSupportingVertexHolder = new SupportingVertexHolder()
+   {
+      @Override
+      public Point3D getSupportingVertex(Vector3D supportDirection)
+      {
+         return centerOfSphere;
+      }
+   };
 
    private boolean doSpherePolytopeCollisionDetection(CollisionShape objectOne, SphereShapeDescription<?> descriptionOne, CollisionShape objectTwo,
          PolytopeShapeDescription<?> descriptionTwo, CollisionDetectionResult result)
@@ -438,22 +489,32 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
       double sphereRadius = descriptionOne.getRadius();
       double polytopeSmoothingRadius = descriptionTwo.getSmoothingRadius();
 
-      //TODO: Remove trash generation...
-      SupportingVertexHolder sphereAsSupportingVertexHolder = new SupportingVertexHolder()
-      {
-         @Override
-         public Point3D getSupportingVertex(Vector3D supportDirection)
-         {
-            return centerOfSphere;
-         }
-      };
-
       return doPolytopePolytopeCollisionDetection(objectOne, sphereAsSupportingVertexHolder, sphereRadius, objectTwo, descriptionTwo.getPolytope(),
             polytopeSmoothingRadius, result);
    }
 
    private final LineSegment3D tempLineSegment = new LineSegment3D();
    private final Vector3D tempSegmentPointVector = new Vector3D();
+   private final SupportingVertexHolder capsuleAsSupportingVertexHolder = new SupportingVertexHolder()
+   {
+      @Override
+      public Point3D getSupportingVertex(Vector3D supportDirection)
+      {
+         Point3D tempSegmentPointOne = tempLineSegment.getFirstEndpoint();
+         Point3D tempSegmentPointTwo = tempLineSegment.getSecondEndpoint();
+
+         tempSegmentPointVector.set(tempSegmentPointOne);
+         double dotOne = tempSegmentPointVector.dot(supportDirection);
+
+         tempSegmentPointVector.set(tempSegmentPointTwo);
+         double dotTwo = tempSegmentPointVector.dot(supportDirection);
+
+         if (dotOne > dotTwo)
+            return tempSegmentPointOne;
+         else
+            return tempSegmentPointTwo;
+      }
+   };
 
    private boolean doCapsulePolytopeCollisionDetection(CollisionShape objectOne, CapsuleShapeDescription<?> descriptionOne, CollisionShape objectTwo,
          PolytopeShapeDescription<?> descriptionTwo, CollisionDetectionResult result)
@@ -467,41 +528,38 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
             SupportingVertexHolder descriptionTwo, double smoothingRadiusTwo, CollisionDetectionResult result)
       {
       descriptionOne.getLineSegment(tempLineSegment);
-      final Point3D tempSegmentPointOne = tempLineSegment.getFirstEndpoint();
-      final Point3D tempSegmentPointTwo = tempLineSegment.getSecondEndpoint();
 
       double capsuleRadius = descriptionOne.getRadius();
 
-      //TODO: Recycle object...
-      SupportingVertexHolder capsuleAsSupportingVertexHolder = new SupportingVertexHolder()
-      {
-         @Override
-         public Point3D getSupportingVertex(Vector3D supportDirection)
-         {
-            tempSegmentPointVector.set(tempSegmentPointOne);
-            double dotOne = tempSegmentPointVector.dot(supportDirection);
-
-            tempSegmentPointVector.set(tempSegmentPointTwo);
-            double dotTwo = tempSegmentPointVector.dot(supportDirection);
-
-            if (dotOne > dotTwo)
-               return tempSegmentPointOne;
-            else
-               return tempSegmentPointTwo;
-         }
-      };
-
       return doPolytopePolytopeCollisionDetection(objectOne, capsuleAsSupportingVertexHolder, capsuleRadius, objectTwo, descriptionTwo,
             smoothingRadiusTwo, result);
    }
 
+   private final Vector3D defaultInitialGuessOfSeparatingVector = new Vector3D(0.0, 0.0, 1.0);
+   private final Vector3D normalVector = new Vector3D();
+   private final Vector3D directionVector = new Vector3D();
+   private final Vector3D collisionNormal = new Vector3D();
+   private final Point3D contactOnA = new Point3D();
+   private final Point3D contactOnB = new Point3D();
+   private final RecyclingArrayList<Point3D> addedSimplexPoints = new RecyclingArrayList<>(Point3D.class);
+
    private boolean doPolytopePolytopeCollisionDetection(CollisionShape objectOne, SupportingVertexHolder supportingVertexHolderOne, double radiusOne,
          CollisionShape objectTwo, SupportingVertexHolder supportingVertexHolderTwo, double radiusTwo, CollisionDetectionResult result)
    {
-      boolean areColliding = gjkCollisionDetector.arePolytopesColliding(supportingVertexHolderOne, supportingVertexHolderTwo, pointOnAToPack, pointOnBToPack);
+      Vector3D initialGuessOfSeparatingVector = currentPairSeparatingVector != null ? currentPairSeparatingVector : defaultInitialGuessOfSeparatingVector;
+      currentPairSeparatingVector = null;
+      addedSimplexPoints.clear();
+
+      boolean areColliding = gjkCollisionDetector.arePolytopesColliding(initialGuessOfSeparatingVector, supportingVertexHolderOne, supportingVertexHolderTwo,
+                                                                        pointOnAToPack, pointOnBToPack);
 
       if (!areColliding)
       {
+         // The closest point of the Minkowski difference is its supporting vertex in the direction from A to B.
+         if (initialGuessOfSeparatingVector != defaultInitialGuessOfSeparatingVector)
+            rememberSeparatingVector(initialGuessOfSeparatingVector, pointOnBToPack.getX() - pointOnAToPack.getX(),
+                                     pointOnBToPack.getY() - pointOnAToPack.getY(), pointOnBToPack.getZ() - pointOnAToPack.getZ());
+
          double separationDistanceForContact = radiusOne + radiusTwo;
 
          double distanceSquared = pointOnAToPack.distanceSquared(pointOnBToPack);
@@ -512,7 +570,6 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
             //TODO: Find more than one point per object...
 
             SimpleContactWrapper contacts = new SimpleContactWrapper(objectOne, objectTwo);
-            Vector3D normalVector = new Vector3D();
             normalVector.sub(pointOnBToPack, pointOnAToPack);
 
             //TODO: Magic distance number...
@@ -521,10 +578,10 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
                normalVector.normalize();
                double distanceToReport = -pointOnAToPack.distance(pointOnBToPack); //0.001; //TODO: Do we even need this?
 
-               Point3D contactOnA = new Point3D(normalVector);
+               contactOnA.set(normalVector);
                contactOnA.scaleAdd(radiusOne, pointOnAToPack);
 
-               Point3D contactOnB = new Point3D(normalVector);
+               contactOnB.set(normalVector);
                contactOnB.scaleAdd(-radiusTwo, pointOnBToPack);
 
                contacts.addContact(contactOnA, contactOnB, normalVector, distanceToReport);
@@ -554,8 +611,6 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
             Point3D vertexOne = simplex.getPoint(0);
             Point3D vertexTwo = simplex.getPoint(1);
             
-            Vector3D directionVector = new Vector3D();
-            
             getNormalToLineSegment(vertexOne, vertexTwo, directionVector);
             tryAddingASimplexPointInThisSupportDirection(directionVector, supportingVertexHolderOne, supportingVertexHolderTwo, simplex);
          }
@@ -568,8 +623,6 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
             Point3D vertexTwo = simplex.getPoint(1);
             Point3D vertexThree = simplex.getPoint(2);
             
-            Vector3D directionVector = new Vector3D();
-            
             getNormalToFace(vertexOne, vertexTwo, vertexThree, directionVector);
             tryAddingASimplexPointInThisSupportDirection(directionVector, supportingVertexHolderOne, supportingVertexHolderTwo, simplex);
 
@@ -597,10 +650,12 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
             expandingPolytopeAlgorithm.setPolytopes(simplex, supportingVertexHolderOne, supportingVertexHolderTwo);
             try
             {
-               //TODO: Reduce trash here...
-               Vector3D collisionNormal = new Vector3D();
                expandingPolytopeAlgorithm.computeExpandedPolytope(collisionNormal, pointOnAToPack, pointOnBToPack);
 
+               // The penetration vector points toward the face the objects will separate through.
+               if (initialGuessOfSeparatingVector != defaultInitialGuessOfSeparatingVector)
+                  rememberSeparatingVector(initialGuessOfSeparatingVector, collisionNormal.getX(), collisionNormal.getY(), collisionNormal.getZ());
+
                //TODO: Magic number for normalize
                if (collisionNormal.lengthSquared() > 1e-6)
                {
@@ -608,7 +663,7 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
                   SimpleContactWrapper contacts = new SimpleContactWrapper(objectOne, objectTwo);
 
                   double distanceToReport = -pointOnAToPack.distance(pointOnBToPack); //TODO: Do we even need this?
-                  contacts.addContact(new Point3D(pointOnAToPack), new Point3D(pointOnBToPack), collisionNormal, distanceToReport);
+                  contacts.addContact(pointOnAToPack, pointOnBToPack, collisionNormal, distanceToReport);
                   result.addContact(contacts);
                }
             }
@@ -630,6 +685,13 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
       return false;
    }
    
+   private static void rememberSeparatingVector(Vector3D separatingVectorToPack, double x, double y, double z)
+   {
+      // Keep the previous guess when the objects are touching, the vector has no direction.
+      if (x * x + y * y + z * z > 1.0e-12)
+         separatingVectorToPack.set(x, y, z);
+   }
+
    private final Vector3D tempVector12 = new Vector3D();
    private final Vector3D tempVector13 = new Vector3D();
    private final Vector3D tempVector14 = new Vector3D();
@@ -651,11 +713,11 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
       return tripleProduct;
    }
 
+   private final Vector3D tempVector1 = new Vector3D();
+   private final Vector3D tempVector2 = new Vector3D();
+
    private void getNormalToLineSegment(Point3D vertexOne, Point3D vertexTwo, Vector3D normalToPack)
    {
-      Vector3D tempVector1 = new Vector3D();
-      Vector3D tempVector2 = new Vector3D();
-      
       tempVector1.sub(vertexTwo, vertexOne);
       
       double xMagnitude = Math.abs(tempVector1.getX());
@@ -680,9 +742,6 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
    
    private void getNormalToFace(Point3D vertexOne, Point3D vertexTwo, Point3D vertexThree, Vector3D normalToPack)
    {
-      Vector3D tempVector1 = new Vector3D();
-      Vector3D tempVector2 = new Vector3D();
-      
       tempVector1.sub(vertexTwo, vertexOne);
       tempVector2.sub(vertexThree, vertexOne);
       
@@ -696,7 +755,8 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
       supportDirection.negate();
       Point3D supportingVertexTwo = supportingVertexHolderTwo.getSupportingVertex(supportDirection);
       
-      Point3D simplexPointToAdd = new Point3D(supportingVertexOne);
+      Point3D simplexPointToAdd = addedSimplexPoints.add();
+      simplexPointToAdd.set(supportingVertexOne);
       simplexPointToAdd.sub(supportingVertexTwo);
       
       return simplex.addVertex(simplexPointToAdd, supportingVertexOne, supportingVertexTwo);
@@ -379,6 +379,72 @@ public class DataFileWriterTest
       fileOne.delete();
    }
 
+	@ContinuousIntegrationTest(estimatedDuration = 0.3)
+	@Test(timeout = 30000)
+   public void testWritingAndReadingAColumnarDataFile() throws IOException, RepeatDataBufferEntryException
+   {
+      File file = new File(TEST_DIRECTORY + "columnarFile" + ColumnarDataFileWriter.FILE_EXTENSION);
+
+      if (file.exists())
+         file.delete();
+
+      Random random = new Random(1776L);
+      ArrayList<YoVariable<?>> variables = createALargeNumberOfVariables(random, 200);
+
+      int bufferSize = 1000;
+      DataBuffer dataBuffer = new DataBuffer(bufferSize);
+      dataBuffer.addVariables(variables);
+
+      for (int i = 0; i < bufferSize; i++)
+      {
+         for (YoVariable<?> variable : variables)
+            variable.setValueFromDouble(random.nextDouble());
+         dataBuffer.tickAndUpdate();
+      }
+
+      // Write a subset of the variables, with small chunks to have several chunks per variable.
+      ArrayList<YoVariable<?>> variablesToWrite = new ArrayList<>();
+      for (int i = 0; i < variables.size(); i += 2)
+         variablesToWrite.add(variables.get(i));
+
+      double recordDT = 0.001;
+      new ColumnarDataFileWriter(file, 4, 64).write(recordDT, dataBuffer, variablesToWrite);
+
+      int numberOfPoints = dataBuffer.getBufferInOutLength();
+
+      DataFileReader dataFileReader = new DataFileReader(file);
+
+      try (ColumnarDataFileReader columnarDataFileReader = dataFileReader.openColumnarData())
+      {
+         assertEquals(variablesToWrite.size(), columnarDataFileReader.getNumberOfVariables());
+         assertEquals(numberOfPoints, columnarDataFileReader.getNumberOfPoints());
+         assertEquals(recordDT, columnarDataFileReader.getRecordDT(), 0.0);
+
+         // Read the columns lazily in reverse order.
+         for (int i = variablesToWrite.size() - 1; i >= 0; i--)
+         {
+            YoVariable<?> variable = variablesToWrite.get(i);
+            double[] expectedData = dataBuffer.getEntry(variable).getWindowedData(dataBuffer.getInPoint(), numberOfPoints);
+            assertArrayEquals(expectedData, columnarDataFileReader.readColumn(variable.getFullNameWithNameSpace()), 0.0);
+         }
+      }
+
+      YoVariableList newVarList = new YoVariableList("newVarList");
+      YoVariableRegistry registry = new YoVariableRegistry("rootRegistry");
+      DataBuffer newDataBuffer = new DataBuffer();
+      assertEquals(numberOfPoints, dataFileReader.readData(newVarList, registry, newDataBuffer));
+      assertEquals(variablesToWrite.size(), newVarList.size());
+
+      for (YoVariable<?> variable : variablesToWrite)
+      {
+         double[] expectedData = dataBuffer.getEntry(variable).getWindowedData(dataBuffer.getInPoint(), numberOfPoints);
+         DataBufferEntry newEntry = newDataBuffer.getEntry(newVarList.getVariable(variable.getName()));
+         assertArrayEquals(expectedData, newEntry.getWindowedData(0, numberOfPoints), 0.0);
+      }
+
+      file.delete();
+   }
+
    private void writeALongStateFile(File file, ArrayList<YoVariable<?>> variables)
    {
       DataFileWriter dataFileWriter = new DataFileWriter(file);
@@ -0,0 +1,160 @@
+package us.ihmc.simulationconstructionset;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.robotics.Axis;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.simulationconstructionset.util.LinearGroundContactModel;
+
+public class DynamicIntegrationMethodTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testFreeFallWithAllMethods() throws UnreasonableAccelerationException
+   {
+      double dt = 1.0e-3;
+      int numberOfTicks = 1000;
+
+      for (DynamicIntegrationMethod method : DynamicIntegrationMethod.values())
+      {
+         Robot robot = new Robot("fallingMass");
+         SliderJoint sliderJoint = new SliderJoint("slider", new Vector3D(), robot, Axis.Z);
+         Link link = new Link("mass");
+         link.setMass(1.0);
+         link.setMomentOfInertia(0.1, 0.1, 0.1);
+         sliderJoint.setLink(link);
+         robot.addRootJoint(sliderJoint);
+         robot.setDynamicIntegrationMethod(method);
+
+         for (int i = 0; i < numberOfTicks; i++)
+            robot.doDynamicsAndIntegrate(dt);
+
+         double time = dt * numberOfTicks;
+         assertEquals(method.toString(), time, robot.getTime(), 1.0e-9);
+         assertEquals(method.toString(), -9.81 * time, sliderJoint.getQDYoVariable().getDoubleValue(), 1.0e-9);
+
+         // The Euler methods have a first order position error, the Runge-Kutta methods are exact for a constant acceleration.
+         double epsilon = method.toString().contains("EULER") ? 9.81 * time * dt : 1.0e-9;
+         assertEquals(method.toString(), -0.5 * 9.81 * time * time, sliderJoint.getQYoVariable().getDoubleValue(), epsilon);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testAdaptiveStepMatchesFineRungeKuttaOnPendulum() throws UnreasonableAccelerationException
+   {
+      double duration = 2.0;
+
+      PinJoint reference = createPendulum(DynamicIntegrationMethod.RUNGE_KUTTA_FOURTH_ORDER);
+      Robot referenceRobot = reference.getRobot();
+      double referenceDT = 1.0e-5;
+      for (int i = 0; i < Math.round(duration / referenceDT); i++)
+         referenceRobot.doDynamicsAndIntegrate(referenceDT);
+
+      PinJoint adaptive = createPendulum(DynamicIntegrationMethod.RUNGE_KUTTA_ADAPTIVE_STEP);
+      Robot adaptiveRobot = adaptive.getRobot();
+      adaptiveRobot.setAdaptiveIntegrationTolerance(1.0e-9);
+      double coarseDT = 1.0e-2;
+      for (int i = 0; i < Math.round(duration / coarseDT); i++)
+         adaptiveRobot.doDynamicsAndIntegrate(coarseDT);
+
+      assertEquals(duration, adaptiveRobot.getTime(), 1.0e-9);
+      assertEquals(reference.getQYoVariable().getDoubleValue(), adaptive.getQYoVariable().getDoubleValue(), 1.0e-6);
+      assertEquals(reference.getQDYoVariable().getDoubleValue(), adaptive.getQDYoVariable().getDoubleValue(), 1.0e-6);
+      assertTrue(adaptiveRobot.getVariable("adaptiveIntegrationNumberOfSubsteps").getValueAsDouble() > 1.0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testAdaptiveStepVariablesAreCreatedWithTheRobot()
+   {
+      Robot robot = new Robot("robot");
+      int numberOfVariables = robot.getRobotsYoVariableRegistry().getAllVariablesArray().length;
+      assertNotNull(robot.getVariable("adaptiveIntegrationNumberOfSubsteps"));
+      assertNotNull(robot.getVariable("adaptiveIntegrationNumberOfRejectedSubsteps"));
+
+      // Choosing the method does not change the variables of the robot, which may already be recorded.
+      robot.setDynamicIntegrationMethod(DynamicIntegrationMethod.RUNGE_KUTTA_ADAPTIVE_STEP);
+      assertEquals(numberOfVariables, robot.getRobotsYoVariableRegistry().getAllVariablesArray().length);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testAdaptiveStepMatchesFineRungeKuttaWithGroundContact() throws UnreasonableAccelerationException
+   {
+      double duration = 1.0;
+
+      SliderJoint reference = createBouncingMass(DynamicIntegrationMethod.RUNGE_KUTTA_FOURTH_ORDER);
+      double referenceDT = 1.0e-5;
+      for (int i = 0; i < Math.round(duration / referenceDT); i++)
+         simulateTick(reference.getRobot(), referenceDT);
+
+      SliderJoint adaptive = createBouncingMass(DynamicIntegrationMethod.RUNGE_KUTTA_ADAPTIVE_STEP);
+      Robot adaptiveRobot = adaptive.getRobot();
+      adaptiveRobot.setAdaptiveIntegrationTolerance(1.0e-9);
+      double coarseDT = 1.0e-3;
+      int numberOfRejectedSubsteps = 0;
+      for (int i = 0; i < Math.round(duration / coarseDT); i++)
+      {
+         simulateTick(adaptiveRobot, coarseDT);
+         numberOfRejectedSubsteps += (int) adaptiveRobot.getVariable("adaptiveIntegrationNumberOfRejectedSubsteps").getValueAsDouble();
+      }
+
+      // The contact makes the integrator reject substeps, which have to undo the changes of the ground contact model.
+      assertTrue(numberOfRejectedSubsteps > 0);
+      assertEquals(duration, adaptiveRobot.getTime(), 1.0e-9);
+      assertEquals(reference.getQYoVariable().getDoubleValue(), adaptive.getQYoVariable().getDoubleValue(), 1.0e-4);
+      assertEquals(reference.getQDYoVariable().getDoubleValue(), adaptive.getQDYoVariable().getDoubleValue(), 1.0e-3);
+      // At rest on the ground spring.
+      assertEquals(-9.81 / 2000.0, adaptive.getQYoVariable().getDoubleValue(), 1.0e-4);
+   }
+
+   /**
+    * Same sequence as the {@link Simulator}: the ground contact is evaluated once before the integration of each tick.
+    */
+   private static void simulateTick(Robot robot, double dt) throws UnreasonableAccelerationException
+   {
+      robot.updateVelocities();
+      robot.updateAllGroundContactPointVelocities();
+      robot.getGroundContactModel().doGroundContact();
+      robot.decideGroundContactPointsInContact();
+      robot.doDynamicsAndIntegrate(dt);
+   }
+
+   private static SliderJoint createBouncingMass(DynamicIntegrationMethod method)
+   {
+      Robot robot = new Robot("bouncingMass");
+      SliderJoint sliderJoint = new SliderJoint("slider", new Vector3D(), robot, Axis.Z);
+      Link link = new Link("mass");
+      link.setMass(1.0);
+      link.setMomentOfInertia(0.1, 0.1, 0.1);
+      sliderJoint.setLink(link);
+      sliderJoint.addGroundContactPoint(new GroundContactPoint("gc", robot));
+      robot.addRootJoint(sliderJoint);
+      robot.setGroundContactModel(new LinearGroundContactModel(robot, 2000.0, 100.0, 2000.0, 100.0, new YoVariableRegistry("groundModel")));
+      robot.setDynamicIntegrationMethod(method);
+      sliderJoint.getQYoVariable().set(0.05);
+
+      return sliderJoint;
+   }
+
+   private static PinJoint createPendulum(DynamicIntegrationMethod method)
+   {
+      Robot robot = new Robot("pendulum");
+      PinJoint pinJoint = new PinJoint("pin", new Vector3D(), robot, Axis.Y);
+      Link link = new Link("bob");
+      link.setMass(1.0);
+      link.setMomentOfInertia(0.01, 0.01, 0.01);
+      link.setComOffset(0.0, 0.0, -1.0);
+      pinJoint.setLink(link);
+      robot.addRootJoint(pinJoint);
+      robot.setDynamicIntegrationMethod(method);
+      pinJoint.getQYoVariable().set(1.0);
+
+      return pinJoint;
+   }
+}
@@ -0,0 +1,201 @@
+package us.ihmc.simulationconstructionset.checkpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.robotics.Axis;
+import us.ihmc.robotics.dataStructures.registry.YoVariableRegistry;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.robotics.dataStructures.variable.IntegerYoVariable;
+import us.ihmc.robotics.robotController.RobotController;
+import us.ihmc.simulationconstructionset.Link;
+import us.ihmc.simulationconstructionset.PinJoint;
+import us.ihmc.simulationconstructionset.Robot;
+import us.ihmc.simulationconstructionset.Simulation;
+import us.ihmc.simulationconstructionset.UnreasonableAccelerationException;
+
+public class SimulationCheckpointerTest
+{
+   private static final double DT = 1.0e-3;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testRestoreReproducesTheSimulation() throws UnreasonableAccelerationException
+   {
+      Simulation simulation = createSimulation();
+      Robot robot = simulation.getRobots()[0];
+      PinJoint pinJoint = (PinJoint) robot.getRootJoints().get(0);
+      simulation.simulate(300);
+
+      SimulationCheckpointer checkpointer = new SimulationCheckpointer(robot);
+      SimulationCheckpoint checkpoint = checkpointer.save();
+      double qAtCheckpoint = pinJoint.getQYoVariable().getDoubleValue();
+      double timeAtCheckpoint = robot.getTime();
+
+      simulation.simulate(500);
+      double qAfter = pinJoint.getQYoVariable().getDoubleValue();
+      int numberOfControlTicks = ((IntegerYoVariable) robot.getVariable("numberOfControlTicks")).getIntegerValue();
+
+      checkpointer.restore(SimulationCheckpoint.fromByteArray(checkpoint.toByteArray()));
+      assertEquals(qAtCheckpoint, pinJoint.getQYoVariable().getDoubleValue(), 0.0);
+      assertEquals(timeAtCheckpoint, robot.getTime(), 0.0);
+
+      simulation.simulate(500);
+      assertEquals(qAfter, pinJoint.getQYoVariable().getDoubleValue(), 0.0);
+      assertEquals(numberOfControlTicks, ((IntegerYoVariable) robot.getVariable("numberOfControlTicks")).getIntegerValue());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testIncompatibleCheckpoint()
+   {
+      SimulationCheckpoint checkpoint = new SimulationCheckpointer(createSimulation().getRobots()).save();
+
+      Robot otherRobot = createSimulation().getRobots()[0];
+      new DoubleYoVariable("extraVariable", otherRobot.getRobotsYoVariableRegistry());
+      SimulationCheckpointer otherCheckpointer = new SimulationCheckpointer(otherRobot);
+      assertFalse(otherCheckpointer.isCompatible(checkpoint));
+
+      try
+      {
+         otherCheckpointer.restore(checkpoint);
+         fail("A checkpoint cannot be restored on robots with different variables.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+
+      byte[] data = checkpoint.toByteArray();
+      data[7]++;
+
+      try
+      {
+         SimulationCheckpoint.fromByteArray(data);
+         fail("Data written with another version of the format cannot be read.");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testForksMatchSequentialSimulations() throws UnreasonableAccelerationException
+   {
+      int numberOfForks = 12;
+      int numberOfTicksPerFork = 400;
+
+      Simulation simulation = createSimulation();
+      simulation.simulate(250);
+      SimulationCheckpointer checkpointer = new SimulationCheckpointer(simulation.getRobots());
+      SimulationCheckpoint checkpoint = checkpointer.save();
+
+      SimulationFork<Double> fork = new SimulationFork<Double>()
+      {
+         @Override
+         public Simulation createSimulation()
+         {
+            return SimulationCheckpointerTest.createSimulation();
+         }
+
+         @Override
+         public Double runFork(int forkIndex, Simulation simulation) throws Exception
+         {
+            Robot robot = simulation.getRobots()[0];
+            ((DoubleYoVariable) robot.getVariable("pushTorque")).set(0.5 * forkIndex);
+            simulation.simulate(numberOfTicksPerFork);
+            return ((PinJoint) robot.getRootJoints().get(0)).getQYoVariable().getDoubleValue();
+         }
+      };
+
+      List<Double> results = new SimulationForkRunner(3).run(checkpoint, numberOfForks, fork);
+      assertEquals(numberOfForks, results.size());
+
+      for (int forkIndex = 0; forkIndex < numberOfForks; forkIndex++)
+      {
+         checkpointer.restore(checkpoint);
+
+         try
+         {
+            double expected = fork.runFork(forkIndex, simulation);
+            assertEquals(expected, results.get(forkIndex), 0.0);
+         }
+         catch (Exception e)
+         {
+            throw new RuntimeException(e);
+         }
+      }
+   }
+
+   private static Simulation createSimulation()
+   {
+      Robot robot = new Robot("pendulum");
+      PinJoint pinJoint = new PinJoint("pin", new Vector3D(), robot, Axis.Y);
+      Link link = new Link("bob");
+      link.setMass(1.0);
+      link.setMomentOfInertia(0.01, 0.01, 0.01);
+      link.setComOffset(0.0, 0.0, -1.0);
+      pinJoint.setLink(link);
+      robot.addRootJoint(pinJoint);
+      pinJoint.getQYoVariable().set(1.0);
+      robot.setController(new DampingController(pinJoint));
+
+      Simulation simulation = new Simulation(robot, 16);
+      simulation.setDT(DT, 1);
+      return simulation;
+   }
+
+   private static class DampingController implements RobotController
+   {
+      private final YoVariableRegistry registry = new YoVariableRegistry(getName());
+      private final DoubleYoVariable damping = new DoubleYoVariable("damping", registry);
+      private final DoubleYoVariable pushTorque = new DoubleYoVariable("pushTorque", registry);
+      private final IntegerYoVariable numberOfControlTicks = new IntegerYoVariable("numberOfControlTicks", registry);
+      private final PinJoint pinJoint;
+
+      public DampingController(PinJoint pinJoint)
+      {
+         this.pinJoint = pinJoint;
+         damping.set(0.2);
+      }
+
+      @Override
+      public void initialize()
+      {
+      }
+
+      @Override
+      public YoVariableRegistry getYoVariableRegistry()
+      {
+         return registry;
+      }
+
+      @Override
+      public String getName()
+      {
+         return getClass().getSimpleName();
+      }
+
+      @Override
+      public String getDescription()
+      {
+         return getName();
+      }
+
+      @Override
+      public void doControl()
+      {
+         numberOfControlTicks.increment();
+         pinJoint.setTau(pushTorque.getDoubleValue() - damping.getDoubleValue() * pinJoint.getQDYoVariable().getDoubleValue());
+      }
+   }
+}
@@ -0,0 +1,129 @@
+package us.ihmc.simulationconstructionset.microbenchmarks;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.robotics.dataStructures.variable.DoubleYoVariable;
+import us.ihmc.simulationconstructionset.DynamicIntegrationMethod;
+import us.ihmc.simulationconstructionset.Robot;
+import us.ihmc.simulationconstructionset.UnreasonableAccelerationException;
+import us.ihmc.simulationconstructionset.examples.FallingBrickRobot;
+
+/**
+ * Compares wall-clock time against trajectory error for the different {@link DynamicIntegrationMethod}s.
+ * The falling brick bouncing on the stiff {@code LinearGroundContactModel} is simulated with each method at
+ * several DTs and compared to a fourth order Runge-Kutta reference run at a very small DT.
+ */
+public class BenchmarkDynamicIntegrationMethods
+{
+   private static final double SIMULATION_DURATION = 2.0;
+   private static final double SAMPLE_PERIOD = 1.0e-3;
+   private static final double REFERENCE_DT = 1.0e-5;
+   private static final double[] DTS = {1.0e-4, 2.0e-4, 5.0e-4, 1.0e-3};
+   private static final int NUMBER_OF_SAMPLES = (int) Math.round(SIMULATION_DURATION / SAMPLE_PERIOD);
+
+   public static void main(String[] args)
+   {
+      new BenchmarkDynamicIntegrationMethods();
+   }
+
+   public BenchmarkDynamicIntegrationMethods()
+   {
+      double[][] referenceTrajectory = new double[NUMBER_OF_SAMPLES][3];
+      simulate(DynamicIntegrationMethod.RUNGE_KUTTA_FOURTH_ORDER, REFERENCE_DT, referenceTrajectory);
+
+      StringBuilder result = new StringBuilder();
+
+      for (DynamicIntegrationMethod method : DynamicIntegrationMethod.values())
+      {
+         for (double dt : DTS)
+         {
+            double[][] trajectory = new double[NUMBER_OF_SAMPLES][3];
+
+            // Warm up the JIT before timing.
+            simulate(method, dt, trajectory);
+
+            long start = System.nanoTime();
+            boolean succeeded = simulate(method, dt, trajectory);
+            long duration = System.nanoTime() - start;
+
+            result.append(method).append(", dt = ").append(dt).append(": ");
+
+            if (succeeded)
+            {
+               result.append(Conversions.nanosecondsToSeconds(duration)).append("s, maximum position error = ");
+               result.append(computeMaximumError(referenceTrajectory, trajectory)).append("m");
+            }
+            else
+            {
+               result.append("unstable");
+            }
+
+            result.append(System.lineSeparator());
+         }
+      }
+
+      System.out.println(result);
+   }
+
+   private static boolean simulate(DynamicIntegrationMethod method, double dt, double[][] trajectoryToPack)
+   {
+      FallingBrickRobot robot = new FallingBrickRobot();
+      robot.setDynamicIntegrationMethod(method);
+
+      DoubleYoVariable q_x = (DoubleYoVariable) robot.getVariable("q_x");
+      DoubleYoVariable q_y = (DoubleYoVariable) robot.getVariable("q_y");
+      DoubleYoVariable q_z = (DoubleYoVariable) robot.getVariable("q_z");
+
+      int ticksPerSample = (int) Math.round(SAMPLE_PERIOD / dt);
+
+      try
+      {
+         for (int sample = 0; sample < NUMBER_OF_SAMPLES; sample++)
+         {
+            for (int tick = 0; tick < ticksPerSample; tick++)
+               doTick(robot, dt);
+
+            trajectoryToPack[sample][0] = q_x.getDoubleValue();
+            trajectoryToPack[sample][1] = q_y.getDoubleValue();
+            trajectoryToPack[sample][2] = q_z.getDoubleValue();
+         }
+      }
+      catch (UnreasonableAccelerationException e)
+      {
+         return false;
+      }
+
+      return true;
+   }
+
+   /**
+    * Same sequence as {@code Simulator.simulate()} without the controllers.
+    */
+   private static void doTick(Robot robot, double dt) throws UnreasonableAccelerationException
+   {
+      robot.updateVelocities();
+      robot.updateAllGroundContactPointVelocities();
+      robot.getGroundContactModel().doGroundContact();
+      robot.decideGroundContactPointsInContact();
+      robot.doDynamicsAndIntegrate(dt);
+   }
+
+   private static double computeMaximumError(double[][] referenceTrajectory, double[][] trajectory)
+   {
+      double maximumError = 0.0;
+
+      for (int sample = 0; sample < NUMBER_OF_SAMPLES; sample++)
+      {
+         double dx = trajectory[sample][0] - referenceTrajectory[sample][0];
+         double dy = trajectory[sample][1] - referenceTrajectory[sample][1];
+         double dz = trajectory[sample][2] - referenceTrajectory[sample][2];
+         double error = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+         if (Double.isNaN(error))
+            return Double.POSITIVE_INFINITY;
+
+         maximumError = Math.max(maximumError, error);
+      }
+
+      return maximumError;
+   }
+}
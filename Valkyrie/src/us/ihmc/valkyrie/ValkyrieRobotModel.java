@@ -30,15 +30,13 @@ import us.ihmc.humanoidRobotics.footstep.footstepGenerator.FootstepPlanningParam
 import us.ihmc.humanoidRobotics.footstep.footstepSnapper.FootstepSnappingParameters;
 import us.ihmc.ihmcPerception.depthData.CollisionBoxProvider;
 import us.ihmc.jMonkeyEngineToolkit.jme.util.JMEGeometryUtils;
-import us.ihmc.modelFileLoaders.SdfLoader.DRCRobotSDFLoader;
 import us.ihmc.modelFileLoaders.SdfLoader.GeneralizedSDFRobotModel;
-import us.ihmc.modelFileLoaders.SdfLoader.JaxbSDFLoader;
-import us.ihmc.modelFileLoaders.SdfLoader.RobotDescriptionFromSDFLoader;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFContactSensor;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFDescriptionMutator;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFForceSensor;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFJointHolder;
 import us.ihmc.modelFileLoaders.SdfLoader.SDFLinkHolder;
+import us.ihmc.modelFileLoaders.SdfLoader.SDFRobotDescriptionCache;
 import us.ihmc.modelFileLoaders.SdfLoader.xmlDescription.SDFSensor;
 import us.ihmc.multicastLogDataProtocol.modelLoaders.LogModelProvider;
 import us.ihmc.multicastLogDataProtocol.modelLoaders.SDFLogModelProvider;
@@ -101,7 +99,7 @@ public class ValkyrieRobotModel implements DRCRobotModel, SDFDescriptionMutator
             };
    }
 
-   private final JaxbSDFLoader loader;
+   private final SDFRobotDescriptionCache loader;
    private final RobotDescription robotDescription;
 
    private boolean enableJointDamping = true;
@@ -153,7 +151,7 @@ public class ValkyrieRobotModel implements DRCRobotModel, SDFDescriptionMutator
 
       }
 
-      this.loader = DRCRobotSDFLoader.loadDRCRobot(getResourceDirectories(), sdf, this);
+      this.loader = new SDFRobotDescriptionCache(getResourceDirectories(), sdf, this, model);
 
       for (String forceSensorNames : ValkyrieSensorInformation.forceSensorNames)
       {
@@ -192,10 +190,7 @@ public class ValkyrieRobotModel implements DRCRobotModel, SDFDescriptionMutator
    {
       boolean useCollisionMeshes = false;
 
-      GeneralizedSDFRobotModel generalizedSDFRobotModel = getGeneralizedRobotModel();
-      RobotDescriptionFromSDFLoader descriptionLoader = new RobotDescriptionFromSDFLoader();
-      RobotDescription robotDescription = descriptionLoader.loadRobotDescriptionFromSDF(generalizedSDFRobotModel, jointMap, contactPointParameters, useCollisionMeshes);
-      return robotDescription;
+      return loader.createRobotDescription(jointMap, contactPointParameters, useCollisionMeshes);
    }
 
    @Override
@@ -401,7 +396,7 @@ public class ValkyrieRobotModel implements DRCRobotModel, SDFDescriptionMutator
 
    public GeneralizedSDFRobotModel getGeneralizedRobotModel()
    {
-      return loader.getGeneralizedSDFRobotModel(getJointMap().getModelName());
+      return loader.getSDFLoader().getGeneralizedSDFRobotModel(getJointMap().getModelName());
    }
 
    @Override